@@ -0,0 +1,77 @@
+package com.gllue.myproxy.common.generator;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Contention benchmark of the ID generators. Run it with the different number of threads, e.g.
+ * {@code ./gradlew jmh -PjmhThreads=64}, an operation generates a batch of {@code batchSize} IDs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IdGeneratorBenchmark {
+  @Param({"1", "100", "10000"})
+  int batchSize;
+
+  SnowflakeIdGenerator generator;
+  MonitorIdGenerator monitorGenerator;
+
+  /** The previous generator which serializes on a monitor, it's kept as the baseline. */
+  static class MonitorIdGenerator implements IdGenerator {
+    private static final long START_TIMESTAMP = 1639830490000L;
+    private static final long SEQUENCE_ID_MASK = ~(-1L << 14);
+
+    private long sequenceId = 0L;
+    private long lastTimestamp = -1L;
+
+    @Override
+    public synchronized long nextId() {
+      var timestamp = System.currentTimeMillis();
+      if (timestamp == lastTimestamp) {
+        sequenceId = (sequenceId + 1) & SEQUENCE_ID_MASK;
+        if (sequenceId == 0) {
+          while (timestamp <= lastTimestamp) {
+            timestamp = System.currentTimeMillis();
+          }
+        }
+      } else {
+        sequenceId = 0;
+      }
+      lastTimestamp = timestamp;
+      return ((timestamp - START_TIMESTAMP) << 22) | (1L << 14) | sequenceId;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    generator = new SnowflakeIdGenerator(1);
+    monitorGenerator = new MonitorIdGenerator();
+  }
+
+  @Benchmark
+  public long[] nextIds() {
+    return generator.nextIds(batchSize);
+  }
+
+  @Benchmark
+  public long[] nextIdsOneByOne() {
+    var ids = new long[batchSize];
+    for (int i = 0; i < batchSize; i++) {
+      ids[i] = generator.nextId();
+    }
+    return ids;
+  }
+
+  @Benchmark
+  public long[] monitorNextIds() {
+    return monitorGenerator.nextIds(batchSize);
+  }
+}
@@ -0,0 +1,101 @@
+package com.gllue.myproxy.transport.backend.command;
+
+import com.gllue.myproxy.transport.protocol.packet.query.ResultPacketClassifier;
+import com.gllue.myproxy.transport.protocol.packet.query.ResultPacketClassifier.ResultPacketType;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import com.gllue.myproxy.transport.protocol.payload.WrappedPayloadPacket;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmark of the rows forwarded by the direct transfer query result reader, an operation
+ * classifies and forwards {@code rowCount} rows. Run it with the GC profiler to measure the
+ * allocation rate (gc.alloc.rate.norm) of the pooled and the non-pooled paths, e.g. {@code
+ * ./gradlew jmh -PjmhProfilers=gc}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DirectTransferBenchmark {
+  @Param({"1", "100", "10000"})
+  int rowCount;
+
+  ByteBuf row;
+  ByteBuf out;
+
+  /** The previous packet which holds a non-pooled payload, it's kept as the baseline. */
+  static class PayloadPacket {
+    final MySQLPayload payload;
+
+    PayloadPacket(final MySQLPayload payload) {
+      this.payload = payload;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    var payload = new MySQLPayload(PooledByteBufAllocator.DEFAULT.buffer());
+    payload.writeStringLenenc("1");
+    payload.writeStringLenenc("name");
+    payload.writeStringLenenc("2021-12-18 12:00:00");
+    row = payload.getByteBuf();
+    out = PooledByteBufAllocator.DEFAULT.buffer();
+  }
+
+  @TearDown
+  public void tearDown() {
+    row.release();
+    out.release();
+  }
+
+  @Benchmark
+  public int pooledTransfer() {
+    for (int i = 0; i < rowCount; i++) {
+      var payload = MySQLPayload.newInstance(row.retainedDuplicate());
+      if (ResultPacketClassifier.classify(payload, false) == ResultPacketType.DATA) {
+        var packet = WrappedPayloadPacket.newInstance(payload.getByteBuf().retain());
+        try {
+          write(packet.getByteBuf());
+        } finally {
+          packet.release();
+        }
+      }
+      payload.close();
+    }
+    return out.clear().capacity();
+  }
+
+  @Benchmark
+  public int unpooledTransfer() {
+    for (int i = 0; i < rowCount; i++) {
+      var payload = new MySQLPayload(row.retainedDuplicate());
+      if (ResultPacketClassifier.classify(payload, false) == ResultPacketType.DATA) {
+        payload.retain();
+        var packet = new PayloadPacket(payload);
+        try {
+          write(packet.payload.getByteBuf());
+        } finally {
+          packet.payload.close();
+        }
+      }
+      payload.close();
+    }
+    return out.clear().capacity();
+  }
+
+  private void write(final ByteBuf buf) {
+    out.writeMediumLE(buf.readableBytes());
+    out.writeByte(0);
+    out.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+  }
+}
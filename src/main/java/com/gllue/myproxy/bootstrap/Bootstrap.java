@@ -1,10 +1,12 @@
 package com.gllue.myproxy.bootstrap;
 
 import com.gllue.myproxy.cluster.ClusterStateInitializer;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJobInitializer;
 import com.gllue.myproxy.common.Initializer;
 import com.gllue.myproxy.common.concurrent.ThreadPoolInitializer;
 import com.gllue.myproxy.common.generator.IdGeneratorInitializer;
 import com.gllue.myproxy.repository.zookeeper.ZookeeperInitializer;
+import com.gllue.myproxy.route.DatabaseRouteTableInitializer;
 import com.gllue.myproxy.transport.backend.BackendServer;
 import com.gllue.myproxy.transport.core.service.TransportServiceInitializer;
 import com.gllue.myproxy.transport.frontend.FrontendServer;
@@ -26,8 +28,10 @@ public final class Bootstrap {
         new ZookeeperInitializer(),
         new TransportServiceInitializer(),
         new ClusterStateInitializer(),
+        new DatabaseRouteTableInitializer(),
         new IdGeneratorInitializer(),
         backendServer,
+        new PartitionTableDDLJobInitializer(),
         frontendServer,
       };
 
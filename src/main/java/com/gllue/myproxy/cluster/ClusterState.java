@@ -1,5 +1,6 @@
 package com.gllue.myproxy.cluster;
 
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveRegistry;
 import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
 import lombok.Getter;
 
@@ -9,6 +10,8 @@ public class ClusterState {
   private final ClusterNode current;
   private final ClusterNode[] nodes;
   private final MultiDatabasesMetaData metaData;
+  private final ExtensionColumnMoveRegistry extensionColumnMoves =
+      new ExtensionColumnMoveRegistry();
 
   public ClusterState(
       final ClusterNode current, final ClusterNode[] nodes, final MultiDatabasesMetaData metaData) {
@@ -1,8 +1,12 @@
 package com.gllue.myproxy.cluster;
 
 import com.gllue.myproxy.bootstrap.ServerContext;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveLoader;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveRegistry;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveWatcher;
 import com.gllue.myproxy.common.Initializer;
 import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.constant.ServerConstants;
 import com.gllue.myproxy.metadata.loader.MultiDatabasesMetaDataLoader;
 import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
@@ -25,6 +29,20 @@ public class ClusterStateInitializer implements Initializer {
     }
   }
 
+  public static String getColumnMoveBasePath(final Configurations configurations) {
+    var rootPath = PathUtils.getRootPath(configurations);
+    return PathUtils.joinPaths(rootPath, ServerConstants.COLUMN_MOVES_ROOT_PATH);
+  }
+
+  private void loadExtensionColumnMoves(
+      PersistRepository repository, String basePath, ExtensionColumnMoveRegistry registry) {
+    new ExtensionColumnMoveLoader(repository).load(basePath, registry);
+    if (repository instanceof ClusterPersistRepository) {
+      var clusterRepo = (ClusterPersistRepository) repository;
+      new ExtensionColumnMoveWatcher(basePath, registry, clusterRepo).watch();
+    }
+  }
+
   @Override
   public void initialize(ServerContext context) {
     var loader = new MultiDatabasesMetaDataLoader(context.getPersistRepository());
@@ -35,6 +53,10 @@ public class ClusterStateInitializer implements Initializer {
     var node = new ClusterNode(1);
     var clusterState = new ClusterState(node, new ClusterNode[] {node}, databasesMetaData);
     watchDatabasesMetaDataChangeEvent(context.getPersistRepository(), dbBasePath, databasesMetaData);
+    loadExtensionColumnMoves(
+        context.getPersistRepository(),
+        getColumnMoveBasePath(context.getConfigurations()),
+        clusterState.getExtensionColumnMoves());
     context.setClusterState(clusterState);
   }
 
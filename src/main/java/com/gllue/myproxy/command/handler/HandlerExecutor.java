@@ -1,31 +1,121 @@
 package com.gllue.myproxy.command.handler;
 
+import com.gllue.myproxy.command.handler.admission.AdmissionController;
+import com.gllue.myproxy.command.handler.admission.AdmissionRejectedException;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.AbstractRunnable;
+import com.gllue.myproxy.common.concurrent.AffinityRunnable;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
+import javax.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 public class HandlerExecutor {
+  /** The statements which end a transaction or release the table locks. */
+  private static final String[] TRANSACTION_END_KEYWORDS = {
+    "COMMIT", "ROLLBACK", "SAVEPOINT", "RELEASE", "UNLOCK"
+  };
+
   private final ThreadPool threadPool;
+  @Nullable private final AdmissionController admissionController;
 
   public HandlerExecutor(final ThreadPool threadPool) {
+    this(threadPool, null);
+  }
+
+  public HandlerExecutor(
+      final ThreadPool threadPool, @Nullable final AdmissionController admissionController) {
     this.threadPool = threadPool;
+    this.admissionController = admissionController;
   }
 
   public <Request extends HandlerRequest> void execute(
       CommandHandler<Request> handler, Request request, Callback<HandlerResult> callback) {
+    if (admissionController == null || bypassAdmission(request)) {
+      submit(handler, request, callback);
+      return;
+    }
+
+    try {
+      admissionController.execute(
+          tenantOf(request),
+          (release) -> {
+            try {
+              submit(handler, request, releaseOnCompletion(callback, release));
+            } catch (Exception e) {
+              release.run();
+              callback.onFailure(e);
+            }
+          });
+    } catch (AdmissionRejectedException e) {
+      callback.onFailure(e);
+    }
+  }
+
+  private <Request extends HandlerRequest> void submit(
+      CommandHandler<Request> handler, Request request, Callback<HandlerResult> callback) {
     threadPool.executor(Name.COMMAND).submit(new HandlerRunner<>(handler, request, callback));
   }
 
+  /**
+   * The requests of a session which holds a transaction or table locks are never queued, otherwise
+   * the requests of the same tenant blocked by the locks could occupy all the admission slots, and
+   * the statement which releases the locks would wait for them forever.
+   */
+  private boolean bypassAdmission(HandlerRequest request) {
+    if (!(request instanceof QueryHandlerRequest)) {
+      return false;
+    }
+
+    var queryRequest = (QueryHandlerRequest) request;
+    var sessionContext = queryRequest.getSessionContext();
+    return sessionContext.isTransactionOpened()
+        || sessionContext.getBoundStates().contains(BoundState.TABLE_LOCK)
+        || SQLStatementUtils.startsWithKeyword(queryRequest.getQuery(), TRANSACTION_END_KEYWORDS);
+  }
+
+  private String tenantOf(HandlerRequest request) {
+    String user = null;
+    if (request instanceof QueryHandlerRequest) {
+      user = ((QueryHandlerRequest) request).getSessionContext().currentUser();
+    }
+    return AdmissionController.tenantOf(request.getDatasource(), request.getDatabase(), user);
+  }
+
+  private Callback<HandlerResult> releaseOnCompletion(
+      Callback<HandlerResult> callback, Runnable release) {
+    return new Callback<>() {
+      @Override
+      public void onSuccess(HandlerResult result) {
+        release.run();
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        release.run();
+        callback.onFailure(e);
+      }
+    };
+  }
+
   @Slf4j
   @RequiredArgsConstructor
-  static class HandlerRunner<Request extends HandlerRequest> extends AbstractRunnable {
+  static class HandlerRunner<Request extends HandlerRequest> extends AbstractRunnable
+      implements AffinityRunnable {
     private final CommandHandler<Request> handler;
     private final Request request;
     private final Callback<HandlerResult> callback;
 
+    @Override
+    public int affinityKey() {
+      return request.getConnectionId();
+    }
+
     @Override
     protected void doRun() throws Exception {
       handler.execute(request, callback);
@@ -0,0 +1,270 @@
+package com.gllue.myproxy.command.handler.admission;
+
+import com.google.common.base.Preconditions;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control of the requests of the tenants, a tenant is identified by the data source, the
+ * database and the user, e.g. {@code ds/db/user}.
+ *
+ * <p>A request is run at once if neither the total concurrency nor the concurrency of its tenant
+ * reaches the limit, otherwise it's queued on its tenant. The queued requests are admitted in the
+ * deficit round robin order once the running requests are released, a tenant with weight {@code w}
+ * gets {@code w} requests admitted in each round, so a tenant with a flood of requests cannot
+ * starve the others. A request is rejected if the queue of its tenant is full.
+ */
+@Slf4j
+public class AdmissionController {
+  private static final double NANOS_PER_MILLS = 1000 * 1000;
+
+  private static final Histogram QUEUEING_DELAY =
+      Histogram.build()
+          .name("admission_queueing_delay")
+          .help("Time the requests of the tenants waiting for the admission in milliseconds.")
+          .unit("milliseconds")
+          .labelNames("tenant")
+          .buckets(0.1, 0.5, 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 5000)
+          .register();
+
+  private static final Counter REJECTED_REQUESTS =
+      Counter.build()
+          .name("admission_rejected_requests")
+          .help("Total requests of the tenants rejected by the admission control.")
+          .labelNames("tenant")
+          .register();
+
+  public static final int DEFAULT_MAX_CONCURRENCY = 256;
+
+  public static final int DEFAULT_MAX_CONCURRENCY_PER_TENANT = 64;
+
+  public static final int DEFAULT_MAX_QUEUE_SIZE_PER_TENANT = 1000;
+
+  private static final char TENANT_SEPARATOR = '/';
+  private static final char WEIGHT_SEPARATOR = ':';
+
+  @RequiredArgsConstructor
+  private static class Request {
+    private final Consumer<Runnable> task;
+    private final long enqueueTime;
+  }
+
+  @RequiredArgsConstructor
+  private static class Tenant {
+    private final String name;
+    private final int weight;
+    private final ArrayDeque<Request> queue = new ArrayDeque<>();
+    private int running = 0;
+    private int deficit = 0;
+    private boolean active = false;
+
+    boolean isIdle() {
+      return running == 0 && queue.isEmpty();
+    }
+  }
+
+  private final int maxConcurrency;
+  private final int maxConcurrencyPerTenant;
+  private final int maxQueueSizePerTenant;
+  private final Map<String, Integer> weights;
+
+  private final Map<String, Tenant> tenants = new HashMap<>();
+  // The tenants which have queued requests, in the round robin order.
+  private final ArrayDeque<Tenant> activeTenants = new ArrayDeque<>();
+  private int running = 0;
+
+  /**
+   * Construct an admission controller.
+   *
+   * @param maxConcurrency the max number of the running requests of all the tenants
+   * @param maxConcurrencyPerTenant the max number of the running requests of a tenant
+   * @param maxQueueSizePerTenant the max number of the queued requests of a tenant
+   * @param weights the weights of the tenants in the form of {@code tenant:weight}, the tenant can
+   *     be a prefix, e.g. {@code ds/db} matches all the users of the database, the weight of the
+   *     unmatched tenants is 1
+   */
+  public AdmissionController(
+      final int maxConcurrency,
+      final int maxConcurrencyPerTenant,
+      final int maxQueueSizePerTenant,
+      final Collection<String> weights) {
+    Preconditions.checkArgument(maxConcurrency > 0, "maxConcurrency must > 0");
+    Preconditions.checkArgument(maxConcurrencyPerTenant > 0, "maxConcurrencyPerTenant must > 0");
+    Preconditions.checkArgument(maxQueueSizePerTenant >= 0, "maxQueueSizePerTenant must >= 0");
+    this.maxConcurrency = maxConcurrency;
+    this.maxConcurrencyPerTenant = maxConcurrencyPerTenant;
+    this.maxQueueSizePerTenant = maxQueueSizePerTenant;
+    this.weights = parseWeights(weights);
+  }
+
+  private static Map<String, Integer> parseWeights(final Collection<String> items) {
+    var weights = new HashMap<String, Integer>();
+    for (var item : items) {
+      var index = item.lastIndexOf(WEIGHT_SEPARATOR);
+      if (index <= 0) {
+        throw new IllegalArgumentException(String.format("Bad tenant weight [%s]", item));
+      }
+      var weight = Integer.parseInt(item.substring(index + 1).trim());
+      Preconditions.checkArgument(weight > 0, "Weight of tenant must > 0. [%s]", item);
+      weights.put(item.substring(0, index).trim(), weight);
+    }
+    return weights;
+  }
+
+  public static String tenantOf(final String datasource, final String database, final String user) {
+    return String.valueOf(datasource)
+        + TENANT_SEPARATOR
+        + (database == null ? "" : database)
+        + TENANT_SEPARATOR
+        + (user == null ? "" : user);
+  }
+
+  int weightOf(final String tenant) {
+    var key = tenant;
+    while (true) {
+      var weight = weights.get(key);
+      if (weight != null) {
+        return weight;
+      }
+      var index = key.lastIndexOf(TENANT_SEPARATOR);
+      if (index < 0) {
+        return 1;
+      }
+      key = key.substring(0, index);
+    }
+  }
+
+  /**
+   * Run the task once the request of the tenant is admitted. The task may be run by the current
+   * thread or by the thread which releases another request, it's given a release callback which
+   * must be invoked once the request is done.
+   *
+   * @throws AdmissionRejectedException if the queue of the tenant is full.
+   */
+  public void execute(final String tenant, final Consumer<Runnable> task) {
+    var request = new Request(task, System.nanoTime());
+    Tenant admitted;
+    synchronized (this) {
+      var t = tenants.get(tenant);
+      if (t == null) {
+        t = new Tenant(tenant, weightOf(tenant));
+        tenants.put(tenant, t);
+      }
+
+      if (t.queue.isEmpty() && t.running < maxConcurrencyPerTenant && running < maxConcurrency) {
+        t.running++;
+        running++;
+        admitted = t;
+      } else if (t.queue.size() >= maxQueueSizePerTenant) {
+        if (t.isIdle()) {
+          tenants.remove(tenant);
+        }
+        REJECTED_REQUESTS.labels(tenant).inc();
+        throw new AdmissionRejectedException(tenant);
+      } else {
+        t.queue.offer(request);
+        if (!t.active) {
+          t.active = true;
+          activeTenants.offer(t);
+        }
+        admitted = null;
+      }
+    }
+
+    if (admitted != null) {
+      run(admitted, request);
+    }
+  }
+
+  private void run(final Tenant tenant, final Request request) {
+    QUEUEING_DELAY
+        .labels(tenant.name)
+        .observe((System.nanoTime() - request.enqueueTime) / NANOS_PER_MILLS);
+    var released = new AtomicBoolean(false);
+    try {
+      request.task.accept(
+          () -> {
+            if (released.compareAndSet(false, true)) {
+              release(tenant);
+            }
+          });
+    } catch (Exception e) {
+      log.error("Failed to run the admitted request of tenant [{}].", tenant.name, e);
+      if (released.compareAndSet(false, true)) {
+        release(tenant);
+      }
+    }
+  }
+
+  private void release(final Tenant tenant) {
+    List<Request> requests;
+    List<Tenant> admittedTenants;
+    synchronized (this) {
+      tenant.running--;
+      running--;
+      if (tenant.isIdle()) {
+        tenants.remove(tenant.name);
+      }
+
+      requests = new ArrayList<>();
+      admittedTenants = new ArrayList<>();
+      admit(requests, admittedTenants);
+    }
+
+    for (int i = 0; i < requests.size(); i++) {
+      run(admittedTenants.get(i), requests.get(i));
+    }
+  }
+
+  /** Admit the queued requests in the deficit round robin order. */
+  private void admit(final List<Request> requests, final List<Tenant> admittedTenants) {
+    // The number of the consecutive tenants which have reached their concurrency limit.
+    int blocked = 0;
+    while (running < maxConcurrency && blocked < activeTenants.size()) {
+      var tenant = activeTenants.peek();
+      assert tenant != null;
+      if (tenant.running >= maxConcurrencyPerTenant) {
+        activeTenants.offer(activeTenants.poll());
+        blocked++;
+        continue;
+      }
+
+      blocked = 0;
+      if (tenant.deficit <= 0) {
+        tenant.deficit += tenant.weight;
+      }
+      requests.add(tenant.queue.poll());
+      admittedTenants.add(tenant);
+      tenant.deficit--;
+      tenant.running++;
+      running++;
+
+      if (tenant.queue.isEmpty()) {
+        activeTenants.poll();
+        tenant.active = false;
+        tenant.deficit = 0;
+      } else if (tenant.deficit <= 0) {
+        activeTenants.offer(activeTenants.poll());
+      }
+    }
+  }
+
+  public synchronized int getRunningRequests() {
+    return running;
+  }
+
+  public synchronized int getQueuedRequests(final String tenant) {
+    var t = tenants.get(tenant);
+    return t == null ? 0 : t.queue.size();
+  }
+}
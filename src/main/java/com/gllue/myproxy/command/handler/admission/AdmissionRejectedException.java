@@ -0,0 +1,23 @@
+package com.gllue.myproxy.command.handler.admission;
+
+import com.gllue.myproxy.common.exception.BaseServerException;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+import com.gllue.myproxy.transport.exception.ServerErrorCode;
+
+public class AdmissionRejectedException extends BaseServerException {
+  private final String tenant;
+
+  public AdmissionRejectedException(final String tenant) {
+    this.tenant = tenant;
+  }
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return ServerErrorCode.ER_TOO_MANY_TENANT_REQUESTS;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return new String[] {tenant};
+  }
+}
@@ -8,8 +8,11 @@ import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.Promise;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.sql.parser.SQLCommentAttributeKey;
+import com.gllue.myproxy.transport.core.service.QueryRoute;
 import com.gllue.myproxy.transport.core.service.TransportService;
 import com.gllue.myproxy.transport.core.service.TransportService.ConnectionInfo;
+import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
@@ -42,6 +45,33 @@ public abstract class AbstractQueryHandler implements CommandHandler<QueryHandle
             callback, threadPool.executor(Name.COMMAND)));
   }
 
+  protected void submitReadQueryAndDirectTransferResult(
+      QueryHandlerRequest request, String query, Callback<HandlerResult> callback) {
+    var route = getQueryRoute(request);
+    if (log.isDebugEnabled()) {
+      log.debug("Submit read query to backend database [route={}]:\n{}", route, query);
+    }
+    transportService.submitReadQueryAndDirectTransferResult(
+        request.getConnectionId(),
+        query,
+        route,
+        QueryHandlerResult.wrappedCallbackWithDirectTransferredResult(
+            callback, threadPool.executor(Name.COMMAND)));
+  }
+
+  private QueryRoute getQueryRoute(QueryHandlerRequest request) {
+    var value = request.getCommentsAttributes().get(SQLCommentAttributeKey.ROUTE);
+    if (value == null) {
+      return QueryRoute.AUTO;
+    }
+    for (var route : QueryRoute.values()) {
+      if (route.name().equalsIgnoreCase(String.valueOf(value))) {
+        return route;
+      }
+    }
+    throw new BadCommentAttributeException(SQLCommentAttributeKey.ROUTE, String.valueOf(value));
+  }
+
   protected Promise<CommandResult> submitQueryToBackendDatabase(int connectionId, String query) {
     if (log.isDebugEnabled()) {
       log.debug("Submit query to backend database:\n{}", query);
@@ -77,6 +107,14 @@ public abstract class AbstractQueryHandler implements CommandHandler<QueryHandle
     return transportService.getConnectionInfoList(datasource);
   }
 
+  protected List<FrontendConnection> getFrontendConnectionList(final String datasource) {
+    return transportService.getFrontendConnectionList(datasource);
+  }
+
+  protected FrontendConnection getFrontendConnection(final int connectionId) {
+    return transportService.getFrontendConnection(connectionId);
+  }
+
   protected Promise<List<CommandResult>> executeQueries(
       QueryHandlerRequest request, List<String> queries) {
     var size = queries.size();
@@ -94,6 +132,19 @@ public abstract class AbstractQueryHandler implements CommandHandler<QueryHandle
         });
   }
 
+  /**
+   * Execute the queries concurrently, the results are returned in the order of the queries. The
+   * queries may be executed on the auxiliary backend connections, so they must not depend on the
+   * table locks or the temporary tables of the session.
+   */
+  protected Promise<List<CommandResult>> executeQueriesInParallel(
+      int connectionId, List<String> queries) {
+    if (log.isDebugEnabled()) {
+      log.debug("Submit queries to backend database in parallel:\n{}", String.join("\n", queries));
+    }
+    return transportService.submitQueriesInParallel(connectionId, queries);
+  }
+
   protected <R, T> Function<R, T> throwWrappedException(Throwable e) {
     return (v) -> {
       if (e instanceof RuntimeException) {
@@ -4,7 +4,9 @@ import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.statement.SQLAlterTableStatement;
 import com.alibaba.druid.sql.ast.statement.SQLCommitStatement;
 import com.alibaba.druid.sql.ast.statement.SQLCreateDatabaseStatement;
+import com.alibaba.druid.sql.ast.statement.SQLCreateIndexStatement;
 import com.alibaba.druid.sql.ast.statement.SQLDropDatabaseStatement;
+import com.alibaba.druid.sql.ast.statement.SQLDropIndexStatement;
 import com.alibaba.druid.sql.ast.statement.SQLDropTableStatement;
 import com.alibaba.druid.sql.ast.statement.SQLRollbackStatement;
 import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
@@ -19,8 +21,11 @@ import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlDeleteStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlExplainStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlKillStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlLoadDataInFileStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlLockTableStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlRenameTableStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlShowProcessListStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUnlockTablesStatement;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUpdateStatement;
 import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.CommandHandler;
@@ -29,10 +34,13 @@ import com.gllue.myproxy.command.handler.HandlerResult;
 import com.gllue.myproxy.command.handler.query.dcl.desc.ExplainStatementHandler;
 import com.gllue.myproxy.command.handler.query.dcl.kill.KillStatementHandler;
 import com.gllue.myproxy.command.handler.query.dcl.set.SetStatementHandler;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache;
 import com.gllue.myproxy.command.handler.query.dcl.show.ShowColumnsHandler;
 import com.gllue.myproxy.command.handler.query.dcl.show.ShowCreateTableHandler;
+import com.gllue.myproxy.command.handler.query.dcl.show.ShowExtensionColumnAdviceHandler;
 import com.gllue.myproxy.command.handler.query.dcl.show.ShowMetricsHandler;
 import com.gllue.myproxy.command.handler.query.dcl.show.ShowProcessListHandler;
+import com.gllue.myproxy.command.handler.query.dcl.show.ShowProxyProcessListHandler;
 import com.gllue.myproxy.command.handler.query.dcl.show.ShowTablesHandler;
 import com.gllue.myproxy.command.handler.query.dcl.use.UseStatementHandler;
 import com.gllue.myproxy.command.handler.query.ddl.alter.AlterTableHandler;
@@ -40,29 +48,65 @@ import com.gllue.myproxy.command.handler.query.ddl.create.CreateDatabaseHandler;
 import com.gllue.myproxy.command.handler.query.ddl.create.CreateTableHandler;
 import com.gllue.myproxy.command.handler.query.ddl.drop.DropDatabaseHandler;
 import com.gllue.myproxy.command.handler.query.ddl.drop.DropTableHandler;
+import com.gllue.myproxy.command.handler.query.ddl.move.MoveDatabaseHandler;
 import com.gllue.myproxy.command.handler.query.ddl.rename.RenameTableHandler;
+import com.gllue.myproxy.command.handler.query.ddl.repack.CompactExtensionTablesHandler;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
+import com.gllue.myproxy.command.handler.query.ddl.repack.RepackExtensionTablesHandler;
 import com.gllue.myproxy.command.handler.query.ddl.truncate.TruncateTableHandler;
 import com.gllue.myproxy.command.handler.query.dml.delete.DeleteQueryHandler;
 import com.gllue.myproxy.command.handler.query.dml.insert.InsertQueryHandler;
+import com.gllue.myproxy.command.handler.query.dml.load.LoadDataInFileHandler;
+import com.gllue.myproxy.command.handler.query.dml.select.QueryResultCache;
 import com.gllue.myproxy.command.handler.query.dml.select.SelectQueryHandler;
+import com.gllue.myproxy.command.handler.query.dml.select.TableNameCollectVisitor;
 import com.gllue.myproxy.command.handler.query.dml.update.UpdateQueryHandler;
 import com.gllue.myproxy.command.handler.query.tcl.BeginStatementHandler;
 import com.gllue.myproxy.command.handler.query.tcl.CommitStatementHandler;
 import com.gllue.myproxy.command.handler.query.tcl.RollbackStatementHandler;
 import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.concurrent.AffinityRunnable;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
 import com.gllue.myproxy.common.generator.IdGenerator;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
 import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
 import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.route.move.DatabaseBeingMovedException;
+import com.gllue.myproxy.route.move.DatabaseMove;
+import com.gllue.myproxy.route.move.DatabaseMoveRegistry;
 import com.gllue.myproxy.sql.parser.SQLParser;
 import com.gllue.myproxy.sql.stmt.SQLBeginStatement;
+import com.gllue.myproxy.sql.stmt.SQLCompactExtensionTablesStatement;
+import com.gllue.myproxy.sql.stmt.SQLMoveDatabaseStatement;
+import com.gllue.myproxy.sql.stmt.SQLRepackExtensionTablesStatement;
+import com.gllue.myproxy.sql.stmt.SQLShowExtensionColumnAdviceStatement;
 import com.gllue.myproxy.sql.stmt.SQLShowMetricsStatement;
+import com.gllue.myproxy.sql.stmt.SQLShowProxyProcessListStatement;
+import com.gllue.myproxy.transport.core.service.CrossDataSourceTransactionException;
 import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats.Phase;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
 
 public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
   private static final String NAME = "Concrete Query Handler";
+  private static final String MOVED_BY_ANOTHER_NODE = "it's being moved by another node";
 
   private final SQLParser sqlParser;
+  private final SchemaAnswerCache schemaAnswerCache;
+  private final QueryResultCache queryResultCache;
+  private final StatementTimeoutPolicy statementTimeoutPolicy;
+  private final ExtensionColumnAccessStats extensionColumnAccessStats;
+  private final TransportService transportService;
+  private final DatabaseMoveRegistry databaseMoveRegistry;
 
   private final AlterTableHandler alterTableHandler;
   private final CreateTableHandler createTableHandler;
@@ -70,6 +114,7 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
   private final InsertQueryHandler insertQueryHandler;
   private final UpdateQueryHandler updateQueryHandler;
   private final DeleteQueryHandler deleteQueryHandler;
+  private final LoadDataInFileHandler loadDataInFileHandler;
   private final DropTableHandler dropTableHandler;
   private final TruncateTableHandler truncateTableHandler;
   private final CreateDatabaseHandler createDatabaseHandler;
@@ -84,6 +129,7 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
   private final ShowColumnsHandler showColumnsHandler;
   private final ExplainStatementHandler explainStatementHandler;
   private final ShowProcessListHandler showProcessListHandler;
+  private final ShowProxyProcessListHandler showProxyProcessListHandler;
 
   private final BeginStatementHandler beginStatementHandler;
   private final CommitStatementHandler commitStatementHandler;
@@ -91,6 +137,10 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
 
   // custom statement handlers.
   private final ShowMetricsHandler showMetricsHandler;
+  private final ShowExtensionColumnAdviceHandler showExtensionColumnAdviceHandler;
+  private final RepackExtensionTablesHandler repackExtensionTablesHandler;
+  private final CompactExtensionTablesHandler compactExtensionTablesHandler;
+  private final MoveDatabaseHandler moveDatabaseHandler;
 
   public ConcreteQueryHandler(
       final PersistRepository repository,
@@ -102,6 +152,12 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
       final ThreadPool threadPool) {
     super(repository, configurations, clusterState, transportService, threadPool);
     this.sqlParser = sqlParser;
+    this.schemaAnswerCache = newSchemaAnswerCache(configurations);
+    this.queryResultCache = newQueryResultCache(configurations);
+    this.statementTimeoutPolicy = newStatementTimeoutPolicy(configurations);
+    this.extensionColumnAccessStats = newExtensionColumnAccessStats(configurations);
+    this.transportService = transportService;
+    this.databaseMoveRegistry = transportService.getDatabaseMoveRegistry();
 
     // Init query handlers.
     this.alterTableHandler =
@@ -112,16 +168,30 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
             repository, configurations, clusterState, transportService, sqlParser, threadPool);
     this.selectQueryHandler =
         new SelectQueryHandler(
-            repository, configurations, clusterState, transportService, threadPool);
+            repository,
+            configurations,
+            clusterState,
+            transportService,
+            threadPool,
+            queryResultCache,
+            extensionColumnAccessStats);
     this.insertQueryHandler =
         new InsertQueryHandler(
             repository, configurations, clusterState, transportService, idGenerator, threadPool);
     this.updateQueryHandler =
         new UpdateQueryHandler(
-            repository, configurations, clusterState, transportService, threadPool);
+            repository,
+            configurations,
+            clusterState,
+            transportService,
+            threadPool,
+            extensionColumnAccessStats);
     this.deleteQueryHandler =
         new DeleteQueryHandler(
             repository, configurations, clusterState, transportService, threadPool);
+    this.loadDataInFileHandler =
+        new LoadDataInFileHandler(
+            repository, configurations, clusterState, transportService, idGenerator, threadPool);
     this.dropTableHandler =
         new DropTableHandler(
             repository, configurations, clusterState, transportService, sqlParser, threadPool);
@@ -139,19 +209,119 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
     this.setStatementHandler = new SetStatementHandler(transportService, threadPool);
     this.showTablesHandler = new ShowTablesHandler(transportService, clusterState, threadPool);
     this.showCreateTableHandler =
-        new ShowCreateTableHandler(transportService, clusterState, sqlParser, threadPool);
+        new ShowCreateTableHandler(
+            transportService, clusterState, sqlParser, threadPool, schemaAnswerCache);
     this.killStatementHandler = new KillStatementHandler(transportService, threadPool);
     this.useStatementHandler = new UseStatementHandler(transportService, threadPool);
-    this.showColumnsHandler = new ShowColumnsHandler(transportService, threadPool, clusterState);
+    this.showColumnsHandler =
+        new ShowColumnsHandler(transportService, threadPool, clusterState, schemaAnswerCache);
     this.explainStatementHandler =
         new ExplainStatementHandler(transportService, threadPool, showColumnsHandler);
     this.showProcessListHandler = new ShowProcessListHandler(transportService, threadPool);
+    this.showProxyProcessListHandler =
+        new ShowProxyProcessListHandler(transportService, threadPool);
 
     this.beginStatementHandler = new BeginStatementHandler(transportService, threadPool);
     this.commitStatementHandler = new CommitStatementHandler(transportService, threadPool);
     this.rollbackStatementHandler = new RollbackStatementHandler(transportService, threadPool);
 
     this.showMetricsHandler = new ShowMetricsHandler(transportService, threadPool);
+    this.showExtensionColumnAdviceHandler =
+        new ShowExtensionColumnAdviceHandler(
+            repository,
+            configurations,
+            clusterState,
+            transportService,
+            threadPool,
+            extensionColumnAccessStats);
+    this.repackExtensionTablesHandler =
+        new RepackExtensionTablesHandler(
+            repository,
+            configurations,
+            clusterState,
+            transportService,
+            sqlParser,
+            threadPool,
+            extensionColumnAccessStats);
+    this.compactExtensionTablesHandler =
+        new CompactExtensionTablesHandler(
+            repository,
+            configurations,
+            clusterState,
+            transportService,
+            sqlParser,
+            threadPool,
+            extensionColumnAccessStats);
+    this.moveDatabaseHandler =
+        new MoveDatabaseHandler(repository, configurations, transportService, threadPool);
+  }
+
+  private static SchemaAnswerCache newSchemaAnswerCache(final Configurations configurations) {
+    boolean enabled =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.SCHEMA_CACHE_ENABLED);
+    if (!enabled) {
+      return SchemaAnswerCache.disabled();
+    }
+    int capacity =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.SCHEMA_CACHE_MAX_ENTRIES);
+    long expireTime =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.SCHEMA_CACHE_EXPIRE_TIME_IN_MILLS);
+    return new SchemaAnswerCache(capacity, expireTime);
+  }
+
+  public SchemaAnswerCache getSchemaAnswerCache() {
+    return schemaAnswerCache;
+  }
+
+  private static QueryResultCache newQueryResultCache(final Configurations configurations) {
+    boolean enabled =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.QUERY_RESULT_CACHE_ENABLED);
+    if (!enabled) {
+      return QueryResultCache.disabled();
+    }
+    long maxCapacity =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_RESULT_CACHE_MAX_CAPACITY_IN_BYTES);
+    int maxEntrySize =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_RESULT_CACHE_MAX_ENTRY_SIZE_IN_BYTES);
+    long expireTime =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_RESULT_CACHE_EXPIRE_TIME_IN_MILLS);
+    List<String> tables =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.QUERY_RESULT_CACHE_TABLES);
+    return new QueryResultCache(maxCapacity, maxEntrySize, expireTime, tables);
+  }
+
+  public QueryResultCache getQueryResultCache() {
+    return queryResultCache;
+  }
+
+  private static StatementTimeoutPolicy newStatementTimeoutPolicy(
+      final Configurations configurations) {
+    long defaultTimeout =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_MAX_EXECUTION_TIME_IN_MILLS);
+    List<String> rules =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_MAX_EXECUTION_TIME_RULES);
+    return new StatementTimeoutPolicy(defaultTimeout, rules);
+  }
+
+  private static ExtensionColumnAccessStats newExtensionColumnAccessStats(
+      final Configurations configurations) {
+    boolean enabled =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.EXTENSION_TABLE_ACCESS_STATS_ENABLED);
+    if (!enabled) {
+      return ExtensionColumnAccessStats.disabled();
+    }
+    int maxPatternsPerTable =
+        configurations.getValue(
+            Type.GENERIC,
+            GenericConfigPropertyKey.EXTENSION_TABLE_ACCESS_STATS_MAX_PATTERNS_PER_TABLE);
+    return new ExtensionColumnAccessStats(maxPatternsPerTable);
   }
 
   @Override
@@ -161,16 +331,454 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
 
   @Override
   public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    var sessionContext = request.getSessionContext();
+    sessionContext.getConnectionStats().enterPhase(Phase.EXECUTING);
+    sessionContext.setStatementTimeoutInMills(0);
+    var trace = sessionContext.getQueryTrace();
+    if (trace != null) {
+      trace.handlerStarted();
+    }
     var query = request.getQuery();
     var stmt = sqlParser.parse(query);
     var comments = stmt.getAfterCommentsDirect();
     var attributes = sqlParser.parseComments(comments);
+    if (trace != null) {
+      trace.parsed();
+    }
     request.setStatement(stmt);
     request.setCommentsAttributes(attributes);
+    sessionContext.setStatementTimeoutInMills(
+        statementTimeoutPolicy.resolve(sessionContext.currentUser(), stmt, attributes));
+    if (!isReadOnlyStatement(stmt)) {
+      request.getSessionContext().updateLastWriteTime();
+    }
+
+    if (isSchemaChangingStatement(stmt)) {
+      var datasource = request.getDatasource();
+      callback = invalidateAround(() -> schemaAnswerCache.invalidate(datasource), callback);
+    }
+    if (queryResultCache.isEnabled()) {
+      callback = invalidateQueryResults(request, stmt, callback);
+    }
+    callback = trackBoundState(stmt, sessionContext, callback);
 
+    var move = checkDatabaseMove(request, stmt);
+    if (move != null) {
+      dispatchWrite(move, stmt, request, callback);
+      return;
+    }
+    if (isDataModifyingStatement(stmt)
+        && sessionContext.isTransactionOpened()
+        && !transportService.isRoutedToCurrentDatabase(request.getConnectionId())) {
+      // The database is moved after the transaction is started.
+      throw new CrossDataSourceTransactionException(request.getDatabase());
+    }
     dispatchQueryHandler(stmt, request, callback);
   }
 
+  /**
+   * Returns the move of the database written by the statement, or the move which has the
+   * uncommitted writes of the session if the statement may commit them. The writes of a database
+   * being moved are captured on the current database of the session, so the statements writing the
+   * tables of another database along with it, and the statements whose writes cannot be replayed,
+   * are rejected until the move is done. A captured write is replayed by itself, so it can access
+   * only the table it writes. The writes of a database being moved by another node are rejected,
+   * since they cannot be captured by that node.
+   */
+  @Nullable
+  private DatabaseMove checkDatabaseMove(QueryHandlerRequest request, SQLStatement stmt) {
+    if (databaseMoveRegistry.isEmpty()) {
+      return null;
+    }
+
+    var datasource = request.getDatasource();
+    var database = request.getDatabase();
+    if (databaseMoveRegistry.isMovedByAnotherNode(datasource, database)
+        && (isDataModifyingStatement(stmt)
+            || stmt instanceof MySqlLoadDataInFileStatement
+            || isSchemaChangingStatement(stmt))) {
+      throw new DatabaseBeingMovedException(database, MOVED_BY_ANOTHER_NODE);
+    }
+    var move = databaseMoveRegistry.get(datasource, database);
+    if (isDataModifyingStatement(stmt)) {
+      var visitor = new TableNameCollectVisitor(database);
+      stmt.accept(visitor);
+      for (var tableName : visitor.getTableNames()) {
+        var tableDatabase = tableName.substring(0, tableName.indexOf('.'));
+        if (tableDatabase.equals(database)) {
+          continue;
+        }
+        if (move != null) {
+          throw new DatabaseBeingMovedException(
+              database, "the tables of the other databases cannot be written with it");
+        }
+        if (databaseMoveRegistry.isMovedByAnotherNode(datasource, tableDatabase)) {
+          throw new DatabaseBeingMovedException(tableDatabase, MOVED_BY_ANOTHER_NODE);
+        }
+        if (databaseMoveRegistry.get(datasource, tableDatabase) != null) {
+          throw new DatabaseBeingMovedException(
+              tableDatabase, "it can be written only when it's the current database");
+        }
+      }
+      if (move != null && stmt instanceof SQLTruncateStatement) {
+        throw new DatabaseBeingMovedException(database, "only the DML statements can write it");
+      }
+      if (move != null
+          && (visitor.getTableNames().size() > 1
+              || visitor.hasUnresolvedTable()
+              || visitor.hasQuery())) {
+        throw new DatabaseBeingMovedException(
+            database, "a statement can access only the table it writes");
+      }
+      return move;
+    }
+
+    if (move != null
+        && (stmt instanceof MySqlLoadDataInFileStatement || isSchemaChangingStatement(stmt))) {
+      throw new DatabaseBeingMovedException(database, "only the DML statements can write it");
+    }
+    if (stmt instanceof SQLDropDatabaseStatement) {
+      var databaseName =
+          SQLStatementUtils.unquoteName(((SQLDropDatabaseStatement) stmt).getDatabaseName());
+      if (databaseMoveRegistry.get(datasource, databaseName) != null
+          || databaseMoveRegistry.isMovedByAnotherNode(datasource, databaseName)) {
+        throw new DatabaseBeingMovedException(databaseName, "it cannot be dropped");
+      }
+    }
+    if (isCommittingStatement(stmt)) {
+      return databaseMoveRegistry.findPendingTransaction(request.getConnectionId());
+    }
+    return null;
+  }
+
+  /**
+   * Execute the write through the write gate of the database move, the write is held while the
+   * move freezes the writes, and it's executed on the data source which the database is routed to
+   * once it's resumed.
+   */
+  private void dispatchWrite(
+      DatabaseMove move,
+      SQLStatement stmt,
+      QueryHandlerRequest request,
+      Callback<HandlerResult> callback) {
+    var gate = move.getWriteGate();
+    var exited = new AtomicBoolean(false);
+    var exitCallback =
+        new Callback<HandlerResult>() {
+          private void exit() {
+            if (exited.compareAndSet(false, true)) {
+              gate.exit();
+            }
+          }
+
+          @Override
+          public void onSuccess(HandlerResult result) {
+            exit();
+            callback.onSuccess(result);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            exit();
+            callback.onFailure(e);
+          }
+        };
+
+    Runnable resume =
+        () ->
+            threadPool
+                .executor(Name.COMMAND)
+                .submit(
+                    AffinityRunnable.wrap(
+                        request.getConnectionId(),
+                        () -> executeWrite(move, stmt, request, exitCallback)));
+    if (gate.enter(resume)) {
+      executeWrite(move, stmt, request, exitCallback);
+    }
+  }
+
+  /**
+   * Execute the write on the data source which the database is routed to. The commits of the
+   * writes are serialized by the commit sequencer of the move, so that the writes are captured in
+   * the commit order. A write out of a transaction is executed in a transaction of its own, so its
+   * row locks are acquired before the sequencer, and a commit holding the sequencer never waits
+   * for the row locks of the other writes.
+   */
+  private void executeWrite(
+      DatabaseMove move,
+      SQLStatement stmt,
+      QueryHandlerRequest request,
+      Callback<HandlerResult> callback) {
+    try {
+      transportService
+          .rerouteBackendConnection(request.getConnectionId())
+          .then(
+              (v) -> {
+                if (isCommittingStatement(stmt)) {
+                  sequenceCommit(
+                      move,
+                      request,
+                      () -> new Promise<>((cb) -> dispatchQueryHandler(stmt, request, cb)),
+                      callback);
+                } else if (request.getSessionContext().isTransactionOpened()) {
+                  dispatchQueryHandler(stmt, request, callback);
+                } else {
+                  executeInTransaction(move, stmt, request, callback);
+                }
+                return true;
+              })
+          .doCatch(
+              (e) -> {
+                callback.onFailure(e);
+                return false;
+              });
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  private void executeInTransaction(
+      DatabaseMove move,
+      SQLStatement stmt,
+      QueryHandlerRequest request,
+      Callback<HandlerResult> callback) {
+    var connectionId = request.getConnectionId();
+    transportService
+        .beginTransaction(connectionId)
+        .thenAsync(
+            (v) -> new Promise<HandlerResult>((cb) -> dispatchQueryHandler(stmt, request, cb)))
+        .then(
+            (result) -> {
+              sequenceCommit(
+                  move,
+                  request,
+                  () -> transportService.commitTransaction(connectionId).then((v) -> result),
+                  callback);
+              return true;
+            },
+            (e) -> {
+              // Rolling back is harmless if the transaction is not started.
+              transportService
+                  .rollbackTransaction(connectionId)
+                  .doFinally(
+                      () -> {
+                        callback.onFailure(e);
+                        return false;
+                      });
+              return false;
+            });
+  }
+
+  /**
+   * Execute the commit with the commit sequencer of the move held, the sequencer is released once
+   * the commit is done, by when the committed writes are captured.
+   */
+  private void sequenceCommit(
+      DatabaseMove move,
+      QueryHandlerRequest request,
+      Supplier<Promise<HandlerResult>> commit,
+      Callback<HandlerResult> callback) {
+    var sequencer = move.getCommitSequencer();
+    Runnable task =
+        () ->
+            Promise.<HandlerResult>emptyPromise()
+                .thenAsync((v) -> commit.get())
+                .then(
+                    (result) -> {
+                      sequencer.release();
+                      callback.onSuccess(result);
+                      return true;
+                    },
+                    (e) -> {
+                      sequencer.release();
+                      callback.onFailure(e);
+                      return false;
+                    });
+    Runnable resume =
+        () ->
+            threadPool
+                .executor(Name.COMMAND)
+                .submit(AffinityRunnable.wrap(request.getConnectionId(), task));
+    if (sequencer.acquire(resume)) {
+      task.run();
+    }
+  }
+
+  /**
+   * Whether the statement may change the schema of the tables. Not all the schema changes update
+   * the table metadata, so the cached schema answers of the data source are invalidated before and
+   * after the execution of the statement.
+   */
+  private boolean isSchemaChangingStatement(SQLStatement stmt) {
+    return stmt instanceof SQLAlterTableStatement
+        || stmt instanceof MySqlCreateTableStatement
+        || stmt instanceof SQLDropTableStatement
+        || stmt instanceof SQLDropDatabaseStatement
+        || stmt instanceof MySqlRenameTableStatement
+        || stmt instanceof SQLCreateIndexStatement
+        || stmt instanceof SQLDropIndexStatement
+        || stmt instanceof SQLRepackExtensionTablesStatement
+        || stmt instanceof SQLCompactExtensionTablesStatement
+        || stmt instanceof SQLMoveDatabaseStatement;
+  }
+
+  private Callback<HandlerResult> invalidateAround(
+      Runnable invalidation, Callback<HandlerResult> callback) {
+    invalidation.run();
+    return new Callback<>() {
+      @Override
+      public void onSuccess(HandlerResult result) {
+        invalidation.run();
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        invalidation.run();
+        callback.onFailure(e);
+      }
+    };
+  }
+
+  /**
+   * Record the session state which is held by the backend connection once the statement succeeds,
+   * the session cannot be switched to another backend connection with the state.
+   */
+  private Callback<HandlerResult> trackBoundState(
+      SQLStatement stmt, SessionContext sessionContext, Callback<HandlerResult> callback) {
+    Runnable tracker;
+    if (stmt instanceof MySqlCreateTableStatement
+        // The type is set only if the table is a temporary table.
+        && ((MySqlCreateTableStatement) stmt).getType() != null) {
+      tracker = () -> sessionContext.addBoundState(BoundState.TEMPORARY_TABLE);
+    } else if (stmt instanceof MySqlLockTableStatement) {
+      tracker = () -> sessionContext.addBoundState(BoundState.TABLE_LOCK);
+    } else if (stmt instanceof MySqlUnlockTablesStatement) {
+      tracker = () -> sessionContext.removeBoundState(BoundState.TABLE_LOCK);
+    } else {
+      return callback;
+    }
+
+    return new Callback<>() {
+      @Override
+      public void onSuccess(HandlerResult result) {
+        tracker.run();
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        callback.onFailure(e);
+      }
+    };
+  }
+
+  private boolean isDataModifyingStatement(SQLStatement stmt) {
+    return stmt instanceof MySqlInsertStatement
+        || stmt instanceof MySqlUpdateStatement
+        || stmt instanceof MySqlDeleteStatement
+        || stmt instanceof SQLTruncateStatement;
+  }
+
+  /** Whether the statement may commit the transaction of the session. */
+  private boolean isCommittingStatement(SQLStatement stmt) {
+    return stmt instanceof SQLCommitStatement
+        || stmt instanceof SQLBeginStatement
+        || stmt instanceof SQLSetStatement;
+  }
+
+  /**
+   * Invalidate the cached query results of the tables modified by the statement before and after
+   * its execution. The tables modified in a transaction are invalidated again once the transaction
+   * is committed, since the other sessions may cache the results of the tables before the commit.
+   * The statements which modify the tables in an unknown way invalidate all the results of the
+   * data source.
+   */
+  private Callback<HandlerResult> invalidateQueryResults(
+      QueryHandlerRequest request, SQLStatement stmt, Callback<HandlerResult> callback) {
+    var datasource = request.getDatasource();
+    var sessionContext = request.getSessionContext();
+    if (isDataModifyingStatement(stmt)) {
+      var visitor = new TableNameCollectVisitor(request.getDatabase());
+      stmt.accept(visitor);
+      if (visitor.hasUnresolvedTable()) {
+        return invalidateAround(() -> queryResultCache.invalidate(datasource), callback);
+      }
+      var tables = visitor.getTableNames();
+      if (sessionContext.isTransactionOpened()) {
+        sessionContext.addModifiedTables(tables);
+      }
+      return invalidateAround(() -> queryResultCache.invalidate(datasource, tables), callback);
+    }
+
+    if (isCommittingStatement(stmt)) {
+      var tables = sessionContext.drainModifiedTables();
+      if (tables.isEmpty()) {
+        return callback;
+      }
+      return invalidateAround(() -> queryResultCache.invalidate(datasource, tables), callback);
+    }
+
+    if (isReadOnlyStatement(stmt)) {
+      return callback;
+    }
+    sessionContext.drainModifiedTables();
+    return invalidateAround(() -> queryResultCache.invalidate(datasource), callback);
+  }
+
+  /**
+   * Parse and rewrite the query of a prepared statement once, the placeholders are kept in the
+   * rewritten query so that it can be prepared by the backend database. Only the DML statements
+   * can be prepared.
+   */
+  public PreparedQuery rewritePreparedQuery(QueryHandlerRequest request) {
+    var stmt = sqlParser.parse(request.getQuery());
+    var comments = stmt.getAfterCommentsDirect();
+    var attributes = sqlParser.parseComments(comments);
+    request.setStatement(stmt);
+    request.setCommentsAttributes(attributes);
+
+    var visitor = new PlaceholderCountVisitor();
+    stmt.accept(visitor);
+
+    String query;
+    if (stmt instanceof SQLSelectStatement) {
+      query = selectQueryHandler.rewritePreparedQuery(request);
+    } else if (stmt instanceof MySqlUpdateStatement) {
+      query = updateQueryHandler.rewritePreparedQuery(request);
+    } else if (stmt instanceof MySqlInsertStatement) {
+      query = insertQueryHandler.rewritePreparedQuery(request);
+    } else if (stmt instanceof MySqlDeleteStatement) {
+      query = deleteQueryHandler.rewritePreparedQuery(request);
+    } else {
+      throw new UnsupportedPreparedStatementException(
+          "Statement cannot be prepared. [%s]", stmt.getClass().getSimpleName());
+    }
+    return new PreparedQuery(query, visitor.getCount(), isReadOnlyStatement(stmt));
+  }
+
+  /**
+   * Whether the statement never modifies data, the following read-only queries of the session can
+   * be routed to the replicas if no data is modified recently. COMMIT is not a read-only statement
+   * since it makes the changes of the transaction visible.
+   */
+  private boolean isReadOnlyStatement(SQLStatement stmt) {
+    return stmt instanceof SQLSelectStatement
+        || stmt instanceof SQLShowCreateTableStatement
+        || stmt instanceof SQLShowColumnsStatement
+        || stmt instanceof SQLShowTablesStatement
+        || stmt instanceof SQLUseStatement
+        || stmt instanceof SQLBeginStatement
+        || stmt instanceof SQLRollbackStatement
+        || stmt instanceof MySqlKillStatement
+        || stmt instanceof MySqlShowProcessListStatement
+        || stmt instanceof MySqlExplainStatement
+        || stmt instanceof SQLSetStatement
+        || stmt instanceof SQLShowMetricsStatement
+        || stmt instanceof SQLShowProxyProcessListStatement
+        || stmt instanceof SQLShowExtensionColumnAdviceStatement;
+  }
+
   private <Request extends HandlerRequest> void invokeHandlerExecute(
       CommandHandler<Request> handler, Request request, Callback<HandlerResult> callback) {
     handler.execute(request, callback);
@@ -186,6 +794,8 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
       invokeHandlerExecute(insertQueryHandler, request, callback);
     } else if (stmt instanceof MySqlDeleteStatement) {
       invokeHandlerExecute(deleteQueryHandler, request, callback);
+    } else if (stmt instanceof MySqlLoadDataInFileStatement) {
+      invokeHandlerExecute(loadDataInFileHandler, request, callback);
     } else if (stmt instanceof SQLAlterTableStatement) {
       invokeHandlerExecute(alterTableHandler, request, callback);
     } else if (stmt instanceof MySqlCreateTableStatement) {
@@ -224,6 +834,16 @@ public class ConcreteQueryHandler extends SchemaRelatedQueryHandler {
       invokeHandlerExecute(setStatementHandler, request, callback);
     } else if (stmt instanceof SQLShowMetricsStatement) {
       invokeHandlerExecute(showMetricsHandler, request, callback);
+    } else if (stmt instanceof SQLShowProxyProcessListStatement) {
+      invokeHandlerExecute(showProxyProcessListHandler, request, callback);
+    } else if (stmt instanceof SQLShowExtensionColumnAdviceStatement) {
+      invokeHandlerExecute(showExtensionColumnAdviceHandler, request, callback);
+    } else if (stmt instanceof SQLRepackExtensionTablesStatement) {
+      invokeHandlerExecute(repackExtensionTablesHandler, request, callback);
+    } else if (stmt instanceof SQLCompactExtensionTablesStatement) {
+      invokeHandlerExecute(compactExtensionTablesHandler, request, callback);
+    } else if (stmt instanceof SQLMoveDatabaseStatement) {
+      invokeHandlerExecute(moveDatabaseHandler, request, callback);
     } else {
       submitQueryAndDirectTransferResult(request.getConnectionId(), request.getQuery(), callback);
     }
@@ -0,0 +1,83 @@
+package com.gllue.myproxy.command.handler.query;
+
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.result.query.QueryResult;
+import com.gllue.myproxy.transport.frontend.command.HandlerResultWriter;
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.RawPacket;
+import com.gllue.myproxy.transport.protocol.packet.query.ColumnCountPacket;
+import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A query result which is encoded to packets in advance, the packets are immutable so that the
+ * result can be written to the connections repeatedly. The EOF packets are not included, since
+ * they depend on the capabilities of the connection.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EncodedQueryHandlerResult implements HandlerResult {
+  private final List<MySQLPacket> columnPackets;
+  private final List<MySQLPacket> rowPackets;
+  private final int warnings;
+
+  @Override
+  public long getAffectedRows() {
+    return 0;
+  }
+
+  @Override
+  public long getLastInsertId() {
+    return 0;
+  }
+
+  @Override
+  public QueryResult getQueryResult() {
+    return null;
+  }
+
+  @Override
+  public boolean isDirectTransferred() {
+    return false;
+  }
+
+  /** Encode the query result, the rows of the query result are consumed. */
+  public static EncodedQueryHandlerResult encode(
+      final QueryResult queryResult, final int warnings) {
+    var metaData = queryResult.getMetaData();
+    var columnCount = metaData.getColumnCount();
+    var columnPackets = new ArrayList<MySQLPacket>(columnCount + 1);
+    columnPackets.add(RawPacket.encode(new ColumnCountPacket(columnCount)));
+    for (int i = 0; i < columnCount; i++) {
+      columnPackets.add(
+          RawPacket.encode(HandlerResultWriter.newColumnDefinitionPacket(metaData, i)));
+    }
+
+    var rowPackets = new ArrayList<MySQLPacket>();
+    while (queryResult.next()) {
+      var row = new byte[columnCount][];
+      for (int i = 0; i < columnCount; i++) {
+        row[i] = queryResult.getValue(i);
+      }
+      rowPackets.add(RawPacket.encode(new TextResultSetRowPacket(row)));
+    }
+    return new EncodedQueryHandlerResult(columnPackets, rowPackets, warnings);
+  }
+
+  /** Encode the result of a query handler, the query result of the handler result is closed. */
+  public static EncodedQueryHandlerResult encode(final HandlerResult result) {
+    if (result instanceof EncodedQueryHandlerResult) {
+      return (EncodedQueryHandlerResult) result;
+    }
+
+    var queryResult = result.getQueryResult();
+    try {
+      return encode(queryResult, result.getWarnings());
+    } finally {
+      queryResult.close();
+    }
+  }
+}
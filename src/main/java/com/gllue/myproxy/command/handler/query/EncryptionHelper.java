@@ -1,14 +1,24 @@
 package com.gllue.myproxy.command.handler.query;
 
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
+import com.gllue.myproxy.common.util.SecurityUtils;
 import com.gllue.myproxy.sql.parser.SQLCommentAttributeKey;
 import com.google.common.base.Preconditions;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class EncryptionHelper {
+  public static final String BLIND_INDEX_COLUMN_PREFIX = "$bi_";
+  public static final String KEY_FOR_BLIND_INDEX_COLUMN_PREFIX = "$key_for_bi_";
+  /** The number of the leading bytes of the HMAC kept as the blind index. */
+  public static final int BLIND_INDEX_LENGTH = 16;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
   public enum EncryptionAlgorithm {
     AES;
 
@@ -35,6 +45,14 @@ public class EncryptionHelper {
       }
       return String.format("AES_ENCRYPT(%s, '%s')", expr, key);
     }
+
+    @Override
+    public String blindIndexExpr(String value) {
+      if (key == null) {
+        throw new NoEncryptKeyException();
+      }
+      return computeBlindIndex(key, value);
+    }
   }
 
   @RequiredArgsConstructor
@@ -75,6 +93,43 @@ public class EncryptionHelper {
     return encryptKey;
   }
 
+  public static String blindIndexColumnName(final String columnName) {
+    return BLIND_INDEX_COLUMN_PREFIX + columnName;
+  }
+
+  public static String keyNameForBlindIndexColumn(final String columnName) {
+    return KEY_FOR_BLIND_INDEX_COLUMN_PREFIX + columnName;
+  }
+
+  public static boolean isBlindIndexColumn(final String columnName) {
+    return columnName.startsWith(BLIND_INDEX_COLUMN_PREFIX);
+  }
+
+  /**
+   * Compute the blind index of the plain value, which is the truncated HMAC-SHA256 of the value
+   * keyed by the encrypt key. The equal values have the same blind index, so the blind index
+   * column can be indexed and looked up without revealing the values.
+   *
+   * @return a hex literal expression, e.g. X'0a1b...'
+   */
+  public static String computeBlindIndex(final String key, final String value) {
+    byte[] hmac;
+    try {
+      hmac =
+          SecurityUtils.hmacSha256(
+              key.getBytes(StandardCharsets.UTF_8), value.getBytes(StandardCharsets.UTF_8));
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Failed to compute the blind index.", e);
+    }
+
+    var builder = new StringBuilder(BLIND_INDEX_LENGTH * 2 + 3);
+    builder.append("X'");
+    for (int i = 0; i < BLIND_INDEX_LENGTH; i++) {
+      builder.append(HEX_DIGITS[(hmac[i] >> 4) & 0x0f]).append(HEX_DIGITS[hmac[i] & 0x0f]);
+    }
+    return builder.append('\'').toString();
+  }
+
   public static boolean isValidOperator(SQLBinaryOperator operator) {
     switch (operator) {
       case Equality:
@@ -3,4 +3,7 @@ package com.gllue.myproxy.command.handler.query;
 public interface Encryptor {
   /** Wrap the expression with encryption function. */
   String encryptExpr(String expr);
+
+  /** Compute the blind index of the plain value, the result is a hex literal expression. */
+  String blindIndexExpr(String value);
 }
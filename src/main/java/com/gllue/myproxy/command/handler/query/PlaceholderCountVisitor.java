@@ -0,0 +1,21 @@
+package com.gllue.myproxy.command.handler.query;
+
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+
+/** Count the placeholders of a prepared statement. */
+public class PlaceholderCountVisitor extends MySqlASTVisitorAdapter {
+  private int count = 0;
+
+  @Override
+  public boolean visit(SQLVariantRefExpr x) {
+    if ("?".equals(x.getName())) {
+      count++;
+    }
+    return false;
+  }
+
+  public int getCount() {
+    return count;
+  }
+}
@@ -0,0 +1,16 @@
+package com.gllue.myproxy.command.handler.query;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** The rewritten query of a prepared statement. */
+@Getter
+@RequiredArgsConstructor
+public class PreparedQuery {
+  /** The query to be prepared by the backend database, the placeholders are kept as they are. */
+  private final String query;
+
+  private final int parameterCount;
+
+  private final boolean readOnly;
+}
@@ -2,6 +2,7 @@ package com.gllue.myproxy.command.handler.query;
 
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.gllue.myproxy.command.handler.HandlerRequest;
+import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
 import com.gllue.myproxy.sql.parser.SQLCommentAttributeKey;
 import com.gllue.myproxy.transport.frontend.connection.SessionContext;
 import java.util.Map;
@@ -18,4 +19,9 @@ public interface QueryHandlerRequest extends HandlerRequest {
   Map<SQLCommentAttributeKey, Object> getCommentsAttributes();
 
   SessionContext getSessionContext();
+
+  /** The metadata snapshot pinned by the query, null if not pinned yet. */
+  MultiDatabasesMetaData getMetaDataSnapshot();
+
+  void setMetaDataSnapshot(MultiDatabasesMetaData metaData);
 }
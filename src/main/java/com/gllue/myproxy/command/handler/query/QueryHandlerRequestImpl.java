@@ -1,6 +1,7 @@
 package com.gllue.myproxy.command.handler.query;
 
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
 import com.gllue.myproxy.sql.parser.SQLCommentAttributeKey;
 import com.gllue.myproxy.transport.frontend.connection.SessionContext;
 import com.google.common.base.Preconditions;
@@ -17,6 +18,7 @@ public class QueryHandlerRequestImpl implements QueryHandlerRequest {
 
   private SQLStatement statement;
   private Map<SQLCommentAttributeKey, Object> attributes;
+  private MultiDatabasesMetaData metaDataSnapshot;
 
   @Override
   public int getConnectionId() {
@@ -68,4 +70,14 @@ public class QueryHandlerRequestImpl implements QueryHandlerRequest {
   public SessionContext getSessionContext() {
     return sessionContext;
   }
+
+  @Override
+  public MultiDatabasesMetaData getMetaDataSnapshot() {
+    return metaDataSnapshot;
+  }
+
+  @Override
+  public void setMetaDataSnapshot(MultiDatabasesMetaData metaData) {
+    this.metaDataSnapshot = metaData;
+  }
 }
@@ -38,6 +38,19 @@ public abstract class SchemaRelatedQueryHandler extends AbstractQueryHandler {
     this.clusterState = clusterState;
   }
 
+  /**
+   * Returns the metadata snapshot pinned by the request, the snapshot is taken on the first call,
+   * so that a query reads the same metadata throughout its execution.
+   */
+  protected MultiDatabasesMetaData getMetaData(final QueryHandlerRequest request) {
+    var metaData = request.getMetaDataSnapshot();
+    if (metaData == null) {
+      metaData = clusterState.getMetaData().snapshot();
+      request.setMetaDataSnapshot(metaData);
+    }
+    return metaData;
+  }
+
   protected CommandExecutionContext<MultiDatabasesMetaData> newCommandExecutionContext() {
     return new MultiDatabasesCommandContext(clusterState.getMetaData(), repository, configurations);
   }
@@ -56,8 +69,9 @@ public abstract class SchemaRelatedQueryHandler extends AbstractQueryHandler {
         (cb) -> {
           var queryBuilder = new StringBuilder();
           queryBuilder.append("LOCK TABLES");
-          for (var tableName : tableNames) {
-            queryBuilder.append(" `");
+          for (int i = 0; i < tableNames.length; i++) {
+            var tableName = tableNames[i];
+            queryBuilder.append(i == 0 ? " `" : ", `");
             queryBuilder.append(tableName);
             queryBuilder.append("` ");
             queryBuilder.append(lockType.name());
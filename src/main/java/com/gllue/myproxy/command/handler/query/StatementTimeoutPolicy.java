@@ -0,0 +1,131 @@
+package com.gllue.myproxy.command.handler.query;
+
+import com.alibaba.druid.sql.ast.SQLStatement;
+import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlDeleteStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUpdateStatement;
+import com.gllue.myproxy.sql.parser.SQLCommentAttributeKey;
+import com.google.common.base.Preconditions;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolve the max execution time of a statement. The comment attribute {@code MAX_EXECUTION_TIME}
+ * of the statement takes precedence, otherwise the most specific rule of the user and the statement
+ * type is used, the default timeout applies if no rule matches. Only the DML statements are subject
+ * to the rules and the default timeout, the other statements are limited by the comment attribute
+ * only. 0 means no timeout.
+ */
+public class StatementTimeoutPolicy {
+  public static final long DEFAULT_MAX_EXECUTION_TIME_IN_MILLS = 0;
+
+  static final String ANY = "*";
+
+  static final String SELECT = "select";
+  static final String INSERT = "insert";
+  static final String UPDATE = "update";
+  static final String DELETE = "delete";
+
+  private final long defaultTimeoutInMills;
+  private final Map<String, Long> rules;
+
+  /**
+   * @param defaultTimeoutInMills the timeout of the DML statements which match no rule
+   * @param rules the rules in the form of {@code user/type:mills}, the type is one of select,
+   *     insert, update and delete, both the user and the type can be {@code *} which matches any,
+   *     e.g. {@code reporter/select:60000}
+   */
+  public StatementTimeoutPolicy(final long defaultTimeoutInMills, final Collection<String> rules) {
+    Preconditions.checkArgument(defaultTimeoutInMills >= 0, "defaultTimeoutInMills must >= 0");
+    this.defaultTimeoutInMills = defaultTimeoutInMills;
+    this.rules = parseRules(rules);
+  }
+
+  private static Map<String, Long> parseRules(final Collection<String> items) {
+    var rules = new HashMap<String, Long>();
+    for (var item : items) {
+      var colon = item.lastIndexOf(':');
+      var slash = item.indexOf('/');
+      if (slash <= 0 || colon <= slash + 1) {
+        throw new IllegalArgumentException(String.format("Bad statement timeout rule [%s]", item));
+      }
+      var user = item.substring(0, slash).trim();
+      var type = item.substring(slash + 1, colon).trim().toLowerCase();
+      Preconditions.checkArgument(
+          ANY.equals(type) || isStatementType(type), "Unknown statement type. [%s]", item);
+      var timeout = Long.parseLong(item.substring(colon + 1).trim());
+      Preconditions.checkArgument(timeout >= 0, "Statement timeout must >= 0. [%s]", item);
+      rules.put(ruleKey(user, type), timeout);
+    }
+    return rules;
+  }
+
+  private static boolean isStatementType(final String type) {
+    return SELECT.equals(type) || INSERT.equals(type) || UPDATE.equals(type) || DELETE.equals(type);
+  }
+
+  private static String ruleKey(final String user, final String type) {
+    return user + "/" + type;
+  }
+
+  /** Returns the type of the statement used by the rules, null if it's not a DML statement. */
+  static String statementTypeOf(final SQLStatement stmt) {
+    if (stmt instanceof SQLSelectStatement) {
+      return SELECT;
+    } else if (stmt instanceof MySqlInsertStatement) {
+      return INSERT;
+    } else if (stmt instanceof MySqlUpdateStatement) {
+      return UPDATE;
+    } else if (stmt instanceof MySqlDeleteStatement) {
+      return DELETE;
+    }
+    return null;
+  }
+
+  public long resolve(
+      final String user, final SQLStatement stmt, final Map<SQLCommentAttributeKey, Object> attrs) {
+    var value = attrs.get(SQLCommentAttributeKey.MAX_EXECUTION_TIME);
+    if (value != null) {
+      return parseAttribute(value);
+    }
+    return resolve(user, statementTypeOf(stmt));
+  }
+
+  long resolve(final String user, final String type) {
+    if (type == null) {
+      return 0;
+    }
+
+    Long timeout = rules.get(ruleKey(user, type));
+    if (timeout == null) {
+      timeout = rules.get(ruleKey(user, ANY));
+    }
+    if (timeout == null) {
+      timeout = rules.get(ruleKey(ANY, type));
+    }
+    if (timeout == null) {
+      timeout = rules.get(ruleKey(ANY, ANY));
+    }
+    return timeout == null ? defaultTimeoutInMills : timeout;
+  }
+
+  static long parseAttribute(final Object value) {
+    long timeout;
+    if (value instanceof Number) {
+      timeout = ((Number) value).longValue();
+    } else {
+      try {
+        timeout = Long.parseLong(String.valueOf(value).trim());
+      } catch (NumberFormatException e) {
+        timeout = -1;
+      }
+    }
+    if (timeout < 0) {
+      throw new BadCommentAttributeException(
+          SQLCommentAttributeKey.MAX_EXECUTION_TIME, String.valueOf(value));
+    }
+    return timeout;
+  }
+}
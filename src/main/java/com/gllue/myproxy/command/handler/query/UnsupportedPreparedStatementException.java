@@ -0,0 +1,25 @@
+package com.gllue.myproxy.command.handler.query;
+
+import com.gllue.myproxy.command.handler.CommandHandlerException;
+import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+
+/**
+ * The statement cannot be prepared by the backend database, the clients such as MySQL Connector/J
+ * fall back to the client-side prepared statement on this error.
+ */
+public class UnsupportedPreparedStatementException extends CommandHandlerException {
+  public UnsupportedPreparedStatementException(String msg, Object... args) {
+    super(msg, args);
+  }
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return MySQLServerErrorCode.ER_UNSUPPORTED_PS;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return EMPTY_ERROR_MESSAGE_ARGS;
+  }
+}
@@ -3,8 +3,12 @@ package com.gllue.myproxy.command.handler.query.dcl.set;
 import static com.gllue.myproxy.common.util.SQLStatementUtils.newSQLSetStatement;
 import static com.gllue.myproxy.common.util.SQLStatementUtils.toSQLString;
 
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.sql.SQLUtils;
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLLiteralExpr;
 import com.alibaba.druid.sql.ast.expr.SQLNullExpr;
 import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
 import com.alibaba.druid.sql.ast.statement.SQLAssignItem;
@@ -21,6 +25,8 @@ import com.gllue.myproxy.common.Promise;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.exception.NoDatabaseException;
 import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -35,6 +41,8 @@ public class SetStatementHandler extends AbstractQueryHandler {
 
   private static final Set<String> AUTOCOMMIT_ENABLE_VALUES = Set.of("ON", "1", "TRUE");
   private static final Set<String> AUTOCOMMIT_DISABLE_VALUES = Set.of("OFF", "0", "FALSE");
+  private static final List<String> SESSION_VARIABLE_PREFIXES =
+      List.of("@@SESSION.", "@@LOCAL.", "@@");
 
   public SetStatementHandler(final TransportService transportService, final ThreadPool threadPool) {
     super(transportService, threadPool);
@@ -125,6 +133,40 @@ public class SetStatementHandler extends AbstractQueryHandler {
     return false;
   }
 
+  private static String variableName(SQLExpr target) {
+    var name = target.toString().toUpperCase();
+    for (var prefix : SESSION_VARIABLE_PREFIXES) {
+      if (name.startsWith(prefix)) {
+        return name.substring(prefix.length());
+      }
+    }
+    return name;
+  }
+
+  private static boolean isConstant(SQLExpr value) {
+    return value instanceof SQLLiteralExpr || value instanceof SQLIdentifierExpr;
+  }
+
+  /**
+   * Record the variables assigned by the backend connection, so that they can be restored on
+   * another backend connection. A variable assigned with a non-constant value may get another value
+   * on the other backend connection, so it binds the session to the backend connection instead.
+   */
+  private void recordSessionVariables(SessionContext sessionContext, List<SQLAssignItem> items) {
+    for (var item : items) {
+      var target = item.getTarget();
+      if (target instanceof SQLVariantRefExpr && ((SQLVariantRefExpr) target).isGlobal()) {
+        continue;
+      }
+      if (isConstant(item.getValue())) {
+        sessionContext.setSessionVariable(
+            variableName(target), SQLUtils.toSQLString(item, DbType.mysql));
+      } else {
+        sessionContext.addBoundState(BoundState.VARIABLE);
+      }
+    }
+  }
+
   private Function<CommandResult, Promise<CommandResult>> processorSupplier(
       List<Supplier<Promise<CommandResult>>> delayProcessors) {
     var size = delayProcessors.size();
@@ -157,7 +199,14 @@ public class SetStatementHandler extends AbstractQueryHandler {
     if (!remainItems.isEmpty()) {
       var connectionId = request.getConnectionId();
       var newQuery = toSQLString(newSQLSetStatement(remainItems));
-      promise = new Promise<>((cb) -> submitQueryToBackendDatabase(connectionId, newQuery, cb));
+      promise =
+          new Promise<CommandResult>(
+                  (cb) -> submitQueryToBackendDatabase(connectionId, newQuery, cb))
+              .then(
+                  (result) -> {
+                    recordSessionVariables(request.getSessionContext(), remainItems);
+                    return result;
+                  });
     } else {
       promise = Promise.emptyPromise();
     }
@@ -0,0 +1,182 @@
+package com.gllue.myproxy.command.handler.query.dcl.show;
+
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.metadata.model.TableMetaData;
+import com.google.common.base.Preconditions;
+import io.prometheus.client.Counter;
+import java.util.LinkedHashMap;
+import javax.annotation.Nullable;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache the final answers of the schema queries (SHOW COLUMNS, SHOW CREATE TABLE and
+ * COM_FIELD_LIST) of the tables managed by the proxy. An answer is bound to the identity and the
+ * version of the table metadata, it's invalidated once the metadata is updated by the DDL handlers
+ * or by the metadata watcher. The DDL statements which don't update the metadata invalidate the
+ * answers of the data source explicitly, and the answers expire after a while in case the tables
+ * are altered by the other proxy nodes. The DML statements don't invalidate the answers, so the
+ * AUTO_INCREMENT table option is removed from the SHOW CREATE TABLE answers.
+ */
+public class SchemaAnswerCache {
+  private static final Counter CACHE_HITS =
+      Counter.build()
+          .name("schema_answer_cache_hits")
+          .help("Total hits of the schema answer cache.")
+          .register();
+
+  private static final Counter CACHE_MISSES =
+      Counter.build()
+          .name("schema_answer_cache_misses")
+          .help("Total misses of the schema answer cache.")
+          .register();
+
+  public static final int DEFAULT_CAPACITY = 10000;
+
+  public static final long DEFAULT_EXPIRE_TIME_IN_MILLS = 60 * 1000;
+
+  public enum AnswerType {
+    SHOW_COLUMNS,
+    SHOW_CREATE_TABLE,
+    FIELD_LIST
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static class Key {
+    private final String datasource;
+    private final String database;
+    private final String table;
+    private final AnswerType type;
+    private final String variant;
+  }
+
+  @RequiredArgsConstructor
+  private static class Entry {
+    private final String identity;
+    private final int version;
+    private final long expireTime;
+    private final EncodedQueryHandlerResult answer;
+  }
+
+  private final boolean enabled;
+  private final int capacity;
+  private final long expireTimeInMills;
+  private final LinkedHashMap<Key, Entry> answers;
+
+  public SchemaAnswerCache(final int capacity, final long expireTimeInMills) {
+    this(true, capacity, expireTimeInMills);
+  }
+
+  private SchemaAnswerCache(
+      final boolean enabled, final int capacity, final long expireTimeInMills) {
+    Preconditions.checkArgument(capacity > 0, "capacity must > 0");
+    Preconditions.checkArgument(expireTimeInMills > 0, "expireTimeInMills must > 0");
+    this.enabled = enabled;
+    this.capacity = capacity;
+    this.expireTimeInMills = expireTimeInMills;
+    this.answers = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /** A cache which never keeps the answers. */
+  public static SchemaAnswerCache disabled() {
+    return new SchemaAnswerCache(false, DEFAULT_CAPACITY, DEFAULT_EXPIRE_TIME_IN_MILLS);
+  }
+
+  @Nullable
+  public synchronized EncodedQueryHandlerResult get(
+      final String datasource,
+      final String database,
+      final TableMetaData table,
+      final AnswerType type,
+      final String variant) {
+    if (!enabled) {
+      return null;
+    }
+
+    var key = new Key(datasource, database, table.getName(), type, variant);
+    var entry = answers.get(key);
+    if (entry == null) {
+      CACHE_MISSES.inc();
+      return null;
+    }
+    if (!entry.identity.equals(table.getIdentity())
+        || entry.version != table.getVersion()
+        || entry.expireTime <= System.currentTimeMillis()) {
+      answers.remove(key);
+      CACHE_MISSES.inc();
+      return null;
+    }
+    CACHE_HITS.inc();
+    return entry.answer;
+  }
+
+  public synchronized void put(
+      final String datasource,
+      final String database,
+      final TableMetaData table,
+      final AnswerType type,
+      final String variant,
+      final EncodedQueryHandlerResult answer) {
+    if (!enabled) {
+      return;
+    }
+
+    var key = new Key(datasource, database, table.getName(), type, variant);
+    var expireTime = System.currentTimeMillis() + expireTimeInMills;
+    answers.put(key, new Entry(table.getIdentity(), table.getVersion(), expireTime, answer));
+
+    var iterator = answers.entrySet().iterator();
+    while (answers.size() > capacity && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+    }
+  }
+
+  /** Forget the answers of the data source, it's invoked around the DDL statements. */
+  public synchronized void invalidate(final String datasource) {
+    answers.keySet().removeIf(key -> key.datasource.equals(datasource));
+  }
+
+  public synchronized int size() {
+    return answers.size();
+  }
+
+  /**
+   * Wrap the callback of a schema query, the result of the query is encoded and put into the
+   * cache before it's passed to the callback.
+   */
+  public Callback<HandlerResult> cachingCallback(
+      final String datasource,
+      final String database,
+      final TableMetaData table,
+      final AnswerType type,
+      final String variant,
+      final Callback<HandlerResult> callback) {
+    if (!enabled) {
+      return callback;
+    }
+
+    return new Callback<>() {
+      @Override
+      public void onSuccess(HandlerResult result) {
+        EncodedQueryHandlerResult answer;
+        try {
+          answer = EncodedQueryHandlerResult.encode(result);
+        } catch (Exception e) {
+          callback.onFailure(e);
+          return;
+        }
+        put(datasource, database, table, type, variant, answer);
+        callback.onSuccess(answer);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        callback.onFailure(e);
+      }
+    };
+  }
+}
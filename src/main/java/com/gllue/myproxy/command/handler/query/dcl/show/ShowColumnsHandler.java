@@ -12,6 +12,7 @@ import com.gllue.myproxy.command.handler.query.AbstractQueryHandler;
 import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache.AnswerType;
 import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.command.result.query.MergeQueryResult;
 import com.gllue.myproxy.command.result.query.QueryResult;
@@ -26,7 +27,6 @@ import com.gllue.myproxy.metadata.model.TableMetaData;
 import com.gllue.myproxy.metadata.model.TableType;
 import com.gllue.myproxy.transport.core.service.TransportService;
 import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class ShowColumnsHandler extends AbstractQueryHandler {
@@ -35,13 +35,23 @@ public class ShowColumnsHandler extends AbstractQueryHandler {
   private static final int TYPE_INDEX = 1;
 
   private final ClusterState clusterState;
+  private final SchemaAnswerCache schemaAnswerCache;
 
   public ShowColumnsHandler(
       final TransportService transportService,
       final ThreadPool threadPool,
       final ClusterState clusterState) {
+    this(transportService, threadPool, clusterState, SchemaAnswerCache.disabled());
+  }
+
+  public ShowColumnsHandler(
+      final TransportService transportService,
+      final ThreadPool threadPool,
+      final ClusterState clusterState,
+      final SchemaAnswerCache schemaAnswerCache) {
     super(transportService, threadPool);
     this.clusterState = clusterState;
+    this.schemaAnswerCache = schemaAnswerCache;
   }
 
   @Override
@@ -51,21 +61,14 @@ public class ShowColumnsHandler extends AbstractQueryHandler {
 
   private Promise<QueryResult> showPartitionTableColumns(
       int connectionId, SQLShowColumnsStatement stmt, PartitionTableMetaData table) {
-    var tableNames = table.getTableNames();
-    var size = tableNames.length;
-    var index = new AtomicInteger(0);
-    var promise =
-        Promise.all(
-            () -> {
-              var i = index.getAndIncrement();
-              if (i >= size) return null;
-              var newStmt = (SQLShowColumnsStatement) stmt.clone();
-              newStmt.setTable(new SQLIdentifierExpr(quoteName(tableNames[i])));
-              var query = toSQLString(newStmt);
-              return new Promise<CommandResult>(
-                  (callback) -> submitQueryToBackendDatabase(connectionId, query, callback));
-            });
+    var queries = new ArrayList<String>();
+    for (var tableName : table.getTableNames()) {
+      var newStmt = (SQLShowColumnsStatement) stmt.clone();
+      newStmt.setTable(new SQLIdentifierExpr(quoteName(tableName)));
+      queries.add(toSQLString(newStmt));
+    }
 
+    var promise = executeQueriesInParallel(connectionId, queries);
     return promise.then(
         (result) -> {
           var queryResults =
@@ -138,7 +141,33 @@ public class ShowColumnsHandler extends AbstractQueryHandler {
       return;
     }
 
-    doShowTableColumns(connectionId, stmt, database.getTable(tableName))
+    var table = database.getTable(tableName);
+    if (stmt.getWhere() != null) {
+      showTableColumns(connectionId, stmt, table, callback);
+      return;
+    }
+
+    var variant = answerVariant(stmt);
+    var answer =
+        schemaAnswerCache.get(datasource, databaseName, table, AnswerType.SHOW_COLUMNS, variant);
+    if (answer != null) {
+      callback.onSuccess(answer);
+      return;
+    }
+    showTableColumns(
+        connectionId,
+        stmt,
+        table,
+        schemaAnswerCache.cachingCallback(
+            datasource, databaseName, table, AnswerType.SHOW_COLUMNS, variant, callback));
+  }
+
+  private void showTableColumns(
+      int connectionId,
+      SQLShowColumnsStatement stmt,
+      TableMetaData table,
+      Callback<HandlerResult> callback) {
+    doShowTableColumns(connectionId, stmt, table)
         .then(
             (result) -> {
               callback.onSuccess(new QueryHandlerResult(result));
@@ -150,6 +179,15 @@ public class ShowColumnsHandler extends AbstractQueryHandler {
             });
   }
 
+  /** The answers of SHOW [FULL] COLUMNS ... [LIKE 'pattern'] differ in the modifier and pattern. */
+  private String answerVariant(SQLShowColumnsStatement stmt) {
+    var variant = stmt.isFull() ? "FULL" : "";
+    if (stmt.getLike() != null) {
+      variant += " LIKE " + stmt.getLike();
+    }
+    return variant;
+  }
+
   @Override
   public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
     var stmt = (SQLShowColumnsStatement) request.getStatement();
@@ -24,6 +24,7 @@ import com.gllue.myproxy.command.handler.query.AbstractQueryHandler;
 import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache.AnswerType;
 import com.gllue.myproxy.command.result.query.QueryResultMetaData;
 import com.gllue.myproxy.command.result.query.SingleRowQueryResult;
 import com.gllue.myproxy.common.Callback;
@@ -44,18 +45,30 @@ import java.util.stream.Collectors;
 public class ShowCreateTableHandler extends AbstractQueryHandler {
   public static final String NAME = "Show create table handler";
   private static final String SHOW_CREATE_TABLE_QUERY_TEMPLATE = "SHOW CREATE TABLE %s";
+  private static final String AUTO_INCREMENT_OPTION = "AUTO_INCREMENT";
 
   private final ClusterState clusterState;
   private final SQLParser sqlParser;
+  private final SchemaAnswerCache schemaAnswerCache;
 
   public ShowCreateTableHandler(
       final TransportService transportService,
       final ClusterState clusterState,
       final SQLParser sqlParser,
       final ThreadPool threadPool) {
+    this(transportService, clusterState, sqlParser, threadPool, SchemaAnswerCache.disabled());
+  }
+
+  public ShowCreateTableHandler(
+      final TransportService transportService,
+      final ClusterState clusterState,
+      final SQLParser sqlParser,
+      final ThreadPool threadPool,
+      final SchemaAnswerCache schemaAnswerCache) {
     super(transportService, threadPool);
     this.clusterState = clusterState;
     this.sqlParser = sqlParser;
+    this.schemaAnswerCache = schemaAnswerCache;
   }
 
   @Override
@@ -111,6 +124,16 @@ public class ShowCreateTableHandler extends AbstractQueryHandler {
     return newElements;
   }
 
+  /**
+   * Remove the AUTO_INCREMENT table option, the answer is cached in the schema answer cache which
+   * is not invalidated by the inserts, so the counter in the answer may be outdated.
+   */
+  private void removeAutoIncrementOption(MySqlCreateTableStatement createTableStmt) {
+    createTableStmt
+        .getTableOptions()
+        .removeIf(x -> AUTO_INCREMENT_OPTION.equalsIgnoreCase(x.getTarget().toString()));
+  }
+
   private HandlerResult newResult(
       QueryResultMetaData metaData, String tableName, SQLStatement createTableStmt) {
     return new QueryHandlerResult(
@@ -126,7 +149,7 @@ public class ShowCreateTableHandler extends AbstractQueryHandler {
             .map(x -> String.format(SHOW_CREATE_TABLE_QUERY_TEMPLATE, quoteName(x)))
             .collect(Collectors.toList());
 
-    executeQueries(request, queries)
+    executeQueriesInParallel(request.getConnectionId(), queries)
         .then(
             (result) -> {
               QueryResultMetaData metaData = null;
@@ -147,6 +170,7 @@ public class ShowCreateTableHandler extends AbstractQueryHandler {
                 primaryTableStmt.getTableElementList().addAll(newTableElements);
               }
 
+              removeAutoIncrementOption(primaryTableStmt);
               callback.onSuccess(newResult(metaData, table.getName(), primaryTableStmt));
               return true;
             })
@@ -175,6 +199,7 @@ public class ShowCreateTableHandler extends AbstractQueryHandler {
                   filterTableElements(createTableStmt.getTableElementList(), table);
               createTableStmt.getTableElementList().clear();
               createTableStmt.getTableElementList().addAll(newTableElements);
+              removeAutoIncrementOption(createTableStmt);
 
               callback.onSuccess(
                   newResult(queryResult.getMetaData(), table.getName(), createTableStmt));
@@ -210,7 +235,19 @@ public class ShowCreateTableHandler extends AbstractQueryHandler {
 
     var database = clusterState.getMetaData().getDatabase(request.getDatasource(), databaseName);
     if (database != null && database.hasTable(tableName)) {
-      handleShowCreateTable(request, callback, database.getTable(tableName));
+      var table = database.getTable(tableName);
+      var datasource = request.getDatasource();
+      var answer =
+          schemaAnswerCache.get(datasource, databaseName, table, AnswerType.SHOW_CREATE_TABLE, "");
+      if (answer != null) {
+        callback.onSuccess(answer);
+        return;
+      }
+      handleShowCreateTable(
+          request,
+          schemaAnswerCache.cachingCallback(
+              datasource, databaseName, table, AnswerType.SHOW_CREATE_TABLE, "", callback),
+          table);
     } else {
       submitQueryAndDirectTransferResult(request.getConnectionId(), request.getQuery(), callback);
     }
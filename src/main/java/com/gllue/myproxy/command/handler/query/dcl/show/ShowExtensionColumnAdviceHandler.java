@@ -0,0 +1,115 @@
+package com.gllue.myproxy.command.handler.query.dcl.show;
+
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.handler.query.SchemaRelatedQueryHandler;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnPlacementAdvisor;
+import com.gllue.myproxy.command.result.query.DefaultQueryResultMetaData;
+import com.gllue.myproxy.command.result.query.DefaultQueryResultMetaData.Column;
+import com.gllue.myproxy.command.result.query.SimpleQueryResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.exception.BadDatabaseException;
+import com.gllue.myproxy.common.exception.BadTableException;
+import com.gllue.myproxy.common.exception.NoDatabaseException;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import com.gllue.myproxy.metadata.model.TableType;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.sql.stmt.SQLShowExtensionColumnAdviceStatement;
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import java.util.ArrayList;
+
+/**
+ * Show the placement of the extension columns of a partition table proposed by {@link
+ * ExtensionColumnPlacementAdvisor} from the recorded access patterns, one row per extension table.
+ * The accesses of an extension table are the number of the recorded queries joining it, the sum
+ * of the accesses divided by the total accesses is the expected number of the joined extension
+ * tables per query.
+ */
+public class ShowExtensionColumnAdviceHandler extends SchemaRelatedQueryHandler {
+  private static final String NAME = "Show extension column advice handler";
+
+  private static final Column[] COLUMNS =
+      new Column[] {
+        new Column("Extension_table", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Columns", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Accesses", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Proposed_columns", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Proposed_accesses", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Total_accesses", MySQLColumnType.MYSQL_TYPE_LONGLONG)
+      };
+
+  private final ExtensionColumnAccessStats accessStats;
+
+  public ShowExtensionColumnAdviceHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final ThreadPool threadPool,
+      final ExtensionColumnAccessStats accessStats) {
+    super(repository, configurations, clusterState, transportService, threadPool);
+    this.accessStats = accessStats;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  private PartitionTableMetaData getPartitionTable(
+      final QueryHandlerRequest request, final String tableName) {
+    var database = request.getDatabase();
+    if (database == null) {
+      throw new NoDatabaseException();
+    }
+    var databaseMetaData =
+        clusterState.getMetaData().getDatabase(request.getDatasource(), database);
+    if (databaseMetaData == null) {
+      throw new BadDatabaseException(database);
+    }
+    var table = databaseMetaData.getTable(tableName);
+    if (table == null || table.getType() != TableType.PARTITION) {
+      throw new BadTableException(tableName);
+    }
+    return (PartitionTableMetaData) table;
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    var stmt = (SQLShowExtensionColumnAdviceStatement) request.getStatement();
+    var table = getPartitionTable(request, stmt.getTableName());
+    int maxColumnsPerTable =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.EXTENSION_TABLE_MAX_COLUMNS_PER_TABLE);
+    var patterns = accessStats.getAccessPatterns(table.getIdentity());
+    var placement = ExtensionColumnPlacementAdvisor.advise(table, maxColumnsPerTable, patterns);
+
+    var currentLayout = placement.getCurrentLayout();
+    var proposedLayout = placement.getProposedLayout();
+    var currentAccesses = ExtensionColumnPlacementAdvisor.tableAccesses(currentLayout, patterns);
+    var proposedAccesses = ExtensionColumnPlacementAdvisor.tableAccesses(proposedLayout, patterns);
+    var extensionTables = table.getExtensionTables();
+    var rows = new ArrayList<String[]>();
+    for (int i = 0; i < extensionTables.length; i++) {
+      rows.add(
+          new String[] {
+            extensionTables[i].getName(),
+            String.join(",", currentLayout.get(i)),
+            String.valueOf(currentAccesses[i]),
+            String.join(",", proposedLayout.get(i)),
+            String.valueOf(proposedAccesses[i]),
+            String.valueOf(placement.getTotalAccesses())
+          });
+    }
+    var result = new SimpleQueryResult(new DefaultQueryResultMetaData(COLUMNS), rows);
+    callback.onSuccess(new QueryHandlerResult(result));
+  }
+}
@@ -0,0 +1,111 @@
+package com.gllue.myproxy.command.handler.query.dcl.show;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.sql.visitor.ParameterizedOutputVisitorUtils;
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.AbstractQueryHandler;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.result.query.DefaultQueryResultMetaData;
+import com.gllue.myproxy.command.result.query.DefaultQueryResultMetaData.Column;
+import com.gllue.myproxy.command.result.query.SimpleQueryResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.util.NetworkUtils;
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Show the runtime state of the frontend connections of the data source, e.g. the current phase,
+ * the digest of the current statement and the traffic, which is maintained by the proxy and is not
+ * available in {@code SHOW PROCESSLIST} of the backend database.
+ */
+public class ShowProxyProcessListHandler extends AbstractQueryHandler {
+  private static final String NAME = "Show proxy process list handler";
+  private static final int MAX_DIGEST_LENGTH = 1024;
+
+  private static final Column[] COLUMNS =
+      new Column[] {
+        new Column("Id", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("User", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Host", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("db", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Backend_thread_id", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Phase", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Time_in_phase_ms", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Statement_digest", MySQLColumnType.MYSQL_TYPE_VAR_STRING),
+        new Column("Bytes_received", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Bytes_sent", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Rows_received", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Rows_sent", MySQLColumnType.MYSQL_TYPE_LONGLONG),
+        new Column("Blocked_ms", MySQLColumnType.MYSQL_TYPE_LONGLONG)
+      };
+
+  public ShowProxyProcessListHandler(
+      final TransportService transportService, final ThreadPool threadPool) {
+    super(transportService, threadPool);
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  /**
+   * The statement with the literals replaced by the placeholders. The digest is computed when the
+   * process list is shown, so the executing statements don't pay for it.
+   */
+  static String digestOf(final String statement) {
+    if (statement == null) {
+      return null;
+    }
+
+    String digest;
+    try {
+      digest = ParameterizedOutputVisitorUtils.parameterize(statement, DbType.mysql);
+    } catch (Exception e) {
+      digest = statement;
+    }
+    digest = digest.replaceAll("\\s+", " ").trim();
+    if (digest.length() > MAX_DIGEST_LENGTH) {
+      digest = digest.substring(0, MAX_DIGEST_LENGTH);
+    }
+    return digest;
+  }
+
+  private String[] buildRow(final FrontendConnection connection) {
+    var stats = connection.getSessionContext().getConnectionStats();
+    var backendConnection = connection.getBackendConnection();
+    return new String[] {
+      String.valueOf(connection.connectionId()),
+      connection.currentUser(),
+      NetworkUtils.toAddressString(connection.remoteAddress()),
+      connection.currentDatabase(),
+      backendConnection == null ? null : String.valueOf(backendConnection.getDatabaseThreadId()),
+      stats.getPhase().name(),
+      String.valueOf(stats.getTimeInPhaseInMills()),
+      digestOf(stats.getStatement()),
+      String.valueOf(stats.getBytesReceived()),
+      String.valueOf(stats.getBytesSent()),
+      String.valueOf(stats.getRowsReceived()),
+      String.valueOf(stats.getRowsSent()),
+      String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getBlockedNanos()))
+    };
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    var connections = getFrontendConnectionList(request.getDatasource());
+    connections.sort(Comparator.comparingInt(FrontendConnection::connectionId));
+    var rows = new ArrayList<String[]>();
+    for (var connection : connections) {
+      rows.add(buildRow(connection));
+    }
+    var result = new SimpleQueryResult(new DefaultQueryResultMetaData(COLUMNS), rows);
+    callback.onSuccess(new QueryHandlerResult(result));
+  }
+}
@@ -14,10 +14,7 @@ import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.exception.NoDatabaseException;
 import com.gllue.myproxy.metadata.model.DatabaseMetaData;
-import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
-import com.gllue.myproxy.metadata.model.TableType;
 import com.gllue.myproxy.transport.core.service.TransportService;
-import java.util.HashSet;
 import java.util.function.Predicate;
 
 public class ShowTablesHandler extends AbstractQueryHandler {
@@ -40,16 +37,7 @@ public class ShowTablesHandler extends AbstractQueryHandler {
 
   private void filterTablesHandler(
       QueryHandlerRequest request, Callback<HandlerResult> callback, DatabaseMetaData database) {
-    var extensionTables = new HashSet<String>();
-    for (var table : database.getTables()) {
-      if (table.getType() == TableType.PARTITION) {
-        var partitionTable = (PartitionTableMetaData) table;
-        for (var extTable : partitionTable.getExtensionTables()) {
-          extensionTables.add(extTable.getName());
-        }
-      }
-    }
-
+    var extensionTables = database.getExtensionTableNames();
     Predicate<QueryResult> extensionTablesFilter =
         (queryResult) -> {
           var tableName = queryResult.getStringValue(0);
@@ -1,5 +1,6 @@
 package com.gllue.myproxy.command.handler.query.ddl;
 
+import static com.gllue.myproxy.command.handler.query.EncryptionHelper.isBlindIndexColumn;
 import static com.gllue.myproxy.command.handler.query.TablePartitionHelper.isExtensionTableIdColumn;
 import static com.gllue.myproxy.common.util.SQLStatementUtils.columnDefaultExpr;
 import static com.gllue.myproxy.common.util.SQLStatementUtils.columnIsNullable;
@@ -59,7 +60,7 @@ public abstract class AbstractDDLHandler extends SchemaRelatedQueryHandler {
         ColumnType.getColumnType(columnDef.getDataType().getName()),
         columnIsNullable(columnDef),
         columnDefaultExpr(columnDef),
-        isExtensionTableIdColumn(name));
+        isExtensionTableIdColumn(name) || isBlindIndexColumn(name));
   }
 
   protected MetaDataCommand<MultiDatabasesMetaData> buildCreateStandardTableCommand(
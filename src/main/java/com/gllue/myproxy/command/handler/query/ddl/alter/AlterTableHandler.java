@@ -11,16 +11,22 @@ import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlAlterTableModifyCo
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlCreateTableStatement;
 import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper;
 import com.gllue.myproxy.command.handler.query.NoEncryptKeyException;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
 import com.gllue.myproxy.command.handler.query.ddl.AbstractDDLHandler;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.Step;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.StepType;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJobRunner;
 import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.Promise;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.exception.BadDatabaseException;
+import com.gllue.myproxy.common.exception.BadTableException;
 import com.gllue.myproxy.common.util.SQLStatementUtils;
 import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.metadata.command.AbstractTableUpdateCommand;
@@ -34,6 +40,7 @@ import com.gllue.myproxy.metadata.model.TableType;
 import com.gllue.myproxy.repository.PersistRepository;
 import com.gllue.myproxy.sql.parser.SQLParser;
 import com.gllue.myproxy.transport.core.service.TransportService;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -51,6 +58,8 @@ import lombok.extern.slf4j.Slf4j;
 public class AlterTableHandler extends AbstractDDLHandler {
   private static final String NAME = "Alter table handler";
 
+  private final PartitionTableDDLJobRunner ddlJobRunner;
+
   public AlterTableHandler(
       final PersistRepository repository,
       final Configurations configurations,
@@ -59,6 +68,8 @@ public class AlterTableHandler extends AbstractDDLHandler {
       final SQLParser sqlParser,
       final ThreadPool threadPool) {
     super(repository, configurations, clusterState, transportService, sqlParser, threadPool);
+    this.ddlJobRunner =
+        new PartitionTableDDLJobRunner(transportService, repository, configurations, clusterState);
   }
 
   @Override
@@ -131,8 +142,18 @@ public class AlterTableHandler extends AbstractDDLHandler {
       return submitQueryToBackendDatabase(request.getConnectionId(), alterSql);
     }
 
+    /** Rewrite the statement for the encrypt columns, it should be called only once. */
+    private SQLAlterTableStatement prepare() {
+      return alterTableProcessor.processStatement(statement);
+    }
+
+    /** Whether the data of the table should be rewritten after the statement is prepared. */
+    private boolean shouldRewriteData() {
+      return encryptColumnProcessor.shouldDoEncryptOrDecrypt();
+    }
+
     private Promise<CommandResult> execute() {
-      var newStmt = alterTableProcessor.processStatement(statement);
+      var newStmt = prepare();
 
       Promise<CommandResult> alterTablePromise;
       if (newStmt.getItems().isEmpty()) {
@@ -224,8 +245,7 @@ public class AlterTableHandler extends AbstractDDLHandler {
     return true;
   }
 
-  private boolean updatePartitionTableMetaData(
-      QueryHandlerRequest request,
+  private Table[] buildPartitionTables(
       PartitionTableMetaData table,
       List<MySqlCreateTableStatement> createTableStmtList,
       List<SQLAlterTableStatement> alterTableStmtList) {
@@ -241,9 +261,9 @@ public class AlterTableHandler extends AbstractDDLHandler {
     for (; i < table.getNumberOfTables(); i++) {
       var subTable = table.getTableByOrdinalValue(i);
       var tableName = subTable.getName();
-      Map<String, UpdateTableCommand.Column> columnsMap = new HashMap<>();
+      Map<String, UpdateTableCommand.Column> columnsMap = new LinkedHashMap<>();
       for (int j = 0; j < subTable.getNumberOfColumns(); j++) {
-        var column = subTable.getColumn(i);
+        var column = subTable.getColumn(j);
         columnsMap.put(column.getName(), AbstractTableUpdateCommand.Column.newColumn(column));
       }
 
@@ -264,7 +284,15 @@ public class AlterTableHandler extends AbstractDDLHandler {
       }
       tables[i++] = new Table(tableName, columns);
     }
+    return tables;
+  }
 
+  private boolean updatePartitionTableMetaData(
+      QueryHandlerRequest request,
+      PartitionTableMetaData table,
+      List<MySqlCreateTableStatement> createTableStmtList,
+      List<SQLAlterTableStatement> alterTableStmtList) {
+    var tables = buildPartitionTables(table, createTableStmtList, alterTableStmtList);
     new UpdatePartitionTableCommand(
             request.getDatasource(),
             request.getDatabase(),
@@ -382,7 +410,7 @@ public class AlterTableHandler extends AbstractDDLHandler {
       if (i < 0) return null;
 
       var stmt = statements.get(i);
-      var table = partitionTable.getTableByOrdinalValue(i);
+      var table = getTableByName(partitionTable, stmt);
       var tableName = table.getName();
       return showCreateTableReturnColumnDefMap(request, tableName)
           .thenAsync(
@@ -392,24 +420,70 @@ public class AlterTableHandler extends AbstractDDLHandler {
     };
   }
 
-  void executeAlterTableOnPartitionTable(
-      QueryHandlerRequest request, Callback<HandlerResult> callback, PartitionTableMetaData table) {
-    var stmt = (SQLAlterTableStatement) request.getStatement();
+  private TableMetaData getTableByName(
+      PartitionTableMetaData partitionTable, SQLAlterTableStatement stmt) {
+    var tableName = SQLStatementUtils.unquoteName(stmt.getTableName());
+    for (int i = 0; i < partitionTable.getNumberOfTables(); i++) {
+      var table = partitionTable.getTableByOrdinalValue(i);
+      if (table.getName().equals(tableName)) {
+        return table;
+      }
+    }
+    throw new BadTableException(tableName);
+  }
 
-    var tablePartitionProcessor =
-        new TablePartitionProcessor(configurations, table, request.getCommentsAttributes());
-    tablePartitionProcessor.validateStatement(stmt);
+  private Promise<List<AlterTableExecutor>> prepareAlterTableExecutors(
+      QueryHandlerRequest request,
+      PartitionTableMetaData partitionTable,
+      List<SQLAlterTableStatement> statements) {
+    var iterator = statements.iterator();
+    return Promise.all(
+        () -> {
+          if (!iterator.hasNext()) return null;
+
+          var stmt = iterator.next();
+          var table = getTableByName(partitionTable, stmt);
+          return showCreateTableReturnColumnDefMap(request, table.getName())
+              .then(
+                  (columnDefinitionMap) -> {
+                    return new AlterTableExecutor(request, table, stmt, columnDefinitionMap);
+                  });
+        });
+  }
 
+  private PartitionTableDDLJob newPartitionTableDDLJob(
+      QueryHandlerRequest request,
+      PartitionTableMetaData table,
+      List<MySqlCreateTableStatement> createTableStmtList,
+      List<SQLAlterTableStatement> alterTableStmtList,
+      List<SQLAlterTableStatement> preparedStmtList) {
+    var steps = new ArrayList<Step>();
+    for (var stmt : createTableStmtList) {
+      var tableName = SQLStatementUtils.unquoteName(stmt.getTableName());
+      steps.add(new Step(StepType.CREATE_TABLE, tableName, SQLStatementUtils.toSQLString(stmt)));
+    }
+    for (var stmt : preparedStmtList) {
+      if (!stmt.getItems().isEmpty()) {
+        var tableName = SQLStatementUtils.unquoteName(stmt.getTableName());
+        steps.add(new Step(StepType.ALTER_TABLE, tableName, SQLStatementUtils.toSQLString(stmt)));
+      }
+    }
+    return new PartitionTableDDLJob(
+        clusterState.currentNode().getNodeName(),
+        request.getDatasource(),
+        request.getDatabase(),
+        table.getIdentity(),
+        steps,
+        buildPartitionTables(table, createTableStmtList, alterTableStmtList));
+  }
+
+  private Promise<Boolean> executeAlterTableOnPartitionTableWithLock(
+      QueryHandlerRequest request,
+      PartitionTableMetaData table,
+      List<MySqlCreateTableStatement> createTableStmtList,
+      List<SQLAlterTableStatement> alterTableStmtList) {
     Function<CommandResult, Promise<Boolean>> operation =
         (r) -> {
-          var excludeItems = new HashSet<SQLAlterTableItem>();
-          var items = stmt.getItems();
-          var tableOptionItems = tablePartitionProcessor.extractTableOptionItems(items);
-          var createTableStmtList =
-              tablePartitionProcessor.prepareCreateNewExtensionTables(
-                  items, tableOptionItems, excludeItems);
-          var alterTableStmtList =
-              tablePartitionProcessor.partitionStatement(items, tableOptionItems, excludeItems);
           return Promise.chain(createTablePromiseSupplier(request, createTableStmtList))
               .thenAsync(
                   (v) -> {
@@ -424,7 +498,61 @@ public class AlterTableHandler extends AbstractDDLHandler {
         };
 
     // lock table
-    lockTables(request.getConnectionId(), operation, LockType.WRITE, table.getTableNames())
+    return lockTables(request.getConnectionId(), operation, LockType.WRITE, table.getTableNames());
+  }
+
+  /**
+   * Alter the physical tables of the partition table concurrently by a {@link
+   * PartitionTableDDLJob}, no table lock is held. The statements which rewrite the data of the
+   * encrypt columns are still executed one by one with the tables locked.
+   */
+  void executeAlterTableOnPartitionTable(
+      QueryHandlerRequest request, Callback<HandlerResult> callback, PartitionTableMetaData table) {
+    var stmt = (SQLAlterTableStatement) request.getStatement();
+
+    var tablePartitionProcessor =
+        new TablePartitionProcessor(configurations, table, request.getCommentsAttributes());
+    tablePartitionProcessor.validateStatement(stmt);
+
+    var excludeItems = new HashSet<SQLAlterTableItem>();
+    var items = stmt.getItems();
+    var tableOptionItems = tablePartitionProcessor.extractTableOptionItems(items);
+    var createTableStmtList =
+        tablePartitionProcessor.prepareCreateNewExtensionTables(
+            items, tableOptionItems, excludeItems);
+    var alterTableStmtList =
+        tablePartitionProcessor.partitionStatement(items, tableOptionItems, excludeItems);
+
+    var tableIdentity = table.getIdentity();
+    if (!ddlJobRunner.tryClaim(tableIdentity)) {
+      throw new BadSQLException(
+          "Table [%s] has a running schema change, try again later.", table.getName());
+    }
+
+    Promise.<List<AlterTableExecutor>>emptyPromise()
+        .thenAsync((v) -> prepareAlterTableExecutors(request, table, alterTableStmtList))
+        .thenAsync(
+            (executors) -> {
+              var preparedStmtList = new ArrayList<SQLAlterTableStatement>();
+              var shouldRewriteData = false;
+              for (var executor : executors) {
+                preparedStmtList.add(executor.prepare());
+                shouldRewriteData |= executor.shouldRewriteData();
+              }
+              if (shouldRewriteData) {
+                return executeAlterTableOnPartitionTableWithLock(
+                    request, table, createTableStmtList, alterTableStmtList);
+              }
+              var job =
+                  newPartitionTableDDLJob(
+                      request, table, createTableStmtList, alterTableStmtList, preparedStmtList);
+              return ddlJobRunner.run(job);
+            })
+        .doFinally(
+            (Boolean result, Throwable e) -> {
+              ddlJobRunner.release(tableIdentity);
+              return result;
+            })
         .then(
             (v) -> {
               callback.onSuccess(QueryHandlerResult.OK_RESULT);
@@ -15,6 +15,8 @@ import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.exception.BadDatabaseException;
 import com.gllue.myproxy.common.exception.TableExistsException;
 import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
 import com.gllue.myproxy.metadata.command.MetaDataCommand;
 import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
 import com.gllue.myproxy.repository.PersistRepository;
@@ -42,13 +44,18 @@ public class CreateTableHandler extends AbstractDDLHandler {
     return NAME;
   }
 
+  private boolean isBlindIndexEnabled() {
+    return configurations.getValue(
+        Type.GENERIC, GenericConfigPropertyKey.ENCRYPTION_BLIND_INDEX_ENABLED);
+  }
+
   @Override
   public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
     ensureDatabaseExists(request);
 
     var stmt = (MySqlCreateTableStatement) request.getStatement();
     var attributes = request.getCommentsAttributes();
-    var encryptProcessor = new EncryptColumnProcessor();
+    var encryptProcessor = new EncryptColumnProcessor(isBlindIndexEnabled());
     var tablePartitionProcessor = new TablePartitionProcessor(configurations, attributes);
     var shouldEncrypt = encryptProcessor.prepare(stmt);
     var shouldPartition = tablePartitionProcessor.prepare(stmt);
@@ -76,6 +83,7 @@ public class CreateTableHandler extends AbstractDDLHandler {
     }
 
     var stmtList = tablePartitionProcessor.processStatement(List.of(stmt));
+    stmtList = encryptProcessor.addBlindIndexColumns(stmtList);
 
     MetaDataCommand<MultiDatabasesMetaData> createTableCommand =
         buildCreateTableCommand(
@@ -1,15 +1,23 @@
 package com.gllue.myproxy.command.handler.query.ddl.create;
 
+import static com.gllue.myproxy.command.handler.query.EncryptionHelper.BLIND_INDEX_LENGTH;
+import static com.gllue.myproxy.command.handler.query.EncryptionHelper.blindIndexColumnName;
+import static com.gllue.myproxy.command.handler.query.EncryptionHelper.isBlindIndexColumn;
+import static com.gllue.myproxy.command.handler.query.EncryptionHelper.keyNameForBlindIndexColumn;
 import static com.gllue.myproxy.common.util.SQLStatementUtils.isEncryptColumn;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.newColumnDefinition;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.newKey;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.unquoteName;
 import static com.gllue.myproxy.common.util.SQLStatementUtils.updateEncryptToVarbinary;
 
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
 import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
 import com.alibaba.druid.sql.ast.statement.SQLForeignKeyConstraint;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlCreateTableStatement;
 import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.metadata.model.ColumnType;
 import java.util.ArrayList;
 import java.util.List;
-import lombok.RequiredArgsConstructor;
 
 /**
  * A processor that handles encrypted columns.
@@ -24,9 +32,23 @@ import lombok.RequiredArgsConstructor;
  *      ...
  *    }
  * </pre>
+ *
+ * <p>If the blind index is enabled, a blind index column with an index is added next to each
+ * encrypted column in the same physical table, see {@link
+ * com.gllue.myproxy.command.handler.query.EncryptionHelper#computeBlindIndex}.
  */
-@RequiredArgsConstructor
 class EncryptColumnProcessor {
+  private static final String BLIND_INDEX_COLUMN_COMMENT = "Blind index column";
+
+  private final boolean blindIndexEnabled;
+
+  EncryptColumnProcessor() {
+    this(false);
+  }
+
+  EncryptColumnProcessor(final boolean blindIndexEnabled) {
+    this.blindIndexEnabled = blindIndexEnabled;
+  }
 
   private boolean prepared = false;
 
@@ -56,6 +78,47 @@ class EncryptColumnProcessor {
     if (stmt.getType() != null) {
       throw new BadSQLException("Add encrypt column to a temporary table is not allowed.");
     }
+    if (blindIndexEnabled) {
+      for (var columnDef : stmt.getColumnDefinitions()) {
+        if (isBlindIndexColumn(unquoteName(columnDef.getColumnName()))) {
+          throw new BadSQLException(
+              String.format(
+                  "Column name [%s] is reserved for the blind index.", columnDef.getColumnName()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Add the blind index columns of the encrypted columns to the statements, this must be done
+   * before the table metadata is built so that the blind index columns are recorded as the builtin
+   * columns.
+   */
+  List<MySqlCreateTableStatement> addBlindIndexColumns(List<MySqlCreateTableStatement> stmtList) {
+    if (!prepared || !blindIndexEnabled) {
+      return stmtList;
+    }
+
+    for (var stmt : stmtList) {
+      var columnNames = new ArrayList<String>();
+      for (var columnDef : stmt.getColumnDefinitions()) {
+        if (isEncryptColumn(columnDef)) {
+          columnNames.add(unquoteName(columnDef.getColumnName()));
+        }
+      }
+
+      var tableElements = stmt.getTableElementList();
+      for (var columnName : columnNames) {
+        var blindIndexColumn = blindIndexColumnName(columnName);
+        var columnDef =
+            newColumnDefinition(
+                blindIndexColumn, ColumnType.BINARY, true, null, BLIND_INDEX_COLUMN_COMMENT);
+        columnDef.getDataType().addArgument(new SQLIntegerExpr(BLIND_INDEX_LENGTH));
+        tableElements.add(columnDef);
+        tableElements.add(newKey(keyNameForBlindIndexColumn(columnName), blindIndexColumn));
+      }
+    }
+    return stmtList;
   }
 
   List<MySqlCreateTableStatement> processStatement(List<MySqlCreateTableStatement> stmtList) {
@@ -0,0 +1,217 @@
+package com.gllue.myproxy.command.handler.query.ddl.job;
+
+import com.gllue.myproxy.common.io.stream.ByteArrayStreamInput;
+import com.gllue.myproxy.common.io.stream.ByteArrayStreamOutput;
+import com.gllue.myproxy.common.io.stream.StreamInput;
+import com.gllue.myproxy.common.io.stream.StreamOutput;
+import com.gllue.myproxy.metadata.codec.MetaDataCodecException;
+import com.gllue.myproxy.metadata.command.AbstractTableUpdateCommand.Column;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand.Table;
+import com.gllue.myproxy.metadata.model.ColumnType;
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The DDL statements of the physical tables of a partition table, and the table metadata to commit
+ * once all of them succeed. The job is persisted with the started and the completed steps, so that
+ * the proxy node which owns it can resume it after a crash.
+ */
+@Getter
+public class PartitionTableDDLJob {
+  private static final String MAGIC_NUMBER = "my-proxy-ddl-job";
+  private static final String PROTOCOL_VERSION = "1.1.0";
+  /** The steps of the version are encoded as done or not, which are the same states as now. */
+  private static final String PROTOCOL_VERSION_1_0 = "1.0.0";
+
+  private static final byte STEP_PENDING = 0;
+  private static final byte STEP_DONE = 1;
+  private static final byte STEP_STARTED = 2;
+
+  @Getter
+  @RequiredArgsConstructor
+  public enum StepType {
+    CREATE_TABLE(1),
+    ALTER_TABLE(2);
+
+    private final int id;
+
+    public static StepType getStepType(final int id) {
+      for (var type : values()) {
+        if (type.id == id) {
+          return type;
+        }
+      }
+      throw new IllegalArgumentException(String.format("Unknown step type id, [%d]", id));
+    }
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Step {
+    private final StepType type;
+    private final String tableName;
+    private final String query;
+  }
+
+  private final String node;
+  private final String datasource;
+  private final String database;
+  private final String tableIdentity;
+  private final List<Step> steps;
+  private final Table[] tables;
+
+  @Getter(AccessLevel.NONE)
+  private final byte[] stepStates;
+
+  public PartitionTableDDLJob(
+      final String node,
+      final String datasource,
+      final String database,
+      final String tableIdentity,
+      final List<Step> steps,
+      final Table[] tables) {
+    Preconditions.checkArgument(tables.length > 0, "Tables cannot be an empty array.");
+    this.node = node;
+    this.datasource = datasource;
+    this.database = database;
+    this.tableIdentity = tableIdentity;
+    this.steps = steps;
+    this.tables = tables;
+    this.stepStates = new byte[steps.size()];
+  }
+
+  /** The logical name of the partition table after the job is committed. */
+  public String getTableName() {
+    return tables[0].name;
+  }
+
+  public synchronized boolean isDone(final int index) {
+    return stepStates[index] == STEP_DONE;
+  }
+
+  /** Whether the step is started but not done, it may be applied partially or entirely. */
+  public synchronized boolean isStarted(final int index) {
+    return stepStates[index] == STEP_STARTED;
+  }
+
+  public synchronized void markStarted(final int index) {
+    if (stepStates[index] == STEP_PENDING) {
+      stepStates[index] = STEP_STARTED;
+    }
+  }
+
+  public synchronized void markDone(final int index) {
+    stepStates[index] = STEP_DONE;
+  }
+
+  public synchronized int getNumberOfPendingSteps() {
+    int count = 0;
+    for (var state : stepStates) {
+      if (state != STEP_DONE) count++;
+    }
+    return count;
+  }
+
+  public UpdatePartitionTableCommand newUpdatePartitionTableCommand() {
+    return new UpdatePartitionTableCommand(
+        datasource,
+        database,
+        tableIdentity,
+        tables[0].name,
+        tables[0],
+        Arrays.copyOfRange(tables, 1, tables.length));
+  }
+
+  public synchronized byte[] encode() {
+    var stream = new ByteArrayStreamOutput();
+    stream.writeStringNul(MAGIC_NUMBER);
+    stream.writeStringNul(PROTOCOL_VERSION);
+    stream.writeStringNul(node);
+    stream.writeStringNul(datasource);
+    stream.writeStringNul(database);
+    stream.writeStringNul(tableIdentity);
+    stream.writeInt(steps.size());
+    for (int i = 0; i < steps.size(); i++) {
+      var step = steps.get(i);
+      stream.writeByte((byte) step.type.getId());
+      stream.writeStringNul(step.tableName);
+      stream.writeStringNul(step.query);
+      stream.writeByte(stepStates[i]);
+    }
+    stream.writeInt(tables.length);
+    for (var table : tables) {
+      encodeTable(stream, table);
+    }
+    return stream.getTrimmedByteArray();
+  }
+
+  private static void encodeTable(final StreamOutput stream, final Table table) {
+    stream.writeStringNul(table.name);
+    stream.writeInt(table.columns.length);
+    for (var column : table.columns) {
+      stream.writeStringNul(column.name);
+      stream.writeByte((byte) column.type.getId());
+      stream.writeBoolean(column.nullable);
+      stream.writeNullableString(column.defaultValue);
+      stream.writeBoolean(column.builtin);
+    }
+  }
+
+  public static PartitionTableDDLJob decode(final byte[] data) {
+    var stream = ByteArrayStreamInput.wrap(data);
+    var magicNumber = stream.readStringNul();
+    if (!MAGIC_NUMBER.equals(magicNumber)) {
+      throw new MetaDataCodecException("Bad magic number. [%s]", magicNumber);
+    }
+    var protocolVersion = stream.readStringNul();
+    if (!PROTOCOL_VERSION.equals(protocolVersion)
+        && !PROTOCOL_VERSION_1_0.equals(protocolVersion)) {
+      throw new MetaDataCodecException("Bad protocol version. [%s]", protocolVersion);
+    }
+
+    var node = stream.readStringNul();
+    var datasource = stream.readStringNul();
+    var database = stream.readStringNul();
+    var tableIdentity = stream.readStringNul();
+    var steps = new Step[stream.readInt()];
+    var stepStates = new byte[steps.length];
+    for (int i = 0; i < steps.length; i++) {
+      var type = StepType.getStepType(stream.readByte());
+      steps[i] = new Step(type, stream.readStringNul(), stream.readStringNul());
+      stepStates[i] = stream.readByte();
+      if (stepStates[i] < STEP_PENDING || stepStates[i] > STEP_STARTED) {
+        throw new MetaDataCodecException("Bad step state. [%d]", stepStates[i]);
+      }
+    }
+    var tables = new Table[stream.readInt()];
+    for (int i = 0; i < tables.length; i++) {
+      tables[i] = decodeTable(stream);
+    }
+
+    var job =
+        new PartitionTableDDLJob(
+            node, datasource, database, tableIdentity, Arrays.asList(steps), tables);
+    System.arraycopy(stepStates, 0, job.stepStates, 0, stepStates.length);
+    return job;
+  }
+
+  private static Table decodeTable(final StreamInput stream) {
+    var name = stream.readStringNul();
+    var columns = new Column[stream.readInt()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] =
+          new Column(
+              stream.readStringNul(),
+              ColumnType.getColumnType(stream.readByte()),
+              stream.readBoolean(),
+              stream.readNullableString(),
+              stream.readBoolean());
+    }
+    return new Table(name, columns);
+  }
+}
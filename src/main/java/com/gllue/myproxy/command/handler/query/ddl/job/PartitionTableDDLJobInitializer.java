@@ -0,0 +1,52 @@
+package com.gllue.myproxy.command.handler.query.ddl.job;
+
+import com.gllue.myproxy.bootstrap.ServerContext;
+import com.gllue.myproxy.common.Initializer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resume the unfinished DDL jobs of the partition tables which are owned by the current node, the
+ * jobs are run in background and the statements of the clients are not blocked by them.
+ */
+@Slf4j
+public class PartitionTableDDLJobInitializer implements Initializer {
+
+  @Override
+  public String name() {
+    return "partition table DDL jobs";
+  }
+
+  @Override
+  public void initialize(ServerContext context) {
+    var runner =
+        new PartitionTableDDLJobRunner(
+            context.getTransportService(),
+            context.getPersistRepository(),
+            context.getConfigurations(),
+            context.getClusterState());
+    var nodeName = context.getClusterState().currentNode().getNodeName();
+    for (var job : runner.getStore().load()) {
+      if (!nodeName.equals(job.getNode())) {
+        continue;
+      }
+      log.info(
+          "Resume the DDL job of the partition table [{}.{}], {} steps are pending.",
+          job.getDatabase(),
+          job.getTableName(),
+          job.getNumberOfPendingSteps());
+      runner
+          .resume(job)
+          .then(
+              (v) -> {
+                log.info(
+                    "The DDL job of the partition table [{}.{}] is resumed and committed.",
+                    job.getDatabase(),
+                    job.getTableName());
+                return true;
+              });
+    }
+  }
+
+  @Override
+  public void close() throws Exception {}
+}
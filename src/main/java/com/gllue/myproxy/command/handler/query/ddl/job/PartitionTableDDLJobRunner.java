@@ -0,0 +1,323 @@
+package com.gllue.myproxy.command.handler.query.ddl.job;
+
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.command.handler.CommandHandlerException;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.Step;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.StepType;
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.Promise.Promises;
+import com.gllue.myproxy.common.util.SQLErrorUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.metadata.command.context.MultiDatabasesCommandContext;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Run the steps of a {@link PartitionTableDDLJob} concurrently, each worker executes the steps on
+ * its own connection of the backend connection pool. The ALTER TABLE statements are tried with the
+ * online DDL options first, and retried with the default algorithm if MySQL refuses them. A step
+ * is persisted as started before it's executed and as completed after it succeeds, and the table
+ * metadata is committed once all the steps succeed.
+ *
+ * <p>A failed job is discarded, the physical tables which are already altered are left as they
+ * are, just like a failed ALTER TABLE of the partition table without the job.
+ */
+@Slf4j
+public class PartitionTableDDLJobRunner {
+  public static final int DEFAULT_PARALLELISM = 4;
+
+  private static final String ONLINE_DDL_OPTIONS = ", ALGORITHM=INPLACE, LOCK=NONE";
+  private static final Pattern ALTER_OPTIONS_PATTERN =
+      Pattern.compile("\\b(ALGORITHM|LOCK)\\s*=", Pattern.CASE_INSENSITIVE);
+
+  private final TransportService transportService;
+  private final PersistRepository repository;
+  private final Configurations configurations;
+  private final ClusterState clusterState;
+  @Getter private final PartitionTableDDLJobStore store;
+  private final Set<String> claimedTables = ConcurrentHashMap.newKeySet();
+
+  public PartitionTableDDLJobRunner(
+      final TransportService transportService,
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState) {
+    this.transportService = transportService;
+    this.repository = repository;
+    this.configurations = configurations;
+    this.clusterState = clusterState;
+    this.store = new PartitionTableDDLJobStore(repository, configurations);
+  }
+
+  @RequiredArgsConstructor
+  private static class JobTask {
+    private final PartitionTableDDLJob job;
+    /** The steps which were started before the job is resumed. */
+    private final Set<Integer> startedSteps;
+    private final List<Integer> pendingSteps;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private volatile Throwable exception;
+
+    int nextStep() {
+      if (exception != null) return -1;
+      var i = nextIndex.getAndIncrement();
+      return i < pendingSteps.size() ? pendingSteps.get(i) : -1;
+    }
+
+    synchronized void fail(final Throwable e) {
+      if (exception == null) {
+        exception = e;
+      } else {
+        exception.addSuppressed(e);
+      }
+    }
+  }
+
+  /**
+   * Claim the partition table for a schema change, fails if another schema change of the table is
+   * running on this node or an unfinished job of the table is persisted. The job is created in the
+   * repository atomically by {@link #run}, which fails if another node creates a job of the table
+   * after the claim.
+   */
+  public boolean tryClaim(final String tableIdentity) {
+    if (!claimedTables.add(tableIdentity)) {
+      return false;
+    }
+    if (store.exists(tableIdentity)) {
+      claimedTables.remove(tableIdentity);
+      return false;
+    }
+    return true;
+  }
+
+  public void release(final String tableIdentity) {
+    claimedTables.remove(tableIdentity);
+  }
+
+  /** Persist a new job and run it, fails if a job of the table is persisted already. */
+  public Promise<Boolean> run(final PartitionTableDDLJob job) {
+    if (!store.create(job)) {
+      throw new BadSQLException(
+          "Table [%s] has a running schema change, try again later.", job.getTableName());
+    }
+    return execute(job, false);
+  }
+
+  /**
+   * Resume a persisted job, the steps which were started but not recorded as completed before the
+   * crash are executed again, the errors showing such a step is already applied are ignored.
+   */
+  public Promise<Boolean> resume(final PartitionTableDDLJob job) {
+    return execute(job, true);
+  }
+
+  private int parallelism() {
+    return configurations.getValue(
+        Type.GENERIC, GenericConfigPropertyKey.PARTITION_TABLE_DDL_PARALLELISM);
+  }
+
+  private Promise<Boolean> execute(final PartitionTableDDLJob job, final boolean resumed) {
+    var pendingSteps = new ArrayList<Integer>();
+    var startedSteps = new HashSet<Integer>();
+    for (int i = 0; i < job.getSteps().size(); i++) {
+      if (!job.isDone(i)) {
+        pendingSteps.add(i);
+      }
+      if (resumed && job.isStarted(i)) {
+        startedSteps.add(i);
+      }
+    }
+
+    var task = new JobTask(job, startedSteps, pendingSteps);
+    var workers = new ArrayList<Promise<Boolean>>();
+    var parallelism = Math.min(parallelism(), pendingSteps.size());
+    for (int i = 0; i < parallelism; i++) {
+      workers.add(runWorker(task));
+    }
+
+    Promise<Boolean[]> stepsPromise;
+    if (workers.isEmpty()) {
+      stepsPromise = Promise.emptyPromise(new Boolean[0]);
+    } else {
+      stepsPromise =
+          Promise.parallelAll(
+              new Promises<Boolean>() {
+                @Override
+                public List<Promise<Boolean>> list() {
+                  return workers;
+                }
+
+                @Override
+                public Boolean[] newResult(int size) {
+                  return new Boolean[size];
+                }
+              });
+    }
+    return stepsPromise
+        .then(
+            (v) -> {
+              if (task.exception instanceof RuntimeException) {
+                throw (RuntimeException) task.exception;
+              } else if (task.exception != null) {
+                throw new CommandHandlerException(task.exception);
+              }
+              commitMetaData(job);
+              return true;
+            })
+        .doFinally(
+            (Boolean result, Throwable e) -> {
+              if (e != null) {
+                log.error(
+                    "Failed to run the DDL job of the partition table [{}.{}].",
+                    job.getDatabase(),
+                    job.getTableName(),
+                    e);
+              }
+              store.delete(job);
+              return result;
+            });
+  }
+
+  void commitMetaData(final PartitionTableDDLJob job) {
+    job.newUpdatePartitionTableCommand()
+        .execute(
+            new MultiDatabasesCommandContext(
+                clusterState.getMetaData(), repository, configurations));
+  }
+
+  private Promise<Boolean> runWorker(final JobTask task) {
+    var job = task.job;
+    var datasource =
+        transportService.getDatabaseRouteTable().route(job.getDatasource(), job.getDatabase());
+    return transportService
+        .acquireDedicatedBackendConnection(datasource, job.getDatabase())
+        .thenAsync(
+            (connection) ->
+                Promise.all(
+                        () -> {
+                          var i = task.nextStep();
+                          if (i < 0) return null;
+                          job.markStarted(i);
+                          store.save(job);
+                          var retried = task.startedSteps.contains(i);
+                          return executeStep(connection, job.getSteps().get(i), retried)
+                              .then(
+                                  (result) -> {
+                                    job.markDone(i);
+                                    store.save(job);
+                                    return true;
+                                  },
+                                  (e) -> {
+                                    task.fail(e);
+                                    return false;
+                                  });
+                        })
+                    .doFinally(
+                        () -> {
+                          connection.close();
+                          return true;
+                        }))
+        .then(
+            (v) -> true,
+            (e) -> {
+              task.fail(e);
+              return false;
+            });
+  }
+
+  /**
+   * Execute the step, the step is retried if it was started before the job is resumed. Only a
+   * retried step may be applied already, it's considered done if MySQL says so.
+   */
+  private Promise<CommandResult> executeStep(
+      final BackendConnection connection, final Step step, final boolean retried) {
+    if (step.getType() == StepType.CREATE_TABLE) {
+      // The new extension table created by the step has no data until the job is committed.
+      return submit(connection, step.getQuery())
+          .doCatchAsync(
+              (e) -> {
+                if (!retried || !SQLErrorUtils.isTableAlreadyExists(e)) {
+                  return failedPromise(e);
+                }
+                var dropQuery = String.format("DROP TABLE IF EXISTS `%s`", step.getTableName());
+                return submit(connection, dropQuery)
+                    .thenAsync((v) -> submit(connection, step.getQuery()));
+              });
+    }
+
+    var promise = alterTable(connection, step.getQuery());
+    if (!retried) {
+      return promise;
+    }
+    return promise.doCatchAsync(
+        (e) -> {
+          if (!isAlreadyApplied(e)) {
+            return failedPromise(e);
+          }
+          log.warn(
+              "The DDL step on the table [{}] seems to be already applied, skip it. [{}]",
+              step.getTableName(),
+              e.getMessage());
+          return Promise.emptyPromise();
+        });
+  }
+
+  private Promise<CommandResult> alterTable(
+      final BackendConnection connection, final String query) {
+    if (ALTER_OPTIONS_PATTERN.matcher(query).find()) {
+      return submit(connection, query);
+    }
+    return submit(connection, query + ONLINE_DDL_OPTIONS)
+        .doCatchAsync(
+            (e) -> {
+              if (!isOnlineDDLNotSupported(e)) {
+                return failedPromise(e);
+              }
+              if (log.isDebugEnabled()) {
+                log.debug("Online DDL is not supported, fallback. [{}]", query);
+              }
+              return submit(connection, query);
+            });
+  }
+
+  private static boolean isOnlineDDLNotSupported(final Throwable e) {
+    return SQLErrorUtils.checkForExceptionMatchingErrorCode(
+            e, MySQLServerErrorCode.ER_ALTER_OPERATION_NOT_SUPPORTED)
+        || SQLErrorUtils.checkForExceptionMatchingErrorCode(
+            e, MySQLServerErrorCode.ER_ALTER_OPERATION_NOT_SUPPORTED_REASON);
+  }
+
+  private static boolean isAlreadyApplied(final Throwable e) {
+    return SQLErrorUtils.checkForExceptionMatchingErrorCode(
+            e, MySQLServerErrorCode.ER_DUP_FIELDNAME)
+        || SQLErrorUtils.checkForExceptionMatchingErrorCode(e, MySQLServerErrorCode.ER_DUP_KEYNAME)
+        || SQLErrorUtils.checkForExceptionMatchingErrorCode(
+            e, MySQLServerErrorCode.ER_CANT_DROP_FIELD_OR_KEY)
+        || SQLErrorUtils.checkForExceptionMatchingErrorCode(
+            e, MySQLServerErrorCode.ER_BAD_FIELD_ERROR);
+  }
+
+  private Promise<CommandResult> submit(final BackendConnection connection, final String query) {
+    return transportService.submitQueryToBackendConnection(connection, query);
+  }
+
+  private static Promise<CommandResult> failedPromise(final Throwable e) {
+    return new Promise<>((cb) -> cb.onFailure(e));
+  }
+}
@@ -0,0 +1,70 @@
+package com.gllue.myproxy.command.handler.query.ddl.job;
+
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.constant.ServerConstants;
+import com.gllue.myproxy.repository.PersistRepository;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/** Persist the unfinished DDL jobs of the partition tables, keyed by the table identity. */
+@Slf4j
+@RequiredArgsConstructor
+public class PartitionTableDDLJobStore {
+  private final PersistRepository repository;
+  private final Configurations configurations;
+
+  public static String getBasePath(final Configurations configurations) {
+    var rootPath = PathUtils.getRootPath(configurations);
+    return PathUtils.joinPaths(rootPath, ServerConstants.DDL_JOBS_ROOT_PATH);
+  }
+
+  private String getPath(final String tableIdentity) {
+    return PathUtils.joinPaths(getBasePath(configurations), tableIdentity);
+  }
+
+  public boolean exists(final String tableIdentity) {
+    return repository.exists(getPath(tableIdentity));
+  }
+
+  /** Persist a new job, returns false if a job of the table is persisted already. */
+  public boolean create(final PartitionTableDDLJob job) {
+    synchronized (job) {
+      return repository.saveIfAbsent(getPath(job.getTableIdentity()), job.encode());
+    }
+  }
+
+  public void save(final PartitionTableDDLJob job) {
+    // Serialize the saves of a job, so that the last save always has the latest steps.
+    synchronized (job) {
+      repository.save(getPath(job.getTableIdentity()), job.encode());
+    }
+  }
+
+  public void delete(final PartitionTableDDLJob job) {
+    repository.delete(getPath(job.getTableIdentity()));
+  }
+
+  /** Load all the persisted jobs, a job which cannot be decoded is skipped. */
+  public List<PartitionTableDDLJob> load() {
+    var jobs = new ArrayList<PartitionTableDDLJob>();
+    var basePath = getBasePath(configurations);
+    if (!repository.exists(basePath)) {
+      return jobs;
+    }
+    for (var key : repository.getChildrenKeys(basePath)) {
+      var data = repository.get(PathUtils.joinPaths(basePath, key));
+      if (data == null) {
+        continue;
+      }
+      try {
+        jobs.add(PartitionTableDDLJob.decode(data));
+      } catch (Exception e) {
+        log.error("Failed to decode the partition table DDL job [{}].", key, e);
+      }
+    }
+    return jobs;
+  }
+}
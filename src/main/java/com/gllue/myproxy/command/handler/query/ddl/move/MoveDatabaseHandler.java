@@ -0,0 +1,106 @@
+package com.gllue.myproxy.command.handler.query.ddl.move;
+
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.AbstractQueryHandler;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.route.move.DatabaseMove;
+import com.gllue.myproxy.route.move.DatabaseMover;
+import com.gllue.myproxy.sql.stmt.SQLMoveDatabaseStatement;
+import com.gllue.myproxy.transport.core.service.BadDataSourceException;
+import com.gllue.myproxy.transport.core.service.TransportService;
+
+/**
+ * Move a database of the logical data source to another backend data source online, see {@link
+ * DatabaseMover}. The statement returns once the route of the database is switched, the affected
+ * rows of the result is the number of the copied rows.
+ */
+public class MoveDatabaseHandler extends AbstractQueryHandler {
+  private static final String NAME = "Move database handler";
+
+  private final PersistRepository repository;
+  private final Configurations configurations;
+  private final TransportService transportService;
+
+  public MoveDatabaseHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final TransportService transportService,
+      final ThreadPool threadPool) {
+    super(transportService, threadPool);
+    this.repository = repository;
+    this.configurations = configurations;
+    this.transportService = transportService;
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  private DatabaseMove newDatabaseMove(final QueryHandlerRequest request) {
+    if (request.getSessionContext().isTransactionOpened()) {
+      throw new BadSQLException("Cannot move a database in a transaction.");
+    }
+
+    var stmt = (SQLMoveDatabaseStatement) request.getStatement();
+    var database = SQLStatementUtils.unquoteName(stmt.getDatabaseName());
+    var target = SQLStatementUtils.unquoteName(stmt.getTargetDatasource());
+    if (transportService.getBackendDataSourceManager().getDataSource(target) == null) {
+      throw new BadDataSourceException(target);
+    }
+    var datasource = request.getDatasource();
+    var source = transportService.getDatabaseRouteTable().route(datasource, database);
+    if (source.equals(target)) {
+      throw new BadSQLException(
+          "Database [%s] is on the data source [%s] already.", database, target);
+    }
+
+    int maxReplayLag =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.DATABASE_MOVE_MAX_REPLAY_LAG);
+    return new DatabaseMove(datasource, database, source, target, maxReplayLag);
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    var move = newDatabaseMove(request);
+    var registry = transportService.getDatabaseMoveRegistry();
+    // The writes of the database are captured once the move is registered.
+    if (!registry.register(move)) {
+      throw new BadSQLException("Database [%s] is being moved.", move.getDatabase());
+    }
+
+    try {
+      new DatabaseMover(
+              transportService,
+              repository,
+              configurations,
+              threadPool,
+              move,
+              request.getConnectionId())
+          .execute()
+          .then(
+              (rows) -> {
+                callback.onSuccess(new QueryHandlerResult(rows, 0, 0));
+                return true;
+              })
+          .doCatch(
+              (e) -> {
+                callback.onFailure(e);
+                return false;
+              });
+    } catch (Exception e) {
+      registry.unregister(move);
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,592 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import static com.gllue.myproxy.command.handler.query.TablePartitionHelper.QUOTED_EXTENSION_TABLE_ID_COLUMN;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.newAlterTableStatement;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.newDropColumnItem;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.quoteName;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.toSQLString;
+
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.statement.SQLAlterTableAddColumn;
+import com.alibaba.druid.sql.ast.statement.SQLAlterTableItem;
+import com.alibaba.druid.sql.ast.statement.SQLColumnDefinition;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlAlterTableChangeColumn;
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.cluster.ClusterStateInitializer;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.ddl.AbstractDDLHandler;
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.common.exception.BadDatabaseException;
+import com.gllue.myproxy.common.exception.BadTableException;
+import com.gllue.myproxy.common.exception.NoDatabaseException;
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.metadata.command.AbstractTableUpdateCommand.Column;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand.Table;
+import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import com.gllue.myproxy.metadata.model.TableType;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.sql.parser.SQLParser;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Base handler of the statements which move the columns between the extension tables of a
+ * partition table online. The columns are moved from a source extension table to a target one in
+ * the following steps:
+ *
+ * <ol>
+ *   <li>Add a shadow column to the target table for each moving column, with the definition in the
+ *       source table.
+ *   <li>Publish the move in the repository, and wait for the proxy nodes to see it. The INSERT and
+ *       UPDATE statements write the values of the moving columns to the shadow columns as well
+ *       while the move is published, so the writes during the copy are not lost. A moving column
+ *       can only be updated to the values without column references in the meantime, since the
+ *       order of the assignments of a multi-table UPDATE is not defined.
+ *   <li>Copy the existing rows in chunks ordered by the extension table id, pausing between the
+ *       chunks to protect the backend database. The multi-table UPDATE locks the source rows it
+ *       reads, so it doesn't race with the writes of the statements.
+ *   <li>Cut over with the tables write locked: rename the moving columns of the source table to
+ *       the shadow names and the shadow columns of the target table to the column names, and
+ *       update the table metadata. The following queries read and write the columns in the target
+ *       table.
+ *   <li>Delete the published move, and drop the renamed columns from the source table.
+ * </ol>
+ *
+ * <p>The moving columns are written by the proxy rather than the triggers of the backend
+ * database, since a trigger cannot update the target table read or written by the multi-table
+ * UPDATE which fires it. The shadow columns are dropped once the other nodes see the failure if the
+ * move fails before the cut over. The other proxy nodes may run the queries with the stale
+ * metadata until they observe the update, those queries fail since the columns are renamed.
+ */
+@Slf4j
+public abstract class AbstractExtensionTableRepackHandler extends AbstractDDLHandler {
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+  public static final long DEFAULT_CHUNK_PAUSE_IN_MILLS = 100;
+
+  public static final long DEFAULT_PUBLISH_DELAY_IN_MILLS = 5000;
+
+  /** The identities of the tables being repacked by this node. */
+  private static final Set<String> REPACKING_TABLES = ConcurrentHashMap.newKeySet();
+
+  protected final ExtensionColumnAccessStats accessStats;
+  private final PersistRepository repository;
+  private final String moveBasePath;
+  private final int chunkSize;
+  private final long chunkPauseInMills;
+  private final long publishDelayInMills;
+
+  protected AbstractExtensionTableRepackHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final SQLParser sqlParser,
+      final ThreadPool threadPool,
+      final ExtensionColumnAccessStats accessStats) {
+    super(repository, configurations, clusterState, transportService, sqlParser, threadPool);
+    this.accessStats = accessStats;
+    this.repository = repository;
+    this.moveBasePath = ClusterStateInitializer.getColumnMoveBasePath(configurations);
+    this.chunkSize =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.EXTENSION_TABLE_REPACK_CHUNK_SIZE);
+    this.chunkPauseInMills =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.EXTENSION_TABLE_REPACK_CHUNK_PAUSE_IN_MILLS);
+    this.publishDelayInMills =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.EXTENSION_TABLE_REPACK_PUBLISH_DELAY_IN_MILLS);
+  }
+
+  protected int getMaxColumnsPerTable() {
+    return configurations.getValue(
+        Type.GENERIC, GenericConfigPropertyKey.EXTENSION_TABLE_MAX_COLUMNS_PER_TABLE);
+  }
+
+  protected PartitionTableMetaData getPartitionTable(
+      final QueryHandlerRequest request, final String tableName) {
+    var database = request.getDatabase();
+    if (database == null) {
+      throw new NoDatabaseException();
+    }
+    var databaseMetaData =
+        clusterState.getMetaData().getDatabase(request.getDatasource(), database);
+    if (databaseMetaData == null) {
+      throw new BadDatabaseException(database);
+    }
+    var table = databaseMetaData.getTable(tableName);
+    if (table == null || table.getType() != TableType.PARTITION) {
+      throw new BadTableException(tableName);
+    }
+    return (PartitionTableMetaData) table;
+  }
+
+  protected void ensureNoTransaction(final QueryHandlerRequest request) {
+    if (request.getSessionContext().isTransactionOpened()) {
+      throw new BadSQLException("Cannot repack the extension tables in a transaction.");
+    }
+  }
+
+  /**
+   * Run the repack of the table, the table can be repacked by one statement at a time on a proxy
+   * node.
+   */
+  protected <T> Promise<T> runRepack(
+      final PartitionTableMetaData table, final Supplier<Promise<T>> repack) {
+    var identity = table.getIdentity();
+    if (!REPACKING_TABLES.add(identity)) {
+      throw new BadSQLException("Table [%s] is being repacked.", table.getName());
+    }
+
+    Promise<T> promise;
+    try {
+      promise = repack.get();
+    } catch (Exception e) {
+      REPACKING_TABLES.remove(identity);
+      throw e;
+    }
+    return promise.doFinally(
+        (v, e) -> {
+          REPACKING_TABLES.remove(identity);
+          return v;
+        });
+  }
+
+  /**
+   * Move the columns from the source extension table to the target extension table.
+   *
+   * @param source the index of the source extension table, 0 is the first extension table
+   * @param target the index of the target extension table
+   * @return the number of the copied rows
+   */
+  protected Promise<Long> moveColumns(
+      final QueryHandlerRequest request,
+      final String tableName,
+      final int source,
+      final int target,
+      final List<String> columns) {
+    return new ColumnMover(request, getPartitionTable(request, tableName), source, target, columns)
+        .execute();
+  }
+
+  /**
+   * Move the columns one pair of the source and target extension tables at a time.
+   *
+   * @return the number of the copied rows of the last pair
+   */
+  protected Promise<Long> moveColumns(
+      final QueryHandlerRequest request,
+      final String tableName,
+      final List<ExtensionColumnPlacementAdvisor.Move> moves) {
+    var groups = new LinkedHashMap<List<Integer>, List<String>>();
+    for (var move : moves) {
+      groups
+          .computeIfAbsent(List.of(move.getSource(), move.getTarget()), k -> new ArrayList<>())
+          .add(move.getColumn());
+    }
+
+    var iterator = groups.entrySet().iterator();
+    return Promise.chain(
+        (v) -> {
+          if (!iterator.hasNext()) {
+            return null;
+          }
+          var entry = iterator.next();
+          var source = entry.getKey().get(0);
+          var target = entry.getKey().get(1);
+          return moveColumns(request, tableName, source, target, entry.getValue());
+        });
+  }
+
+  private Promise<Boolean> sleep(final long delayInMills) {
+    return new Promise<>(
+        (cb) ->
+            threadPool.schedule(
+                () -> cb.onSuccess(true),
+                delayInMills,
+                TimeUnit.MILLISECONDS,
+                threadPool.executor(Name.GENERIC)));
+  }
+
+  private class ColumnMover {
+    private final QueryHandlerRequest request;
+    private final int connectionId;
+    private final PartitionTableMetaData table;
+    private final int source;
+    private final int target;
+    private final List<String> columns;
+    private final String sourceTable;
+    private final String targetTable;
+    private final ExtensionColumnMove move;
+    private final String movePath;
+
+    private Map<String, SQLColumnDefinition> columnDefs;
+    private boolean columnsAdded = false;
+    private boolean registered = false;
+    private boolean published = false;
+    private boolean sourceColumnsRenamed = false;
+    private boolean targetColumnsRenamed = false;
+    private boolean cutoverDone = false;
+
+    ColumnMover(
+        final QueryHandlerRequest request,
+        final PartitionTableMetaData table,
+        final int source,
+        final int target,
+        final List<String> columns) {
+      this.request = request;
+      this.connectionId = request.getConnectionId();
+      this.table = table;
+      this.source = source;
+      this.target = target;
+      this.columns = columns;
+      this.sourceTable = table.getTableByOrdinalValue(source + 1).getName();
+      this.targetTable = table.getTableByOrdinalValue(target + 1).getName();
+      this.move =
+          new ExtensionColumnMove(
+              table.getIdentity(), sourceTable, targetTable, List.copyOf(columns));
+      this.movePath = PathUtils.joinPaths(moveBasePath, table.getIdentity());
+    }
+
+    private String assignments(final String owner, final String valueOwner) {
+      var items = new ArrayList<String>();
+      for (int i = 0; i < columns.size(); i++) {
+        items.add(
+            String.format(
+                "%s%s = %s.%s",
+                owner,
+                quoteName(move.getShadowColumn(i)),
+                valueOwner,
+                quoteName(columns.get(i))));
+      }
+      return String.join(", ", items);
+    }
+
+    private Promise<CommandResult> submit(final String query) {
+      return submitQueryToBackendDatabase(connectionId, query);
+    }
+
+    /** Define the column with the name and the definition of the moving column. */
+    private SQLColumnDefinition newColumnDef(final String name, final String column) {
+      var columnDef = columnDefs.get(column).clone();
+      columnDef.setName(quoteName(name));
+      return columnDef;
+    }
+
+    private String renameColumns(final String tableName, final boolean toShadowColumns) {
+      var items = new ArrayList<SQLAlterTableItem>();
+      for (int i = 0; i < columns.size(); i++) {
+        var column = columns.get(i);
+        var shadowColumn = move.getShadowColumn(i);
+        var item = new MySqlAlterTableChangeColumn();
+        item.setColumnName(
+            new SQLIdentifierExpr(quoteName(toShadowColumns ? column : shadowColumn)));
+        item.setNewColumnDefinition(newColumnDef(toShadowColumns ? shadowColumn : column, column));
+        items.add(item);
+      }
+      return toSQLString(newAlterTableStatement(tableName, false, items));
+    }
+
+    private String dropShadowColumns(final String tableName) {
+      var items = new ArrayList<SQLAlterTableItem>();
+      for (int i = 0; i < columns.size(); i++) {
+        items.add(newDropColumnItem(move.getShadowColumn(i)));
+      }
+      return toSQLString(newAlterTableStatement(tableName, false, items));
+    }
+
+    private Promise<CommandResult> addShadowColumns(
+        final Map<String, SQLColumnDefinition> columnDefs) {
+      for (var column : columns) {
+        if (!columnDefs.containsKey(column)) {
+          throw new BadSQLException(
+              "Column [%s] does not exist in the table [%s].", column, sourceTable);
+        }
+      }
+      this.columnDefs = columnDefs;
+
+      var items = new ArrayList<SQLAlterTableItem>();
+      for (int i = 0; i < columns.size(); i++) {
+        var item = new SQLAlterTableAddColumn();
+        item.addColumn(newColumnDef(move.getShadowColumn(i), columns.get(i)));
+        items.add(item);
+      }
+      return submit(toSQLString(newAlterTableStatement(targetTable, false, items)))
+          .then(
+              (v) -> {
+                columnsAdded = true;
+                return v;
+              });
+    }
+
+    /**
+     * Publish the move in the repository and wait for the other nodes to write the moving columns
+     * to both tables, the move fails if the columns of the table are being moved by another node.
+     */
+    private Promise<Boolean> publish() {
+      if (!clusterState.getExtensionColumnMoves().register(move)) {
+        throw new BadSQLException("Columns of the table [%s] are being moved.", table.getName());
+      }
+      registered = true;
+      if (!repository.saveIfAbsent(movePath, move.encode())) {
+        throw new BadSQLException("Columns of the table [%s] are being moved.", table.getName());
+      }
+      published = true;
+      return sleep(publishDelayInMills);
+    }
+
+    /** Delete the published move, returns whether it was published. */
+    private boolean unpublish() {
+      var wasPublished = published;
+      if (published) {
+        published = false;
+        try {
+          repository.delete(movePath);
+        } catch (Exception e) {
+          log.error("Failed to delete the published move of [{}].", table.getName(), e);
+        }
+      }
+      if (registered) {
+        registered = false;
+        clusterState.getExtensionColumnMoves().unregister(table.getIdentity());
+      }
+      return wasPublished;
+    }
+
+    private String upperBoundQuery(final Long lowerBound) {
+      var idColumn = QUOTED_EXTENSION_TABLE_ID_COLUMN;
+      var where = lowerBound == null ? "" : String.format(" WHERE %s > %d", idColumn, lowerBound);
+      return String.format(
+          "SELECT MAX(%s) FROM (SELECT %s FROM %s%s ORDER BY %s LIMIT %d) AS `t`",
+          idColumn, idColumn, quoteName(sourceTable), where, idColumn, chunkSize);
+    }
+
+    private String copyChunkQuery(final Long lowerBound, final long upperBound) {
+      var idColumn = QUOTED_EXTENSION_TABLE_ID_COLUMN;
+      var range =
+          lowerBound == null
+              ? String.format("`s`.%s <= %d", idColumn, upperBound)
+              : String.format(
+                  "`s`.%s > %d AND `s`.%s <= %d", idColumn, lowerBound, idColumn, upperBound);
+      return String.format(
+          "UPDATE %s AS `t` JOIN %s AS `s` ON `t`.%s = `s`.%s SET %s WHERE %s",
+          quoteName(targetTable),
+          quoteName(sourceTable),
+          idColumn,
+          idColumn,
+          assignments("`t`.", "`s`"),
+          range);
+    }
+
+    private void copyNextChunk(
+        final Long lowerBound, final long copiedRows, final Callback<Long> callback) {
+      submitQueryToBackendDatabase(
+          connectionId,
+          upperBoundQuery(lowerBound),
+          new Callback<CommandResult>() {
+            @Override
+            public void onSuccess(CommandResult result) {
+              var queryResult = result.getQueryResult();
+              var value = queryResult.next() ? queryResult.getStringValue(0) : null;
+              if (value == null) {
+                callback.onSuccess(copiedRows);
+                return;
+              }
+
+              var upperBound = Long.parseLong(value);
+              submitQueryToBackendDatabase(
+                  connectionId,
+                  copyChunkQuery(lowerBound, upperBound),
+                  new Callback<CommandResult>() {
+                    @Override
+                    public void onSuccess(CommandResult result) {
+                      var rows = copiedRows + result.getAffectedRows();
+                      threadPool.schedule(
+                          () -> copyNextChunk(upperBound, rows, callback),
+                          chunkPauseInMills,
+                          TimeUnit.MILLISECONDS,
+                          threadPool.executor(Name.GENERIC));
+                    }
+
+                    @Override
+                    public void onFailure(Throwable e) {
+                      callback.onFailure(e);
+                    }
+                  });
+            }
+
+            @Override
+            public void onFailure(Throwable e) {
+              callback.onFailure(e);
+            }
+          });
+    }
+
+    private Promise<Long> copyRows() {
+      return new Promise<>((cb) -> copyNextChunk(null, 0, cb));
+    }
+
+    private void ensureTableNotChanged() {
+      var latest = getPartitionTable(request, table.getName());
+      if (latest.getVersion() != table.getVersion()) {
+        throw new BadSQLException(
+            "Table [%s] has been changed during the repack.", table.getName());
+      }
+    }
+
+    /**
+     * Swap the moving columns and the shadow columns, the renames only change the definitions of
+     * the tables.
+     */
+    private Promise<CommandResult> swapColumns() {
+      ensureTableNotChanged();
+      return submit(renameColumns(sourceTable, true))
+          .thenAsync(
+              (v) -> {
+                sourceColumnsRenamed = true;
+                return submit(renameColumns(targetTable, false));
+              })
+          .then(
+              (v) -> {
+                targetColumnsRenamed = true;
+                return v;
+              });
+    }
+
+    private boolean updateTableMetaData() {
+      var movedColumns = new HashSet<>(columns);
+      var tables = new Table[table.getNumberOfTables()];
+      for (int i = 0; i < tables.length; i++) {
+        var subTable = table.getTableByOrdinalValue(i);
+        var newColumns = new ArrayList<Column>();
+        for (int j = 0; j < subTable.getNumberOfColumns(); j++) {
+          var column = subTable.getColumn(j);
+          if (i != source + 1 || !movedColumns.contains(column.getName())) {
+            newColumns.add(Column.newColumn(column));
+          }
+        }
+        if (i == target + 1) {
+          for (var column : columns) {
+            newColumns.add(Column.newColumn(table.getColumn(column)));
+          }
+        }
+        tables[i] = new Table(subTable.getName(), newColumns.toArray(Column[]::new));
+      }
+
+      new UpdatePartitionTableCommand(
+              request.getDatasource(),
+              request.getDatabase(),
+              table.getIdentity(),
+              table.getName(),
+              tables[0],
+              Arrays.copyOfRange(tables, 1, tables.length))
+          .execute(newCommandExecutionContext());
+      cutoverDone = true;
+      return true;
+    }
+
+    private Promise<Boolean> cutover() {
+      return lockTables(
+          connectionId,
+          (v) -> swapColumns().then((r) -> updateTableMetaData()),
+          LockType.WRITE,
+          sourceTable,
+          targetTable);
+    }
+
+    private Promise<CommandResult> dropSourceColumns() {
+      return submit(dropShadowColumns(sourceTable));
+    }
+
+    /**
+     * Rename the swapped columns back, and drop the shadow columns once the other nodes stop
+     * writing them. The failures are logged only.
+     */
+    private Promise<CommandResult> rollback() {
+      var queries = new ArrayList<String>();
+      if (targetColumnsRenamed) {
+        queries.add(renameColumns(targetTable, true));
+      }
+      if (sourceColumnsRenamed) {
+        queries.add(renameColumns(sourceTable, false));
+      }
+      return executeQueries(request, queries)
+          .thenAsync(
+              (v) ->
+                  unpublish() ? sleep(publishDelayInMills) : Promise.<Boolean>emptyPromise(true))
+          .thenAsync(
+              (v) ->
+                  columnsAdded
+                      ? submit(dropShadowColumns(targetTable))
+                      : Promise.<CommandResult>emptyPromise())
+          .then(
+              (v) -> (CommandResult) null,
+              (e) -> {
+                unpublish();
+                log.error(
+                    "Failed to roll back the column move from [{}] to [{}].",
+                    sourceTable,
+                    targetTable,
+                    e);
+                return null;
+              });
+    }
+
+    Promise<Long> execute() {
+      var copiedRows = new long[] {0};
+      return showCreateTableReturnColumnDefMap(request, sourceTable)
+          .thenAsync(this::addShadowColumns)
+          .thenAsync((v) -> publish())
+          .thenAsync((v) -> copyRows())
+          .thenAsync(
+              (rows) -> {
+                copiedRows[0] = rows;
+                return cutover();
+              })
+          .<Boolean>doCatchAsync(
+              (e) -> {
+                var rollback = cutoverDone ? Promise.<CommandResult>emptyPromise() : rollback();
+                return rollback.then(throwWrappedException(e));
+              })
+          .thenAsync(
+              (v) -> {
+                unpublish();
+                return dropSourceColumns();
+              })
+          .then(
+              (v) -> {
+                log.info(
+                    "Moved columns {} from [{}] to [{}], {} rows copied.",
+                    columns,
+                    sourceTable,
+                    targetTable,
+                    copiedRows[0]);
+                return copiedRows[0];
+              })
+          .doFinally(
+              (v, e) -> {
+                unpublish();
+                return v;
+              });
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.metadata.command.AbstractTableUpdateCommand.Column;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand.Table;
+import com.gllue.myproxy.metadata.model.TableMetaData;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.sql.parser.SQLParser;
+import com.gllue.myproxy.sql.stmt.SQLCompactExtensionTablesStatement;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Merge the under-filled extension tables of a partition table into fewer physical tables online.
+ * The columns of the trailing extension tables are moved into the leading ones as planned by
+ * {@link ExtensionTableCompactionPlanner}, then the emptied tables are removed from the table
+ * metadata with the tables write locked, and dropped. The affected rows of the result is the
+ * number of the removed extension tables.
+ *
+ * <p>The columns are moved one pair of the tables at a time, each pair is published and written to
+ * both tables by the proxy until its cut over. The leading target table is joined by the UPDATE
+ * statements writing the trailing source table meanwhile, so no triggers are involved.
+ */
+@Slf4j
+public class CompactExtensionTablesHandler extends AbstractExtensionTableRepackHandler {
+  private static final String NAME = "Compact extension tables handler";
+
+  public CompactExtensionTablesHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final SQLParser sqlParser,
+      final ThreadPool threadPool,
+      final ExtensionColumnAccessStats accessStats) {
+    super(
+        repository,
+        configurations,
+        clusterState,
+        transportService,
+        sqlParser,
+        threadPool,
+        accessStats);
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  private Table newTable(final TableMetaData table) {
+    var columns = new Column[table.getNumberOfColumns()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = Column.newColumn(table.getColumn(i));
+    }
+    return new Table(table.getName(), columns);
+  }
+
+  private boolean updateTableMetaData(
+      final QueryHandlerRequest request,
+      final String tableName,
+      final int keptTables,
+      final String[] removedTables) {
+    var table = getPartitionTable(request, tableName);
+    var extensionTables = table.getExtensionTables();
+    if (extensionTables.length != keptTables + removedTables.length) {
+      throw new BadSQLException(
+          "Table [%s] has been changed during the compaction.", table.getName());
+    }
+    for (int i = keptTables; i < extensionTables.length; i++) {
+      var extensionTable = extensionTables[i];
+      for (int j = 0; j < extensionTable.getNumberOfColumns(); j++) {
+        if (!extensionTable.getColumn(j).isBuiltin()) {
+          throw new BadSQLException(
+              "Table [%s] has been changed during the compaction.", table.getName());
+        }
+      }
+    }
+
+    var tables = new Table[keptTables];
+    for (int i = 0; i < keptTables; i++) {
+      tables[i] = newTable(extensionTables[i]);
+    }
+    new UpdatePartitionTableCommand(
+            request.getDatasource(),
+            request.getDatabase(),
+            table.getIdentity(),
+            table.getName(),
+            newTable(table.getPrimaryTable()),
+            tables)
+        .execute(newCommandExecutionContext());
+    return true;
+  }
+
+  /**
+   * Remove the emptied extension tables from the table metadata, the tables are write locked so
+   * that the metadata is updated once the in-flight statements on the tables are done.
+   */
+  private Promise<Boolean> removeExtensionTables(
+      final QueryHandlerRequest request,
+      final String tableName,
+      final int keptTables,
+      final String[] removedTables) {
+    var index = new AtomicInteger(0);
+    return lockTables(
+            request.getConnectionId(),
+            (v) ->
+                Promise.emptyPromise(v)
+                    .then(
+                        (r) -> updateTableMetaData(request, tableName, keptTables, removedTables)),
+            LockType.WRITE,
+            removedTables)
+        .thenAsync(
+            (v) ->
+                Promise.<CommandResult>chain(
+                    (r) -> {
+                      var i = index.getAndIncrement();
+                      if (i >= removedTables.length) {
+                        return null;
+                      }
+                      return dropTable(request, removedTables[i]);
+                    }))
+        .then((v) -> true);
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    ensureNoTransaction(request);
+
+    var stmt = (SQLCompactExtensionTablesStatement) request.getStatement();
+    var table = getPartitionTable(request, stmt.getTableName());
+    var plan = ExtensionTableCompactionPlanner.plan(table, getMaxColumnsPerTable());
+    if (plan.getRemovedTables() == 0) {
+      callback.onSuccess(QueryHandlerResult.OK_RESULT);
+      return;
+    }
+
+    var tableNames = table.getTableNames();
+    var removedTables =
+        Arrays.copyOfRange(tableNames, plan.getKeptTables() + 1, tableNames.length);
+    log.info(
+        "Compact the extension tables of [{}], {} columns are moved, {} are removed.",
+        table.getName(),
+        plan.getMoves().size(),
+        Arrays.toString(removedTables));
+    var tableName = table.getName();
+    runRepack(
+            table,
+            () ->
+                moveColumns(request, tableName, plan.getMoves())
+                    .thenAsync(
+                        (v) ->
+                            removeExtensionTables(
+                                request, tableName, plan.getKeptTables(), removedTables)))
+        .then(
+            (v) -> {
+              callback.onSuccess(new QueryHandlerResult(removedTables.length, 0, 0));
+              return true;
+            })
+        .doCatch(
+            (e) -> {
+              callback.onFailure(e);
+              return false;
+            });
+  }
+}
@@ -0,0 +1,107 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.google.common.base.Preconditions;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Co-access statistics of the extension columns of the partition tables. Each query referencing
+ * the extension columns of a partition table records the set of the referenced columns as an
+ * access pattern, the patterns are counted per table and used by {@link
+ * ExtensionColumnPlacementAdvisor} to place the columns accessed together into the same extension
+ * table.
+ *
+ * <p>The number of the patterns of a table is bounded. Once the bound is reached, the counts are
+ * halved and the patterns whose counts drop to zero are evicted, so the rare patterns give way to
+ * the recent ones.
+ */
+public class ExtensionColumnAccessStats {
+  public static final int DEFAULT_MAX_PATTERNS_PER_TABLE = 1000;
+
+  private static final ExtensionColumnAccessStats DISABLED = new ExtensionColumnAccessStats();
+
+  private final boolean enabled;
+  private final int maxPatternsPerTable;
+  private final Map<String, TableStats> tableStatsMap = new ConcurrentHashMap<>();
+
+  private ExtensionColumnAccessStats() {
+    this.enabled = false;
+    this.maxPatternsPerTable = 0;
+  }
+
+  public ExtensionColumnAccessStats(final int maxPatternsPerTable) {
+    Preconditions.checkArgument(maxPatternsPerTable > 0, "maxPatternsPerTable must > 0");
+    this.enabled = true;
+    this.maxPatternsPerTable = maxPatternsPerTable;
+  }
+
+  public static ExtensionColumnAccessStats disabled() {
+    return DISABLED;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Record the extension columns referenced by a query.
+   *
+   * @param tableIdentity the identity of the partition table
+   * @param columns the referenced extension columns of the table
+   */
+  public void record(final String tableIdentity, final Collection<String> columns) {
+    if (!enabled || columns.isEmpty()) {
+      return;
+    }
+    var pattern = List.copyOf(new TreeSet<>(columns));
+    tableStatsMap.computeIfAbsent(tableIdentity, k -> new TableStats()).record(pattern);
+  }
+
+  /** Returns a snapshot of the access patterns of the table and their counts. */
+  public Map<List<String>, Long> getAccessPatterns(final String tableIdentity) {
+    var stats = tableStatsMap.get(tableIdentity);
+    if (stats == null) {
+      return Map.of();
+    }
+    return stats.snapshot();
+  }
+
+  public void reset(final String tableIdentity) {
+    tableStatsMap.remove(tableIdentity);
+  }
+
+  private class TableStats {
+    private final Map<List<String>, Long> patterns = new HashMap<>();
+
+    synchronized void record(final List<String> pattern) {
+      if (!patterns.containsKey(pattern) && patterns.size() >= maxPatternsPerTable) {
+        decay();
+        if (patterns.size() >= maxPatternsPerTable) {
+          return;
+        }
+      }
+      patterns.merge(pattern, 1L, Long::sum);
+    }
+
+    private void decay() {
+      var iterator = patterns.entrySet().iterator();
+      while (iterator.hasNext()) {
+        var entry = iterator.next();
+        var count = entry.getValue() / 2;
+        if (count == 0) {
+          iterator.remove();
+        } else {
+          entry.setValue(count);
+        }
+      }
+    }
+
+    synchronized Map<List<String>, Long> snapshot() {
+      return new HashMap<>(patterns);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.common.io.stream.ByteArrayStreamInput;
+import com.gllue.myproxy.common.io.stream.ByteArrayStreamOutput;
+import com.gllue.myproxy.metadata.codec.MetaDataCodecException;
+import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The columns of a partition table being moved from a source extension table to a target one. The
+ * target table has a shadow column for each moving column until the cut over, the statements
+ * writing a moving column write its shadow column as well.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ExtensionColumnMove {
+  private static final String MAGIC_NUMBER = "my-proxy-column-move";
+  private static final String PROTOCOL_VERSION = "1.0.0";
+
+  private static final String SHADOW_COLUMN_PREFIX = "$_mv_";
+
+  private final String tableIdentity;
+  private final String sourceTable;
+  private final String targetTable;
+  private final List<String> columns;
+
+  /** Returns the shadow column of the moving column, or null if the column is not moving. */
+  @Nullable
+  public String getShadowColumn(final String column) {
+    var index = columns.indexOf(column);
+    if (index < 0) {
+      return null;
+    }
+    return getShadowColumn(index);
+  }
+
+  public String getShadowColumn(final int index) {
+    return SHADOW_COLUMN_PREFIX + index;
+  }
+
+  /**
+   * Returns the ordinal value of the target table in the partition table, or -1 if the column is
+   * not moving out of its extension table in the layout of the table metadata, e.g. the metadata
+   * is updated by the cut over already.
+   */
+  public int getTargetOrdinalValue(final PartitionTableMetaData table, final String column) {
+    if (!tableIdentity.equals(table.getIdentity()) || !columns.contains(column)) {
+      return -1;
+    }
+    var ordinalValue = table.getOrdinalValueByColumnName(column);
+    if (ordinalValue <= 0
+        || !sourceTable.equals(table.getTableByOrdinalValue(ordinalValue).getName())) {
+      return -1;
+    }
+    var tableNames = table.getTableNames();
+    for (int i = 1; i < tableNames.length; i++) {
+      if (targetTable.equals(tableNames[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  public byte[] encode() {
+    var stream = new ByteArrayStreamOutput();
+    stream.writeStringNul(MAGIC_NUMBER);
+    stream.writeStringNul(PROTOCOL_VERSION);
+    stream.writeStringNul(tableIdentity);
+    stream.writeStringNul(sourceTable);
+    stream.writeStringNul(targetTable);
+    stream.writeInt(columns.size());
+    for (var column : columns) {
+      stream.writeStringNul(column);
+    }
+    return stream.getTrimmedByteArray();
+  }
+
+  public static ExtensionColumnMove decode(final byte[] data) {
+    var stream = ByteArrayStreamInput.wrap(data);
+    var magicNumber = stream.readStringNul();
+    if (!MAGIC_NUMBER.equals(magicNumber)) {
+      throw new MetaDataCodecException("Bad magic number. [%s]", magicNumber);
+    }
+    var protocolVersion = stream.readStringNul();
+    if (!PROTOCOL_VERSION.equals(protocolVersion)) {
+      throw new MetaDataCodecException("Bad protocol version. [%s]", protocolVersion);
+    }
+
+    var tableIdentity = stream.readStringNul();
+    var sourceTable = stream.readStringNul();
+    var targetTable = stream.readStringNul();
+    var size = stream.readInt();
+    var columns = new ArrayList<String>(size);
+    for (int i = 0; i < size; i++) {
+      columns.add(stream.readStringNul());
+    }
+    return new ExtensionColumnMove(tableIdentity, sourceTable, targetTable, List.copyOf(columns));
+  }
+}
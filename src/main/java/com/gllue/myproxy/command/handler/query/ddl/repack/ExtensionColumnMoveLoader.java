@@ -0,0 +1,28 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.repository.PersistRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor
+public class ExtensionColumnMoveLoader {
+  private final PersistRepository repository;
+
+  /** Load the extension columns being moved by the other nodes. */
+  public void load(final String basePath, final ExtensionColumnMoveRegistry registry) {
+    if (!repository.exists(basePath)) {
+      return;
+    }
+
+    var count = 0;
+    for (var key : repository.getChildrenKeys(basePath)) {
+      var move = ExtensionColumnMove.decode(repository.get(PathUtils.joinPaths(basePath, key)));
+      if (registry.register(move)) {
+        count++;
+      }
+    }
+    log.info("Loaded {} extension column moves.", count);
+  }
+}
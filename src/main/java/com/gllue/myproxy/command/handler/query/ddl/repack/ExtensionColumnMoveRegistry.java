@@ -0,0 +1,51 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * The extension columns being moved by this node and the other nodes, keyed by the identity of the
+ * partition table. The moves are published in the repository, so every node writes the moving
+ * columns to both extension tables. The registry is checked on the write path of every statement
+ * of the partition tables, so the empty registry is answered without a lookup.
+ *
+ * <p>The version is increased once a move is registered or unregistered, the prepared statements
+ * rewritten with another version are rewritten again.
+ */
+public class ExtensionColumnMoveRegistry {
+  private final Map<String, ExtensionColumnMove> moves = new ConcurrentHashMap<>();
+  private final AtomicInteger version = new AtomicInteger(0);
+
+  public boolean isEmpty() {
+    return moves.isEmpty();
+  }
+
+  public int getVersion() {
+    return version.get();
+  }
+
+  @Nullable
+  public ExtensionColumnMove get(final String tableIdentity) {
+    if (moves.isEmpty()) {
+      return null;
+    }
+    return moves.get(tableIdentity);
+  }
+
+  /** Register the move, returns false if the columns of the table are being moved already. */
+  public boolean register(final ExtensionColumnMove move) {
+    if (moves.putIfAbsent(move.getTableIdentity(), move) != null) {
+      return false;
+    }
+    version.incrementAndGet();
+    return true;
+  }
+
+  public void unregister(final String tableIdentity) {
+    if (moves.remove(tableIdentity) != null) {
+      version.incrementAndGet();
+    }
+  }
+}
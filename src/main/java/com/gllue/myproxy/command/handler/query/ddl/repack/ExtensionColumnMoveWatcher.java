@@ -0,0 +1,63 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.constant.ServerConstants;
+import com.gllue.myproxy.repository.ClusterPersistRepository;
+import com.gllue.myproxy.repository.DataChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keep the extension columns being moved by the other nodes updated in the registry. A node
+ * publishes the move after the shadow columns are added to the target table, and deletes it once
+ * the move is cut over or failed. The moving columns are written to both tables in between.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ExtensionColumnMoveWatcher {
+  private final String basePath;
+  private final ExtensionColumnMoveRegistry registry;
+  private final ClusterPersistRepository repository;
+
+  public void watch() {
+    repository.watch(basePath, this::dispatch);
+  }
+
+  private void dispatch(final DataChangedEvent event) {
+    var path = event.getKey();
+    if (!path.startsWith(basePath)) {
+      throw new IllegalStateException(
+          String.format("Got an invalid data change event. [path:%s]", path));
+    }
+
+    var key = path.substring(basePath.length());
+    if (key.startsWith(ServerConstants.PATH_SEPARATOR)) {
+      key = key.substring(1);
+    }
+    if (key.isEmpty()) {
+      return;
+    }
+    if (key.contains(ServerConstants.PATH_SEPARATOR)) {
+      throw new IllegalStateException(
+          String.format("Got an invalid data change event. [path:%s]", path));
+    }
+
+    switch (event.getType()) {
+      case CREATED:
+        var move = ExtensionColumnMove.decode((byte[]) event.getValue());
+        if (registry.register(move)) {
+          log.info(
+              "Columns {} are being moved from [{}] to [{}] by another node.",
+              move.getColumns(),
+              move.getSourceTable(),
+              move.getTargetTable());
+        }
+        break;
+      case DELETED:
+        registry.unregister(key);
+        log.info("Columns of the table [{}] are not being moved.", key);
+        break;
+      default:
+        break;
+    }
+  }
+}
@@ -0,0 +1,326 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Propose the placement of the extension columns of a partition table which minimizes the
+ * expected number of the joined extension tables of the recorded access patterns. The cost of a
+ * layout is the sum of the number of the extension tables covering each pattern weighted by its
+ * count.
+ *
+ * <p>The columns are clustered greedily: starting from the singleton groups, the pair of groups
+ * accessed together by the most queries is merged as long as the merged group fits into an
+ * extension table. The groups are then packed into the existing extension tables in the
+ * decreasing order of their sizes, each group goes to the table holding most of its columns among
+ * the tables with enough room, so that the columns are moved as few as possible. The current
+ * layout is kept if the proposal doesn't reduce the cost.
+ */
+public final class ExtensionColumnPlacementAdvisor {
+  private ExtensionColumnPlacementAdvisor() {}
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Move {
+    private final String column;
+    /** The index of the source extension table, 0 is the first extension table. */
+    private final int source;
+    /** The index of the target extension table. */
+    private final int target;
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Placement {
+    private final List<List<String>> currentLayout;
+    private final List<List<String>> proposedLayout;
+    /** The weighted number of the extension tables joined by the patterns in the current layout. */
+    private final long currentJoins;
+    /** The weighted number of the extension tables joined by the patterns in the proposal. */
+    private final long proposedJoins;
+    /** The total count of the patterns. */
+    private final long totalAccesses;
+
+    public List<Move> getMoves() {
+      var currentTables = tableIndexMap(currentLayout);
+      var moves = new ArrayList<Move>();
+      for (int i = 0; i < proposedLayout.size(); i++) {
+        for (var column : proposedLayout.get(i)) {
+          var source = currentTables.get(column);
+          if (source != i) {
+            moves.add(new Move(column, source, i));
+          }
+        }
+      }
+      return moves;
+    }
+
+    public boolean isChanged() {
+      return proposedJoins < currentJoins;
+    }
+  }
+
+  private static Map<String, Integer> tableIndexMap(final List<List<String>> layout) {
+    var map = new HashMap<String, Integer>();
+    for (int i = 0; i < layout.size(); i++) {
+      for (var column : layout.get(i)) {
+        map.put(column, i);
+      }
+    }
+    return map;
+  }
+
+  /** Returns the weighted number of the extension tables joined by the patterns. */
+  public static long expectedJoins(
+      final List<List<String>> layout, final Map<List<String>, Long> patterns) {
+    long joins = 0;
+    for (var count : tableAccesses(layout, patterns)) {
+      joins += count;
+    }
+    return joins;
+  }
+
+  /** Returns the total count of the patterns which join each of the extension tables. */
+  public static long[] tableAccesses(
+      final List<List<String>> layout, final Map<List<String>, Long> patterns) {
+    var tables = tableIndexMap(layout);
+    var accesses = new long[layout.size()];
+    var touched = new HashSet<Integer>();
+    for (var entry : patterns.entrySet()) {
+      touched.clear();
+      for (var column : entry.getKey()) {
+        var index = tables.get(column);
+        if (index != null) {
+          touched.add(index);
+        }
+      }
+      for (var index : touched) {
+        accesses[index] += entry.getValue();
+      }
+    }
+    return accesses;
+  }
+
+  /** Propose the placement of the extension columns of the partition table. */
+  public static Placement advise(
+      final PartitionTableMetaData table,
+      final int maxColumnsPerTable,
+      final Map<List<String>, Long> patterns) {
+    var extensionTables = table.getExtensionTables();
+    var layout = new ArrayList<List<String>>();
+    var capacities = new int[extensionTables.length];
+    for (int i = 0; i < extensionTables.length; i++) {
+      var columns = new ArrayList<String>();
+      var builtinColumns = 0;
+      for (int j = 0; j < extensionTables[i].getNumberOfColumns(); j++) {
+        var column = extensionTables[i].getColumn(j);
+        if (column.isBuiltin()) {
+          builtinColumns++;
+        } else {
+          columns.add(column.getName());
+        }
+      }
+      layout.add(columns);
+      capacities[i] = maxColumnsPerTable - builtinColumns;
+    }
+    return advise(layout, capacities, patterns);
+  }
+
+  /**
+   * Propose the placement of the extension columns.
+   *
+   * @param layout the column names of the extension tables, excluding the builtin columns
+   * @param capacities the max number of the columns of each extension table
+   * @param patterns the access patterns and their counts, the columns not in the extension tables
+   *     are ignored
+   */
+  public static Placement advise(
+      final List<List<String>> layout,
+      final int[] capacities,
+      final Map<List<String>, Long> patterns) {
+    Preconditions.checkArgument(
+        layout.size() == capacities.length, "The capacities don't match the extension tables.");
+
+    var columns = new ArrayList<String>();
+    var currentTableOf = new ArrayList<Integer>();
+    var columnIndices = new HashMap<String, Integer>();
+    for (int i = 0; i < layout.size(); i++) {
+      for (var column : layout.get(i)) {
+        columnIndices.put(column, columns.size());
+        columns.add(column);
+        currentTableOf.add(i);
+      }
+    }
+
+    var indexedPatterns = new ArrayList<int[]>();
+    var counts = new ArrayList<Long>();
+    long totalAccesses = 0;
+    for (var entry : patterns.entrySet()) {
+      var indices =
+          entry.getKey().stream()
+              .map(columnIndices::get)
+              .filter(x -> x != null)
+              .mapToInt(Integer::intValue)
+              .distinct()
+              .toArray();
+      if (indices.length > 0 && entry.getValue() > 0) {
+        indexedPatterns.add(indices);
+        counts.add(entry.getValue());
+        totalAccesses += entry.getValue();
+      }
+    }
+
+    var maxCapacity = Arrays.stream(capacities).max().orElse(0);
+    var groups = clusterColumns(columns.size(), indexedPatterns, counts, maxCapacity);
+    var proposedLayout = packGroups(groups, columns, currentTableOf, layout, capacities);
+
+    var currentJoins = expectedJoins(layout, patterns);
+    var proposedJoins = expectedJoins(proposedLayout, patterns);
+    if (proposedJoins >= currentJoins) {
+      proposedLayout = layout;
+      proposedJoins = currentJoins;
+    }
+    return new Placement(layout, proposedLayout, currentJoins, proposedJoins, totalAccesses);
+  }
+
+  private static List<List<Integer>> clusterColumns(
+      final int numberOfColumns,
+      final List<int[]> patterns,
+      final List<Long> counts,
+      final int maxGroupSize) {
+    var groups = new ArrayList<List<Integer>>();
+    var groupOf = new int[numberOfColumns];
+    for (int i = 0; i < numberOfColumns; i++) {
+      groups.add(new ArrayList<>(List.of(i)));
+      groupOf[i] = i;
+    }
+
+    var touched = new HashSet<Integer>();
+    while (true) {
+      // The benefit of merging two groups is the total count of the patterns touching both.
+      var benefits = new HashMap<Long, Long>();
+      for (int p = 0; p < patterns.size(); p++) {
+        touched.clear();
+        for (var column : patterns.get(p)) {
+          touched.add(groupOf[column]);
+        }
+        if (touched.size() < 2) {
+          continue;
+        }
+        var touchedGroups = touched.stream().mapToInt(Integer::intValue).sorted().toArray();
+        for (int i = 0; i < touchedGroups.length; i++) {
+          for (int j = i + 1; j < touchedGroups.length; j++) {
+            var a = touchedGroups[i];
+            var b = touchedGroups[j];
+            if (groups.get(a).size() + groups.get(b).size() <= maxGroupSize) {
+              benefits.merge(((long) a << 32) | b, counts.get(p), Long::sum);
+            }
+          }
+        }
+      }
+
+      long bestPair = -1;
+      long bestBenefit = 0;
+      for (var entry : benefits.entrySet()) {
+        var benefit = entry.getValue();
+        if (benefit > bestBenefit || (benefit == bestBenefit && entry.getKey() < bestPair)) {
+          bestPair = entry.getKey();
+          bestBenefit = benefit;
+        }
+      }
+      if (bestPair < 0) {
+        break;
+      }
+
+      var a = (int) (bestPair >>> 32);
+      var b = (int) bestPair;
+      for (var column : groups.get(b)) {
+        groupOf[column] = a;
+      }
+      groups.get(a).addAll(groups.get(b));
+      groups.get(b).clear();
+    }
+
+    var result = new ArrayList<List<Integer>>();
+    for (var group : groups) {
+      if (!group.isEmpty()) {
+        result.add(group);
+      }
+    }
+    return result;
+  }
+
+  private static List<List<String>> packGroups(
+      final List<List<Integer>> groups,
+      final List<String> columns,
+      final List<Integer> currentTableOf,
+      final List<List<String>> layout,
+      final int[] capacities) {
+    var numberOfTables = layout.size();
+    var free = new int[numberOfTables];
+    for (int i = 0; i < numberOfTables; i++) {
+      free[i] = Math.max(capacities[i], layout.get(i).size());
+    }
+
+    // The larger groups first, the columns of a group keep their original order.
+    groups.sort(
+        Comparator.<List<Integer>>comparingInt(List::size)
+            .reversed()
+            .thenComparingInt(x -> x.get(0)));
+
+    var tableOf = new int[columns.size()];
+    for (var group : groups) {
+      var overlaps = new int[numberOfTables];
+      for (var column : group) {
+        overlaps[currentTableOf.get(column)]++;
+      }
+
+      var target = -1;
+      for (int i = 0; i < numberOfTables; i++) {
+        if (free[i] >= group.size() && (target < 0 || overlaps[i] > overlaps[target])) {
+          target = i;
+        }
+      }
+
+      if (target >= 0) {
+        free[target] -= group.size();
+        for (var column : group) {
+          tableOf[column] = target;
+        }
+        continue;
+      }
+
+      // No table has enough room for the group, split it.
+      for (var column : group) {
+        var table = currentTableOf.get(column);
+        if (free[table] <= 0) {
+          for (int i = 0; i < numberOfTables; i++) {
+            if (free[i] > free[table]) {
+              table = i;
+            }
+          }
+        }
+        free[table]--;
+        tableOf[column] = table;
+      }
+    }
+
+    var proposedLayout = new ArrayList<List<String>>();
+    for (int i = 0; i < numberOfTables; i++) {
+      proposedLayout.add(new ArrayList<>());
+    }
+    for (int i = 0; i < columns.size(); i++) {
+      proposedLayout.get(tableOf[i]).add(columns.get(i));
+    }
+    return proposedLayout;
+  }
+}
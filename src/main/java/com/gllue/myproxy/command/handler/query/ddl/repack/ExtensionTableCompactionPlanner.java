@@ -0,0 +1,115 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnPlacementAdvisor.Move;
+import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Plan the compaction of the under-filled extension tables of a partition table. The columns of
+ * the trailing extension tables are moved into the free room of the leading ones, so that the
+ * trailing tables become empty and can be removed. Only the trailing tables are removed, the
+ * extension table names are derived from their ordinal values, which must stay contiguous.
+ */
+public final class ExtensionTableCompactionPlanner {
+  private ExtensionTableCompactionPlanner() {}
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Plan {
+    /** The number of the leading extension tables which are kept. */
+    private final int keptTables;
+    /** The number of the trailing extension tables which are removed. */
+    private final int removedTables;
+
+    private final List<Move> moves;
+  }
+
+  /** Plan the compaction of the extension tables of the partition table. */
+  public static Plan plan(final PartitionTableMetaData table, final int maxColumnsPerTable) {
+    var extensionTables = table.getExtensionTables();
+    var layout = new ArrayList<List<String>>();
+    var capacities = new int[extensionTables.length];
+    for (int i = 0; i < extensionTables.length; i++) {
+      var columns = new ArrayList<String>();
+      var builtinColumns = 0;
+      for (int j = 0; j < extensionTables[i].getNumberOfColumns(); j++) {
+        var column = extensionTables[i].getColumn(j);
+        if (column.isBuiltin()) {
+          builtinColumns++;
+        } else {
+          columns.add(column.getName());
+        }
+      }
+      layout.add(columns);
+      capacities[i] = maxColumnsPerTable - builtinColumns;
+    }
+    return plan(layout, capacities);
+  }
+
+  /**
+   * Plan the compaction of the extension tables, at least one extension table is kept.
+   *
+   * @param layout the column names of the extension tables, excluding the builtin columns
+   * @param capacities the max number of the columns of each extension table
+   */
+  public static Plan plan(final List<List<String>> layout, final int[] capacities) {
+    Preconditions.checkArgument(
+        layout.size() == capacities.length, "The capacities don't match the extension tables.");
+
+    var numberOfTables = layout.size();
+    var free = new int[numberOfTables];
+    for (int i = 0; i < numberOfTables; i++) {
+      free[i] = Math.max(0, capacities[i] - layout.get(i).size());
+    }
+
+    // Keep the fewest leading tables whose free room holds the columns of the trailing tables.
+    var keptTables = numberOfTables;
+    var freeColumns = 0;
+    for (int k = 1; k < numberOfTables; k++) {
+      freeColumns += free[k - 1];
+      var trailingColumns = 0;
+      for (int i = k; i < numberOfTables; i++) {
+        trailingColumns += layout.get(i).size();
+      }
+      if (freeColumns >= trailingColumns) {
+        keptTables = k;
+        break;
+      }
+    }
+
+    var moves = new ArrayList<Move>();
+    for (int source = keptTables; source < numberOfTables; source++) {
+      var remaining = new ArrayList<>(layout.get(source));
+      while (!remaining.isEmpty()) {
+        // The table with the least room holding all the remaining columns, otherwise the table
+        // with the most room, so the columns of a table are split as little as possible.
+        var target = -1;
+        for (int i = 0; i < keptTables; i++) {
+          if (free[i] >= remaining.size() && (target < 0 || free[i] < free[target])) {
+            target = i;
+          }
+        }
+        if (target < 0) {
+          target = 0;
+          for (int i = 1; i < keptTables; i++) {
+            if (free[i] > free[target]) {
+              target = i;
+            }
+          }
+        }
+
+        var count = Math.min(free[target], remaining.size());
+        for (var column : remaining.subList(0, count)) {
+          moves.add(new Move(column, source, target));
+        }
+        remaining.subList(0, count).clear();
+        free[target] -= count;
+      }
+    }
+    return new Plan(keptTables, numberOfTables - keptTables, moves);
+  }
+}
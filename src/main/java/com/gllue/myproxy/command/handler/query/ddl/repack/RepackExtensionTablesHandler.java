@@ -0,0 +1,81 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.sql.parser.SQLParser;
+import com.gllue.myproxy.sql.stmt.SQLRepackExtensionTablesStatement;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Apply the placement of the extension columns proposed by {@link ExtensionColumnPlacementAdvisor}
+ * online. The columns are moved one pair of the source and target extension tables at a time,
+ * each move is cut over separately, the affected rows of the result is the number of the moved
+ * columns.
+ */
+@Slf4j
+public class RepackExtensionTablesHandler extends AbstractExtensionTableRepackHandler {
+  private static final String NAME = "Repack extension tables handler";
+
+  public RepackExtensionTablesHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final SQLParser sqlParser,
+      final ThreadPool threadPool,
+      final ExtensionColumnAccessStats accessStats) {
+    super(
+        repository,
+        configurations,
+        clusterState,
+        transportService,
+        sqlParser,
+        threadPool,
+        accessStats);
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    ensureNoTransaction(request);
+
+    var stmt = (SQLRepackExtensionTablesStatement) request.getStatement();
+    var table = getPartitionTable(request, stmt.getTableName());
+    var patterns = accessStats.getAccessPatterns(table.getIdentity());
+    var placement =
+        ExtensionColumnPlacementAdvisor.advise(table, getMaxColumnsPerTable(), patterns);
+    var moves = placement.getMoves();
+    if (moves.isEmpty()) {
+      callback.onSuccess(QueryHandlerResult.OK_RESULT);
+      return;
+    }
+
+    log.info(
+        "Repack the extension tables of [{}], expected joins {} -> {}.",
+        table.getName(),
+        placement.getCurrentJoins(),
+        placement.getProposedJoins());
+    runRepack(table, () -> moveColumns(request, table.getName(), moves))
+        .then(
+            (v) -> {
+              callback.onSuccess(new QueryHandlerResult(moves.size(), 0, 0));
+              return true;
+            })
+        .doCatch(
+            (e) -> {
+              callback.onFailure(e);
+              return false;
+            });
+  }
+}
@@ -3,6 +3,7 @@ package com.gllue.myproxy.command.handler.query.dml;
 import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.command.handler.query.SchemaRelatedQueryHandler;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
 import com.gllue.myproxy.command.handler.query.dml.select.TableScopeFactory;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.config.Configurations;
@@ -10,17 +11,36 @@ import com.gllue.myproxy.repository.PersistRepository;
 import com.gllue.myproxy.transport.core.service.TransportService;
 
 public abstract class AbstractDMLHandler extends SchemaRelatedQueryHandler {
+  protected final ExtensionColumnAccessStats accessStats;
+
   protected AbstractDMLHandler(
       final PersistRepository repository,
       final Configurations configurations,
       final ClusterState clusterState,
       final TransportService transportService,
       final ThreadPool threadPool) {
+    this(
+        repository,
+        configurations,
+        clusterState,
+        transportService,
+        threadPool,
+        ExtensionColumnAccessStats.disabled());
+  }
+
+  protected AbstractDMLHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final ThreadPool threadPool,
+      final ExtensionColumnAccessStats accessStats) {
     super(repository, configurations, clusterState, transportService, threadPool);
+    this.accessStats = accessStats;
   }
 
   protected TableScopeFactory newScopeFactory(final QueryHandlerRequest request) {
     return new TableScopeFactory(
-        request.getDatasource(), request.getDatabase(), clusterState.getMetaData());
+        request.getDatasource(), request.getDatabase(), getMetaData(request));
   }
 }
@@ -8,7 +8,6 @@ import com.gllue.myproxy.command.handler.query.WrappedHandlerResult;
 import com.gllue.myproxy.command.handler.query.dml.AbstractDMLHandler;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
-import com.gllue.myproxy.common.util.SQLStatementUtils;
 import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.repository.PersistRepository;
 import com.gllue.myproxy.transport.core.service.TransportService;
@@ -36,23 +35,25 @@ public class DeleteQueryHandler extends AbstractDMLHandler {
         request.getDatabase(), newScopeFactory(request), newEncryptor(encryptKey));
   }
 
-  @Override
-  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+  private String rewriteQuery(QueryHandlerRequest request) {
     ensureDatabaseExists(request);
 
     var stmt = request.getStatement();
     var visitor = newQueryRewriteVisitor(request);
     stmt.accept(visitor);
-    if (!visitor.isQueryChanged()) {
-      submitQueryToBackendDatabase(
-          request.getConnectionId(),
-          request.getQuery(),
-          WrappedHandlerResult.wrappedCallback(callback));
-      return;
-    }
-
-    var newSql = SQLStatementUtils.toSQLString(stmt);
+    return visitor.toSQLString(request.getQuery(), stmt);
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
     submitQueryToBackendDatabase(
-        request.getConnectionId(), newSql, WrappedHandlerResult.wrappedCallback(callback));
+        request.getConnectionId(),
+        rewriteQuery(request),
+        WrappedHandlerResult.wrappedCallback(callback));
+  }
+
+  /** Rewrite the query of a prepared statement, the placeholders are kept as they are. */
+  public String rewritePreparedQuery(QueryHandlerRequest request) {
+    return rewriteQuery(request);
   }
 }
@@ -0,0 +1,165 @@
+package com.gllue.myproxy.command.handler.query.dml.insert;
+
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement.ValuesClause;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlOutputVisitor;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Split the insert statements of the physical tables of a partition table into chunks of rows.
+ * Each chunk has one query per statement covering the same rows, so that the rows of the primary
+ * table and the extension tables are inserted together. A chunk is closed once it reaches the max
+ * number of rows, or one of its queries would exceed the max size. The size is measured in
+ * characters, which approximates the bytes of the query.
+ *
+ * <p>The queries are rendered from the value expressions into the reused buffers directly, only
+ * the queries of the current chunk are held in memory rather than the whole statements.
+ */
+public class InsertQueryChunker {
+  public static final int DEFAULT_MAX_ROWS = 1000;
+  public static final int DEFAULT_MAX_SIZE_IN_BYTES = 1024 * 1024;
+
+  private static final String ROW_SEPARATOR = ", ";
+
+  private final List<MySqlInsertStatement> statements;
+  private final int numberOfRows;
+  private final int maxRows;
+  private final int maxSizeInBytes;
+  private final String[] heads;
+  private final String[] tails;
+  private final StringBuilder[] buffers;
+  private final int[] marks;
+  private final StringBuilder rowBuffer = new StringBuilder();
+  private final MySqlOutputVisitor visitor = new MySqlOutputVisitor(rowBuffer);
+
+  private int position = 0;
+
+  public InsertQueryChunker(
+      final List<MySqlInsertStatement> statements, final int maxRows, final int maxSizeInBytes) {
+    Preconditions.checkArgument(!statements.isEmpty(), "statements cannot be empty.");
+    Preconditions.checkArgument(maxRows > 0, "maxRows must > 0");
+    Preconditions.checkArgument(maxSizeInBytes > 0, "maxSizeInBytes must > 0");
+
+    this.statements = statements;
+    this.numberOfRows = statements.get(0).getValuesList().size();
+    this.maxRows = maxRows;
+    this.maxSizeInBytes = maxSizeInBytes;
+    this.visitor.setPrettyFormat(false);
+
+    var size = statements.size();
+    this.heads = new String[size];
+    this.tails = new String[size];
+    this.buffers = new StringBuilder[size];
+    this.marks = new int[size];
+    for (int i = 0; i < size; i++) {
+      var stmt = statements.get(i);
+      Preconditions.checkArgument(
+          stmt.getValuesList().size() == numberOfRows,
+          "The statements must have the same number of rows.");
+      heads[i] = renderHead(stmt);
+      tails[i] = renderTail(stmt);
+      buffers[i] = new StringBuilder();
+    }
+  }
+
+  private String renderHead(final MySqlInsertStatement stmt) {
+    rowBuffer.setLength(0);
+    rowBuffer.append("INSERT ");
+    if (stmt.isIgnore()) {
+      rowBuffer.append("IGNORE ");
+    }
+    rowBuffer.append("INTO ");
+    stmt.getTableSource().accept(visitor);
+    rowBuffer.append(" (");
+    var columns = stmt.getColumns();
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        rowBuffer.append(", ");
+      }
+      columns.get(i).accept(visitor);
+    }
+    rowBuffer.append(") VALUES ");
+    return rowBuffer.toString();
+  }
+
+  private String renderTail(final MySqlInsertStatement stmt) {
+    var items = stmt.getDuplicateKeyUpdate();
+    if (items.isEmpty()) {
+      return "";
+    }
+    rowBuffer.setLength(0);
+    rowBuffer.append(" ON DUPLICATE KEY UPDATE ");
+    for (int i = 0; i < items.size(); i++) {
+      if (i > 0) {
+        rowBuffer.append(", ");
+      }
+      items.get(i).accept(visitor);
+    }
+    return rowBuffer.toString();
+  }
+
+  private void renderRow(final ValuesClause valuesClause) {
+    rowBuffer.setLength(0);
+    rowBuffer.append('(');
+    var values = valuesClause.getValues();
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        rowBuffer.append(", ");
+      }
+      values.get(i).accept(visitor);
+    }
+    rowBuffer.append(')');
+  }
+
+  /** Append the row to the buffers, returns false if a buffer would exceed the max size. */
+  private boolean appendRow(final int row, final boolean first) {
+    for (int i = 0; i < buffers.length; i++) {
+      renderRow(statements.get(i).getValuesList().get(row));
+      var buffer = buffers[i];
+      var length = buffer.length() + rowBuffer.length() + tails[i].length();
+      if (!first && length + ROW_SEPARATOR.length() > maxSizeInBytes) {
+        for (int j = 0; j < i; j++) {
+          buffers[j].setLength(marks[j]);
+        }
+        return false;
+      }
+
+      marks[i] = buffer.length();
+      if (!first) {
+        buffer.append(ROW_SEPARATOR);
+      }
+      buffer.append(rowBuffer);
+    }
+    return true;
+  }
+
+  public boolean hasNext() {
+    return position < numberOfRows;
+  }
+
+  /** Returns the queries of the next chunk, one query per statement. */
+  public List<String> next() {
+    Preconditions.checkState(hasNext(), "No more chunks.");
+
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i].setLength(0);
+      buffers[i].append(heads[i]);
+    }
+    int rows = 0;
+    while (position < numberOfRows && rows < maxRows) {
+      if (!appendRow(position, rows == 0)) {
+        break;
+      }
+      position++;
+      rows++;
+    }
+
+    var queries = new ArrayList<String>(buffers.length);
+    for (int i = 0; i < buffers.length; i++) {
+      queries.add(buffers[i].append(tails[i]).toString());
+    }
+    return queries;
+  }
+}
@@ -4,21 +4,32 @@ import com.alibaba.druid.sql.ast.statement.SQLInsertStatement;
 import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.HandlerResult;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.handler.query.UnsupportedPreparedStatementException;
 import com.gllue.myproxy.command.handler.query.WrappedHandlerResult;
 import com.gllue.myproxy.command.handler.query.dml.AbstractDMLHandler;
+import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.generator.IdGenerator;
-import com.gllue.myproxy.common.util.SQLStatementUtils;
 import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
 import com.gllue.myproxy.repository.PersistRepository;
 import com.gllue.myproxy.transport.core.service.TransportService;
-import java.util.stream.Collectors;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 public class InsertQueryHandler extends AbstractDMLHandler {
   private static final String NAME = "Insert query handler";
 
   private final IdGenerator idGenerator;
+  private final int chunkMaxRows;
+  private final int chunkMaxSizeInBytes;
 
   public InsertQueryHandler(
       final PersistRepository repository,
@@ -29,6 +40,11 @@ public class InsertQueryHandler extends AbstractDMLHandler {
       final ThreadPool threadPool) {
     super(repository, configurations, clusterState, transportService, threadPool);
     this.idGenerator = idGenerator;
+    this.chunkMaxRows =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.QUERY_INSERT_CHUNK_MAX_ROWS);
+    this.chunkMaxSizeInBytes =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_INSERT_CHUNK_MAX_SIZE_IN_BYTES);
   }
 
   @Override
@@ -42,10 +58,11 @@ public class InsertQueryHandler extends AbstractDMLHandler {
         request.getDatabase(),
         newScopeFactory(request),
         request.getDatasource(),
-        clusterState.getMetaData(),
+        getMetaData(request),
         idGenerator,
         newEncryptor(encryptKey),
-        newDecryptor(encryptKey));
+        newDecryptor(encryptKey),
+        clusterState.getExtensionColumnMoves());
   }
 
   @Override
@@ -65,20 +82,17 @@ public class InsertQueryHandler extends AbstractDMLHandler {
 
     var newInsertStmts = visitor.getNewInsertQueries();
     if (newInsertStmts == null || newInsertStmts.isEmpty()) {
-      var newSql = SQLStatementUtils.toSQLString(stmt);
+      var newSql = visitor.toSQLString(request.getQuery(), stmt);
       submitQueryToBackendDatabase(
           request.getConnectionId(), newSql, WrappedHandlerResult.wrappedCallback(callback));
       return;
     }
 
-    var newInsertQueries =
-        newInsertStmts.stream().map(SQLStatementUtils::toSQLString).collect(Collectors.toList());
-    var promise = executeQueriesAtomically(request, newInsertQueries);
-    promise
+    var chunker = new InsertQueryChunker(newInsertStmts, chunkMaxRows, chunkMaxSizeInBytes);
+    executeChunksAtomically(request, chunker)
         .then(
             (result) -> {
-              var lastResult = result.get(result.size() - 1);
-              callback.onSuccess(new WrappedHandlerResult(lastResult));
+              callback.onSuccess(result);
               return true;
             })
         .doCatch(
@@ -87,4 +101,79 @@ public class InsertQueryHandler extends AbstractDMLHandler {
               return false;
             });
   }
+
+  /**
+   * Execute the chunks one after another in a transaction. The queries of the next chunk are
+   * rendered while the current chunk is executed by the backend database. The result sums up the
+   * affected rows and the warnings of the queries of the primary table, the last insert id is the
+   * one of the first chunk.
+   */
+  private Promise<HandlerResult> executeChunksAtomically(
+      final QueryHandlerRequest request, final InsertQueryChunker chunker) {
+    var connectionId = request.getConnectionId();
+    var affectedRows = new AtomicLong(0);
+    var lastInsertId = new AtomicLong(0);
+    var warnings = new AtomicInteger(0);
+    var chunkIndex = new AtomicInteger(0);
+    Supplier<Promise<CommandResult>> executeChunks =
+        () -> {
+          var next = new AtomicReference<List<String>>(chunker.next());
+          return Promise.chain(
+              (v) -> {
+                var queries = next.get();
+                if (queries == null) {
+                  return null;
+                }
+                var promise = executeQueries(request, queries);
+                next.set(chunker.hasNext() ? chunker.next() : null);
+                return promise.then(
+                    (results) -> {
+                      var result = results.get(0);
+                      if (chunkIndex.getAndIncrement() == 0) {
+                        lastInsertId.set(result.getLastInsertId());
+                      }
+                      affectedRows.addAndGet(result.getAffectedRows());
+                      warnings.addAndGet(result.getWarnings());
+                      return result;
+                    });
+              });
+        };
+
+    Promise<CommandResult> promise;
+    if (request.getSessionContext().isTransactionOpened()) {
+      promise = executeChunks.get();
+    } else {
+      promise =
+          beginTransaction(connectionId)
+              .thenAsync((v) -> executeChunks.get())
+              .thenAsync(
+                  (result) -> commitTransaction(connectionId).then((v) -> result),
+                  (e) -> rollbackTransaction(connectionId).then(throwWrappedException(e)));
+    }
+    return promise.then(
+        (v) -> new QueryHandlerResult(affectedRows.get(), lastInsertId.get(), warnings.get()));
+  }
+
+  /**
+   * Rewrite the query of a prepared statement, the placeholders are kept as they are. The insert
+   * query which is divided into multiple queries cannot be prepared, since the ids of the extension
+   * tables must be generated for each execution.
+   */
+  public String rewritePreparedQuery(QueryHandlerRequest request) {
+    ensureDatabaseExists(request);
+
+    var stmt = (SQLInsertStatement) request.getStatement();
+    var visitor = newQueryRewriteVisitor(request);
+    stmt.accept(visitor);
+    if (!visitor.isQueryChanged()) {
+      return request.getQuery();
+    }
+
+    var newInsertStmts = visitor.getNewInsertQueries();
+    if (newInsertStmts != null && !newInsertStmts.isEmpty()) {
+      throw new UnsupportedPreparedStatementException(
+          "Insert query of the partition table cannot be prepared.");
+    }
+    return visitor.toSQLString(request.getQuery(), stmt);
+  }
 }
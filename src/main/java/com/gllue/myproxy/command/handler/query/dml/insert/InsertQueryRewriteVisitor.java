@@ -6,6 +6,7 @@ import static com.gllue.myproxy.common.util.SQLStatementUtils.unquoteName;
 
 import com.alibaba.druid.sql.ast.SQLExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
+import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
 import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
 import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
 import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
@@ -19,6 +20,7 @@ import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlSelectQueryBlock;
 import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.Decryptor;
 import com.gllue.myproxy.command.handler.query.Encryptor;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveRegistry;
 import com.gllue.myproxy.command.handler.query.dml.select.BaseSelectQueryRewriteVisitor;
 import com.gllue.myproxy.command.handler.query.dml.select.TableScopeFactory;
 import com.gllue.myproxy.common.exception.BadColumnException;
@@ -31,6 +33,7 @@ import com.gllue.myproxy.metadata.model.TableMetaData;
 import com.gllue.myproxy.metadata.model.TableType;
 import com.google.common.primitives.Ints;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import lombok.Getter;
@@ -43,6 +46,7 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
   private final IdGenerator idGenerator;
   private final Encryptor encryptor;
   private final Decryptor decryptor;
+  private final ExtensionColumnMoveRegistry columnMoves;
 
   @Getter private List<MySqlInsertStatement> newInsertQueries;
   private MySqlInsertStatement insertStatement;
@@ -55,12 +59,33 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
       IdGenerator idGenerator,
       Encryptor encryptor,
       Decryptor decryptor) {
+    this(
+        defaultDatabase,
+        tableScopeFactory,
+        datasource,
+        databasesMetaData,
+        idGenerator,
+        encryptor,
+        decryptor,
+        new ExtensionColumnMoveRegistry());
+  }
+
+  public InsertQueryRewriteVisitor(
+      String defaultDatabase,
+      TableScopeFactory tableScopeFactory,
+      String datasource,
+      MultiDatabasesMetaData databasesMetaData,
+      IdGenerator idGenerator,
+      Encryptor encryptor,
+      Decryptor decryptor,
+      ExtensionColumnMoveRegistry columnMoves) {
     super(defaultDatabase, tableScopeFactory, encryptor);
     this.datasource = datasource;
     this.databasesMetaData = databasesMetaData;
     this.idGenerator = idGenerator;
     this.encryptor = encryptor;
     this.decryptor = decryptor;
+    this.columnMoves = columnMoves;
   }
 
   @Override
@@ -118,22 +143,109 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
     return columns.toArray(new ColumnMetaData[0]);
   }
 
-  private boolean isEncryptColumn(String schema, TableMetaData table, SQLExpr columnExpr) {
+  private ColumnMetaData findColumn(String schema, TableMetaData table, SQLExpr columnExpr) {
     if (columnExpr instanceof SQLIdentifierExpr) {
       var identifier = (SQLIdentifierExpr) columnExpr;
       var columnName = unquoteName(identifier.getSimpleName());
       if (!table.hasColumn(columnName)) {
         throw new BadColumnException(table.getName(), columnName);
       }
-      return table.getColumn(columnName).getType() == ColumnType.ENCRYPT;
+      return table.getColumn(columnName);
     } else if (columnExpr instanceof SQLPropertyExpr) {
       var property = (SQLPropertyExpr) columnExpr;
       ensureColumnExists(property, schema, table);
 
       var columnName = unquoteName(property.getName());
-      return table.getColumn(columnName).getType() == ColumnType.ENCRYPT;
+      return table.getColumn(columnName);
     }
-    return false;
+    return null;
+  }
+
+  private boolean isEncryptColumn(String schema, TableMetaData table, SQLExpr columnExpr) {
+    var column = findColumn(schema, table, columnExpr);
+    return column != null && column.getType() == ColumnType.ENCRYPT;
+  }
+
+  private ColumnMetaData findBlindIndexColumnOfEncryptColumn(ColumnMetaData column) {
+    if (column == null || column.getType() != ColumnType.ENCRYPT) {
+      return null;
+    }
+    return findBlindIndexColumn(column);
+  }
+
+  /**
+   * Add the blind index columns of the inserted encrypted columns, and compute their values from
+   * the plain values. Returns the inserted columns including the added blind index columns.
+   */
+  private ColumnMetaData[] addBlindIndexColumnsToValuesList(
+      MySqlInsertStatement x, ColumnMetaData[] columns) {
+    var newColumns = new ArrayList<>(Arrays.asList(columns));
+    for (int i = 0; i < columns.length; i++) {
+      var blindIndexColumn = findBlindIndexColumnOfEncryptColumn(columns[i]);
+      if (blindIndexColumn == null) {
+        continue;
+      }
+
+      x.addColumn(new SQLIdentifierExpr(quoteName(blindIndexColumn.getName())));
+      int row = 0;
+      for (var valuesClause : x.getValuesList()) {
+        row++;
+        var values = valuesClause.getValues();
+        if (values.size() <= i) {
+          throw new ColumnCountNotMatchValueCountException(row);
+        }
+        values.add(blindIndexValue(columns[i], values.get(i)));
+      }
+      newColumns.add(blindIndexColumn);
+    }
+
+    if (newColumns.size() == columns.length) {
+      return columns;
+    }
+    setQueryChanged();
+    return newColumns.toArray(new ColumnMetaData[0]);
+  }
+
+  /**
+   * Build the update items keeping the blind index columns in sync with the encrypted columns
+   * updated by the 'duplicate key update' clause, they must be built from the plain values.
+   */
+  private List<SQLExpr> newBlindIndexItemsForDuplicateKeyUpdate(
+      String schema, TableMetaData table, List<SQLExpr> updateItems) {
+    var blindIndexItems = new ArrayList<SQLExpr>();
+    for (var item : updateItems) {
+      if (!(item instanceof SQLBinaryOpExpr)) {
+        continue;
+      }
+      var binOp = (SQLBinaryOpExpr) item;
+      var left = binOp.getLeft();
+      var column = findColumn(schema, table, left);
+      var blindIndexColumn = findBlindIndexColumnOfEncryptColumn(column);
+      if (blindIndexColumn == null) {
+        continue;
+      }
+
+      SQLExpr value;
+      var right = binOp.getRight();
+      var valueColumn = findColumn(schema, table, getColumnExprInValues(right));
+      var valueBlindIndexColumn = findBlindIndexColumnOfEncryptColumn(valueColumn);
+      if (valueBlindIndexColumn != null) {
+        var valueColumnExpr = new SQLIdentifierExpr(quoteName(valueBlindIndexColumn.getName()));
+        if (right instanceof SQLMethodInvokeExpr) {
+          var invokeExpr = new SQLMethodInvokeExpr(((SQLMethodInvokeExpr) right).getMethodName());
+          invokeExpr.addArgument(valueColumnExpr);
+          value = invokeExpr;
+        } else {
+          value = valueColumnExpr;
+        }
+      } else {
+        value = blindIndexValue(column, right);
+      }
+      blindIndexItems.add(
+          new SQLBinaryOpExpr(
+              newBlindIndexColumnExpr(left, blindIndexColumn), SQLBinaryOperator.Equality, value));
+    }
+    return blindIndexItems;
   }
 
   private int[] findEncryptColumns(ColumnMetaData[] columns) {
@@ -154,7 +266,9 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
     for (var index : encryptColumnIndices) {
       var value = values.get(index);
       if (value instanceof SQLCharExpr) {
-        values.set(index, encryptColumn(encryptor, value));
+        values.set(index, encryptLiteral((SQLCharExpr) value));
+      } else if (isPlaceholder(value)) {
+        values.set(index, encryptPlaceholder(value));
       }
     }
   }
@@ -189,7 +303,12 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
       }
 
       if (leftIsEncrypt) {
+        if (binOp.getRight() instanceof SQLCharExpr) {
+          binOp.setRight(encryptLiteral((SQLCharExpr) binOp.getRight()));
+          continue;
+        }
         if (right instanceof SQLCharExpr
+            || isPlaceholder(right)
             || right instanceof SQLIdentifierExpr
             || right instanceof SQLPropertyExpr) {
           binOp.setRight(encryptColumn(encryptor, binOp.getRight()));
@@ -246,8 +365,6 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
       }
       rewriteValuesClauseForEncryptColumn(encryptColumnIndices, value);
     }
-
-    setQueryChanged();
   }
 
   private MySqlInsertStatement newInsertIntoValuesStatement(
@@ -268,11 +385,7 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
   }
 
   private long[] generateIdsForExtensionTablePrimaryKey(int count) {
-    var ids = new long[count];
-    for (int i = 0; i < count; i++) {
-      ids[i] = idGenerator.nextId();
-    }
-    return ids;
+    return idGenerator.nextIds(count);
   }
 
   private void distributeValues(
@@ -294,6 +407,7 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
     checkDuplicateKeyUpdateForPartitionTable(table, x.getDuplicateKeyUpdate());
 
     int index = 0;
+    var move = columnMoves.get(table.getIdentity());
     var columnIndicesPerTable = new HashMap<Integer, List<Integer>>();
     var columnNamesPerTable = new HashMap<Integer, List<String>>();
     for (var column : columns) {
@@ -302,6 +416,17 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
       columnNamesPerTable
           .computeIfAbsent(ordinalValue, (k) -> new ArrayList<>())
           .add(column.getName());
+      // The value of the moving column is written to its shadow column in the target table too.
+      var targetOrdinalValue =
+          move == null ? -1 : move.getTargetOrdinalValue(table, column.getName());
+      if (targetOrdinalValue > 0) {
+        columnIndicesPerTable
+            .computeIfAbsent(targetOrdinalValue, (k) -> new ArrayList<>())
+            .add(index);
+        columnNamesPerTable
+            .computeIfAbsent(targetOrdinalValue, (k) -> new ArrayList<>())
+            .add(move.getShadowColumn(column.getName()));
+      }
       index++;
     }
 
@@ -354,6 +479,9 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
     }
 
     var columns = getColumns(schema, table, x.getColumns());
+    var blindIndexItems =
+        newBlindIndexItemsForDuplicateKeyUpdate(schema, table, x.getDuplicateKeyUpdate());
+    columns = addBlindIndexColumnsToValuesList(x, columns);
     rewriteValuesListForEncryptColumn(x.getValuesList(), columns);
 
     if (table.getType() == TableType.PARTITION) {
@@ -361,6 +489,12 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
     }
 
     rewriteDuplicateKeyUpdateForEncryptColumn(schema, table, x.getDuplicateKeyUpdate());
+    if (!blindIndexItems.isEmpty()) {
+      // The 'duplicate key update' clause only belongs to the query of the primary table.
+      var stmt = newInsertQueries == null ? x : newInsertQueries.get(0);
+      stmt.getDuplicateKeyUpdate().addAll(blindIndexItems);
+      setQueryChanged();
+    }
     return false;
   }
 
@@ -422,6 +556,14 @@ public class InsertQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
       throw new BadSQLException(
           "Cannot execute 'insert into ... select' statement on the partition table.");
     }
+    for (var column : columns) {
+      if (findBlindIndexColumnOfEncryptColumn(column) != null) {
+        throw new BadSQLException(
+            "Cannot execute 'insert into ... select' statement on the encrypted column [%s] "
+                + "with a blind index.",
+            column.getName());
+      }
+    }
 
     if (selectQuery.getSelectList().size() != columns.length) {
       throw new ColumnCountNotMatchValueCountException(1);
@@ -0,0 +1,504 @@
+package com.gllue.myproxy.command.handler.query.dml.load;
+
+import static com.gllue.myproxy.common.util.SQLStatementUtils.unquoteName;
+
+import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLIntegerExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNullExpr;
+import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLTextLiteralExpr;
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLInsertStatement.ValuesClause;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlInsertStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlLoadDataInFileStatement;
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerResult;
+import com.gllue.myproxy.command.handler.query.dml.AbstractDMLHandler;
+import com.gllue.myproxy.command.handler.query.dml.insert.InsertQueryChunker;
+import com.gllue.myproxy.command.handler.query.dml.insert.InsertQueryRewriteVisitor;
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.generator.IdGenerator;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.metadata.model.TableMetaData;
+import com.gllue.myproxy.metadata.model.TableType;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.transport.constant.MySQLCapabilityFlag;
+import com.gllue.myproxy.transport.constant.MySQLCharsets;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import com.gllue.myproxy.transport.frontend.connection.LocalInfileReceiver;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Handle the {@code LOAD DATA LOCAL INFILE} statement. The backend connection only speaks the text
+ * protocol of the queries, so the proxy takes the role of the server: it asks the client for the
+ * file, parses the rows while the file is being received, and inserts them chunk by chunk with the
+ * insert queries rewritten as usual, that is the encrypt columns are encrypted and the columns of a
+ * partition table are split into the primary table and the extension tables. All the chunks are
+ * inserted in a transaction.
+ *
+ * <p>The duplicated rows are skipped as {@code LOAD DATA LOCAL} does, except for the partition
+ * table: a row skipped by the primary table would leave its rows in the extension tables with
+ * nothing referencing them, so a duplicated row fails the load and the inserted rows are rolled
+ * back.
+ *
+ * <p>Reading the file from the client is paused while a chunk is being inserted, so that at most a
+ * packet of the file and a chunk of rows are held in memory whatever the size of the file is. The
+ * {@code LOAD DATA INFILE} statement without {@code LOCAL} reads the file on the backend database,
+ * it is submitted to the backend database as it is.
+ */
+@Slf4j
+public class LoadDataInFileHandler extends AbstractDMLHandler {
+  private static final String NAME = "Load data in file handler";
+
+  private final IdGenerator idGenerator;
+  private final int chunkMaxRows;
+  private final int chunkMaxSizeInBytes;
+
+  public LoadDataInFileHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final IdGenerator idGenerator,
+      final ThreadPool threadPool) {
+    super(repository, configurations, clusterState, transportService, threadPool);
+    this.idGenerator = idGenerator;
+    this.chunkMaxRows =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.QUERY_INSERT_CHUNK_MAX_ROWS);
+    this.chunkMaxSizeInBytes =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.QUERY_INSERT_CHUNK_MAX_SIZE_IN_BYTES);
+  }
+
+  @Override
+  public String name() {
+    return NAME;
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+    var stmt = (MySqlLoadDataInFileStatement) request.getStatement();
+    if (!stmt.isLocal()) {
+      submitQueryAndDirectTransferResult(request.getConnectionId(), request.getQuery(), callback);
+      return;
+    }
+
+    ensureDatabaseExists(request);
+    var connection = getFrontendConnection(request.getConnectionId());
+    if (connection == null
+        || !MySQLCapabilityFlag.CLIENT_LOCAL_FILES.isBitSet(connection.capabilityFlags())) {
+      throw new BadSQLException("The client doesn't support LOAD DATA LOCAL INFILE.");
+    }
+    if (stmt.isReplicate()) {
+      throw new BadSQLException("LOAD DATA LOCAL INFILE doesn't support REPLACE.");
+    }
+    if (stmt.getSetList() != null && !stmt.getSetList().isEmpty()) {
+      throw new BadSQLException("LOAD DATA LOCAL INFILE doesn't support the SET clause.");
+    }
+
+    var table = findTable(request, stmt.getTableName());
+    var isPartitionTable = table != null && table.getType() == TableType.PARTITION;
+    if (isPartitionTable && stmt.isIgnore()) {
+      throw new BadSQLException(
+          "LOAD DATA LOCAL INFILE doesn't support IGNORE for the partition table [%s].",
+          table.getName());
+    }
+
+    var loader =
+        new LocalInfileLoader(
+            request,
+            connection,
+            stmt,
+            resolveColumns(stmt, table),
+            newRowParser(stmt),
+            !isPartitionTable,
+            callback);
+    loader.start();
+  }
+
+  private static String literalText(final SQLExpr expr, final String defaultValue) {
+    if (expr == null) {
+      return defaultValue;
+    }
+    if (!(expr instanceof SQLTextLiteralExpr)) {
+      throw new BadSQLException("Bad literal [%s].", expr);
+    }
+    return ((SQLTextLiteralExpr) expr).getText();
+  }
+
+  private LoadDataRowParser newRowParser(final MySqlLoadDataInFileStatement stmt) {
+    long ignoreRows = 0;
+    if (stmt.getIgnoreLinesNumber() instanceof SQLIntegerExpr) {
+      ignoreRows = ((SQLIntegerExpr) stmt.getIgnoreLinesNumber()).getNumber().longValue();
+    }
+    Charset charset = StandardCharsets.UTF_8;
+    if (stmt.getCharset() != null) {
+      charset = MySQLCharsets.getCharsetByName(unquoteName(stmt.getCharset())).charset();
+    }
+    return new LoadDataRowParser(
+        literalText(
+            stmt.getColumnsTerminatedBy(), LoadDataRowParser.DEFAULT_FIELDS_TERMINATED_BY),
+        literalText(stmt.getColumnsEnclosedBy(), LoadDataRowParser.DEFAULT_FIELDS_ENCLOSED_BY),
+        literalText(stmt.getColumnsEscaped(), LoadDataRowParser.DEFAULT_FIELDS_ESCAPED_BY),
+        literalText(stmt.getLinesStartingBy(), LoadDataRowParser.DEFAULT_LINES_STARTING_BY),
+        literalText(stmt.getLinesTerminatedBy(), LoadDataRowParser.DEFAULT_LINES_TERMINATED_BY),
+        ignoreRows,
+        charset);
+  }
+
+  private TableMetaData findTable(final QueryHandlerRequest request, final SQLExpr tableName) {
+    var databaseName = request.getDatabase();
+    String name;
+    if (tableName instanceof SQLPropertyExpr) {
+      var property = (SQLPropertyExpr) tableName;
+      databaseName = unquoteName(property.getOwnerName());
+      name = unquoteName(property.getName());
+    } else {
+      name = unquoteName(((SQLIdentifierExpr) tableName).getSimpleName());
+    }
+    var database = getMetaData(request).getDatabase(request.getDatasource(), databaseName);
+    if (database == null) {
+      return null;
+    }
+    return database.getTable(name);
+  }
+
+  /**
+   * Resolve the columns which the fields of a row are loaded into. The column list is required by
+   * the partition table, since the order of its columns is not kept in the table metadata. Returns
+   * an empty list if the table is unknown, the rows are inserted without a column list.
+   */
+  private List<String> resolveColumns(
+      final MySqlLoadDataInFileStatement stmt, final TableMetaData table) {
+    var columns = new ArrayList<String>();
+    for (var expr : stmt.getColumns()) {
+      if (!(expr instanceof SQLIdentifierExpr)) {
+        throw new BadSQLException(
+            "LOAD DATA LOCAL INFILE only supports the column names in the column list.");
+      }
+      columns.add(unquoteName(((SQLIdentifierExpr) expr).getSimpleName()));
+    }
+    if (!columns.isEmpty()) {
+      return columns;
+    }
+
+    if (table == null) {
+      return columns;
+    }
+    if (table.getType() == TableType.PARTITION) {
+      throw new BadSQLException(
+          "The column list is required to load data into the partition table [%s].",
+          table.getName());
+    }
+    for (int i = 0; i < table.getNumberOfColumns(); i++) {
+      var column = table.getColumn(i);
+      if (!column.isBuiltin()) {
+        columns.add(column.getName());
+      }
+    }
+    return columns;
+  }
+
+  private InsertQueryRewriteVisitor newQueryRewriteVisitor(QueryHandlerRequest request) {
+    String encryptKey = request.getSessionContext().getEncryptKey();
+    return new InsertQueryRewriteVisitor(
+        request.getDatabase(),
+        newScopeFactory(request),
+        request.getDatasource(),
+        getMetaData(request),
+        idGenerator,
+        newEncryptor(encryptKey),
+        newDecryptor(encryptKey),
+        clusterState.getExtensionColumnMoves());
+  }
+
+  /**
+   * Receive the file from the client and insert the parsed rows chunk by chunk. The methods are
+   * called by both the event loop of the client connection and the callbacks of the inserts, so
+   * they are synchronized on the loader.
+   */
+  private class LocalInfileLoader implements LocalInfileReceiver {
+    private final QueryHandlerRequest request;
+    private final FrontendConnection connection;
+    private final MySqlLoadDataInFileStatement stmt;
+    private final List<String> columns;
+    private final LoadDataRowParser parser;
+    private final boolean ignoreDuplicates;
+    private final Callback<HandlerResult> callback;
+    private final boolean inTransaction;
+    private final List<List<String>> rows = new ArrayList<>();
+
+    private int rowsSizeInBytes = 0;
+    private long numberOfRows = 0;
+    private long affectedRows = 0;
+    private int warnings = 0;
+    private boolean inserting = false;
+    private boolean ended = false;
+    private boolean completed = false;
+    private Throwable failure = null;
+
+    LocalInfileLoader(
+        final QueryHandlerRequest request,
+        final FrontendConnection connection,
+        final MySqlLoadDataInFileStatement stmt,
+        final List<String> columns,
+        final LoadDataRowParser parser,
+        final boolean ignoreDuplicates,
+        final Callback<HandlerResult> callback) {
+      this.request = request;
+      this.connection = connection;
+      this.stmt = stmt;
+      this.columns = columns;
+      this.parser = parser;
+      this.ignoreDuplicates = ignoreDuplicates;
+      this.callback = callback;
+      this.inTransaction = request.getSessionContext().isTransactionOpened();
+    }
+
+    void start() {
+      Promise<CommandResult> promise;
+      if (inTransaction) {
+        promise = Promise.emptyPromise();
+      } else {
+        promise = beginTransaction(request.getConnectionId());
+      }
+      promise
+          .then(
+              (v) -> {
+                var fileName = literalText(stmt.getFileName(), "");
+                connection.requestLocalInfile(fileName, this);
+                return true;
+              })
+          .doCatch(
+              (e) -> {
+                callback.onFailure(e);
+                return false;
+              });
+    }
+
+    @Override
+    public synchronized void onData(final MySQLPayload payload) {
+      if (failure != null) {
+        // Discard the rest of the file, the error is reported once the whole file is sent.
+        return;
+      }
+      try {
+        parser.feed(payload.readStringEOFReturnBytes());
+        insertRows();
+      } catch (Exception e) {
+        fail(e);
+      }
+    }
+
+    @Override
+    public synchronized void onEnd() {
+      ended = true;
+      if (failure == null) {
+        try {
+          parser.finish();
+          insertRows();
+        } catch (Exception e) {
+          fail(e);
+        }
+      }
+      tryComplete();
+    }
+
+    private void fail(final Throwable e) {
+      if (failure == null) {
+        log.error("Failed to load data from the local file.", e);
+        failure = e;
+      }
+      rows.clear();
+      connection.enableAutoRead();
+    }
+
+    private boolean isChunkFull() {
+      return rows.size() >= chunkMaxRows || rowsSizeInBytes >= chunkMaxSizeInBytes;
+    }
+
+    private void insertRows() {
+      if (inserting || failure != null) {
+        return;
+      }
+
+      while (!isChunkFull()) {
+        var row = parser.nextRow();
+        if (row == null) {
+          break;
+        }
+        numberOfRows++;
+        if (!columns.isEmpty()) {
+          if (row.size() < columns.size()) {
+            throw new BadSQLException(
+                "Row %s doesn't contain data for all columns.", numberOfRows);
+          }
+          // The extra fields are ignored.
+          row = row.subList(0, columns.size());
+        }
+        for (var field : row) {
+          rowsSizeInBytes += field == null ? 0 : field.length();
+        }
+        rows.add(row);
+      }
+
+      if (rows.isEmpty() || (!isChunkFull() && !ended)) {
+        // Read more of the file.
+        connection.enableAutoRead();
+        return;
+      }
+
+      inserting = true;
+      connection.disableAutoRead();
+      var queries = newInsertQueries();
+      rows.clear();
+      rowsSizeInBytes = 0;
+      executeChunks(queries)
+          .then(
+              (v) -> {
+                synchronized (this) {
+                  inserting = false;
+                  try {
+                    insertRows();
+                  } catch (Exception e) {
+                    fail(e);
+                  }
+                  tryComplete();
+                }
+                return true;
+              })
+          .doCatch(
+              (e) -> {
+                synchronized (this) {
+                  inserting = false;
+                  fail(e);
+                  tryComplete();
+                }
+                return false;
+              });
+    }
+
+    private MySqlInsertStatement newInsertStatement() {
+      var insert = new MySqlInsertStatement();
+      insert.setTableSource(new SQLExprTableSource(stmt.getTableName().clone()));
+      insert.setIgnore(ignoreDuplicates);
+      for (var column : columns) {
+        insert.addColumn(new SQLIdentifierExpr(SQLStatementUtils.quoteName(column)));
+      }
+      for (var row : rows) {
+        var values = new ValuesClause();
+        for (var field : row) {
+          values.addValue(field == null ? new SQLNullExpr() : new SQLCharExpr(field));
+        }
+        insert.addValueCause(values);
+      }
+      return insert;
+    }
+
+    /** Rewrite the rows of the chunk into the insert queries, by chunks of the physical tables. */
+    private List<List<String>> newInsertQueries() {
+      var insert = newInsertStatement();
+      var visitor = newQueryRewriteVisitor(request);
+      insert.accept(visitor);
+
+      var result = new ArrayList<List<String>>();
+      var newInsertStmts = visitor.getNewInsertQueries();
+      if (newInsertStmts == null || newInsertStmts.isEmpty()) {
+        var query = SQLStatementUtils.toSQLString(insert);
+        result.add(List.of(visitor.toSQLString(query, insert)));
+        return result;
+      }
+
+      var chunker = new InsertQueryChunker(newInsertStmts, chunkMaxRows, chunkMaxSizeInBytes);
+      while (chunker.hasNext()) {
+        result.add(chunker.next());
+      }
+      return result;
+    }
+
+    private Promise<CommandResult> executeChunks(final List<List<String>> chunks) {
+      var iterator = chunks.iterator();
+      return Promise.chain(
+          (v) -> {
+            if (!iterator.hasNext()) {
+              return null;
+            }
+            return executeQueries(request, iterator.next())
+                .then(
+                    (results) -> {
+                      var result = results.get(0);
+                      synchronized (this) {
+                        affectedRows += result.getAffectedRows();
+                        warnings += result.getWarnings();
+                      }
+                      return result;
+                    });
+          });
+    }
+
+    private void tryComplete() {
+      if (!ended || inserting || completed) {
+        return;
+      }
+      completed = true;
+      connection.enableAutoRead();
+
+      var connectionId = request.getConnectionId();
+      if (failure != null) {
+        var e = failure;
+        if (inTransaction) {
+          callback.onFailure(e);
+          return;
+        }
+        rollbackTransaction(connectionId)
+            .then(
+                (v) -> {
+                  callback.onFailure(e);
+                  return true;
+                })
+            .doCatch(
+                (ex) -> {
+                  callback.onFailure(e);
+                  return false;
+                });
+        return;
+      }
+
+      var result = new QueryHandlerResult(affectedRows, 0, warnings);
+      Promise<CommandResult> promise;
+      if (inTransaction) {
+        promise = Promise.emptyPromise();
+      } else {
+        promise = commitTransaction(connectionId);
+      }
+      promise
+          .then(
+              (v) -> {
+                callback.onSuccess(result);
+                return true;
+              })
+          .doCatch(
+              (e) -> {
+                callback.onFailure(e);
+                return false;
+              });
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package com.gllue.myproxy.command.handler.query.dml.load;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parse the rows of the file of a {@code LOAD DATA} statement incrementally. The content of the
+ * file is fed chunk by chunk, only the unparsed content is buffered, so that the memory used is
+ * bounded by the size of a chunk and a row rather than the size of the file. A field is null if it
+ * is {@code \N}, or {@code NULL} when the escape character is empty.
+ */
+public class LoadDataRowParser {
+  public static final String DEFAULT_FIELDS_TERMINATED_BY = "\t";
+  public static final String DEFAULT_FIELDS_ENCLOSED_BY = "";
+  public static final String DEFAULT_FIELDS_ESCAPED_BY = "\\";
+  public static final String DEFAULT_LINES_STARTING_BY = "";
+  public static final String DEFAULT_LINES_TERMINATED_BY = "\n";
+
+  private static final String NULL_VALUE = "NULL";
+
+  private enum Match {
+    MATCHED,
+    NOT_MATCHED,
+    NEED_MORE
+  }
+
+  private final String fieldsTerminatedBy;
+  private final char enclosedBy;
+  private final char escapedBy;
+  private final String linesStartingBy;
+  private final String linesTerminatedBy;
+  private final CharsetDecoder decoder;
+  private final StringBuilder buffer = new StringBuilder();
+  private final StringBuilder field = new StringBuilder();
+
+  private ByteBuffer undecodedBytes = ByteBuffer.allocate(0);
+  private int position = 0;
+  private long ignoreRows;
+  private boolean finished = false;
+
+  public LoadDataRowParser(
+      final String fieldsTerminatedBy,
+      final String enclosedBy,
+      final String escapedBy,
+      final String linesStartingBy,
+      final String linesTerminatedBy,
+      final long ignoreRows,
+      final Charset charset) {
+    Preconditions.checkArgument(enclosedBy.length() <= 1, "enclosedBy must be a single character.");
+    Preconditions.checkArgument(escapedBy.length() <= 1, "escapedBy must be a single character.");
+    Preconditions.checkArgument(
+        !linesTerminatedBy.isEmpty() || !fieldsTerminatedBy.isEmpty(),
+        "The terminators of fields and lines cannot be both empty.");
+
+    this.fieldsTerminatedBy = fieldsTerminatedBy;
+    this.enclosedBy = enclosedBy.isEmpty() ? 0 : enclosedBy.charAt(0);
+    this.escapedBy = escapedBy.isEmpty() ? 0 : escapedBy.charAt(0);
+    this.linesStartingBy = linesStartingBy;
+    this.linesTerminatedBy = linesTerminatedBy;
+    this.ignoreRows = ignoreRows;
+    this.decoder =
+        charset
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  }
+
+  /** Feed the next chunk of the file, a multi-byte character may span the chunks. */
+  public void feed(final byte[] bytes) {
+    Preconditions.checkState(!finished, "Parser has already finished.");
+    var in = ByteBuffer.allocate(undecodedBytes.remaining() + bytes.length);
+    in.put(undecodedBytes).put(bytes).flip();
+    decode(in, false);
+    undecodedBytes = in;
+  }
+
+  /** No more content will be fed, the trailing row without the line terminator can be parsed. */
+  public void finish() {
+    if (finished) {
+      return;
+    }
+    decode(undecodedBytes, true);
+    var out = CharBuffer.allocate(16);
+    decoder.flush(out);
+    buffer.append(out.flip());
+    finished = true;
+  }
+
+  private void decode(final ByteBuffer in, final boolean endOfInput) {
+    // Drop the parsed content before appending the new one.
+    buffer.delete(0, position);
+    position = 0;
+
+    var out = CharBuffer.allocate((int) (in.remaining() * decoder.maxCharsPerByte()) + 1);
+    decoder.decode(in, out, endOfInput);
+    buffer.append(out.flip());
+  }
+
+  /**
+   * Returns the fields of the next row, or null if the content fed so far has no complete row.
+   * The ignored rows are skipped.
+   */
+  public List<String> nextRow() {
+    while (true) {
+      var row = parseRow();
+      if (row == null || ignoreRows <= 0) {
+        return row;
+      }
+      ignoreRows--;
+    }
+  }
+
+  private Match match(final String s, final int index) {
+    if (s.isEmpty()) {
+      return Match.NOT_MATCHED;
+    }
+    var length = buffer.length();
+    for (int i = 0; i < s.length(); i++) {
+      if (index + i >= length) {
+        return finished ? Match.NOT_MATCHED : Match.NEED_MORE;
+      }
+      if (buffer.charAt(index + i) != s.charAt(i)) {
+        return Match.NOT_MATCHED;
+      }
+    }
+    return Match.MATCHED;
+  }
+
+  private static char unescape(final char c) {
+    switch (c) {
+      case '0':
+        return 0;
+      case 'b':
+        return '\b';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'Z':
+        return 26;
+      default:
+        return c;
+    }
+  }
+
+  private boolean isNullField(final int start, final int end) {
+    var length = end - start;
+    if (escapedBy != 0) {
+      return length == 2 && buffer.charAt(start) == escapedBy && buffer.charAt(start + 1) == 'N';
+    }
+    return length == NULL_VALUE.length() && NULL_VALUE.contentEquals(buffer.subSequence(start, end));
+  }
+
+  private List<String> parseRow() {
+    var i = position;
+    var length = buffer.length();
+    if (!linesStartingBy.isEmpty()) {
+      // The content before the prefix is skipped.
+      var index = buffer.indexOf(linesStartingBy, i);
+      if (index < 0) {
+        if (finished) {
+          position = length;
+        }
+        return null;
+      }
+      i = index + linesStartingBy.length();
+    }
+    if (finished && i >= length) {
+      position = length;
+      return null;
+    }
+
+    var fields = new ArrayList<String>();
+    while (true) {
+      field.setLength(0);
+      var start = i;
+      var quoted = enclosedBy != 0 && i < length && buffer.charAt(i) == enclosedBy;
+      var closed = !quoted;
+      if (quoted) {
+        i++;
+      }
+
+      boolean endOfLine;
+      while (true) {
+        if (i >= length) {
+          if (!finished) {
+            return null;
+          }
+          endOfLine = true;
+          break;
+        }
+
+        var c = buffer.charAt(i);
+        if (escapedBy != 0 && c == escapedBy) {
+          if (i + 1 >= length) {
+            if (!finished) {
+              return null;
+            }
+            field.append(c);
+            i++;
+            continue;
+          }
+          field.append(unescape(buffer.charAt(i + 1)));
+          i += 2;
+          continue;
+        }
+
+        if (!closed) {
+          if (c == enclosedBy) {
+            if (i + 1 >= length && !finished) {
+              return null;
+            }
+            if (i + 1 < length && buffer.charAt(i + 1) == enclosedBy) {
+              // A doubled enclosing character is the character itself.
+              field.append(c);
+              i += 2;
+              continue;
+            }
+            closed = true;
+            i++;
+            continue;
+          }
+          field.append(c);
+          i++;
+          continue;
+        }
+
+        var fieldMatch = match(fieldsTerminatedBy, i);
+        var lineMatch = match(linesTerminatedBy, i);
+        if (fieldMatch == Match.NEED_MORE || lineMatch == Match.NEED_MORE) {
+          return null;
+        }
+        if (lineMatch == Match.MATCHED) {
+          endOfLine = true;
+          break;
+        }
+        if (fieldMatch == Match.MATCHED) {
+          endOfLine = false;
+          break;
+        }
+        field.append(c);
+        i++;
+      }
+
+      fields.add(!quoted && isNullField(start, i) ? null : field.toString());
+      if (endOfLine) {
+        if (i < length) {
+          i += linesTerminatedBy.length();
+        }
+        position = i;
+        return fields;
+      }
+      i += fieldsTerminatedBy.length();
+    }
+  }
+}
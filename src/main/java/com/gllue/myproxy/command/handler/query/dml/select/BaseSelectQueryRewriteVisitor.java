@@ -11,13 +11,16 @@ import static com.gllue.myproxy.constant.ServerConstants.ALL_COLUMN_EXPR;
 
 import com.alibaba.druid.DbType;
 import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.expr.SQLAllColumnExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOpExpr;
 import com.alibaba.druid.sql.ast.expr.SQLBinaryOperator;
 import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
 import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
 import com.alibaba.druid.sql.ast.expr.SQLInListExpr;
+import com.alibaba.druid.sql.ast.expr.SQLNullExpr;
 import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
 import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLJoinTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLJoinTableSource.JoinType;
@@ -25,24 +28,31 @@ import com.alibaba.druid.sql.ast.statement.SQLSelectItem;
 import com.alibaba.druid.sql.ast.statement.SQLSubqueryTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLUnionQueryTableSource;
+import com.alibaba.druid.sql.dialect.mysql.ast.expr.MySqlCharExpr;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlSelectQueryBlock;
 import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
 import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.Decryptor;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper;
 import com.gllue.myproxy.command.handler.query.Encryptor;
+import com.gllue.myproxy.command.handler.query.UnsupportedPreparedStatementException;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
 import com.gllue.myproxy.common.exception.BadColumnException;
 import com.gllue.myproxy.common.exception.NoDatabaseException;
 import com.gllue.myproxy.common.util.SQLStatementUtils;
+import com.gllue.myproxy.common.util.SQLTextSplicer;
 import com.gllue.myproxy.metadata.model.ColumnMetaData;
 import com.gllue.myproxy.metadata.model.ColumnType;
 import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import com.gllue.myproxy.metadata.model.TableMetaData;
 import com.gllue.myproxy.metadata.model.TableType;
 import com.gllue.myproxy.metadata.model.TemporaryColumnMetaData;
 import com.gllue.myproxy.metadata.model.TemporaryTableMetaData;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -66,11 +76,26 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
 
   @Getter private boolean queryChanged = false;
 
+  /**
+   * Whether the structure of the query is changed, otherwise only the literals are replaced and
+   * the rewritten query can be spliced from the original query.
+   */
+  private boolean structureChanged = false;
+
+  /** The replaced literals, keyed by the replacement expressions. */
+  private Map<SQLExpr, SQLCharExpr> replacedLiterals;
+
   private boolean inheritScope = true;
   private int aliasIndex = 0;
   private Set<String> affectedExtensionTables = null;
   private Stack<String> subQueryStack;
 
+  /** The extension columns referenced by the query, keyed by the partition tables. */
+  private Map<PartitionTableMetaData, Set<String>> accessedExtensionColumns = null;
+  /** The partition tables whose columns are all selected by '*'. */
+  private Set<PartitionTableMetaData> fullyAccessedTables = null;
+  private Map<TableMetaData, PartitionTableMetaData> extensionTableOwners = null;
+
   @RequiredArgsConstructor
   static class PreparedJoinExtensionTable {
     final String tableName;
@@ -133,6 +158,10 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
 
   @Override
   public void endVisit(SQLBinaryOpExpr x) {
+    if (scope == null || !scope.hasEncryptColumns()) {
+      return;
+    }
+
     var left = x.getLeft();
     var column = findColumnInScope(scope, left);
     if (column != null && column.getType() == ColumnType.ENCRYPT) {
@@ -142,23 +171,48 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
       }
       var right = x.getRight();
       if (right instanceof SQLCharExpr) {
-        x.setRight(encryptColumn(encryptor, right));
-        setQueryChanged();
+        var blindIndexColumn =
+            x.getOperator() == SQLBinaryOperator.Equality ? findBlindIndexColumn(column) : null;
+        if (blindIndexColumn != null) {
+          // Look up the blind index instead, which is an indexed point query.
+          x.setLeft(newBlindIndexColumnExpr(left, blindIndexColumn));
+          x.setRight(blindIndexValue(column, right));
+          setQueryChanged();
+        } else {
+          x.setRight(encryptLiteral((SQLCharExpr) right));
+        }
+      } else if (isPlaceholder(right)) {
+        // The blind index cannot be computed from a placeholder, compare the encrypted values.
+        x.setRight(encryptPlaceholder(right));
       }
     }
   }
 
   @Override
   public void endVisit(SQLInListExpr x) {
+    if (scope == null || !scope.hasEncryptColumns()) {
+      return;
+    }
+
     var expr = x.getExpr();
     var column = findColumnInScope(scope, expr);
     if (column != null && column.getType() == ColumnType.ENCRYPT) {
       var targetList = x.getTargetList();
+      var blindIndexColumn = findBlindIndexColumn(column);
+      if (blindIndexColumn != null
+          && targetList.stream().allMatch((item) -> item instanceof SQLCharExpr)) {
+        x.setExpr(newBlindIndexColumnExpr(expr, blindIndexColumn));
+        targetList.replaceAll((item) -> blindIndexValue(column, item));
+        setQueryChanged();
+        return;
+      }
+
       int i = 0;
       for (var item: targetList) {
         if (item instanceof SQLCharExpr) {
-          targetList.set(i, encryptColumn(encryptor, item));
-          setQueryChanged();
+          targetList.set(i, encryptLiteral((SQLCharExpr) item));
+        } else if (isPlaceholder(item)) {
+          targetList.set(i, encryptPlaceholder(item));
         }
         i++;
       }
@@ -212,6 +266,83 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
 
   protected void setQueryChanged() {
     queryChanged = true;
+    structureChanged = true;
+  }
+
+  /**
+   * Render the rewritten query. If only the literals are replaced, the replacements are spliced
+   * into the original query, otherwise the whole statement is printed.
+   */
+  public String toSQLString(final String query, final SQLStatement stmt) {
+    if (!queryChanged) {
+      return query;
+    }
+    if (!structureChanged && replacedLiterals != null) {
+      var newQuery = spliceReplacedLiterals(query, stmt);
+      if (newQuery != null) {
+        return newQuery;
+      }
+    }
+    return SQLStatementUtils.toSQLString(stmt);
+  }
+
+  /**
+   * Locate the replaced literals in the original query by matching the literals of the statement
+   * with the literals of the query in order. Returns null if they cannot be matched, e.g. the query
+   * has the literals with a charset introducer.
+   */
+  private String spliceReplacedLiterals(final String query, final SQLStatement stmt) {
+    var collector = new LiteralCollector(replacedLiterals);
+    stmt.accept(collector);
+    var literals = SQLTextSplicer.findStringLiterals(query);
+    if (literals.size() != collector.literals.size()) {
+      return null;
+    }
+
+    var splicer = new SQLTextSplicer();
+    for (int i = 0; i < literals.size(); i++) {
+      var literal = literals.get(i);
+      if (!literal.getValue().equals(collector.literals.get(i).getText())) {
+        return null;
+      }
+      var replacement = collector.replacements.get(i);
+      if (replacement != null) {
+        splicer.replace(literal.getOffset(), literal.getLength(), replacement);
+      }
+    }
+    return splicer.render(query);
+  }
+
+  /** Collect the literals of the statement, the replaced literals are restored in place. */
+  @RequiredArgsConstructor
+  private static class LiteralCollector extends MySqlASTVisitorAdapter {
+    private final Map<SQLExpr, SQLCharExpr> replacedLiterals;
+    private final List<SQLCharExpr> literals = new ArrayList<>();
+    private final List<String> replacements = new ArrayList<>();
+
+    @Override
+    public boolean visit(SQLCharExpr x) {
+      literals.add(x);
+      replacements.add(null);
+      return false;
+    }
+
+    @Override
+    public boolean visit(MySqlCharExpr x) {
+      literals.add(x);
+      replacements.add(null);
+      return false;
+    }
+
+    @Override
+    public boolean visit(SQLIdentifierExpr x) {
+      var literal = replacedLiterals.get(x);
+      if (literal != null) {
+        literals.add(literal);
+        replacements.add(x.getName());
+      }
+      return false;
+    }
   }
 
   protected void newScope(SQLTableSource tableSource) {
@@ -324,9 +455,17 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
       if (table == null) {
         newItems.add(items.get(i));
       } else {
-        for (var column : table.getColumnNames()) {
+        if (table.getType() == TableType.PARTITION) {
+          addFullyAccessedTable((PartitionTableMetaData) table);
+        }
+        for (int j = 0; j < table.getNumberOfColumns(); j++) {
+          var column = table.getColumn(j);
+          if (column.isBuiltin()) {
+            continue;
+          }
           newItems.add(
-              new SQLSelectItem(new SQLPropertyExpr(property.getOwner(), quoteName(column))));
+              new SQLSelectItem(
+                  new SQLPropertyExpr(property.getOwner(), quoteName(column.getName()))));
         }
       }
     }
@@ -391,6 +530,7 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
       var alias = generateTableAlias();
       aliases[i++] = alias;
       scope.addTable(schema, alias, extTable);
+      addExtensionTableOwner(extTable, table);
 
       var quoteAlias = quoteName(alias);
       var aliasExpr = new SQLIdentifierExpr(quoteAlias);
@@ -566,6 +706,79 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
     return new SQLIdentifierExpr(encryptor.encryptExpr(columnStr));
   }
 
+  /**
+   * Wrap the literal with the encryption function, the structure of the query is not changed by
+   * the replacement.
+   */
+  protected SQLExpr encryptLiteral(SQLCharExpr literal) {
+    var replacement = encryptColumn(encryptor, literal);
+    if (replacedLiterals == null) {
+      replacedLiterals = new IdentityHashMap<>();
+    }
+    replacedLiterals.put(replacement, literal);
+    queryChanged = true;
+    return replacement;
+  }
+
+  /** Whether the expression is a placeholder of the prepared statement. */
+  protected static boolean isPlaceholder(SQLExpr expr) {
+    return expr instanceof SQLVariantRefExpr && "?".equals(((SQLVariantRefExpr) expr).getName());
+  }
+
+  /**
+   * Wrap the placeholder of the prepared statement with the encryption function, so the bound
+   * parameter is encrypted by the backend database the same as a literal.
+   */
+  protected SQLExpr encryptPlaceholder(SQLExpr placeholder) {
+    var replacement = encryptColumn(encryptor, placeholder);
+    setQueryChanged();
+    return replacement;
+  }
+
+  /** Find the blind index column of the encrypted column, returns null if it has none. */
+  protected ColumnMetaData findBlindIndexColumn(ColumnMetaData column) {
+    if (column instanceof TemporaryColumnMetaData) {
+      return null;
+    }
+    var blindIndexColumn =
+        column.getTable().getColumn(EncryptionHelper.blindIndexColumnName(column.getName()));
+    if (blindIndexColumn == null || !blindIndexColumn.isBuiltin()) {
+      return null;
+    }
+    return blindIndexColumn;
+  }
+
+  /** Refer to the blind index column with the same owner as the encrypted column expression. */
+  protected SQLExpr newBlindIndexColumnExpr(SQLExpr columnExpr, ColumnMetaData blindIndexColumn) {
+    var columnName = quoteName(blindIndexColumn.getName());
+    if (columnExpr instanceof SQLPropertyExpr) {
+      return new SQLPropertyExpr(((SQLPropertyExpr) columnExpr).getOwner().clone(), columnName);
+    }
+    return new SQLIdentifierExpr(columnName);
+  }
+
+  /**
+   * Compute the blind index of the value of the encrypted column. The blind index is computed
+   * from the plain value by the proxy, so only the literals and NULL are accepted.
+   */
+  protected SQLExpr blindIndexValue(ColumnMetaData column, SQLExpr valueExpr) {
+    if (valueExpr instanceof SQLCharExpr) {
+      var value = ((SQLCharExpr) valueExpr).getText();
+      return new SQLIdentifierExpr(encryptor.blindIndexExpr(value));
+    }
+    if (valueExpr instanceof SQLNullExpr) {
+      return new SQLNullExpr();
+    }
+    if (isPlaceholder(valueExpr)) {
+      throw new UnsupportedPreparedStatementException(
+          "The blind index of the encrypted column [%s] cannot be computed from a placeholder.",
+          column.getName());
+    }
+    throw new BadSQLException(
+        "Only the literal values can be assigned to the encrypted column [%s] with a blind index.",
+        column.getName());
+  }
+
   private void rewritePropertyOwnerForPartitionTable(
       SQLPropertyExpr property,
       PartitionTableMetaData table,
@@ -587,6 +800,7 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
     }
     setQueryChanged();
     addAffectedExtensionTables(table.getTableByOrdinalValue(ordinalValue).getName());
+    addAccessedExtensionColumn(table, column);
   }
 
   protected String getSchemaOwner(SQLPropertyExpr expr) {
@@ -660,7 +874,7 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
     return column;
   }
 
-  private void addAffectedExtensionTables(String tableName) {
+  protected void addAffectedExtensionTables(String tableName) {
     if (affectedExtensionTables == null) {
       affectedExtensionTables = new HashSet<>();
     }
@@ -675,6 +889,47 @@ public class BaseSelectQueryRewriteVisitor extends MySqlASTVisitorAdapter {
     }
     if (table.getType() == TableType.EXTENSION) {
       addAffectedExtensionTables(table.getName());
+      if (extensionTableOwners != null && extensionTableOwners.containsKey(table)) {
+        addAccessedExtensionColumn(extensionTableOwners.get(table), column.getName());
+      }
+    }
+  }
+
+  private void addExtensionTableOwner(TableMetaData extTable, PartitionTableMetaData table) {
+    if (extensionTableOwners == null) {
+      extensionTableOwners = new IdentityHashMap<>();
+    }
+    extensionTableOwners.put(extTable, table);
+  }
+
+  private void addAccessedExtensionColumn(PartitionTableMetaData table, String column) {
+    if (accessedExtensionColumns == null) {
+      accessedExtensionColumns = new IdentityHashMap<>();
+    }
+    accessedExtensionColumns.computeIfAbsent(table, k -> new HashSet<>()).add(column);
+  }
+
+  private void addFullyAccessedTable(PartitionTableMetaData table) {
+    if (fullyAccessedTables == null) {
+      fullyAccessedTables = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+    fullyAccessedTables.add(table);
+  }
+
+  /**
+   * Report the extension columns referenced by the query to the statistics, the tables whose
+   * columns are all selected by '*' are skipped since they join all the extension tables in any
+   * layout.
+   */
+  public void reportExtensionColumnAccesses(final ExtensionColumnAccessStats stats) {
+    if (accessedExtensionColumns == null || !stats.isEnabled()) {
+      return;
+    }
+    for (var entry : accessedExtensionColumns.entrySet()) {
+      var table = entry.getKey();
+      if (fullyAccessedTables == null || !fullyAccessedTables.contains(table)) {
+        stats.record(table.getIdentity(), entry.getValue());
+      }
     }
   }
 }
@@ -0,0 +1,94 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
+import com.alibaba.druid.sql.ast.expr.SQLMethodInvokeExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import java.util.Set;
+
+/**
+ * Find the expressions whose values depend on the time, the session or randomness rather than the
+ * data of the tables, e.g. {@code NOW()}, {@code RAND()} and the user variables. The result of a
+ * query with any of them cannot be cached.
+ */
+class NonDeterministicExprVisitor extends MySqlASTVisitorAdapter {
+  private static final Set<String> FUNCTIONS =
+      Set.of(
+          "NOW",
+          "SYSDATE",
+          "CURDATE",
+          "CURTIME",
+          "CURRENT_DATE",
+          "CURRENT_TIME",
+          "CURRENT_TIMESTAMP",
+          "LOCALTIME",
+          "LOCALTIMESTAMP",
+          "UTC_DATE",
+          "UTC_TIME",
+          "UTC_TIMESTAMP",
+          "UNIX_TIMESTAMP",
+          "RAND",
+          "UUID",
+          "UUID_SHORT",
+          "CONNECTION_ID",
+          "LAST_INSERT_ID",
+          "FOUND_ROWS",
+          "ROW_COUNT",
+          "USER",
+          "CURRENT_USER",
+          "SESSION_USER",
+          "SYSTEM_USER",
+          "DATABASE",
+          "SCHEMA",
+          "SLEEP",
+          "BENCHMARK",
+          "GET_LOCK",
+          "RELEASE_LOCK",
+          "IS_FREE_LOCK",
+          "IS_USED_LOCK");
+
+  /** The functions which can be called without the parentheses. */
+  private static final Set<String> KEYWORD_FUNCTIONS =
+      Set.of(
+          "CURRENT_DATE",
+          "CURRENT_TIME",
+          "CURRENT_TIMESTAMP",
+          "LOCALTIME",
+          "LOCALTIMESTAMP",
+          "UTC_DATE",
+          "UTC_TIME",
+          "UTC_TIMESTAMP",
+          "CURRENT_USER");
+
+  private boolean found = false;
+
+  @Override
+  public boolean visit(SQLMethodInvokeExpr x) {
+    if (FUNCTIONS.contains(x.getMethodName().toUpperCase())) {
+      found = true;
+    }
+    return !found;
+  }
+
+  @Override
+  public boolean visit(SQLVariantRefExpr x) {
+    // The user variables, the system variables and the placeholders.
+    found = true;
+    return false;
+  }
+
+  @Override
+  public boolean visit(SQLIdentifierExpr x) {
+    var name = SQLStatementUtils.unquoteName(x.getName());
+    // A quoted identifier is a column.
+    if (name.equals(x.getName()) && KEYWORD_FUNCTIONS.contains(name.toUpperCase())) {
+      found = true;
+    }
+    return false;
+  }
+
+  public boolean isFound() {
+    return found;
+  }
+}
@@ -0,0 +1,341 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.RawPacket;
+import com.google.common.base.Preconditions;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache the encoded results of the SELECT queries which are opted in by the comment attribute
+ * {@code RESULT_CACHE} or by the configured tables. The results are keyed by the data source, the
+ * default database, the session variables (e.g. character set, time zone and sql mode) and the
+ * rewritten query, the cache is bounded by the total size of the encoded packets and the least
+ * recently used results are evicted first.
+ *
+ * <p>A result is invalidated when the proxy executes a statement which modifies any of the tables
+ * referenced by the query. A result of a query which is in flight during an invalidation of its
+ * tables is not cached, since it may have read the data before the modification. The results also
+ * expire after a while, in case the tables are modified by the other proxy nodes. The invalidations
+ * are tracked up to {@link #MAX_TRACKED_INVALIDATIONS} tables, once exceeded they are forgotten and
+ * the results of the queries in flight are not cached.
+ */
+public class QueryResultCache {
+  private static final Counter CACHE_HITS =
+      Counter.build()
+          .name("query_result_cache_hits")
+          .help("Total hits of the query result cache.")
+          .register();
+
+  private static final Counter CACHE_MISSES =
+      Counter.build()
+          .name("query_result_cache_misses")
+          .help("Total misses of the query result cache.")
+          .register();
+
+  private static final Gauge CACHE_SIZE =
+      Gauge.build()
+          .name("query_result_cache_size")
+          .help("Total size of the query results in the cache.")
+          .unit("bytes")
+          .register();
+
+  public static final long DEFAULT_MAX_CAPACITY_IN_BYTES = 64 * 1024 * 1024;
+
+  public static final int DEFAULT_MAX_ENTRY_SIZE_IN_BYTES = 1024 * 1024;
+
+  public static final long DEFAULT_EXPIRE_TIME_IN_MILLS = 60 * 1000;
+
+  static final int MAX_TRACKED_INVALIDATIONS = 4096;
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static class Key {
+    private final String datasource;
+    private final String database;
+    private final String sessionVariables;
+    private final String query;
+  }
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static class TableKey {
+    private final String datasource;
+    private final String table;
+  }
+
+  @RequiredArgsConstructor
+  private static class Entry {
+    private final EncodedQueryHandlerResult result;
+    private final List<TableKey> tables;
+    private final long sizeInBytes;
+    private final long expireTime;
+  }
+
+  private final boolean enabled;
+  private final long maxCapacityInBytes;
+  private final int maxEntrySizeInBytes;
+  private final long expireTimeInMills;
+  private final Set<String> cachedTables;
+
+  private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<TableKey, Set<Key>> tableIndex = new HashMap<>();
+  private final Map<TableKey, Long> tableInvalidations = new HashMap<>();
+  private final Map<String, Long> datasourceInvalidations = new HashMap<>();
+  private long invalidationCounter = 0;
+  /** The invalidations up to this counter have been forgotten. */
+  private long forgottenInvalidationCounter = 0;
+  private long sizeInBytes = 0;
+
+  public QueryResultCache(
+      final long maxCapacityInBytes,
+      final int maxEntrySizeInBytes,
+      final long expireTimeInMills,
+      final Collection<String> cachedTables) {
+    this(true, maxCapacityInBytes, maxEntrySizeInBytes, expireTimeInMills, cachedTables);
+  }
+
+  private QueryResultCache(
+      final boolean enabled,
+      final long maxCapacityInBytes,
+      final int maxEntrySizeInBytes,
+      final long expireTimeInMills,
+      final Collection<String> cachedTables) {
+    Preconditions.checkArgument(maxCapacityInBytes > 0, "maxCapacityInBytes must > 0");
+    Preconditions.checkArgument(maxEntrySizeInBytes > 0, "maxEntrySizeInBytes must > 0");
+    Preconditions.checkArgument(expireTimeInMills > 0, "expireTimeInMills must > 0");
+    this.enabled = enabled;
+    this.maxCapacityInBytes = maxCapacityInBytes;
+    this.maxEntrySizeInBytes = maxEntrySizeInBytes;
+    this.expireTimeInMills = expireTimeInMills;
+    this.cachedTables = Set.copyOf(cachedTables);
+  }
+
+  /** A cache which never keeps the results. */
+  public static QueryResultCache disabled() {
+    return new QueryResultCache(
+        false,
+        DEFAULT_MAX_CAPACITY_IN_BYTES,
+        DEFAULT_MAX_ENTRY_SIZE_IN_BYTES,
+        DEFAULT_EXPIRE_TIME_IN_MILLS,
+        Set.of());
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public int getMaxEntrySizeInBytes() {
+    return maxEntrySizeInBytes;
+  }
+
+  /** Whether all the tables (in the form of {@code database.table}) are configured to cache. */
+  public boolean isCachedTables(final Collection<String> tables) {
+    return enabled && !tables.isEmpty() && cachedTables.containsAll(tables);
+  }
+
+  /**
+   * Get the cached result of a query.
+   *
+   * @param sessionVariables the SET statement which restores the session variables, null if the
+   *     session has no variables.
+   */
+  @Nullable
+  public synchronized EncodedQueryHandlerResult get(
+      final String datasource,
+      final String database,
+      @Nullable final String sessionVariables,
+      final String query) {
+    if (!enabled) {
+      return null;
+    }
+
+    var key = new Key(datasource, database, sessionVariables, query);
+    var entry = entries.get(key);
+    if (entry == null) {
+      CACHE_MISSES.inc();
+      return null;
+    }
+    if (entry.expireTime <= System.currentTimeMillis()) {
+      remove(key);
+      CACHE_MISSES.inc();
+      return null;
+    }
+    CACHE_HITS.inc();
+    return entry.result;
+  }
+
+  /**
+   * Returns a stamp to be passed to {@link #put}, it must be taken before the query is submitted
+   * to the backend database.
+   */
+  public synchronized long stamp() {
+    return invalidationCounter;
+  }
+
+  /**
+   * Put the result of a query into the cache, the result is dropped if it's too large or any of
+   * its tables has been invalidated after the stamp was taken.
+   *
+   * @return whether the result is cached.
+   */
+  public synchronized boolean put(
+      final String datasource,
+      final String database,
+      @Nullable final String sessionVariables,
+      final String query,
+      final Collection<String> tables,
+      final long stamp,
+      final EncodedQueryHandlerResult result) {
+    if (!enabled) {
+      return false;
+    }
+
+    var size = sizeOf(result);
+    if (size > maxEntrySizeInBytes) {
+      return false;
+    }
+    if (forgottenInvalidationCounter > stamp
+        || datasourceInvalidations.getOrDefault(datasource, 0L) > stamp) {
+      return false;
+    }
+    var tableKeys = new HashSet<TableKey>();
+    for (var table : tables) {
+      var tableKey = new TableKey(datasource, table);
+      if (tableInvalidations.getOrDefault(tableKey, 0L) > stamp) {
+        return false;
+      }
+      tableKeys.add(tableKey);
+    }
+
+    var key = new Key(datasource, database, sessionVariables, query);
+    remove(key);
+    var expireTime = System.currentTimeMillis() + expireTimeInMills;
+    entries.put(key, new Entry(result, List.copyOf(tableKeys), size, expireTime));
+    for (var tableKey : tableKeys) {
+      tableIndex.computeIfAbsent(tableKey, (k) -> new HashSet<>()).add(key);
+    }
+    addSize(size);
+
+    var iterator = entries.entrySet().iterator();
+    while (sizeInBytes > maxCapacityInBytes && iterator.hasNext()) {
+      var eldest = iterator.next();
+      iterator.remove();
+      unlink(eldest.getKey(), eldest.getValue());
+    }
+    return true;
+  }
+
+  /** Forget the results of the queries which reference any of the tables. */
+  public synchronized void invalidate(final String datasource, final Collection<String> tables) {
+    if (!enabled) {
+      return;
+    }
+
+    invalidationCounter++;
+    for (var table : tables) {
+      var tableKey = new TableKey(datasource, table);
+      tableInvalidations.put(tableKey, invalidationCounter);
+      var keys = tableIndex.remove(tableKey);
+      if (keys != null) {
+        for (var key : keys) {
+          remove(key);
+        }
+      }
+    }
+    forgetInvalidationsIfTooMany();
+  }
+
+  /** Forget all the results of the data source. */
+  public synchronized void invalidate(final String datasource) {
+    if (!enabled) {
+      return;
+    }
+
+    invalidationCounter++;
+    datasourceInvalidations.put(datasource, invalidationCounter);
+    forgetInvalidationsIfTooMany();
+    var keys = new HashSet<Key>();
+    for (var key : entries.keySet()) {
+      if (key.datasource.equals(datasource)) {
+        keys.add(key);
+      }
+    }
+    for (var key : keys) {
+      remove(key);
+    }
+  }
+
+  /**
+   * Forget all the tracked invalidations if there are too many, the queries which took the stamp
+   * before are regarded as invalidated.
+   */
+  private void forgetInvalidationsIfTooMany() {
+    if (tableInvalidations.size() + datasourceInvalidations.size() > MAX_TRACKED_INVALIDATIONS) {
+      tableInvalidations.clear();
+      datasourceInvalidations.clear();
+      forgottenInvalidationCounter = invalidationCounter;
+    }
+  }
+
+  synchronized int trackedInvalidations() {
+    return tableInvalidations.size() + datasourceInvalidations.size();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long sizeInBytes() {
+    return sizeInBytes;
+  }
+
+  private void remove(final Key key) {
+    var entry = entries.remove(key);
+    if (entry != null) {
+      unlink(key, entry);
+    }
+  }
+
+  private void unlink(final Key key, final Entry entry) {
+    for (var tableKey : entry.tables) {
+      var keys = tableIndex.get(tableKey);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          tableIndex.remove(tableKey);
+        }
+      }
+    }
+    addSize(-entry.sizeInBytes);
+  }
+
+  private void addSize(final long delta) {
+    sizeInBytes += delta;
+    CACHE_SIZE.inc(delta);
+  }
+
+  private static long sizeOf(final EncodedQueryHandlerResult result) {
+    return sizeOf(result.getColumnPackets()) + sizeOf(result.getRowPackets());
+  }
+
+  private static long sizeOf(final List<MySQLPacket> packets) {
+    long size = 0;
+    for (var packet : packets) {
+      // The packet header is 4 bytes.
+      size += ((RawPacket) packet).getRawData().length + 4;
+    }
+    return size;
+  }
+}
@@ -1,28 +1,73 @@
 package com.gllue.myproxy.command.handler.query.dml.select;
 
 import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
+import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlSelectQueryBlock;
 import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
 import com.gllue.myproxy.command.handler.query.dml.AbstractDMLHandler;
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.command.result.query.QueryResultOutOfMemoryException;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
-import com.gllue.myproxy.common.util.SQLStatementUtils;
 import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.sql.parser.SQLCommentAttributeKey;
 import com.gllue.myproxy.transport.core.service.TransportService;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 public class SelectQueryHandler extends AbstractDMLHandler {
   private static final String NAME = "Select query handler";
 
+  private final QueryResultCache queryResultCache;
+
   public SelectQueryHandler(
       final PersistRepository repository,
       final Configurations configurations,
       final ClusterState clusterState,
       final TransportService transportService,
       final ThreadPool threadPool) {
-    super(repository, configurations, clusterState, transportService, threadPool);
+    this(
+        repository,
+        configurations,
+        clusterState,
+        transportService,
+        threadPool,
+        QueryResultCache.disabled());
+  }
+
+  public SelectQueryHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final ThreadPool threadPool,
+      final QueryResultCache queryResultCache) {
+    this(
+        repository,
+        configurations,
+        clusterState,
+        transportService,
+        threadPool,
+        queryResultCache,
+        ExtensionColumnAccessStats.disabled());
+  }
+
+  public SelectQueryHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final ThreadPool threadPool,
+      final QueryResultCache queryResultCache,
+      final ExtensionColumnAccessStats accessStats) {
+    super(repository, configurations, clusterState, transportService, threadPool, accessStats);
+    this.queryResultCache = queryResultCache;
   }
 
   @Override
@@ -50,11 +95,134 @@ public class SelectQueryHandler extends AbstractDMLHandler {
     return !visitor.hasTableSource();
   }
 
+  private boolean isLockingRead(SQLSelectStatement stmt) {
+    var queryBlock = stmt.getSelect().getFirstQueryBlock();
+    if (queryBlock == null) {
+      return false;
+    }
+    if (queryBlock.isForUpdate()) {
+      return true;
+    }
+    return queryBlock instanceof MySqlSelectQueryBlock
+        && ((MySqlSelectQueryBlock) queryBlock).isLockInShareMode();
+  }
+
+  private void submitSelectQuery(
+      QueryHandlerRequest request,
+      SQLSelectStatement stmt,
+      String query,
+      Callback<HandlerResult> callback) {
+    // Locking reads must be executed on the primary data source.
+    if (isLockingRead(stmt)) {
+      submitQueryAndDirectTransferResult(request.getConnectionId(), query, callback);
+    } else {
+      submitReadQueryAndDirectTransferResult(request, query, callback);
+    }
+  }
+
   private void handleSimpleSelectQuery(
       QueryHandlerRequest request, Callback<HandlerResult> callback) {
     submitQueryAndDirectTransferResult(request.getConnectionId(), request.getQuery(), callback);
   }
 
+  private String rewriteQuery(QueryHandlerRequest request, SQLSelectStatement stmt) {
+    ensureDatabaseExists(request);
+
+    var visitor = newQueryRewriteVisitor(request);
+    stmt.accept(visitor);
+    visitor.reportExtensionColumnAccesses(accessStats);
+    return visitor.toSQLString(request.getQuery(), stmt);
+  }
+
+  /**
+   * Returns the tables referenced by the query if the result of the query can be cached, otherwise
+   * returns null. The query is cacheable if it's opted in by the comment attribute or all the
+   * tables are configured to cache, and it's not executed in a transaction which may see its own
+   * uncommitted changes. The result of a query with the non-deterministic expressions, or of a
+   * session which may see its own temporary tables or variables unknown to the proxy, is never
+   * cached.
+   */
+  private Set<String> getCacheableTables(QueryHandlerRequest request, SQLSelectStatement stmt) {
+    var sessionContext = request.getSessionContext();
+    if (!queryResultCache.isEnabled()
+        || isLockingRead(stmt)
+        || sessionContext.isTransactionOpened()
+        || !sessionContext.getBoundStates().isEmpty()) {
+      return null;
+    }
+
+    var visitor = new TableNameCollectVisitor(request.getDatabase());
+    stmt.accept(visitor);
+    var tables = visitor.getTableNames();
+    if (visitor.hasUnresolvedTable() || tables.isEmpty()) {
+      return null;
+    }
+
+    var exprVisitor = new NonDeterministicExprVisitor();
+    stmt.accept(exprVisitor);
+    if (exprVisitor.isFound()) {
+      return null;
+    }
+
+    var attributes = request.getCommentsAttributes();
+    if ((boolean) attributes.getOrDefault(SQLCommentAttributeKey.RESULT_CACHE, false)
+        || queryResultCache.isCachedTables(tables)) {
+      return tables;
+    }
+    return null;
+  }
+
+  private void submitCacheableSelectQuery(
+      QueryHandlerRequest request,
+      SQLSelectStatement stmt,
+      String query,
+      Set<String> tables,
+      Callback<HandlerResult> callback) {
+    var datasource = request.getDatasource();
+    var database = request.getDatabase();
+    var sessionVariables = request.getSessionContext().getSessionVariablesQuery();
+    var cachedResult = queryResultCache.get(datasource, database, sessionVariables, query);
+    if (cachedResult != null) {
+      callback.onSuccess(cachedResult);
+      return;
+    }
+
+    var stamp = queryResultCache.stamp();
+    var cachingCallback =
+        new Callback<CommandResult>() {
+          @Override
+          public void onSuccess(CommandResult result) {
+            var queryResult = result.getQueryResult();
+            EncodedQueryHandlerResult encodedResult;
+            try {
+              encodedResult = EncodedQueryHandlerResult.encode(queryResult, result.getWarnings());
+            } catch (Exception e) {
+              callback.onFailure(e);
+              return;
+            } finally {
+              queryResult.close();
+            }
+            queryResultCache.put(
+                datasource, database, sessionVariables, query, tables, stamp, encodedResult);
+            callback.onSuccess(encodedResult);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            if (e instanceof QueryResultOutOfMemoryException) {
+              // The result is too large to cache, transfer it directly.
+              if (log.isDebugEnabled()) {
+                log.debug("Query result is too large to cache. [{}]", query);
+              }
+              submitSelectQuery(request, stmt, query, callback);
+            } else {
+              callback.onFailure(e);
+            }
+          }
+        };
+    submitQueryToBackendDatabase(request.getConnectionId(), query, cachingCallback);
+  }
+
   @Override
   public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
     var stmt = (SQLSelectStatement) request.getStatement();
@@ -64,16 +232,21 @@ public class SelectQueryHandler extends AbstractDMLHandler {
       return;
     }
 
-    ensureDatabaseExists(request);
-
-    var visitor = newQueryRewriteVisitor(request);
-    stmt.accept(visitor);
-    if (!visitor.isQueryChanged()) {
-      submitQueryAndDirectTransferResult(request.getConnectionId(), request.getQuery(), callback);
+    var query = rewriteQuery(request, stmt);
+    var cacheableTables = getCacheableTables(request, stmt);
+    if (cacheableTables != null) {
+      submitCacheableSelectQuery(request, stmt, query, cacheableTables, callback);
       return;
     }
+    submitSelectQuery(request, stmt, query, callback);
+  }
 
-    var newSql = SQLStatementUtils.toSQLString(stmt);
-    submitQueryAndDirectTransferResult(request.getConnectionId(), newSql, callback);
+  /** Rewrite the query of a prepared statement, the placeholders are kept as they are. */
+  public String rewritePreparedQuery(QueryHandlerRequest request) {
+    var stmt = (SQLSelectStatement) request.getStatement();
+    if (isSimpleSelectQuery(stmt)) {
+      return request.getQuery();
+    }
+    return rewriteQuery(request, stmt);
   }
 }
@@ -0,0 +1,69 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
+import com.alibaba.druid.sql.ast.statement.SQLSelect;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Collect the names of all the tables referenced by a statement in the form of {@code
+ * database.table}, including the tables which are not managed by the proxy. The tables without a
+ * schema are qualified by the default database.
+ */
+@RequiredArgsConstructor
+public class TableNameCollectVisitor extends MySqlASTVisitorAdapter {
+  private final String defaultDatabase;
+  private final Set<String> tableNames = new LinkedHashSet<>();
+  private boolean unresolved = false;
+  private boolean query = false;
+
+  @Override
+  public boolean visit(SQLExprTableSource x) {
+    var tableName = SQLStatementUtils.getTableName(x);
+    if (tableName == null) {
+      unresolved = true;
+      return true;
+    }
+
+    var schema = SQLStatementUtils.getSchema(x);
+    if (schema == null) {
+      schema = defaultDatabase;
+    }
+    if (schema == null) {
+      unresolved = true;
+    } else {
+      tableNames.add(qualifiedName(schema, tableName));
+    }
+    return true;
+  }
+
+  @Override
+  public boolean visit(SQLSelect x) {
+    query = true;
+    return true;
+  }
+
+  public Set<String> getTableNames() {
+    return tableNames;
+  }
+
+  /** Whether some table sources cannot be resolved to the table names. */
+  public boolean hasUnresolvedTable() {
+    return unresolved;
+  }
+
+  /**
+   * Whether the statement has a query, for a DML statement it's a subquery or the query of an
+   * {@code INSERT ... SELECT}.
+   */
+  public boolean hasQuery() {
+    return query;
+  }
+
+  public static String qualifiedName(final String database, final String table) {
+    return database + "." + table;
+  }
+}
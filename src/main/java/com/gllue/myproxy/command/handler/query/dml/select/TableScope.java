@@ -16,6 +16,7 @@ public final class TableScope {
 
   private Map<String, Map<String, TableMetaData>> databaseTableMap = null;
   private Map<String, Map<String, String[]>> extTableAliasMap = null;
+  private boolean encryptColumns = false;
 
   public void addTable(
       final String database, final String tableOrAlias, final TableMetaData table) {
@@ -28,6 +29,9 @@ public final class TableScope {
     if (oldValue != null) {
       throw new IllegalArgumentException(String.format("Not unique table/alias: %s", tableOrAlias));
     }
+    if (table.hasEncryptColumns()) {
+      encryptColumns = true;
+    }
   }
 
   public void addExtensionTableAlias(
@@ -114,6 +118,23 @@ public final class TableScope {
     return false;
   }
 
+  /** Whether any table visible in the scope has encrypt columns. */
+  public boolean hasEncryptColumns() {
+    var scope = this;
+    while (scope != null) {
+      if (scope.encryptColumns) {
+        return true;
+      }
+
+      if (scope.inherit) {
+        scope = scope.parent;
+      } else {
+        scope = null;
+      }
+    }
+    return false;
+  }
+
   private void findColumnInScope0(
       TableScope scope, String schema, String column, AtomicReference<ColumnMetaData> result) {
     if (scope.databaseTableMap == null) {
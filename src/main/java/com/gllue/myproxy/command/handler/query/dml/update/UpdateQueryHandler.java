@@ -4,10 +4,10 @@ import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.HandlerResult;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.command.handler.query.WrappedHandlerResult;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
 import com.gllue.myproxy.command.handler.query.dml.AbstractDMLHandler;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
-import com.gllue.myproxy.common.util.SQLStatementUtils;
 import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.repository.PersistRepository;
 import com.gllue.myproxy.transport.core.service.TransportService;
@@ -24,6 +24,16 @@ public class UpdateQueryHandler extends AbstractDMLHandler {
     super(repository, configurations, clusterState, transportService, threadPool);
   }
 
+  public UpdateQueryHandler(
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ClusterState clusterState,
+      final TransportService transportService,
+      final ThreadPool threadPool,
+      final ExtensionColumnAccessStats accessStats) {
+    super(repository, configurations, clusterState, transportService, threadPool, accessStats);
+  }
+
   @Override
   public String name() {
     return NAME;
@@ -35,26 +45,30 @@ public class UpdateQueryHandler extends AbstractDMLHandler {
         request.getDatabase(),
         newScopeFactory(request),
         newEncryptor(encryptKey),
-        newDecryptor(encryptKey));
+        newDecryptor(encryptKey),
+        clusterState.getExtensionColumnMoves());
   }
 
-  @Override
-  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
+  private String rewriteQuery(QueryHandlerRequest request) {
     ensureDatabaseExists(request);
 
     var stmt = request.getStatement();
     var visitor = newQueryRewriteVisitor(request);
     stmt.accept(visitor);
-    if (!visitor.isQueryChanged()) {
-      submitQueryToBackendDatabase(
-          request.getConnectionId(),
-          request.getQuery(),
-          WrappedHandlerResult.wrappedCallback(callback));
-      return;
-    }
-
-    var newSql = SQLStatementUtils.toSQLString(stmt);
+    visitor.reportExtensionColumnAccesses(accessStats);
+    return visitor.toSQLString(request.getQuery(), stmt);
+  }
+
+  @Override
+  public void execute(QueryHandlerRequest request, Callback<HandlerResult> callback) {
     submitQueryToBackendDatabase(
-        request.getConnectionId(), newSql, WrappedHandlerResult.wrappedCallback(callback));
+        request.getConnectionId(),
+        rewriteQuery(request),
+        WrappedHandlerResult.wrappedCallback(callback));
+  }
+
+  /** Rewrite the query of a prepared statement, the placeholders are kept as they are. */
+  public String rewritePreparedQuery(QueryHandlerRequest request) {
+    return rewriteQuery(request);
   }
 }
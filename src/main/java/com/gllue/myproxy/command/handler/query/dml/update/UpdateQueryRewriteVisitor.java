@@ -1,18 +1,27 @@
 package com.gllue.myproxy.command.handler.query.dml.update;
 
+import static com.gllue.myproxy.common.util.SQLStatementUtils.getAliasOrTableName;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.quoteName;
+import static com.gllue.myproxy.common.util.SQLStatementUtils.unquoteName;
+
 import com.alibaba.druid.sql.ast.SQLExpr;
+import com.alibaba.druid.sql.ast.expr.SQLCharExpr;
 import com.alibaba.druid.sql.ast.expr.SQLIdentifierExpr;
 import com.alibaba.druid.sql.ast.expr.SQLPropertyExpr;
+import com.alibaba.druid.sql.ast.expr.SQLVariantRefExpr;
 import com.alibaba.druid.sql.ast.statement.SQLExprTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLJoinTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLJoinTableSource.JoinType;
 import com.alibaba.druid.sql.ast.statement.SQLTableSource;
 import com.alibaba.druid.sql.ast.statement.SQLUpdateSetItem;
 import com.alibaba.druid.sql.dialect.mysql.ast.statement.MySqlUpdateStatement;
+import com.alibaba.druid.sql.dialect.mysql.visitor.MySqlASTVisitorAdapter;
 import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.Decryptor;
 import com.gllue.myproxy.command.handler.query.Encryptor;
 import com.gllue.myproxy.command.handler.query.TablePartitionHelper;
+import com.gllue.myproxy.command.handler.query.UnsupportedPreparedStatementException;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveRegistry;
 import com.gllue.myproxy.command.handler.query.dml.select.BaseSelectQueryRewriteVisitor;
 import com.gllue.myproxy.command.handler.query.dml.select.TableScopeFactory;
 import com.gllue.myproxy.common.util.SQLStatementUtils;
@@ -21,25 +30,55 @@ import com.gllue.myproxy.metadata.model.ColumnType;
 import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
 import com.gllue.myproxy.metadata.model.TableType;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
 
 public class UpdateQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
   private final Encryptor encryptor;
   private final Decryptor decryptor;
+  private final ExtensionColumnMoveRegistry columnMoves;
 
   private boolean shouldTransform = false;
   private SQLTableSource originTableSource;
+  private List<ShadowWrite> shadowWrites = null;
+  /** The moving columns of the added items which write the shadow columns. */
+  private Map<SQLUpdateSetItem, ColumnMetaData> shadowItemColumns = null;
+
+  /** An updated column being moved, whose value is written to its shadow column too. */
+  @RequiredArgsConstructor
+  private static class ShadowWrite {
+    final SQLUpdateSetItem item;
+    final ColumnMetaData column;
+    final SQLExpr shadowColumnExpr;
+  }
 
   public UpdateQueryRewriteVisitor(
       String defaultDatabase,
       TableScopeFactory tableScopeFactory,
       Encryptor encryptor,
       Decryptor decryptor) {
+    this(
+        defaultDatabase,
+        tableScopeFactory,
+        encryptor,
+        decryptor,
+        new ExtensionColumnMoveRegistry());
+  }
+
+  public UpdateQueryRewriteVisitor(
+      String defaultDatabase,
+      TableScopeFactory tableScopeFactory,
+      Encryptor encryptor,
+      Decryptor decryptor,
+      ExtensionColumnMoveRegistry columnMoves) {
     super(defaultDatabase, tableScopeFactory, encryptor);
     this.encryptor = encryptor;
     this.decryptor = decryptor;
+    this.columnMoves = columnMoves;
   }
 
   @Override
@@ -54,6 +93,9 @@ public class UpdateQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
       shouldRewriteQuery = true;
       originTableSource = tableSource;
     }
+    if (hasExtensionTable && !columnMoves.isEmpty()) {
+      prepareShadowWrites(x.getItems());
+    }
     return true;
   }
 
@@ -61,6 +103,7 @@ public class UpdateQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
   public void endVisit(MySqlUpdateStatement x) {
     joinExtensionTablesForSelectQueryBlocks();
     x.setTableSource(joinExtensionTables(x.getTableSource()));
+    addShadowWriteItems(x.getItems());
 
     if (shouldTransform) {
       if (originTableSource instanceof SQLJoinTableSource) {
@@ -98,6 +141,149 @@ public class UpdateQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
         new SQLJoinTableSource(tableSource, JoinType.INNER_JOIN, filterSubQuery, condition));
   }
 
+  /**
+   * Find the partition table source which owns the updated column, returns the schema and the
+   * alias or the name of the table source, or null if the column is not a partition table column.
+   */
+  private String[] findPartitionTableSource(SQLExpr columnExpr, String columnName) {
+    if (columnExpr instanceof SQLPropertyExpr) {
+      var property = (SQLPropertyExpr) columnExpr;
+      var schema = getSchemaOwner(property);
+      var tableOrAlias = getTableOwner(property);
+      var table = scope.getTable(schema, tableOrAlias);
+      if (table != null && table.getType() == TableType.PARTITION) {
+        return new String[] {schema, tableOrAlias};
+      }
+    } else if (columnExpr instanceof SQLIdentifierExpr) {
+      var column = scope.findColumnInScope(defaultDatabase, columnName);
+      if (column == null) {
+        return null;
+      }
+      var tableSources =
+          SQLStatementUtils.listTableSources(
+              originTableSource, x -> x instanceof SQLExprTableSource);
+      for (var item : tableSources) {
+        var tableSource = (SQLExprTableSource) item;
+        var schema = getSchema(tableSource);
+        var tableOrAlias = getAliasOrTableName(tableSource);
+        var table = scope.getTable(schema, tableOrAlias);
+        if (table != null
+            && table.getType() == TableType.PARTITION
+            && table.getColumn(columnName) == column) {
+          return new String[] {schema, tableOrAlias};
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find the updated columns being moved to another extension table, the target tables are joined
+   * to write the shadow columns.
+   */
+  private void prepareShadowWrites(List<SQLUpdateSetItem> items) {
+    for (var item : items) {
+      var columnExpr = item.getColumn();
+      String columnName;
+      if (columnExpr instanceof SQLPropertyExpr) {
+        columnName = unquoteName(((SQLPropertyExpr) columnExpr).getName());
+      } else if (columnExpr instanceof SQLIdentifierExpr) {
+        columnName = unquoteName(((SQLIdentifierExpr) columnExpr).getSimpleName());
+      } else {
+        continue;
+      }
+
+      var tableSource = findPartitionTableSource(columnExpr, columnName);
+      if (tableSource == null) {
+        continue;
+      }
+      var schema = tableSource[0];
+      var table = (PartitionTableMetaData) scope.getTable(schema, tableSource[1]);
+      var move = columnMoves.get(table.getIdentity());
+      var targetOrdinalValue = move == null ? -1 : move.getTargetOrdinalValue(table, columnName);
+      if (targetOrdinalValue < 0) {
+        continue;
+      }
+
+      checkShadowWriteValue(columnName, item.getValue());
+      var aliases = scope.getExtensionTableAliases(schema, tableSource[1]);
+      var shadowColumnExpr =
+          new SQLPropertyExpr(
+              quoteName(aliases[targetOrdinalValue - 1]),
+              quoteName(move.getShadowColumn(columnName)));
+      addAffectedExtensionTables(move.getTargetTable());
+      if (shadowWrites == null) {
+        shadowWrites = new ArrayList<>();
+      }
+      shadowWrites.add(new ShadowWrite(item, table.getColumn(columnName), shadowColumnExpr));
+    }
+  }
+
+  /**
+   * The value of the moving column is evaluated again for its shadow column. The order of the
+   * assignments of a multi-table UPDATE is not defined, so the value cannot refer to the columns,
+   * and the placeholders cannot be repeated in the prepared statement.
+   */
+  private void checkShadowWriteValue(String columnName, SQLExpr value) {
+    var visitor = new ValueReferenceVisitor();
+    value.accept(visitor);
+    if (visitor.placeholderFound) {
+      throw new UnsupportedPreparedStatementException(
+          "Column [%s] is being moved, it cannot be assigned from a placeholder.", columnName);
+    }
+    if (visitor.columnFound) {
+      throw new BadSQLException(
+          "Column [%s] is being moved, only the values without column references can be "
+              + "assigned to it.",
+          columnName);
+    }
+  }
+
+  /** Find the column references and the placeholders in the assigned value. */
+  private class ValueReferenceVisitor extends MySqlASTVisitorAdapter {
+    private boolean columnFound = false;
+    private boolean placeholderFound = false;
+
+    @Override
+    public boolean visit(SQLIdentifierExpr x) {
+      if (findColumnInScope(scope, x) != null) {
+        columnFound = true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean visit(SQLPropertyExpr x) {
+      if (findColumnInScope(scope, x) != null) {
+        columnFound = true;
+      }
+      return false;
+    }
+
+    @Override
+    public boolean visit(SQLVariantRefExpr x) {
+      if (isPlaceholder(x)) {
+        placeholderFound = true;
+      }
+      return false;
+    }
+  }
+
+  private void addShadowWriteItems(List<SQLUpdateSetItem> items) {
+    if (shadowWrites == null) {
+      return;
+    }
+    shadowItemColumns = new IdentityHashMap<>();
+    for (var shadowWrite : shadowWrites) {
+      var item = new SQLUpdateSetItem();
+      item.setColumn(shadowWrite.shadowColumnExpr);
+      item.setValue(shadowWrite.item.getValue().clone());
+      items.add(item);
+      shadowItemColumns.put(item, shadowWrite.column);
+    }
+    setQueryChanged();
+  }
+
   private boolean isEncryptColumn(ColumnMetaData column) {
     if (column == null) {
       return false;
@@ -159,25 +345,67 @@ public class UpdateQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
     }
   }
 
+  /**
+   * Keep the blind index column of the updated encrypted column in sync. If the value is another
+   * encrypted column with a blind index, its blind index is copied.
+   */
+  private SQLUpdateSetItem newBlindIndexItem(
+      ColumnMetaData column,
+      ColumnMetaData blindIndexColumn,
+      SQLExpr columnExpr,
+      ColumnMetaData value,
+      SQLExpr valueExpr) {
+    var item = new SQLUpdateSetItem();
+    item.setColumn(newBlindIndexColumnExpr(columnExpr, blindIndexColumn));
+    var valueBlindIndexColumn = isEncryptColumn(value) ? findBlindIndexColumn(value) : null;
+    if (valueBlindIndexColumn != null) {
+      item.setValue(newBlindIndexColumnExpr(valueExpr, valueBlindIndexColumn));
+    } else {
+      item.setValue(blindIndexValue(column, valueExpr));
+    }
+    return item;
+  }
+
   private boolean processEncryptColumnInUpdateItems(
       List<SQLUpdateSetItem> items, List<ColumnMetaData> updateColumns) {
     var hasEncryptColumn = false;
+    var blindIndexItems = new ArrayList<SQLUpdateSetItem>();
     for (var item : items) {
       var columnExpr = item.getColumn();
       var valueExpr = item.getValue();
-      var column = findColumnInScope(scope, columnExpr);
+      var shadowItem = shadowItemColumns != null && shadowItemColumns.containsKey(item);
+      var column = shadowItem ? shadowItemColumns.get(item) : findColumnInScope(scope, columnExpr);
       var value = findColumnInScope(scope, valueExpr);
+      // The blind index column is not moved along with the shadow column.
+      var blindIndexColumn =
+          isEncryptColumn(column) && !shadowItem ? findBlindIndexColumn(column) : null;
+      if (blindIndexColumn != null) {
+        blindIndexItems.add(
+            newBlindIndexItem(column, blindIndexColumn, columnExpr, value, valueExpr));
+        hasEncryptColumn = true;
+      }
       if (isEncryptColumn(column) && !isEncryptColumn(value)) {
-        item.setValue(encryptColumn(encryptor, valueExpr));
+        if (valueExpr instanceof SQLCharExpr) {
+          item.setValue(encryptLiteral((SQLCharExpr) valueExpr));
+        } else {
+          item.setValue(encryptColumn(encryptor, valueExpr));
+          setQueryChanged();
+        }
         hasEncryptColumn = true;
       } else if (!isEncryptColumn(column) && isEncryptColumn(value)) {
         item.setValue(decryptColumn(decryptor, valueExpr));
+        setQueryChanged();
         hasEncryptColumn = true;
       }
       if (column != null) {
         updateColumns.add(column);
       }
     }
+
+    if (!blindIndexItems.isEmpty()) {
+      items.addAll(blindIndexItems);
+      setQueryChanged();
+    }
     return hasEncryptColumn;
   }
 
@@ -190,13 +418,13 @@ public class UpdateQueryRewriteVisitor extends BaseSelectQueryRewriteVisitor {
 
     if (joinedExtensionTables) {
       ensureAlwaysUpdatePrimaryTable(x.getItems(), updateColumns);
+      setQueryChanged();
     }
 
     if (x.getOrderBy() != null || x.getLimit() != null) {
       transformSingleTableUpdateToJoinSubQueryUpdate(x, x.getTableSource());
+      setQueryChanged();
     }
-
-    setQueryChanged();
   }
 
   private void rewriteMultiTableUpdate(MySqlUpdateStatement x) {
@@ -0,0 +1,146 @@
+package com.gllue.myproxy.command.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+
+/**
+ * Timings and statistics of a query collected along its execution. The phases are split by the
+ * following marks:
+ *
+ * <ul>
+ *   <li>queue: from the query is received to the handler starts
+ *   <li>parse: parsing the query and its comment attributes
+ *   <li>rewrite: from the query is parsed to the first backend query is submitted
+ *   <li>backend: from the first backend query is submitted to the last one is completed, including
+ *       waiting for the auxiliary connections and the backpressure of the direct transfer
+ *   <li>write: from the last backend query is completed to the result is written
+ * </ul>
+ *
+ * <p>The marks are set by the different threads, so the methods are synchronized.
+ */
+public class QueryTrace {
+  /** Only the first rewritten queries are kept, e.g. the queries of a fan out. */
+  static final int MAX_BACKEND_QUERIES = 16;
+
+  @Getter private final long startTime = System.currentTimeMillis();
+  @Getter private final int connectionId;
+  @Getter private final String datasource;
+  @Getter private final String database;
+  @Getter private final String user;
+  @Getter private final String query;
+
+  private final long startNanos = System.nanoTime();
+  private long handlerStartNanos;
+  private long parseEndNanos;
+  private long backendStartNanos;
+  private long backendEndNanos;
+  private long endNanos;
+
+  private final List<String> backendQueries = new ArrayList<>();
+  private int backendQueryCount = 0;
+  private long rows = 0;
+  private long bytes = 0;
+  private String error;
+
+  public QueryTrace(
+      final int connectionId,
+      final String datasource,
+      final String database,
+      final String user,
+      final String query) {
+    this.connectionId = connectionId;
+    this.datasource = datasource;
+    this.database = database;
+    this.user = user;
+    this.query = query;
+  }
+
+  public synchronized void handlerStarted() {
+    handlerStartNanos = System.nanoTime();
+  }
+
+  public synchronized void parsed() {
+    parseEndNanos = System.nanoTime();
+  }
+
+  public synchronized void backendQuerySubmitted(final String backendQuery) {
+    if (backendStartNanos == 0) {
+      backendStartNanos = System.nanoTime();
+    }
+    backendQueryCount++;
+    if (backendQueries.size() < MAX_BACKEND_QUERIES) {
+      backendQueries.add(backendQuery);
+    }
+  }
+
+  public synchronized void backendQueryCompleted(final long rows, final long bytes) {
+    backendEndNanos = System.nanoTime();
+    this.rows += rows;
+    this.bytes += bytes;
+  }
+
+  public synchronized void finished(final Throwable e) {
+    endNanos = System.nanoTime();
+    if (e != null) {
+      error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+    }
+  }
+
+  public synchronized long getTotalNanos() {
+    return endNanos - startNanos;
+  }
+
+  public synchronized long getQueueNanos() {
+    return elapsed(startNanos, handlerStartNanos);
+  }
+
+  public synchronized long getParseNanos() {
+    return elapsed(handlerStartNanos, parseEndNanos);
+  }
+
+  public synchronized long getRewriteNanos() {
+    return elapsed(parseEndNanos, backendStartNanos);
+  }
+
+  public synchronized long getBackendNanos() {
+    return elapsed(backendStartNanos, backendEndNanos);
+  }
+
+  public synchronized long getWriteNanos() {
+    if (backendEndNanos != 0) {
+      return elapsed(backendEndNanos, endNanos);
+    }
+    // The query is answered by the proxy itself.
+    return elapsed(parseEndNanos, endNanos);
+  }
+
+  /** Returns 0 if any of the marks is missing, e.g. the query is failed to parse. */
+  private static long elapsed(final long from, final long to) {
+    if (from == 0 || to == 0) {
+      return 0;
+    }
+    return to - from;
+  }
+
+  public synchronized List<String> getBackendQueries() {
+    return Collections.unmodifiableList(new ArrayList<>(backendQueries));
+  }
+
+  public synchronized int getBackendQueryCount() {
+    return backendQueryCount;
+  }
+
+  public synchronized long getRows() {
+    return rows;
+  }
+
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  public synchronized String getError() {
+    return error;
+  }
+}
@@ -0,0 +1,424 @@
+package com.gllue.myproxy.command.trace;
+
+import com.gllue.myproxy.common.concurrent.DaemonThreadFactory;
+import com.google.common.base.Preconditions;
+import io.prometheus.client.Counter;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Log the queries slower than the threshold to a local file. The traces are put into a bounded
+ * lock-free ring buffer by the query threads, and a single background thread formats and writes
+ * them, so the query threads never block on the I/O. The traces are dropped if the buffer is full.
+ *
+ * <p>The file is rolled once its size exceeds the limit, the rolled files are suffixed by the
+ * sequence number, e.g. {@code slow_query.log.1} is the latest one.
+ *
+ * <p>The queries are redacted before they are written, the literals are replaced with {@code ?}
+ * and the comments are removed, since they may carry the plaintext of the encrypted columns, the
+ * encryption key of the {@code AES_ENCRYPT} calls and the key attributes of the comments.
+ */
+@Slf4j
+public class SlowQueryLog implements AutoCloseable {
+  private static final Counter LOGGED_QUERIES =
+      Counter.build().name("slow_query_log_queries").help("Total logged slow queries.").register();
+
+  private static final Counter DROPPED_QUERIES =
+      Counter.build()
+          .name("slow_query_log_dropped_queries")
+          .help("Total slow queries dropped since the buffer of the slow query log is full.")
+          .register();
+
+  public static final long DEFAULT_THRESHOLD_IN_MILLS = 1000;
+
+  public static final String DEFAULT_PATH = "logs/slow_query.log";
+
+  public static final long DEFAULT_MAX_FILE_SIZE_IN_BYTES = 100 * 1024 * 1024;
+
+  public static final int DEFAULT_MAX_FILES = 10;
+
+  public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  private final long thresholdInNanos;
+  private final Path path;
+  private final long maxFileSizeInBytes;
+  private final int maxFiles;
+
+  // A bounded multi-producer single-consumer ring buffer. The sequence of a slot tells whether it
+  // is free for the producer at the position (sequence == position) or is published for the
+  // consumer (sequence == position + 1).
+  private final QueryTrace[] buffer;
+  private final AtomicLongArray sequences;
+  private final int mask;
+  private final AtomicLong tail = new AtomicLong();
+  private long head = 0;
+
+  private final Thread writerThread;
+  private volatile boolean closed = false;
+  private Writer writer;
+  private long fileSize;
+
+  /**
+   * Construct and start a slow query log.
+   *
+   * @param thresholdInMills the queries slower than the threshold are logged
+   * @param path the path of the log file
+   * @param maxFileSizeInBytes the file is rolled once its size exceeds the limit
+   * @param maxFiles the max number of the rolled files to keep
+   * @param bufferSize the capacity of the ring buffer, it's rounded up to a power of two
+   */
+  public SlowQueryLog(
+      final long thresholdInMills,
+      final String path,
+      final long maxFileSizeInBytes,
+      final int maxFiles,
+      final int bufferSize) {
+    this(thresholdInMills, path, maxFileSizeInBytes, maxFiles, bufferSize, true);
+  }
+
+  SlowQueryLog(
+      final long thresholdInMills,
+      final String path,
+      final long maxFileSizeInBytes,
+      final int maxFiles,
+      final int bufferSize,
+      final boolean startWriter) {
+    Preconditions.checkArgument(thresholdInMills >= 0, "thresholdInMills must >= 0");
+    Preconditions.checkArgument(maxFileSizeInBytes > 0, "maxFileSizeInBytes must > 0");
+    Preconditions.checkArgument(maxFiles > 0, "maxFiles must > 0");
+    Preconditions.checkArgument(bufferSize > 0, "bufferSize must > 0");
+    this.thresholdInNanos = TimeUnit.MILLISECONDS.toNanos(thresholdInMills);
+    this.path = Paths.get(path);
+    this.maxFileSizeInBytes = maxFileSizeInBytes;
+    this.maxFiles = maxFiles;
+
+    var capacity = Integer.highestOneBit(bufferSize);
+    if (capacity < bufferSize) {
+      capacity <<= 1;
+    }
+    this.buffer = new QueryTrace[capacity];
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+    this.mask = capacity - 1;
+
+    if (startWriter) {
+      this.writerThread = new DaemonThreadFactory("slow-query-log").newThread(this::runWriter);
+      this.writerThread.start();
+    } else {
+      this.writerThread = null;
+    }
+  }
+
+  /**
+   * Log the trace if the query is slow, it never blocks.
+   *
+   * @return whether the trace is accepted.
+   */
+  public boolean log(final QueryTrace trace) {
+    if (trace.getTotalNanos() < thresholdInNanos || closed) {
+      return false;
+    }
+
+    long position;
+    while (true) {
+      position = tail.get();
+      var sequence = sequences.get((int) position & mask);
+      if (sequence == position) {
+        if (tail.compareAndSet(position, position + 1)) {
+          break;
+        }
+      } else if (sequence < position) {
+        // The slot is not consumed yet, the buffer is full.
+        DROPPED_QUERIES.inc();
+        return false;
+      }
+    }
+
+    var index = (int) position & mask;
+    buffer[index] = trace;
+    sequences.set(index, position + 1);
+    return true;
+  }
+
+  private QueryTrace poll() {
+    var index = (int) head & mask;
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+    var trace = buffer[index];
+    buffer[index] = null;
+    sequences.set(index, head + buffer.length);
+    head++;
+    return trace;
+  }
+
+  /** Write the buffered traces to the file, it must be invoked by the writer thread only. */
+  int drain() {
+    var written = 0;
+    QueryTrace trace;
+    while ((trace = poll()) != null) {
+      write(trace);
+      written++;
+    }
+    if (written > 0) {
+      flush();
+    }
+    return written;
+  }
+
+  private void runWriter() {
+    while (true) {
+      var written = drain();
+      if (closed) {
+        // Drain the traces offered before the log is closed.
+        if (written == 0) {
+          break;
+        }
+      } else if (written == 0) {
+        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+      }
+    }
+    closeWriter();
+  }
+
+  private void write(final QueryTrace trace) {
+    var entry = format(trace);
+    try {
+      var bytes = entry.getBytes(StandardCharsets.UTF_8).length;
+      if (writer != null && fileSize + bytes > maxFileSizeInBytes) {
+        closeWriter();
+        roll();
+      }
+      if (writer == null) {
+        openWriter();
+      }
+      writer.write(entry);
+      fileSize += bytes;
+      LOGGED_QUERIES.inc();
+    } catch (IOException e) {
+      log.error("Failed to write the slow query log [{}].", path, e);
+      closeWriter();
+    }
+  }
+
+  private void flush() {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      log.error("Failed to flush the slow query log [{}].", path, e);
+      closeWriter();
+    }
+  }
+
+  private void openWriter() throws IOException {
+    var parent = path.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    fileSize = Files.exists(path) ? Files.size(path) : 0;
+    writer =
+        new BufferedWriter(
+            Files.newBufferedWriter(
+                path,
+                StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND));
+  }
+
+  private void closeWriter() {
+    if (writer == null) {
+      return;
+    }
+    try {
+      writer.close();
+    } catch (IOException e) {
+      log.error("Failed to close the slow query log [{}].", path, e);
+    }
+    writer = null;
+  }
+
+  private Path rolledPath(final int sequence) {
+    return Paths.get(path.toString() + "." + sequence);
+  }
+
+  private void roll() throws IOException {
+    Files.deleteIfExists(rolledPath(maxFiles));
+    for (int i = maxFiles - 1; i >= 1; i--) {
+      var rolled = rolledPath(i);
+      if (Files.exists(rolled)) {
+        Files.move(rolled, rolledPath(i + 1), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+    Files.move(path, rolledPath(1), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  static String format(final QueryTrace trace) {
+    var builder = new StringBuilder(256);
+    builder.append("# Time: ").append(Instant.ofEpochMilli(trace.getStartTime())).append('\n');
+    builder
+        .append("# Connection_id: ")
+        .append(trace.getConnectionId())
+        .append("  Data_source: ")
+        .append(trace.getDatasource())
+        .append("  Schema: ")
+        .append(trace.getDatabase())
+        .append("  User: ")
+        .append(trace.getUser())
+        .append('\n');
+    builder
+        .append("# Total_ns: ")
+        .append(trace.getTotalNanos())
+        .append("  Queue_ns: ")
+        .append(trace.getQueueNanos())
+        .append("  Parse_ns: ")
+        .append(trace.getParseNanos())
+        .append("  Rewrite_ns: ")
+        .append(trace.getRewriteNanos())
+        .append("  Backend_ns: ")
+        .append(trace.getBackendNanos())
+        .append("  Write_ns: ")
+        .append(trace.getWriteNanos())
+        .append('\n');
+    builder
+        .append("# Backend_queries: ")
+        .append(trace.getBackendQueryCount())
+        .append("  Rows_transferred: ")
+        .append(trace.getRows())
+        .append("  Bytes_transferred: ")
+        .append(trace.getBytes());
+    if (trace.getError() != null) {
+      builder.append("  Error: ").append(singleLine(trace.getError()));
+    }
+    builder.append('\n');
+    var query = redact(trace.getQuery());
+    builder.append(query).append(";\n");
+    for (var backendQuery : trace.getBackendQueries()) {
+      var rewritten = singleLine(redact(backendQuery));
+      if (!rewritten.equals(query)) {
+        builder.append("# Rewritten: ").append(rewritten).append('\n');
+      }
+    }
+    return builder.toString();
+  }
+
+  private static boolean isIdentifierPart(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  /**
+   * Replace the string, hexadecimal, bit and numeric literals of the query with {@code ?} and
+   * remove the comments, the quoted identifiers are kept.
+   */
+  static String redact(final String query) {
+    var length = query.length();
+    var builder = new StringBuilder(length);
+    var i = 0;
+    while (i < length) {
+      var c = query.charAt(i);
+      if (c == '\'' || c == '"') {
+        i = skipQuoted(query, i, c);
+        // Drop the prefix of the hexadecimal, bit and national literals, e.g. X'0F'.
+        var last = builder.length() - 1;
+        if (last >= 0
+            && "xXbBnN".indexOf(builder.charAt(last)) >= 0
+            && (last == 0 || !isIdentifierPart(builder.charAt(last - 1)))) {
+          builder.setLength(last);
+        }
+        builder.append('?');
+      } else if (c == '`') {
+        var end = skipQuoted(query, i, c);
+        builder.append(query, i, end);
+        i = end;
+      } else if (c == '/' && i + 1 < length && query.charAt(i + 1) == '*') {
+        var end = query.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+        builder.append(' ');
+      } else if (c == '#'
+          || (c == '-'
+              && i + 2 < length
+              && query.charAt(i + 1) == '-'
+              && Character.isWhitespace(query.charAt(i + 2)))) {
+        var end = query.indexOf('\n', i);
+        i = end < 0 ? length : end;
+        builder.append(' ');
+      } else if (Character.isDigit(c)
+          && (builder.length() == 0 || !isIdentifierPart(builder.charAt(builder.length() - 1)))) {
+        i++;
+        while (i < length) {
+          var ch = query.charAt(i);
+          if (isIdentifierPart(ch) || ch == '.') {
+            i++;
+          } else if ((ch == '+' || ch == '-')
+              && (query.charAt(i - 1) == 'e' || query.charAt(i - 1) == 'E')) {
+            // The exponent of a float, e.g. 1.5e-3.
+            i++;
+          } else {
+            break;
+          }
+        }
+        builder.append('?');
+      } else {
+        builder.append(c);
+        i++;
+      }
+    }
+    return builder.toString();
+  }
+
+  /** Returns the index after the closing quote, the escaped and the doubled quotes are skipped. */
+  private static int skipQuoted(final String query, final int start, final char quote) {
+    var length = query.length();
+    var i = start + 1;
+    while (i < length) {
+      var c = query.charAt(i);
+      if (c == '\\' && quote != '`') {
+        i += 2;
+      } else if (c == quote) {
+        if (i + 1 < length && query.charAt(i + 1) == quote) {
+          i += 2;
+        } else {
+          return i + 1;
+        }
+      } else {
+        i++;
+      }
+    }
+    return length;
+  }
+
+  private static String singleLine(final String value) {
+    return value.replace('\n', ' ').replace('\r', ' ');
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    closed = true;
+    if (writerThread != null) {
+      LockSupport.unpark(writerThread);
+      writerThread.join();
+    } else {
+      drain();
+      closeWriter();
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package com.gllue.myproxy.common.concurrent;
+
+/**
+ * A task which should run on the same worker as the other tasks with the same affinity key, e.g.
+ * the tasks of the same frontend connection. The executors which don't support the affinity just
+ * run it as a plain runnable.
+ */
+public interface AffinityRunnable extends Runnable {
+  int affinityKey();
+
+  static AffinityRunnable wrap(final int affinityKey, final Runnable runnable) {
+    return new AffinityRunnable() {
+      @Override
+      public int affinityKey() {
+        return affinityKey;
+      }
+
+      @Override
+      public void run() {
+        runnable.run();
+      }
+
+      @Override
+      public String toString() {
+        return runnable.toString();
+      }
+    };
+  }
+}
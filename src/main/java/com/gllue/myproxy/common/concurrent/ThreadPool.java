@@ -8,6 +8,8 @@ import com.gllue.myproxy.common.concurrent.executor.AccountableRejectedExecution
 import com.gllue.myproxy.common.concurrent.executor.ExecutorBuilder;
 import com.gllue.myproxy.common.concurrent.executor.FixedExecutorBuilder;
 import com.gllue.myproxy.common.concurrent.executor.ScalingExecutorBuilder;
+import com.gllue.myproxy.common.concurrent.executor.ShardedExecutorBuilder;
+import com.gllue.myproxy.common.concurrent.executor.ShardedExecutorService;
 import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.config.GenericConfigPropertyKey;
 import com.google.common.base.Preconditions;
@@ -35,7 +37,8 @@ public class ThreadPool {
   enum Type {
     DIRECT("direct"),
     FIXED("fixed"),
-    SCALING("scaling");
+    SCALING("scaling"),
+    SHARDED("sharded");
 
     private final String type;
   }
@@ -44,7 +47,7 @@ public class ThreadPool {
   @RequiredArgsConstructor
   public enum Name {
     GENERIC("generic", Type.SCALING),
-    COMMAND("command", Type.FIXED);
+    COMMAND("command", Type.SHARDED);
 
     private final String name;
     private final Type type;
@@ -66,7 +69,7 @@ public class ThreadPool {
   private Map<Name, ExecutorService> buildExecutors(final int processors) {
     var executors = new HashMap<Name, ExecutorService>();
     addExecutor(executors, Name.GENERIC, genericExecutorBuilder(processors));
-    addExecutor(executors, Name.COMMAND, fixedExecutorBuilder(processors));
+    addExecutor(executors, Name.COMMAND, shardedExecutorBuilder(processors));
 
     return Collections.unmodifiableMap(executors);
   }
@@ -90,12 +93,12 @@ public class ThreadPool {
         Name.GENERIC.name, processors, maxPoolSize, 0, 30, TimeUnit.SECONDS);
   }
 
-  private ExecutorBuilder fixedExecutorBuilder(final int processors) {
-    int maxPoolSize = 2 * processors;
+  private ExecutorBuilder shardedExecutorBuilder(final int processors) {
+    int threads = 2 * processors;
     int maxQueueSize =
         configurations.getValue(
             GENERIC, GenericConfigPropertyKey.THREAD_POOL_FIXED_EXECUTOR_QUEUE_SIZE);
-    return new FixedExecutorBuilder(Name.GENERIC.name, maxPoolSize, maxQueueSize);
+    return new ShardedExecutorBuilder(Name.COMMAND.name, threads, maxQueueSize);
   }
 
   private void addExecutor(
@@ -107,6 +110,9 @@ public class ThreadPool {
       case SCALING:
         Preconditions.checkArgument(builder instanceof ScalingExecutorBuilder);
         break;
+      case SHARDED:
+        Preconditions.checkArgument(builder instanceof ShardedExecutorBuilder);
+        break;
     }
 
     var old = executors.put(name, builder.build());
@@ -173,6 +179,16 @@ public class ThreadPool {
         if (rejectedHandler instanceof AccountableRejectedExecutionHandler) {
           rejected = ((AccountableRejectedExecutionHandler) rejectedHandler).rejectedExecutions();
         }
+      } else if (executorService instanceof ShardedExecutorService) {
+        var shardedExecutor = (ShardedExecutorService) executorService;
+        corePoolSize = shardedExecutor.getThreads();
+        maxPoolSize = shardedExecutor.getThreads();
+        threads = shardedExecutor.getThreads();
+        largestThreads = shardedExecutor.getThreads();
+        queueSize = shardedExecutor.getQueueSize();
+        activeThreads = shardedExecutor.getActiveCount();
+        completedTasks = shardedExecutor.getCompletedTaskCount();
+        rejected = shardedExecutor.getRejectedTaskCount();
       }
       stats.add(
           new ExecutorServiceStats(
@@ -0,0 +1,38 @@
+package com.gllue.myproxy.common.concurrent.executor;
+
+import com.gllue.myproxy.common.concurrent.DaemonThreadFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+
+/** A builder for sharded executors. */
+public final class ShardedExecutorBuilder extends ExecutorBuilder {
+
+  private final int threads;
+  private final int queueSize;
+
+  /**
+   * Construct a sharded executor builder.
+   *
+   * @param name the name of the executor
+   * @param threads the fixed number of workers
+   * @param queueSize the total size of the worker queues, it's evenly split among the workers
+   */
+  public ShardedExecutorBuilder(final String name, final int threads, final int queueSize) {
+    super(name);
+    assert threads > 0 : "Threads of sharded thread pool must be greater than 0";
+    assert queueSize > 0 : "Queue size of sharded thread pool must be greater than 0";
+
+    this.threads = threads;
+    this.queueSize = queueSize;
+  }
+
+  private ThreadFactory threadFactory() {
+    return new DaemonThreadFactory(String.format("%s-sharded", name()));
+  }
+
+  @Override
+  public ExecutorService build() {
+    var workerQueueSize = (queueSize + threads - 1) / threads;
+    return new ShardedExecutorService(name(), threads, workerQueueSize, threadFactory());
+  }
+}
@@ -0,0 +1,380 @@
+package com.gllue.myproxy.common.concurrent.executor;
+
+import com.gllue.myproxy.common.concurrent.AffinityRunnable;
+import io.prometheus.client.Collector;
+import io.prometheus.client.Counter;
+import io.prometheus.client.GaugeMetricFamily;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A fixed executor whose workers own their task queues, so the submitters don't contend on a
+ * single queue lock and size counter.
+ *
+ * <p>The {@link AffinityRunnable} tasks are routed to the worker selected by the affinity key, and
+ * they are only executed by that worker in the submission order. The other tasks are queued on the
+ * submitting worker, or on a random worker if they are submitted from the other threads, an idle
+ * worker steals them from the busy workers.
+ */
+@Slf4j
+public class ShardedExecutorService extends AbstractExecutorService {
+  private static final Counter STOLEN_TASKS =
+      Counter.build()
+          .name("executor_stolen_tasks")
+          .help("Total tasks stolen by the idle workers of the sharded executors.")
+          .labelNames("executor")
+          .register();
+
+  private static final List<ShardedExecutorService> EXECUTORS = new CopyOnWriteArrayList<>();
+
+  static {
+    new Collector() {
+      @Override
+      public List<MetricFamilySamples> collect() {
+        var depth =
+            new GaugeMetricFamily(
+                "executor_queue_depth",
+                "Number of the tasks queued on each worker of the sharded executors.",
+                List.of("executor", "worker"));
+        for (var executor : EXECUTORS) {
+          for (var worker : executor.workers) {
+            depth.addMetric(
+                List.of(executor.name, String.valueOf(worker.index)), worker.size.get());
+          }
+        }
+        return List.of(depth);
+      }
+    }.register();
+  }
+
+  // The idle workers wake up periodically to steal the tasks in case the wake-up is missed.
+  private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private static final ThreadLocal<Worker> CURRENT_WORKER = new ThreadLocal<>();
+
+  private final String name;
+  private final Worker[] workers;
+  private final int workerQueueSize;
+  private final AtomicLong rejectedTasks = new AtomicLong();
+  private final CountDownLatch terminated;
+  private volatile boolean shutdown = false;
+
+  /**
+   * Construct and start a sharded executor.
+   *
+   * @param name the name of the executor
+   * @param threads the fixed number of workers
+   * @param workerQueueSize the capacity of the queue of each worker
+   * @param threadFactory the factory of the worker threads
+   */
+  public ShardedExecutorService(
+      final String name,
+      final int threads,
+      final int workerQueueSize,
+      final ThreadFactory threadFactory) {
+    assert threads > 0 : "Threads of sharded executor must be greater than 0";
+    assert workerQueueSize > 0 : "Queue size of sharded executor must be greater than 0";
+
+    this.name = name;
+    this.workerQueueSize = workerQueueSize;
+    this.workers = new Worker[threads];
+    this.terminated = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      workers[i] = new Worker(i, threadFactory);
+    }
+    for (var worker : workers) {
+      worker.thread.start();
+    }
+    EXECUTORS.add(this);
+  }
+
+  private static class AffinityFutureTask<T> extends FutureTask<T> implements AffinityRunnable {
+    private final int affinityKey;
+
+    AffinityFutureTask(final Runnable runnable, final T result, final int affinityKey) {
+      super(runnable, result);
+      this.affinityKey = affinityKey;
+    }
+
+    @Override
+    public int affinityKey() {
+      return affinityKey;
+    }
+  }
+
+  @Override
+  protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+    if (runnable instanceof AffinityRunnable) {
+      return new AffinityFutureTask<>(
+          runnable, value, ((AffinityRunnable) runnable).affinityKey());
+    }
+    return super.newTaskFor(runnable, value);
+  }
+
+  @Override
+  public void execute(@Nonnull Runnable command) {
+    if (command instanceof AffinityRunnable) {
+      var key = ((AffinityRunnable) command).affinityKey();
+      var worker = workers[Math.floorMod(key, workers.length)];
+      worker.offer(worker.affinityTasks, command);
+      return;
+    }
+
+    var worker = CURRENT_WORKER.get();
+    if (worker == null || worker.executor() != this) {
+      worker = workers[ThreadLocalRandom.current().nextInt(workers.length)];
+    }
+    if (!worker.offer(worker.tasks, command)) {
+      // The worker is busy, let an idle worker steal the task.
+      wakeUpIdleWorker(worker);
+    }
+  }
+
+  private void wakeUpIdleWorker(final Worker busyWorker) {
+    var start = busyWorker.index + 1;
+    for (int i = 0; i < workers.length - 1; i++) {
+      if (workers[(start + i) % workers.length].wakeUp()) {
+        return;
+      }
+    }
+  }
+
+  private Runnable steal(final Worker thief) {
+    var start = ThreadLocalRandom.current().nextInt(workers.length);
+    for (int i = 0; i < workers.length; i++) {
+      var victim = workers[(start + i) % workers.length];
+      if (victim == thief) {
+        continue;
+      }
+      var task = victim.poll(victim.tasks);
+      if (task != null) {
+        STOLEN_TASKS.labels(name).inc();
+        return task;
+      }
+    }
+    return null;
+  }
+
+  private class Worker implements Runnable {
+    private final int index;
+    private final Thread thread;
+    private final Queue<Runnable> affinityTasks = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean parked = new AtomicBoolean();
+    private volatile boolean active = false;
+    private volatile long completedTasks = 0;
+    // Poll the two queues by turns, so neither of them is starved.
+    private boolean preferAffinityTasks = true;
+
+    Worker(final int index, final ThreadFactory threadFactory) {
+      this.index = index;
+      this.thread = threadFactory.newThread(this);
+    }
+
+    ShardedExecutorService executor() {
+      return ShardedExecutorService.this;
+    }
+
+    /** Queue the task, returns whether the worker is woken up to run it. */
+    boolean offer(final Queue<Runnable> queue, final Runnable command) {
+      if (shutdown) {
+        reject(command);
+      }
+      if (size.incrementAndGet() > workerQueueSize) {
+        size.decrementAndGet();
+        reject(command);
+      }
+      queue.offer(command);
+      return wakeUp();
+    }
+
+    Runnable poll(final Queue<Runnable> queue) {
+      var task = queue.poll();
+      if (task != null) {
+        size.decrementAndGet();
+      }
+      return task;
+    }
+
+    private Runnable pollOwnTasks() {
+      preferAffinityTasks = !preferAffinityTasks;
+      Runnable task;
+      if (preferAffinityTasks) {
+        task = poll(affinityTasks);
+        if (task == null) {
+          task = poll(tasks);
+        }
+      } else {
+        task = poll(tasks);
+        if (task == null) {
+          task = poll(affinityTasks);
+        }
+      }
+      return task;
+    }
+
+    /** Wake up the worker if it's parked, returns false if the worker is not parked. */
+    boolean wakeUp() {
+      if (parked.get() && parked.compareAndSet(true, false)) {
+        LockSupport.unpark(thread);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public void run() {
+      CURRENT_WORKER.set(this);
+      try {
+        while (true) {
+          var task = pollOwnTasks();
+          if (task == null) {
+            task = steal(this);
+          }
+          if (task != null) {
+            runTask(task);
+            continue;
+          }
+
+          if (shutdown) {
+            break;
+          }
+          parked.set(true);
+          // Check the queues again, a task may be offered before the worker is marked parked.
+          if (size.get() > 0 || shutdown) {
+            parked.set(false);
+            continue;
+          }
+          // Clear the interrupted status left by the tasks, or the worker never parks.
+          Thread.interrupted();
+          LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+          parked.set(false);
+        }
+      } finally {
+        CURRENT_WORKER.remove();
+        terminated.countDown();
+      }
+    }
+
+    private void runTask(final Runnable task) {
+      active = true;
+      try {
+        task.run();
+      } catch (Throwable e) {
+        log.error("Got an uncaught exception in executor [{}]", name, e);
+      } finally {
+        active = false;
+        completedTasks++;
+      }
+    }
+
+    void drainTo(final List<Runnable> drained) {
+      Runnable task;
+      while ((task = poll(affinityTasks)) != null) {
+        drained.add(task);
+      }
+      while ((task = poll(tasks)) != null) {
+        drained.add(task);
+      }
+    }
+  }
+
+  private void reject(final Runnable command) {
+    rejectedTasks.incrementAndGet();
+    throw new ExecutorRejectedExecutionException(
+        "Rejected execution of %s on %s. [isShutdown: %s]", command, name, shutdown);
+  }
+
+  public int getThreads() {
+    return workers.length;
+  }
+
+  public int getQueueSize() {
+    var size = 0;
+    for (var worker : workers) {
+      size += worker.size.get();
+    }
+    return size;
+  }
+
+  public int getActiveCount() {
+    var count = 0;
+    for (var worker : workers) {
+      if (worker.active) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public long getRejectedTaskCount() {
+    return rejectedTasks.get();
+  }
+
+  public long getCompletedTaskCount() {
+    var count = 0L;
+    for (var worker : workers) {
+      count += worker.completedTasks;
+    }
+    return count;
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    for (var worker : workers) {
+      worker.wakeUp();
+    }
+    EXECUTORS.remove(this);
+  }
+
+  @Nonnull
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown();
+    var drained = new ArrayList<Runnable>();
+    for (var worker : workers) {
+      worker.drainTo(drained);
+      worker.thread.interrupt();
+    }
+    return drained;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, @Nonnull TimeUnit unit)
+      throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("ShardedExecutorService[%s]", name);
+  }
+}
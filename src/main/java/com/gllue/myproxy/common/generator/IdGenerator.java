@@ -5,4 +5,13 @@ package com.gllue.myproxy.common.generator;
  */
 public interface IdGenerator {
   long nextId();
+
+  /** Generate a batch of IDs, the generator may reserve them at once rather than one by one. */
+  default long[] nextIds(int count) {
+    var ids = new long[count];
+    for (int i = 0; i < count; i++) {
+      ids[i] = nextId();
+    }
+    return ids;
+  }
 }
@@ -1,8 +1,14 @@
 package com.gllue.myproxy.common.generator;
 
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * A snowflake ID generator. The timestamp of the last reservation and the next sequence id are
+ * packed into one word, the IDs are reserved by a CAS on the word, so the threads don't serialize
+ * on a monitor and a batch of IDs of the same millisecond is reserved by a single CAS.
+ */
 @Slf4j
 public class SnowflakeIdGenerator implements IdGenerator {
   private static final long START_TIMESTAMP = 1639830490000L;
@@ -11,11 +17,15 @@ public class SnowflakeIdGenerator implements IdGenerator {
   private static final long NODE_ID_SHIFT = SEQUENCE_BITS;
   private static final long TIMESTAMP_SHIFT = NODE_ID_BITS + SEQUENCE_BITS;
   private static final long MAX_NODE_ID = ~(-1L << NODE_ID_BITS);
-  private static final long SEQUENCE_ID_MASK = ~(-1L << SEQUENCE_BITS);
+  private static final long SEQUENCE_SIZE = 1L << SEQUENCE_BITS;
+
+  // The next sequence id of the packed word ranges in [0, SEQUENCE_SIZE], SEQUENCE_SIZE means the
+  // sequence ids of the millisecond are exhausted.
+  private static final long STATE_SEQUENCE_BITS = SEQUENCE_BITS + 1;
+  private static final long STATE_SEQUENCE_MASK = ~(-1L << STATE_SEQUENCE_BITS);
 
   @Getter private final long nodeId;
-  private long sequenceId = 0L;
-  private long lastTimestamp = -1L;
+  private final AtomicLong state = new AtomicLong(0L);
 
   public SnowflakeIdGenerator(final long nodeId) {
     if (nodeId > MAX_NODE_ID || nodeId < 0) {
@@ -38,38 +48,70 @@ public class SnowflakeIdGenerator implements IdGenerator {
   }
 
   @Override
-  public synchronized long nextId() {
-    var timestamp = currentTimeMillis();
-    if (timestamp < lastTimestamp) {
-      log.error("Clock is moving backwards. Rejecting requests until {}.", lastTimestamp);
-      throw new InvalidSystemClock(
-          "Clock moved backwards. Refusing to generate id for %d milliseconds",
-          lastTimestamp - timestamp);
-    }
-    if (timestamp == lastTimestamp) {
-      sequenceId = (sequenceId + 1) & SEQUENCE_ID_MASK;
-      if (sequenceId == 0) {
-        timestamp = nextMillis(lastTimestamp);
+  public long nextId() {
+    var reserved = reserve(1);
+    return newId(reserved >>> STATE_SEQUENCE_BITS, reserved & STATE_SEQUENCE_MASK);
+  }
+
+  @Override
+  public long[] nextIds(final int count) {
+    var ids = new long[count];
+    var index = 0;
+    while (index < count) {
+      var reserved = reserve(count - index);
+      var timestamp = reserved >>> STATE_SEQUENCE_BITS;
+      var sequenceId = reserved & STATE_SEQUENCE_MASK;
+      var end = Math.min(SEQUENCE_SIZE, sequenceId + count - index);
+      for (; sequenceId < end; sequenceId++) {
+        ids[index++] = newId(timestamp, sequenceId);
       }
-    } else {
-      sequenceId = 0;
     }
-
-    lastTimestamp = timestamp;
-    return ((timestamp - START_TIMESTAMP) << TIMESTAMP_SHIFT)
-        | (nodeId << NODE_ID_SHIFT)
-        | sequenceId;
+    return ids;
   }
 
-  private long nextMillis(long lastTimestamp) {
-    var timestamp = currentTimeMillis();
-    while (timestamp <= lastTimestamp) {
-      timestamp = currentTimeMillis();
+  /**
+   * Reserve at most {@code count} contiguous sequence ids of the same millisecond.
+   *
+   * @return the timestamp and the first reserved sequence id packed as the state word, the number
+   *     of the reserved ids is {@code min(count, SEQUENCE_SIZE - sequenceId)}.
+   */
+  private long reserve(final int count) {
+    while (true) {
+      var current = state.get();
+      var lastTimestamp = current >>> STATE_SEQUENCE_BITS;
+      var timestamp = currentTimeMillis() - START_TIMESTAMP;
+      if (timestamp < lastTimestamp) {
+        log.error(
+            "Clock is moving backwards. Rejecting requests until {}.",
+            lastTimestamp + START_TIMESTAMP);
+        throw new InvalidSystemClock(
+            "Clock moved backwards. Refusing to generate id for %d milliseconds",
+            lastTimestamp - timestamp);
+      }
+
+      long sequenceId = 0;
+      if (timestamp == lastTimestamp) {
+        sequenceId = current & STATE_SEQUENCE_MASK;
+        if (sequenceId >= SEQUENCE_SIZE) {
+          // The sequence ids are exhausted, wait for the next millisecond.
+          Thread.onSpinWait();
+          continue;
+        }
+      }
+
+      var reserved = Math.min(count, SEQUENCE_SIZE - sequenceId);
+      var next = (timestamp << STATE_SEQUENCE_BITS) | (sequenceId + reserved);
+      if (state.compareAndSet(current, next)) {
+        return (timestamp << STATE_SEQUENCE_BITS) | sequenceId;
+      }
     }
-    return timestamp;
   }
 
-  private long currentTimeMillis() {
+  private long newId(final long timestamp, final long sequenceId) {
+    return (timestamp << TIMESTAMP_SHIFT) | (nodeId << NODE_ID_SHIFT) | sequenceId;
+  }
+
+  long currentTimeMillis() {
     return System.currentTimeMillis();
   }
 }
@@ -492,4 +492,36 @@ public class SQLStatementUtils {
     final SQLParser sqlParser = new SQLParser();
     return isSQLEquals(sqlParser.parse(sql1), sqlParser.parse(sql2));
   }
+
+  /**
+   * Whether the query starts with any of the keywords (case-insensitive) without parsing it, the
+   * leading whitespaces, parentheses and comments are skipped.
+   */
+  public static boolean startsWithKeyword(final String query, final String... keywords) {
+    var length = query.length();
+    var i = 0;
+    while (i < length) {
+      var c = query.charAt(i);
+      if (Character.isWhitespace(c) || c == '(') {
+        i++;
+      } else if (c == '/' && i + 1 < length && query.charAt(i + 1) == '*') {
+        var end = query.indexOf("*/", i + 2);
+        if (end < 0) {
+          return false;
+        }
+        i = end + 2;
+      } else {
+        break;
+      }
+    }
+
+    for (var keyword : keywords) {
+      var end = i + keyword.length();
+      if (query.regionMatches(true, i, keyword, 0, keyword.length())
+          && (end == length || !Character.isLetterOrDigit(query.charAt(end)))) {
+        return true;
+      }
+    }
+    return false;
+  }
 }
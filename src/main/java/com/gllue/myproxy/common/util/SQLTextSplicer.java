@@ -0,0 +1,186 @@
+package com.gllue.myproxy.common.util;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Apply the edits recorded as (source offset, length, replacement) to the original SQL text, the
+ * untouched parts of the text are copied as they are, so the final SQL is produced in a single
+ * pass without printing the whole statement again.
+ */
+public class SQLTextSplicer {
+  private static final Comparator<Edit> EDIT_COMPARATOR = Comparator.comparingInt(x -> x.offset);
+
+  @RequiredArgsConstructor
+  private static class Edit {
+    final int offset;
+    final int length;
+    final String replacement;
+  }
+
+  /** A string literal in the SQL text, the value is unescaped. */
+  @Getter
+  @RequiredArgsConstructor
+  public static class StringLiteral {
+    private final int offset;
+    private final int length;
+    private final String value;
+  }
+
+  private final List<Edit> edits = new ArrayList<>();
+
+  public void replace(final int offset, final int length, final String replacement) {
+    Preconditions.checkArgument(offset >= 0 && length >= 0, "Illegal edit range.");
+    Preconditions.checkNotNull(replacement, "replacement cannot be null.");
+    edits.add(new Edit(offset, length, replacement));
+  }
+
+  public boolean isEmpty() {
+    return edits.isEmpty();
+  }
+
+  public String render(final String sql) {
+    if (edits.isEmpty()) {
+      return sql;
+    }
+
+    edits.sort(EDIT_COMPARATOR);
+    var capacity = sql.length();
+    for (var edit : edits) {
+      capacity += edit.replacement.length() - edit.length;
+    }
+
+    var builder = new StringBuilder(capacity);
+    var position = 0;
+    for (var edit : edits) {
+      Preconditions.checkArgument(edit.offset >= position, "Edits cannot be overlapped.");
+      Preconditions.checkArgument(
+          edit.offset + edit.length <= sql.length(), "Edit is out of the SQL text.");
+      builder.append(sql, position, edit.offset).append(edit.replacement);
+      position = edit.offset + edit.length;
+    }
+    builder.append(sql, position, sql.length());
+    return builder.toString();
+  }
+
+  /**
+   * Find the quoted string literals in the SQL text in the order they appear. The quoted
+   * identifiers, the comments and the literals with a prefix like N'', X'' or _utf8'' are skipped.
+   */
+  public static List<StringLiteral> findStringLiterals(final String sql) {
+    var literals = new ArrayList<StringLiteral>();
+    var length = sql.length();
+    var i = 0;
+    while (i < length) {
+      var c = sql.charAt(i);
+      if (c == '\'' || c == '"') {
+        var end = findQuoteEnd(sql, i, c);
+        if (end < 0) {
+          break;
+        }
+        if (i == 0 || !isIdentifierChar(sql.charAt(i - 1))) {
+          literals.add(new StringLiteral(i, end - i, unescape(sql, i + 1, end - 1, c)));
+        }
+        i = end;
+      } else if (c == '`') {
+        var end = findQuoteEnd(sql, i, c);
+        if (end < 0) {
+          break;
+        }
+        i = end;
+      } else if (c == '#' || isDashComment(sql, i)) {
+        var end = sql.indexOf('\n', i);
+        i = end < 0 ? length : end + 1;
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        var end = sql.indexOf("*/", i + 2);
+        i = end < 0 ? length : end + 2;
+      } else {
+        i++;
+      }
+    }
+    return literals;
+  }
+
+  private static boolean isIdentifierChar(final char c) {
+    return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+  }
+
+  private static boolean isDashComment(final String sql, final int i) {
+    if (sql.charAt(i) != '-' || i + 1 >= sql.length() || sql.charAt(i + 1) != '-') {
+      return false;
+    }
+    return i + 2 == sql.length() || Character.isWhitespace(sql.charAt(i + 2));
+  }
+
+  /** Returns the index after the closing quote, or -1 if the quote is not closed. */
+  private static int findQuoteEnd(final String sql, final int start, final char quote) {
+    var length = sql.length();
+    var i = start + 1;
+    while (i < length) {
+      var c = sql.charAt(i);
+      if (c == '\\' && quote != '`') {
+        i += 2;
+      } else if (c == quote) {
+        if (i + 1 < length && sql.charAt(i + 1) == quote) {
+          i += 2;
+        } else {
+          return i + 1;
+        }
+      } else {
+        i++;
+      }
+    }
+    return -1;
+  }
+
+  private static String unescape(
+      final String sql, final int start, final int end, final char quote) {
+    var builder = new StringBuilder(end - start);
+    var i = start;
+    while (i < end) {
+      var c = sql.charAt(i);
+      if (c == quote) {
+        // The doubled quote.
+        builder.append(c);
+        i += 2;
+      } else if (c == '\\' && i + 1 < end) {
+        var next = sql.charAt(i + 1);
+        switch (next) {
+          case '0':
+            builder.append('\0');
+            break;
+          case 'b':
+            builder.append('\b');
+            break;
+          case 'n':
+            builder.append('\n');
+            break;
+          case 'r':
+            builder.append('\r');
+            break;
+          case 't':
+            builder.append('\t');
+            break;
+          case 'Z':
+            builder.append('\u001A');
+            break;
+          case '%':
+          case '_':
+            builder.append(c).append(next);
+            break;
+          default:
+            builder.append(next);
+        }
+        i += 2;
+      } else {
+        builder.append(c);
+        i++;
+      }
+    }
+    return builder.toString();
+  }
+}
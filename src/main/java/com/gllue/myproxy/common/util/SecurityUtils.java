@@ -11,7 +11,9 @@ import java.util.Base64;
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.Mac;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.SecretKeySpec;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -53,6 +55,13 @@ public static final String RSA_SHA1_MGF1_PADDING_TRANSFORMATION = "RSA/ECB/OAEPW
     return generateDigest(SecurityUtils.sha256Instance(), inputs);
   }
 
+  public static byte[] hmacSha256(final byte[] key, final byte[] input)
+      throws NoSuchAlgorithmException, InvalidKeyException {
+    var mac = Mac.getInstance("HmacSHA256");
+    mac.init(new SecretKeySpec(key, "HmacSHA256"));
+    return mac.doFinal(input);
+  }
+
   public static RSAPublicKey decodeRSAPublicKey(String key)
       throws NoSuchAlgorithmException, InvalidKeySpecException {
 //    int offset = key.indexOf("\n") + 1;
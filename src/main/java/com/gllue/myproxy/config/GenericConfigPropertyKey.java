@@ -1,7 +1,17 @@
 package com.gllue.myproxy.config;
 
+import com.gllue.myproxy.command.handler.admission.AdmissionController;
+import com.gllue.myproxy.command.handler.query.StatementTimeoutPolicy;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJobRunner;
+import com.gllue.myproxy.command.handler.query.ddl.repack.AbstractExtensionTableRepackHandler;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnAccessStats;
+import com.gllue.myproxy.command.handler.query.dml.insert.InsertQueryChunker;
+import com.gllue.myproxy.command.handler.query.dml.select.QueryResultCache;
+import com.gllue.myproxy.command.trace.SlowQueryLog;
 import com.gllue.myproxy.common.properties.TypedPropertyKey;
 import com.gllue.myproxy.common.properties.TypedPropertyValue.Type;
+import com.gllue.myproxy.route.move.DatabaseMover;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -23,13 +33,126 @@ public enum GenericConfigPropertyKey implements TypedPropertyKey {
       "table.partition.extension_table.max_columns_per_table", 150, Type.INTEGER),
   EXTENSION_TABLE_COLUMNS_ALLOCATION_WATERMARK(
       "table.partition.extension_table.columns_allocation_watermark", 0.9, Type.DOUBLE),
+  EXTENSION_TABLE_ACCESS_STATS_ENABLED(
+      "table.partition.extension_table.access_stats.enabled", false, Type.BOOLEAN),
+  EXTENSION_TABLE_ACCESS_STATS_MAX_PATTERNS_PER_TABLE(
+      "table.partition.extension_table.access_stats.max_patterns_per_table",
+      ExtensionColumnAccessStats.DEFAULT_MAX_PATTERNS_PER_TABLE,
+      Type.INTEGER),
+  EXTENSION_TABLE_REPACK_CHUNK_SIZE(
+      "table.partition.extension_table.repack.chunk_size",
+      AbstractExtensionTableRepackHandler.DEFAULT_CHUNK_SIZE,
+      Type.INTEGER),
+  EXTENSION_TABLE_REPACK_CHUNK_PAUSE_IN_MILLS(
+      "table.partition.extension_table.repack.chunk_pause_in_mills",
+      AbstractExtensionTableRepackHandler.DEFAULT_CHUNK_PAUSE_IN_MILLS,
+      Type.LONG),
+  EXTENSION_TABLE_REPACK_PUBLISH_DELAY_IN_MILLS(
+      "table.partition.extension_table.repack.publish_delay_in_mills",
+      AbstractExtensionTableRepackHandler.DEFAULT_PUBLISH_DELAY_IN_MILLS,
+      Type.LONG),
+  PARTITION_TABLE_DDL_PARALLELISM(
+      "table.partition.ddl.parallelism",
+      PartitionTableDDLJobRunner.DEFAULT_PARALLELISM,
+      Type.INTEGER),
 
   // query result
   QUERY_RESULT_CACHED_MAX_CAPACITY_IN_BYTES(
       "query.result.cached.max_capacity_in_bytes", 100 * 1024 * 1024, Type.INTEGER),
 
+  // schema answer cache
+  SCHEMA_CACHE_ENABLED("schema.cache.enabled", true, Type.BOOLEAN),
+  SCHEMA_CACHE_MAX_ENTRIES(
+      "schema.cache.max_entries", SchemaAnswerCache.DEFAULT_CAPACITY, Type.INTEGER),
+  SCHEMA_CACHE_EXPIRE_TIME_IN_MILLS(
+      "schema.cache.expire_time_in_mills",
+      SchemaAnswerCache.DEFAULT_EXPIRE_TIME_IN_MILLS,
+      Type.LONG),
+
+  // query result cache
+  QUERY_RESULT_CACHE_ENABLED("query.result_cache.enabled", false, Type.BOOLEAN),
+  QUERY_RESULT_CACHE_MAX_CAPACITY_IN_BYTES(
+      "query.result_cache.max_capacity_in_bytes",
+      QueryResultCache.DEFAULT_MAX_CAPACITY_IN_BYTES,
+      Type.LONG),
+  QUERY_RESULT_CACHE_MAX_ENTRY_SIZE_IN_BYTES(
+      "query.result_cache.max_entry_size_in_bytes",
+      QueryResultCache.DEFAULT_MAX_ENTRY_SIZE_IN_BYTES,
+      Type.INTEGER),
+  QUERY_RESULT_CACHE_EXPIRE_TIME_IN_MILLS(
+      "query.result_cache.expire_time_in_mills",
+      QueryResultCache.DEFAULT_EXPIRE_TIME_IN_MILLS,
+      Type.LONG),
+  QUERY_RESULT_CACHE_TABLES("query.result_cache.tables", "", Type.LIST_OF_STRING),
+
+  // statement timeout
+  QUERY_MAX_EXECUTION_TIME_IN_MILLS(
+      "query.max_execution_time_in_mills",
+      StatementTimeoutPolicy.DEFAULT_MAX_EXECUTION_TIME_IN_MILLS,
+      Type.LONG),
+  QUERY_MAX_EXECUTION_TIME_RULES("query.max_execution_time_rules", "", Type.LIST_OF_STRING),
+
+  // insert chunking
+  QUERY_INSERT_CHUNK_MAX_ROWS(
+      "query.insert.chunk.max_rows", InsertQueryChunker.DEFAULT_MAX_ROWS, Type.INTEGER),
+  QUERY_INSERT_CHUNK_MAX_SIZE_IN_BYTES(
+      "query.insert.chunk.max_size_in_bytes",
+      InsertQueryChunker.DEFAULT_MAX_SIZE_IN_BYTES,
+      Type.INTEGER),
+
+  // admission control
+  ADMISSION_CONTROL_ENABLED("admission_control.enabled", false, Type.BOOLEAN),
+  ADMISSION_CONTROL_MAX_CONCURRENCY(
+      "admission_control.max_concurrency",
+      AdmissionController.DEFAULT_MAX_CONCURRENCY,
+      Type.INTEGER),
+  ADMISSION_CONTROL_MAX_CONCURRENCY_PER_TENANT(
+      "admission_control.max_concurrency_per_tenant",
+      AdmissionController.DEFAULT_MAX_CONCURRENCY_PER_TENANT,
+      Type.INTEGER),
+  ADMISSION_CONTROL_MAX_QUEUE_SIZE_PER_TENANT(
+      "admission_control.max_queue_size_per_tenant",
+      AdmissionController.DEFAULT_MAX_QUEUE_SIZE_PER_TENANT,
+      Type.INTEGER),
+  ADMISSION_CONTROL_TENANT_WEIGHTS("admission_control.tenant_weights", "", Type.LIST_OF_STRING),
+
+  // slow query log
+  SLOW_QUERY_LOG_ENABLED("slow_query_log.enabled", false, Type.BOOLEAN),
+  SLOW_QUERY_LOG_THRESHOLD_IN_MILLS(
+      "slow_query_log.threshold_in_mills", SlowQueryLog.DEFAULT_THRESHOLD_IN_MILLS, Type.LONG),
+  SLOW_QUERY_LOG_PATH("slow_query_log.path", SlowQueryLog.DEFAULT_PATH, Type.STRING),
+  SLOW_QUERY_LOG_MAX_FILE_SIZE_IN_BYTES(
+      "slow_query_log.max_file_size_in_bytes",
+      SlowQueryLog.DEFAULT_MAX_FILE_SIZE_IN_BYTES,
+      Type.LONG),
+  SLOW_QUERY_LOG_MAX_FILES(
+      "slow_query_log.max_files", SlowQueryLog.DEFAULT_MAX_FILES, Type.INTEGER),
+  SLOW_QUERY_LOG_BUFFER_SIZE(
+      "slow_query_log.buffer_size", SlowQueryLog.DEFAULT_BUFFER_SIZE, Type.INTEGER),
+
   // encryption
   ENCRYPTION_ALGORITHM("encryption.algorithm", "AES", Type.STRING),
+  ENCRYPTION_BLIND_INDEX_ENABLED("encryption.blind_index.enabled", false, Type.BOOLEAN),
+
+  // database move
+  DATABASE_MOVE_CHUNK_SIZE(
+      "database.move.chunk_size", DatabaseMover.DEFAULT_CHUNK_SIZE, Type.INTEGER),
+  DATABASE_MOVE_CHUNK_PAUSE_IN_MILLS(
+      "database.move.chunk_pause_in_mills", DatabaseMover.DEFAULT_CHUNK_PAUSE_IN_MILLS, Type.LONG),
+  DATABASE_MOVE_FREEZE_TIMEOUT_IN_MILLS(
+      "database.move.freeze_timeout_in_mills",
+      DatabaseMover.DEFAULT_FREEZE_TIMEOUT_IN_MILLS,
+      Type.LONG),
+  DATABASE_MOVE_MAX_FREEZE_ATTEMPTS(
+      "database.move.max_freeze_attempts",
+      DatabaseMover.DEFAULT_MAX_FREEZE_ATTEMPTS,
+      Type.INTEGER),
+  DATABASE_MOVE_MAX_REPLAY_LAG(
+      "database.move.max_replay_lag", DatabaseMover.DEFAULT_MAX_REPLAY_LAG, Type.INTEGER),
+  DATABASE_MOVE_PUBLISH_DELAY_IN_MILLS(
+      "database.move.publish_delay_in_mills",
+      DatabaseMover.DEFAULT_PUBLISH_DELAY_IN_MILLS,
+      Type.LONG),
 
   // repository
   REPOSITORY_ROOT_PATH("repository.root_path", "/myproxy", Type.STRING);
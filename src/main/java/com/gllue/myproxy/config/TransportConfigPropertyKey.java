@@ -7,7 +7,9 @@ import static com.gllue.myproxy.transport.core.connection.AbstractConnectionPool
 
 import com.gllue.myproxy.common.properties.TypedPropertyKey;
 import com.gllue.myproxy.common.properties.TypedPropertyValue.Type;
+import com.gllue.myproxy.transport.core.netty.CompressionOptions;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
 import lombok.Getter;
 
 /** Typed property key of transport configuration. */
@@ -34,6 +36,8 @@ public enum TransportConfigPropertyKey implements TypedPropertyKey {
   FRONTEND_CONNECTION_IDLE_DETECT_INTERVAL_IN_MILLS(
       "frontend.connection.idle_detect_interval_in_mills", TimeUnit.MINUTES.toMillis(1), Type.LONG),
 
+  FRONTEND_COMPRESSION_ENABLED("frontend.compression.enabled", true, Type.BOOLEAN),
+
   BACKEND_WORKER_COUNT(
       "backend.worker_count", GenericConfigPropertyKey.availableProcessors(), Type.INTEGER),
 
@@ -45,6 +49,13 @@ public enum TransportConfigPropertyKey implements TypedPropertyKey {
   BACKEND_WRITE_BUFFER_HIGH_WATER_MARK(
       "backend.write_buffer_high_water_mark", 16 * 1024 * 1024, Type.INTEGER),
 
+  BACKEND_COMPRESSION_ENABLED("backend.compression.enabled", false, Type.BOOLEAN),
+
+  COMPRESSION_THRESHOLD_IN_BYTES(
+      "compression.threshold_in_bytes", CompressionOptions.DEFAULT_THRESHOLD, Type.INTEGER),
+
+  COMPRESSION_LEVEL("compression.level", Deflater.DEFAULT_COMPRESSION, Type.INTEGER),
+
   BACKEND_CONNECTION_POOL_SIZE("backend.connection.connection_pool_size", 1000, Type.INTEGER),
 
   BACKEND_CONNECTION_IDLE_TIMEOUT_IN_MILLS(
@@ -60,6 +71,28 @@ public enum TransportConfigPropertyKey implements TypedPropertyKey {
 
   BACKEND_CONNECTION_MAX_LIFE_TIME_IN_MILLS(
       "backend.connection.max_life_time_in_mills", DEFAULT_MAX_LIFE_TIME_IN_MILLS, Type.LONG),
+
+  BACKEND_REPLICA_WRITE_STICKY_TIME_IN_MILLS(
+      "backend.replica.write_sticky_time_in_mills", TimeUnit.SECONDS.toMillis(1), Type.LONG),
+
+  BACKEND_HEALTH_CHECK_INTERVAL_IN_MILLS(
+      "backend.health_check.interval_in_mills", TimeUnit.SECONDS.toMillis(5), Type.LONG),
+
+  BACKEND_HEALTH_CHECK_TIMEOUT_IN_MILLS(
+      "backend.health_check.timeout_in_mills", TimeUnit.SECONDS.toMillis(2), Type.LONG),
+
+  BACKEND_HEALTH_CHECK_FAILURE_THRESHOLD("backend.health_check.failure_threshold", 3, Type.INTEGER),
+
+  BACKEND_HEALTH_CHECK_RECOVERY_THRESHOLD(
+      "backend.health_check.recovery_threshold", 2, Type.INTEGER),
+
+  BACKEND_HEALTH_CHECK_MAX_BACKOFF_IN_MILLS(
+      "backend.health_check.max_backoff_in_mills", TimeUnit.MINUTES.toMillis(1), Type.LONG),
+
+  BACKEND_FAN_OUT_PARALLELISM("backend.fan_out.parallelism", 4, Type.INTEGER),
+
+  BACKEND_FAN_OUT_MAX_AUXILIARY_CONNECTIONS(
+      "backend.fan_out.max_auxiliary_connections", 64, Type.INTEGER),
   ;
 
   private static final String PREFIX = "transport";
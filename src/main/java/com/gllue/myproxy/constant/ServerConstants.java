@@ -25,6 +25,26 @@ public final class ServerConstants {
    */
   public static final String DATABASES_ROOT_PATH = "databases";
 
+  /**
+   * Persistence path for the routes of the databases to the physical datasources.
+   */
+  public static final String ROUTES_ROOT_PATH = "routes";
+
+  /**
+   * Persistence path for the unfinished DDL jobs of the partition tables.
+   */
+  public static final String DDL_JOBS_ROOT_PATH = "ddl_jobs";
+
+  /**
+   * Persistence path for the databases being moved to another datasource.
+   */
+  public static final String MOVES_ROOT_PATH = "moves";
+
+  /**
+   * Persistence path for the extension columns of the partition tables being moved.
+   */
+  public static final String COLUMN_MOVES_ROOT_PATH = "column_moves";
+
   /**
    * A symbol which is used to quote mysql identifier.
    */
@@ -5,8 +5,9 @@ import com.gllue.myproxy.metadata.AbstractMetaDataBuilder;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -16,6 +17,8 @@ public class DatabaseMetaData extends AbstractMetaData {
   @Getter private final String name;
   private final Map<String, TableMetaData> tableNameMap;
   private final Map<String, TableMetaData> tableIdMap;
+  /** The names of the extension tables of the partition tables, they are hidden from the users. */
+  @Getter private final Set<String> extensionTableNames;
 
   public DatabaseMetaData(
       final String datasource, final String name, final TableMetaData[] tables, final int version) {
@@ -29,9 +32,9 @@ public class DatabaseMetaData extends AbstractMetaData {
 
     this.datasource = datasource;
     this.name = name;
-    this.tableNameMap = new ConcurrentHashMap<>(tables.length);
-    this.tableIdMap = new ConcurrentHashMap<>(tables.length);
-
+    var tableNameMap = new HashMap<String, TableMetaData>(tables.length);
+    var tableIdMap = new HashMap<String, TableMetaData>(tables.length);
+    var extensionTableNames = new HashSet<String>();
     for (TableMetaData table : tables) {
       var old = tableIdMap.put(table.getIdentity(), table);
       if (old != null) {
@@ -44,7 +47,16 @@ public class DatabaseMetaData extends AbstractMetaData {
         throw new IllegalArgumentException(
             String.format("Table name [%s] in tables must be unique.", table.getName()));
       }
+
+      if (table.getType() == TableType.PARTITION) {
+        for (var extTable : ((PartitionTableMetaData) table).getExtensionTables()) {
+          extensionTableNames.add(extTable.getName());
+        }
+      }
     }
+    this.tableNameMap = Map.copyOf(tableNameMap);
+    this.tableIdMap = Map.copyOf(tableIdMap);
+    this.extensionTableNames = Set.copyOf(extensionTableNames);
   }
 
   public static String joinDatasourceAndName(final String datasource, final String name) {
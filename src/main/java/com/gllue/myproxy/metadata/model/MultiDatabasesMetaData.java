@@ -4,29 +4,79 @@ import com.gllue.myproxy.metadata.MetaData;
 import com.gllue.myproxy.metadata.MetaDataBuilder;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import lombok.experimental.Accessors;
 
+/**
+ * The root of the metadata. The databases are held in the immutable maps which are replaced as a
+ * whole on each change (copy-on-write), so the readers never see a half-applied change and never
+ * pay for the synchronization. A query pins a {@link #snapshot()} to read the same metadata from
+ * the beginning to the end.
+ */
 public class MultiDatabasesMetaData implements MetaData {
   private static final String IDENTITY = "ID";
   private static final int VERSION = -1;
 
-  private final Map<String, Map<String, DatabaseMetaData>> datasourceMap;
+  private volatile Map<String, Map<String, DatabaseMetaData>> datasourceMap;
+  private final boolean snapshot;
 
   public MultiDatabasesMetaData(final DatabaseMetaData[] databases) {
-    this.datasourceMap = new ConcurrentHashMap<>(databases.length);
-
+    var datasourceMap = new HashMap<String, Map<String, DatabaseMetaData>>();
     for (DatabaseMetaData database : databases) {
-      var dbMap =
-          datasourceMap.computeIfAbsent(database.getDatasource(), k -> new ConcurrentHashMap<>());
+      var dbMap = datasourceMap.computeIfAbsent(database.getDatasource(), k -> new HashMap<>());
       var old = dbMap.put(database.getName(), database);
       if (old != null) {
         throw new IllegalArgumentException(
             String.format("Database name [%s] in databases must be unique.", database.getName()));
       }
     }
+    this.datasourceMap = freeze(datasourceMap);
+    this.snapshot = false;
+  }
+
+  private MultiDatabasesMetaData(final Map<String, Map<String, DatabaseMetaData>> datasourceMap) {
+    this.datasourceMap = datasourceMap;
+    this.snapshot = true;
+  }
+
+  private static Map<String, Map<String, DatabaseMetaData>> freeze(
+      final Map<String, Map<String, DatabaseMetaData>> datasourceMap) {
+    var result = new HashMap<String, Map<String, DatabaseMetaData>>(datasourceMap.size());
+    for (var entry : datasourceMap.entrySet()) {
+      result.put(entry.getKey(), Map.copyOf(entry.getValue()));
+    }
+    return Map.copyOf(result);
+  }
+
+  /** Returns an immutable snapshot of the current metadata, it's never changed afterwards. */
+  public MultiDatabasesMetaData snapshot() {
+    if (snapshot) {
+      return this;
+    }
+    return new MultiDatabasesMetaData(datasourceMap);
+  }
+
+  public boolean isSnapshot() {
+    return snapshot;
+  }
+
+  private void ensureNotSnapshot() {
+    if (snapshot) {
+      throw new UnsupportedOperationException("Metadata snapshot cannot be changed.");
+    }
+  }
+
+  /** Replace the databases of the datasource, the caller must hold the lock. */
+  private void updateDatabases(final String datasource, final Map<String, DatabaseMetaData> dbMap) {
+    var newDatasourceMap = new HashMap<>(datasourceMap);
+    if (dbMap.isEmpty()) {
+      newDatasourceMap.remove(datasource);
+    } else {
+      newDatasourceMap.put(datasource, Map.copyOf(dbMap));
+    }
+    datasourceMap = Map.copyOf(newDatasourceMap);
   }
 
   public int getNumberOfDatabases() {
@@ -34,10 +84,8 @@ public class MultiDatabasesMetaData implements MetaData {
   }
 
   public boolean hasDatabase(final String datasource, final String name) {
-    if (datasourceMap.containsKey(datasource)) {
-      return datasourceMap.containsKey(name);
-    }
-    return false;
+    var dbMap = datasourceMap.get(datasource);
+    return dbMap != null && dbMap.containsKey(name);
   }
 
   public DatabaseMetaData getDatabase(final String datasource, final String name) {
@@ -50,24 +98,28 @@ public class MultiDatabasesMetaData implements MetaData {
 
   public synchronized boolean addDatabase(
       final DatabaseMetaData database, final boolean autoUpdate) {
-    var dbMap =
-        datasourceMap.computeIfAbsent(database.getDatasource(), k -> new ConcurrentHashMap<>());
-    var previous = dbMap.putIfAbsent(database.getName(), database);
-    if (previous != null) {
-      if (!autoUpdate || previous.getVersion() >= database.getVersion()) {
-        return false;
-      }
-      dbMap.put(database.getName(), database);
+    ensureNotSnapshot();
+    var datasource = database.getDatasource();
+    var dbMap = new HashMap<>(datasourceMap.getOrDefault(datasource, Collections.emptyMap()));
+    var previous = dbMap.put(database.getName(), database);
+    if (previous != null
+        && (!autoUpdate || previous.getVersion() >= database.getVersion())) {
+      return false;
     }
+    updateDatabases(datasource, dbMap);
     return true;
   }
 
   public synchronized DatabaseMetaData removeDatabase(final String datasource, final String name) {
-    var dbMap = datasourceMap.get(datasource);
-    if (dbMap == null) {
+    ensureNotSnapshot();
+    var current = datasourceMap.get(datasource);
+    if (current == null || !current.containsKey(name)) {
       return null;
     }
-    return dbMap.remove(name);
+    var dbMap = new HashMap<>(current);
+    var removed = dbMap.remove(name);
+    updateDatabases(datasource, dbMap);
+    return removed;
   }
 
   public Iterable<String> getDatabaseNames(final String datasource) {
@@ -4,7 +4,9 @@ import com.gllue.myproxy.metadata.AbstractMetaDataBuilder;
 import com.google.common.base.Preconditions;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
@@ -12,6 +14,8 @@ import lombok.experimental.Accessors;
 public class PartitionTableMetaData extends TableMetaData {
   @Getter private final TableMetaData primaryTable;
   @Getter private final TableMetaData[] extensionTables;
+  /** The ordinal value of the table of each column, the builtin columns map to the primary table. */
+  private final Map<String, Integer> ordinalValueMap;
 
   public PartitionTableMetaData(
       final String identity,
@@ -28,6 +32,19 @@ public class PartitionTableMetaData extends TableMetaData {
         false);
     this.primaryTable = primaryTable;
     this.extensionTables = extensionTables;
+    this.ordinalValueMap = buildOrdinalValueMap(primaryTable, extensionTables);
+  }
+
+  private static Map<String, Integer> buildOrdinalValueMap(
+      TableMetaData primaryTable, TableMetaData[] extensionTables) {
+    var map = new HashMap<String, Integer>();
+    for (int i = 0; i <= extensionTables.length; i++) {
+      var table = i == 0 ? primaryTable : extensionTables[i - 1];
+      for (int j = 0; j < table.getNumberOfColumns(); j++) {
+        map.putIfAbsent(table.getColumn(j).getName(), i);
+      }
+    }
+    return Map.copyOf(map);
   }
 
   private static ColumnMetaData[] mergeColumns(
@@ -94,19 +111,7 @@ public class PartitionTableMetaData extends TableMetaData {
   }
 
   public int getOrdinalValueByColumnName(final String columnName) {
-    int ordinalValue = 0;
-    if (primaryTable.hasColumn(columnName)) {
-      return ordinalValue;
-    }
-
-    ordinalValue++;
-    for (var table : extensionTables) {
-      if (table.hasColumn(columnName)) {
-        return ordinalValue;
-      }
-      ordinalValue++;
-    }
-    return -1;
+    return ordinalValueMap.getOrDefault(columnName, -1);
   }
 
   public String[] getTableNames() {
@@ -18,6 +18,7 @@ public class TableMetaData extends AbstractMetaData {
   private final ColumnMetaData[] columns;
 
   private final Map<String, ColumnMetaData> columnMap;
+  private final boolean hasEncryptColumns;
 
   public TableMetaData(
       final String identity,
@@ -46,6 +47,7 @@ public class TableMetaData extends AbstractMetaData {
     this.type = type;
     this.columns = columns;
     this.columnMap = buildColumnMap(columns);
+    this.hasEncryptColumns = hasEncryptColumns(columns);
 
     if (bindColumns) {
       setTableToColumns(columns);
@@ -64,6 +66,15 @@ public class TableMetaData extends AbstractMetaData {
     return map;
   }
 
+  private static boolean hasEncryptColumns(final ColumnMetaData[] columns) {
+    for (var column : columns) {
+      if (column.getType() == ColumnType.ENCRYPT) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private void setTableToColumns(ColumnMetaData[] columns) {
     for (var column : columns) {
       column.setTable(this);
@@ -82,6 +93,11 @@ public class TableMetaData extends AbstractMetaData {
     return columns[index];
   }
 
+  /** Whether the table has any encrypt column, the rewriting of encryption can be skipped if not. */
+  public boolean hasEncryptColumns() {
+    return hasEncryptColumns;
+  }
+
   public int getNumberOfColumns() {
     return columns.length;
   }
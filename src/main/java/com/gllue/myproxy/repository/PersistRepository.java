@@ -44,6 +44,15 @@ public interface PersistRepository {
    */
   void save(String key, byte[] data);
 
+  /**
+   * Create the key value pair atomically if the key is absent.
+   *
+   * @param key key of data
+   * @param data data should be persisted.
+   * @return false if the key is already exists.
+   */
+  boolean saveIfAbsent(String key, byte[] data);
+
   /**
    * Delete by key.
    *
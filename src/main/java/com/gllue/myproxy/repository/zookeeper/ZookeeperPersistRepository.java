@@ -27,6 +27,7 @@ import org.apache.curator.retry.ExponentialBackoffRetry;
 import org.apache.curator.utils.CloseableUtils;
 import org.apache.curator.utils.ThreadUtils;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException.NodeExistsException;
 
 @Slf4j
 public class ZookeeperPersistRepository implements ClusterPersistRepository {
@@ -246,6 +247,18 @@ public class ZookeeperPersistRepository implements ClusterPersistRepository {
     }
   }
 
+  @Override
+  public boolean saveIfAbsent(String key, byte[] data) {
+    try {
+      client.create().creatingParentsIfNeeded().withMode(CreateMode.PERSISTENT).forPath(key, data);
+    } catch (NodeExistsException e) {
+      return false;
+    } catch (Exception e) {
+      handleException(e);
+    }
+    return true;
+  }
+
   @Override
   public void delete(String key) {
     try {
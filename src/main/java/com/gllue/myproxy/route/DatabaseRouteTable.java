@@ -0,0 +1,73 @@
+package com.gllue.myproxy.route;
+
+import com.gllue.myproxy.metadata.model.DatabaseMetaData;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Route the databases of a logical datasource, the datasource which the client logs in, to the
+ * physical datasources. The databases without a route live on the logical datasource itself, so
+ * that the tenant databases of one logical datasource can be spread across several backend
+ * clusters.
+ *
+ * <p>The routes are held in an immutable map which is replaced on update, the lookup on the query
+ * path never takes a lock.
+ */
+public class DatabaseRouteTable {
+  private volatile Map<String, String> routes = Map.of();
+
+  /** Returns the physical datasource of the database. */
+  public String route(final String datasource, final String database) {
+    if (database == null) {
+      return datasource;
+    }
+    var routes = this.routes;
+    if (routes.isEmpty()) {
+      return datasource;
+    }
+    return routes.getOrDefault(joinKey(datasource, database), datasource);
+  }
+
+  public boolean hasRoute(final String datasource, final String database) {
+    return routes.containsKey(joinKey(datasource, database));
+  }
+
+  public synchronized void addRoute(
+      final String datasource, final String database, final String physicalDatasource) {
+    Preconditions.checkArgument(
+        !Strings.isNullOrEmpty(physicalDatasource),
+        "Physical datasource cannot be null or empty.");
+    var newRoutes = new HashMap<>(routes);
+    if (datasource.equals(physicalDatasource)) {
+      newRoutes.remove(joinKey(datasource, database));
+    } else {
+      newRoutes.put(joinKey(datasource, database), physicalDatasource);
+    }
+    routes = Map.copyOf(newRoutes);
+  }
+
+  public synchronized void removeRoute(final String datasource, final String database) {
+    var key = joinKey(datasource, database);
+    if (!routes.containsKey(key)) {
+      return;
+    }
+    var newRoutes = new HashMap<>(routes);
+    newRoutes.remove(key);
+    routes = Map.copyOf(newRoutes);
+  }
+
+  public int size() {
+    return routes.size();
+  }
+
+  /** The key of a route, which has the same format as the identity of the database metadata. */
+  public static String joinKey(final String datasource, final String database) {
+    return DatabaseMetaData.joinDatasourceAndName(datasource, database);
+  }
+
+  public static String[] splitKey(final String key) {
+    return DatabaseMetaData.splitJoinedDatasourceAndName(key);
+  }
+}
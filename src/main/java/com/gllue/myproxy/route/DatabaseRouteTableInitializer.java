@@ -0,0 +1,57 @@
+package com.gllue.myproxy.route;
+
+import com.gllue.myproxy.bootstrap.ServerContext;
+import com.gllue.myproxy.common.Initializer;
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.constant.ServerConstants;
+import com.gllue.myproxy.repository.ClusterPersistRepository;
+import com.gllue.myproxy.route.move.DatabaseMoveLoader;
+import com.gllue.myproxy.route.move.DatabaseMoveWatcher;
+
+/**
+ * Load the database routes from the repository into the route table of the transport service, and
+ * keep the route table updated by watching the changes of the routes. The databases being moved by
+ * the other nodes are loaded and watched along with the routes.
+ */
+public class DatabaseRouteTableInitializer implements Initializer {
+
+  @Override
+  public String name() {
+    return "database route table";
+  }
+
+  public static String getBasePath(final ServerContext context) {
+    return getBasePath(context.getConfigurations());
+  }
+
+  public static String getBasePath(final Configurations configurations) {
+    var rootPath = PathUtils.getRootPath(configurations);
+    return PathUtils.joinPaths(rootPath, ServerConstants.ROUTES_ROOT_PATH);
+  }
+
+  public static String getMoveBasePath(final Configurations configurations) {
+    var rootPath = PathUtils.getRootPath(configurations);
+    return PathUtils.joinPaths(rootPath, ServerConstants.MOVES_ROOT_PATH);
+  }
+
+  @Override
+  public void initialize(ServerContext context) {
+    var repository = context.getPersistRepository();
+    var routeTable = context.getTransportService().getDatabaseRouteTable();
+    var moveRegistry = context.getTransportService().getDatabaseMoveRegistry();
+    var basePath = getBasePath(context);
+    var moveBasePath = getMoveBasePath(context.getConfigurations());
+    new DatabaseRouteTableLoader(repository).load(basePath, routeTable);
+    new DatabaseMoveLoader(repository).load(moveBasePath, moveRegistry);
+    if (repository instanceof ClusterPersistRepository) {
+      var clusterRepository = (ClusterPersistRepository) repository;
+      new DatabaseRouteTableWatcher(basePath, routeTable, clusterRepository).watch();
+      new DatabaseMoveWatcher(moveBasePath, basePath, moveRegistry, routeTable, clusterRepository)
+          .watch();
+    }
+  }
+
+  @Override
+  public void close() throws Exception {}
+}
@@ -0,0 +1,27 @@
+package com.gllue.myproxy.route;
+
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.repository.PersistRepository;
+import java.nio.charset.StandardCharsets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseRouteTableLoader {
+  private final PersistRepository repository;
+
+  public void load(final String basePath, final DatabaseRouteTable routeTable) {
+    if (!repository.exists(basePath)) {
+      return;
+    }
+
+    for (var key : repository.getChildrenKeys(basePath)) {
+      var items = DatabaseRouteTable.splitKey(key);
+      var data = repository.get(PathUtils.joinPaths(basePath, key));
+      var physicalDatasource = new String(data, StandardCharsets.UTF_8);
+      routeTable.addRoute(items[0], items[1], physicalDatasource);
+    }
+    log.info("Loaded {} database routes.", routeTable.size());
+  }
+}
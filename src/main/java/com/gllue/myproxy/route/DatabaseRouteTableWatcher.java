@@ -0,0 +1,54 @@
+package com.gllue.myproxy.route;
+
+import com.gllue.myproxy.constant.ServerConstants;
+import com.gllue.myproxy.repository.ClusterPersistRepository;
+import com.gllue.myproxy.repository.DataChangedEvent;
+import java.nio.charset.StandardCharsets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseRouteTableWatcher {
+  private final String basePath;
+  private final DatabaseRouteTable routeTable;
+  private final ClusterPersistRepository repository;
+
+  public void watch() {
+    repository.watch(basePath, this::dispatch);
+  }
+
+  private void dispatch(final DataChangedEvent event) {
+    var path = event.getKey();
+    if (!path.startsWith(basePath)) {
+      throw new IllegalStateException(
+          String.format("Got an invalid data change event. [path:%s]", path));
+    }
+
+    var key = path.substring(basePath.length());
+    if (key.startsWith(ServerConstants.PATH_SEPARATOR)) {
+      key = key.substring(1);
+    }
+    if (key.isEmpty()) {
+      return;
+    }
+    if (key.contains(ServerConstants.PATH_SEPARATOR)) {
+      throw new IllegalStateException(
+          String.format("Got an invalid data change event. [path:%s]", path));
+    }
+
+    var items = DatabaseRouteTable.splitKey(key);
+    switch (event.getType()) {
+      case CREATED:
+      case UPDATED:
+        var physicalDatasource = new String((byte[]) event.getValue(), StandardCharsets.UTF_8);
+        log.info("Route database [{}] to datasource [{}].", key, physicalDatasource);
+        routeTable.addRoute(items[0], items[1], physicalDatasource);
+        break;
+      case DELETED:
+        log.info("Remove the route of database [{}].", key);
+        routeTable.removeRoute(items[0], items[1]);
+        break;
+    }
+  }
+}
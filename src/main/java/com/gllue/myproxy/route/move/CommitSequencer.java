@@ -0,0 +1,59 @@
+package com.gllue.myproxy.route.move;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * An asynchronous mutex which serializes the commits of the writes of a database being moved on
+ * this node. A commit holds the sequencer from the moment it's sent to the backend until its writes
+ * are captured, so the captured order is the commit order on the source data source, which is
+ * also the order of the conflicting writes since a write waiting for the row locks of another
+ * transaction cannot commit before it.
+ *
+ * <p>Only the commits are serialized, the row locks are acquired by the writes without holding the
+ * sequencer, so a commit never waits for a row lock while it holds the sequencer. The waiting
+ * commits are resumed in the arrival order by the thread releasing the sequencer.
+ */
+public class CommitSequencer {
+  private final Deque<Runnable> waitingCommits = new ArrayDeque<>();
+  private boolean held;
+
+  /**
+   * Acquire the sequencer, returns true if the commit can be executed now, otherwise the resume
+   * task is run once the sequencer is released to the commit. Every commit which acquires the
+   * sequencer, either now or by the resume task, must release it exactly once.
+   */
+  public boolean acquire(final Runnable resume) {
+    synchronized (this) {
+      if (held) {
+        waitingCommits.addLast(resume);
+        return false;
+      }
+      held = true;
+      return true;
+    }
+  }
+
+  /** Release the sequencer, it's handed over to the first waiting commit if any. */
+  public void release() {
+    Runnable next;
+    synchronized (this) {
+      Preconditions.checkState(held, "The sequencer is not held.");
+      next = waitingCommits.pollFirst();
+      if (next == null) {
+        held = false;
+        return;
+      }
+    }
+    next.run();
+  }
+
+  public synchronized boolean isHeld() {
+    return held;
+  }
+
+  public synchronized int getWaitingCommits() {
+    return waitingCommits.size();
+  }
+}
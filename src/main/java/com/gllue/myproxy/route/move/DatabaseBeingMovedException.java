@@ -0,0 +1,22 @@
+package com.gllue.myproxy.route.move;
+
+import com.gllue.myproxy.common.exception.BaseServerException;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+import com.gllue.myproxy.transport.exception.ServerErrorCode;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class DatabaseBeingMovedException extends BaseServerException {
+  private final String database;
+  private final String reason;
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return ServerErrorCode.ER_DATABASE_BEING_MOVED;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return new Object[] {database, reason};
+  }
+}
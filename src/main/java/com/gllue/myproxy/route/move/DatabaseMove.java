@@ -0,0 +1,194 @@
+package com.gllue.myproxy.route.move;
+
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The writes of a database being moved to another data source. The write queries executed on the
+ * source data source by this node are captured once they succeed, and replayed to the target data
+ * source in the capture order. The writes in a transaction are buffered until the transaction is
+ * committed, and dropped if it's rolled back.
+ *
+ * <p>The writes are committed one at a time through the {@link CommitSequencer} of the move, and a
+ * commit releases it only after its writes are captured, so the capture order is the commit order
+ * on the source data source. The writes out of a transaction are executed in a transaction of
+ * their own while the database is being moved, so that they're sequenced by the commit as well.
+ *
+ * <p>The queries are the physical queries sent to the backend, so the queries generated by the
+ * rewriting, like the rows of the extension tables, are replayed as they are. The auto generated
+ * id of an insert is captured with the query and replayed by {@code SET INSERT_ID}, as the
+ * statement based replication of MySQL does.
+ */
+public class DatabaseMove {
+  private static final String[] WRITE_QUERY_KEYWORDS = {
+    "INSERT", "REPLACE", "UPDATE", "DELETE", "TRUNCATE"
+  };
+
+  public enum Phase {
+    PREPARING,
+    COPYING,
+    CUTTING_OVER,
+    DONE,
+    FAILED
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class CapturedWrite {
+    private final long sequence;
+    private final String query;
+    private final long insertId;
+    private final long captureTime;
+  }
+
+  @RequiredArgsConstructor
+  private static class TransactionWrite {
+    private final String query;
+    private final long insertId;
+  }
+
+  @Getter private final String datasource;
+  @Getter private final String database;
+  @Getter private final String sourceDatasource;
+  @Getter private final String targetDatasource;
+  @Getter private final WriteGate writeGate = new WriteGate();
+  @Getter private final CommitSequencer commitSequencer = new CommitSequencer();
+  private final int maxReplayLag;
+
+  private final Map<Integer, List<TransactionWrite>> pendingTransactions =
+      new ConcurrentHashMap<>();
+  private final Deque<CapturedWrite> capturedWrites = new ArrayDeque<>();
+  private long capturedSequence;
+  private volatile long replayedSequence;
+  private volatile Throwable failure;
+  @Getter private volatile Phase phase = Phase.PREPARING;
+
+  public DatabaseMove(
+      final String datasource,
+      final String database,
+      final String sourceDatasource,
+      final String targetDatasource,
+      final int maxReplayLag) {
+    this.datasource = datasource;
+    this.database = database;
+    this.sourceDatasource = sourceDatasource;
+    this.targetDatasource = targetDatasource;
+    this.maxReplayLag = maxReplayLag;
+  }
+
+  /** Whether the query modifies the rows, the leading comments are skipped. */
+  public static boolean isWriteQuery(final String query) {
+    return SQLStatementUtils.startsWithKeyword(query, WRITE_QUERY_KEYWORDS);
+  }
+
+  public void setPhase(final Phase phase) {
+    this.phase = phase;
+  }
+
+  /** Capture a succeeded write query of the frontend connection. */
+  public void capture(
+      final int connectionId,
+      final boolean inTransaction,
+      final String query,
+      final long insertId) {
+    if (inTransaction) {
+      pendingTransactions
+          .computeIfAbsent(connectionId, k -> new ArrayList<>())
+          .add(new TransactionWrite(query, insertId));
+      return;
+    }
+    synchronized (this) {
+      append(query, insertId);
+    }
+  }
+
+  private void append(final String query, final long insertId) {
+    if (failure != null) {
+      return;
+    }
+    if (capturedWrites.size() >= maxReplayLag) {
+      fail(
+          new IllegalStateException(
+              String.format(
+                  "The replay of the writes of the database [%s] falls behind by %d writes.",
+                  database, capturedWrites.size())));
+      capturedWrites.clear();
+      return;
+    }
+    capturedWrites.addLast(
+        new CapturedWrite(++capturedSequence, query, insertId, System.currentTimeMillis()));
+  }
+
+  /** Append the buffered writes of the committed transaction of the frontend connection. */
+  public void commitTransaction(final int connectionId) {
+    var writes = pendingTransactions.remove(connectionId);
+    if (writes == null) {
+      return;
+    }
+    synchronized (this) {
+      for (var write : writes) {
+        append(write.query, write.insertId);
+      }
+    }
+  }
+
+  public void rollbackTransaction(final int connectionId) {
+    pendingTransactions.remove(connectionId);
+  }
+
+  public boolean hasPendingTransaction(final int connectionId) {
+    return pendingTransactions.containsKey(connectionId);
+  }
+
+  public int getNumberOfPendingTransactions() {
+    return pendingTransactions.size();
+  }
+
+  public synchronized long getCapturedSequence() {
+    return capturedSequence;
+  }
+
+  public long getReplayedSequence() {
+    return replayedSequence;
+  }
+
+  /** Returns the next write to replay, or null if all the captured writes are replayed. */
+  public synchronized CapturedWrite peekCapturedWrite() {
+    return capturedWrites.peekFirst();
+  }
+
+  public synchronized void replayed(final CapturedWrite write) {
+    if (capturedWrites.peekFirst() == write) {
+      capturedWrites.pollFirst();
+    }
+    replayedSequence = write.sequence;
+  }
+
+  /** Returns the number of the captured writes which are not replayed yet. */
+  public synchronized int getReplayLag() {
+    return capturedWrites.size();
+  }
+
+  /** Returns the age in milliseconds of the oldest captured write which is not replayed yet. */
+  public synchronized long getReplayLagInMills() {
+    var write = capturedWrites.peekFirst();
+    return write == null ? 0 : System.currentTimeMillis() - write.captureTime;
+  }
+
+  public void fail(final Throwable e) {
+    if (failure == null) {
+      failure = e;
+    }
+  }
+
+  public Throwable getFailure() {
+    return failure;
+  }
+}
@@ -0,0 +1,28 @@
+package com.gllue.myproxy.route.move;
+
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseMoveLoader {
+  private final PersistRepository repository;
+
+  /** Load the databases being moved by the other nodes. */
+  public void load(final String basePath, final DatabaseMoveRegistry registry) {
+    if (!repository.exists(basePath)) {
+      return;
+    }
+
+    var count = 0;
+    for (var key : repository.getChildrenKeys(basePath)) {
+      var items = DatabaseRouteTable.splitKey(key);
+      if (registry.addRemoteMove(items[0], items[1])) {
+        count++;
+      }
+    }
+    log.info("Loaded {} databases being moved.", count);
+  }
+}
@@ -0,0 +1,97 @@
+package com.gllue.myproxy.route.move;
+
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * The databases being moved by this node, keyed by the logical data source and the database, and
+ * the databases being moved by the other nodes, which are published in the repository. The
+ * registry is checked on the write path of every statement, so the empty registry is answered
+ * without a lookup.
+ */
+public class DatabaseMoveRegistry {
+  private final Map<String, DatabaseMove> moves = new ConcurrentHashMap<>();
+  private final Set<String> remoteMoves = ConcurrentHashMap.newKeySet();
+
+  public boolean isEmpty() {
+    return moves.isEmpty() && remoteMoves.isEmpty();
+  }
+
+  @Nullable
+  public DatabaseMove get(final String datasource, @Nullable final String database) {
+    if (database == null || moves.isEmpty()) {
+      return null;
+    }
+    return moves.get(DatabaseRouteTable.joinKey(datasource, database));
+  }
+
+  /** Register the move, returns false if the database is being moved already. */
+  public boolean register(final DatabaseMove move) {
+    var key = DatabaseRouteTable.joinKey(move.getDatasource(), move.getDatabase());
+    return !remoteMoves.contains(key) && moves.putIfAbsent(key, move) == null;
+  }
+
+  public void unregister(final DatabaseMove move) {
+    moves.remove(DatabaseRouteTable.joinKey(move.getDatasource(), move.getDatabase()), move);
+  }
+
+  /**
+   * Record the database being moved by another node, returns false if it's being moved by this
+   * node, whose move is published by itself.
+   */
+  public boolean addRemoteMove(final String datasource, final String database) {
+    var key = DatabaseRouteTable.joinKey(datasource, database);
+    if (moves.containsKey(key)) {
+      return false;
+    }
+    remoteMoves.add(key);
+    return true;
+  }
+
+  public void removeRemoteMove(final String datasource, final String database) {
+    remoteMoves.remove(DatabaseRouteTable.joinKey(datasource, database));
+  }
+
+  /** Whether the database is being moved by another node. */
+  public boolean isMovedByAnotherNode(final String datasource, @Nullable final String database) {
+    if (database == null || remoteMoves.isEmpty()) {
+      return false;
+    }
+    return remoteMoves.contains(DatabaseRouteTable.joinKey(datasource, database));
+  }
+
+  /** Returns the move which has the uncommitted writes of the frontend connection, if any. */
+  @Nullable
+  public DatabaseMove findPendingTransaction(final int connectionId) {
+    if (moves.isEmpty()) {
+      return null;
+    }
+    for (var move : moves.values()) {
+      if (move.hasPendingTransaction(connectionId)) {
+        return move;
+      }
+    }
+    return null;
+  }
+
+  public void commitTransaction(final int connectionId) {
+    if (moves.isEmpty()) {
+      return;
+    }
+    for (var move : moves.values()) {
+      move.commitTransaction(connectionId);
+    }
+  }
+
+  public void rollbackTransaction(final int connectionId) {
+    if (moves.isEmpty()) {
+      return;
+    }
+    for (var move : moves.values()) {
+      move.rollbackTransaction(connectionId);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.gllue.myproxy.route.move;
+
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.constant.ServerConstants;
+import com.gllue.myproxy.repository.ClusterPersistRepository;
+import com.gllue.myproxy.repository.DataChangedEvent;
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import java.nio.charset.StandardCharsets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keep the databases being moved by the other nodes updated in the registry. A node publishes the
+ * move of a database before it waits for the running statements, and deletes it once the move is
+ * done or failed. The writes of the database are rejected by the other nodes in between, since
+ * they cannot be captured by the moving node.
+ *
+ * <p>The routes are watched separately, so the change of the route may be seen after the move is
+ * deleted. The route of the database is reloaded from the repository before its writes are
+ * accepted again, otherwise they may be executed on the source data source after the cut over.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatabaseMoveWatcher {
+  private final String basePath;
+  private final String routeBasePath;
+  private final DatabaseMoveRegistry registry;
+  private final DatabaseRouteTable routeTable;
+  private final ClusterPersistRepository repository;
+
+  public void watch() {
+    repository.watch(basePath, this::dispatch);
+  }
+
+  private void dispatch(final DataChangedEvent event) {
+    var path = event.getKey();
+    if (!path.startsWith(basePath)) {
+      throw new IllegalStateException(
+          String.format("Got an invalid data change event. [path:%s]", path));
+    }
+
+    var key = path.substring(basePath.length());
+    if (key.startsWith(ServerConstants.PATH_SEPARATOR)) {
+      key = key.substring(1);
+    }
+    if (key.isEmpty()) {
+      return;
+    }
+    if (key.contains(ServerConstants.PATH_SEPARATOR)) {
+      throw new IllegalStateException(
+          String.format("Got an invalid data change event. [path:%s]", path));
+    }
+
+    var items = DatabaseRouteTable.splitKey(key);
+    switch (event.getType()) {
+      case CREATED:
+        if (registry.addRemoteMove(items[0], items[1])) {
+          var target = new String((byte[]) event.getValue(), StandardCharsets.UTF_8);
+          log.info("Database [{}] is being moved to datasource [{}] by another node.", key, target);
+        }
+        break;
+      case DELETED:
+        reloadRoute(key, items[0], items[1]);
+        registry.removeRemoteMove(items[0], items[1]);
+        log.info("Database [{}] is not being moved by another node.", key);
+        break;
+      default:
+        break;
+    }
+  }
+
+  private void reloadRoute(final String key, final String datasource, final String database) {
+    var path = PathUtils.joinPaths(routeBasePath, key);
+    if (repository.exists(path)) {
+      var physicalDatasource = new String(repository.get(path), StandardCharsets.UTF_8);
+      routeTable.addRoute(datasource, database, physicalDatasource);
+    } else {
+      routeTable.removeRoute(datasource, database);
+    }
+  }
+}
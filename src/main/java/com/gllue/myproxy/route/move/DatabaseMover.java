@@ -0,0 +1,903 @@
+package com.gllue.myproxy.route.move;
+
+import static com.gllue.myproxy.common.util.SQLStatementUtils.quoteName;
+import static com.gllue.myproxy.constant.TimeConstants.NANOS_PER_SECOND;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.command.result.query.QueryResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import com.gllue.myproxy.route.DatabaseRouteTableInitializer;
+import com.gllue.myproxy.route.move.DatabaseMove.CapturedWrite;
+import com.gllue.myproxy.route.move.DatabaseMove.Phase;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats;
+import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Move a database from its data source to another data source online. The move runs in the
+ * following steps:
+ *
+ * <ol>
+ *   <li>Publish the move in the repository, the other nodes reject the writes of the database
+ *       until the move is done, since their writes cannot be captured. Wait for the publication
+ *       to reach the other nodes, and for the statements which are started on this node before
+ *       the move is registered, the writes of the database are captured from then on.
+ *   <li>Create the database and its tables, including the extension tables of the partition
+ *       tables, on the target data source.
+ *   <li>Replay the captured writes to the target data source serially on a dedicated connection.
+ *   <li>Copy the rows of each table in chunks ordered by the primary key over the dedicated
+ *       connections, pausing between the chunks to protect the backend databases.
+ *   <li>Cut over with the writes of the database frozen: wait for the replay to catch up, then
+ *       switch the route of the database to the target data source, the held writes and the
+ *       following statements run on the target data source.
+ * </ol>
+ *
+ * <p>A chunk is read with the shared locks in a transaction on the source, and the writes are
+ * drained by the write gate after the read, so the writes which the chunk observes are captured
+ * before the captured position recorded for the chunk, and the writes blocked by the locks are
+ * captured after it. The chunk is inserted once the replay reaches the position, so no write is
+ * applied twice or lost on the target.
+ *
+ * <p>The database created on the target data source is dropped if the move fails before the cut
+ * over, the database on the source data source is kept after the move.
+ */
+@Slf4j
+public class DatabaseMover {
+  public static final int DEFAULT_CHUNK_SIZE = 1000;
+  public static final long DEFAULT_CHUNK_PAUSE_IN_MILLS = 10;
+  public static final long DEFAULT_FREEZE_TIMEOUT_IN_MILLS = 1000;
+  public static final int DEFAULT_MAX_FREEZE_ATTEMPTS = 10;
+  public static final int DEFAULT_MAX_REPLAY_LAG = 100000;
+  public static final long DEFAULT_PUBLISH_DELAY_IN_MILLS = 5000;
+
+  private static final long POLL_INTERVAL_IN_MILLS = 10;
+  private static final int MAX_INSERT_SIZE_IN_BYTES = 1024 * 1024;
+
+  private static final Gauge PHASE =
+      Gauge.build()
+          .name("database_move_phase")
+          .labelNames("data_source", "database")
+          .help(
+              "Phase of the database move, "
+                  + "0: preparing, 1: copying, 2: cutting over, 3: done, 4: failed.")
+          .register();
+  private static final Gauge TABLES =
+      Gauge.build()
+          .name("database_move_tables")
+          .labelNames("data_source", "database")
+          .help("Tables to copy of the database move.")
+          .register();
+  private static final Gauge COPIED_TABLES =
+      Gauge.build()
+          .name("database_move_copied_tables")
+          .labelNames("data_source", "database")
+          .help("Copied tables of the database move.")
+          .register();
+  private static final Counter COPIED_ROWS =
+      Counter.build()
+          .name("database_move_copied_rows")
+          .labelNames("data_source", "database")
+          .help("Total rows copied by the database move.")
+          .register();
+  private static final Counter COPIED_BYTES =
+      Counter.build()
+          .name("database_move_copied_bytes")
+          .labelNames("data_source", "database")
+          .help("Total bytes of the insert queries copying the rows of the database move.")
+          .register();
+  private static final Counter REPLAYED_WRITES =
+      Counter.build()
+          .name("database_move_replayed_writes")
+          .labelNames("data_source", "database")
+          .help("Total captured writes replayed to the target data source of the database move.")
+          .register();
+  private static final Gauge REPLAY_LAG =
+      Gauge.build()
+          .name("database_move_replay_lag")
+          .labelNames("data_source", "database")
+          .help("Captured writes which are not replayed yet of the database move.")
+          .register();
+  private static final Gauge REPLAY_LAG_SECONDS =
+      Gauge.build()
+          .name("database_move_replay_lag_seconds")
+          .labelNames("data_source", "database")
+          .help("Age in seconds of the oldest captured write which is not replayed yet.")
+          .register();
+  private static final Summary FREEZE_TIME =
+      Summary.build()
+          .name("database_move_freeze_time_summary")
+          .labelNames("data_source", "database")
+          .help("Time summary in seconds the writes are frozen for the cut over attempts.")
+          .unit("second")
+          .register();
+
+  @RequiredArgsConstructor
+  private static class Table {
+    private final String name;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Integer> keyIndexes = new ArrayList<>();
+  }
+
+  /** The rows copied by a chunk, and the literals of the primary key of the last row. */
+  @RequiredArgsConstructor
+  private static class Chunk {
+    private final int rows;
+    private final String[] lastKey;
+  }
+
+  private final TransportService transportService;
+  private final PersistRepository repository;
+  private final ThreadPool threadPool;
+  private final DatabaseMove move;
+  private final int connectionId;
+  private final String routeBasePath;
+  private final String movePath;
+  private final int chunkSize;
+  private final long chunkPauseInMills;
+  private final long freezeTimeoutInMills;
+  private final int maxFreezeAttempts;
+  private final long publishDelayInMills;
+  private final String[] labels;
+
+  private final List<Table> tables = new ArrayList<>();
+  private BackendConnection sourceConnection;
+  private BackendConnection targetConnection;
+  private BackendConnection replayConnection;
+  private Promise<Boolean> replayFinished;
+  private volatile boolean replayStopped = false;
+  private boolean published = false;
+  private boolean databaseCreated = false;
+  private boolean cutoverDone = false;
+
+  /**
+   * @param move the registered move
+   * @param connectionId the frontend connection which runs the move
+   */
+  public DatabaseMover(
+      final TransportService transportService,
+      final PersistRepository repository,
+      final Configurations configurations,
+      final ThreadPool threadPool,
+      final DatabaseMove move,
+      final int connectionId) {
+    this.transportService = transportService;
+    this.repository = repository;
+    this.threadPool = threadPool;
+    this.move = move;
+    this.connectionId = connectionId;
+    this.routeBasePath = DatabaseRouteTableInitializer.getBasePath(configurations);
+    this.movePath =
+        PathUtils.joinPaths(
+            DatabaseRouteTableInitializer.getMoveBasePath(configurations),
+            DatabaseRouteTable.joinKey(move.getDatasource(), move.getDatabase()));
+    this.chunkSize =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.DATABASE_MOVE_CHUNK_SIZE);
+    this.chunkPauseInMills =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.DATABASE_MOVE_CHUNK_PAUSE_IN_MILLS);
+    this.freezeTimeoutInMills =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.DATABASE_MOVE_FREEZE_TIMEOUT_IN_MILLS);
+    this.maxFreezeAttempts =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.DATABASE_MOVE_MAX_FREEZE_ATTEMPTS);
+    this.publishDelayInMills =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.DATABASE_MOVE_PUBLISH_DELAY_IN_MILLS);
+    this.labels = new String[] {move.getDatasource(), move.getDatabase()};
+  }
+
+  private void enterPhase(final Phase phase) {
+    move.setPhase(phase);
+    PHASE.labels(labels).set(phase.ordinal());
+  }
+
+  private Promise<CommandResult> submit(final BackendConnection connection, final String query) {
+    return transportService.submitQueryToBackendConnection(connection, query);
+  }
+
+  private Promise<Boolean> sleep(final long delayInMills) {
+    return new Promise<>(
+        (cb) ->
+            threadPool.schedule(
+                () -> cb.onSuccess(true),
+                delayInMills,
+                TimeUnit.MILLISECONDS,
+                threadPool.executor(Name.GENERIC)));
+  }
+
+  /**
+   * Wait until the condition is satisfied, returns false if the timeout elapses first. The wait
+   * fails once the move fails.
+   *
+   * @param timeoutInMills 0 means no timeout
+   */
+  private Promise<Boolean> waitUntil(final BooleanSupplier condition, final long timeoutInMills) {
+    var deadline =
+        timeoutInMills > 0 ? System.currentTimeMillis() + timeoutInMills : Long.MAX_VALUE;
+    return new Promise<>((cb) -> poll(condition, deadline, cb));
+  }
+
+  private void poll(
+      final BooleanSupplier condition, final long deadline, final Callback<Boolean> callback) {
+    var failure = move.getFailure();
+    if (failure != null) {
+      callback.onFailure(failure);
+      return;
+    }
+    if (condition.getAsBoolean()) {
+      callback.onSuccess(true);
+      return;
+    }
+    if (System.currentTimeMillis() >= deadline) {
+      callback.onSuccess(false);
+      return;
+    }
+    threadPool.schedule(
+        () -> poll(condition, deadline, callback),
+        POLL_INTERVAL_IN_MILLS,
+        TimeUnit.MILLISECONDS,
+        threadPool.executor(Name.GENERIC));
+  }
+
+  /**
+   * Close the write gate and wait for the in-flight writes, returns false and opens the gate again
+   * if the writes are not drained within the freeze timeout.
+   */
+  private Promise<Boolean> closeWriteGate() {
+    var gate = move.getWriteGate();
+    return new Promise<>(
+        (cb) -> {
+          var done = new AtomicBoolean(false);
+          var timer =
+              threadPool.schedule(
+                  () -> {
+                    if (done.compareAndSet(false, true)) {
+                      gate.open();
+                      cb.onSuccess(false);
+                    }
+                  },
+                  freezeTimeoutInMills,
+                  TimeUnit.MILLISECONDS,
+                  threadPool.executor(Name.GENERIC));
+          gate.close(
+              () -> {
+                if (done.compareAndSet(false, true)) {
+                  timer.cancel(false);
+                  cb.onSuccess(true);
+                }
+              });
+        });
+  }
+
+  private static boolean isStatementDone(
+      final FrontendConnection connection, final String statement) {
+    var stats = connection.getSessionContext().getConnectionStats();
+    // A new statement is a new string, the running statement is done if it's replaced.
+    return connection.isClosed()
+        || stats.getPhase() == ConnectionStats.Phase.IDLE
+        || stats.getStatement() != statement;
+  }
+
+  /**
+   * Wait for the statements which are running when the move is registered, their writes may not
+   * be captured and they may not pass the write gate.
+   */
+  private Promise<Boolean> waitForRunningStatements() {
+    var running = new HashMap<FrontendConnection, String>();
+    for (var connection : transportService.getFrontendConnectionList(move.getDatasource())) {
+      if (connection.connectionId() == connectionId) {
+        continue;
+      }
+      var stats = connection.getSessionContext().getConnectionStats();
+      if (stats.getPhase() != ConnectionStats.Phase.IDLE) {
+        running.put(connection, stats.getStatement());
+      }
+    }
+    return waitUntil(
+        () -> {
+          running.entrySet().removeIf((e) -> isStatementDone(e.getKey(), e.getValue()));
+          return running.isEmpty();
+        },
+        0);
+  }
+
+  /**
+   * Publish the move in the repository and wait for the other nodes to see it, the move fails if
+   * the database is being moved by another node.
+   */
+  private Promise<Boolean> publish() {
+    var target = move.getTargetDatasource().getBytes(StandardCharsets.UTF_8);
+    if (!repository.saveIfAbsent(movePath, target)) {
+      throw new DatabaseMoveException(move.getDatabase(), "it's being moved by another node");
+    }
+    published = true;
+    return sleep(publishDelayInMills);
+  }
+
+  private Promise<Boolean> acquireConnections() {
+    return transportService
+        .acquireDedicatedBackendConnection(move.getSourceDatasource(), move.getDatabase())
+        .thenAsync(
+            (connection) -> {
+              sourceConnection = connection;
+              return transportService.acquireDedicatedBackendConnection(
+                  move.getTargetDatasource(), null);
+            })
+        .then(
+            (connection) -> {
+              targetConnection = connection;
+              return true;
+            });
+  }
+
+  private Promise<Boolean> loadTable(final Table table) {
+    var quotedName = quoteName(table.name);
+    return submit(sourceConnection, "SHOW COLUMNS FROM " + quotedName)
+        .thenAsync(
+            (result) -> {
+              var queryResult = result.getQueryResult();
+              while (queryResult.next()) {
+                // The generated columns cannot be inserted.
+                var extra = queryResult.getStringValue(5);
+                if (extra == null || !extra.toUpperCase().contains("GENERATED")) {
+                  table.columns.add(queryResult.getStringValue(0));
+                }
+              }
+              return submit(
+                  sourceConnection,
+                  String.format("SHOW KEYS FROM %s WHERE `Key_name` = 'PRIMARY'", quotedName));
+            })
+        .then(
+            (result) -> {
+              var queryResult = result.getQueryResult();
+              while (queryResult.next()) {
+                var index = table.columns.indexOf(queryResult.getStringValue(4));
+                if (index < 0) {
+                  throw new DatabaseMoveException(
+                      move.getDatabase(),
+                      String.format(
+                          "the primary key of the table [%s] has a generated column", table.name));
+                }
+                table.keyIndexes.add(index);
+              }
+              if (table.keyIndexes.isEmpty()) {
+                throw new DatabaseMoveException(
+                    move.getDatabase(),
+                    String.format("the table [%s] has no primary key", table.name));
+              }
+              return true;
+            });
+  }
+
+  private Promise<Boolean> loadTables() {
+    return submit(sourceConnection, "SHOW FULL TABLES")
+        .thenAsync(
+            (result) -> {
+              var queryResult = result.getQueryResult();
+              while (queryResult.next()) {
+                var name = queryResult.getStringValue(0);
+                if (!"BASE TABLE".equalsIgnoreCase(queryResult.getStringValue(1))) {
+                  throw new DatabaseMoveException(
+                      move.getDatabase(), String.format("the view [%s] cannot be moved", name));
+                }
+                tables.add(new Table(name));
+              }
+              return submit(sourceConnection, "SHOW TRIGGERS");
+            })
+        .thenAsync(
+            (result) -> {
+              if (result.getQueryResult().next()) {
+                throw new DatabaseMoveException(
+                    move.getDatabase(), "the triggers cannot be moved");
+              }
+              var iterator = tables.iterator();
+              return Promise.<Boolean>chain(
+                  (v) -> iterator.hasNext() ? loadTable(iterator.next()) : null);
+            })
+        .then(
+            (v) -> {
+              TABLES.labels(labels).set(tables.size());
+              COPIED_TABLES.labels(labels).set(0);
+              return true;
+            });
+  }
+
+  private Promise<CommandResult> createTable(final Table table) {
+    return submit(sourceConnection, "SHOW CREATE TABLE " + quoteName(table.name))
+        .thenAsync(
+            (result) -> {
+              var queryResult = result.getQueryResult();
+              queryResult.next();
+              return submit(targetConnection, queryResult.getStringValue(1));
+            });
+  }
+
+  /** Create the database and the tables on the target data source, the database must not exist. */
+  private Promise<Boolean> createDatabase() {
+    var database = move.getDatabase();
+    return submit(sourceConnection, "SHOW CREATE DATABASE " + quoteName(database))
+        .thenAsync(
+            (result) -> {
+              var queryResult = result.getQueryResult();
+              queryResult.next();
+              return submit(targetConnection, queryResult.getStringValue(1));
+            })
+        .thenAsync(
+            (v) -> {
+              databaseCreated = true;
+              return transportService.changeDatabase(targetConnection, database);
+            })
+        // The rows are copied out of the order of the foreign keys.
+        .thenAsync((v) -> submit(targetConnection, "SET FOREIGN_KEY_CHECKS = 0"))
+        .thenAsync(
+            (v) -> {
+              var iterator = tables.iterator();
+              return Promise.<CommandResult>chain(
+                  (r) -> iterator.hasNext() ? createTable(iterator.next()) : null);
+            })
+        .then((v) -> true);
+  }
+
+  private void updateReplayLag() {
+    REPLAY_LAG.labels(labels).set(move.getReplayLag());
+    REPLAY_LAG_SECONDS.labels(labels).set(move.getReplayLagInMills() / 1000.0);
+  }
+
+  private Promise<CommandResult> replay(final CapturedWrite write) {
+    if (write.getInsertId() <= 0) {
+      return submit(replayConnection, write.getQuery());
+    }
+    // The auto generated id is reproduced on the target.
+    return submit(replayConnection, "SET INSERT_ID = " + write.getInsertId())
+        .thenAsync((v) -> submit(replayConnection, write.getQuery()));
+  }
+
+  private void replayNext(final Callback<Boolean> callback) {
+    updateReplayLag();
+    if (replayStopped || move.getFailure() != null) {
+      callback.onSuccess(true);
+      return;
+    }
+
+    var write = move.peekCapturedWrite();
+    if (write == null) {
+      threadPool.schedule(
+          () -> replayNext(callback),
+          POLL_INTERVAL_IN_MILLS,
+          TimeUnit.MILLISECONDS,
+          threadPool.executor(Name.GENERIC));
+      return;
+    }
+
+    replay(write)
+        .then(
+            (v) -> {
+              move.replayed(write);
+              REPLAYED_WRITES.labels(labels).inc();
+              replayNext(callback);
+              return true;
+            },
+            (e) -> {
+              log.error(
+                  "Failed to replay the write [{}] of the database [{}].",
+                  write.getQuery(),
+                  move.getDatabase(),
+                  e);
+              move.fail(e);
+              callback.onSuccess(false);
+              return false;
+            });
+  }
+
+  private Promise<Boolean> startReplay() {
+    return transportService
+        .acquireDedicatedBackendConnection(move.getTargetDatasource(), move.getDatabase())
+        .thenAsync(
+            (connection) -> {
+              replayConnection = connection;
+              return submit(connection, "SET FOREIGN_KEY_CHECKS = 0");
+            })
+        .then(
+            (v) -> {
+              replayFinished = new Promise<>(this::replayNext);
+              return true;
+            });
+  }
+
+  private String selectChunkQuery(final Table table, final String[] lastKey) {
+    var columns = new ArrayList<String>();
+    for (var column : table.columns) {
+      columns.add(quoteName(column));
+    }
+    var keys = new ArrayList<String>();
+    for (var index : table.keyIndexes) {
+      keys.add(columns.get(index));
+    }
+
+    var builder = new StringBuilder("SELECT ");
+    builder.append(String.join(", ", columns)).append(" FROM ").append(quoteName(table.name));
+    if (lastKey != null) {
+      builder
+          .append(" WHERE (")
+          .append(String.join(", ", keys))
+          .append(") > (")
+          .append(String.join(", ", lastKey))
+          .append(')');
+    }
+    builder.append(" ORDER BY ").append(String.join(", ", keys));
+    builder.append(" LIMIT ").append(chunkSize).append(" LOCK IN SHARE MODE");
+    return builder.toString();
+  }
+
+  private Chunk insertChunk(
+      final Table table, final QueryResult queryResult, final List<String> queries) {
+    var columns = new ArrayList<String>();
+    for (var column : table.columns) {
+      columns.add(quoteName(column));
+    }
+    var head =
+        String.format(
+            "INSERT IGNORE INTO %s (%s) VALUES ",
+            quoteName(table.name), String.join(", ", columns));
+
+    var metaData = queryResult.getMetaData();
+    var columnCount = metaData.getColumnCount();
+    var builder = new StringBuilder(head);
+    var rowBuilder = new StringBuilder();
+    var rowsInQuery = 0;
+    var rows = 0;
+    var lastKey = new String[table.keyIndexes.size()];
+    while (queryResult.next()) {
+      rowBuilder.setLength(0);
+      rowBuilder.append('(');
+      for (int i = 0; i < columnCount; i++) {
+        if (i > 0) {
+          rowBuilder.append(", ");
+        }
+        ValueLiterals.append(
+            rowBuilder,
+            metaData.getColumnType(i),
+            metaData.getColumnFlags(i),
+            queryResult.getValue(i));
+      }
+      rowBuilder.append(')');
+      for (int i = 0; i < lastKey.length; i++) {
+        var index = table.keyIndexes.get(i);
+        lastKey[i] =
+            ValueLiterals.toLiteral(
+                metaData.getColumnType(index),
+                metaData.getColumnFlags(index),
+                queryResult.getValue(index));
+      }
+
+      var size = builder.length() + rowBuilder.length() + 2;
+      if (rowsInQuery > 0 && size > MAX_INSERT_SIZE_IN_BYTES) {
+        queries.add(builder.toString());
+        builder.setLength(0);
+        builder.append(head);
+        rowsInQuery = 0;
+      }
+      if (rowsInQuery > 0) {
+        builder.append(", ");
+      }
+      builder.append(rowBuilder);
+      rowsInQuery++;
+      rows++;
+    }
+    if (rowsInQuery > 0) {
+      queries.add(builder.toString());
+    }
+    return new Chunk(rows, lastKey);
+  }
+
+  /**
+   * Synchronize the chunk read by the source transaction with the replay, returns false if the
+   * writes cannot be drained in time. The read is done before the gate is closed, otherwise the
+   * read may wait for a transaction whose commit is held by the gate.
+   */
+  private Promise<Boolean> syncChunk() {
+    return closeWriteGate()
+        .thenAsync(
+            (drained) -> {
+              if (!drained) {
+                return Promise.emptyPromise(false);
+              }
+              var sequence = move.getCapturedSequence();
+              move.getWriteGate().open();
+              return waitUntil(() -> move.getReplayedSequence() >= sequence, 0);
+            });
+  }
+
+  /** Copy a chunk of rows, returns null if the chunk should be retried. */
+  private Promise<Chunk> copyChunk(final Table table, final String[] lastKey) {
+    var sequence = move.getCapturedSequence();
+    var queries = new ArrayList<String>();
+    var chunk = new Chunk[1];
+    // Catch up first, so the chunk waits for the writes captured during the read only.
+    return waitUntil(() -> move.getReplayedSequence() >= sequence, 0)
+        .thenAsync((v) -> submit(sourceConnection, "BEGIN"))
+        .thenAsync((v) -> submit(sourceConnection, selectChunkQuery(table, lastKey)))
+        .thenAsync(
+            (result) -> {
+              chunk[0] = insertChunk(table, result.getQueryResult(), queries);
+              return syncChunk();
+            })
+        .thenAsync(
+            (synced) -> {
+              if (!synced) {
+                return submit(sourceConnection, "ROLLBACK").then((v) -> (Chunk) null);
+              }
+              var iterator = queries.iterator();
+              return Promise.<CommandResult>chain(
+                      (v) -> iterator.hasNext() ? submit(targetConnection, iterator.next()) : null)
+                  .thenAsync((v) -> submit(sourceConnection, "COMMIT"))
+                  .then(
+                      (v) -> {
+                        COPIED_ROWS.labels(labels).inc(chunk[0].rows);
+                        for (var query : queries) {
+                          COPIED_BYTES.labels(labels).inc(query.length());
+                        }
+                        return chunk[0];
+                      });
+            });
+  }
+
+  private void copyNextChunk(
+      final Table table,
+      final String[] lastKey,
+      final long copiedRows,
+      final int attempts,
+      final Callback<Long> callback) {
+    copyChunk(table, lastKey)
+        .thenAsync(
+            (chunk) -> {
+              if (chunk == null) {
+                if (attempts + 1 >= maxFreezeAttempts) {
+                  throw new DatabaseMoveException(
+                      move.getDatabase(),
+                      String.format(
+                          "the writes are not drained for a chunk of the table [%s]", table.name));
+                }
+                return sleep(chunkPauseInMills)
+                    .then(
+                        (v) -> {
+                          copyNextChunk(table, lastKey, copiedRows, attempts + 1, callback);
+                          return true;
+                        });
+              }
+
+              var rows = copiedRows + chunk.rows;
+              if (chunk.rows < chunkSize) {
+                callback.onSuccess(rows);
+                return Promise.emptyPromise(true);
+              }
+              return sleep(chunkPauseInMills)
+                  .then(
+                      (v) -> {
+                        copyNextChunk(table, chunk.lastKey, rows, 0, callback);
+                        return true;
+                      });
+            })
+        .doCatch(
+            (e) -> {
+              callback.onFailure(e);
+              return false;
+            });
+  }
+
+  private Promise<Long> copyTables() {
+    enterPhase(Phase.COPYING);
+    var iterator = tables.iterator();
+    var copiedTables = new int[] {0};
+    var totalRows = new long[] {0};
+    return Promise.<Long>chain(
+            (v) -> {
+              if (!iterator.hasNext()) {
+                return null;
+              }
+              var table = iterator.next();
+              return new Promise<Long>((cb) -> copyNextChunk(table, null, 0, 0, cb))
+                  .then(
+                      (rows) -> {
+                        totalRows[0] += rows;
+                        COPIED_TABLES.labels(labels).set(++copiedTables[0]);
+                        log.info(
+                            "Copied {} rows of the table [{}] of the database [{}].",
+                            rows,
+                            table.name,
+                            move.getDatabase());
+                        return rows;
+                      });
+            })
+        .then((v) -> totalRows[0]);
+  }
+
+  /** Switch the route of the database to the target data source. */
+  private boolean switchRoute() {
+    var datasource = move.getDatasource();
+    var database = move.getDatabase();
+    var target = move.getTargetDatasource();
+    var path = PathUtils.joinPaths(routeBasePath, DatabaseRouteTable.joinKey(datasource, database));
+    if (target.equals(datasource)) {
+      if (repository.exists(path)) {
+        repository.delete(path);
+      }
+    } else {
+      repository.save(path, target.getBytes(StandardCharsets.UTF_8));
+    }
+    transportService.getDatabaseRouteTable().addRoute(datasource, database, target);
+    transportService.getDatabaseMoveRegistry().unregister(move);
+    cutoverDone = true;
+    return true;
+  }
+
+  /**
+   * Freeze the writes and switch the route once the replay catches up. The cut over is attempted
+   * again if the writes are not drained or a transaction has the uncommitted writes, whose commit
+   * is held by the freeze.
+   */
+  private Promise<Boolean> cutover(final int attempt) {
+    var startTime = new long[1];
+    return waitUntil(
+            () -> move.getReplayLag() == 0 && move.getNumberOfPendingTransactions() == 0, 0)
+        .thenAsync(
+            (v) -> {
+              startTime[0] = System.nanoTime();
+              return closeWriteGate();
+            })
+        .thenAsync(
+            (drained) -> {
+              if (!drained || move.getNumberOfPendingTransactions() > 0) {
+                return Promise.emptyPromise(false);
+              }
+              var elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime[0]);
+              return waitUntil(
+                  () -> move.getReplayedSequence() >= move.getCapturedSequence(),
+                  Math.max(freezeTimeoutInMills - elapsed, 1));
+            })
+        .thenAsync(
+            (ready) -> {
+              try {
+                if (ready) {
+                  replayStopped = true;
+                  return Promise.emptyPromise(switchRoute());
+                }
+              } finally {
+                move.getWriteGate().open();
+                FREEZE_TIME
+                    .labels(labels)
+                    .observe((System.nanoTime() - startTime[0]) / NANOS_PER_SECOND);
+              }
+
+              if (attempt + 1 >= maxFreezeAttempts) {
+                throw new DatabaseMoveException(
+                    move.getDatabase(), "the writes cannot be frozen for the cut over");
+              }
+              log.info(
+                  "Failed to freeze the writes of the database [{}], retry the cut over.",
+                  move.getDatabase());
+              return sleep(chunkPauseInMills).thenAsync((v) -> cutover(attempt + 1));
+            });
+  }
+
+  private Promise<Boolean> releaseConnection(
+      final BackendConnection connection, final List<String> queries) {
+    if (connection == null) {
+      return Promise.emptyPromise(true);
+    }
+    var iterator = queries.iterator();
+    return Promise.<CommandResult>chain(
+            (v) -> iterator.hasNext() ? submit(connection, iterator.next()) : null)
+        .then(
+            (v) -> true,
+            (e) -> {
+              log.warn("Failed to reset the dedicated backend connection of the move.", e);
+              return false;
+            })
+        .doFinally(
+            () -> {
+              connection.close();
+              return true;
+            });
+  }
+
+  /** Stop the capture and the replay, and release the connections. */
+  private Promise<Boolean> cleanup(final Throwable e) {
+    replayStopped = true;
+    transportService.getDatabaseMoveRegistry().unregister(move);
+    move.getWriteGate().open();
+    enterPhase(e == null ? Phase.DONE : Phase.FAILED);
+    updateReplayLag();
+    if (published) {
+      // The route is switched before, the other nodes reload it before accepting the writes.
+      try {
+        repository.delete(movePath);
+      } catch (Exception exception) {
+        log.error("Failed to delete the published move of [{}].", move.getDatabase(), exception);
+      }
+    }
+
+    var targetQueries = new ArrayList<String>();
+    if (databaseCreated && !cutoverDone) {
+      targetQueries.add("DROP DATABASE " + quoteName(move.getDatabase()));
+    }
+    targetQueries.add("SET FOREIGN_KEY_CHECKS = 1");
+    var replay =
+        replayFinished == null ? Promise.emptyPromise(true) : replayFinished.then((v) -> true);
+    return releaseConnection(sourceConnection, List.of("ROLLBACK"))
+        .thenAsync((v) -> releaseConnection(targetConnection, targetQueries))
+        .thenAsync((v) -> replay)
+        .thenAsync(
+            (v) -> releaseConnection(replayConnection, List.of("SET FOREIGN_KEY_CHECKS = 1")));
+  }
+
+  /** Returns the number of the copied rows. */
+  public Promise<Long> execute() {
+    log.info(
+        "Move the database [{}] from the data source [{}] to [{}].",
+        move.getDatabase(),
+        move.getSourceDatasource(),
+        move.getTargetDatasource());
+    enterPhase(Phase.PREPARING);
+    var copiedRows = new long[] {0};
+    return Promise.emptyPromise(true)
+        .thenAsync((v) -> publish())
+        .thenAsync((v) -> waitForRunningStatements())
+        .thenAsync((v) -> acquireConnections())
+        .thenAsync((v) -> loadTables())
+        .thenAsync((v) -> createDatabase())
+        .thenAsync((v) -> startReplay())
+        .thenAsync((v) -> copyTables())
+        .thenAsync(
+            (rows) -> {
+              copiedRows[0] = rows;
+              enterPhase(Phase.CUTTING_OVER);
+              return cutover(0);
+            })
+        .<Boolean>doCatchAsync(
+            (e) -> {
+              log.error("Failed to move the database [{}].", move.getDatabase(), e);
+              return cleanup(e)
+                  .then(
+                      (v) -> {
+                        if (e instanceof RuntimeException) {
+                          throw (RuntimeException) e;
+                        }
+                        throw new IllegalStateException(e);
+                      });
+            })
+        .thenAsync((v) -> cleanup(null))
+        .then(
+            (v) -> {
+              log.info(
+                  "Moved the database [{}] to the data source [{}], {} rows copied.",
+                  move.getDatabase(),
+                  move.getTargetDatasource(),
+                  copiedRows[0]);
+              return copiedRows[0];
+            });
+  }
+}
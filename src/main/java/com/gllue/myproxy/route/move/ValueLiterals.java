@@ -0,0 +1,82 @@
+package com.gllue.myproxy.route.move;
+
+import com.gllue.myproxy.transport.constant.MySQLColumnDefinitionFlags;
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+
+/**
+ * Render the values of the text protocol result set as the SQL literals which insert the same
+ * values. The numbers are rendered as they are, the other values are rendered as the hexadecimal
+ * literals so that no escaping is needed. The character strings are introduced by utf8mb4, the
+ * character set of the backend connections, so they are converted to the character sets of the
+ * target columns, while the binary strings are kept as the raw bytes.
+ */
+public class ValueLiterals {
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  private static final String CHARACTER_STRING_INTRODUCER = "_utf8mb4 ";
+
+  private ValueLiterals() {}
+
+  private static boolean isNumber(final MySQLColumnType type) {
+    switch (type) {
+      case MYSQL_TYPE_DECIMAL:
+      case MYSQL_TYPE_NEWDECIMAL:
+      case MYSQL_TYPE_TINY:
+      case MYSQL_TYPE_SHORT:
+      case MYSQL_TYPE_LONG:
+      case MYSQL_TYPE_INT24:
+      case MYSQL_TYPE_LONGLONG:
+      case MYSQL_TYPE_FLOAT:
+      case MYSQL_TYPE_DOUBLE:
+      case MYSQL_TYPE_YEAR:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isBinaryString(final MySQLColumnType type, final int flags) {
+    // A JSON value cannot be created from a binary string.
+    if (type == MySQLColumnType.MySQL_TYPE_JSON) {
+      return false;
+    }
+    return type == MySQLColumnType.MYSQL_TYPE_BIT
+        || type == MySQLColumnType.MYSQL_TYPE_GEOMETRY
+        || (flags & MySQLColumnDefinitionFlags.BINARY_FLAG.getValue()) != 0;
+  }
+
+  public static void append(
+      final StringBuilder builder,
+      final MySQLColumnType type,
+      final int flags,
+      final byte[] value) {
+    if (value == null) {
+      builder.append("NULL");
+      return;
+    }
+    if (isNumber(type)) {
+      for (var b : value) {
+        builder.append((char) b);
+      }
+      return;
+    }
+    if (value.length == 0) {
+      builder.append("''");
+      return;
+    }
+
+    if (!isBinaryString(type, flags)) {
+      builder.append(CHARACTER_STRING_INTRODUCER);
+    }
+    builder.append("X'");
+    for (var b : value) {
+      builder.append(HEX_DIGITS[(b >> 4) & 0x0f]).append(HEX_DIGITS[b & 0x0f]);
+    }
+    builder.append('\'');
+  }
+
+  public static String toLiteral(final MySQLColumnType type, final int flags, final byte[] value) {
+    var builder = new StringBuilder();
+    append(builder, type, flags, value);
+    return builder.toString();
+  }
+}
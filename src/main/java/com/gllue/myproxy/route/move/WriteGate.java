@@ -0,0 +1,99 @@
+package com.gllue.myproxy.route.move;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An asynchronous gate of the writes of a database being moved. The writes pass the gate while it
+ * is open and are counted until they exit, the move job closes the gate to wait for the in-flight
+ * writes to finish while the new writes are held back. The held writes are resumed in the arrival
+ * order once the gate is opened again.
+ *
+ * <p>No thread is blocked by the gate, a held write is a task which is run by the thread opening
+ * the gate. Every write which enters the gate, either passed or held, must exit exactly once.
+ */
+public class WriteGate {
+  private final Deque<Runnable> heldWrites = new ArrayDeque<>();
+  private int activeWrites;
+  private boolean closed;
+  private Runnable drainListener;
+
+  /**
+   * Enter the gate, returns true if the write can be executed now, otherwise the write is held
+   * and the resume task is run once the gate is opened.
+   */
+  public boolean enter(final Runnable resume) {
+    synchronized (this) {
+      if (closed) {
+        heldWrites.addLast(resume);
+        return false;
+      }
+      activeWrites++;
+      return true;
+    }
+  }
+
+  public void exit() {
+    Runnable listener = null;
+    synchronized (this) {
+      Preconditions.checkState(activeWrites > 0, "No active writes.");
+      activeWrites--;
+      if (activeWrites == 0 && drainListener != null) {
+        listener = drainListener;
+        drainListener = null;
+      }
+    }
+    if (listener != null) {
+      listener.run();
+    }
+  }
+
+  /**
+   * Close the gate to hold back the new writes, the listener is invoked once all the in-flight
+   * writes exit.
+   */
+  public void close(final Runnable drainListener) {
+    synchronized (this) {
+      Preconditions.checkState(!closed, "The gate has been closed.");
+      closed = true;
+      if (activeWrites > 0) {
+        this.drainListener = drainListener;
+        return;
+      }
+    }
+    drainListener.run();
+  }
+
+  /** Open the gate and resume the held writes, the pending drain listener is discarded. */
+  public void open() {
+    List<Runnable> writes;
+    synchronized (this) {
+      if (!closed) {
+        return;
+      }
+      closed = false;
+      drainListener = null;
+      writes = new ArrayList<>(heldWrites);
+      heldWrites.clear();
+      activeWrites += writes.size();
+    }
+    for (var write : writes) {
+      write.run();
+    }
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  public synchronized int getActiveWrites() {
+    return activeWrites;
+  }
+
+  public synchronized int getHeldWrites() {
+    return heldWrites.size();
+  }
+}
@@ -1,22 +1,70 @@
 package com.gllue.myproxy.sql.parser;
 
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.gllue.myproxy.sql.stmt.SQLCompactExtensionTablesStatement;
+import com.gllue.myproxy.sql.stmt.SQLMoveDatabaseStatement;
+import com.gllue.myproxy.sql.stmt.SQLRepackExtensionTablesStatement;
+import com.gllue.myproxy.sql.stmt.SQLShowExtensionColumnAdviceStatement;
 import com.gllue.myproxy.sql.stmt.SQLShowMetricsStatement;
+import com.gllue.myproxy.sql.stmt.SQLShowProxyProcessListStatement;
 import java.util.regex.Pattern;
 
 public class CustomSQLStatementParser implements SQLStatementParser {
   private static final Pattern SHOW_METRICS_PATTERN =
       Pattern.compile("^\\s*show\\s*metrics\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
+  private static final Pattern SHOW_PROXY_PROCESS_LIST_PATTERN =
+      Pattern.compile(
+          "^\\s*show\\s+proxy\\s+processlist\\s*;?\\s*$", Pattern.CASE_INSENSITIVE);
+  private static final Pattern SHOW_EXTENSION_COLUMN_ADVICE_PATTERN =
+      Pattern.compile(
+          "^\\s*show\\s+extension\\s+column\\s+advice\\s+for\\s+`?([^`\\s;]+)`?\\s*;?\\s*$",
+          Pattern.CASE_INSENSITIVE);
+  private static final Pattern REPACK_EXTENSION_TABLES_PATTERN =
+      Pattern.compile(
+          "^\\s*repack\\s+extension\\s+tables\\s+for\\s+`?([^`\\s;]+)`?\\s*;?\\s*$",
+          Pattern.CASE_INSENSITIVE);
+  private static final Pattern COMPACT_EXTENSION_TABLES_PATTERN =
+      Pattern.compile(
+          "^\\s*compact\\s+extension\\s+tables\\s+for\\s+`?([^`\\s;]+)`?\\s*;?\\s*$",
+          Pattern.CASE_INSENSITIVE);
+  private static final Pattern MOVE_DATABASE_PATTERN =
+      Pattern.compile(
+          "^\\s*move\\s+database\\s+`?([^`\\s;]+)`?"
+              + "\\s+to\\s+datasource\\s+`?([^`\\s;]+)`?\\s*;?\\s*$",
+          Pattern.CASE_INSENSITIVE);
 
   private boolean isShowMetricsQuery(String query) {
     return SHOW_METRICS_PATTERN.matcher(query).matches();
   }
 
+  private boolean isShowProxyProcessListQuery(String query) {
+    return SHOW_PROXY_PROCESS_LIST_PATTERN.matcher(query).matches();
+  }
+
   @Override
   public SQLStatement parseStatement(String query) {
     if (isShowMetricsQuery(query)) {
       return new SQLShowMetricsStatement();
     }
+    if (isShowProxyProcessListQuery(query)) {
+      return new SQLShowProxyProcessListStatement();
+    }
+    var matcher = SHOW_EXTENSION_COLUMN_ADVICE_PATTERN.matcher(query);
+    if (matcher.matches()) {
+      return new SQLShowExtensionColumnAdviceStatement(matcher.group(1));
+    }
+    matcher = REPACK_EXTENSION_TABLES_PATTERN.matcher(query);
+    if (matcher.matches()) {
+      return new SQLRepackExtensionTablesStatement(matcher.group(1));
+    }
+    matcher = COMPACT_EXTENSION_TABLES_PATTERN.matcher(query);
+    if (matcher.matches()) {
+      return new SQLCompactExtensionTablesStatement(matcher.group(1));
+    }
+    matcher = MOVE_DATABASE_PATTERN.matcher(query);
+    if (matcher.matches()) {
+      return new SQLMoveDatabaseStatement(matcher.group(1), matcher.group(2));
+    }
 
     return null;
   }
@@ -6,5 +6,11 @@ public enum SQLCommentAttributeKey {
   MAX_COLUMNS_IN_EXTENSION_TABLE,
 
   ENCRYPT_KEY,
+
+  ROUTE,
+
+  RESULT_CACHE,
+
+  MAX_EXECUTION_TIME,
   ;
 }
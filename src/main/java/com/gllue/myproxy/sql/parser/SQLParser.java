@@ -1,12 +1,21 @@
 package com.gllue.myproxy.sql.parser;
 
 import com.alibaba.druid.sql.ast.SQLStatement;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class SQLParser {
+  private static final ObjectMapper COMMENT_ATTRIBUTES_MAPPER =
+      new ObjectMapper()
+          .configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true)
+          .configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
 
   private final DruidSQLStatementParser druidParser;
   private final ExtendedSQLStatementParser extendedParser;
@@ -52,14 +61,77 @@ public class SQLParser {
   /**
    * # { EXTENSION_COLUMNS: ["column1", "column2", ...] }
    *
-   * @param comments
-   * @return
+   * <p>Comments which are not wrapped by braces are ignored, list values are converted to string
+   * arrays and unknown attribute keys are skipped.
+   *
+   * @param comments comments of the statement.
+   * @return the attributes parsed from the comments.
    */
   public Map<SQLCommentAttributeKey, Object> parseComments(List<String> comments) {
     if (comments == null || comments.isEmpty()) {
       return Map.of();
     }
-    // todo: parse comments
+
+    Map<SQLCommentAttributeKey, Object> attributes = new EnumMap<>(SQLCommentAttributeKey.class);
+    for (var comment : comments) {
+      var content = stripCommentMarkers(comment);
+      if (!content.startsWith("{") || !content.endsWith("}")) {
+        continue;
+      }
+      for (var entry : readCommentAttributes(content).entrySet()) {
+        var key = getAttributeKey(entry.getKey());
+        if (key == null) {
+          if (log.isDebugEnabled()) {
+            log.debug("Ignore unknown comment attribute. [{}]", entry.getKey());
+          }
+          continue;
+        }
+        attributes.put(key, convertAttributeValue(entry.getValue()));
+      }
+    }
+    return attributes.isEmpty() ? Map.of() : Collections.unmodifiableMap(attributes);
+  }
+
+  private String stripCommentMarkers(String comment) {
+    var content = comment.trim();
+    if (content.startsWith("/*") && content.endsWith("*/")) {
+      content = content.substring(2, content.length() - 2);
+    } else if (content.startsWith("#")) {
+      content = content.substring(1);
+    } else if (content.startsWith("--")) {
+      content = content.substring(2);
+    }
+    return content.trim();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> readCommentAttributes(String content) {
+    try {
+      return COMMENT_ATTRIBUTES_MAPPER.readValue(content, Map.class);
+    } catch (IOException e) {
+      throw new SQLParseException(
+          String.format("Bad comment attributes. [%s]", content.replace('\n', ' ')));
+    }
+  }
+
+  private SQLCommentAttributeKey getAttributeKey(String name) {
+    for (var key : SQLCommentAttributeKey.values()) {
+      if (key.name().equalsIgnoreCase(name)) {
+        return key;
+      }
+    }
     return null;
   }
+
+  private Object convertAttributeValue(Object value) {
+    if (value instanceof List) {
+      var list = (List<?>) value;
+      var array = new String[list.size()];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = String.valueOf(list.get(i));
+      }
+      return array;
+    }
+    return value;
+  }
 }
@@ -0,0 +1,13 @@
+package com.gllue.myproxy.sql.stmt;
+
+import com.alibaba.druid.sql.ast.SQLStatementImpl;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** {@code MOVE DATABASE database TO DATASOURCE datasource}. */
+@Getter
+@RequiredArgsConstructor
+public class SQLMoveDatabaseStatement extends SQLStatementImpl {
+  private final String databaseName;
+  private final String targetDatasource;
+}
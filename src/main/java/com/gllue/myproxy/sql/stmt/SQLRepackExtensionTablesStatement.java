@@ -0,0 +1,12 @@
+package com.gllue.myproxy.sql.stmt;
+
+import com.alibaba.druid.sql.ast.SQLStatementImpl;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** {@code REPACK EXTENSION TABLES FOR table}. */
+@Getter
+@RequiredArgsConstructor
+public class SQLRepackExtensionTablesStatement extends SQLStatementImpl {
+  private final String tableName;
+}
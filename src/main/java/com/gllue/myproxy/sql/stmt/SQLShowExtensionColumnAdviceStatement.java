@@ -0,0 +1,14 @@
+package com.gllue.myproxy.sql.stmt;
+
+import com.alibaba.druid.sql.ast.SQLStatementImpl;
+import com.alibaba.druid.sql.ast.statement.SQLShowStatement;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** {@code SHOW EXTENSION COLUMN ADVICE FOR table}. */
+@Getter
+@RequiredArgsConstructor
+public class SQLShowExtensionColumnAdviceStatement extends SQLStatementImpl
+    implements SQLShowStatement {
+  private final String tableName;
+}
@@ -0,0 +1,7 @@
+package com.gllue.myproxy.sql.stmt;
+
+import com.alibaba.druid.sql.ast.SQLStatementImpl;
+import com.alibaba.druid.sql.ast.statement.SQLShowStatement;
+
+public class SQLShowProxyProcessListStatement extends SQLStatementImpl
+    implements SQLShowStatement {}
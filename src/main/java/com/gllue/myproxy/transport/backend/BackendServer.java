@@ -8,6 +8,7 @@ import com.gllue.myproxy.config.TransportConfigPropertyKey;
 import com.gllue.myproxy.transport.backend.connection.BackendConnectionListener;
 import com.gllue.myproxy.transport.backend.connection.ConnectionArguments;
 import com.gllue.myproxy.transport.backend.netty.BackendChannelOutboundHandler;
+import com.gllue.myproxy.transport.core.netty.CompressionOptions;
 import com.gllue.myproxy.transport.core.netty.MySQLPayloadCodecHandler;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -42,6 +43,8 @@ public class BackendServer implements Initializer {
 
   private Configurations configurations;
 
+  private CompressionOptions compressionOptions;
+
   @Override
   public String name() {
     return "backend server";
@@ -50,6 +53,7 @@ public class BackendServer implements Initializer {
   @Override
   public void initialize(final ServerContext context) {
     configurations = context.getConfigurations();
+    compressionOptions = createCompressionOptions();
     eventLoopGroup = createEventLoopGroup();
     var bootstrap = new Bootstrap();
     bootstrap.group(eventLoopGroup).channel(channelClass());
@@ -60,7 +64,7 @@ public class BackendServer implements Initializer {
   public ChannelFuture connect(
       final ConnectionArguments connArgs, final BackendConnectionListener listener) {
     var bootstrap = this.bootstrap.clone(this.bootstrap.config().group());
-    bootstrap.handler(new ConnectionChannelInitializer(connArgs, listener));
+    bootstrap.handler(new ConnectionChannelInitializer(connArgs, listener, compressionOptions));
     return bootstrap.connect(connArgs.getSocketAddress());
   }
 
@@ -75,6 +79,7 @@ public class BackendServer implements Initializer {
   static class ConnectionChannelInitializer extends ChannelInitializer<SocketChannel> {
     private final ConnectionArguments connArguments;
     private final BackendConnectionListener backendConnListener;
+    private final CompressionOptions compressionOptions;
 
     @Override
     protected void initChannel(SocketChannel ch) throws Exception {
@@ -82,10 +87,22 @@ public class BackendServer implements Initializer {
         ch.pipeline().addLast(new LoggingHandler(LogLevel.INFO));
       }
       ch.pipeline().addLast(new MySQLPayloadCodecHandler());
-      ch.pipeline().addLast(new BackendChannelOutboundHandler(connArguments, backendConnListener));
+      ch.pipeline()
+          .addLast(
+              new BackendChannelOutboundHandler(
+                  connArguments, backendConnListener, compressionOptions));
     }
   }
 
+  private CompressionOptions createCompressionOptions() {
+    return new CompressionOptions(
+        configurations.getValue(
+            Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_COMPRESSION_ENABLED),
+        configurations.getValue(
+            Type.TRANSPORT, TransportConfigPropertyKey.COMPRESSION_THRESHOLD_IN_BYTES),
+        configurations.getValue(Type.TRANSPORT, TransportConfigPropertyKey.COMPRESSION_LEVEL));
+  }
+
   private EventLoopGroup createEventLoopGroup() {
     int workerCount =
         configurations.getValue(Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_WORKER_COUNT);
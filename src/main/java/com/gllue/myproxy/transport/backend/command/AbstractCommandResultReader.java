@@ -1,12 +1,14 @@
 package com.gllue.myproxy.transport.backend.command;
 
 import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.command.trace.QueryTrace;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.transport.backend.BackendResultReadException;
 import com.gllue.myproxy.transport.core.connection.Connection;
 import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
 import com.gllue.myproxy.transport.exception.ServerErrorCode;
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
@@ -21,6 +23,12 @@ public abstract class AbstractCommandResultReader implements CommandResultReader
   private Throwable throwable;
   private boolean prepared = false;
 
+  private QueryTrace queryTrace;
+  private ConnectionStats connectionStats;
+  private long readRows = 0;
+  private long readBytes = 0;
+  private volatile Throwable interruptCause;
+
   private WeakReference<Connection> connectionRef;
 
   public AbstractCommandResultReader() {
@@ -37,9 +45,55 @@ public abstract class AbstractCommandResultReader implements CommandResultReader
       prepareRead();
       prepared = true;
     }
+    if (queryTrace != null) {
+      // Including the packet header.
+      readBytes += payload.readableBytes() + 4;
+    }
     return doRead(payload);
   }
 
+  /** Invoked by the sub-classes when a row of the result set is read. */
+  protected void countRow() {
+    readRows++;
+  }
+
+  @Override
+  public void setQueryTrace(QueryTrace trace) {
+    this.queryTrace = trace;
+  }
+
+  @Override
+  public void setConnectionStats(ConnectionStats stats) {
+    this.connectionStats = stats;
+  }
+
+  @Override
+  public void interrupt(Throwable cause) {
+    this.interruptCause = cause;
+  }
+
+  /** The cause of the interruption, null if the command is not interrupted. */
+  protected Throwable getInterruptCause() {
+    return interruptCause;
+  }
+
+  /** Whether the rows are transferred to the frontend connection directly. */
+  protected boolean isDirectTransfer() {
+    return false;
+  }
+
+  private void reportReadStats() {
+    if (queryTrace != null) {
+      queryTrace.backendQueryCompleted(readRows, readBytes);
+    }
+    if (connectionStats != null) {
+      connectionStats.rowsReceived(readRows);
+      if (isDirectTransfer()) {
+        connectionStats.rowsSent(readRows);
+      }
+    }
+  }
+
   @Override
   public void bindConnection(Connection connection) {
     assert this.connectionRef == null;
@@ -50,6 +104,11 @@ public abstract class AbstractCommandResultReader implements CommandResultReader
     return connectionRef.get();
   }
 
+  /** Whether the result sets read from the connection are terminated by the EOF OK packet. */
+  protected boolean isEofDeprecated() {
+    return getConnection().isEofDeprecated();
+  }
+
   @Override
   public CommandResultReader addCallback(Callback<CommandResult> callback) {
     this.callbacks.add(callback);
@@ -102,12 +161,15 @@ public abstract class AbstractCommandResultReader implements CommandResultReader
 
   @Override
   public void fireReadCompletedEvent() {
+    reportReadStats();
     if (commandResult != null) {
       for (var callback : callbacks) {
         getExecutor(callback).execute(onSuccessRunnable(callback, commandResult));
       }
     } else {
-      if (throwable == null) {
+      if (interruptCause != null) {
+        throwable = interruptCause;
+      } else if (throwable == null) {
         throwable = new BackendResultReadException(MySQLServerErrorCode.ER_NET_READ_ERROR);
       }
       for (var callback : callbacks) {
@@ -3,6 +3,7 @@ package com.gllue.myproxy.transport.backend.command;
 import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.transport.backend.BackendResultReadException;
 import com.gllue.myproxy.transport.exception.CustomErrorCode;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
@@ -19,13 +20,16 @@ public abstract class AbstractFieldListResultReader extends AbstractCommandResul
   }
 
   protected ColumnDefinitionPacketWrapper readColumnDef(final MySQLPayload payload) {
-    var wrapper = ColumnDefinitionPacketWrapper.newInstance(payload, true);
+    var wrapper = ColumnDefinitionPacketWrapper.newInstance(payload, true, isEofDeprecated());
     if (wrapper.isErrPacket()) {
       handleErrPacket((ErrPacket) wrapper.getPacket());
       readCompleted = true;
     } else if (wrapper.isEofPacket()) {
       handleEofPacket((EofPacket) wrapper.getPacket());
       readCompleted = true;
+    } else if (wrapper.isEofOkPacket()) {
+      handleEofOkPacket((EofOKPacket) wrapper.getPacket());
+      readCompleted = true;
     } else {
       onColumnRead((ColumnDefinition41Packet) wrapper.getPacket());
     }
@@ -40,6 +44,17 @@ public abstract class AbstractFieldListResultReader extends AbstractCommandResul
     onSuccess(new CommandResult(0, 0, packet.getStatusFlags(), packet.getWarnings(), null, null));
   }
 
+  private void handleEofOkPacket(final EofOKPacket packet) {
+    onSuccess(
+        new CommandResult(
+            packet.getAffectedRows(),
+            packet.getLastInsertId(),
+            packet.getStatusFlag(),
+            packet.getWarnings(),
+            packet.getInfo(),
+            null));
+  }
+
   protected abstract void onColumnRead(final ColumnDefinition41Packet packet);
 
   @Override
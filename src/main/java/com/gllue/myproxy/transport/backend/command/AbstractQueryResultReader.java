@@ -4,6 +4,7 @@ import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.command.result.query.QueryResult;
 import com.gllue.myproxy.transport.backend.BackendResultReadException;
 import com.gllue.myproxy.transport.exception.CustomErrorCode;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.GenericPacketWrapper;
@@ -39,6 +40,9 @@ public abstract class AbstractQueryResultReader extends AbstractCommandResultRea
         break;
       case READ_ROW:
         readRow(payload);
+        if (!isReadCompleted()) {
+          countRow();
+        }
         break;
       default:
         throw new IllegalStateException(state.name());
@@ -77,14 +81,24 @@ public abstract class AbstractQueryResultReader extends AbstractCommandResultRea
       onColumnRead((ColumnDefinition41Packet) packet);
       readColumnCount++;
       if (readColumnCount >= columnCount) {
-        afterReadColumnDefinitions();
-        state = State.READ_COLUMN_EOF;
+        endColumnDefinitions();
       }
     }
 
     return wrapper;
   }
 
+  void endColumnDefinitions() {
+    afterReadColumnDefinitions();
+    if (isEofDeprecated()) {
+      // There is no EOF packet between the column definitions and the rows.
+      state = State.READ_ROW;
+      beforeReadRows();
+    } else {
+      state = State.READ_COLUMN_EOF;
+    }
+  }
+
   GenericPacketWrapper readColumnEof(final MySQLPayload payload) {
     var wrapper = GenericPacketWrapper.newInstance(payload);
     if (wrapper.isErrPacket()) {
@@ -101,12 +115,16 @@ public abstract class AbstractQueryResultReader extends AbstractCommandResultRea
   }
 
   TextResultSetRowPacketWrapper readRow(final MySQLPayload payload) {
-    var wrapper = TextResultSetRowPacketWrapper.newInstance(payload, columnCount);
+    var wrapper =
+        TextResultSetRowPacketWrapper.newInstance(payload, columnCount, isEofDeprecated());
     if (wrapper.isErrPacket()) {
       handleErrPacket((ErrPacket) wrapper.getPacket());
     } else if (wrapper.isEofPacket()) {
       afterReadRows();
       handleEofPacket((EofPacket) wrapper.getPacket());
+    } else if (wrapper.isEofOkPacket()) {
+      afterReadRows();
+      handleEofOkPacket((EofOKPacket) wrapper.getPacket());
     } else {
       onRowRead((TextResultSetRowPacket) wrapper.getPacket());
     }
@@ -134,6 +152,18 @@ public abstract class AbstractQueryResultReader extends AbstractCommandResultRea
             0, 0, packet.getStatusFlags(), packet.getWarnings(), null, getQueryResult()));
   }
 
+  void handleEofOkPacket(final EofOKPacket packet) {
+    state = State.READ_COMPLETED;
+    onSuccess(
+        new CommandResult(
+            packet.getAffectedRows(),
+            packet.getLastInsertId(),
+            packet.getStatusFlag(),
+            packet.getWarnings(),
+            packet.getInfo(),
+            getQueryResult()));
+  }
+
   protected QueryResult getQueryResult() {
     return null;
   }
@@ -0,0 +1,29 @@
+package com.gllue.myproxy.transport.backend.command;
+
+import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.RawPacket;
+import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transfer the field list to the frontend connection, and keep the encoded column definitions so
+ * that the field list can be answered without the backend connection next time.
+ */
+public class CachingFieldListResultReader extends DirectTransferFieldListResultReader {
+  private final List<MySQLPacket> columnPackets = new ArrayList<>();
+
+  public CachingFieldListResultReader(final FrontendConnection frontendConnection) {
+    super(frontendConnection);
+  }
+
+  @Override
+  protected void onColumnRead(ColumnDefinition41Packet packet) {
+    columnPackets.add(RawPacket.encode(packet));
+  }
+
+  public List<MySQLPacket> getColumnPackets() {
+    return columnPackets;
+  }
+}
@@ -1,8 +1,10 @@
 package com.gllue.myproxy.transport.backend.command;
 
 import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.command.trace.QueryTrace;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.transport.core.connection.Connection;
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 
 public interface CommandResultReader extends AutoCloseable {
@@ -22,4 +24,16 @@ public interface CommandResultReader extends AutoCloseable {
   void bindConnection(Connection connection);
 
   CommandResultReader addCallback(Callback<CommandResult> callback);
+
+  /** Report the rows and the bytes read by the reader to the trace once the read completes. */
+  void setQueryTrace(QueryTrace trace);
+
+  /** Report the rows read by the reader to the frontend connection once the read completes. */
+  void setConnectionStats(ConnectionStats stats);
+
+  /**
+   * Interrupt the command, e.g. it's timed out. The command fails with the cause rather than the
+   * error returned by the backend database, unless it has succeeded already.
+   */
+  void interrupt(Throwable cause);
 }
@@ -4,6 +4,8 @@ import com.gllue.myproxy.transport.core.connection.AdaptableTrafficThrottlePipe;
 import com.gllue.myproxy.transport.core.connection.TrafficThrottlePipe;
 import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinitionPacketWrapper;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
@@ -29,7 +31,14 @@ public class DirectTransferFieldListResultReader extends AbstractFieldListResult
   @Override
   protected ColumnDefinitionPacketWrapper readColumnDef(MySQLPayload payload) {
     var wrapper = super.readColumnDef(payload);
-    writePacket(wrapper.getPacket());
+    var packet = wrapper.getPacket();
+    // Translate the terminal packet if the connections disagree on the CLIENT_DEPRECATE_EOF.
+    if (wrapper.isEofPacket() && frontendConnection.isEofDeprecated()) {
+      packet = EofOKPacket.fromEofPacket((EofPacket) packet);
+    } else if (wrapper.isEofOkPacket() && !frontendConnection.isEofDeprecated()) {
+      packet = ((EofOKPacket) packet).toEofPacket();
+    }
+    writePacket(packet);
     return wrapper;
   }
 
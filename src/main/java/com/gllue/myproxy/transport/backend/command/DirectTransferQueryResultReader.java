@@ -1,10 +1,13 @@
 package com.gllue.myproxy.transport.backend.command;
 
 import com.gllue.myproxy.command.result.query.QueryResultMetaData;
+import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
 import com.gllue.myproxy.transport.core.connection.AdaptableTrafficThrottlePipe;
 import com.gllue.myproxy.transport.core.connection.TrafficThrottlePipe;
+import com.gllue.myproxy.transport.exception.ExceptionResolver;
 import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.GenericPacketWrapper;
@@ -12,13 +15,19 @@ import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnCountPacketWrapper;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinitionPacketWrapper;
+import com.gllue.myproxy.transport.protocol.packet.query.ResultPacketClassifier;
+import com.gllue.myproxy.transport.protocol.packet.query.ResultPacketClassifier.ResultPacketType;
 import com.gllue.myproxy.transport.protocol.packet.query.TextResultSetRowPacketWrapper;
 import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 import com.gllue.myproxy.transport.protocol.payload.WrappedPayloadPacket;
 import lombok.extern.slf4j.Slf4j;
 
-// todo: check CLIENT_DEPRECATE_EOF flag for frontend connection
+/**
+ * Transfer the result set to the frontend connection directly. The packets are passed through
+ * untouched except the EOF packets, which are translated if the frontend connection and the backend
+ * connection disagree on the CLIENT_DEPRECATE_EOF capability.
+ */
 @Slf4j
 public class DirectTransferQueryResultReader extends AbstractQueryResultReader {
   private final FrontendConnection frontendConnection;
@@ -35,6 +44,11 @@ public class DirectTransferQueryResultReader extends AbstractQueryResultReader {
     pipe.prepareToTransfer();
   }
 
+  @Override
+  protected boolean isDirectTransfer() {
+    return true;
+  }
+
   @Override
   ColumnCountPacketWrapper readFirstPacket(MySQLPayload payload) {
     var wrapper = super.readFirstPacket(payload);
@@ -44,22 +58,26 @@ public class DirectTransferQueryResultReader extends AbstractQueryResultReader {
 
   @Override
   ColumnDefinitionPacketWrapper readColumnDef(MySQLPayload payload) {
-    var packet = ColumnDefinitionPacketWrapper.tryMatch(payload);
-    if (packet instanceof ErrPacket) {
+    var type = ResultPacketClassifier.classify(payload, false);
+    if (type != ResultPacketType.DATA) {
+      var packet = ResultPacketClassifier.newPacket(payload, type);
+      if (!(packet instanceof ErrPacket)) {
+        throw new IllegalStateException(String.format("Got an unexpected packet. [%s]", packet));
+      }
       handleErrPacket((ErrPacket) packet);
-    } else if (packet != null) {
-      throw new IllegalStateException(String.format("Got an unexpected packet. [%s]", packet));
+      transfer(packet);
+      return null;
     }
+
     readColumnCount++;
     if (readColumnCount >= columnCount) {
-      afterReadColumnDefinitions();
-      state = State.READ_COLUMN_EOF;
+      endColumnDefinitions();
     }
+    transfer(payload);
 
-    if (packet == null) {
-      transfer(payload);
-    } else {
-      transfer(packet);
+    // The backend connection omits the EOF packet which is expected by the frontend connection.
+    if (state == State.READ_ROW && !frontendConnection.isEofDeprecated()) {
+      transfer(new EofPacket(0, getStatusFlags()));
     }
     return null;
   }
@@ -67,28 +85,59 @@ public class DirectTransferQueryResultReader extends AbstractQueryResultReader {
   @Override
   GenericPacketWrapper readColumnEof(MySQLPayload payload) {
     var wrapper = super.readColumnEof(payload);
-    transfer(wrapper.getPacket());
+    // The frontend connection doesn't expect the EOF packet after the column definitions.
+    if (wrapper.isErrPacket() || !frontendConnection.isEofDeprecated()) {
+      transfer(wrapper.getPacket());
+    }
     return wrapper;
   }
 
   @Override
   TextResultSetRowPacketWrapper readRow(MySQLPayload payload) {
-    var packet = TextResultSetRowPacketWrapper.tryMatch(payload);
+    // Fast path for the rows, they are forwarded without being decoded into packets.
+    var type = ResultPacketClassifier.classify(payload, isEofDeprecated());
+    if (type == ResultPacketType.DATA) {
+      transfer(payload);
+      return null;
+    }
+
+    var packet = ResultPacketClassifier.newPacket(payload, type);
     if (packet instanceof ErrPacket) {
       handleErrPacket((ErrPacket) packet);
     } else if (packet instanceof EofPacket) {
       afterReadRows();
       handleEofPacket((EofPacket) packet);
+      if (frontendConnection.isEofDeprecated()) {
+        packet = EofOKPacket.fromEofPacket((EofPacket) packet);
+      }
+    } else if (packet instanceof EofOKPacket) {
+      afterReadRows();
+      handleEofOkPacket((EofOKPacket) packet);
+      if (!frontendConnection.isEofDeprecated()) {
+        packet = ((EofOKPacket) packet).toEofPacket();
+      }
     }
 
-    if (packet == null) {
-      transfer(payload);
-    } else {
-      transfer(packet);
-    }
+    transfer(packet);
     return null;
   }
 
+  /**
+   * The status flags of the backend connection which produces the result set, the session state
+   * of the backend connection is synchronized by the proxy, so the flags are derived from it.
+   */
+  private int getStatusFlags() {
+    var connection = getConnection();
+    int statusFlags = 0;
+    if (connection.isAutoCommit()) {
+      statusFlags |= MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT.getValue();
+    }
+    if (connection.isTransactionOpened()) {
+      statusFlags |= MySQLStatusFlag.SERVER_STATUS_IN_TRANS.getValue();
+    }
+    return statusFlags;
+  }
+
   @Override
   protected void onColumnRead(ColumnDefinition41Packet packet) {
     throw new UnsupportedOperationException(
@@ -101,14 +150,19 @@ public class DirectTransferQueryResultReader extends AbstractQueryResultReader {
         "onRowRead is unsupported for DirectTransferQueryResultReader.");
   }
 
-  private void transfer(final MySQLPacket packet) {
+  private void transfer(MySQLPacket packet) {
+    // The error of the killed query is replaced by the cause of the interruption.
+    var cause = getInterruptCause();
+    if (cause != null && packet instanceof ErrPacket) {
+      packet = ExceptionResolver.resolve(cause);
+    }
     pipe.transfer(packet, isReadCompleted());
   }
 
   private void transfer(final MySQLPayload payload) {
-    payload.retain();
-    if (!pipe.transfer(new WrappedPayloadPacket(payload), isReadCompleted())) {
-      payload.release();
+    var packet = WrappedPayloadPacket.newInstance(payload.getByteBuf().retain());
+    if (!pipe.transfer(packet, isReadCompleted())) {
+      packet.release();
     }
   }
 
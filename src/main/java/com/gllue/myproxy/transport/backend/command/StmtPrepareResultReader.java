@@ -0,0 +1,127 @@
+package com.gllue.myproxy.transport.backend.command;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.transport.backend.BackendResultReadException;
+import com.gllue.myproxy.transport.backend.connection.BackendPreparedStatement;
+import com.gllue.myproxy.transport.exception.CustomErrorCode;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
+import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
+import com.gllue.myproxy.transport.protocol.packet.query.binary.StmtPrepareOKPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read the response of COM_STMT_PREPARE. The definitions of the parameters and the columns are
+ * kept in the prepared statement, so that the statement can be reused without preparing again.
+ * The EOF packets after the definitions are absent if the connection deprecates the EOF.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html">COM_STMT_PREPARE
+ *     Response</a>
+ */
+public class StmtPrepareResultReader extends AbstractCommandResultReader {
+  private enum State {
+    READ_FIRST_PACKET,
+    READ_PARAMETER_DEF,
+    READ_PARAMETER_EOF,
+    READ_COLUMN_DEF,
+    READ_COLUMN_EOF,
+    READ_COMPLETED,
+    FAILED
+  }
+
+  private State state = State.READ_FIRST_PACKET;
+  private StmtPrepareOKPacket okPacket;
+  private List<ColumnDefinition41Packet> parameterDefinitions;
+  private List<ColumnDefinition41Packet> columnDefinitions;
+  private BackendPreparedStatement preparedStatement;
+
+  @Override
+  boolean doRead(MySQLPayload payload) {
+    if (ErrPacket.match(payload)) {
+      state = State.FAILED;
+      onFailure(
+          new BackendResultReadException(CustomErrorCode.newInstance(new ErrPacket(payload))));
+      return true;
+    }
+
+    switch (state) {
+      case READ_FIRST_PACKET:
+        okPacket = new StmtPrepareOKPacket(payload);
+        parameterDefinitions = new ArrayList<>(okPacket.getParameterCount());
+        columnDefinitions = new ArrayList<>(okPacket.getColumnCount());
+        if (okPacket.getParameterCount() > 0) {
+          state = State.READ_PARAMETER_DEF;
+        } else {
+          readColumnDefinitionsOrComplete();
+        }
+        break;
+      case READ_PARAMETER_DEF:
+        parameterDefinitions.add(new ColumnDefinition41Packet(payload, false));
+        if (parameterDefinitions.size() >= okPacket.getParameterCount()) {
+          if (isEofDeprecated()) {
+            readColumnDefinitionsOrComplete();
+          } else {
+            state = State.READ_PARAMETER_EOF;
+          }
+        }
+        break;
+      case READ_PARAMETER_EOF:
+        new EofPacket(payload);
+        readColumnDefinitionsOrComplete();
+        break;
+      case READ_COLUMN_DEF:
+        columnDefinitions.add(new ColumnDefinition41Packet(payload, false));
+        if (columnDefinitions.size() >= okPacket.getColumnCount()) {
+          if (isEofDeprecated()) {
+            complete();
+          } else {
+            state = State.READ_COLUMN_EOF;
+          }
+        }
+        break;
+      case READ_COLUMN_EOF:
+        new EofPacket(payload);
+        complete();
+        break;
+      default:
+        throw new IllegalStateException(state.name());
+    }
+    return isReadCompleted();
+  }
+
+  private void readColumnDefinitionsOrComplete() {
+    if (okPacket.getColumnCount() > 0) {
+      state = State.READ_COLUMN_DEF;
+    } else {
+      complete();
+    }
+  }
+
+  private void complete() {
+    state = State.READ_COMPLETED;
+    preparedStatement =
+        new BackendPreparedStatement(
+            okPacket.getStatementId(), parameterDefinitions, columnDefinitions);
+    onSuccess(CommandResult.newEmptyResult());
+  }
+
+  /** The prepared statement, it's available after the response was read successfully. */
+  public BackendPreparedStatement getPreparedStatement() {
+    return preparedStatement;
+  }
+
+  @Override
+  public boolean isReadCompleted() {
+    return state == State.READ_COMPLETED || state == State.FAILED;
+  }
+
+  public static StmtPrepareResultReader newInstance(Callback<CommandResult> callback) {
+    var reader = new StmtPrepareResultReader();
+    reader.addCallback(callback);
+    return reader;
+  }
+}
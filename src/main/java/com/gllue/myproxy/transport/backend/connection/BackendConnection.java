@@ -36,4 +36,7 @@ public interface BackendConnection extends Connection {
   ListenableFuture<CommandResult> sendCommand(CommandPacket packet);
 
   void reset(Callback<CommandResult> callback);
+
+  /** The statements prepared by this connection, they are kept until the connection is closed. */
+  PreparedStatementCache getPreparedStatementCache();
 }
@@ -39,6 +39,7 @@ public class BackendConnectionImpl extends AbstractConnection implements Backend
           .register();
 
   private final long databaseThreadId;
+  private final PreparedStatementCache preparedStatementCache = new PreparedStatementCache();
   private String dataSourceName;
 
   private volatile CommandResultReader commandResultReader;
@@ -216,11 +217,18 @@ public class BackendConnectionImpl extends AbstractConnection implements Backend
 
   @Override
   public void reset(Callback<CommandResult> callback) {
+    // The prepared statements are deallocated by resetting the session.
+    preparedStatementCache.clear();
     sendCommand(
         new SimpleCommandPacket(MySQLCommandPacketType.COM_RESET_CONNECTION),
         DefaultCommandResultReader.newInstance(callback));
   }
 
+  @Override
+  public PreparedStatementCache getPreparedStatementCache() {
+    return preparedStatementCache;
+  }
+
   @Override
   protected void onClosed() {
     super.onClosed();
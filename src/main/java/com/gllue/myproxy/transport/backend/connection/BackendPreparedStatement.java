@@ -0,0 +1,25 @@
+package com.gllue.myproxy.transport.backend.connection;
+
+import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** A statement which was prepared by the backend database. */
+@Getter
+@RequiredArgsConstructor
+public class BackendPreparedStatement {
+  private final int statementId;
+
+  private final List<ColumnDefinition41Packet> parameterDefinitions;
+
+  private final List<ColumnDefinition41Packet> columnDefinitions;
+
+  public int getParameterCount() {
+    return parameterDefinitions.size();
+  }
+
+  public int getColumnCount() {
+    return columnDefinitions.size();
+  }
+}
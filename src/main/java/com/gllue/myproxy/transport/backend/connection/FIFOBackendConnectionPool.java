@@ -142,6 +142,11 @@ public class FIFOBackendConnectionPool extends FIFOConnectionPool {
       backendConnection.reset(callback);
     }
 
+    @Override
+    public PreparedStatementCache getPreparedStatementCache() {
+      return backendConnection.getPreparedStatementCache();
+    }
+
     @Override
     public void close(Consumer<Connection> onClosed) {
       if (!backendConnection.isClosed() && backendConnection.readingResponse()) {
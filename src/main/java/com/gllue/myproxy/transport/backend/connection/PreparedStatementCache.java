@@ -0,0 +1,74 @@
+package com.gllue.myproxy.transport.backend.connection;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import javax.annotation.Nullable;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The statements prepared by a backend connection. The statements are keyed by the database and
+ * the query, since the tables of a statement are resolved by the database at preparation. The
+ * least recently used statements are evicted once the capacity is exceeded, and the evicted
+ * statements must be closed by the caller.
+ */
+public class PreparedStatementCache {
+  public static final int DEFAULT_CAPACITY = 64;
+
+  private final int capacity;
+  private final LinkedHashMap<Key, BackendPreparedStatement> statements;
+
+  @EqualsAndHashCode
+  @RequiredArgsConstructor
+  private static class Key {
+    private final String database;
+    private final String query;
+  }
+
+  public PreparedStatementCache() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public PreparedStatementCache(final int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must > 0");
+    this.capacity = capacity;
+    this.statements = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  @Nullable
+  public synchronized BackendPreparedStatement get(final String database, final String query) {
+    return statements.get(new Key(database, query));
+  }
+
+  /**
+   * Put the prepared statement into the cache.
+   *
+   * @return the evicted statements which should be closed.
+   */
+  public synchronized List<BackendPreparedStatement> put(
+      final String database, final String query, final BackendPreparedStatement statement) {
+    var old = statements.put(new Key(database, query), statement);
+    var evicted = new ArrayList<BackendPreparedStatement>();
+    if (old != null && old.getStatementId() != statement.getStatementId()) {
+      evicted.add(old);
+    }
+
+    var iterator = statements.entrySet().iterator();
+    while (statements.size() > capacity && iterator.hasNext()) {
+      evicted.add(iterator.next().getValue());
+      iterator.remove();
+    }
+    return evicted;
+  }
+
+  public synchronized int size() {
+    return statements.size();
+  }
+
+  /** Forget all the statements, it's invoked after the session of the connection is reset. */
+  public synchronized void clear() {
+    statements.clear();
+  }
+}
@@ -6,6 +6,7 @@ import com.gllue.myproxy.transport.backend.connection.BackendConnectionFactory;
 import com.gllue.myproxy.transport.backend.connection.ConnectionArguments;
 import com.gllue.myproxy.transport.core.connection.Connection;
 import java.net.SocketAddress;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
@@ -16,23 +17,45 @@ public class BackendDataSource implements DataSource {
 
   private final SocketAddress socketAddress;
 
+  @Nullable private final SocketAddress standbySocketAddress;
+
+  private volatile SocketAddress activeSocketAddress;
+
+  private volatile boolean available = true;
+
   private final String username;
 
   private final String password;
 
   private final BackendConnectionFactory connectionFactory;
 
+  private final List<ReplicaDataSource> replicas;
+
   public BackendDataSource(
       final String name,
       final SocketAddress socketAddress,
       final String username,
       final String password,
       final BackendConnectionFactory connectionFactory) {
+    this(name, socketAddress, null, username, password, connectionFactory, List.of());
+  }
+
+  public BackendDataSource(
+      final String name,
+      final SocketAddress socketAddress,
+      @Nullable final SocketAddress standbySocketAddress,
+      final String username,
+      final String password,
+      final BackendConnectionFactory connectionFactory,
+      final List<ReplicaDataSource> replicas) {
     this.name = name;
     this.socketAddress = socketAddress;
+    this.standbySocketAddress = standbySocketAddress;
+    this.activeSocketAddress = socketAddress;
     this.username = username;
     this.password = password;
     this.connectionFactory = connectionFactory;
+    this.replicas = List.copyOf(replicas);
   }
 
   @Override
@@ -40,6 +63,51 @@ public class BackendDataSource implements DataSource {
     return name;
   }
 
+  /**
+   * Read-only replicas of the data source.
+   *
+   * @return replicas, an empty list if no replica is configured.
+   */
+  public List<ReplicaDataSource> getReplicas() {
+    return replicas;
+  }
+
+  /** The endpoint that new connections are connected to. */
+  public SocketAddress getActiveSocketAddress() {
+    return activeSocketAddress;
+  }
+
+  public boolean hasStandby() {
+    return standbySocketAddress != null;
+  }
+
+  /**
+   * Switch the active endpoint between the primary endpoint and the standby endpoint.
+   *
+   * @return the new active endpoint.
+   */
+  public synchronized SocketAddress failover() {
+    if (standbySocketAddress == null) {
+      throw new IllegalStateException(
+          String.format("No standby endpoint is configured for data source [%s].", name));
+    }
+    if (activeSocketAddress == socketAddress) {
+      activeSocketAddress = standbySocketAddress;
+    } else {
+      activeSocketAddress = socketAddress;
+    }
+    return activeSocketAddress;
+  }
+
+  /** Whether the active endpoint passed the health checks. */
+  public boolean isAvailable() {
+    return available;
+  }
+
+  public void setAvailable(final boolean available) {
+    this.available = available;
+  }
+
   @Override
   public Connection getConnection(@Nullable String database) {
     var future = tryGetConnection(database);
@@ -57,6 +125,6 @@ public class BackendDataSource implements DataSource {
 
   @Override
   public ConnectionArguments getConnectionArguments(String database) {
-    return new ConnectionArguments(socketAddress, username, password, database);
+    return new ConnectionArguments(activeSocketAddress, username, password, database);
   }
 }
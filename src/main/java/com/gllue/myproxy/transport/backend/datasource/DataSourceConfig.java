@@ -4,8 +4,11 @@ import com.gllue.myproxy.common.util.NetworkUtils;
 import com.gllue.myproxy.config.ConfigurationException;
 import java.io.IOException;
 import java.net.SocketAddress;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -14,12 +17,26 @@ import lombok.RequiredArgsConstructor;
 public class DataSourceConfig {
   private final String name;
   private final SocketAddress address;
+  @Nullable private final SocketAddress standbyAddress;
   private final String user;
   private final String password;
+  private final List<ReplicaConfig> replicas;
+
+  /** A read-only replica of the data source, it shares the user and password with the primary. */
+  @Getter
+  @RequiredArgsConstructor
+  public static class ReplicaConfig {
+    private final SocketAddress address;
+    private final int weight;
+  }
 
   public static class Parser {
     private static final String KV_SEPARATOR = "=";
     private static final String KV_PAIR_SEPARATOR = ";";
+    private static final String REPLICA_SEPARATOR = "|";
+    private static final String REPLICA_WEIGHT_SEPARATOR = "@";
+    private static final String PORT_SEPARATOR = ":";
+    private static final int DEFAULT_REPLICA_WEIGHT = 1;
     private static final String[] REQUIRED_KEYS = new String[] {"name", "host", "user", "password"};
 
     private Map<String, String> parseKeyValuePairs(final String config) {
@@ -40,7 +57,10 @@ public class DataSourceConfig {
     }
 
     private int getPort(Map<String, String> kvs) {
-      var port = kvs.getOrDefault("port", "3306");
+      return parsePort(kvs.getOrDefault("port", "3306"));
+    }
+
+    private int parsePort(String port) {
       try {
         return Integer.parseInt(port);
       } catch (NumberFormatException e) {
@@ -61,25 +81,86 @@ public class DataSourceConfig {
     }
 
     private SocketAddress resolveSocketAddress(Map<String, String> kvs) {
+      return resolveSocketAddress(kvs.get("host"), getPort(kvs));
+    }
+
+    private SocketAddress resolveStandbySocketAddress(Map<String, String> kvs) {
+      var value = kvs.get("standby");
+      if (value == null || value.isBlank()) {
+        return null;
+      }
+      var hostAndPort = value.trim().split(PORT_SEPARATOR, 2);
+      var port = hostAndPort.length == 2 ? parsePort(hostAndPort[1].trim()) : getPort(kvs);
+      return resolveSocketAddress(hostAndPort[0].trim(), port);
+    }
+
+    private SocketAddress resolveSocketAddress(String host, int port) {
       SocketAddress socketAddress;
       try {
-        var socketAddresses = NetworkUtils.resolveSocketAddress(kvs.get("host"), getPort(kvs));
+        var socketAddresses = NetworkUtils.resolveSocketAddress(host, port);
         if (socketAddresses.length == 0) {
-          throw new ConfigurationException(
-              String.format("Unable to resolve host. [%s]", kvs.get("host")));
+          throw new ConfigurationException(String.format("Unable to resolve host. [%s]", host));
         }
         socketAddress = socketAddresses[0];
       } catch (IOException e) {
-        throw new ConfigurationException(String.format("Bad host. [%s]", kvs.get("host")), e);
+        throw new ConfigurationException(String.format("Bad host. [%s]", host), e);
       }
       return socketAddress;
     }
 
+    /**
+     * Parse the replicas of the data source, the format of the replicas is
+     * "host1[:port][@weight]|host2[:port][@weight]".
+     */
+    private List<ReplicaConfig> parseReplicas(Map<String, String> kvs) {
+      var value = kvs.get("replicas");
+      if (value == null || value.isBlank()) {
+        return List.of();
+      }
+
+      List<ReplicaConfig> replicas = new ArrayList<>();
+      for (var replica : value.split("\\" + REPLICA_SEPARATOR)) {
+        replica = replica.trim();
+        if (replica.isEmpty()) {
+          throw new ConfigurationException(String.format("Invalid replicas. [%s]", value));
+        }
+
+        int weight = DEFAULT_REPLICA_WEIGHT;
+        var items = replica.split(REPLICA_WEIGHT_SEPARATOR, 2);
+        if (items.length == 2) {
+          weight = parseReplicaWeight(items[1].trim());
+        }
+
+        var hostAndPort = items[0].trim().split(PORT_SEPARATOR, 2);
+        var port = hostAndPort.length == 2 ? parsePort(hostAndPort[1].trim()) : getPort(kvs);
+        replicas.add(new ReplicaConfig(resolveSocketAddress(hostAndPort[0].trim(), port), weight));
+      }
+      return replicas;
+    }
+
+    private int parseReplicaWeight(String weight) {
+      int value;
+      try {
+        value = Integer.parseInt(weight);
+      } catch (NumberFormatException e) {
+        throw new ConfigurationException(String.format("Weight is not a number. [%s]", weight));
+      }
+      if (value <= 0) {
+        throw new ConfigurationException(String.format("Weight must be positive. [%s]", weight));
+      }
+      return value;
+    }
+
     public DataSourceConfig parse(final String config) {
       var kvs = parseKeyValuePairs(config);
       ensureRequiredKeys(kvs);
       return new DataSourceConfig(
-          kvs.get("name"), resolveSocketAddress(kvs), kvs.get("user"), kvs.get("password"));
+          kvs.get("name"),
+          resolveSocketAddress(kvs),
+          resolveStandbySocketAddress(kvs),
+          kvs.get("user"),
+          kvs.get("password"),
+          parseReplicas(kvs));
     }
   }
 }
@@ -0,0 +1,36 @@
+package com.gllue.myproxy.transport.backend.datasource;
+
+import com.gllue.myproxy.transport.backend.connection.BackendConnectionFactory;
+import java.net.SocketAddress;
+
+/** A read-only replica of a primary {@link BackendDataSource}. */
+public class ReplicaDataSource extends BackendDataSource {
+  private final String primaryName;
+
+  private final int weight;
+
+  public ReplicaDataSource(
+      final String primaryName,
+      final int index,
+      final int weight,
+      final SocketAddress socketAddress,
+      final String username,
+      final String password,
+      final BackendConnectionFactory connectionFactory) {
+    super(replicaName(primaryName, index), socketAddress, username, password, connectionFactory);
+    this.primaryName = primaryName;
+    this.weight = weight;
+  }
+
+  public static String replicaName(final String primaryName, final int index) {
+    return String.format("%s/replica-%d", primaryName, index);
+  }
+
+  public String getPrimaryName() {
+    return primaryName;
+  }
+
+  public int getWeight() {
+    return weight;
+  }
+}
@@ -18,6 +18,8 @@ import com.gllue.myproxy.transport.constant.MySQLServerInfo;
 import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
 import com.gllue.myproxy.transport.core.connection.AuthenticationData;
 import com.gllue.myproxy.transport.core.connection.ConnectionIdGenerator;
+import com.gllue.myproxy.transport.core.netty.CompressionOptions;
+import com.gllue.myproxy.transport.core.netty.MySQLCompressionCodecHandler;
 import com.gllue.myproxy.transport.core.netty.NettyUtils;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
@@ -71,8 +73,12 @@ public class BackendChannelOutboundHandler extends ChannelInboundHandlerAdapter
 
   private final AuthenticationData authData;
 
+  private final CompressionOptions compressionOptions;
+
   private int statusFlags;
 
+  private int capabilityFlags;
+
   private int databaseThreadId;
 
   private ConnectionPhase connectionPhase = ConnectionPhase.HANDSHAKE;
@@ -86,8 +92,16 @@ public class BackendChannelOutboundHandler extends ChannelInboundHandlerAdapter
   public BackendChannelOutboundHandler(
       final ConnectionArguments connectionArguments,
       final BackendConnectionListener backendConnectionListener) {
+    this(connectionArguments, backendConnectionListener, CompressionOptions.DISABLED);
+  }
+
+  public BackendChannelOutboundHandler(
+      final ConnectionArguments connectionArguments,
+      final BackendConnectionListener backendConnectionListener,
+      final CompressionOptions compressionOptions) {
     this.connectionArguments = connectionArguments;
     this.backendConnectionListener = backendConnectionListener;
+    this.compressionOptions = compressionOptions;
     this.authData =
         new AuthenticationData(
             connectionArguments.getUsername(),
@@ -210,6 +224,10 @@ public class BackendChannelOutboundHandler extends ChannelInboundHandlerAdapter
     if (connectionArguments.getDatabase() != null) {
       clientCapabilityFlags |= MySQLCapabilityFlag.CLIENT_CONNECT_WITH_DB.getValue();
     }
+    if (compressionOptions.isEnabled()) {
+      clientCapabilityFlags |=
+          MySQLCapabilityFlag.CLIENT_COMPRESS.getValue() & serverCapabilityFlags;
+    }
 
     var handshakeResponsePacket =
         new HandshakeResponsePacket41(
@@ -221,6 +239,7 @@ public class BackendChannelOutboundHandler extends ChannelInboundHandlerAdapter
             connectionArguments.getDatabase(),
             pluginName);
     ctx.writeAndFlush(handshakeResponsePacket);
+    capabilityFlags = clientCapabilityFlags;
     authState = authPluginHandler.getInitialState();
     connectionPhase = ConnectionPhase.CHECK_RESPONSE;
   }
@@ -348,9 +367,14 @@ public class BackendChannelOutboundHandler extends ChannelInboundHandlerAdapter
     log.info("Backend connection has connected.");
     assert connection == null;
     connectionPhase = ConnectionPhase.CONNECTED;
+    // The packets after the OK packet are compressed.
+    if (MySQLCapabilityFlag.CLIENT_COMPRESS.isBitSet(capabilityFlags)) {
+      MySQLCompressionCodecHandler.install(ctx.pipeline(), compressionOptions);
+    }
     connection =
         new BackendConnectionImpl(
             ID_GENERATOR.nextId(), authData.getUsername(), ctx.channel(), databaseThreadId);
+    connection.setCapabilityFlags(capabilityFlags);
     if (MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT.isBitSet(statusFlags)) {
       connection.enableAutoCommit();
     } else {
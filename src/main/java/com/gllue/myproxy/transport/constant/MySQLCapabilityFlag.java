@@ -76,6 +76,7 @@ public enum MySQLCapabilityFlag {
         CLIENT_LONG_FLAG,
         CLIENT_CONNECT_WITH_DB,
         CLIENT_ODBC,
+        CLIENT_LOCAL_FILES,
         CLIENT_IGNORE_SPACE,
         CLIENT_PROTOCOL_41,
         CLIENT_INTERACTIVE,
@@ -83,7 +84,8 @@ public enum MySQLCapabilityFlag {
         CLIENT_TRANSACTIONS,
         CLIENT_SECURE_CONNECTION,
         CLIENT_PLUGIN_AUTH,
-        CLIENT_CONNECT_ATTRS);
+        CLIENT_CONNECT_ATTRS,
+        CLIENT_DEPRECATE_EOF);
   }
 
   /**
@@ -105,6 +107,7 @@ public enum MySQLCapabilityFlag {
           CLIENT_CONNECT_ATTRS,
           CLIENT_SECURE_CONNECTION,
           CLIENT_PLUGIN_AUTH_LENENC_CLIENT_DATA,
+          CLIENT_DEPRECATE_EOF,
         };
 
     for (var each : flags) {
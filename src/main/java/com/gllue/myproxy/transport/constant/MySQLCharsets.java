@@ -311,7 +311,7 @@ public final class MySQLCharsets {
     MySQLCharset nonDefault = null;
     var lowerName = name.toLowerCase();
     for (var charset: CHARSETS) {
-      if (charset.name.equals(lowerName)) {
+      if (charset != null && charset.name.equals(lowerName)) {
         if (charset.isDefault) {
           return charset;
         }
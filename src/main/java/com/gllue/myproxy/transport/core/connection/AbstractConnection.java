@@ -2,6 +2,7 @@ package com.gllue.myproxy.transport.core.connection;
 
 import com.gllue.myproxy.common.concurrent.AbstractRunnable;
 import com.gllue.myproxy.common.concurrent.SettableFuture;
+import com.gllue.myproxy.transport.constant.MySQLCapabilityFlag;
 import com.gllue.myproxy.transport.core.netty.NettyUtils;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
@@ -33,6 +34,8 @@ public abstract class AbstractConnection implements Connection {
 
   private volatile boolean autoCommit = true;
 
+  private volatile int capabilityFlags;
+
   private final long createTime;
 
   private volatile long lastAccessTime;
@@ -124,6 +127,21 @@ public abstract class AbstractConnection implements Connection {
     return autoCommit;
   }
 
+  @Override
+  public int capabilityFlags() {
+    return capabilityFlags;
+  }
+
+  @Override
+  public void setCapabilityFlags(final int capabilityFlags) {
+    this.capabilityFlags = capabilityFlags;
+  }
+
+  @Override
+  public boolean isEofDeprecated() {
+    return MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF.isBitSet(capabilityFlags);
+  }
+
   private ChannelFuture doChannelWrite(Object msg, boolean flush) {
     if (!flush) {
       return channel.write(msg);
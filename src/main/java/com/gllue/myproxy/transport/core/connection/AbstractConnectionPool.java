@@ -59,6 +59,9 @@ public abstract class AbstractConnectionPool implements ConnectionPool {
 
   private final AtomicInteger acquiredConnections = new AtomicInteger(0);
 
+  /** Connections created before this time are closed instead of being reused. */
+  private volatile long drainedTime = 0;
+
   private final ScheduledThreadPoolExecutor scheduler;
   private final ExecutorService executor;
 
@@ -241,9 +244,9 @@ public abstract class AbstractConnectionPool implements ConnectionPool {
       var connection = entry.getConnection();
       if (connection.isClosed()) {
         entry = null;
-      } else if (isConnectionNotAlive(connection)) {
+      } else if (isConnectionExpired(connection)) {
         log.info(
-            "Close connection [{}] in the connection pool because the max life time of connection has been reached.",
+            "Close connection [{}] in the connection pool because the max life time of connection has been reached or the pool has been drained.",
             connection.connectionId());
         entry = null;
         connection.close();
@@ -278,8 +281,23 @@ public abstract class AbstractConnectionPool implements ConnectionPool {
     return new PooledConnectionFuture(future);
   }
 
-  private boolean isConnectionNotAlive(Connection connection) {
-    return System.currentTimeMillis() - connection.createTime() > maxLifeTimeInMills;
+  private boolean isConnectionExpired(Connection connection) {
+    return System.currentTimeMillis() - connection.createTime() > maxLifeTimeInMills
+        || connection.createTime() <= drainedTime;
+  }
+
+  @Override
+  public int drain() {
+    drainedTime = System.currentTimeMillis();
+    int count = 0;
+    for (var entry : entries()) {
+      if (removeEntry(entry)) {
+        entry.getConnection().close();
+        count++;
+      }
+    }
+    log.info("Connection pool has been drained, {} cached connections are closed.", count);
+    return count;
   }
 
   @Override
@@ -295,9 +313,9 @@ public abstract class AbstractConnectionPool implements ConnectionPool {
     if (!connection.isClosed()) {
       var entry = ((PooledConnection) connection).getPoolEntry();
       var delegateConn = entry.getConnection();
-      if (isConnectionNotAlive(delegateConn)) {
+      if (isConnectionExpired(delegateConn)) {
         log.info(
-            "Close connection [{}] in the connection pool because the max life time of connection has been reached.",
+            "Close connection [{}] in the connection pool because the max life time of connection has been reached or the pool has been drained.",
             delegateConn.connectionId());
         delegateConn.close();
       } else {
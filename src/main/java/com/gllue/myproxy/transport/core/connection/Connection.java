@@ -45,6 +45,20 @@ public interface Connection {
 
   boolean isTransactionOpened();
 
+  /**
+   * Capability flags which are negotiated with the peer during the handshake.
+   * @return the capability flags supported by both sides.
+   */
+  int capabilityFlags();
+
+  void setCapabilityFlags(int capabilityFlags);
+
+  /**
+   * Whether the result sets of the connection are terminated by an OK packet instead of the EOF
+   * packets, it's negotiated by the CLIENT_DEPRECATE_EOF capability.
+   */
+  boolean isEofDeprecated();
+
   void write(MySQLPacket packet);
 
   void writeAndFlush(MySQLPacket packet);
@@ -19,6 +19,14 @@ public interface ConnectionPool extends AutoCloseable {
 
   void releaseConnection(Connection connection);
 
+  /**
+   * Close all the cached connections, the acquired connections will be closed rather than cached
+   * when they are released.
+   *
+   * @return the number of closed connections.
+   */
+  int drain();
+
   interface PoolEntry {
     Connection getConnection();
   }
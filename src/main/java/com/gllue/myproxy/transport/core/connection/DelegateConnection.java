@@ -90,6 +90,21 @@ public abstract class DelegateConnection implements Connection {
     return connection.isTransactionOpened();
   }
 
+  @Override
+  public int capabilityFlags() {
+    return connection.capabilityFlags();
+  }
+
+  @Override
+  public void setCapabilityFlags(int capabilityFlags) {
+    connection.setCapabilityFlags(capabilityFlags);
+  }
+
+  @Override
+  public boolean isEofDeprecated() {
+    return connection.isEofDeprecated();
+  }
+
   @Override
   public void write(MySQLPacket packet) {
     connection.write(packet);
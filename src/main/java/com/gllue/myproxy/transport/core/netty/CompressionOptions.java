@@ -0,0 +1,22 @@
+package com.gllue.myproxy.transport.core.netty;
+
+import java.util.zip.Deflater;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/** Options of the MySQL protocol compression, which is negotiated by the CLIENT_COMPRESS flag. */
+@Getter
+@RequiredArgsConstructor
+public class CompressionOptions {
+  /** The minimum payload length to compress, it's same as the MySQL server. */
+  public static final int DEFAULT_THRESHOLD = 50;
+
+  public static final CompressionOptions DISABLED =
+      new CompressionOptions(false, DEFAULT_THRESHOLD, Deflater.DEFAULT_COMPRESSION);
+
+  private final boolean enabled;
+
+  private final int threshold;
+
+  private final int level;
+}
@@ -0,0 +1,226 @@
+package com.gllue.myproxy.transport.core.netty;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.prometheus.client.Counter;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compression layer of the MySQL protocol, it's placed before the {@link
+ * MySQLPayloadCodecHandler} once the CLIENT_COMPRESS capability is negotiated. The deflaters and
+ * the inflaters are reused by the event loop threads, since a channel is always handled by the
+ * same event loop.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/compressed-packet-header.html">Compressed
+ *     Packet</a>
+ */
+public class MySQLCompressionCodecHandler extends ByteToMessageCodec<ByteBuf> {
+  private static final Counter COMPRESSION_INPUT_BYTES =
+      Counter.build()
+          .name("compression_input_bytes")
+          .help("Total bytes before the compression.")
+          .register();
+
+  private static final Counter COMPRESSION_OUTPUT_BYTES =
+      Counter.build()
+          .name("compression_output_bytes")
+          .help("Total bytes after the compression.")
+          .register();
+
+  private static final FastThreadLocal<Deflater> DEFLATERS =
+      new FastThreadLocal<>() {
+        @Override
+        protected Deflater initialValue() {
+          return new Deflater();
+        }
+
+        @Override
+        protected void onRemoval(Deflater deflater) {
+          deflater.end();
+        }
+      };
+
+  private static final FastThreadLocal<Inflater> INFLATERS =
+      new FastThreadLocal<>() {
+        @Override
+        protected Inflater initialValue() {
+          return new Inflater();
+        }
+
+        @Override
+        protected void onRemoval(Inflater inflater) {
+          inflater.end();
+        }
+      };
+
+  public static final int HEADER_BYTES = 7;
+
+  public static final int MAX_PAYLOAD_SIZE = MySQLPayloadCodecHandler.MAX_PAYLOAD_SIZE;
+
+  private static final int DEFLATE_BUFFER_SIZE = 8192;
+
+  /** The payloads which are shorter than the threshold are not worth to compress. */
+  private final int threshold;
+
+  private final int level;
+
+  private int sequenceId = 0;
+
+  public MySQLCompressionCodecHandler(final int threshold, final int level) {
+    Preconditions.checkArgument(threshold >= 0, "threshold must >= 0");
+    Preconditions.checkArgument(
+        level >= Deflater.DEFAULT_COMPRESSION && level <= Deflater.BEST_COMPRESSION,
+        "Illegal compression level.");
+    this.threshold = threshold;
+    this.level = level;
+  }
+
+  /**
+   * Enable the compression of the channel, the subsequent packets after the current packet will be
+   * compressed.
+   */
+  public static void install(final ChannelPipeline pipeline, final CompressionOptions options) {
+    var payloadCodecContext = pipeline.context(MySQLPayloadCodecHandler.class);
+    Preconditions.checkState(payloadCodecContext != null, "Payload codec handler is not found.");
+    pipeline.addBefore(
+        payloadCodecContext.name(),
+        null,
+        new MySQLCompressionCodecHandler(options.getThreshold(), options.getLevel()));
+  }
+
+  @Override
+  protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out)
+      throws Exception {
+    if (in.readableBytes() < HEADER_BYTES) {
+      return;
+    }
+
+    in.markReaderIndex();
+    var compressedLength = in.readUnsignedMediumLE();
+    var readSeqId = in.readUnsignedByte();
+    var uncompressedLength = in.readUnsignedMediumLE();
+    if (in.readableBytes() < compressedLength) {
+      in.resetReaderIndex();
+      return;
+    }
+
+    // The response continues the sequence of the request.
+    sequenceId = (readSeqId + 1) % 256;
+
+    if (uncompressedLength == 0) {
+      out.add(in.readRetainedSlice(compressedLength));
+    } else {
+      out.add(inflate(ctx, in, compressedLength, uncompressedLength));
+    }
+  }
+
+  private ByteBuf inflate(
+      final ChannelHandlerContext ctx,
+      final ByteBuf in,
+      final int compressedLength,
+      final int uncompressedLength)
+      throws DataFormatException {
+    var input = ByteBufUtil.getBytes(in, in.readerIndex(), compressedLength, false);
+    in.skipBytes(compressedLength);
+
+    var inflater = INFLATERS.get();
+    inflater.reset();
+    inflater.setInput(input);
+
+    var buf = ctx.alloc().heapBuffer(uncompressedLength);
+    try {
+      var offset = buf.arrayOffset() + buf.writerIndex();
+      var inflated = 0;
+      while (inflated < uncompressedLength && !inflater.finished()) {
+        var n = inflater.inflate(buf.array(), offset + inflated, uncompressedLength - inflated);
+        if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        inflated += n;
+      }
+      if (inflated != uncompressedLength) {
+        throw new DecoderException(
+            String.format(
+                "Malformed compressed packet, expect %d bytes, got %d bytes.",
+                uncompressedLength, inflated));
+      }
+      buf.writerIndex(buf.writerIndex() + inflated);
+      return buf;
+    } catch (Exception e) {
+      buf.release();
+      throw e;
+    }
+  }
+
+  @Override
+  protected void encode(final ChannelHandlerContext ctx, final ByteBuf msg, final ByteBuf out) {
+    // A packet with the sequence id 0 is the start of a new command.
+    if (msg.readableBytes() >= MySQLPayloadCodecHandler.PAYLOAD_BYTES + 1
+        && msg.getUnsignedByte(msg.readerIndex() + MySQLPayloadCodecHandler.PAYLOAD_BYTES) == 0) {
+      sequenceId = 0;
+    }
+
+    do {
+      var length = Math.min(MAX_PAYLOAD_SIZE, msg.readableBytes());
+      if (length < threshold) {
+        writeUncompressed(msg, length, out);
+      } else {
+        writeCompressed(msg, length, out);
+      }
+    } while (msg.isReadable());
+  }
+
+  private void writeUncompressed(final ByteBuf msg, final int length, final ByteBuf out) {
+    out.writeMediumLE(length);
+    out.writeByte(nextSequenceId());
+    out.writeMediumLE(0);
+    out.writeBytes(msg, length);
+  }
+
+  private void writeCompressed(final ByteBuf msg, final int length, final ByteBuf out) {
+    var input = ByteBufUtil.getBytes(msg, msg.readerIndex(), length, false);
+    var deflater = DEFLATERS.get();
+    deflater.reset();
+    deflater.setLevel(level);
+    deflater.setInput(input);
+    deflater.finish();
+
+    var headerIndex = out.writerIndex();
+    out.writeZero(HEADER_BYTES);
+    var buffer = new byte[DEFLATE_BUFFER_SIZE];
+    var compressedLength = 0;
+    while (!deflater.finished()) {
+      var n = deflater.deflate(buffer);
+      compressedLength += n;
+      if (compressedLength >= length) {
+        // The compressed payload is not smaller than the original payload.
+        out.writerIndex(headerIndex);
+        writeUncompressed(msg, length, out);
+        return;
+      }
+      out.writeBytes(buffer, 0, n);
+    }
+
+    msg.skipBytes(length);
+    out.setMediumLE(headerIndex, compressedLength);
+    out.setByte(headerIndex + 3, nextSequenceId());
+    out.setMediumLE(headerIndex + 4, length);
+    COMPRESSION_INPUT_BYTES.inc(length);
+    COMPRESSION_OUTPUT_BYTES.inc(compressedLength);
+  }
+
+  private int nextSequenceId() {
+    sequenceId %= 256;
+    return sequenceId++;
+  }
+}
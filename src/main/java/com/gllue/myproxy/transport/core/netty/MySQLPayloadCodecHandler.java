@@ -69,7 +69,7 @@ public class MySQLPayloadCodecHandler extends ByteToMessageCodec<MySQLPacket> {
 
     if (cumulation == null) {
       if (payloadLength < MAX_PAYLOAD_SIZE) {
-        out.add(new MySQLPayload(payloadByteBuf));
+        out.add(MySQLPayload.newInstance(payloadByteBuf));
       } else {
         cumulation = context.alloc().compositeBuffer();
         cumulation.addComponent(true, payloadByteBuf);
@@ -80,7 +80,7 @@ public class MySQLPayloadCodecHandler extends ByteToMessageCodec<MySQLPacket> {
       }
 
       if (payloadLength < MAX_PAYLOAD_SIZE) {
-        out.add(new MySQLPayload(cumulation));
+        out.add(MySQLPayload.newInstance(cumulation));
         cumulation = null;
       }
     }
@@ -99,8 +99,14 @@ public class MySQLPayloadCodecHandler extends ByteToMessageCodec<MySQLPacket> {
   public void encode(
       final ChannelHandlerContext context, final MySQLPacket message, final ByteBuf out) {
     // Fast path for direct transferred query result.
+    // The buffer is written as it is, it's not copied into a new payload.
     if (message instanceof WrappedPayloadPacket) {
-      writePayload(((WrappedPayloadPacket) message).getPayload(), out);
+      var packet = (WrappedPayloadPacket) message;
+      try {
+        writeByteBuf(packet.getByteBuf(), out);
+      } finally {
+        packet.release();
+      }
       return;
     }
 
@@ -130,18 +136,21 @@ public class MySQLPayloadCodecHandler extends ByteToMessageCodec<MySQLPacket> {
   }
 
   private void writePayload(final MySQLPayload payload, final ByteBuf out) {
-    var buf = payload.getByteBuf();
     try (payload) {
-      int payloadLen;
-      do {
-        payloadLen = Math.min(MAX_PAYLOAD_SIZE, buf.readableBytes());
-        out.writeMediumLE(payloadLen);
-        out.writeByte(nextSequenceId());
-        out.writeBytes(buf, payloadLen);
-      } while (buf.isReadable() || payloadLen == MAX_PAYLOAD_SIZE);
+      writeByteBuf(payload.getByteBuf(), out);
     }
   }
 
+  private void writeByteBuf(final ByteBuf buf, final ByteBuf out) {
+    int payloadLen;
+    do {
+      payloadLen = Math.min(MAX_PAYLOAD_SIZE, buf.readableBytes());
+      out.writeMediumLE(payloadLen);
+      out.writeByte(nextSequenceId());
+      out.writeBytes(buf, payloadLen);
+    } while (buf.isReadable() || payloadLen == MAX_PAYLOAD_SIZE);
+  }
+
   private int nextSequenceId() {
     sequenceId %= 256;
     return sequenceId++;
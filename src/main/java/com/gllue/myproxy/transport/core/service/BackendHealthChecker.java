@@ -0,0 +1,245 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.transport.backend.command.DefaultCommandResultReader;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.backend.datasource.BackendDataSource;
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import com.gllue.myproxy.transport.protocol.packet.command.SimpleCommandPacket;
+import com.google.common.base.Preconditions;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Periodically pings the active endpoint of a data source over a dedicated connection. The data
+ * source is marked as unavailable after the consecutive failures reach the failure threshold, and
+ * it fails over to the standby endpoint if one is configured. Checks of an unavailable data source
+ * are backed off exponentially.
+ */
+@Slf4j
+class BackendHealthChecker implements Runnable {
+  private static final Gauge DATA_SOURCE_AVAILABLE =
+      Gauge.build()
+          .name("backend_data_source_available")
+          .labelNames("data_source")
+          .help("Whether the backend data source is available, 1 means available.")
+          .register();
+  private static final Counter DATA_SOURCE_FAILOVERS =
+      Counter.build()
+          .name("backend_data_source_failovers")
+          .labelNames("data_source")
+          .help("Total failovers of the backend data source.")
+          .register();
+
+  private static final SimpleCommandPacket PING_COMMAND =
+      new SimpleCommandPacket(MySQLCommandPacketType.COM_PING);
+
+  private final BackendDataSource dataSource;
+  private final ConnectionPool connectionPool;
+  private final ThreadPool threadPool;
+  private final long intervalInMills;
+  private final long timeoutInMills;
+  private final long maxBackoffInMills;
+  private final int failureThreshold;
+  private final int recoveryThreshold;
+
+  private volatile BackendConnection connection;
+  private volatile boolean closed;
+
+  // The following states are only accessed by the sequential checks.
+  private int consecutiveFailures;
+  private int consecutiveSuccesses;
+  private long backoffInMills;
+  private boolean failoverUnverified;
+
+  BackendHealthChecker(
+      final BackendDataSource dataSource,
+      final ConnectionPool connectionPool,
+      final ThreadPool threadPool,
+      final long intervalInMills,
+      final long timeoutInMills,
+      final long maxBackoffInMills,
+      final int failureThreshold,
+      final int recoveryThreshold) {
+    Preconditions.checkArgument(intervalInMills > 0, "intervalInMills must > 0");
+    Preconditions.checkArgument(timeoutInMills > 0, "timeoutInMills must > 0");
+    Preconditions.checkArgument(failureThreshold > 0, "failureThreshold must > 0");
+    Preconditions.checkArgument(recoveryThreshold > 0, "recoveryThreshold must > 0");
+
+    this.dataSource = dataSource;
+    this.connectionPool = connectionPool;
+    this.threadPool = threadPool;
+    this.intervalInMills = intervalInMills;
+    this.timeoutInMills = timeoutInMills;
+    this.maxBackoffInMills = Math.max(maxBackoffInMills, intervalInMills);
+    this.failureThreshold = failureThreshold;
+    this.recoveryThreshold = recoveryThreshold;
+    this.backoffInMills = intervalInMills;
+    DATA_SOURCE_AVAILABLE.labels(dataSource.getName()).set(1);
+  }
+
+  void start() {
+    schedule(intervalInMills);
+  }
+
+  void close() {
+    closed = true;
+    closeConnection();
+  }
+
+  private void schedule(final long delay) {
+    if (closed) {
+      return;
+    }
+    threadPool.schedule(this, delay, TimeUnit.MILLISECONDS, threadPool.executor(Name.GENERIC));
+  }
+
+  @Override
+  public void run() {
+    if (closed) {
+      return;
+    }
+
+    var completed = new AtomicBoolean(false);
+    var callback =
+        new Callback<CommandResult>() {
+          @Override
+          public void onSuccess(CommandResult result) {
+            if (completed.compareAndSet(false, true)) {
+              schedule(onCheckSucceeded());
+            }
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            if (completed.compareAndSet(false, true)) {
+              if (log.isDebugEnabled()) {
+                log.debug("Health check of data source [{}] failed.", dataSource.getName(), e);
+              }
+              closeConnection();
+              schedule(onCheckFailed());
+            }
+          }
+        };
+
+    threadPool.schedule(
+        () -> callback.onFailure(new TimeoutException("Health check timeout.")),
+        timeoutInMills,
+        TimeUnit.MILLISECONDS,
+        threadPool.executor(Name.GENERIC));
+    try {
+      ping(callback, completed);
+    } catch (Exception e) {
+      callback.onFailure(e);
+    }
+  }
+
+  private void ping(final Callback<CommandResult> callback, final AtomicBoolean completed) {
+    var conn = connection;
+    if (conn != null && !conn.isClosed()) {
+      conn.sendCommand(PING_COMMAND, DefaultCommandResultReader.newInstance(callback));
+      return;
+    }
+
+    var future = dataSource.tryGetConnection(null);
+    future.addListener(
+        () -> {
+          if (!future.isSuccess()) {
+            callback.onFailure(future.getException());
+            return;
+          }
+
+          var newConnection = (BackendConnection) future.getValue();
+          if (completed.get() || closed) {
+            // The check has been timeout.
+            newConnection.close();
+            return;
+          }
+          connection = newConnection;
+          newConnection.sendCommand(PING_COMMAND, DefaultCommandResultReader.newInstance(callback));
+        },
+        ThreadPool.DIRECT_EXECUTOR_SERVICE);
+  }
+
+  private void closeConnection() {
+    var conn = connection;
+    connection = null;
+    if (conn != null && !conn.isClosed()) {
+      conn.close();
+    }
+  }
+
+  /**
+   * Update the state after the check was succeeded.
+   *
+   * @return the delay of the next check.
+   */
+  long onCheckSucceeded() {
+    consecutiveFailures = 0;
+    consecutiveSuccesses++;
+    failoverUnverified = false;
+    if (!dataSource.isAvailable() && consecutiveSuccesses >= recoveryThreshold) {
+      dataSource.setAvailable(true);
+      DATA_SOURCE_AVAILABLE.labels(dataSource.getName()).set(1);
+      log.info(
+          "Data source [{}] is available again. [endpoint={}]",
+          dataSource.getName(),
+          dataSource.getActiveSocketAddress());
+    }
+    backoffInMills = intervalInMills;
+    return intervalInMills;
+  }
+
+  /**
+   * Update the state after the check was failed.
+   *
+   * @return the delay of the next check.
+   */
+  long onCheckFailed() {
+    consecutiveSuccesses = 0;
+    consecutiveFailures++;
+    if (consecutiveFailures < failureThreshold) {
+      return dataSource.isAvailable() ? intervalInMills : nextBackoff();
+    }
+
+    consecutiveFailures = 0;
+    var failedEndpoint = dataSource.getActiveSocketAddress();
+    connectionPool.drain();
+    if (dataSource.hasStandby()) {
+      var endpoint = dataSource.failover();
+      DATA_SOURCE_FAILOVERS.labels(dataSource.getName()).inc();
+      log.warn(
+          "Data source [{}] failed over from endpoint [{}] to endpoint [{}].",
+          dataSource.getName(),
+          failedEndpoint,
+          endpoint);
+      // Both endpoints are unhealthy if the previous failover is not verified by any check.
+      if (!failoverUnverified) {
+        failoverUnverified = true;
+        return intervalInMills;
+      }
+    }
+
+    if (dataSource.isAvailable()) {
+      dataSource.setAvailable(false);
+      DATA_SOURCE_AVAILABLE.labels(dataSource.getName()).set(0);
+      log.error(
+          "Data source [{}] is unavailable. [endpoint={}]", dataSource.getName(), failedEndpoint);
+    }
+    return nextBackoff();
+  }
+
+  private long nextBackoff() {
+    var backoff = backoffInMills;
+    backoffInMills = Math.min(backoffInMills * 2, maxBackoffInMills);
+    return backoff;
+  }
+}
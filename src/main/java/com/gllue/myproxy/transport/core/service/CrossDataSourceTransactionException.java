@@ -0,0 +1,21 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.common.exception.BaseServerException;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+import com.gllue.myproxy.transport.exception.ServerErrorCode;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class CrossDataSourceTransactionException extends BaseServerException {
+  private final String database;
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return ServerErrorCode.ER_CROSS_DATA_SOURCE_TRANSACTION;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return new Object[] {database};
+  }
+}
@@ -0,0 +1,21 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.common.exception.BaseServerException;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+import com.gllue.myproxy.transport.exception.ServerErrorCode;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class DataSourceUnavailableException extends BaseServerException {
+  private final String dataSource;
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return ServerErrorCode.ER_DATA_SOURCE_UNAVAILABLE;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return new Object[] {dataSource};
+  }
+}
@@ -0,0 +1,140 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.Promise.Promises;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Execute a group of queries concurrently and return the results in the order of the queries. The
+ * queries are shared by a group of workers, the first worker runs on the backend connection bound
+ * to the frontend connection, and the others run on the borrowed auxiliary connections. A worker
+ * which cannot borrow a connection quits and leaves the queries to the others, so the queries are
+ * executed sequentially on the bound connection at worst.
+ */
+@Slf4j
+class FanOutExecutor {
+  /** An auxiliary connection borrowed by a worker, it's released after the worker quits. */
+  interface AuxiliaryConnection {
+    Promise<CommandResult> execute(String query);
+
+    void release();
+  }
+
+  private final List<String> queries;
+  private final CommandResult[] results;
+  private final AtomicInteger index = new AtomicInteger(0);
+  private volatile Throwable exception;
+
+  FanOutExecutor(final List<String> queries) {
+    this.queries = queries;
+    this.results = new CommandResult[queries.size()];
+  }
+
+  /**
+   * Execute the queries.
+   *
+   * @param boundExecutor executes a query on the bound backend connection.
+   * @param parallelism the maximum number of workers including the worker of the bound connection.
+   * @param auxiliaryConnectionSupplier borrows an auxiliary connection, returns {@code null} if no
+   *     connection can be borrowed.
+   * @return the results in the order of the queries, or the first failure.
+   */
+  Promise<List<CommandResult>> execute(
+      final Function<String, Promise<CommandResult>> boundExecutor,
+      final int parallelism,
+      final Supplier<Promise<AuxiliaryConnection>> auxiliaryConnectionSupplier) {
+    var workers = new ArrayList<Promise<Boolean>>();
+    workers.add(runWorker(boundExecutor));
+    var auxiliaryWorkers = Math.min(parallelism, queries.size()) - 1;
+    for (int i = 0; i < auxiliaryWorkers; i++) {
+      workers.add(runAuxiliaryWorker(auxiliaryConnectionSupplier));
+    }
+
+    // Wait for all the workers even if a query failed, the bound backend connection cannot
+    // accept the next command until its worker quits.
+    return Promise.parallelAll(
+            new Promises<Boolean>() {
+              @Override
+              public List<Promise<Boolean>> list() {
+                return workers;
+              }
+
+              @Override
+              public Boolean[] newResult(int size) {
+                return new Boolean[size];
+              }
+            })
+        .thenAsync(
+            (v) -> {
+              if (exception != null) {
+                return new Promise<List<CommandResult>>((cb) -> cb.onFailure(exception));
+              }
+              return Promise.emptyPromise(Arrays.asList(results));
+            });
+  }
+
+  /** Returns the index of the next query to execute, or -1 if there are no more queries. */
+  private int nextIndex() {
+    if (exception != null) {
+      return -1;
+    }
+    var i = index.getAndIncrement();
+    return i < queries.size() ? i : -1;
+  }
+
+  private synchronized void fail(final Throwable e) {
+    if (exception == null) {
+      exception = e;
+    }
+  }
+
+  private Promise<Boolean> runWorker(final Function<String, Promise<CommandResult>> executor) {
+    return Promise.all(
+            () -> {
+              var i = nextIndex();
+              if (i < 0) return null;
+              return executor
+                  .apply(queries.get(i))
+                  .then(
+                      (result) -> {
+                        results[i] = result;
+                        return true;
+                      },
+                      (e) -> {
+                        fail(e);
+                        return false;
+                      });
+            })
+        .then((v) -> true);
+  }
+
+  private Promise<Boolean> runAuxiliaryWorker(
+      final Supplier<Promise<AuxiliaryConnection>> auxiliaryConnectionSupplier) {
+    var promise = auxiliaryConnectionSupplier.get();
+    if (promise == null) {
+      return Promise.emptyPromise(false);
+    }
+
+    return promise
+        .thenAsync(
+            (connection) ->
+                runWorker(connection::execute)
+                    .doFinally(
+                        () -> {
+                          connection.release();
+                          return true;
+                        }))
+        .doCatch(
+            (e) -> {
+              log.warn("Failed to prepare an auxiliary backend connection.", e);
+              return false;
+            });
+  }
+}
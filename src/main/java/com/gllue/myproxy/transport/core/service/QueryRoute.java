@@ -0,0 +1,17 @@
+package com.gllue.myproxy.transport.core.service;
+
+/** Where a read-only query should be sent when the data source has replicas. */
+public enum QueryRoute {
+  /**
+   * Send the query to a replica unless the session has an opened transaction or has written data
+   * recently.
+   */
+  AUTO,
+
+  /** Always send the query to the primary data source. */
+  PRIMARY,
+
+  /** Send the query to a replica unless the session has an opened transaction. */
+  REPLICA,
+  ;
+}
@@ -0,0 +1,30 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.common.exception.BaseServerException;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+import com.gllue.myproxy.transport.exception.ServerErrorCode;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class SessionStateBoundException extends BaseServerException {
+  private final String database;
+  private final Set<BoundState> boundStates;
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return ServerErrorCode.ER_SESSION_STATE_BOUND;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    var states =
+        boundStates.stream()
+            .sorted()
+            .map(BoundState::getDescription)
+            .collect(Collectors.joining(", "));
+    return new Object[] {database, states};
+  }
+}
@@ -0,0 +1,22 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.common.exception.BaseServerException;
+import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import com.gllue.myproxy.transport.exception.SQLErrorCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class StatementTimeoutException extends BaseServerException {
+  @Getter private final long timeoutInMills;
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return MySQLServerErrorCode.ER_QUERY_TIMEOUT;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return EMPTY_ERROR_MESSAGE_ARGS;
+  }
+}
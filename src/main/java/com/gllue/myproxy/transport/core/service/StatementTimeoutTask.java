@@ -0,0 +1,180 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ExtensibleFuture;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.transport.backend.command.CommandResultReader;
+import com.gllue.myproxy.transport.backend.command.DefaultCommandResultReader;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.core.connection.Connection;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import com.gllue.myproxy.transport.core.connection.PooledConnection;
+import com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket;
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Enforce the max execution time of a command sent to the backend database. The task is scheduled
+ * once the command is sent and cancelled once its result is read. If the command doesn't complete
+ * in time, the result reader is interrupted so that the client gets the timeout error, and the
+ * query is killed with {@code KILL QUERY} on a connection borrowed from the pool of the backend
+ * connection. The physical connection executing the command is closed if the query cannot be
+ * killed, it may be the backend connection bound to the frontend connection, which also closes the
+ * frontend connection, or a replica or auxiliary connection borrowed from a pool.
+ *
+ * <p>The killed connection is still usable once the killed query returns, so the session and its
+ * transaction are kept.
+ */
+@Slf4j
+class StatementTimeoutTask implements Runnable, Callback<CommandResult> {
+  private static final Counter STATEMENT_TIMEOUTS =
+      Counter.build()
+          .name("statement_timeouts")
+          .labelNames("datasource")
+          .help("Total statements killed since the max execution time is exceeded.")
+          .register();
+
+  private static final Histogram KILLED_QUERY_DURATION =
+      Histogram.build()
+          .name("killed_query_duration")
+          .labelNames("datasource")
+          .help("Duration in milliseconds from a timed out query is sent to it returns.")
+          .unit("milliseconds")
+          .buckets(100, 500, 1000, 5000, 10000, 30000, 60000, 300000)
+          .register();
+
+  private final String datasource;
+  private final ConnectionPool pool;
+  private final BackendConnection backendConnection;
+  private final CommandResultReader reader;
+  private final long timeoutInMills;
+
+  private final long startTime = System.currentTimeMillis();
+  private final AtomicBoolean done = new AtomicBoolean(false);
+  private volatile ScheduledFuture<?> future;
+
+  /**
+   * @param datasource the data source name of the frontend connection
+   * @param pool the pool to borrow the connection to kill the query
+   * @param backendConnection the connection executing the command
+   * @param reader the result reader of the command
+   * @param timeoutInMills the max execution time of the command
+   */
+  StatementTimeoutTask(
+      final String datasource,
+      final ConnectionPool pool,
+      final BackendConnection backendConnection,
+      final CommandResultReader reader,
+      final long timeoutInMills) {
+    this.datasource = datasource;
+    this.pool = pool;
+    this.backendConnection = backendConnection;
+    this.reader = reader;
+    this.timeoutInMills = timeoutInMills;
+  }
+
+  /** Start the timer, it must be invoked before the command is sent. */
+  void start(final ThreadPool threadPool) {
+    reader.addCallback(this);
+    future =
+        threadPool.schedule(
+            this, timeoutInMills, TimeUnit.MILLISECONDS, threadPool.executor(Name.GENERIC));
+  }
+
+  @Override
+  public void onSuccess(CommandResult result) {
+    completed();
+  }
+
+  @Override
+  public void onFailure(Throwable e) {
+    completed();
+  }
+
+  private void completed() {
+    if (done.compareAndSet(false, true)) {
+      future.cancel(false);
+    } else {
+      KILLED_QUERY_DURATION.labels(datasource).observe(System.currentTimeMillis() - startTime);
+    }
+  }
+
+  @Override
+  public void run() {
+    if (reader.isReadCompleted() || !done.compareAndSet(false, true)) {
+      return;
+    }
+
+    STATEMENT_TIMEOUTS.labels(datasource).inc();
+    reader.interrupt(new StatementTimeoutException(timeoutInMills));
+    killQuery();
+  }
+
+  private void killQuery() {
+    var threadId = backendConnection.getDatabaseThreadId();
+    ExtensibleFuture<Connection> connectionFuture;
+    try {
+      connectionFuture = pool.tryAcquireConnection(null);
+    } catch (Exception e) {
+      killFailed(threadId, e);
+      return;
+    }
+
+    connectionFuture.addListener(
+        () -> {
+          if (!connectionFuture.isSuccess()) {
+            killFailed(threadId, connectionFuture.getException());
+            return;
+          }
+
+          var connection = (BackendConnection) connectionFuture.getValue();
+          connection.sendCommand(
+              new QueryCommandPacket("KILL QUERY " + threadId),
+              DefaultCommandResultReader.newInstance(
+                  new Callback<>() {
+                    @Override
+                    public void onSuccess(CommandResult result) {
+                      connection.close();
+                      log.info(
+                          "Killed the query of the backend thread [{}] after {}ms.",
+                          threadId,
+                          timeoutInMills);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable e) {
+                      connection.close();
+                      killFailed(threadId, e);
+                    }
+                  }));
+        },
+        ThreadPool.DIRECT_EXECUTOR_SERVICE);
+  }
+
+  private void killFailed(final long threadId, final Throwable e) {
+    log.warn(
+        "Failed to kill the timed out query of the backend thread [{}], close the connection.",
+        threadId,
+        e);
+    abort();
+  }
+
+  /**
+   * Close the physical connection executing the command. A pooled connection is not closed since
+   * it would be released to the pool while the query is still running, the physical connection is
+   * closed instead and the pool discards it once it's released.
+   */
+  void abort() {
+    Connection connection = backendConnection;
+    if (connection instanceof PooledConnection) {
+      connection = ((PooledConnection) connection).getPoolEntry().getConnection();
+    }
+    connection.close();
+  }
+}
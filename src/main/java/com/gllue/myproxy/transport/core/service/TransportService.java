@@ -1,5 +1,6 @@
 package com.gllue.myproxy.transport.core.service;
 
+import static com.gllue.myproxy.constant.TimeConstants.NANOS_PER_SECOND;
 import static com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket.BEGIN_COMMAND;
 import static com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket.COMMIT_COMMAND;
 import static com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket.DISABLE_AUTO_COMMIT_COMMAND;
@@ -17,6 +18,9 @@ import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.config.Configurations.Type;
 import com.gllue.myproxy.config.GenericConfigPropertyKey;
 import com.gllue.myproxy.config.TransportConfigPropertyKey;
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import com.gllue.myproxy.route.move.DatabaseMove;
+import com.gllue.myproxy.route.move.DatabaseMoveRegistry;
 import com.gllue.myproxy.transport.backend.command.CachedQueryResultReader;
 import com.gllue.myproxy.transport.backend.command.CommandResultReader;
 import com.gllue.myproxy.transport.backend.command.DefaultCommandResultReader;
@@ -27,10 +31,15 @@ import com.gllue.myproxy.transport.backend.datasource.BackendDataSource;
 import com.gllue.myproxy.transport.backend.datasource.DataSourceManager;
 import com.gllue.myproxy.transport.core.connection.Connection;
 import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import com.gllue.myproxy.transport.core.service.WeightedReplicaPools.ReplicaPool;
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats.Phase;
 import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import com.gllue.myproxy.transport.protocol.packet.command.InitDBCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket;
 import com.google.common.base.Preconditions;
+import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
 import java.net.SocketAddress;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -39,7 +48,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -83,16 +94,33 @@ public class TransportService implements AutoCloseable {
           .name("callbacks_being_blocked")
           .help("Callbacks being blocked in the transport service.")
           .register();
-
+  private static final Summary REPLICA_QUERY_LATENCY =
+      Summary.build()
+          .name("replica_query_latency_summary")
+          .labelNames("data_source", "replica")
+          .help("Latency summary in seconds of the queries routed to the replicas.")
+          .unit("second")
+          .register();
+  private static final Counter REPLICA_QUERY_FALLBACKS =
+      Counter.build()
+          .name("replica_query_fallbacks")
+          .labelNames("data_source")
+          .help("Total read queries sent to the primary as no replica connection is available.")
+          .register();
 
   private final Configurations configurations;
   private final ThreadPool threadPool;
 
   @Getter private DataSourceManager<BackendDataSource> backendDataSourceManager;
+  @Getter private final DatabaseRouteTable databaseRouteTable = new DatabaseRouteTable();
+  @Getter private final DatabaseMoveRegistry databaseMoveRegistry = new DatabaseMoveRegistry();
 
   private final Map<Integer, FrontendConnection> frontendConnectionMap;
   private final Map<Integer, BackendConnection> backendConnectionMap;
   private Map<String, ConnectionPool> backendConnectionPool;
+  private Map<String, WeightedReplicaPools> replicaConnectionPool;
+  private final List<BackendHealthChecker> healthCheckers = new ArrayList<>();
+  private Semaphore auxiliaryConnectionPermits;
 
   public TransportService(final Configurations configurations, final ThreadPool threadPool) {
     this.configurations = configurations;
@@ -138,14 +166,70 @@ public class TransportService implements AutoCloseable {
         Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_CONNECTION_MAX_LIFE_TIME_IN_MILLS);
   }
 
+  private long writeStickyTimeInMills() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_REPLICA_WRITE_STICKY_TIME_IN_MILLS);
+  }
+
+  private long healthCheckIntervalInMills() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_HEALTH_CHECK_INTERVAL_IN_MILLS);
+  }
+
+  private long healthCheckTimeoutInMills() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_HEALTH_CHECK_TIMEOUT_IN_MILLS);
+  }
+
+  private long healthCheckMaxBackoffInMills() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_HEALTH_CHECK_MAX_BACKOFF_IN_MILLS);
+  }
+
+  private int healthCheckFailureThreshold() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_HEALTH_CHECK_FAILURE_THRESHOLD);
+  }
+
+  private int healthCheckRecoveryThreshold() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_HEALTH_CHECK_RECOVERY_THRESHOLD);
+  }
+
+  private int fanOutParallelism() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_FAN_OUT_PARALLELISM);
+  }
+
+  private int fanOutMaxAuxiliaryConnections() {
+    return configurations.getValue(
+        Type.TRANSPORT, TransportConfigPropertyKey.BACKEND_FAN_OUT_MAX_AUXILIARY_CONNECTIONS);
+  }
+
   public void initialize(final List<BackendDataSource> dataSources) {
     if (this.backendDataSourceManager != null) {
       throw new IllegalStateException("Cannot override backendDataSourceManager");
     }
     this.backendDataSourceManager = new DataSourceManager<>(dataSources);
     this.backendConnectionPool = buildBackendConnectionPool(this.backendDataSourceManager);
+    this.replicaConnectionPool = buildReplicaConnectionPool(this.backendDataSourceManager);
+    this.auxiliaryConnectionPermits = new Semaphore(fanOutMaxAuxiliaryConnections());
     this.scheduleIdleFrontendConnectionDetection();
     this.scheduleConnectionPoolMetricCollection();
+    this.scheduleBackendHealthChecks();
+  }
+
+  private ConnectionPool newBackendConnectionPool(BackendDataSource dataSource) {
+    return new FIFOBackendConnectionPool(
+        dataSource.getConnectionArguments(null),
+        (arguments, database) -> dataSource.tryGetConnection(database),
+        maxBackendConnectionPoolSize(),
+        backendConnectionIdleTimeoutInMills(),
+        backendConnectionKeepAliveTimeInMills(),
+        backendConnectionKeepAliveQueryTimeoutInMills(),
+        backendConnectionMaxLifeTimeInMills(),
+        threadPool.getScheduler(),
+        threadPool.executor(Name.GENERIC));
   }
 
   private Map<String, ConnectionPool> buildBackendConnectionPool(
@@ -154,23 +238,65 @@ public class TransportService implements AutoCloseable {
     for (var name : dataSourceManager.getDataSourceNames()) {
       var dataSource = dataSourceManager.getDataSource(name);
       assert dataSource != null;
+      poolMap.put(name, newBackendConnectionPool(dataSource));
+    }
+    return Collections.unmodifiableMap(poolMap);
+  }
+
+  private Map<String, WeightedReplicaPools> buildReplicaConnectionPool(
+      DataSourceManager<BackendDataSource> dataSourceManager) {
+    Map<String, WeightedReplicaPools> poolMap = new HashMap<>();
+    for (var name : dataSourceManager.getDataSourceNames()) {
+      var dataSource = dataSourceManager.getDataSource(name);
+      assert dataSource != null;
+      if (dataSource.getReplicas().isEmpty()) {
+        continue;
+      }
 
-      var pool =
-          new FIFOBackendConnectionPool(
-              dataSource.getConnectionArguments(null),
-              (arguments, database) -> dataSource.tryGetConnection(database),
-              maxBackendConnectionPoolSize(),
-              backendConnectionIdleTimeoutInMills(),
-              backendConnectionKeepAliveTimeInMills(),
-              backendConnectionKeepAliveQueryTimeoutInMills(),
-              backendConnectionMaxLifeTimeInMills(),
-              threadPool.getScheduler(),
-              threadPool.executor(Name.GENERIC));
-      poolMap.put(name, pool);
+      var replicaPools = new ArrayList<ReplicaPool>();
+      for (var replica : dataSource.getReplicas()) {
+        replicaPools.add(new ReplicaPool(replica, newBackendConnectionPool(replica)));
+      }
+      poolMap.put(name, new WeightedReplicaPools(replicaPools));
     }
     return Collections.unmodifiableMap(poolMap);
   }
 
+  private void scheduleBackendHealthChecks() {
+    // 0 means the health check is disabled.
+    if (healthCheckIntervalInMills() <= 0) {
+      return;
+    }
+
+    for (var name : backendDataSourceManager.getDataSourceNames()) {
+      var dataSource = backendDataSourceManager.getDataSource(name);
+      assert dataSource != null;
+      healthCheckers.add(newBackendHealthChecker(dataSource, backendConnectionPool.get(name)));
+    }
+    for (var replicaPools : replicaConnectionPool.values()) {
+      for (var replicaPool : replicaPools.getReplicaPools()) {
+        healthCheckers.add(
+            newBackendHealthChecker(replicaPool.getDataSource(), replicaPool.getPool()));
+      }
+    }
+    for (var checker : healthCheckers) {
+      checker.start();
+    }
+  }
+
+  private BackendHealthChecker newBackendHealthChecker(
+      BackendDataSource dataSource, ConnectionPool pool) {
+    return new BackendHealthChecker(
+        dataSource,
+        pool,
+        threadPool,
+        healthCheckIntervalInMills(),
+        healthCheckTimeoutInMills(),
+        healthCheckMaxBackoffInMills(),
+        healthCheckFailureThreshold(),
+        healthCheckRecoveryThreshold());
+  }
+
   private void scheduleIdleFrontendConnectionDetection() {
     var maxIdleTime = maxFrontendConnectionIdleTimeInMills();
     var detectionInterval = idleConnectionDetectIntervalInMills();
@@ -184,8 +310,14 @@ public class TransportService implements AutoCloseable {
   }
 
   private void scheduleConnectionPoolMetricCollection() {
+    Map<String, ConnectionPool> poolMap = new HashMap<>(backendConnectionPool);
+    for (var replicaPools : replicaConnectionPool.values()) {
+      for (var replicaPool : replicaPools.getReplicaPools()) {
+        poolMap.put(replicaPool.getName(), replicaPool.getPool());
+      }
+    }
     threadPool.scheduleWithFixedDelay(
-        new ConnectionPoolMetricUpdater(backendConnectionPool),
+        new ConnectionPoolMetricUpdater(poolMap),
         CONNECTION_POOL_METRIC_UPDATE_INTERVAL,
         CONNECTION_POOL_METRIC_UPDATE_INTERVAL,
         TimeUnit.MILLISECONDS,
@@ -206,6 +338,7 @@ public class TransportService implements AutoCloseable {
     var connection = frontendConnectionMap.remove(connectionId);
     if (connection != null) {
       FRONTEND_CONNECTIONS.dec();
+      databaseMoveRegistry.rollbackTransaction(connectionId);
       var backendConnection = connection.getBackendConnection();
       if (backendConnection != null) {
         // if the transaction is not committed before the connection is released, the transaction
@@ -255,19 +388,57 @@ public class TransportService implements AutoCloseable {
     getFrontendConnection(connectionId).close();
   }
 
+  /**
+   * Returns the physical data source of the database, the logical data source which the frontend
+   * connection logs in is returned if the database has no route.
+   */
+  public String routeDataSource(
+      final FrontendConnection frontendConnection, @Nullable final String database) {
+    return databaseRouteTable.route(frontendConnection.getDataSourceName(), database);
+  }
+
+  /** Whether the backend connection is on the physical data source of the database. */
+  public boolean isRoutedTo(
+      final FrontendConnection frontendConnection,
+      @Nullable final String database,
+      final BackendConnection backendConnection) {
+    return routeDataSource(frontendConnection, database)
+        .equals(backendConnection.getDataSourceName());
+  }
+
   public ExtensibleFuture<Connection> assignBackendConnection(
       final FrontendConnection frontendConnection) {
-    var pool = backendConnectionPool.get(frontendConnection.getDataSourceName());
+    var database = frontendConnection.currentDatabase();
+    return acquireBackendConnection(routeDataSource(frontendConnection, database), database);
+  }
+
+  /**
+   * Acquire a backend connection from the pool of the physical data source of the database, the
+   * database is not changed on the acquired connection, it should be changed by the caller.
+   */
+  public ExtensibleFuture<Connection> assignBackendConnection(
+      final FrontendConnection frontendConnection, @Nullable final String database) {
+    return acquireBackendConnection(routeDataSource(frontendConnection, database), null);
+  }
+
+  private ExtensibleFuture<Connection> acquireBackendConnection(
+      final String dataSourceName, @Nullable final String database) {
+    var pool = backendConnectionPool.get(dataSourceName);
     if (pool == null) {
-      throw new BadDataSourceException(frontendConnection.getDataSourceName());
+      throw new BadDataSourceException(dataSourceName);
+    }
+    // Fail fast rather than waiting for the connect timeout of an unhealthy endpoint.
+    var dataSource = backendDataSourceManager.getDataSource(dataSourceName);
+    if (dataSource != null && !dataSource.isAvailable()) {
+      throw new DataSourceUnavailableException(dataSourceName);
     }
 
-    var future = pool.tryAcquireConnection(frontendConnection.currentDatabase());
+    var future = pool.tryAcquireConnection(database);
     if (future == null) {
       throw new IllegalArgumentException(
           String.format(
               "Cannot get backend connection, maybe the data source [%s] is not found.",
-              frontendConnection.getDataSourceName()));
+              dataSourceName));
     }
     return future;
   }
@@ -283,6 +454,8 @@ public class TransportService implements AutoCloseable {
             })
         .then(
             (result) -> {
+              // BEGIN commits the opened transaction implicitly.
+              databaseMoveRegistry.commitTransaction(connectionId);
               backendConnection.begin();
               frontendConnection.begin();
               return result;
@@ -300,6 +473,7 @@ public class TransportService implements AutoCloseable {
             })
         .then(
             (result) -> {
+              databaseMoveRegistry.commitTransaction(connectionId);
               backendConnection.commit();
               frontendConnection.commit();
               return result;
@@ -317,6 +491,7 @@ public class TransportService implements AutoCloseable {
             })
         .then(
             (result) -> {
+              databaseMoveRegistry.rollbackTransaction(connectionId);
               backendConnection.rollback();
               frontendConnection.rollback();
               return result;
@@ -337,6 +512,8 @@ public class TransportService implements AutoCloseable {
         .then(
             (result) -> {
               if (autoCommit) {
+                // Enabling the auto commit commits the opened transaction implicitly.
+                databaseMoveRegistry.commitTransaction(connectionId);
                 backendConnection.enableAutoCommit();
                 frontendConnection.enableAutoCommit();
               } else {
@@ -385,14 +562,265 @@ public class TransportService implements AutoCloseable {
     };
   }
 
+  /**
+   * Capture the write query of a database being moved by this node once it succeeds, so that it's
+   * replayed on the target data source of the move.
+   */
+  private Callback<CommandResult> captureWrite(
+      final FrontendConnection frontendConnection,
+      final String query,
+      final Callback<CommandResult> callback) {
+    if (databaseMoveRegistry.isEmpty()) {
+      return callback;
+    }
+    var move =
+        databaseMoveRegistry.get(
+            frontendConnection.getDataSourceName(), frontendConnection.currentDatabase());
+    if (move == null || !DatabaseMove.isWriteQuery(query)) {
+      return callback;
+    }
+
+    var connectionId = frontendConnection.connectionId();
+    return new Callback<>() {
+      @Override
+      public void onSuccess(CommandResult result) {
+        move.capture(
+            connectionId,
+            frontendConnection.isTransactionOpened(),
+            query,
+            result.getLastInsertId());
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        callback.onFailure(e);
+      }
+
+      @Override
+      public Executor executor() {
+        return callback.executor();
+      }
+    };
+  }
+
   public void submitQueryAndDirectTransferResult(
       final int connectionId, final String query, final Callback<CommandResult> callback) {
     var frontendConnection = getFrontendConnection(connectionId);
     var backendConnection = frontendConnection.getBackendConnection();
-    var newCallback = wrappedCallback(frontendConnection, callback);
+    var newCallback =
+        wrappedCallback(frontendConnection, captureWrite(frontendConnection, query, callback));
     backendConnection.sendCommand(
         new QueryCommandPacket(query),
-        new DirectTransferQueryResultReader(frontendConnection).addCallback(newCallback));
+        watchQuery(
+            frontendConnection,
+            backendConnection,
+            getBackendConnectionPool(backendConnection),
+            query,
+            new DirectTransferQueryResultReader(frontendConnection).addCallback(newCallback)));
+  }
+
+  /**
+   * Record the query submitted to the backend into the runtime state of the frontend connection
+   * and the trace of the executing query if any, and start the timer of the query if the executing
+   * statement has a max execution time.
+   *
+   * @param pool the pool of the backend connection, which is used to kill the timed out query
+   */
+  private CommandResultReader watchQuery(
+      final FrontendConnection frontendConnection,
+      final BackendConnection backendConnection,
+      final ConnectionPool pool,
+      final String query,
+      final CommandResultReader reader) {
+    var sessionContext = frontendConnection.getSessionContext();
+    var stats = sessionContext.getConnectionStats();
+    stats.enterPhase(Phase.BACKEND);
+    reader.setConnectionStats(stats);
+    var trace = sessionContext.getQueryTrace();
+    if (trace != null) {
+      trace.backendQuerySubmitted(query);
+      reader.setQueryTrace(trace);
+    }
+    var timeout = sessionContext.getStatementTimeoutInMills();
+    if (timeout > 0) {
+      new StatementTimeoutTask(
+              frontendConnection.getDataSourceName(), pool, backendConnection, reader, timeout)
+          .start(threadPool);
+    }
+    return reader;
+  }
+
+  private ConnectionPool getBackendConnectionPool(final BackendConnection backendConnection) {
+    return backendConnectionPool.get(backendConnection.getDataSourceName());
+  }
+
+  /**
+   * Submit a read-only query and transfer the result to the frontend directly. The query is sent
+   * to a replica of the data source if the route policy allows, otherwise it is sent to the
+   * backend connection bound to the frontend connection.
+   */
+  public void submitReadQueryAndDirectTransferResult(
+      final int connectionId,
+      final String query,
+      final QueryRoute route,
+      final Callback<CommandResult> callback) {
+    var frontendConnection = getFrontendConnection(connectionId);
+    var replicaPools = getRoutableReplicaPools(frontendConnection, route);
+    if (replicaPools == null) {
+      submitQueryAndDirectTransferResult(connectionId, query, callback);
+      return;
+    }
+
+    var replicaPool = replicaPools.select();
+    if (replicaPool == null) {
+      REPLICA_QUERY_FALLBACKS.labels(frontendConnection.getDataSourceName()).inc();
+      submitQueryAndDirectTransferResult(connectionId, query, callback);
+      return;
+    }
+
+    ExtensibleFuture<Connection> future;
+    try {
+      future = replicaPool.getPool().tryAcquireConnection(frontendConnection.currentDatabase());
+    } catch (Exception e) {
+      log.warn(
+          "Failed to acquire a connection of the replica [{}], fallback to the primary.",
+          replicaPool.getName(),
+          e);
+      REPLICA_QUERY_FALLBACKS.labels(frontendConnection.getDataSourceName()).inc();
+      submitQueryAndDirectTransferResult(connectionId, query, callback);
+      return;
+    }
+
+    future.addListener(
+        () -> {
+          if (!future.isSuccess()) {
+            log.warn(
+                "Failed to connect to the replica [{}], fallback to the primary.",
+                replicaPool.getName(),
+                future.getException());
+            REPLICA_QUERY_FALLBACKS.labels(frontendConnection.getDataSourceName()).inc();
+            submitQueryAndDirectTransferResult(connectionId, query, callback);
+            return;
+          }
+
+          var replicaConnection = (BackendConnection) future.getValue();
+          var newCallback =
+              replicaCallback(
+                  frontendConnection,
+                  replicaConnection,
+                  replicaPool.getName(),
+                  wrappedCallback(frontendConnection, callback));
+          var database = frontendConnection.currentDatabase();
+          var pool = replicaPool.getPool();
+          if (database == null || database.equals(replicaConnection.currentDatabase())) {
+            sendReplicaQuery(frontendConnection, replicaConnection, pool, query, newCallback);
+          } else {
+            changeReplicaDatabase(
+                frontendConnection, replicaConnection, pool, database, query, newCallback);
+          }
+        },
+        ThreadPool.DIRECT_EXECUTOR_SERVICE);
+  }
+
+  private WeightedReplicaPools getRoutableReplicaPools(
+      final FrontendConnection frontendConnection, final QueryRoute route) {
+    if (route == QueryRoute.PRIMARY) {
+      return null;
+    }
+    var replicaPools =
+        replicaConnectionPool.get(
+            routeDataSource(frontendConnection, frontendConnection.currentDatabase()));
+    if (replicaPools == null) {
+      return null;
+    }
+    // The transaction is opened on the primary, and the replica may not see its changes.
+    if (frontendConnection.isTransactionOpened()) {
+      return null;
+    }
+    // The replica connections are shared by the sessions, they don't have the variables, the
+    // temporary tables and the other state of the session.
+    if (frontendConnection.getSessionContext().hasSessionState()) {
+      return null;
+    }
+    if (route == QueryRoute.AUTO) {
+      var lastWriteTime = frontendConnection.getSessionContext().getLastWriteTime();
+      if (System.currentTimeMillis() - lastWriteTime < writeStickyTimeInMills()) {
+        return null;
+      }
+    }
+    return replicaPools;
+  }
+
+  private void changeReplicaDatabase(
+      final FrontendConnection frontendConnection,
+      final BackendConnection replicaConnection,
+      final ConnectionPool pool,
+      final String database,
+      final String query,
+      final Callback<CommandResult> callback) {
+    replicaConnection.changeDatabase(null);
+    replicaConnection.sendCommand(
+        new InitDBCommandPacket(database),
+        DefaultCommandResultReader.newInstance(
+            new Callback<>() {
+              @Override
+              public void onSuccess(CommandResult result) {
+                replicaConnection.changeDatabase(database);
+                sendReplicaQuery(frontendConnection, replicaConnection, pool, query, callback);
+              }
+
+              @Override
+              public void onFailure(Throwable e) {
+                callback.onFailure(e);
+              }
+            }));
+  }
+
+  private void sendReplicaQuery(
+      final FrontendConnection frontendConnection,
+      final BackendConnection replicaConnection,
+      final ConnectionPool pool,
+      final String query,
+      final Callback<CommandResult> callback) {
+    replicaConnection.sendCommand(
+        new QueryCommandPacket(query),
+        watchQuery(
+            frontendConnection,
+            replicaConnection,
+            pool,
+            query,
+            new DirectTransferQueryResultReader(frontendConnection).addCallback(callback)));
+  }
+
+  /** Release the replica connection and record the latency before invoking the callback. */
+  private Callback<CommandResult> replicaCallback(
+      final FrontendConnection frontendConnection,
+      final BackendConnection replicaConnection,
+      final String replicaName,
+      final Callback<CommandResult> callback) {
+    var startTime = System.nanoTime();
+    var latency = REPLICA_QUERY_LATENCY.labels(frontendConnection.getDataSourceName(), replicaName);
+    return new Callback<>() {
+      @Override
+      public void onSuccess(CommandResult result) {
+        latency.observe((System.nanoTime() - startTime) / NANOS_PER_SECOND);
+        replicaConnection.close();
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        latency.observe((System.nanoTime() - startTime) / NANOS_PER_SECOND);
+        replicaConnection.close();
+        callback.onFailure(e);
+      }
+
+      @Override
+      public Executor executor() {
+        return callback.executor();
+      }
+    };
   }
 
   private CommandResultReader newCachedQueryResultReader(Callback<CommandResult> callback) {
@@ -406,9 +834,216 @@ public class TransportService implements AutoCloseable {
       final int connectionId, final String query, final Callback<CommandResult> callback) {
     var frontendConnection = getFrontendConnection(connectionId);
     var backendConnection = frontendConnection.getBackendConnection();
-    var newCallback = wrappedCallback(frontendConnection, callback);
+    var newCallback =
+        wrappedCallback(frontendConnection, captureWrite(frontendConnection, query, callback));
     backendConnection.sendCommand(
-        new QueryCommandPacket(query), newCachedQueryResultReader(newCallback));
+        new QueryCommandPacket(query),
+        watchQuery(
+            frontendConnection,
+            backendConnection,
+            getBackendConnectionPool(backendConnection),
+            query,
+            newCachedQueryResultReader(newCallback)));
+  }
+
+  /**
+   * Submit the queries concurrently and return the results in the order of the queries. The first
+   * query runs on the backend connection bound to the frontend connection, and the others borrow
+   * auxiliary connections from the backend connection pool of the data source, see {@link
+   * FanOutExecutor}. The auxiliary connections borrowed by all the sessions are limited by a
+   * budget, so the fan-out statements cannot exhaust the connection pool.
+   *
+   * <p>The auxiliary connections don't share the transaction, the table locks and the session
+   * variables of the session, so only the bound backend connection is used if the session has
+   * any of them.
+   */
+  public Promise<List<CommandResult>> submitQueriesInParallel(
+      final int connectionId, final List<String> queries) {
+    var frontendConnection = getFrontendConnection(connectionId);
+    var parallelism = 1;
+    if (!frontendConnection.isTransactionOpened()
+        && !frontendConnection.getSessionContext().hasSessionState()) {
+      parallelism = fanOutParallelism();
+    }
+    return new FanOutExecutor(queries)
+        .execute(
+            (query) -> new Promise<>((cb) -> submitQueryToBackendDatabase(connectionId, query, cb)),
+            parallelism,
+            () -> borrowAuxiliaryConnection(frontendConnection));
+  }
+
+  /**
+   * Borrow an auxiliary connection for the fan-out queries of the frontend connection, returns
+   * null if the budget of the auxiliary connections is used up or the pool has no room for it.
+   */
+  private Promise<FanOutExecutor.AuxiliaryConnection> borrowAuxiliaryConnection(
+      final FrontendConnection frontendConnection) {
+    if (!auxiliaryConnectionPermits.tryAcquire()) {
+      return null;
+    }
+
+    var pool = getBackendConnectionPool(frontendConnection.getBackendConnection());
+    var database = frontendConnection.currentDatabase();
+    ExtensibleFuture<Connection> future;
+    try {
+      future = pool.tryAcquireConnection(database);
+    } catch (Exception e) {
+      auxiliaryConnectionPermits.release();
+      if (log.isDebugEnabled()) {
+        log.debug("Cannot acquire an auxiliary backend connection.", e);
+      }
+      return null;
+    }
+
+    return new Promise<BackendConnection>(
+            (cb) ->
+                future.addListener(
+                    () -> {
+                      if (future.isSuccess()) {
+                        cb.onSuccess((BackendConnection) future.getValue());
+                      } else {
+                        cb.onFailure(future.getException());
+                      }
+                    },
+                    ThreadPool.DIRECT_EXECUTOR_SERVICE))
+        .thenAsync(
+            (connection) ->
+                changeAuxiliaryDatabase(connection, database)
+                    .then((v) -> newAuxiliaryConnection(frontendConnection, connection))
+                    .doFinally(
+                        (FanOutExecutor.AuxiliaryConnection result, Throwable e) -> {
+                          if (e != null) {
+                            connection.close();
+                          }
+                          return result;
+                        }))
+        .doFinally(
+            (FanOutExecutor.AuxiliaryConnection result, Throwable e) -> {
+              if (e != null) {
+                auxiliaryConnectionPermits.release();
+              }
+              return result;
+            });
+  }
+
+  private FanOutExecutor.AuxiliaryConnection newAuxiliaryConnection(
+      final FrontendConnection frontendConnection, final BackendConnection connection) {
+    return new FanOutExecutor.AuxiliaryConnection() {
+      @Override
+      public Promise<CommandResult> execute(String query) {
+        return sendAuxiliaryQuery(frontendConnection, connection, query);
+      }
+
+      @Override
+      public void release() {
+        connection.close();
+        auxiliaryConnectionPermits.release();
+      }
+    };
+  }
+
+  private Promise<CommandResult> changeAuxiliaryDatabase(
+      final BackendConnection connection, final String database) {
+    if (database == null || database.equals(connection.currentDatabase())) {
+      return Promise.emptyPromise();
+    }
+
+    connection.changeDatabase(null);
+    return new Promise<CommandResult>(
+            (cb) ->
+                connection.sendCommand(
+                    new InitDBCommandPacket(database), DefaultCommandResultReader.newInstance(cb)))
+        .then(
+            (result) -> {
+              connection.changeDatabase(database);
+              return result;
+            });
+  }
+
+  /**
+   * Acquire a backend connection of the data source which is not bound to any frontend connection,
+   * the connection should be closed by the caller to release it to the pool.
+   */
+  public Promise<BackendConnection> acquireDedicatedBackendConnection(
+      final String dataSourceName, @Nullable final String database) {
+    return new Promise<BackendConnection>(
+            (cb) -> {
+              var future = acquireBackendConnection(dataSourceName, database);
+              future.addListener(
+                  () -> {
+                    if (future.isSuccess()) {
+                      cb.onSuccess((BackendConnection) future.getValue());
+                    } else {
+                      cb.onFailure(future.getException());
+                    }
+                  },
+                  ThreadPool.DIRECT_EXECUTOR_SERVICE);
+            })
+        .thenAsync(
+            (connection) ->
+                changeDatabase(connection, database)
+                    .then((v) -> connection)
+                    .doFinally(
+                        (BackendConnection result, Throwable e) -> {
+                          if (e != null) {
+                            connection.close();
+                          }
+                          return result;
+                        }));
+  }
+
+  /** Change the database of a dedicated backend connection. */
+  public Promise<CommandResult> changeDatabase(
+      final BackendConnection connection, @Nullable final String database) {
+    return changeAuxiliaryDatabase(connection, database);
+  }
+
+  /**
+   * Submit a query to a dedicated backend connection, the result is cached in memory and the
+   * callback is run by the generic executor.
+   */
+  public Promise<CommandResult> submitQueryToBackendConnection(
+      final BackendConnection connection, final String query) {
+    return new Promise<>(
+        (cb) ->
+            connection.sendCommand(
+                new QueryCommandPacket(query),
+                newCachedQueryResultReader(
+                    new Callback<>() {
+                      @Override
+                      public void onSuccess(CommandResult result) {
+                        cb.onSuccess(result);
+                      }
+
+                      @Override
+                      public void onFailure(Throwable e) {
+                        cb.onFailure(e);
+                      }
+
+                      @Override
+                      public Executor executor() {
+                        return threadPool.executor(Name.GENERIC);
+                      }
+                    })));
+  }
+
+  private Promise<CommandResult> sendAuxiliaryQuery(
+      final FrontendConnection frontendConnection,
+      final BackendConnection connection,
+      final String query) {
+    return new Promise<>(
+        (cb) -> {
+          var newCallback =
+              wrappedCallback(frontendConnection, captureWrite(frontendConnection, query, cb));
+          connection.sendCommand(
+              new QueryCommandPacket(query),
+              watchQuery(
+                  frontendConnection,
+                  connection,
+                  getBackendConnectionPool(connection),
+                  query,
+                  newCachedQueryResultReader(newCallback)));
+        });
   }
 
   public Promise<CommandResult> kill(
@@ -430,6 +1065,9 @@ public class TransportService implements AutoCloseable {
   public Promise<CommandResult> useDatabase(final int connectionId, final String dbName) {
     var frontendConnection = getFrontendConnection(connectionId);
     var backendConnection = frontendConnection.getBackendConnection();
+    if (!isRoutedTo(frontendConnection, dbName, backendConnection)) {
+      return useDatabaseOnAnotherDataSource(frontendConnection, dbName);
+    }
     return new Promise<CommandResult>(
             (cb) -> {
               var newCallback = wrappedCallback(frontendConnection, cb);
@@ -445,8 +1083,147 @@ public class TransportService implements AutoCloseable {
             });
   }
 
+  /**
+   * Change the database of the frontend connection to a database on another physical data source.
+   * The database is changed and the session state is restored on a new backend connection of that
+   * data source first, then the new backend connection is bound to the frontend connection and the
+   * old one is released.
+   */
+  private Promise<CommandResult> useDatabaseOnAnotherDataSource(
+      final FrontendConnection frontendConnection, final String dbName) {
+    return new Promise<BackendConnection>(
+            (cb) -> {
+              // The transaction cannot span the data sources.
+              if (frontendConnection.isTransactionOpened()) {
+                throw new CrossDataSourceTransactionException(dbName);
+              }
+              var boundStates = frontendConnection.getSessionContext().getBoundStates();
+              if (!boundStates.isEmpty()) {
+                throw new SessionStateBoundException(dbName, boundStates);
+              }
+              var future = assignBackendConnection(frontendConnection, dbName);
+              future.addListener(
+                  () -> {
+                    if (future.isSuccess()) {
+                      cb.onSuccess((BackendConnection) future.getValue());
+                    } else {
+                      cb.onFailure(future.getException());
+                    }
+                  },
+                  ThreadPool.DIRECT_EXECUTOR_SERVICE);
+            })
+        .thenAsync(
+            (connection) ->
+                changeAuxiliaryDatabase(connection, dbName)
+                    .thenAsync(
+                        (result) ->
+                            restoreSessionState(frontendConnection, connection)
+                                .then((v) -> result))
+                    .then(
+                        (result) -> {
+                          rebindBackendConnection(frontendConnection, connection);
+                          frontendConnection.changeDatabase(dbName);
+                          return result;
+                        })
+                    .doFinally(
+                        (CommandResult result, Throwable e) -> {
+                          if (e != null) {
+                            connection.close();
+                          }
+                          return result;
+                        }));
+  }
+
+  /**
+   * Restore the session state of the frontend connection on a backend connection which is going to
+   * be bound to it, that is the autocommit mode and the session variables assigned by the client.
+   * The state held by the backend connection, e.g. the temporary tables, cannot be restored.
+   */
+  public Promise<CommandResult> restoreSessionState(
+      final FrontendConnection frontendConnection, final BackendConnection connection) {
+    Promise<CommandResult> promise = Promise.emptyPromise();
+    var autoCommit = frontendConnection.isAutoCommit();
+    if (autoCommit != connection.isAutoCommit()) {
+      var command = autoCommit ? ENABLE_AUTO_COMMIT_COMMAND : DISABLE_AUTO_COMMIT_COMMAND;
+      promise =
+          sendCommand(connection, command)
+              .then(
+                  (result) -> {
+                    if (autoCommit) {
+                      connection.enableAutoCommit();
+                    } else {
+                      connection.disableAutoCommit();
+                    }
+                    return result;
+                  });
+    }
+
+    var variablesQuery = frontendConnection.getSessionContext().getSessionVariablesQuery();
+    if (variablesQuery == null) {
+      return promise;
+    }
+    return promise.thenAsync(
+        (v) -> sendCommand(connection, new QueryCommandPacket(variablesQuery)));
+  }
+
+  private Promise<CommandResult> sendCommand(
+      final BackendConnection connection, final QueryCommandPacket command) {
+    return new Promise<>(
+        (cb) -> connection.sendCommand(command, DefaultCommandResultReader.newInstance(cb)));
+  }
+
+  /** Whether the bound backend connection is on the data source of the current database. */
+  public boolean isRoutedToCurrentDatabase(final int connectionId) {
+    var frontendConnection = getFrontendConnection(connectionId);
+    return isRoutedTo(
+        frontendConnection,
+        frontendConnection.currentDatabase(),
+        frontendConnection.getBackendConnection());
+  }
+
+  /**
+   * Bind a backend connection of the physical data source of the current database if the bound
+   * one is not on it, the route of the database may be changed after the backend connection is
+   * bound. It fails if a transaction is opened.
+   */
+  public Promise<CommandResult> rerouteBackendConnection(final int connectionId) {
+    if (isRoutedToCurrentDatabase(connectionId)) {
+      return Promise.emptyPromise();
+    }
+    var frontendConnection = getFrontendConnection(connectionId);
+    return useDatabaseOnAnotherDataSource(frontendConnection, frontendConnection.currentDatabase());
+  }
+
+  private void rebindBackendConnection(
+      final FrontendConnection frontendConnection, final BackendConnection backendConnection) {
+    var oldConnection = frontendConnection.unbindBackendConnection();
+    if (oldConnection == null || !frontendConnection.bindBackendConnection(backendConnection)) {
+      if (oldConnection != null) {
+        oldConnection.close();
+      }
+      throw new IllegalStateException(
+          String.format(
+              "Frontend connection has been closed. [%s]", frontendConnection.connectionId()));
+    }
+    backendConnection.bindFrontendConnection(frontendConnection);
+    log.info(
+        "Frontend connection [{}] is switched from the backend connection [{}] of data source [{}] "
+            + "to the backend connection [{}] of data source [{}].",
+        frontendConnection.connectionId(),
+        oldConnection.connectionId(),
+        oldConnection.getDataSourceName(),
+        backendConnection.connectionId(),
+        backendConnection.getDataSourceName());
+    // Release the old backend connection to its pool.
+    oldConnection.close();
+  }
+
   @Override
   public void close() throws Exception {
+    for (var checker : healthCheckers) {
+      checker.close();
+    }
+
     for (var connection : frontendConnectionMap.values()) {
       if (!connection.isClosed()) {
         connection.close();
@@ -470,6 +1247,19 @@ public class TransportService implements AutoCloseable {
     private final SocketAddress clientSocketAddress;
   }
 
+  /** Returns the frontend connections of the data source. */
+  public List<FrontendConnection> getFrontendConnectionList(final String datasource) {
+    Preconditions.checkNotNull(datasource);
+
+    var result = new ArrayList<FrontendConnection>();
+    for (var frontendConn : frontendConnectionMap.values()) {
+      if (datasource.equals(frontendConn.getDataSourceName())) {
+        result.add(frontendConn);
+      }
+    }
+    return result;
+  }
+
   public List<ConnectionInfo> getConnectionInfoList(final String datasource) {
     Preconditions.checkNotNull(datasource);
 
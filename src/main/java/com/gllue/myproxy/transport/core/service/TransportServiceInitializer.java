@@ -9,6 +9,7 @@ import com.gllue.myproxy.config.GenericConfigPropertyKey;
 import com.gllue.myproxy.transport.backend.connection.BackendConnectionFactory;
 import com.gllue.myproxy.transport.backend.datasource.BackendDataSource;
 import com.gllue.myproxy.transport.backend.datasource.DataSourceConfig;
+import com.gllue.myproxy.transport.backend.datasource.ReplicaDataSource;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -42,14 +43,35 @@ public class TransportServiceInitializer implements Initializer {
           new BackendDataSource(
               name,
               configObject.getAddress(),
+              configObject.getStandbyAddress(),
               configObject.getUser(),
               configObject.getPassword(),
-              backendConnectionFactory);
+              backendConnectionFactory,
+              buildReplicaDataSources(configObject, backendConnectionFactory));
       dataSources.add(dataSource);
     }
     return dataSources;
   }
 
+  private List<ReplicaDataSource> buildReplicaDataSources(
+      DataSourceConfig config, BackendConnectionFactory backendConnectionFactory) {
+    List<ReplicaDataSource> replicas = new ArrayList<>();
+    var replicaConfigs = config.getReplicas();
+    for (int i = 0; i < replicaConfigs.size(); i++) {
+      var replicaConfig = replicaConfigs.get(i);
+      replicas.add(
+          new ReplicaDataSource(
+              config.getName(),
+              i,
+              replicaConfig.getWeight(),
+              replicaConfig.getAddress(),
+              config.getUser(),
+              config.getPassword(),
+              backendConnectionFactory));
+    }
+    return replicas;
+  }
+
   @Override
   public String name() {
     return "transport service";
@@ -0,0 +1,90 @@
+package com.gllue.myproxy.transport.core.service;
+
+import com.gllue.myproxy.transport.backend.datasource.ReplicaDataSource;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import com.google.common.base.Preconditions;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Connection pools of the replicas of a data source, a pool is selected by its weight. Unavailable
+ * replicas are skipped.
+ */
+class WeightedReplicaPools {
+  private final List<ReplicaPool> replicaPools;
+  private final int[] cumulativeWeights;
+  private final int totalWeight;
+
+  WeightedReplicaPools(final List<ReplicaPool> replicaPools) {
+    Preconditions.checkArgument(!replicaPools.isEmpty(), "Replica pools cannot be empty.");
+    this.replicaPools = List.copyOf(replicaPools);
+    this.cumulativeWeights = new int[replicaPools.size()];
+    int weight = 0;
+    for (int i = 0; i < cumulativeWeights.length; i++) {
+      var replicaWeight = replicaPools.get(i).getWeight();
+      Preconditions.checkArgument(replicaWeight > 0, "Replica weight must be positive.");
+      weight += replicaWeight;
+      cumulativeWeights[i] = weight;
+    }
+    this.totalWeight = weight;
+  }
+
+  /**
+   * Select a replica pool by weight.
+   *
+   * @return the selected replica pool, {@code null} if no replica is available.
+   */
+  ReplicaPool select() {
+    if (replicaPools.size() == 1) {
+      var replicaPool = replicaPools.get(0);
+      return replicaPool.isAvailable() ? replicaPool : null;
+    }
+    return select(ThreadLocalRandom.current().nextInt(totalWeight));
+  }
+
+  ReplicaPool select(final int randomWeight) {
+    Preconditions.checkElementIndex(randomWeight, totalWeight);
+    int low = 0, high = cumulativeWeights.length - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (cumulativeWeights[mid] > randomWeight) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+
+    var size = replicaPools.size();
+    for (int i = 0; i < size; i++) {
+      var replicaPool = replicaPools.get((low + i) % size);
+      if (replicaPool.isAvailable()) {
+        return replicaPool;
+      }
+    }
+    return null;
+  }
+
+  List<ReplicaPool> getReplicaPools() {
+    return replicaPools;
+  }
+
+  @RequiredArgsConstructor
+  static class ReplicaPool {
+    @Getter private final ReplicaDataSource dataSource;
+    @Getter private final ConnectionPool pool;
+
+    String getName() {
+      return dataSource.getName();
+    }
+
+    int getWeight() {
+      return dataSource.getWeight();
+    }
+
+    boolean isAvailable() {
+      return dataSource.isAvailable();
+    }
+  }
+}
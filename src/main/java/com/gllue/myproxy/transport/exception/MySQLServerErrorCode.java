@@ -42,6 +42,8 @@ public enum MySQLServerErrorCode implements SQLErrorCode {
 
   ER_ER_NONUNIQ_TABLE(1066, "42000", "Not unique table/alias: '%s'"),
 
+  ER_CANT_DROP_FIELD_OR_KEY(1091, "42000", "Can't DROP '%s'; check that column/key exists"),
+
   ER_NO_SUCH_THREAD(1094, "HY000", "Unknown thread id: %s"),
 
   ER_WRONG_VALUE_COUNT_ON_ROW(1136, "21S01", "Column count doesn't match value count at row %s"),
@@ -50,11 +52,27 @@ public enum MySQLServerErrorCode implements SQLErrorCode {
 
   ER_WRONG_VALUE_FOR_VAR(1231, "42000", "Variable '%s' can't be set to the value of '%s'"),
 
+  ER_UNKNOWN_STMT_HANDLER(1243, "HY000", "Unknown prepared statement handler (%s) given to %s"),
+
   ER_DERIVED_MUST_HAVE_ALIAS(1248, "42000", "Every derived table must have its own alias"),
 
+  ER_UNSUPPORTED_PS(
+      1295, "HY000", "This command is not supported in the prepared statement protocol yet"),
+
   ER_NO_SUCH_USER(1449, "HY000", "The user ('%s') does not exist"),
 
-  ER_MALFORMED_PACKET(1835, "HY000", "Malformed communication packet.");
+  ER_MALFORMED_PACKET(1835, "HY000", "Malformed communication packet."),
+
+  ER_ALTER_OPERATION_NOT_SUPPORTED(
+      1845, "0A000", "%s is not supported for this operation. Try %s."),
+
+  ER_ALTER_OPERATION_NOT_SUPPORTED_REASON(
+      1846, "0A000", "%s is not supported. Reason: %s. Try %s."),
+
+  ER_QUERY_TIMEOUT(
+      3024,
+      "HY000",
+      "Query execution was interrupted, maximum statement execution time exceeded");
 
   private final int errorCode;
 
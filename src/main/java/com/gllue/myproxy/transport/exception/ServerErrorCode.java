@@ -15,6 +15,8 @@ public enum ServerErrorCode implements SQLErrorCode {
 
   ER_TOO_MANY_EXECUTION_TASK(50010, "Too many execution tasks."),
 
+  ER_TOO_MANY_TENANT_REQUESTS(50011, "Too many requests of the tenant. [%s]"),
+
   ER_ILLEGAL_ARGUMENT(50100, "Illegal argument. [%s]"),
 
   ER_BAD_CONFIGURATION(50101, "Bad configuration."),
@@ -34,6 +36,18 @@ public enum ServerErrorCode implements SQLErrorCode {
 
   ER_BAD_DATA_SOURCE(50108, "Bad data source. [%s]"),
 
+  ER_DATA_SOURCE_UNAVAILABLE(50109, "Data source is unavailable. [%s]"),
+
+  ER_CROSS_DATA_SOURCE_TRANSACTION(
+      50110, "Cannot use the database [%s] on another data source in a transaction."),
+
+  ER_DATABASE_BEING_MOVED(50111, "Database [%s] is being moved, %s."),
+
+  ER_DATABASE_MOVE_FAILED(50112, "Failed to move the database [%s], %s."),
+
+  ER_SESSION_STATE_BOUND(
+      50113, "Cannot use the database [%s] on another data source, the session has %s."),
+
   ER_SERVER_ERROR(50000, "Server error. [%s]");
 
   private final int errorCode;
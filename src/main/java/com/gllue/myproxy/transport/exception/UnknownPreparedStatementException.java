@@ -0,0 +1,22 @@
+package com.gllue.myproxy.transport.exception;
+
+public class UnknownPreparedStatementException extends TransportException {
+  private final int statementId;
+  private final String command;
+
+  public UnknownPreparedStatementException(final int statementId, final String command) {
+    super("Unknown prepared statement. [statementId=%s, command=%s]", statementId, command);
+    this.statementId = statementId;
+    this.command = command;
+  }
+
+  @Override
+  public SQLErrorCode getErrorCode() {
+    return MySQLServerErrorCode.ER_UNKNOWN_STMT_HANDLER;
+  }
+
+  @Override
+  public Object[] getErrorMessageArgs() {
+    return new Object[] {statementId, command};
+  }
+}
@@ -5,6 +5,7 @@ import com.gllue.myproxy.common.Initializer;
 import com.gllue.myproxy.config.Configurations;
 import com.gllue.myproxy.config.Configurations.Type;
 import com.gllue.myproxy.config.TransportConfigPropertyKey;
+import com.gllue.myproxy.transport.core.netty.CompressionOptions;
 import com.gllue.myproxy.transport.core.netty.MySQLPayloadCodecHandler;
 import com.gllue.myproxy.transport.core.service.TransportService;
 import com.gllue.myproxy.transport.frontend.command.CommandExecutionEngine;
@@ -85,6 +86,7 @@ public final class FrontendServer implements Initializer {
 
     private final TransportService transportService;
     private final CommandExecutionEngine commandExecutionEngine;
+    private final CompressionOptions compressionOptions;
 
     private FrontendConnectionListener newListener() {
       return new FrontendConnectionListener() {
@@ -111,7 +113,7 @@ public final class FrontendServer implements Initializer {
       ch.pipeline()
           .addLast(
               new FrontendChannelInboundHandler(
-                  authHandler, commandExecutionEngine, newListener()));
+                  authHandler, commandExecutionEngine, newListener(), compressionOptions));
     }
   }
 
@@ -149,9 +151,16 @@ public final class FrontendServer implements Initializer {
             Type.TRANSPORT, TransportConfigPropertyKey.FRONTEND_WRITE_BUFFER_HIGH_WATER_MARK);
     var writeBufferWaterMark =
         new WriteBufferWaterMark(write_buffer_low_water_mark, write_buffer_high_water_mark);
+    var compressionOptions =
+        new CompressionOptions(
+            configurations.getValue(
+                Type.TRANSPORT, TransportConfigPropertyKey.FRONTEND_COMPRESSION_ENABLED),
+            configurations.getValue(
+                Type.TRANSPORT, TransportConfigPropertyKey.COMPRESSION_THRESHOLD_IN_BYTES),
+            configurations.getValue(Type.TRANSPORT, TransportConfigPropertyKey.COMPRESSION_LEVEL));
     var childHandler =
         new ServerChannelInitializer(
-            context.getTransportService(), newCommandExecutionEngine(context));
+            context.getTransportService(), newCommandExecutionEngine(context), compressionOptions);
 
     bootstrap
         .option(ChannelOption.SO_BACKLOG, backlog)
@@ -7,30 +7,53 @@ import static com.gllue.myproxy.constant.TimeConstants.NANOS_PER_SECOND;
 import com.gllue.myproxy.cluster.ClusterState;
 import com.gllue.myproxy.command.handler.HandlerExecutor;
 import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.admission.AdmissionController;
 import com.gllue.myproxy.command.handler.query.ConcreteQueryHandler;
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
 import com.gllue.myproxy.command.handler.query.QueryHandlerRequestImpl;
+import com.gllue.myproxy.command.handler.query.UnsupportedPreparedStatementException;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache.AnswerType;
+import com.gllue.myproxy.command.handler.query.dml.select.QueryResultCache;
 import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.command.trace.QueryTrace;
+import com.gllue.myproxy.command.trace.SlowQueryLog;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.common.concurrent.AbstractRunnable;
+import com.gllue.myproxy.common.concurrent.AffinityRunnable;
 import com.gllue.myproxy.common.concurrent.PlainFuture;
 import com.gllue.myproxy.common.concurrent.ThreadPool;
 import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
 import com.gllue.myproxy.common.generator.IdGenerator;
 import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.metadata.model.TableMetaData;
 import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.route.move.DatabaseBeingMovedException;
 import com.gllue.myproxy.sql.parser.SQLParser;
+import com.gllue.myproxy.transport.backend.command.CachingFieldListResultReader;
 import com.gllue.myproxy.transport.backend.command.DefaultCommandResultReader;
 import com.gllue.myproxy.transport.backend.command.DirectTransferCommandResultReader;
 import com.gllue.myproxy.transport.backend.command.DirectTransferFieldListResultReader;
+import com.gllue.myproxy.transport.backend.command.DirectTransferQueryResultReader;
+import com.gllue.myproxy.transport.backend.command.StmtPrepareResultReader;
 import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.backend.connection.BackendPreparedStatement;
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
+import com.gllue.myproxy.transport.core.service.CrossDataSourceTransactionException;
+import com.gllue.myproxy.transport.core.service.SessionStateBoundException;
 import com.gllue.myproxy.transport.core.service.TransportService;
 import com.gllue.myproxy.transport.exception.ExceptionResolver;
 import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
 import com.gllue.myproxy.transport.exception.SQLErrorCode;
 import com.gllue.myproxy.transport.exception.ServerErrorCode;
 import com.gllue.myproxy.transport.exception.UnsupportedCommandException;
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats.Phase;
 import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import com.gllue.myproxy.transport.frontend.connection.FrontendPreparedStatement;
 import com.gllue.myproxy.transport.protocol.packet.command.CommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.CreateDBCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.DropDBCommandPacket;
@@ -39,15 +62,24 @@ import com.gllue.myproxy.transport.protocol.packet.command.InitDBCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.ProcessKillCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.SimpleCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtCloseCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtExecuteCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtPrepareCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtResetCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
+import com.gllue.myproxy.transport.protocol.packet.query.binary.StmtPrepareOKPacket;
 import com.google.common.base.Strings;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.Summary;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
+import javax.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -74,8 +106,12 @@ public class CommandExecutionEngine {
   private final ThreadPool threadPool;
   private final TransportService transportService;
   private final HandlerExecutor handlerExecutor;
+  private final ClusterState clusterState;
 
   private final ConcreteQueryHandler concreteQueryHandler;
+  private final SchemaAnswerCache schemaAnswerCache;
+  private final QueryResultCache queryResultCache;
+  @Nullable private final SlowQueryLog slowQueryLog;
 
   public CommandExecutionEngine(
       final ThreadPool threadPool,
@@ -87,7 +123,8 @@ public class CommandExecutionEngine {
       final IdGenerator idGenerator) {
     this.threadPool = threadPool;
     this.transportService = transportService;
-    this.handlerExecutor = new HandlerExecutor(threadPool);
+    this.handlerExecutor = new HandlerExecutor(threadPool, newAdmissionController(configurations));
+    this.clusterState = clusterState;
     this.concreteQueryHandler =
         new ConcreteQueryHandler(
             repository,
@@ -97,22 +134,76 @@ public class CommandExecutionEngine {
             sqlParser,
             idGenerator,
             threadPool);
+    this.schemaAnswerCache = concreteQueryHandler.getSchemaAnswerCache();
+    this.queryResultCache = concreteQueryHandler.getQueryResultCache();
+    this.slowQueryLog = newSlowQueryLog(configurations);
+  }
+
+  @Nullable
+  private static AdmissionController newAdmissionController(final Configurations configurations) {
+    boolean enabled =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.ADMISSION_CONTROL_ENABLED);
+    if (!enabled) {
+      return null;
+    }
+    int maxConcurrency =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.ADMISSION_CONTROL_MAX_CONCURRENCY);
+    int maxConcurrencyPerTenant =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.ADMISSION_CONTROL_MAX_CONCURRENCY_PER_TENANT);
+    int maxQueueSizePerTenant =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.ADMISSION_CONTROL_MAX_QUEUE_SIZE_PER_TENANT);
+    List<String> weights =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.ADMISSION_CONTROL_TENANT_WEIGHTS);
+    return new AdmissionController(
+        maxConcurrency, maxConcurrencyPerTenant, maxQueueSizePerTenant, weights);
+  }
+
+  @Nullable
+  private static SlowQueryLog newSlowQueryLog(final Configurations configurations) {
+    boolean enabled =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.SLOW_QUERY_LOG_ENABLED);
+    if (!enabled) {
+      return null;
+    }
+    long thresholdInMills =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.SLOW_QUERY_LOG_THRESHOLD_IN_MILLS);
+    String path =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.SLOW_QUERY_LOG_PATH);
+    long maxFileSizeInBytes =
+        configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.SLOW_QUERY_LOG_MAX_FILE_SIZE_IN_BYTES);
+    int maxFiles =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.SLOW_QUERY_LOG_MAX_FILES);
+    int bufferSize =
+        configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.SLOW_QUERY_LOG_BUFFER_SIZE);
+    return new SlowQueryLog(thresholdInMills, path, maxFileSizeInBytes, maxFiles, bufferSize);
   }
 
   @RequiredArgsConstructor
   private class CommandRunner extends AbstractRunnable {
     private final FrontendConnection frontendConnection;
     private final CommandPacket packet;
+    // Whether the backend connection is assigned by the runner, the session variables assigned by
+    // the client must be restored on it.
+    private boolean assigned = false;
 
     @Override
     protected void doRun() throws Exception {
       var backendConnection = frontendConnection.getBackendConnection();
       if (backendConnection == null) {
-        var future = transportService.assignBackendConnection(frontendConnection);
+        var future =
+            transportService.assignBackendConnection(
+                frontendConnection, routedDatabase(frontendConnection, packet));
         backendConnection = (BackendConnection) future.get();
 
         if (frontendConnection.bindBackendConnection(backendConnection)) {
           backendConnection.bindFrontendConnection(frontendConnection);
+          assigned = true;
         } else {
           // maybe the frontend connection was closed during the allocation of the backend
           // connection.
@@ -126,7 +217,10 @@ public class CommandExecutionEngine {
 
     private void checkDatabase(BackendConnection backendConnection) {
       var currentDatabase = frontendConnection.currentDatabase();
-      if (currentDatabase == null || currentDatabase.equals(backendConnection.currentDatabase())) {
+      // The database will be changed by the command itself.
+      if (packet.getCommandType() == MySQLCommandPacketType.COM_INIT_DB
+          || currentDatabase == null
+          || currentDatabase.equals(backendConnection.currentDatabase())) {
         checkAutoCommit(backendConnection);
       } else {
         changeDatabase(backendConnection, currentDatabase);
@@ -160,7 +254,7 @@ public class CommandExecutionEngine {
 
     private void checkAutoCommit(BackendConnection backendConnection) {
       if (frontendConnection.isAutoCommit() == backendConnection.isAutoCommit()) {
-        dispatchCommand(frontendConnection, packet, backendConnection);
+        checkSessionVariables(backendConnection);
       } else {
         changeAutoCommit(backendConnection);
       }
@@ -189,6 +283,36 @@ public class CommandExecutionEngine {
                   } else {
                     backendConnection.disableAutoCommit();
                   }
+                  checkSessionVariables(backendConnection);
+                }
+
+                @Override
+                public void onFailure(Throwable e) {
+                  var packet = ExceptionResolver.resolve(e);
+                  frontendConnection.writeAndFlush(
+                      packet, PlainFuture.newFuture(frontendConnection::close));
+                }
+              }));
+    }
+
+    private void checkSessionVariables(BackendConnection backendConnection) {
+      var query = frontendConnection.getSessionContext().getSessionVariablesQuery();
+      if (!assigned || query == null) {
+        dispatchCommand(frontendConnection, packet, backendConnection);
+        return;
+      }
+
+      backendConnection.sendCommand(
+          new QueryCommandPacket(query),
+          DefaultCommandResultReader.newInstance(
+              new Callback<>() {
+                @Override
+                public void onSuccess(CommandResult result) {
+                  log.info(
+                      "Session variables of frontend connection [{}] are restored on backend "
+                          + "connection [{}].",
+                      frontendConnection.connectionId(),
+                      backendConnection.connectionId());
                   dispatchCommand(frontendConnection, packet, backendConnection);
                 }
 
@@ -222,6 +346,21 @@ public class CommandExecutionEngine {
 
   public void execute(final FrontendConnection frontendConnection, final CommandPacket packet) {
     var backendConnection = frontendConnection.getBackendConnection();
+    if (backendConnection != null
+        && !frontendConnection.isTransactionOpened()
+        && !transportService.isRoutedTo(
+            frontendConnection, routedDatabase(frontendConnection, packet), backendConnection)) {
+      // The session variables are restored on the new backend connection, but the state held by
+      // the backend connection would be lost silently.
+      var boundStates = frontendConnection.getSessionContext().getBoundStates();
+      if (!boundStates.isEmpty()) {
+        var database = routedDatabase(frontendConnection, packet);
+        writeException(frontendConnection, new SessionStateBoundException(database, boundStates));
+        return;
+      }
+      releaseBackendConnection(frontendConnection);
+      backendConnection = null;
+    }
     if (backendConnection == null) {
       threadPool.executor(Name.GENERIC).submit(new CommandRunner(frontendConnection, packet));
     } else {
@@ -229,6 +368,36 @@ public class CommandExecutionEngine {
     }
   }
 
+  /** Returns the database which decides the physical data source that the command is sent to. */
+  private static String routedDatabase(
+      final FrontendConnection frontendConnection, final CommandPacket packet) {
+    if (packet.getCommandType() == MySQLCommandPacketType.COM_INIT_DB) {
+      var schemaName = ((InitDBCommandPacket) packet).getSchemaName();
+      if (!Strings.isNullOrEmpty(schemaName)) {
+        return schemaName;
+      }
+    }
+    return frontendConnection.currentDatabase();
+  }
+
+  /**
+   * Release the backend connection to its pool, the database of the command is on another data
+   * source, either the database is being changed or the route of the database has been changed. A
+   * new backend connection of the data source will be bound for the command, and the autocommit
+   * mode and the session variables are restored on it.
+   */
+  private void releaseBackendConnection(final FrontendConnection frontendConnection) {
+    var backendConnection = frontendConnection.unbindBackendConnection();
+    if (backendConnection != null) {
+      log.info(
+          "Release the backend connection [{}] of data source [{}] of frontend connection [{}].",
+          backendConnection.connectionId(),
+          backendConnection.getDataSourceName(),
+          frontendConnection.connectionId());
+      backendConnection.close();
+    }
+  }
+
   private void internalExecute(
       final FrontendConnection frontendConnection,
       final CommandPacket packet,
@@ -284,6 +453,18 @@ public class CommandExecutionEngine {
       case COM_PING:
         ping(frontendConnection, (SimpleCommandPacket) packet, backendConnection);
         break;
+      case COM_STMT_PREPARE:
+        stmtPrepare(frontendConnection, (StmtPrepareCommandPacket) packet, backendConnection);
+        break;
+      case COM_STMT_EXECUTE:
+        stmtExecute(frontendConnection, (StmtExecuteCommandPacket) packet, backendConnection);
+        break;
+      case COM_STMT_CLOSE:
+        stmtClose(frontendConnection, (StmtCloseCommandPacket) packet);
+        break;
+      case COM_STMT_RESET:
+        stmtReset(frontendConnection, (StmtResetCommandPacket) packet);
+        break;
       default:
         throw new UnsupportedCommandException(commandType.name());
     }
@@ -305,11 +486,19 @@ public class CommandExecutionEngine {
       return;
     }
 
-    if (schemaName.equals(frontendConnection.currentDatabase())) {
+    // The backend connection may be switched to another data source for the database.
+    if (schemaName.equals(frontendConnection.currentDatabase())
+        && schemaName.equals(backendConnection.currentDatabase())) {
       writeOk(frontendConnection);
       return;
     }
 
+    // The backend connection is kept in a transaction, see the execute method.
+    if (!transportService.isRoutedTo(frontendConnection, schemaName, backendConnection)) {
+      writeErr(frontendConnection, ServerErrorCode.ER_CROSS_DATA_SOURCE_TRANSACTION, schemaName);
+      return;
+    }
+
     backendConnection.sendCommand(
         packet,
         new DirectTransferCommandResultReader(frontendConnection)
@@ -327,17 +516,19 @@ public class CommandExecutionEngine {
   }
 
   private QueryHandlerRequest buildHandlerRequest(
-      final FrontendConnection frontendConnection, final QueryCommandPacket packet) {
+      final FrontendConnection frontendConnection, final String query) {
     return new QueryHandlerRequestImpl(
         frontendConnection.connectionId(),
         frontendConnection.getDataSourceName(),
         frontendConnection.currentDatabase(),
-        packet.getQuery(),
+        query,
         frontendConnection.getSessionContext());
   }
 
   private void writeHandlerResult(FrontendConnection connection, HandlerResult result) {
-    new HandlerResultWriter(result).write(connection);
+    var writer = new HandlerResultWriter(result);
+    writer.write(connection);
+    connection.getSessionContext().getConnectionStats().rowsSent(writer.getWrittenRows());
   }
 
   /** Execute text-based query immediately. */
@@ -351,15 +542,19 @@ public class CommandExecutionEngine {
 
     INPROGRESS_QUERIES.inc();
     var startTime = System.nanoTime();
+    var trace = startQueryTrace(frontendConnection, packet.getQuery());
+    var stats = frontendConnection.getSessionContext().getConnectionStats();
+    stats.statementReceived(packet.getQuery());
 
     handlerExecutor.execute(
         concreteQueryHandler,
-        buildHandlerRequest(frontendConnection, packet),
+        buildHandlerRequest(frontendConnection, packet.getQuery()),
         new Callback<>() {
           @Override
           public void onSuccess(HandlerResult result) {
             try {
               if (!result.isDirectTransferred()) {
+                stats.enterPhase(Phase.WRITING);
                 writeHandlerResult(frontendConnection, result);
               }
 
@@ -379,6 +574,8 @@ public class CommandExecutionEngine {
               frontendConnection.close();
             }
             observeDuration();
+            stats.statementCompleted();
+            finishQueryTrace(frontendConnection, trace, null);
           }
 
           @Override
@@ -389,6 +586,221 @@ public class CommandExecutionEngine {
               log.error("Failed to write error packet to the connection.", e1);
             }
             observeDuration();
+            stats.statementCompleted();
+            finishQueryTrace(frontendConnection, trace, e);
+          }
+
+          private void observeDuration() {
+            var duration = System.nanoTime() - startTime;
+            QUERY_LATENCY.observe(duration / NANOS_PER_MILLS);
+            QUERY_LATENCY_SUMMARY.observe(duration / NANOS_PER_SECOND);
+            INPROGRESS_QUERIES.dec();
+          }
+        });
+  }
+
+  @Nullable
+  private QueryTrace startQueryTrace(
+      final FrontendConnection frontendConnection, final String query) {
+    if (slowQueryLog == null) {
+      return null;
+    }
+    var trace =
+        new QueryTrace(
+            frontendConnection.connectionId(),
+            frontendConnection.getDataSourceName(),
+            frontendConnection.currentDatabase(),
+            frontendConnection.currentUser(),
+            query);
+    frontendConnection.getSessionContext().setQueryTrace(trace);
+    return trace;
+  }
+
+  private void finishQueryTrace(
+      final FrontendConnection frontendConnection, final QueryTrace trace, final Throwable e) {
+    if (trace == null) {
+      return;
+    }
+    trace.finished(e);
+    frontendConnection.getSessionContext().setQueryTrace(null);
+    slowQueryLog.log(trace);
+  }
+
+  /**
+   * Create a prepared statement. The query is parsed and rewritten only once, and the rewritten
+   * query is prepared by the backend connection unless the connection has prepared it before.
+   */
+  private void stmtPrepare(
+      final FrontendConnection frontendConnection,
+      final StmtPrepareCommandPacket packet,
+      final BackendConnection backendConnection) {
+    if (log.isDebugEnabled()) {
+      log.debug("Executing prepare statement command: " + packet.getQuery());
+    }
+
+    submitCommandTask(
+        frontendConnection,
+        new AbstractRunnable() {
+          @Override
+          protected void doRun() throws Exception {
+            var sessionContext = frontendConnection.getSessionContext();
+            var request = buildHandlerRequest(frontendConnection, packet.getQuery());
+            var columnMovesVersion = clusterState.getExtensionColumnMoves().getVersion();
+            var preparedQuery = concreteQueryHandler.rewritePreparedQuery(request);
+            var statement =
+                new FrontendPreparedStatement(
+                    sessionContext.nextPreparedStatementId(),
+                    packet.getQuery(),
+                    preparedQuery.getParameterCount(),
+                    preparedQuery.isReadOnly(),
+                    request.getDatabase(),
+                    sessionContext.getEncryptKey(),
+                    columnMovesVersion,
+                    preparedQuery.getQuery());
+            prepareBackendStatement(
+                backendConnection,
+                statement,
+                new Callback<>() {
+                  @Override
+                  public void onSuccess(BackendPreparedStatement result) {
+                    sessionContext.addPreparedStatement(statement);
+                    writePrepareResponse(frontendConnection, statement, result);
+                  }
+
+                  @Override
+                  public void onFailure(Throwable e) {
+                    writeException(frontendConnection, e);
+                  }
+                });
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            writeException(frontendConnection, e);
+          }
+        });
+  }
+
+  /** Get the statement prepared by the backend connection, prepare it if it's not cached. */
+  private void prepareBackendStatement(
+      final BackendConnection backendConnection,
+      final FrontendPreparedStatement statement,
+      final Callback<BackendPreparedStatement> callback) {
+    var cache = backendConnection.getPreparedStatementCache();
+    var database = backendConnection.currentDatabase();
+    var query = statement.getBackendQuery();
+    var cached = cache.get(database, query);
+    if (cached != null) {
+      callback.onSuccess(cached);
+      return;
+    }
+
+    var reader = new StmtPrepareResultReader();
+    reader.addCallback(
+        new Callback<>() {
+          @Override
+          public void onSuccess(CommandResult result) {
+            var prepared = reader.getPreparedStatement();
+            if (prepared.getParameterCount() != statement.getParameterCount()) {
+              closeBackendStatement(backendConnection, prepared);
+              callback.onFailure(
+                  new UnsupportedPreparedStatementException(
+                      "Placeholders of the statement are changed by the rewriting."));
+              return;
+            }
+
+            for (var evicted : cache.put(database, query, prepared)) {
+              closeBackendStatement(backendConnection, evicted);
+            }
+            callback.onSuccess(prepared);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            callback.onFailure(e);
+          }
+        });
+    backendConnection.sendCommand(new StmtPrepareCommandPacket(query), reader);
+  }
+
+  private void closeBackendStatement(
+      final BackendConnection backendConnection, final BackendPreparedStatement statement) {
+    // There is no response of COM_STMT_CLOSE.
+    backendConnection.writeAndFlush(new StmtCloseCommandPacket(statement.getStatementId()));
+  }
+
+  private void writePrepareResponse(
+      final FrontendConnection frontendConnection,
+      final FrontendPreparedStatement statement,
+      final BackendPreparedStatement backendStatement) {
+    frontendConnection.write(
+        new StmtPrepareOKPacket(
+            statement.getStatementId(),
+            backendStatement.getColumnCount(),
+            statement.getParameterCount(),
+            0));
+    if (backendStatement.getParameterCount() > 0) {
+      for (var definition : backendStatement.getParameterDefinitions()) {
+        frontendConnection.write(definition);
+      }
+      if (!frontendConnection.isEofDeprecated()) {
+        frontendConnection.write(new EofPacket());
+      }
+    }
+    if (backendStatement.getColumnCount() > 0) {
+      for (var definition : backendStatement.getColumnDefinitions()) {
+        frontendConnection.write(definition);
+      }
+      if (!frontendConnection.isEofDeprecated()) {
+        frontendConnection.write(new EofPacket());
+      }
+    }
+    frontendConnection.flush();
+  }
+
+  /**
+   * Execute a prepared statement. The binary protocol parameters are sent to the statement
+   * prepared by the backend connection, and the binary result set is transferred directly.
+   */
+  private void stmtExecute(
+      final FrontendConnection frontendConnection,
+      final StmtExecuteCommandPacket packet,
+      final BackendConnection backendConnection) {
+    var sessionContext = frontendConnection.getSessionContext();
+    var statement = sessionContext.getPreparedStatement(packet.getStatementId());
+    if (statement == null) {
+      writeErr(
+          frontendConnection,
+          MySQLServerErrorCode.ER_UNKNOWN_STMT_HANDLER,
+          packet.getStatementId(),
+          "mysqld_stmt_execute");
+      return;
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Executing prepared statement: " + statement.getQuery());
+    }
+
+    INPROGRESS_QUERIES.inc();
+    var startTime = System.nanoTime();
+    var stats = sessionContext.getConnectionStats();
+    stats.statementReceived(statement.getQuery());
+    var callback =
+        new Callback<CommandResult>() {
+          @Override
+          public void onSuccess(CommandResult result) {
+            if (backendConnection.isClosed()) {
+              frontendConnection.close();
+            }
+            observeDuration();
+            stats.statementCompleted();
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            // The error packet has been transferred by the result reader.
+            observeDuration();
+            stats.statementCompleted();
           }
 
           private void observeDuration() {
@@ -397,9 +809,150 @@ public class CommandExecutionEngine {
             QUERY_LATENCY_SUMMARY.observe(duration / NANOS_PER_SECOND);
             INPROGRESS_QUERIES.dec();
           }
+        };
+
+    var database = frontendConnection.currentDatabase();
+    var encryptKey = sessionContext.getEncryptKey();
+    var columnMovesVersion = clusterState.getExtensionColumnMoves().getVersion();
+    if (!statement.isStale(database, encryptKey, columnMovesVersion)) {
+      executeBackendStatement(frontendConnection, statement, packet, backendConnection, callback);
+      return;
+    }
+
+    // The session has changed the database or the encryption key since the preparation, or the
+    // moving extension columns are changed.
+    submitCommandTask(
+        frontendConnection,
+        new AbstractRunnable() {
+          @Override
+          protected void doRun() throws Exception {
+            var request = buildHandlerRequest(frontendConnection, statement.getQuery());
+            var preparedQuery = concreteQueryHandler.rewritePreparedQuery(request);
+            statement.rewritten(database, encryptKey, columnMovesVersion, preparedQuery.getQuery());
+            executeBackendStatement(
+                frontendConnection, statement, packet, backendConnection, callback);
+          }
+
+          @Override
+          public void onFailure(Exception e) {
+            writeException(frontendConnection, e);
+            callback.onFailure(e);
+          }
         });
   }
 
+  private void submitCommandTask(final FrontendConnection frontendConnection, final Runnable task) {
+    threadPool
+        .executor(Name.COMMAND)
+        .submit(AffinityRunnable.wrap(frontendConnection.connectionId(), task));
+  }
+
+  private void executeBackendStatement(
+      final FrontendConnection frontendConnection,
+      final FrontendPreparedStatement statement,
+      final StmtExecuteCommandPacket packet,
+      final BackendConnection backendConnection,
+      final Callback<CommandResult> commandCallback) {
+    if (!statement.isReadOnly()) {
+      var exception = checkPreparedWrite(frontendConnection, backendConnection);
+      if (exception != null) {
+        writeException(frontendConnection, exception);
+        commandCallback.onFailure(exception);
+        return;
+      }
+      frontendConnection.getSessionContext().updateLastWriteTime();
+    }
+    // The modified tables of a prepared statement are unknown here, all the cached results of the
+    // data source are invalidated.
+    final var callback =
+        !statement.isReadOnly() && queryResultCache.isEnabled()
+            ? invalidateQueryResults(frontendConnection.getDataSourceName(), commandCallback)
+            : commandCallback;
+
+    prepareBackendStatement(
+        backendConnection,
+        statement,
+        new Callback<>() {
+          @Override
+          public void onSuccess(BackendPreparedStatement result) {
+            // The cursor is not supported, the result set is always sent back at once.
+            var command =
+                new StmtExecuteCommandPacket(
+                    result.getStatementId(),
+                    StmtExecuteCommandPacket.CURSOR_TYPE_NO_CURSOR,
+                    packet.getParameterTypes(),
+                    packet.getParameterValues());
+            backendConnection.sendCommand(
+                command,
+                new DirectTransferQueryResultReader(frontendConnection).addCallback(callback));
+          }
+
+          @Override
+          public void onFailure(Throwable e) {
+            writeException(frontendConnection, e);
+            callback.onFailure(e);
+          }
+        });
+  }
+
+  /**
+   * The writes of the prepared statements are not captured by the database move, and they cannot
+   * be executed on the moved database in a transaction which is started before the move.
+   */
+  private Exception checkPreparedWrite(
+      final FrontendConnection frontendConnection, final BackendConnection backendConnection) {
+    var database = frontendConnection.currentDatabase();
+    var registry = transportService.getDatabaseMoveRegistry();
+    if (registry.get(frontendConnection.getDataSourceName(), database) != null) {
+      return new DatabaseBeingMovedException(database, "the prepared statements cannot write it");
+    }
+    if (frontendConnection.isTransactionOpened()
+        && !transportService.isRoutedTo(frontendConnection, database, backendConnection)) {
+      return new CrossDataSourceTransactionException(database);
+    }
+    return null;
+  }
+
+  private Callback<CommandResult> invalidateQueryResults(
+      final String datasource, final Callback<CommandResult> callback) {
+    queryResultCache.invalidate(datasource);
+    return new Callback<>() {
+      @Override
+      public void onSuccess(CommandResult result) {
+        queryResultCache.invalidate(datasource);
+        callback.onSuccess(result);
+      }
+
+      @Override
+      public void onFailure(Throwable e) {
+        queryResultCache.invalidate(datasource);
+        callback.onFailure(e);
+      }
+    };
+  }
+
+  /** Deallocate a prepared statement, the statement prepared by the backend is kept for reuse. */
+  private void stmtClose(
+      final FrontendConnection frontendConnection, final StmtCloseCommandPacket packet) {
+    frontendConnection.getSessionContext().removePreparedStatement(packet.getStatementId());
+  }
+
+  /** Reset a prepared statement, it is a no-op since long data and cursors are unsupported. */
+  private void stmtReset(
+      final FrontendConnection frontendConnection, final StmtResetCommandPacket packet) {
+    var statement =
+        frontendConnection.getSessionContext().getPreparedStatement(packet.getStatementId());
+    if (statement == null) {
+      writeErr(
+          frontendConnection,
+          MySQLServerErrorCode.ER_UNKNOWN_STMT_HANDLER,
+          packet.getStatementId(),
+          "mysqld_stmt_reset");
+    } else {
+      writeOk(frontendConnection);
+    }
+  }
+
   /** Get the column definitions of a table. */
   private void fieldList(
       final FrontendConnection frontendConnection,
@@ -409,8 +962,72 @@ public class CommandExecutionEngine {
       log.debug("Executing field list command: " + packet.getQuery());
     }
 
-    backendConnection.sendCommand(
-        packet, new DirectTransferFieldListResultReader(frontendConnection));
+    var table = getManagedTable(frontendConnection, packet.getTable());
+    if (table == null) {
+      backendConnection.sendCommand(
+          packet, new DirectTransferFieldListResultReader(frontendConnection));
+      return;
+    }
+
+    var datasource = frontendConnection.getDataSourceName();
+    var database = frontendConnection.currentDatabase();
+    var wildcard = packet.getFieldWildcard();
+    var answer =
+        schemaAnswerCache.get(datasource, database, table, AnswerType.FIELD_LIST, wildcard);
+    if (answer != null) {
+      writeFieldList(frontendConnection, answer);
+      return;
+    }
+
+    var reader = new CachingFieldListResultReader(frontendConnection);
+    reader.addCallback(
+        new Callback<>() {
+          @Override
+          public void onSuccess(CommandResult result) {
+            var answer =
+                new EncodedQueryHandlerResult(
+                    reader.getColumnPackets(), List.of(), result.getWarnings());
+            schemaAnswerCache.put(
+                datasource, database, table, AnswerType.FIELD_LIST, wildcard, answer);
+          }
+
+          @Override
+          public void onFailure(Throwable e) {}
+        });
+    backendConnection.sendCommand(packet, reader);
+  }
+
+  private TableMetaData getManagedTable(
+      final FrontendConnection frontendConnection, final String tableName) {
+    var currentDatabase = frontendConnection.currentDatabase();
+    if (currentDatabase == null) {
+      return null;
+    }
+    var database =
+        clusterState
+            .getMetaData()
+            .getDatabase(frontendConnection.getDataSourceName(), currentDatabase);
+    if (database == null) {
+      return null;
+    }
+    return database.getTable(tableName);
+  }
+
+  private void writeFieldList(
+      final FrontendConnection frontendConnection, final EncodedQueryHandlerResult answer) {
+    for (var packet : answer.getColumnPackets()) {
+      frontendConnection.write(packet);
+    }
+    var statusFlags = 0;
+    if (frontendConnection.isAutoCommit()) {
+      statusFlags |= MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT.getValue();
+    }
+    if (frontendConnection.isEofDeprecated()) {
+      frontendConnection.write(new EofOKPacket(statusFlags, answer.getWarnings()));
+    } else {
+      frontendConnection.write(new EofPacket(answer.getWarnings(), statusFlags));
+    }
+    frontendConnection.flush();
   }
 
   /** Create a schema. */
@@ -476,6 +1093,14 @@ public class CommandExecutionEngine {
     frontendConnection.writeAndFlush(new OKPacket());
   }
 
+  private void writeException(final FrontendConnection frontendConnection, final Throwable e) {
+    try {
+      frontendConnection.writeAndFlush(ExceptionResolver.resolve(e));
+    } catch (Exception e1) {
+      log.error("Failed to write error packet to the connection.", e1);
+    }
+  }
+
   private void writeErr(
       final FrontendConnection frontendConnection,
       final SQLErrorCode errorCode,
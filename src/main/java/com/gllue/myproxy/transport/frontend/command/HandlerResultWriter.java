@@ -3,17 +3,21 @@ package com.gllue.myproxy.transport.frontend.command;
 import static com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet.CATALOG;
 
 import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
 import com.gllue.myproxy.command.result.query.QueryResult;
 import com.gllue.myproxy.command.result.query.QueryResultMetaData;
 import com.gllue.myproxy.transport.constant.MySQLServerInfo;
 import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
 import com.gllue.myproxy.transport.core.connection.Connection;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnCountPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
 import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
+import java.util.List;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
@@ -21,6 +25,7 @@ public class HandlerResultWriter implements CommandResultWriter {
   private static final int FLUSH_THRESHOLD = 100;
   private final HandlerResult handlerResult;
   private int flushCount = 0;
+  @Getter private long writtenRows = 0;
 
   private int getStatusFlags(Connection connection) {
     int statusFlags = 0;
@@ -44,27 +49,34 @@ public class HandlerResultWriter implements CommandResultWriter {
     connection.write(new EofPacket(handlerResult.getWarnings(), getStatusFlags(connection)));
   }
 
+  private void writeEofOk(Connection connection) {
+    connection.write(new EofOKPacket(getStatusFlags(connection), handlerResult.getWarnings()));
+  }
+
   private void writeColumns(Connection connection, QueryResultMetaData metaData) {
     doWrite(connection, new ColumnCountPacket(metaData.getColumnCount()));
     for (int i = 0; i < metaData.getColumnCount(); i++) {
-      doWrite(
-          connection,
-          new ColumnDefinition41Packet(
-              CATALOG,
-              metaData.getSchemaName(i),
-              metaData.getTableLabel(i),
-              metaData.getTableName(i),
-              metaData.getColumnLabel(i),
-              metaData.getColumnName(i),
-              MySQLServerInfo.DEFAULT_CHARSET,
-              metaData.getColumnLength(i),
-              metaData.getColumnType(i).getValue(),
-              metaData.getColumnFlags(i),
-              metaData.getDecimals(i),
-              null));
+      doWrite(connection, newColumnDefinitionPacket(metaData, i));
     }
   }
 
+  public static ColumnDefinition41Packet newColumnDefinitionPacket(
+      QueryResultMetaData metaData, int index) {
+    return new ColumnDefinition41Packet(
+        CATALOG,
+        metaData.getSchemaName(index),
+        metaData.getTableLabel(index),
+        metaData.getTableName(index),
+        metaData.getColumnLabel(index),
+        metaData.getColumnName(index),
+        MySQLServerInfo.DEFAULT_CHARSET,
+        metaData.getColumnLength(index),
+        metaData.getColumnType(index).getValue(),
+        metaData.getColumnFlags(index),
+        metaData.getDecimals(index),
+        null);
+  }
+
   private void writeRows(Connection connection, QueryResult queryResult) {
     var metaData = queryResult.getMetaData();
     var columnCount = metaData.getColumnCount();
@@ -75,15 +87,41 @@ public class HandlerResultWriter implements CommandResultWriter {
         row[i] = queryResult.getValue(i);
       }
       doWrite(connection, new TextResultSetRowPacket(row));
+      writtenRows++;
     }
   }
 
   private void writeTextResult(Connection connection) {
     var queryResult = handlerResult.getQueryResult();
     writeColumns(connection, queryResult.getMetaData());
-    writeEof(connection);
-    writeRows(connection, queryResult);
-    writeEof(connection);
+    if (connection.isEofDeprecated()) {
+      writeRows(connection, queryResult);
+      writeEofOk(connection);
+    } else {
+      writeEof(connection);
+      writeRows(connection, queryResult);
+      writeEof(connection);
+    }
+    connection.flush();
+  }
+
+  private void writePackets(Connection connection, List<MySQLPacket> packets) {
+    for (var packet : packets) {
+      doWrite(connection, packet);
+    }
+  }
+
+  private void writeEncodedResult(Connection connection, EncodedQueryHandlerResult result) {
+    writePackets(connection, result.getColumnPackets());
+    if (connection.isEofDeprecated()) {
+      writePackets(connection, result.getRowPackets());
+      writeEofOk(connection);
+    } else {
+      writeEof(connection);
+      writePackets(connection, result.getRowPackets());
+      writeEof(connection);
+    }
+    writtenRows += result.getRowPackets().size();
     connection.flush();
   }
 
@@ -98,7 +136,9 @@ public class HandlerResultWriter implements CommandResultWriter {
 
   @Override
   public void write(Connection connection) {
-    if (handlerResult.getQueryResult() == null) {
+    if (handlerResult instanceof EncodedQueryHandlerResult) {
+      writeEncodedResult(connection, (EncodedQueryHandlerResult) handlerResult);
+    } else if (handlerResult.getQueryResult() == null) {
       writeOk(connection);
     } else {
       writeTextResult(connection);
@@ -0,0 +1,127 @@
+package com.gllue.myproxy.transport.frontend.connection;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * Runtime state of a frontend connection, which is reported by {@code SHOW PROXY PROCESSLIST}.
+ *
+ * <p>The fields are plain volatile fields, each of them has a single writer at a time: the traffic
+ * and the writability are updated by the event loop of the channel, and the others are updated by
+ * the threads executing the current command of the connection, which are ordered by the command
+ * callbacks. The only exception is the received rows, which may be read by the auxiliary backend
+ * connections concurrently, so they are added atomically once a query completes.
+ */
+public class ConnectionStats {
+  public enum Phase {
+    /** Waiting for the next command. */
+    IDLE,
+    /** The command is received and waiting for a thread. */
+    QUEUED,
+    /** Parsing and rewriting the query. */
+    EXECUTING,
+    /** Waiting for the backend database. */
+    BACKEND,
+    /** Writing the result to the client. */
+    WRITING
+  }
+
+  private static final AtomicLongFieldUpdater<ConnectionStats> ROWS_RECEIVED_UPDATER =
+      AtomicLongFieldUpdater.newUpdater(ConnectionStats.class, "rowsReceived");
+
+  private volatile Phase phase = Phase.IDLE;
+  private volatile long phaseStartTime = System.currentTimeMillis();
+  private volatile String statement;
+
+  private volatile long bytesReceived;
+  private volatile long bytesSent;
+  private volatile long rowsReceived;
+  private volatile long rowsSent;
+
+  private volatile long blockedStartNanos;
+  private volatile long blockedNanos;
+
+  /** Invoked once a statement of the connection is received. */
+  public void statementReceived(final String statement) {
+    this.statement = statement;
+    enterPhase(Phase.QUEUED);
+  }
+
+  public void enterPhase(final Phase phase) {
+    if (this.phase != phase) {
+      this.phase = phase;
+      this.phaseStartTime = System.currentTimeMillis();
+    }
+  }
+
+  /** Invoked once the statement of the connection completes. */
+  public void statementCompleted() {
+    enterPhase(Phase.IDLE);
+  }
+
+  public void bytesReceived(final int bytes) {
+    bytesReceived += bytes;
+  }
+
+  public void bytesSent(final int bytes) {
+    bytesSent += bytes;
+  }
+
+  public void rowsReceived(final long rows) {
+    ROWS_RECEIVED_UPDATER.addAndGet(this, rows);
+  }
+
+  public void rowsSent(final long rows) {
+    rowsSent += rows;
+  }
+
+  /** Invoked by the event loop once the writability of the channel is changed. */
+  public void writabilityChanged(final boolean writable) {
+    if (!writable) {
+      if (blockedStartNanos == 0) {
+        blockedStartNanos = System.nanoTime();
+      }
+    } else if (blockedStartNanos != 0) {
+      blockedNanos += System.nanoTime() - blockedStartNanos;
+      blockedStartNanos = 0;
+    }
+  }
+
+  public Phase getPhase() {
+    return phase;
+  }
+
+  public long getTimeInPhaseInMills() {
+    return Math.max(0, System.currentTimeMillis() - phaseStartTime);
+  }
+
+  /** The current or the last statement of the connection. */
+  public String getStatement() {
+    return statement;
+  }
+
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  public long getRowsReceived() {
+    return rowsReceived;
+  }
+
+  public long getRowsSent() {
+    return rowsSent;
+  }
+
+  /** Total time blocked on the writability of the channel, including the ongoing one. */
+  public long getBlockedNanos() {
+    var startNanos = blockedStartNanos;
+    var nanos = blockedNanos;
+    if (startNanos != 0) {
+      nanos += System.nanoTime() - startNanos;
+    }
+    return nanos;
+  }
+}
@@ -2,6 +2,7 @@ package com.gllue.myproxy.transport.frontend.connection;
 
 import com.gllue.myproxy.transport.backend.connection.BackendConnection;
 import com.gllue.myproxy.transport.core.connection.Connection;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 
 public interface FrontendConnection extends Connection {
   String getDataSourceName();
@@ -10,7 +11,22 @@ public interface FrontendConnection extends Connection {
 
   BackendConnection getBackendConnection();
 
+  /**
+   * Unbind the backend connection, so that another backend connection can be bound, returns null
+   * if no backend connection is bound or the connection is closed.
+   */
+  BackendConnection unbindBackendConnection();
+
   SessionContext getSessionContext();
 
   void onCommandReceived();
+
+  /**
+   * Ask the client to send the file of a {@code LOAD DATA LOCAL INFILE} query, the following
+   * packets of the client are passed to the receiver until the whole file is sent.
+   */
+  void requestLocalInfile(String fileName, LocalInfileReceiver receiver);
+
+  /** Pass the packet to the local infile receiver, returns false if no file is being received. */
+  boolean receiveLocalInfile(MySQLPayload payload);
 }
@@ -2,6 +2,8 @@ package com.gllue.myproxy.transport.frontend.connection;
 
 import com.gllue.myproxy.transport.backend.connection.BackendConnection;
 import com.gllue.myproxy.transport.core.connection.AbstractConnection;
+import com.gllue.myproxy.transport.protocol.packet.query.LocalInfileRequestPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 import io.netty.channel.Channel;
 import java.lang.ref.WeakReference;
 import java.util.concurrent.atomic.AtomicReference;
@@ -20,6 +22,7 @@ public class FrontendConnectionImpl extends AbstractConnection implements Fronte
   private final String dataSourceName;
   private final SessionContext sessionContext;
   private volatile BackendConnection backendConnection;
+  private volatile LocalInfileReceiver localInfileReceiver;
   private final AtomicReference<BindState> bindState = new AtomicReference<>(BindState.UNBOUND);
 
   public FrontendConnectionImpl(
@@ -45,6 +48,17 @@ public class FrontendConnectionImpl extends AbstractConnection implements Fronte
     return false;
   }
 
+  @Override
+  public BackendConnection unbindBackendConnection() {
+    if (bindState.compareAndSet(BindState.BOUND, BindState.BINDING)) {
+      var backendConnection = this.backendConnection;
+      this.backendConnection = null;
+      bindState.set(BindState.UNBOUND);
+      return backendConnection;
+    }
+    return null;
+  }
+
   @Override
   public BackendConnection getBackendConnection() {
     return backendConnection;
@@ -70,6 +84,32 @@ public class FrontendConnectionImpl extends AbstractConnection implements Fronte
     updateLastAccessTime();
   }
 
+  @Override
+  public void requestLocalInfile(final String fileName, final LocalInfileReceiver receiver) {
+    assert localInfileReceiver == null;
+    // The receiver is set before the request is sent, the client may respond immediately.
+    localInfileReceiver = receiver;
+    writeAndFlush(new LocalInfileRequestPacket(fileName));
+  }
+
+  @Override
+  public boolean receiveLocalInfile(final MySQLPayload payload) {
+    var receiver = localInfileReceiver;
+    if (receiver == null) {
+      return false;
+    }
+
+    updateLastAccessTime();
+    // An empty packet terminates the file.
+    if (payload.readableBytes() == 0) {
+      localInfileReceiver = null;
+      receiver.onEnd();
+    } else {
+      receiver.onData(payload);
+    }
+    return true;
+  }
+
   private void setBindStateToClose() {
     int waitCount = 0;
     do {
@@ -96,5 +136,6 @@ public class FrontendConnectionImpl extends AbstractConnection implements Fronte
       log.error("An exception has occurred when closing session context.", e);
     }
     setBindStateToClose();
+    localInfileReceiver = null;
   }
 }
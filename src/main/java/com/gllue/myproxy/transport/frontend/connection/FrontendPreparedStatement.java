@@ -0,0 +1,76 @@
+package com.gllue.myproxy.transport.frontend.connection;
+
+import com.gllue.myproxy.transport.protocol.packet.command.StmtExecuteCommandPacket.ParameterMetaData;
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * A statement prepared by the client. The query is parsed and rewritten once, the rewritten query
+ * is prepared by the bound backend connection and executed with the binary protocol parameters.
+ */
+public class FrontendPreparedStatement implements ParameterMetaData {
+  @Getter private final int statementId;
+  @Getter private final String query;
+  @Getter private final int parameterCount;
+  @Getter private final boolean readOnly;
+
+  // The rewritten query depends on the database and the encryption key of the session, and the
+  // extension columns being moved.
+  @Getter private volatile String database;
+  @Getter private volatile String encryptKey;
+  @Getter private volatile int columnMovesVersion;
+  @Getter private volatile String backendQuery;
+
+  private volatile int[] parameterTypes;
+
+  public FrontendPreparedStatement(
+      final int statementId,
+      final String query,
+      final int parameterCount,
+      final boolean readOnly,
+      final String database,
+      final String encryptKey,
+      final int columnMovesVersion,
+      final String backendQuery) {
+    this.statementId = statementId;
+    this.query = query;
+    this.parameterCount = parameterCount;
+    this.readOnly = readOnly;
+    this.database = database;
+    this.encryptKey = encryptKey;
+    this.columnMovesVersion = columnMovesVersion;
+    this.backendQuery = backendQuery;
+  }
+
+  /**
+   * Whether the query should be rewritten again, since the session was changed or a move of the
+   * extension columns was started or finished.
+   */
+  public boolean isStale(
+      final String database, final String encryptKey, final int columnMovesVersion) {
+    return !Objects.equals(this.database, database)
+        || !Objects.equals(this.encryptKey, encryptKey)
+        || this.columnMovesVersion != columnMovesVersion;
+  }
+
+  public void rewritten(
+      final String database,
+      final String encryptKey,
+      final int columnMovesVersion,
+      final String backendQuery) {
+    this.database = database;
+    this.encryptKey = encryptKey;
+    this.columnMovesVersion = columnMovesVersion;
+    this.backendQuery = backendQuery;
+  }
+
+  @Override
+  public int[] getParameterTypes() {
+    return parameterTypes;
+  }
+
+  /** Keep the parameter types for the following executions which don't send the types. */
+  public void bindParameterTypes(final int[] parameterTypes) {
+    this.parameterTypes = parameterTypes;
+  }
+}
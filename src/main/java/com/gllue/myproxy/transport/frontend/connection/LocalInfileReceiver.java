@@ -0,0 +1,15 @@
+package com.gllue.myproxy.transport.frontend.connection;
+
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+
+/** Receives the file sent by the client for a {@code LOAD DATA LOCAL INFILE} query. */
+public interface LocalInfileReceiver {
+  /**
+   * Called in the event loop for each packet of the file, the payload is released once the call
+   * returns.
+   */
+  void onData(MySQLPayload payload);
+
+  /** Called once the client has sent the whole file. */
+  void onEnd();
+}
@@ -1,9 +1,90 @@
 package com.gllue.myproxy.transport.frontend.connection;
 
+import com.gllue.myproxy.command.trace.QueryTrace;
+import java.util.Collection;
+import java.util.Set;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
 public interface SessionContext extends AutoCloseable {
+  /** The session state held by the backend connection which cannot be restored on another one. */
+  @Getter
+  @RequiredArgsConstructor
+  enum BoundState {
+    TEMPORARY_TABLE("temporary tables"),
+    TABLE_LOCK("table locks"),
+    VARIABLE("variables assigned with non-constant values");
+
+    private final String description;
+  }
+
   boolean isTransactionOpened();
 
   String getEncryptKey();
 
   void setEncryptKey(String encryptKey);
+
+  /**
+   * The last time in milliseconds that the session modified data, 0 if the session has never
+   * modified data.
+   */
+  long getLastWriteTime();
+
+  void updateLastWriteTime();
+
+  String currentUser();
+
+  /** Record the tables (in the form of {@code database.table}) modified in the transaction. */
+  void addModifiedTables(Collection<String> tables);
+
+  /** Returns and forgets the tables modified in the transaction. */
+  Set<String> drainModifiedTables();
+
+  /** The runtime state of the connection. */
+  ConnectionStats getConnectionStats();
+
+  /** The trace of the executing query, null if the slow query log is disabled. */
+  QueryTrace getQueryTrace();
+
+  void setQueryTrace(QueryTrace trace);
+
+  /** The max execution time of the commands of the executing statement, 0 means no timeout. */
+  long getStatementTimeoutInMills();
+
+  void setStatementTimeoutInMills(long timeoutInMills);
+
+  /** Allocate an id for the new prepared statement of the session. */
+  int nextPreparedStatementId();
+
+  void addPreparedStatement(FrontendPreparedStatement statement);
+
+  FrontendPreparedStatement getPreparedStatement(int statementId);
+
+  FrontendPreparedStatement removePreparedStatement(int statementId);
+
+  /**
+   * Record the assignment of a session variable or a user variable which is executed by the backend
+   * connection, so that it can be restored on another backend connection. The later assignment of
+   * a variable replaces the earlier one.
+   *
+   * @param name upper-cased name of the variable
+   * @param assignment assignment in the SET statement, e.g. {@code @@time_zone = '+00:00'}
+   */
+  void setSessionVariable(String name, String assignment);
+
+  /** The SET statement which restores the session variables, null if no variable is assigned. */
+  String getSessionVariablesQuery();
+
+  void addBoundState(BoundState state);
+
+  void removeBoundState(BoundState state);
+
+  /** The session state held by the backend connection, empty if the session has no such state. */
+  Set<BoundState> getBoundStates();
+
+  /**
+   * Whether the session has any state on the backend connection besides the database, the
+   * transaction and the auto commit, which the other backend connections don't have.
+   */
+  boolean hasSessionState();
 }
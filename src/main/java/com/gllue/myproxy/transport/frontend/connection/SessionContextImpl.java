@@ -1,10 +1,29 @@
 package com.gllue.myproxy.transport.frontend.connection;
 
+import com.gllue.myproxy.command.trace.QueryTrace;
 import com.gllue.myproxy.transport.core.connection.Connection;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SessionContextImpl implements SessionContext {
   private Connection connection;
   private String encryptKey;
+  private volatile long lastWriteTime;
+  private volatile QueryTrace queryTrace;
+  private volatile long statementTimeoutInMills;
+  private final ConnectionStats connectionStats = new ConnectionStats();
+  private final Set<String> modifiedTables = new HashSet<>();
+  private final AtomicInteger preparedStatementIdGenerator = new AtomicInteger(0);
+  private final Map<Integer, FrontendPreparedStatement> preparedStatements =
+      new ConcurrentHashMap<>();
+  private final Map<String, String> sessionVariables = new LinkedHashMap<>();
+  private final Set<BoundState> boundStates = EnumSet.noneOf(BoundState.class);
 
   public SessionContextImpl(Connection connection) {
     this.connection = connection;
@@ -28,9 +47,124 @@ public class SessionContextImpl implements SessionContext {
     this.encryptKey = encryptKey;
   }
 
+  @Override
+  public long getLastWriteTime() {
+    return lastWriteTime;
+  }
+
+  @Override
+  public void updateLastWriteTime() {
+    lastWriteTime = System.currentTimeMillis();
+  }
+
+  @Override
+  public String currentUser() {
+    return connection.currentUser();
+  }
+
+  @Override
+  public synchronized void addModifiedTables(Collection<String> tables) {
+    modifiedTables.addAll(tables);
+  }
+
+  @Override
+  public synchronized Set<String> drainModifiedTables() {
+    if (modifiedTables.isEmpty()) {
+      return Set.of();
+    }
+    var tables = Set.copyOf(modifiedTables);
+    modifiedTables.clear();
+    return tables;
+  }
+
+  @Override
+  public ConnectionStats getConnectionStats() {
+    return connectionStats;
+  }
+
+  @Override
+  public QueryTrace getQueryTrace() {
+    return queryTrace;
+  }
+
+  @Override
+  public void setQueryTrace(QueryTrace trace) {
+    this.queryTrace = trace;
+  }
+
+  @Override
+  public long getStatementTimeoutInMills() {
+    return statementTimeoutInMills;
+  }
+
+  @Override
+  public void setStatementTimeoutInMills(long timeoutInMills) {
+    this.statementTimeoutInMills = timeoutInMills;
+  }
+
+  @Override
+  public int nextPreparedStatementId() {
+    return preparedStatementIdGenerator.incrementAndGet();
+  }
+
+  @Override
+  public void addPreparedStatement(FrontendPreparedStatement statement) {
+    preparedStatements.put(statement.getStatementId(), statement);
+  }
+
+  @Override
+  public FrontendPreparedStatement getPreparedStatement(int statementId) {
+    return preparedStatements.get(statementId);
+  }
+
+  @Override
+  public FrontendPreparedStatement removePreparedStatement(int statementId) {
+    return preparedStatements.remove(statementId);
+  }
+
+  @Override
+  public synchronized void setSessionVariable(String name, String assignment) {
+    // Keep the order of the assignments, the later one may depend on the earlier one.
+    sessionVariables.remove(name);
+    sessionVariables.put(name, assignment);
+  }
+
+  @Override
+  public synchronized String getSessionVariablesQuery() {
+    if (sessionVariables.isEmpty()) {
+      return null;
+    }
+    return "SET " + String.join(", ", sessionVariables.values());
+  }
+
+  @Override
+  public synchronized void addBoundState(BoundState state) {
+    boundStates.add(state);
+  }
+
+  @Override
+  public synchronized void removeBoundState(BoundState state) {
+    boundStates.remove(state);
+  }
+
+  @Override
+  public synchronized Set<BoundState> getBoundStates() {
+    if (boundStates.isEmpty()) {
+      return Set.of();
+    }
+    return Set.copyOf(boundStates);
+  }
+
+  @Override
+  public synchronized boolean hasSessionState() {
+    return !sessionVariables.isEmpty() || !boundStates.isEmpty();
+  }
+
   @Override
   public void close() throws Exception {
     this.connection = null;
     this.encryptKey = null;
+    this.queryTrace = null;
+    this.preparedStatements.clear();
   }
 }
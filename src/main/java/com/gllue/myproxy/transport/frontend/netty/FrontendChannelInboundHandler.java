@@ -10,10 +10,14 @@ import com.gllue.myproxy.transport.constant.MySQLServerInfo;
 import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
 import com.gllue.myproxy.transport.core.connection.AuthenticationData;
 import com.gllue.myproxy.transport.core.connection.ConnectionIdGenerator;
+import com.gllue.myproxy.transport.core.netty.CompressionOptions;
+import com.gllue.myproxy.transport.core.netty.MySQLCompressionCodecHandler;
 import com.gllue.myproxy.transport.core.netty.NettyUtils;
+import com.gllue.myproxy.transport.exception.ExceptionResolver;
 import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
 import com.gllue.myproxy.transport.exception.SQLErrorCode;
 import com.gllue.myproxy.transport.exception.ServerErrorCode;
+import com.gllue.myproxy.transport.exception.UnknownPreparedStatementException;
 import com.gllue.myproxy.transport.exception.UnsupportedCommandException;
 import com.gllue.myproxy.transport.frontend.command.CommandExecutionEngine;
 import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
@@ -28,6 +32,10 @@ import com.gllue.myproxy.transport.protocol.packet.command.InitDBCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.ProcessKillCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.command.SimpleCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtCloseCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtExecuteCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtPrepareCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.StmtResetCommandPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
 import com.gllue.myproxy.transport.protocol.packet.handshake.AuthSwitchRequestPacket;
@@ -68,17 +76,30 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
 
   private Charset clientCharset = null;
 
+  private int capabilityFlags;
+
   private int connectionId;
 
   private FrontendConnection frontendConnection;
 
+  private final CompressionOptions compressionOptions;
+
   public FrontendChannelInboundHandler(
       final AuthenticationHandler authHandler,
       final CommandExecutionEngine commandExecutionEngine,
       final FrontendConnectionListener connectionManager) {
+    this(authHandler, commandExecutionEngine, connectionManager, CompressionOptions.DISABLED);
+  }
+
+  public FrontendChannelInboundHandler(
+      final AuthenticationHandler authHandler,
+      final CommandExecutionEngine commandExecutionEngine,
+      final FrontendConnectionListener connectionManager,
+      final CompressionOptions compressionOptions) {
     this.authHandler = authHandler;
     this.commandExecuteEngine = commandExecutionEngine;
     this.frontendConnectionListener = connectionManager;
+    this.compressionOptions = compressionOptions;
   }
 
   @Override
@@ -111,7 +132,9 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
           authMethodSwitch(ctx, payload);
           break;
         case AUTHENTICATED:
-          processCommand(payload);
+          if (!frontendConnection.receiveLocalInfile(payload)) {
+            processCommand(payload);
+          }
           break;
         case FAILED:
           sendErrorPacket(ctx, ServerErrorCode.ER_SERVER_ERROR, "illegalConnectionState: FAILED");
@@ -161,13 +184,21 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
             ServerConstants.getServerVersion(),
             connectionId,
             authHandler.getAuthPluginData(),
-            MySQLCapabilityFlag.handshakeServerCapabilityFlags(),
+            serverCapabilityFlags(),
             MySQLServerInfo.DEFAULT_CHARSET,
             MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT.getValue(),
             MySQLAuthenticationMethod.NATIVE_PASSWORD.getMethodName());
     ctx.channel().writeAndFlush(packet);
   }
 
+  private int serverCapabilityFlags() {
+    var flags = MySQLCapabilityFlag.handshakeServerCapabilityFlags();
+    if (compressionOptions.isEnabled()) {
+      flags |= MySQLCapabilityFlag.CLIENT_COMPRESS.getValue();
+    }
+    return flags;
+  }
+
   private String[] parseUserName(String userName) {
     if (Strings.isNullOrEmpty(userName)) {
       return null;
@@ -214,6 +245,9 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
             dataSource);
 
     clientCharset = MySQLCharsets.getCharsetById(handshakeResponse.getCharset()).charset();
+    capabilityFlags =
+        handshakeResponse.getClientCapabilityFlags()
+            & serverCapabilityFlags();
 
     if (handshakeResponse.isClientPluginAuth() && !isNativePasswordAuth(handshakeResponse)) {
       connectionPhase = ConnectionPhase.AUTHENTICATION_METHOD_SWITCH;
@@ -315,9 +349,16 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
       }
       connectionPhase = ConnectionPhase.AUTHENTICATED;
       sendOkPacket(ctx);
+      // The packets after the OK packet are compressed.
+      if (MySQLCapabilityFlag.CLIENT_COMPRESS.isBitSet(capabilityFlags)) {
+        MySQLCompressionCodecHandler.install(ctx.pipeline(), compressionOptions);
+      }
       frontendConnection =
           new FrontendConnectionImpl(
               connectionId, authData.getUsername(), ctx.channel(), authData.getDataSource());
+      frontendConnection.setCapabilityFlags(capabilityFlags);
+      TrafficCounterHandler.install(
+          ctx.pipeline(), frontendConnection.getSessionContext().getConnectionStats());
       frontendConnectionListener.onConnected(frontendConnection);
 
       var database = authData.getDatabaseName();
@@ -358,6 +399,23 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
       case COM_PROCESS_KILL:
         packet = new ProcessKillCommandPacket(payload);
         break;
+      case COM_STMT_PREPARE:
+        packet = new StmtPrepareCommandPacket(payload);
+        break;
+      case COM_STMT_EXECUTE:
+        try {
+          packet = newStmtExecuteCommandPacket(payload);
+        } catch (UnknownPreparedStatementException e) {
+          frontendConnection.writeAndFlush(ExceptionResolver.resolve(e));
+          return;
+        }
+        break;
+      case COM_STMT_CLOSE:
+        packet = new StmtCloseCommandPacket(payload);
+        break;
+      case COM_STMT_RESET:
+        packet = new StmtResetCommandPacket(payload);
+        break;
       default:
         throw new UnsupportedCommandException(commandType.name());
     }
@@ -365,4 +423,17 @@ public final class FrontendChannelInboundHandler extends ChannelInboundHandlerAd
     frontendConnection.onCommandReceived();
     commandExecuteEngine.execute(frontendConnection, packet);
   }
+
+  private StmtExecuteCommandPacket newStmtExecuteCommandPacket(final MySQLPayload payload) {
+    var sessionContext = frontendConnection.getSessionContext();
+    var packet = new StmtExecuteCommandPacket(payload, sessionContext::getPreparedStatement);
+    if (packet.isNewParametersBound()) {
+      // The parameter types are bound before executing the command, since the following command
+      // which doesn't send the types may be received before the command is executed.
+      sessionContext
+          .getPreparedStatement(packet.getStatementId())
+          .bindParameterTypes(packet.getParameterTypes());
+    }
+    return packet;
+  }
 }
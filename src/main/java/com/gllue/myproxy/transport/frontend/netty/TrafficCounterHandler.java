@@ -0,0 +1,47 @@
+package com.gllue.myproxy.transport.frontend.netty;
+
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+
+/**
+ * Count the bytes received from and sent to the client on the wire, it's installed at the head of
+ * the pipeline, so the bytes are counted after the compression.
+ */
+public class TrafficCounterHandler extends ChannelDuplexHandler {
+  private final ConnectionStats stats;
+
+  public TrafficCounterHandler(final ConnectionStats stats) {
+    this.stats = stats;
+  }
+
+  public static void install(final ChannelPipeline pipeline, final ConnectionStats stats) {
+    pipeline.addFirst(new TrafficCounterHandler(stats));
+  }
+
+  @Override
+  public void channelRead(final ChannelHandlerContext ctx, final Object msg) throws Exception {
+    if (msg instanceof ByteBuf) {
+      stats.bytesReceived(((ByteBuf) msg).readableBytes());
+    }
+    super.channelRead(ctx, msg);
+  }
+
+  @Override
+  public void write(final ChannelHandlerContext ctx, final Object msg, final ChannelPromise promise)
+      throws Exception {
+    if (msg instanceof ByteBuf) {
+      stats.bytesSent(((ByteBuf) msg).readableBytes());
+    }
+    super.write(ctx, msg, promise);
+  }
+
+  @Override
+  public void channelWritabilityChanged(final ChannelHandlerContext ctx) throws Exception {
+    stats.writabilityChanged(ctx.channel().isWritable());
+    super.channelWritabilityChanged(ctx);
+  }
+}
@@ -28,6 +28,17 @@ public class FieldListCommandPacket extends AbstractCommandPacket {
     this.query = payload.readStringEOF();
   }
 
+  /** The query consists of the table name and the field wildcard separated by NUL. */
+  public String getTable() {
+    var index = query.indexOf('\0');
+    return index < 0 ? query : query.substring(0, index);
+  }
+
+  public String getFieldWildcard() {
+    var index = query.indexOf('\0');
+    return index < 0 ? "" : query.substring(index + 1);
+  }
+
   @Override
   public void write(MySQLPayload payload) {
     super.write(payload);
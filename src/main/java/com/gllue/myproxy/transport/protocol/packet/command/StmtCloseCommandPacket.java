@@ -0,0 +1,34 @@
+package com.gllue.myproxy.transport.protocol.packet.command;
+
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import lombok.Getter;
+
+/**
+ * Deallocate a prepared statement, no response is sent back to the client.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/com-stmt-close.html#packet-COM_STMT_CLOSE">COM_STMT_CLOSE</a>
+ */
+public class StmtCloseCommandPacket extends AbstractCommandPacket {
+  @Getter private final int statementId;
+
+  public StmtCloseCommandPacket(final int statementId) {
+    super(MySQLCommandPacketType.COM_STMT_CLOSE);
+
+    this.statementId = statementId;
+  }
+
+  public StmtCloseCommandPacket(final MySQLPayload payload) {
+    super(MySQLCommandPacketType.COM_STMT_CLOSE);
+
+    validateCommandType(payload);
+    this.statementId = payload.readInt4();
+  }
+
+  @Override
+  public void write(MySQLPayload payload) {
+    super.write(payload);
+    payload.writeInt4(statementId);
+  }
+}
@@ -0,0 +1,154 @@
+package com.gllue.myproxy.transport.protocol.packet.command;
+
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.exception.MalformedPacketException;
+import com.gllue.myproxy.transport.exception.UnknownPreparedStatementException;
+import com.gllue.myproxy.transport.protocol.packet.query.binary.value.BinaryProtocolValueFactory;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import com.google.common.base.Preconditions;
+import java.util.function.IntFunction;
+import lombok.Getter;
+
+/**
+ * Execute a prepared statement with the binary protocol parameters.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/com-stmt-execute.html#packet-COM_STMT_EXECUTE">COM_STMT_EXECUTE</a>
+ */
+@Getter
+public class StmtExecuteCommandPacket extends AbstractCommandPacket {
+  public static final int CURSOR_TYPE_NO_CURSOR = 0x00;
+
+  private final int statementId;
+
+  private final int flags;
+
+  private final int iterationCount;
+
+  /** Parameter types, the lower byte is the column type and the higher byte is the flags. */
+  private final int[] parameterTypes;
+
+  private final Object[] parameterValues;
+
+  /** Whether the parameter types are sent by this command or bound by the previous command. */
+  private final boolean newParametersBound;
+
+  /** Metadata of the prepared statement parameters which is required to read the parameters. */
+  public interface ParameterMetaData {
+    int getParameterCount();
+
+    /** The parameter types bound by the previous execution, null if no types were bound. */
+    int[] getParameterTypes();
+  }
+
+  public StmtExecuteCommandPacket(
+      final int statementId,
+      final int flags,
+      final int[] parameterTypes,
+      final Object[] parameterValues) {
+    super(MySQLCommandPacketType.COM_STMT_EXECUTE);
+
+    Preconditions.checkArgument(parameterTypes.length == parameterValues.length);
+    this.statementId = statementId;
+    this.flags = flags;
+    this.iterationCount = 1;
+    this.parameterTypes = parameterTypes;
+    this.parameterValues = parameterValues;
+    this.newParametersBound = true;
+  }
+
+  public StmtExecuteCommandPacket(
+      final MySQLPayload payload, final IntFunction<ParameterMetaData> parameterMetaDataResolver) {
+    super(MySQLCommandPacketType.COM_STMT_EXECUTE);
+
+    validateCommandType(payload);
+    this.statementId = payload.readInt4();
+    this.flags = payload.readInt1();
+    this.iterationCount = payload.readInt4();
+
+    var metaData = parameterMetaDataResolver.apply(statementId);
+    if (metaData == null) {
+      throw new UnknownPreparedStatementException(statementId, "mysqld_stmt_execute");
+    }
+
+    var parameterCount = metaData.getParameterCount();
+    if (parameterCount == 0) {
+      this.parameterTypes = new int[0];
+      this.parameterValues = new Object[0];
+      this.newParametersBound = false;
+      return;
+    }
+
+    var nullBitmap = payload.readStringFixReturnBytes((parameterCount + 7) / 8);
+    this.newParametersBound = payload.readInt1() == 1;
+    if (newParametersBound) {
+      this.parameterTypes = new int[parameterCount];
+      for (int i = 0; i < parameterCount; i++) {
+        this.parameterTypes[i] = payload.readInt2();
+      }
+    } else if (metaData.getParameterTypes() != null) {
+      this.parameterTypes = metaData.getParameterTypes();
+    } else {
+      throw new MalformedPacketException("Parameter types are not bound.");
+    }
+
+    this.parameterValues = new Object[parameterCount];
+    for (int i = 0; i < parameterCount; i++) {
+      if ((nullBitmap[i / 8] & (1 << (i % 8))) != 0) {
+        continue;
+      }
+      var columnType = getParameterColumnType(i);
+      if (columnType != MySQLColumnType.MYSQL_TYPE_NULL) {
+        parameterValues[i] =
+            BinaryProtocolValueFactory.getBinaryProtocolValue(columnType).read(payload);
+      }
+    }
+  }
+
+  public int getParameterCount() {
+    return parameterValues.length;
+  }
+
+  public MySQLColumnType getParameterColumnType(final int index) {
+    return MySQLColumnType.valueOf(parameterTypes[index] & 0xff);
+  }
+
+  @Override
+  public void write(MySQLPayload payload) {
+    super.write(payload);
+    payload.writeInt4(statementId);
+    payload.writeInt1(flags);
+    payload.writeInt4(iterationCount);
+
+    var parameterCount = getParameterCount();
+    if (parameterCount == 0) {
+      return;
+    }
+
+    var nullBitmap = new byte[(parameterCount + 7) / 8];
+    for (int i = 0; i < parameterCount; i++) {
+      if (parameterValues[i] == null) {
+        nullBitmap[i / 8] |= (byte) (1 << (i % 8));
+      }
+    }
+    payload.writeBytes(nullBitmap);
+
+    // Always send the parameter types, since the statement may be executed with different types.
+    payload.writeInt1(1);
+    for (var parameterType : parameterTypes) {
+      payload.writeInt2(parameterType);
+    }
+    for (int i = 0; i < parameterCount; i++) {
+      if (parameterValues[i] != null) {
+        BinaryProtocolValueFactory.getBinaryProtocolValue(getParameterColumnType(i))
+            .write(payload, parameterValues[i]);
+      }
+    }
+  }
+
+  @Override
+  public boolean databaseRequired() {
+    return true;
+  }
+}
@@ -0,0 +1,41 @@
+package com.gllue.myproxy.transport.protocol.packet.command;
+
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+/**
+ * Create a prepared statement from the passed query string.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/com-stmt-prepare.html#packet-COM_STMT_PREPARE">COM_STMT_PREPARE</a>
+ */
+public class StmtPrepareCommandPacket extends AbstractCommandPacket {
+  @Getter private final String query;
+
+  public StmtPrepareCommandPacket(final String query) {
+    super(MySQLCommandPacketType.COM_STMT_PREPARE);
+
+    Preconditions.checkNotNull(query);
+    this.query = query;
+  }
+
+  public StmtPrepareCommandPacket(final MySQLPayload payload) {
+    super(MySQLCommandPacketType.COM_STMT_PREPARE);
+
+    validateCommandType(payload);
+    this.query = payload.readStringEOF();
+  }
+
+  @Override
+  public void write(MySQLPayload payload) {
+    super.write(payload);
+    payload.writeStringEOF(query);
+  }
+
+  @Override
+  public boolean databaseRequired() {
+    return true;
+  }
+}
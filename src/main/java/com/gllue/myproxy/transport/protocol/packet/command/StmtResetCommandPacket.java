@@ -0,0 +1,35 @@
+package com.gllue.myproxy.transport.protocol.packet.command;
+
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import lombok.Getter;
+
+/**
+ * Reset the data of a prepared statement which was accumulated with COM_STMT_SEND_LONG_DATA
+ * commands and close the cursor if it was opened with COM_STMT_EXECUTE.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/com-stmt-reset.html#packet-COM_STMT_RESET">COM_STMT_RESET</a>
+ */
+public class StmtResetCommandPacket extends AbstractCommandPacket {
+  @Getter private final int statementId;
+
+  public StmtResetCommandPacket(final int statementId) {
+    super(MySQLCommandPacketType.COM_STMT_RESET);
+
+    this.statementId = statementId;
+  }
+
+  public StmtResetCommandPacket(final MySQLPayload payload) {
+    super(MySQLCommandPacketType.COM_STMT_RESET);
+
+    validateCommandType(payload);
+    this.statementId = payload.readInt4();
+  }
+
+  @Override
+  public void write(MySQLPayload payload) {
+    super.write(payload);
+    payload.writeInt4(statementId);
+  }
+}
@@ -0,0 +1,81 @@
+package com.gllue.myproxy.transport.protocol.packet.generic;
+
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * OK packet with the `0xfe` header, it replaces the EOF packet at the end of the result set when
+ * the CLIENT_DEPRECATE_EOF capability is set.
+ *
+ * @see <a href="https://dev.mysql.com/doc/internals/en/packet-OK_Packet.html">OK Packet</a>
+ */
+@RequiredArgsConstructor
+@Getter
+public final class EofOKPacket implements MySQLPacket {
+
+  /** Header of the OK packet which indicates the EOF. */
+  public static final int HEADER = 0xfe;
+
+  /** The packet which is not shorter than the max payload length must be a row. */
+  private static final int MAX_PAYLOAD_LENGTH = 0xffffff;
+
+  private final long affectedRows;
+
+  private final long lastInsertId;
+
+  private final int statusFlag;
+
+  private final int warnings;
+
+  private final String info;
+
+  public EofOKPacket(final int statusFlag, final int warnings) {
+    this(0L, 0L, statusFlag, warnings, "");
+  }
+
+  public EofOKPacket(final MySQLPayload payload) {
+    Preconditions.checkArgument(
+        HEADER == payload.readInt1(), "Header of MySQL EOF OK packet must be `0xfe`.");
+    affectedRows = payload.readIntLenenc();
+    lastInsertId = payload.readIntLenenc();
+    statusFlag = payload.readInt2();
+    warnings = payload.readInt2();
+    info = payload.readStringEOF();
+  }
+
+  @Override
+  public void write(final MySQLPayload payload) {
+    payload.writeInt1(HEADER);
+    payload.writeIntLenenc(affectedRows);
+    payload.writeIntLenenc(lastInsertId);
+    payload.writeInt2(statusFlag);
+    payload.writeInt2(warnings);
+    payload.writeStringEOF(info);
+  }
+
+  /** Convert to the EOF packet for the connection which doesn't deprecate the EOF. */
+  public EofPacket toEofPacket() {
+    return new EofPacket(warnings, statusFlag);
+  }
+
+  /** Convert from the EOF packet for the connection which deprecates the EOF. */
+  public static EofOKPacket fromEofPacket(final EofPacket packet) {
+    return new EofOKPacket(packet.getStatusFlags(), packet.getWarnings());
+  }
+
+  /**
+   * Unlike the EOF packet, the length of the EOF OK packet is variable, since it may carry the
+   * session state information.
+   *
+   * @param payload MySQL payload
+   * @return true if the given payload is a EofOKPacket, otherwise false.
+   */
+  public static boolean match(final MySQLPayload payload) {
+    return payload.readableBytes() >= 7
+        && payload.readableBytes() < MAX_PAYLOAD_LENGTH
+        && payload.peek() == HEADER;
+  }
+}
@@ -2,6 +2,7 @@ package com.gllue.myproxy.transport.protocol.packet.generic;
 
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import io.netty.buffer.Unpooled;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
@@ -19,4 +20,15 @@ public class RawPacket implements MySQLPacket {
   public void write(MySQLPayload payload) {
     payload.writeBytes(rawData);
   }
+
+  /** Encode the packet in advance, so that it can be written repeatedly without encoding again. */
+  public static RawPacket encode(final MySQLPacket packet) {
+    var payload = new MySQLPayload(Unpooled.buffer());
+    try {
+      packet.write(payload);
+      return new RawPacket(payload.readStringEOFReturnBytes());
+    } finally {
+      payload.close();
+    }
+  }
 }
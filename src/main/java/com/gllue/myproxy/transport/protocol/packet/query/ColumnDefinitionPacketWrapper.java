@@ -2,6 +2,7 @@ package com.gllue.myproxy.transport.protocol.packet.query;
 
 import com.gllue.myproxy.transport.protocol.packet.AbstractPacketWrapper;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 
@@ -11,18 +12,29 @@ public class ColumnDefinitionPacketWrapper extends AbstractPacketWrapper {
   }
 
   public static MySQLPacket tryMatch(final MySQLPayload payload) {
-    var packet = AbstractPacketWrapper.tryMatch(payload);
-    if (packet != null) {
-      return packet;
-    } else if (EofPacket.match(payload)) {
-      return new EofPacket(payload);
-    }
-    return null;
+    return tryMatch(payload, false);
+  }
+
+  /**
+   * Match the packets which aren't the column definition packet.
+   *
+   * @param payload MySQL payload
+   * @param eofDeprecated whether the definitions are terminated by the EOF OK packet.
+   * @return the matched packet or null if the payload is a column definition packet.
+   */
+  public static MySQLPacket tryMatch(final MySQLPayload payload, final boolean eofDeprecated) {
+    var type = ResultPacketClassifier.classify(payload, eofDeprecated);
+    return ResultPacketClassifier.newPacket(payload, type);
   }
 
   public static ColumnDefinitionPacketWrapper newInstance(
       final MySQLPayload payload, final boolean isCommandFieldList) {
-    var packet = tryMatch(payload);
+    return newInstance(payload, isCommandFieldList, false);
+  }
+
+  public static ColumnDefinitionPacketWrapper newInstance(
+      final MySQLPayload payload, final boolean isCommandFieldList, final boolean eofDeprecated) {
+    var packet = tryMatch(payload, eofDeprecated);
     if (packet == null) {
       packet = new ColumnDefinition41Packet(payload, isCommandFieldList);
     }
@@ -32,4 +44,8 @@ public class ColumnDefinitionPacketWrapper extends AbstractPacketWrapper {
   public boolean isEofPacket() {
     return packet != null && packet instanceof EofPacket;
   }
+
+  public boolean isEofOkPacket() {
+    return packet != null && packet instanceof EofOKPacket;
+  }
 }
@@ -0,0 +1,36 @@
+package com.gllue.myproxy.transport.protocol.packet.query;
+
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+
+/**
+ * The response of a {@code LOAD DATA LOCAL INFILE} query which asks the client to send the content
+ * of the file. The client sends the file in the following packets, terminated by an empty packet.
+ *
+ * @see <a href="https://dev.mysql.com/doc/internals/en/com-query-response.html">COM_QUERY
+ *     Response</a>
+ */
+@Getter
+public class LocalInfileRequestPacket implements MySQLPacket {
+  public static final int HEADER = 0xfb;
+
+  private final String fileName;
+
+  public LocalInfileRequestPacket(final String fileName) {
+    this.fileName = fileName;
+  }
+
+  public LocalInfileRequestPacket(final MySQLPayload payload) {
+    Preconditions.checkArgument(
+        HEADER == payload.readInt1(), "Header of local infile request packet must be `0xfb`.");
+    this.fileName = payload.readStringEOF();
+  }
+
+  @Override
+  public void write(MySQLPayload payload) {
+    payload.writeInt1(HEADER);
+    payload.writeStringEOF(fileName);
+  }
+}
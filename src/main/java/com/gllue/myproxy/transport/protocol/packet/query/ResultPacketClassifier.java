@@ -0,0 +1,77 @@
+package com.gllue.myproxy.transport.protocol.packet.query;
+
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classify the packets of the column definitions and the rows by the header byte and the length of
+ * the payload, without decoding the payload into a packet.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ResultPacketClassifier {
+  /** The packet which is not shorter than the max payload length must be a row. */
+  private static final int MAX_PAYLOAD_LENGTH = 0xffffff;
+
+  /** The EOF packet is shorter than 9 bytes, or it's a Protocol::LengthEncodedInteger. */
+  private static final int MAX_EOF_PAYLOAD_LENGTH = 9;
+
+  private static final int MIN_EOF_OK_PAYLOAD_LENGTH = 7;
+
+  public enum ResultPacketType {
+    ERR,
+    EOF,
+    EOF_OK,
+    DATA
+  }
+
+  /**
+   * Classify a payload of the column definitions or the rows.
+   *
+   * @param payload MySQL payload
+   * @param eofDeprecated whether the payloads are terminated by the EOF OK packet.
+   * @return type of the packet, {@link ResultPacketType#DATA} if it's a column definition or a row
+   */
+  public static ResultPacketType classify(final MySQLPayload payload, final boolean eofDeprecated) {
+    var length = payload.readableBytes();
+    if (length == 0) {
+      return ResultPacketType.DATA;
+    }
+
+    var header = payload.peek();
+    if (header == ErrPacket.HEADER) {
+      return ResultPacketType.ERR;
+    } else if (header != EofPacket.HEADER) {
+      return ResultPacketType.DATA;
+    } else if (eofDeprecated) {
+      if (length >= MIN_EOF_OK_PAYLOAD_LENGTH && length < MAX_PAYLOAD_LENGTH) {
+        return ResultPacketType.EOF_OK;
+      }
+    } else if (length < MAX_EOF_PAYLOAD_LENGTH) {
+      return ResultPacketType.EOF;
+    }
+    return ResultPacketType.DATA;
+  }
+
+  /**
+   * Read the packet of the classified payload.
+   *
+   * @return the packet, or null if the payload is a column definition or a row.
+   */
+  public static MySQLPacket newPacket(final MySQLPayload payload, final ResultPacketType type) {
+    switch (type) {
+      case ERR:
+        return new ErrPacket(payload);
+      case EOF:
+        return new EofPacket(payload);
+      case EOF_OK:
+        return new EofOKPacket(payload);
+      default:
+        return null;
+    }
+  }
+}
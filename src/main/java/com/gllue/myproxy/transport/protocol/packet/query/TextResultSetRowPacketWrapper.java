@@ -2,6 +2,7 @@ package com.gllue.myproxy.transport.protocol.packet.query;
 
 import com.gllue.myproxy.transport.protocol.packet.AbstractPacketWrapper;
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
@@ -13,17 +14,28 @@ public class TextResultSetRowPacketWrapper extends AbstractPacketWrapper {
   }
 
   public static MySQLPacket tryMatch(final MySQLPayload payload) {
-    var packet = AbstractPacketWrapper.tryMatch(payload);
-    if (packet != null) {
-      return packet;
-    } else if (EofPacket.match(payload)) {
-      return new EofPacket(payload);
-    }
-    return null;
+    return tryMatch(payload, false);
+  }
+
+  /**
+   * Match the packets which aren't the row packet.
+   *
+   * @param payload MySQL payload
+   * @param eofDeprecated whether the rows are terminated by the EOF OK packet.
+   * @return the matched packet or null if the payload is a row packet.
+   */
+  public static MySQLPacket tryMatch(final MySQLPayload payload, final boolean eofDeprecated) {
+    var type = ResultPacketClassifier.classify(payload, eofDeprecated);
+    return ResultPacketClassifier.newPacket(payload, type);
   }
 
   public static TextResultSetRowPacketWrapper newInstance(MySQLPayload payload, final int columns) {
-    var packet = tryMatch(payload);
+    return newInstance(payload, columns, false);
+  }
+
+  public static TextResultSetRowPacketWrapper newInstance(
+      final MySQLPayload payload, final int columns, final boolean eofDeprecated) {
+    var packet = tryMatch(payload, eofDeprecated);
     if (packet == null) {
       packet = new TextResultSetRowPacket(payload, columns);
     }
@@ -34,6 +46,10 @@ public class TextResultSetRowPacketWrapper extends AbstractPacketWrapper {
     return packet != null && packet instanceof EofPacket;
   }
 
+  public boolean isEofOkPacket() {
+    return packet != null && packet instanceof EofOKPacket;
+  }
+
   public boolean isOkPacket() {
     return packet != null && packet instanceof OKPacket;
   }
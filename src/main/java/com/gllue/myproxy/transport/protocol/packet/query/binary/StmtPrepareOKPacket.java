@@ -0,0 +1,48 @@
+package com.gllue.myproxy.transport.protocol.packet.query.binary;
+
+import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import com.google.common.base.Preconditions;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The first packet of a successful COM_STMT_PREPARE response, it's followed by the parameter
+ * definitions and the column definitions.
+ *
+ * @see <a
+ *     href="https://dev.mysql.com/doc/internals/en/com-stmt-prepare-response.html#packet-COM_STMT_PREPARE_OK">COM_STMT_PREPARE_OK</a>
+ */
+@Getter
+@RequiredArgsConstructor
+public class StmtPrepareOKPacket implements MySQLPacket {
+  public static final int HEADER = 0x00;
+
+  private final int statementId;
+
+  private final int columnCount;
+
+  private final int parameterCount;
+
+  private final int warnings;
+
+  public StmtPrepareOKPacket(final MySQLPayload payload) {
+    Preconditions.checkArgument(
+        HEADER == payload.readInt1(), "Header of MySQL COM_STMT_PREPARE_OK must be `0x00`.");
+    statementId = payload.readInt4();
+    columnCount = payload.readInt2();
+    parameterCount = payload.readInt2();
+    payload.skipBytes(1);
+    warnings = payload.readableBytes() >= 2 ? payload.readInt2() : 0;
+  }
+
+  @Override
+  public void write(final MySQLPayload payload) {
+    payload.writeInt1(HEADER);
+    payload.writeInt4(statementId);
+    payload.writeInt2(columnCount);
+    payload.writeInt2(parameterCount);
+    payload.writeZero(1);
+    payload.writeInt2(warnings);
+  }
+}
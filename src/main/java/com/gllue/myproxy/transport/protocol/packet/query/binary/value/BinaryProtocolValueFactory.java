@@ -0,0 +1,50 @@
+package com.gllue.myproxy.transport.protocol.packet.query.binary.value;
+
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import java.util.EnumMap;
+import java.util.Map;
+
+/** Lookup the binary protocol value by the column type. */
+public final class BinaryProtocolValueFactory {
+  private static final Map<MySQLColumnType, BinaryProtocolValue<?, ?>> BINARY_PROTOCOL_VALUES =
+      new EnumMap<>(MySQLColumnType.class);
+
+  static {
+    register(new Int1BinaryProtocolValue().getInstance());
+    register(new Int2BinaryProtocolValue().getInstance());
+    register(new Int4BinaryProtocolValue().getInstance());
+    register(new Int8BinaryProtocolValue().getInstance());
+    register(new FloatBinaryProtocolValue().getInstance());
+    register(new DoubleBinaryProtocolValue().getInstance());
+    register(new StringBinaryProtocolValue().getInstance());
+    register(new BytesBinaryProtocolValue().getInstance());
+    register(new DatetimeBinaryProtocolValue().getInstance());
+    register(new TimeBinaryProtocolValue().getInstance());
+  }
+
+  private BinaryProtocolValueFactory() {}
+
+  private static void register(final BinaryProtocolValue<?, ?> value) {
+    for (var columnType : value.supportColumnTypes()) {
+      BINARY_PROTOCOL_VALUES.put(columnType, value);
+    }
+  }
+
+  /**
+   * Get the binary protocol value of the column type.
+   *
+   * @param columnType column type
+   * @return binary protocol value
+   * @throws IllegalArgumentException if the column type is unsupported.
+   */
+  @SuppressWarnings("unchecked")
+  public static BinaryProtocolValue<Object, ?> getBinaryProtocolValue(
+      final MySQLColumnType columnType) {
+    var value = BINARY_PROTOCOL_VALUES.get(columnType);
+    if (value == null) {
+      throw new IllegalArgumentException(
+          String.format("Unsupported binary protocol value type. [%s]", columnType));
+    }
+    return (BinaryProtocolValue<Object, ?>) value;
+  }
+}
@@ -0,0 +1,41 @@
+package com.gllue.myproxy.transport.protocol.packet.query.binary.value;
+
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Binary values which must be kept as the raw bytes, such as the blobs of binary data. */
+public class BytesBinaryProtocolValue implements BinaryProtocolValue<byte[], BytesBinaryProtocolValue> {
+  private static final BytesBinaryProtocolValue INSTANCE = new BytesBinaryProtocolValue();
+
+  private static final Set<MySQLColumnType> SUPPORT_COLUMN_TYPES = new HashSet<>();
+
+  static {
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_LONG_BLOB);
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_MEDIUM_BLOB);
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_BLOB);
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_TINY_BLOB);
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_GEOMETRY);
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_BIT);
+  }
+
+  public BytesBinaryProtocolValue getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public byte[] read(MySQLPayload payload) {
+    return payload.readStringLenencReturnBytes();
+  }
+
+  @Override
+  public void write(MySQLPayload payload, byte[] value) {
+    payload.writeBytesLenenc(value);
+  }
+
+  @Override
+  public Set<MySQLColumnType> supportColumnTypes() {
+    return SUPPORT_COLUMN_TYPES;
+  }
+}
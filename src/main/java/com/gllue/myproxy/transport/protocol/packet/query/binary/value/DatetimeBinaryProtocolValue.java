@@ -45,6 +45,7 @@ public class DatetimeBinaryProtocolValue
   @SuppressWarnings("MagicConstant")
   private Timestamp getTimestampForDate(final MySQLPayload payload) {
     Calendar result = Calendar.getInstance();
+    result.clear();
     result.set(payload.readInt2(), payload.readInt1() - 1, payload.readInt1());
     return new Timestamp(result.getTimeInMillis());
   }
@@ -52,6 +53,7 @@ public class DatetimeBinaryProtocolValue
   @SuppressWarnings("MagicConstant")
   private Timestamp getTimestampForDatetime(final MySQLPayload payload) {
     Calendar calendar = Calendar.getInstance();
+    calendar.clear();
     calendar.set(
         payload.readInt2(),
         payload.readInt1() - 1,
@@ -64,7 +66,7 @@ public class DatetimeBinaryProtocolValue
 
   private Timestamp getTimestampForDatetimeWithMicroSeconds(final MySQLPayload payload) {
     var timestamp = getTimestampForDatetime(payload);
-    timestamp.setNanos(payload.readInt4());
+    timestamp.setNanos(payload.readInt4() * 1000);
     return timestamp;
   }
 
@@ -80,10 +82,10 @@ public class DatetimeBinaryProtocolValue
     int hours = calendar.get(Calendar.HOUR_OF_DAY);
     int minutes = calendar.get(Calendar.MINUTE);
     int seconds = calendar.get(Calendar.SECOND);
-    int nanos = value.getNanos();
+    int micros = value.getNanos() / 1000;
 
     int length;
-    if (nanos > 0) {
+    if (micros > 0) {
       length = 11;
     } else if (hours > 0 || minutes > 0 || seconds > 0) {
       length = 7;
@@ -100,7 +102,7 @@ public class DatetimeBinaryProtocolValue
       payload.writeInt1(seconds);
     }
     if (length > 7) {
-      payload.writeInt4(nanos);
+      payload.writeInt4(micros);
     }
   }
 
@@ -16,12 +16,7 @@ public class StringBinaryProtocolValue implements BinaryProtocolValue<String, St
     SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_VAR_STRING);
     SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_ENUM);
     SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_SET);
-    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_LONG_BLOB);
-    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_MEDIUM_BLOB);
-    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_BLOB);
-    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_TINY_BLOB);
-    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_GEOMETRY);
-    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_BIT);
+    SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MySQL_TYPE_JSON);
     SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_DECIMAL);
     SUPPORT_COLUMN_TYPES.add(MySQLColumnType.MYSQL_TYPE_NEWDECIMAL);
   }
@@ -25,11 +25,13 @@ public class TimeBinaryProtocolValue
   @Override
   public Timestamp read(MySQLPayload payload) {
     int length = payload.readInt1();
+    if (length == 0) {
+      return null;
+    }
+
     payload.readInt1();
     payload.readInt4();
     switch (length) {
-      case 0:
-        return null;
       case 8:
         return getTimestampForTime(payload);
       case 12:
@@ -43,6 +45,7 @@ public class TimeBinaryProtocolValue
   @SuppressWarnings("MagicConstant")
   private Timestamp getTimestampForTime(final MySQLPayload payload) {
     Calendar calendar = Calendar.getInstance();
+    calendar.clear();
     calendar.set(
         0, Calendar.JANUARY, 0, payload.readInt1(), payload.readInt1(), payload.readInt1());
     return new Timestamp(calendar.getTimeInMillis());
@@ -50,7 +53,7 @@ public class TimeBinaryProtocolValue
 
   private Timestamp getTimestampForTimeWithMicroSeconds(final MySQLPayload payload) {
     var timestamp = getTimestampForTime(payload);
-    timestamp.setNanos(payload.readInt4());
+    timestamp.setNanos(payload.readInt4() * 1000);
     return timestamp;
   }
 
@@ -66,9 +69,9 @@ public class TimeBinaryProtocolValue
     int hours = calendar.get(Calendar.HOUR_OF_DAY);
     int minutes = calendar.get(Calendar.MINUTE);
     int seconds = calendar.get(Calendar.SECOND);
-    int nanos = value.getNanos();
+    int micros = value.getNanos() / 1000;
 
-    if (nanos > 0) {
+    if (micros > 0) {
       payload.writeInt1(12);
     } else {
       payload.writeInt1(8);
@@ -78,8 +81,8 @@ public class TimeBinaryProtocolValue
     payload.writeInt1(hours);
     payload.writeInt1(minutes);
     payload.writeInt1(seconds);
-    if (nanos > 0) {
-      payload.writeInt4(nanos);
+    if (micros > 0) {
+      payload.writeInt4(micros);
     }
   }
 
@@ -4,23 +4,56 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufUtil;
+import io.netty.util.Recycler;
 import java.nio.charset.Charset;
+import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 
 @Getter
-@RequiredArgsConstructor
 public class MySQLPayload implements AutoCloseable {
   public static final int POWER_2_16 = 1 << 16;
 
   public static final int POWER_2_24 = 1 << 24;
 
+  private static final Recycler<MySQLPayload> RECYCLER =
+      new Recycler<>() {
+        @Override
+        protected MySQLPayload newObject(Handle<MySQLPayload> handle) {
+          return new MySQLPayload(handle);
+        }
+      };
+
+  @Getter(AccessLevel.NONE)
+  private final Recycler.Handle<MySQLPayload> handle;
+
   private Charset charset = Charset.defaultCharset();
 
-  private final ByteBuf byteBuf;
+  private ByteBuf byteBuf;
 
   private boolean closed = false;
 
+  public MySQLPayload(final ByteBuf byteBuf) {
+    this.handle = null;
+    this.byteBuf = byteBuf;
+  }
+
+  private MySQLPayload(final Recycler.Handle<MySQLPayload> handle) {
+    this.handle = handle;
+  }
+
+  /**
+   * Get a pooled payload, it's returned to the pool once it's closed, so it must not be accessed
+   * after {@link #close()}. It's used by the codec whose payloads are owned by a single reader.
+   *
+   * @param byteBuf byte buffer of the payload
+   * @return pooled payload
+   */
+  public static MySQLPayload newInstance(final ByteBuf byteBuf) {
+    var payload = RECYCLER.get();
+    payload.byteBuf = byteBuf;
+    return payload;
+  }
+
   public void setCharset(Charset charset) {
     Preconditions.checkNotNull(charset, "Argument charset cannot be null");
     this.charset = charset;
@@ -547,6 +580,9 @@ public class MySQLPayload implements AutoCloseable {
    */
   @Override
   public void close() {
+    if (byteBuf == null) {
+      throw new IllegalStateException("MySQLPayload has already recycled.");
+    }
     var refCnt = byteBuf.refCnt();
     if (refCnt == 0) {
       throw new IllegalStateException("MySQLPayload has already closed.");
@@ -556,6 +592,19 @@ public class MySQLPayload implements AutoCloseable {
       closed = true;
     }
     byteBuf.release();
+    if (closed) {
+      recycle();
+    }
+  }
+
+  /** Return the pooled payload to the pool, a retained payload is left to the GC instead. */
+  private void recycle() {
+    if (handle != null) {
+      byteBuf = null;
+      charset = Charset.defaultCharset();
+      closed = false;
+      handle.recycle(this);
+    }
   }
 
   @Override
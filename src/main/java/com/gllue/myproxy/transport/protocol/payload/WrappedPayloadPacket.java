@@ -1,13 +1,54 @@
 package com.gllue.myproxy.transport.protocol.payload;
 
 import com.gllue.myproxy.transport.protocol.packet.MySQLPacket;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.Recycler;
 
-@Getter
-@RequiredArgsConstructor
-public class WrappedPayloadPacket implements MySQLPacket {
-  private final MySQLPayload payload;
+/**
+ * A packet whose payload is forwarded as it is. It holds a reference of the payload buffer, which
+ * is released by the encoder after the buffer is written. The instances are pooled, so a packet
+ * must not be accessed after it's released.
+ */
+public final class WrappedPayloadPacket implements MySQLPacket {
+  private static final Recycler<WrappedPayloadPacket> RECYCLER =
+      new Recycler<>() {
+        @Override
+        protected WrappedPayloadPacket newObject(Handle<WrappedPayloadPacket> handle) {
+          return new WrappedPayloadPacket(handle);
+        }
+      };
+
+  private final Recycler.Handle<WrappedPayloadPacket> handle;
+
+  private ByteBuf byteBuf;
+
+  private WrappedPayloadPacket(final Recycler.Handle<WrappedPayloadPacket> handle) {
+    this.handle = handle;
+  }
+
+  /**
+   * Wrap a payload buffer, the reference of the buffer is transferred to the packet.
+   *
+   * @param byteBuf retained payload buffer
+   * @return pooled packet
+   */
+  public static WrappedPayloadPacket newInstance(final ByteBuf byteBuf) {
+    var packet = RECYCLER.get();
+    packet.byteBuf = byteBuf;
+    return packet;
+  }
+
+  public ByteBuf getByteBuf() {
+    return byteBuf;
+  }
+
+  /** Release the payload buffer and return the packet to the pool. */
+  public void release() {
+    var buf = byteBuf;
+    byteBuf = null;
+    handle.recycle(this);
+    buf.release();
+  }
 
   @Override
   public void write(MySQLPayload payload) {
@@ -0,0 +1,116 @@
+package com.gllue.myproxy.command.handler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gllue.myproxy.command.handler.admission.AdmissionController;
+import com.gllue.myproxy.command.handler.admission.AdmissionRejectedException;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequest;
+import com.gllue.myproxy.command.handler.query.QueryHandlerRequestImpl;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.common.concurrent.ThreadPool.Name;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class HandlerExecutorTest {
+  static final String DATASOURCE = "ds";
+  static final String DATABASE = "db";
+  static final String USER = "user";
+
+  @Mock ThreadPool threadPool;
+  @Mock SessionContext sessionContext;
+  @Mock CommandHandler<QueryHandlerRequest> handler;
+
+  AdmissionController admissionController;
+  HandlerExecutor executor;
+
+  @Before
+  public void setUp() {
+    admissionController = new AdmissionController(1, 1, 0, List.of());
+    executor = new HandlerExecutor(threadPool, admissionController);
+    // Saturate the tenant with a request which is never released.
+    admissionController.execute(
+        AdmissionController.tenantOf(DATASOURCE, DATABASE, USER), (release) -> {});
+  }
+
+  void mockThreadPool() {
+    when(threadPool.executor(Name.COMMAND)).thenReturn(ThreadPool.DIRECT_EXECUTOR_SERVICE);
+  }
+
+  QueryHandlerRequest newRequest(final String query) {
+    return new QueryHandlerRequestImpl(1, DATASOURCE, DATABASE, query, sessionContext);
+  }
+
+  Callback<HandlerResult> newCallback(final AtomicReference<Throwable> exception) {
+    return new Callback<>() {
+      @Override
+      public void onSuccess(HandlerResult result) {}
+
+      @Override
+      public void onFailure(Throwable e) {
+        exception.set(e);
+      }
+    };
+  }
+
+  @Test
+  public void testRejectWhenTenantSaturated() {
+    when(sessionContext.currentUser()).thenReturn(USER);
+    var exception = new AtomicReference<Throwable>();
+    executor.execute(handler, newRequest("select * from t"), newCallback(exception));
+    assertThat(exception.get(), IsInstanceOf.instanceOf(AdmissionRejectedException.class));
+    verify(handler, never()).execute(any(), any());
+  }
+
+  @Test
+  public void testAdmitTransactionEndWhenTenantSaturated() {
+    mockThreadPool();
+    var exception = new AtomicReference<Throwable>();
+    for (var query : List.of("COMMIT", " /* c */ rollback", "UNLOCK TABLES")) {
+      var request = newRequest(query);
+      executor.execute(handler, request, newCallback(exception));
+      verify(handler).execute(eq(request), any());
+    }
+    assertNull(exception.get());
+    assertEquals(1, admissionController.getRunningRequests());
+  }
+
+  @Test
+  public void testAdmitOpenedTransactionWhenTenantSaturated() {
+    mockThreadPool();
+    when(sessionContext.isTransactionOpened()).thenReturn(true);
+    var exception = new AtomicReference<Throwable>();
+    var request = newRequest("update t set a = 1");
+    executor.execute(handler, request, newCallback(exception));
+    verify(handler).execute(eq(request), any());
+    assertNull(exception.get());
+  }
+
+  @Test
+  public void testAdmitLockedTablesWhenTenantSaturated() {
+    mockThreadPool();
+    when(sessionContext.getBoundStates()).thenReturn(Set.of(BoundState.TABLE_LOCK));
+    var exception = new AtomicReference<Throwable>();
+    var request = newRequest("select * from t");
+    executor.execute(handler, request, newCallback(exception));
+    verify(handler).execute(eq(request), any());
+    assertNull(exception.get());
+  }
+}
@@ -0,0 +1,130 @@
+package com.gllue.myproxy.command.handler.admission;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AdmissionControllerTest {
+  static final String TENANT1 = "ds/db1/user";
+  static final String TENANT2 = "ds/db2/user";
+
+  static class Requests {
+    final List<String> admitted = new ArrayList<>();
+    final List<Runnable> releases = new ArrayList<>();
+
+    void execute(AdmissionController controller, String tenant, String name) {
+      controller.execute(
+          tenant,
+          (release) -> {
+            admitted.add(name);
+            releases.add(release);
+          });
+    }
+
+    void releaseFirst() {
+      releases.remove(0).run();
+    }
+  }
+
+  @Test
+  public void testAdmitAtOnce() {
+    var controller = new AdmissionController(10, 2, 10, List.of());
+    var requests = new Requests();
+    requests.execute(controller, TENANT1, "a1");
+    requests.execute(controller, TENANT1, "a2");
+    requests.execute(controller, TENANT2, "b1");
+    assertEquals(List.of("a1", "a2", "b1"), requests.admitted);
+    assertEquals(3, controller.getRunningRequests());
+
+    requests.releaseFirst();
+    requests.releaseFirst();
+    requests.releaseFirst();
+    assertEquals(0, controller.getRunningRequests());
+  }
+
+  @Test
+  public void testTenantConcurrencyLimit() {
+    var controller = new AdmissionController(10, 1, 10, List.of());
+    var requests = new Requests();
+    requests.execute(controller, TENANT1, "a1");
+    requests.execute(controller, TENANT1, "a2");
+    requests.execute(controller, TENANT2, "b1");
+    assertEquals(List.of("a1", "b1"), requests.admitted);
+    assertEquals(1, controller.getQueuedRequests(TENANT1));
+
+    requests.releaseFirst();
+    assertEquals(List.of("a1", "b1", "a2"), requests.admitted);
+    assertEquals(0, controller.getQueuedRequests(TENANT1));
+  }
+
+  @Test(expected = AdmissionRejectedException.class)
+  public void testRejectWhenQueueIsFull() {
+    var controller = new AdmissionController(10, 1, 2, List.of());
+    var requests = new Requests();
+    for (int i = 0; i < 4; i++) {
+      requests.execute(controller, TENANT1, "a" + i);
+    }
+  }
+
+  @Test
+  public void testReleaseTwice() {
+    var controller = new AdmissionController(10, 1, 10, List.of());
+    var requests = new Requests();
+    requests.execute(controller, TENANT1, "a1");
+    var release = requests.releases.get(0);
+    release.run();
+    release.run();
+    assertEquals(0, controller.getRunningRequests());
+  }
+
+  @Test
+  public void testFairQueueing() {
+    var controller = new AdmissionController(1, 1, 100, List.of());
+    var requests = new Requests();
+    requests.execute(controller, TENANT1, "blocker");
+    // The noisy tenant queues a lot of requests before the other one.
+    for (int i = 0; i < 5; i++) {
+      requests.execute(controller, TENANT1, "a" + i);
+    }
+    for (int i = 0; i < 2; i++) {
+      requests.execute(controller, TENANT2, "b" + i);
+    }
+
+    for (int i = 0; i < 7; i++) {
+      requests.releaseFirst();
+    }
+    assertEquals(
+        List.of("blocker", "a0", "b0", "a1", "b1", "a2", "a3", "a4"), requests.admitted);
+  }
+
+  @Test
+  public void testWeightedFairQueueing() {
+    var controller = new AdmissionController(1, 1, 100, List.of("ds/db1:2"));
+    var requests = new Requests();
+    requests.execute(controller, TENANT2, "blocker");
+    for (int i = 0; i < 4; i++) {
+      requests.execute(controller, TENANT1, "a" + i);
+      requests.execute(controller, TENANT2, "b" + i);
+    }
+
+    for (int i = 0; i < 8; i++) {
+      requests.releaseFirst();
+    }
+    assertEquals(
+        List.of("blocker", "a0", "a1", "b0", "a2", "a3", "b1", "b2", "b3"), requests.admitted);
+  }
+
+  @Test
+  public void testWeightOf() {
+    var controller = new AdmissionController(1, 1, 1, List.of("ds/db1:2", "ds/db1/admin:5"));
+    assertEquals(2, controller.weightOf(TENANT1));
+    assertEquals(5, controller.weightOf("ds/db1/admin"));
+    assertEquals(1, controller.weightOf(TENANT2));
+    assertEquals("ds/db/", AdmissionController.tenantOf("ds", "db", null));
+  }
+}
@@ -134,6 +134,37 @@ public abstract class BaseQueryHandlerTest {
     return builder.build();
   }
 
+  /**
+   * Prepare a partition table with two extension tables, the second extension table `*_ext_2` has
+   * the column `col5`.
+   */
+  protected PartitionTableMetaData preparePartitionTableWithTwoExtensionTables(String tableName) {
+    var table = preparePartitionTable(tableName);
+    var extensionTable =
+        new TableMetaData.Builder()
+            .setName(tableName + "_ext_2")
+            .setIdentity(RandomUtils.randomShortUUID())
+            .setType(TableType.EXTENSION)
+            .addColumn(
+                new ColumnMetaData.Builder().setName("col5").setType(ColumnType.VARCHAR).build())
+            .addColumn(
+                new ColumnMetaData.Builder()
+                    .setName(TablePartitionHelper.EXTENSION_TABLE_ID_COLUMN)
+                    .setType(ColumnType.INT)
+                    .setBuiltin(true)
+                    .build())
+            .build();
+
+    var builder =
+        new PartitionTableMetaData.Builder()
+            .setName(tableName)
+            .setIdentity(table.getIdentity())
+            .setPrimaryTable(table.getTableByOrdinalValue(0))
+            .addExtensionTable(table.getTableByOrdinalValue(1))
+            .addExtensionTable(extensionTable);
+    return builder.build();
+  }
+
   protected DatabaseMetaData prepareDatabase(
       String datasource, String database, TableMetaData... tables) {
     var builder = new DatabaseMetaData.Builder();
@@ -0,0 +1,65 @@
+package com.gllue.myproxy.command.handler.query;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatementTimeoutPolicyTest {
+  @Test
+  public void testResolveMostSpecificRule() {
+    var policy =
+        new StatementTimeoutPolicy(
+            1000,
+            List.of(
+                "reporter/select:60000", "reporter/*:30000", "*/update:10000", "*/*:5000"));
+    assertEquals(60000, policy.resolve("reporter", "select"));
+    assertEquals(30000, policy.resolve("reporter", "update"));
+    assertEquals(10000, policy.resolve("app", "update"));
+    assertEquals(5000, policy.resolve("app", "select"));
+  }
+
+  @Test
+  public void testResolveDefaultTimeout() {
+    var policy = new StatementTimeoutPolicy(1000, List.of("reporter/select:0"));
+    assertEquals(0, policy.resolve("reporter", "select"));
+    assertEquals(1000, policy.resolve("reporter", "delete"));
+    assertEquals(1000, policy.resolve("app", "insert"));
+  }
+
+  @Test
+  public void testNoTimeoutForNonDmlStatement() {
+    var policy = new StatementTimeoutPolicy(1000, List.of("*/*:5000"));
+    assertEquals(0, policy.resolve("app", null));
+  }
+
+  @Test
+  public void testParseAttribute() {
+    assertEquals(3000, StatementTimeoutPolicy.parseAttribute(3000));
+    assertEquals(3000, StatementTimeoutPolicy.parseAttribute(" 3000 "));
+    assertEquals(0, StatementTimeoutPolicy.parseAttribute(0));
+  }
+
+  @Test(expected = BadCommentAttributeException.class)
+  public void testParseBadAttribute() {
+    StatementTimeoutPolicy.parseAttribute("1s");
+  }
+
+  @Test(expected = BadCommentAttributeException.class)
+  public void testParseNegativeAttribute() {
+    StatementTimeoutPolicy.parseAttribute(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadRule() {
+    new StatementTimeoutPolicy(0, List.of("reporter:1000"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownStatementType() {
+    new StatementTimeoutPolicy(0, List.of("reporter/alter:1000"));
+  }
+}
@@ -3,7 +3,9 @@ package com.gllue.myproxy.command.handler.query.dcl.set;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -14,6 +16,7 @@ import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
 import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.common.FuturableCallback;
 import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -101,6 +104,7 @@ public class SetStatementHandlerTest extends BaseQueryHandlerTest {
     verify(transportService, times(0)).setAutoCommit(eq(request.getConnectionId()), anyBoolean());
     assertEquals(1, submitSqlList.size());
     assertSQLEquals(query, submitSqlList.get(0));
+    verify(sessionContext, never()).setSessionVariable(anyString(), anyString());
   }
 
   @Test(expected = BadVariableValueException.class)
@@ -138,4 +142,26 @@ public class SetStatementHandlerTest extends BaseQueryHandlerTest {
     assertEquals(1, submitSqlList.size());
     assertSQLEquals("set @a=1", submitSqlList.get(0));
   }
+
+  @Test
+  public void testRecordSessionVariables()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    var submitSqlList = new ArrayList<String>();
+    mockSubmitQueryToBackendDatabase(submitSqlList);
+
+    var query = "set time_zone='+00:00', @@session.sql_mode='TRADITIONAL', @a=1, @b=now()";
+    var request = newQueryHandlerRequest(query, Map.of());
+    var callback = new FuturableCallback<HandlerResult>();
+
+    var handler = newHandler();
+    handler.execute(request, callback);
+
+    callbackGet(callback);
+
+    assertEquals(1, submitSqlList.size());
+    verify(sessionContext).setSessionVariable(eq("TIME_ZONE"), anyString());
+    verify(sessionContext).setSessionVariable(eq("SQL_MODE"), anyString());
+    verify(sessionContext).setSessionVariable(eq("@A"), anyString());
+    verify(sessionContext).addBoundState(eq(BoundState.VARIABLE));
+  }
 }
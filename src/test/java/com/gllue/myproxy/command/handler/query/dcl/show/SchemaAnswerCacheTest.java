@@ -0,0 +1,109 @@
+package com.gllue.myproxy.command.handler.query.dcl.show;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
+import com.gllue.myproxy.command.handler.query.dcl.show.SchemaAnswerCache.AnswerType;
+import com.gllue.myproxy.metadata.model.ColumnMetaData;
+import com.gllue.myproxy.metadata.model.ColumnType;
+import com.gllue.myproxy.metadata.model.TableMetaData;
+import com.gllue.myproxy.metadata.model.TableType;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SchemaAnswerCacheTest {
+  static final String DATASOURCE = "ds";
+  static final String DATABASE = "db";
+
+  TableMetaData prepareTable(final String name, final String identity, final int version) {
+    var builder = new TableMetaData.Builder();
+    builder.setName(name).setType(TableType.STANDARD).setIdentity(identity).setVersion(version);
+    builder.addColumn(new ColumnMetaData.Builder().setName("col1").setType(ColumnType.INT).build());
+    return builder.build();
+  }
+
+  EncodedQueryHandlerResult newAnswer() {
+    return new EncodedQueryHandlerResult(List.of(), List.of(), 0);
+  }
+
+  @Test
+  public void testGetAndPut() {
+    var cache = new SchemaAnswerCache(10, 60 * 1000);
+    var table = prepareTable("t1", "id1", 1);
+    assertNull(cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, ""));
+
+    var answer = newAnswer();
+    cache.put(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, "", answer);
+    assertSame(answer, cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, ""));
+    assertNull(cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, "FULL"));
+    assertNull(cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_CREATE_TABLE, ""));
+  }
+
+  @Test
+  public void testMetaDataChanged() {
+    var cache = new SchemaAnswerCache(10, 60 * 1000);
+    var table = prepareTable("t1", "id1", 1);
+    cache.put(DATASOURCE, DATABASE, table, AnswerType.SHOW_CREATE_TABLE, "", newAnswer());
+
+    var newVersion = prepareTable("t1", "id1", 2);
+    assertNull(cache.get(DATASOURCE, DATABASE, newVersion, AnswerType.SHOW_CREATE_TABLE, ""));
+    assertEquals(0, cache.size());
+
+    cache.put(DATASOURCE, DATABASE, table, AnswerType.SHOW_CREATE_TABLE, "", newAnswer());
+    var recreated = prepareTable("t1", "id2", 1);
+    assertNull(cache.get(DATASOURCE, DATABASE, recreated, AnswerType.SHOW_CREATE_TABLE, ""));
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    var cache = new SchemaAnswerCache(2, 60 * 1000);
+    var t1 = prepareTable("t1", "id1", 1);
+    var t2 = prepareTable("t2", "id2", 1);
+    var t3 = prepareTable("t3", "id3", 1);
+    cache.put(DATASOURCE, DATABASE, t1, AnswerType.FIELD_LIST, "", newAnswer());
+    cache.put(DATASOURCE, DATABASE, t2, AnswerType.FIELD_LIST, "", newAnswer());
+    assertNotNull(cache.get(DATASOURCE, DATABASE, t1, AnswerType.FIELD_LIST, ""));
+
+    cache.put(DATASOURCE, DATABASE, t3, AnswerType.FIELD_LIST, "", newAnswer());
+    assertEquals(2, cache.size());
+    assertNotNull(cache.get(DATASOURCE, DATABASE, t1, AnswerType.FIELD_LIST, ""));
+    assertNull(cache.get(DATASOURCE, DATABASE, t2, AnswerType.FIELD_LIST, ""));
+    assertNotNull(cache.get(DATASOURCE, DATABASE, t3, AnswerType.FIELD_LIST, ""));
+  }
+
+  @Test
+  public void testInvalidate() {
+    var cache = new SchemaAnswerCache(10, 60 * 1000);
+    var table = prepareTable("t1", "id1", 1);
+    cache.put(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, "", newAnswer());
+    cache.put("ds2", DATABASE, table, AnswerType.SHOW_COLUMNS, "", newAnswer());
+
+    cache.invalidate(DATASOURCE);
+    assertNull(cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, ""));
+    assertNotNull(cache.get("ds2", DATABASE, table, AnswerType.SHOW_COLUMNS, ""));
+  }
+
+  @Test
+  public void testExpire() throws InterruptedException {
+    var cache = new SchemaAnswerCache(10, 1);
+    var table = prepareTable("t1", "id1", 1);
+    cache.put(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, "", newAnswer());
+    Thread.sleep(5);
+    assertNull(cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, ""));
+  }
+
+  @Test
+  public void testDisabled() {
+    var cache = SchemaAnswerCache.disabled();
+    var table = prepareTable("t1", "id1", 1);
+    cache.put(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, "", newAnswer());
+    assertNull(cache.get(DATASOURCE, DATABASE, table, AnswerType.SHOW_COLUMNS, ""));
+    assertEquals(0, cache.size());
+  }
+}
@@ -0,0 +1,59 @@
+package com.gllue.myproxy.command.handler.query.dcl.show;
+
+import static org.junit.Assert.assertEquals;
+
+import com.gllue.myproxy.command.handler.HandlerResult;
+import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
+import com.gllue.myproxy.common.FuturableCallback;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShowCreateTableHandlerTest extends BaseQueryHandlerTest {
+
+  ShowCreateTableHandler newHandler() {
+    return new ShowCreateTableHandler(transportService, clusterState, sqlParser, threadPool);
+  }
+
+  @Test
+  public void testRemoveAutoIncrementOption()
+      throws ExecutionException, InterruptedException, TimeoutException {
+    var table = prepareTable("t1", "id", "col1");
+    mockClusterState(prepareMultiDatabasesMetaData(table));
+    var queries = new ArrayList<String>();
+    mockSubmitQueryToBackendDatabase(
+        (query) -> {
+          queries.add(query);
+          return newCommandResult(
+              List.of("Table", "Create Table"),
+              new String[][] {
+                {
+                  "t1",
+                  "CREATE TABLE `t1` (`id` bigint NOT NULL AUTO_INCREMENT, `col1` varchar(10), "
+                      + "PRIMARY KEY (`id`)) ENGINE=InnoDB AUTO_INCREMENT=5 "
+                      + "DEFAULT CHARSET=utf8mb4"
+                }
+              });
+        });
+
+    var request = newQueryHandlerRequest("show create table t1", Map.of());
+    var callback = new FuturableCallback<HandlerResult>();
+    newHandler().execute(request, callback);
+
+    var queryResult = callbackGet(callback).getQueryResult();
+    queryResult.next();
+    assertEquals(List.of("show create table t1"), queries);
+    assertEquals("t1", queryResult.getStringValue(0));
+    // The column attribute is kept, only the counter of the table is removed.
+    assertSQLEquals(
+        "CREATE TABLE `t1` (`id` bigint NOT NULL AUTO_INCREMENT, `col1` varchar(10), "
+            + "PRIMARY KEY (`id`)) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4",
+        queryResult.getStringValue(1));
+  }
+}
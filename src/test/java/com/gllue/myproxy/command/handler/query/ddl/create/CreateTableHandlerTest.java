@@ -51,6 +51,9 @@ public class CreateTableHandlerTest extends BaseQueryHandlerTest {
         .thenReturn(0.9);
     when(configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.REPOSITORY_ROOT_PATH))
         .thenReturn(ROOT_PATH);
+    when(configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.ENCRYPTION_BLIND_INDEX_ENABLED))
+        .thenReturn(false);
   }
 
   @Test
@@ -255,6 +258,59 @@ public class CreateTableHandlerTest extends BaseQueryHandlerTest {
     Assert.assertEquals(ColumnType.ENCRYPT, table.getColumn("p_col_2").getType());
   }
 
+  @Test
+  public void testExecuteWithEncryptAndBlindIndex()
+      throws InterruptedException, ExecutionException {
+    mockConfigurations();
+    mockClusterState(prepareMultiDatabasesMetaData(null));
+    var submitSqlList = new ArrayList<String>();
+    mockSubmitQueryToBackendDatabase(submitSqlList);
+    when(configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.ENCRYPTION_BLIND_INDEX_ENABLED))
+        .thenReturn(true);
+
+    var query =
+        "CREATE TABLE `table` (\n"
+            + "  `id` INT NOT NULL AUTO_INCREMENT,\n"
+            + "  `email` ENCRYPT(200) NOT NULL,\n"
+            + "  primary key (`id`)\n"
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;";
+
+    var request = newQueryHandlerRequest(query, Map.of());
+    var callback = new FuturableCallback<HandlerResult>();
+    var metaDataBytes = new AtomicReference<byte[]>();
+    doAnswer(
+            invocation -> {
+              Object[] args = invocation.getArguments();
+              metaDataBytes.set((byte[]) args[1]);
+              return null;
+            })
+        .when(repository)
+        .save(anyString(), any());
+
+    var handler = newHandler();
+    handler.execute(request, callback);
+
+    callback.get();
+
+    assertEquals(1, submitSqlList.size());
+    assertSQLEquals(
+        "CREATE TABLE `table` (\n"
+            + "  `id` INT NOT NULL AUTO_INCREMENT,\n"
+            + "  `email` VARBINARY(200) NOT NULL,\n"
+            + "  primary key (`id`),\n"
+            + "  `$bi_email` BINARY(16) COMMENT 'Blind index column',\n"
+            + "  KEY `$key_for_bi_email` (`$bi_email`)\n"
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;",
+        submitSqlList.get(0));
+
+    var database = TestHelper.bytesToMetaData(metaDataBytes.get());
+    var table = database.getTable("table");
+    Assert.assertEquals(List.of("id", "email", "$bi_email"), table.getColumnNames());
+    Assert.assertEquals(ColumnType.ENCRYPT, table.getColumn("email").getType());
+    Assert.assertTrue(table.getColumn("$bi_email").isBuiltin());
+  }
+
   @Test
   public void testExecuteWithCreateFailed() throws InterruptedException, ExecutionException {
     mockConfigurations();
@@ -0,0 +1,268 @@
+package com.gllue.myproxy.command.handler.query.ddl.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.gllue.myproxy.cluster.ClusterState;
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.Step;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.StepType;
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.config.Configurations.Type;
+import com.gllue.myproxy.config.GenericConfigPropertyKey;
+import com.gllue.myproxy.metadata.command.AbstractTableUpdateCommand.Column;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand.Table;
+import com.gllue.myproxy.metadata.model.ColumnType;
+import com.gllue.myproxy.repository.PersistRepository;
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import com.gllue.myproxy.transport.backend.BackendResultReadException;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.core.service.TransportService;
+import com.gllue.myproxy.transport.exception.CustomErrorCode;
+import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import org.hamcrest.core.IsInstanceOf;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionTableDDLJobRunnerTest {
+  static final String DATASOURCE = "ds";
+  static final String DATABASE = "db";
+  static final String ONLINE_DDL_OPTIONS = ", ALGORITHM=INPLACE, LOCK=NONE";
+  static final String CREATE_QUERY = "CREATE TABLE `t_ext_2` (`c` int)";
+  static final String ALTER_QUERY = "ALTER TABLE `t` ADD COLUMN `a` int";
+  static final String ALTER_EXT_QUERY = "ALTER TABLE `t_ext_1` DROP COLUMN `b`";
+
+  @Mock TransportService transportService;
+  @Mock PersistRepository repository;
+  @Mock Configurations configurations;
+  @Mock ClusterState clusterState;
+  @Mock BackendConnection connection;
+
+  /** The callbacks of the submitted queries in the submission order. */
+  final Map<String, Callback<CommandResult>> submittedQueries = new LinkedHashMap<>();
+
+  final List<PartitionTableDDLJob> committedJobs = new ArrayList<>();
+  PartitionTableDDLJobRunner runner;
+
+  @Before
+  public void setUp() {
+    when(configurations.getValue(Type.GENERIC, GenericConfigPropertyKey.REPOSITORY_ROOT_PATH))
+        .thenReturn("/root");
+    runner =
+        new PartitionTableDDLJobRunner(
+            transportService, repository, configurations, clusterState) {
+          @Override
+          void commitMetaData(final PartitionTableDDLJob job) {
+            assertEquals(0, job.getNumberOfPendingSteps());
+            committedJobs.add(job);
+          }
+        };
+  }
+
+  /** The steps are run with the parallelism, and the queries are completed by the test. */
+  void mockTransportService(final int parallelism) {
+    when(configurations.getValue(
+            Type.GENERIC, GenericConfigPropertyKey.PARTITION_TABLE_DDL_PARALLELISM))
+        .thenReturn(parallelism);
+    when(transportService.getDatabaseRouteTable()).thenReturn(new DatabaseRouteTable());
+    when(transportService.acquireDedicatedBackendConnection(DATASOURCE, DATABASE))
+        .thenAnswer((invocation) -> Promise.emptyPromise(connection));
+    when(transportService.submitQueryToBackendConnection(eq(connection), anyString()))
+        .thenAnswer(
+            (invocation) ->
+                new Promise<CommandResult>(
+                    (cb) -> submittedQueries.put(invocation.getArgument(1), cb)));
+  }
+
+  PartitionTableDDLJob newJob() {
+    var steps =
+        List.of(
+            new Step(StepType.CREATE_TABLE, "t_ext_2", CREATE_QUERY),
+            new Step(StepType.ALTER_TABLE, "t", ALTER_QUERY),
+            new Step(StepType.ALTER_TABLE, "t_ext_1", ALTER_EXT_QUERY));
+    var tables =
+        new Table[] {
+          new Table("t", new Column[] {new Column("id", ColumnType.BIGINT, false, null, true)})
+        };
+    return new PartitionTableDDLJob("node-1", DATASOURCE, DATABASE, "identity", steps, tables);
+  }
+
+  void succeed(final String query) {
+    submittedQueries.get(query).onSuccess(new CommandResult(0, 0, 0, 0, query, null));
+  }
+
+  void fail(final String query, final MySQLServerErrorCode errorCode) {
+    submittedQueries
+        .get(query)
+        .onFailure(
+            new BackendResultReadException(
+                new CustomErrorCode(errorCode.getErrorCode(), "", "")));
+  }
+
+  <T> void watch(
+      Promise<T> promise, AtomicReference<T> result, AtomicReference<Throwable> exception) {
+    promise.then(
+        (v) -> {
+          result.set(v);
+          return true;
+        },
+        (e) -> {
+          exception.set(e);
+          return false;
+        });
+  }
+
+  @Test
+  public void testRunStepsInParallel() {
+    mockTransportService(2);
+    when(repository.saveIfAbsent(anyString(), any())).thenReturn(true);
+    var job = newJob();
+    var result = new AtomicReference<Boolean>();
+    var exception = new AtomicReference<Throwable>();
+    watch(runner.run(job), result, exception);
+
+    // Two steps run at the same time on their own connections.
+    assertEquals(
+        List.of(CREATE_QUERY, ALTER_QUERY + ONLINE_DDL_OPTIONS),
+        new ArrayList<>(submittedQueries.keySet()));
+    assertTrue(job.isStarted(0));
+    assertTrue(job.isStarted(1));
+    assertFalse(job.isStarted(2));
+
+    succeed(ALTER_QUERY + ONLINE_DDL_OPTIONS);
+    assertTrue(job.isDone(1));
+    assertTrue(submittedQueries.containsKey(ALTER_EXT_QUERY + ONLINE_DDL_OPTIONS));
+    succeed(ALTER_EXT_QUERY + ONLINE_DDL_OPTIONS);
+    // The metadata is committed only after all the steps succeed.
+    assertTrue(committedJobs.isEmpty());
+    assertNull(result.get());
+
+    succeed(CREATE_QUERY);
+    assertNull(exception.get());
+    assertTrue(result.get());
+    assertEquals(List.of(job), committedJobs);
+  }
+
+  @Test
+  public void testFailIfJobExists() {
+    when(repository.saveIfAbsent(anyString(), any())).thenReturn(false);
+    var exception = new AtomicReference<Throwable>();
+    watch(
+        Promise.emptyPromise().thenAsync((v) -> runner.run(newJob())),
+        new AtomicReference<>(),
+        exception);
+    assertThat(exception.get(), IsInstanceOf.instanceOf(BadSQLException.class));
+    assertTrue(submittedQueries.isEmpty());
+  }
+
+  @Test
+  public void testFallbackToDefaultAlgorithm() {
+    mockTransportService(1);
+    var job = newJob();
+    job.markDone(0);
+    job.markDone(2);
+    var result = new AtomicReference<Boolean>();
+    watch(runner.resume(job), result, new AtomicReference<>());
+
+    fail(ALTER_QUERY + ONLINE_DDL_OPTIONS, MySQLServerErrorCode.ER_ALTER_OPERATION_NOT_SUPPORTED);
+    succeed(ALTER_QUERY);
+    assertEquals(
+        List.of(ALTER_QUERY + ONLINE_DDL_OPTIONS, ALTER_QUERY),
+        new ArrayList<>(submittedQueries.keySet()));
+    assertTrue(result.get());
+
+    submittedQueries.clear();
+    job = newJob();
+    job.markDone(0);
+    job.markDone(1);
+    watch(runner.resume(job), result, new AtomicReference<>());
+    fail(
+        ALTER_EXT_QUERY + ONLINE_DDL_OPTIONS,
+        MySQLServerErrorCode.ER_ALTER_OPERATION_NOT_SUPPORTED_REASON);
+    succeed(ALTER_EXT_QUERY);
+    assertEquals(2, committedJobs.size());
+  }
+
+  @Test
+  public void testSkipAppliedStepsOnResume() {
+    mockTransportService(1);
+    var job = newJob();
+    job.markDone(0);
+    job.markStarted(1);
+    job.markStarted(2);
+    var result = new AtomicReference<Boolean>();
+    var exception = new AtomicReference<Throwable>();
+    watch(runner.resume(job), result, exception);
+
+    fail(ALTER_QUERY + ONLINE_DDL_OPTIONS, MySQLServerErrorCode.ER_DUP_FIELDNAME);
+    fail(ALTER_EXT_QUERY + ONLINE_DDL_OPTIONS, MySQLServerErrorCode.ER_CANT_DROP_FIELD_OR_KEY);
+    assertNull(exception.get());
+    assertTrue(result.get());
+    assertEquals(List.of(job), committedJobs);
+  }
+
+  @Test
+  public void testFailAppliedStepsNotStarted() {
+    mockTransportService(1);
+    var job = newJob();
+    job.markDone(0);
+    job.markDone(2);
+    var exception = new AtomicReference<Throwable>();
+    watch(runner.resume(job), new AtomicReference<>(), exception);
+
+    // The step is not recorded as started, so the column is not added by the job.
+    fail(ALTER_QUERY + ONLINE_DDL_OPTIONS, MySQLServerErrorCode.ER_DUP_FIELDNAME);
+    assertThat(exception.get(), IsInstanceOf.instanceOf(BackendResultReadException.class));
+    assertEquals(1, submittedQueries.size());
+    assertTrue(committedJobs.isEmpty());
+  }
+
+  @Test
+  public void testRecreateTableOnlyIfStarted() {
+    mockTransportService(1);
+    var job = newJob();
+    job.markStarted(0);
+    job.markDone(1);
+    job.markDone(2);
+    var result = new AtomicReference<Boolean>();
+    watch(runner.resume(job), result, new AtomicReference<>());
+    fail(CREATE_QUERY, MySQLServerErrorCode.ER_TABLE_EXISTS_ERROR);
+    succeed("DROP TABLE IF EXISTS `t_ext_2`");
+    assertEquals(
+        List.of(CREATE_QUERY, "DROP TABLE IF EXISTS `t_ext_2`"),
+        new ArrayList<>(submittedQueries.keySet()));
+    // The same query is submitted again after the table is dropped.
+    succeed(CREATE_QUERY);
+    assertTrue(result.get());
+
+    submittedQueries.clear();
+    job = newJob();
+    job.markDone(1);
+    job.markDone(2);
+    var exception = new AtomicReference<Throwable>();
+    watch(runner.resume(job), new AtomicReference<>(), exception);
+    fail(CREATE_QUERY, MySQLServerErrorCode.ER_TABLE_EXISTS_ERROR);
+    assertThat(exception.get(), IsInstanceOf.instanceOf(BackendResultReadException.class));
+    assertEquals(List.of(CREATE_QUERY), new ArrayList<>(submittedQueries.keySet()));
+    assertEquals(1, committedJobs.size());
+  }
+}
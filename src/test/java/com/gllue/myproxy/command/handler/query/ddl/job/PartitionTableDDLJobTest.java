@@ -0,0 +1,112 @@
+package com.gllue.myproxy.command.handler.query.ddl.job;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.Step;
+import com.gllue.myproxy.command.handler.query.ddl.job.PartitionTableDDLJob.StepType;
+import com.gllue.myproxy.metadata.codec.MetaDataCodecException;
+import com.gllue.myproxy.metadata.command.AbstractTableUpdateCommand.Column;
+import com.gllue.myproxy.metadata.command.UpdatePartitionTableCommand.Table;
+import com.gllue.myproxy.metadata.model.ColumnType;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PartitionTableDDLJobTest {
+  PartitionTableDDLJob newJob() {
+    var steps =
+        List.of(
+            new Step(StepType.CREATE_TABLE, "t_ext_2", "CREATE TABLE `t_ext_2` (`c` int)"),
+            new Step(StepType.ALTER_TABLE, "t", "ALTER TABLE `t` ADD COLUMN `a` int"),
+            new Step(StepType.ALTER_TABLE, "t_ext_1", "ALTER TABLE `t_ext_1` DROP COLUMN `b`"));
+    var tables =
+        new Table[] {
+          new Table(
+              "t",
+              new Column[] {
+                new Column("id", ColumnType.BIGINT, false, null, true),
+                new Column("a", ColumnType.INT, true, "1")
+              }),
+          new Table(
+              "t_ext_1", new Column[] {new Column("id", ColumnType.BIGINT, false, null, true)}),
+          new Table("t_ext_2", new Column[] {new Column("c", ColumnType.INT, true, null)})
+        };
+    return new PartitionTableDDLJob("node-1", "ds", "db", "identity", steps, tables);
+  }
+
+  @Test
+  public void testMarkDone() {
+    var job = newJob();
+    assertEquals("t", job.getTableName());
+    assertEquals(3, job.getNumberOfPendingSteps());
+
+    job.markDone(1);
+    assertTrue(job.isDone(1));
+    assertFalse(job.isDone(0));
+    assertEquals(2, job.getNumberOfPendingSteps());
+  }
+
+  @Test
+  public void testEncodeAndDecode() {
+    var job = newJob();
+    job.markDone(0);
+    job.markDone(2);
+
+    var decoded = PartitionTableDDLJob.decode(job.encode());
+    assertEquals("node-1", decoded.getNode());
+    assertEquals("ds", decoded.getDatasource());
+    assertEquals("db", decoded.getDatabase());
+    assertEquals("identity", decoded.getTableIdentity());
+    assertEquals(3, decoded.getSteps().size());
+    assertTrue(decoded.isDone(0));
+    assertFalse(decoded.isDone(1));
+    assertTrue(decoded.isDone(2));
+    assertEquals(1, decoded.getNumberOfPendingSteps());
+
+    var step = decoded.getSteps().get(1);
+    assertEquals(StepType.ALTER_TABLE, step.getType());
+    assertEquals("t", step.getTableName());
+    assertEquals("ALTER TABLE `t` ADD COLUMN `a` int", step.getQuery());
+
+    var tables = decoded.getTables();
+    assertEquals(3, tables.length);
+    assertEquals("t", tables[0].name);
+    assertEquals(2, tables[0].columns.length);
+    assertEquals("id", tables[0].columns[0].name);
+    assertEquals(ColumnType.BIGINT, tables[0].columns[0].type);
+    assertFalse(tables[0].columns[0].nullable);
+    assertNull(tables[0].columns[0].defaultValue);
+    assertTrue(tables[0].columns[0].builtin);
+    assertEquals("a", tables[0].columns[1].name);
+    assertEquals("1", tables[0].columns[1].defaultValue);
+    assertFalse(tables[0].columns[1].builtin);
+    assertEquals("t_ext_2", tables[2].name);
+  }
+
+  @Test
+  public void testEncodeAndDecodeStartedSteps() {
+    var job = newJob();
+    job.markStarted(0);
+    job.markDone(0);
+    job.markStarted(1);
+    assertFalse(job.isStarted(0));
+    assertTrue(job.isStarted(1));
+
+    var decoded = PartitionTableDDLJob.decode(job.encode());
+    assertTrue(decoded.isDone(0));
+    assertTrue(decoded.isStarted(1));
+    assertFalse(decoded.isDone(1));
+    assertFalse(decoded.isStarted(2));
+    assertEquals(2, decoded.getNumberOfPendingSteps());
+  }
+
+  @Test(expected = MetaDataCodecException.class)
+  public void testDecodeBadData() {
+    PartitionTableDDLJob.decode(new byte[] {'b', 'a', 'd', 0});
+  }
+}
@@ -0,0 +1,63 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
+import com.gllue.myproxy.metadata.codec.MetaDataCodecException;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExtensionColumnMoveTest extends BaseQueryHandlerTest {
+  @Test
+  public void testEncodeAndDecode() {
+    var move = new ExtensionColumnMove("id", "t_ext_1", "t_ext_2", List.of("col2", "col4"));
+    var decoded = ExtensionColumnMove.decode(move.encode());
+    assertEquals("id", decoded.getTableIdentity());
+    assertEquals("t_ext_1", decoded.getSourceTable());
+    assertEquals("t_ext_2", decoded.getTargetTable());
+    assertEquals(List.of("col2", "col4"), decoded.getColumns());
+    assertEquals("$_mv_1", decoded.getShadowColumn("col4"));
+    assertNull(decoded.getShadowColumn("col5"));
+  }
+
+  @Test(expected = MetaDataCodecException.class)
+  public void testDecodeBadData() {
+    ExtensionColumnMove.decode(new byte[] {'a', 0});
+  }
+
+  @Test
+  public void testGetTargetOrdinalValue() {
+    var table = preparePartitionTableWithTwoExtensionTables("t");
+    var move = new ExtensionColumnMove(table.getIdentity(), "t_ext_1", "t_ext_2", List.of("col2"));
+    assertEquals(2, move.getTargetOrdinalValue(table, "col2"));
+    assertEquals(-1, move.getTargetOrdinalValue(table, "col4"));
+    assertEquals(-1, move.getTargetOrdinalValue(preparePartitionTable("t"), "col2"));
+
+    // The metadata is updated by the cut over, the column is in the target table already.
+    var moved = new ExtensionColumnMove(table.getIdentity(), "t_ext_2", "t_ext_1", List.of("col2"));
+    assertEquals(-1, moved.getTargetOrdinalValue(table, "col2"));
+  }
+
+  @Test
+  public void testRegistry() {
+    var registry = new ExtensionColumnMoveRegistry();
+    assertTrue(registry.isEmpty());
+    var move = new ExtensionColumnMove("id", "t_ext_1", "t_ext_2", List.of("col2"));
+    assertTrue(registry.register(move));
+    assertFalse(registry.register(move));
+    assertSame(move, registry.get("id"));
+    assertEquals(1, registry.getVersion());
+
+    registry.unregister("id");
+    registry.unregister("id");
+    assertTrue(registry.isEmpty());
+    assertEquals(2, registry.getVersion());
+  }
+}
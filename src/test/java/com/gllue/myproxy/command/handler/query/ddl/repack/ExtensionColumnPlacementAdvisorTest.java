@@ -0,0 +1,96 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExtensionColumnPlacementAdvisorTest {
+  @Test
+  public void testCoAccessedColumnsArePlacedTogether() {
+    var layout = List.of(List.of("a", "x"), List.of("b", "y"), List.of("c", "z"));
+    var patterns = Map.of(List.of("a", "b", "c"), 100L, List.of("y"), 10L);
+    var placement =
+        ExtensionColumnPlacementAdvisor.advise(layout, new int[] {3, 3, 3}, patterns);
+
+    assertTrue(placement.isChanged());
+    assertEquals(310, placement.getCurrentJoins());
+    assertEquals(110, placement.getProposedJoins());
+    assertEquals(110, placement.getTotalAccesses());
+    assertEquals(
+        List.of(List.of("a", "b", "c"), List.of("x", "y"), List.of("z")),
+        placement.getProposedLayout());
+
+    var moves = placement.getMoves();
+    assertEquals(3, moves.size());
+    assertEquals("b", moves.get(0).getColumn());
+    assertEquals(1, moves.get(0).getSource());
+    assertEquals(0, moves.get(0).getTarget());
+    assertEquals("x", moves.get(2).getColumn());
+    assertEquals(0, moves.get(2).getSource());
+    assertEquals(1, moves.get(2).getTarget());
+  }
+
+  @Test
+  public void testKeepCurrentLayoutWithoutAccesses() {
+    var layout = List.of(List.of("a", "b"), List.of("c"));
+    var placement =
+        ExtensionColumnPlacementAdvisor.advise(layout, new int[] {3, 3}, new HashMap<>());
+    assertFalse(placement.isChanged());
+    assertEquals(layout, placement.getProposedLayout());
+    assertTrue(placement.getMoves().isEmpty());
+  }
+
+  @Test
+  public void testKeepOptimalLayout() {
+    var layout = List.of(List.of("a", "b"), List.of("c", "d"));
+    var patterns = Map.of(List.of("a", "b"), 10L, List.of("c", "d"), 5L, List.of("d"), 1L);
+    var placement = ExtensionColumnPlacementAdvisor.advise(layout, new int[] {2, 2}, patterns);
+    assertFalse(placement.isChanged());
+    assertTrue(placement.getMoves().isEmpty());
+    assertEquals(16, placement.getProposedJoins());
+  }
+
+  @Test
+  public void testGroupsDoNotExceedCapacity() {
+    var layout = List.of(List.of("a", "b"), List.of("c", "d"), List.of("e"));
+    var patterns =
+        Map.of(List.of("a", "c", "e"), 100L, List.of("b", "d", "e"), 1L, List.of("a", "b"), 1L);
+    var placement =
+        ExtensionColumnPlacementAdvisor.advise(layout, new int[] {3, 3, 3}, patterns);
+
+    assertTrue(placement.isChanged());
+    for (var columns : placement.getProposedLayout()) {
+      assertTrue(columns.size() <= 3);
+    }
+    assertEquals(List.of("a", "c", "e"), placement.getProposedLayout().get(0));
+    assertEquals(100 + 2 + 2, placement.getProposedJoins());
+  }
+
+  @Test
+  public void testIgnoreUnknownColumns() {
+    var layout = List.of(List.of("a"), List.of("b"));
+    var patterns = Map.of(List.of("a", "b", "primary_column"), 10L, List.of("dropped"), 5L);
+    var placement = ExtensionColumnPlacementAdvisor.advise(layout, new int[] {2, 2}, patterns);
+    assertEquals(10, placement.getTotalAccesses());
+    assertEquals(10, placement.getProposedJoins());
+    assertEquals(1, placement.getMoves().size());
+  }
+
+  @Test
+  public void testTableAccesses() {
+    var layout = List.of(List.of("a", "b"), List.of("c"));
+    var patterns = Map.of(List.of("a", "b"), 10L, List.of("a", "c"), 5L, List.of("x"), 1L);
+    assertArrayEquals(
+        new long[] {15, 5}, ExtensionColumnPlacementAdvisor.tableAccesses(layout, patterns));
+    assertEquals(20, ExtensionColumnPlacementAdvisor.expectedJoins(layout, patterns));
+  }
+}
@@ -0,0 +1,61 @@
+package com.gllue.myproxy.command.handler.query.ddl.repack;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ExtensionTableCompactionPlannerTest {
+  private List<String> describe(final ExtensionTableCompactionPlanner.Plan plan) {
+    var result = new ArrayList<String>();
+    for (var move : plan.getMoves()) {
+      result.add(move.getColumn() + ":" + move.getSource() + "->" + move.getTarget());
+    }
+    return result;
+  }
+
+  @Test
+  public void testMergeTrailingTables() {
+    var layout = List.of(List.of("a"), List.of("b", "c"), List.of("d"), List.of("e", "f"));
+    var plan = ExtensionTableCompactionPlanner.plan(layout, new int[] {4, 4, 4, 4});
+
+    assertEquals(2, plan.getKeptTables());
+    assertEquals(2, plan.getRemovedTables());
+    assertEquals(List.of("d:2->1", "e:3->0", "f:3->0"), describe(plan));
+  }
+
+  @Test
+  public void testSplitColumnsOfTableWithoutEnoughRoom() {
+    var layout = List.of(List.of("a", "b"), List.of("c", "d"), List.of("e", "f"));
+    var plan = ExtensionTableCompactionPlanner.plan(layout, new int[] {3, 3, 3});
+
+    assertEquals(2, plan.getKeptTables());
+    assertEquals(1, plan.getRemovedTables());
+    assertEquals(List.of("e:2->0", "f:2->1"), describe(plan));
+  }
+
+  @Test
+  public void testKeepFilledTables() {
+    var layout = List.of(List.of("a", "b"), List.of("c", "d"), List.of("e"));
+    var plan = ExtensionTableCompactionPlanner.plan(layout, new int[] {2, 2, 2});
+
+    assertEquals(3, plan.getKeptTables());
+    assertEquals(0, plan.getRemovedTables());
+    assertTrue(plan.getMoves().isEmpty());
+  }
+
+  @Test
+  public void testKeepAtLeastOneTable() {
+    var layout = List.<List<String>>of(List.of(), List.of());
+    var plan = ExtensionTableCompactionPlanner.plan(layout, new int[] {2, 2});
+
+    assertEquals(1, plan.getKeptTables());
+    assertEquals(1, plan.getRemovedTables());
+    assertTrue(plan.getMoves().isEmpty());
+  }
+}
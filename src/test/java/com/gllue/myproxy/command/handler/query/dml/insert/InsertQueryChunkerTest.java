@@ -0,0 +1,120 @@
+package com.gllue.myproxy.command.handler.query.dml.insert;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
+import com.gllue.myproxy.command.handler.query.EncryptionHelper;
+import com.gllue.myproxy.command.handler.query.EncryptionHelper.EncryptionAlgorithm;
+import com.gllue.myproxy.command.handler.query.dml.select.TableScopeFactory;
+import com.gllue.myproxy.metadata.model.TableMetaData;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class InsertQueryChunkerTest extends BaseQueryHandlerTest {
+  private int nextId = 0;
+
+  private InsertQueryChunker newChunker(
+      final String query, final int maxRows, final int maxSizeInBytes, TableMetaData... tables) {
+    var encryptKey = "key";
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, tables);
+    var factory = new TableScopeFactory(DATASOURCE, DATABASE, databasesMetaData);
+    var encryptor = EncryptionHelper.newEncryptor(EncryptionAlgorithm.AES, encryptKey);
+    var decryptor = EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, encryptKey);
+    var rewriter =
+        new InsertQueryRewriteVisitor(
+            DATABASE,
+            factory,
+            DATASOURCE,
+            databasesMetaData,
+            () -> ++nextId,
+            encryptor,
+            decryptor);
+    parseInsertQuery(query).accept(rewriter);
+    return new InsertQueryChunker(rewriter.getNewInsertQueries(), maxRows, maxSizeInBytes);
+  }
+
+  @Test
+  public void testSplitIntoChunksByRows() {
+    var table1 = preparePartitionTable("table1");
+    var query =
+        "insert ignore into `table1` (`id`, `col3`, `col4`) "
+            + "values (1, '1', '2'), (2, 'a', 'b'), (3, 'c', 'd')";
+    var chunker = newChunker(query, 2, 1024, table1);
+
+    assertTrue(chunker.hasNext());
+    var queries = chunker.next();
+    assertEquals(2, queries.size());
+    assertSQLEquals(
+        "INSERT IGNORE INTO `table1` (`id`, `col3`, `$_ext_id`) VALUES (1, '1', 1), (2, 'a', 2)",
+        queries.get(0));
+    assertSQLEquals(
+        "INSERT IGNORE INTO `table1_ext_1` (`col4`, `$_ext_id`) VALUES ('2', 1), ('b', 2)",
+        queries.get(1));
+
+    assertTrue(chunker.hasNext());
+    queries = chunker.next();
+    assertSQLEquals(
+        "INSERT IGNORE INTO `table1` (`id`, `col3`, `$_ext_id`) VALUES (3, 'c', 3)",
+        queries.get(0));
+    assertSQLEquals(
+        "INSERT IGNORE INTO `table1_ext_1` (`col4`, `$_ext_id`) VALUES ('d', 3)", queries.get(1));
+    assertFalse(chunker.hasNext());
+  }
+
+  @Test
+  public void testSplitIntoChunksBySize() {
+    var table1 = preparePartitionTable("table1");
+    var query =
+        "insert into `table1` (`id`, `col3`) values (1, '1'), (2, 'a'), (3, 'c') "
+            + "on duplicate key update `col3` = values(`col3`)";
+    // The query of the primary table holds two rows at most.
+    var head = "INSERT INTO `table1` (`id`, `col3`, `$_ext_id`) VALUES ";
+    var tail = " ON DUPLICATE KEY UPDATE `col3` = values(`col3`)";
+    var maxSize = head.length() + "(1, '1', 1), (2, 'a', 2)".length() + tail.length();
+    var chunker = newChunker(query, 100, maxSize, table1);
+
+    var queries = chunker.next();
+    assertSQLEquals(head + "(1, '1', 1), (2, 'a', 2)" + tail, queries.get(0));
+    assertSQLEquals("INSERT INTO `table1_ext_1` (`$_ext_id`) VALUES (1), (2)", queries.get(1));
+
+    queries = chunker.next();
+    assertSQLEquals(head + "(3, 'c', 3)" + tail, queries.get(0));
+    assertSQLEquals("INSERT INTO `table1_ext_1` (`$_ext_id`) VALUES (3)", queries.get(1));
+    assertFalse(chunker.hasNext());
+  }
+
+  @Test
+  public void testRowLargerThanMaxSize() {
+    var table1 = preparePartitionTable("table1");
+    var query = "insert into `table1` (`id`, `col3`) values (1, '1'), (2, 'a')";
+    var chunker = newChunker(query, 100, 1, table1);
+
+    assertSQLEquals(
+        "INSERT INTO `table1` (`id`, `col3`, `$_ext_id`) VALUES (1, '1', 1)",
+        chunker.next().get(0));
+    assertSQLEquals(
+        "INSERT INTO `table1` (`id`, `col3`, `$_ext_id`) VALUES (2, 'a', 2)",
+        chunker.next().get(0));
+    assertFalse(chunker.hasNext());
+  }
+
+  @Test
+  public void testSingleChunk() {
+    var table1 = preparePartitionTable("table1");
+    var query = "insert into `table1` (`id`, `col4`) values (1, '1'), (2, 'a')";
+    var chunker = newChunker(query, 100, 1024, table1);
+
+    var queries = chunker.next();
+    assertEquals(2, queries.size());
+    assertSQLEquals(
+        "INSERT INTO `table1` (`id`, `$_ext_id`) VALUES (1, 1), (2, 2)", queries.get(0));
+    assertSQLEquals(
+        "INSERT INTO `table1_ext_1` (`col4`, `$_ext_id`) VALUES ('1', 1), ('a', 2)",
+        queries.get(1));
+    assertFalse(chunker.hasNext());
+  }
+}
@@ -7,6 +7,8 @@ import static org.junit.Assert.assertTrue;
 import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper.EncryptionAlgorithm;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMove;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveRegistry;
 import com.gllue.myproxy.command.handler.query.dml.select.TableScopeFactory;
 import com.gllue.myproxy.common.generator.IdGenerator;
 import com.gllue.myproxy.common.util.RandomUtils;
@@ -14,6 +16,7 @@ import com.gllue.myproxy.metadata.model.ColumnMetaData;
 import com.gllue.myproxy.metadata.model.ColumnType;
 import com.gllue.myproxy.metadata.model.TableMetaData;
 import com.gllue.myproxy.metadata.model.TableType;
+import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -28,13 +31,25 @@ public class InsertQueryRewriteVisitorTest extends BaseQueryHandlerTest {
   }
 
   private InsertQueryRewriteVisitor newRewriter(TableMetaData... tables) {
+    return newRewriter(new ExtensionColumnMoveRegistry(), tables);
+  }
+
+  private InsertQueryRewriteVisitor newRewriter(
+      ExtensionColumnMoveRegistry columnMoves, TableMetaData... tables) {
     var encryptKey = "key";
     var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, tables);
     var factory = new TableScopeFactory(DATASOURCE, DATABASE, databasesMetaData);
     var encryptor = EncryptionHelper.newEncryptor(EncryptionAlgorithm.AES, encryptKey);
     var decryptor = EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, encryptKey);
     return new InsertQueryRewriteVisitor(
-        DATABASE, factory, DATASOURCE, databasesMetaData, idGenerator(), encryptor, decryptor);
+        DATABASE,
+        factory,
+        DATASOURCE,
+        databasesMetaData,
+        idGenerator(),
+        encryptor,
+        decryptor,
+        columnMoves);
   }
 
   @Test
@@ -76,6 +91,31 @@ public class InsertQueryRewriteVisitorTest extends BaseQueryHandlerTest {
     assertTrue(rewriter.isQueryChanged());
   }
 
+  @Test
+  public void testRewriteEncryptColumnPlaceholderForPreparedInsert() {
+    var builder = new TableMetaData.Builder();
+    builder
+        .setName("table1")
+        .setType(TableType.STANDARD)
+        .setIdentity(RandomUtils.randomShortUUID())
+        .setVersion(1);
+    builder.addColumn(new ColumnMetaData.Builder().setName("id").setType(ColumnType.INT).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder().setName("col1").setType(ColumnType.ENCRYPT).build());
+    var table1 = builder.build();
+    var rewriter = newRewriter(table1);
+    var query =
+        "insert into `table1` (`id`, `col1`) values (?, ?) on duplicate key update `col1` = ?";
+    var stmt = parseInsertQuery(query);
+    stmt.accept(rewriter);
+    assertTrue(rewriter.isQueryChanged());
+    assertSQLEquals(
+        "INSERT INTO `table1` (`id`, `col1`)\n"
+            + "VALUES (?, AES_ENCRYPT(?, 'key'))\n"
+            + "ON DUPLICATE KEY UPDATE `col1` = AES_ENCRYPT(?, 'key')",
+        rewriter.toSQLString(query, stmt));
+  }
+
   @Test
   public void testRewritePartitionTableForInsertIntoValues() {
     var table1 = preparePartitionTable("table1");
@@ -126,6 +166,63 @@ public class InsertQueryRewriteVisitorTest extends BaseQueryHandlerTest {
     assertTrue(rewriter.isQueryChanged());
   }
 
+  @Test
+  public void testDualWriteMovingColumnForInsertIntoValues() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var columnMoves = new ExtensionColumnMoveRegistry();
+    columnMoves.register(
+        new ExtensionColumnMove(
+            table1.getIdentity(), "table1_ext_1", "table1_ext_2", List.of("col2")));
+    var rewriter = newRewriter(columnMoves, table1);
+    var query =
+        "insert into `table1` (`id`, `col2`, `col4`, `col5`) "
+            + "values (1, '2', '4', '5'), (2, 'b', 'd', 'e')";
+    var stmt = parseInsertQuery(query);
+    stmt.accept(rewriter);
+
+    var newInsertQueries = rewriter.getNewInsertQueries();
+    assertEquals(3, newInsertQueries.size());
+    assertSQLEquals(
+        "INSERT INTO `table1` (`id`, `$_ext_id`) VALUES (1, 1), (2, 2)",
+        newInsertQueries.get(0));
+    assertSQLEquals(
+        "INSERT INTO `table1_ext_1` (`col2`, `col4`, `$_ext_id`)\n"
+            + "VALUES (AES_ENCRYPT('2', 'key'), '4', 1),\n"
+            + "  (AES_ENCRYPT('b', 'key'), 'd', 2)",
+        newInsertQueries.get(1));
+    assertSQLEquals(
+        "INSERT INTO `table1_ext_2` (`$_mv_0`, `col5`, `$_ext_id`)\n"
+            + "VALUES (AES_ENCRYPT('2', 'key'), '5', 1),\n"
+            + "  (AES_ENCRYPT('b', 'key'), 'e', 2)",
+        newInsertQueries.get(2));
+    assertTrue(rewriter.isQueryChanged());
+  }
+
+  @Test
+  public void testDualWriteCompactedColumnForInsertIntoValues() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var columnMoves = new ExtensionColumnMoveRegistry();
+    columnMoves.register(
+        new ExtensionColumnMove(
+            table1.getIdentity(), "table1_ext_2", "table1_ext_1", List.of("col5")));
+    var rewriter = newRewriter(columnMoves, table1);
+    var query = "insert into `table1` (`id`, `col4`, `col5`) values (1, '4', '5')";
+    var stmt = parseInsertQuery(query);
+    stmt.accept(rewriter);
+
+    var newInsertQueries = rewriter.getNewInsertQueries();
+    assertEquals(3, newInsertQueries.size());
+    assertSQLEquals(
+        "INSERT INTO `table1` (`id`, `$_ext_id`) VALUES (1, 1)", newInsertQueries.get(0));
+    assertSQLEquals(
+        "INSERT INTO `table1_ext_1` (`col4`, `$_mv_0`, `$_ext_id`) VALUES ('4', '5', 1)",
+        newInsertQueries.get(1));
+    assertSQLEquals(
+        "INSERT INTO `table1_ext_2` (`col5`, `$_ext_id`) VALUES ('5', 1)",
+        newInsertQueries.get(2));
+    assertTrue(rewriter.isQueryChanged());
+  }
+
   @Test(expected = ColumnCountNotMatchValueCountException.class)
   public void testColumnCountNotMatchValueCount() {
     var table1 = preparePartitionTable("table1");
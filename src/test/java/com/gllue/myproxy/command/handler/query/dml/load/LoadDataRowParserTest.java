@@ -0,0 +1,87 @@
+package com.gllue.myproxy.command.handler.query.dml.load;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LoadDataRowParserTest {
+  private List<List<String>> parse(
+      final LoadDataRowParser parser, final String content, final int chunkSize) {
+    var rows = new ArrayList<List<String>>();
+    var bytes = content.getBytes(StandardCharsets.UTF_8);
+    for (int i = 0; i < bytes.length; i += chunkSize) {
+      parser.feed(Arrays.copyOfRange(bytes, i, Math.min(bytes.length, i + chunkSize)));
+      for (var row = parser.nextRow(); row != null; row = parser.nextRow()) {
+        rows.add(row);
+      }
+    }
+    parser.finish();
+    for (var row = parser.nextRow(); row != null; row = parser.nextRow()) {
+      rows.add(row);
+    }
+    return rows;
+  }
+
+  private LoadDataRowParser newDefaultParser() {
+    return new LoadDataRowParser(
+        LoadDataRowParser.DEFAULT_FIELDS_TERMINATED_BY,
+        LoadDataRowParser.DEFAULT_FIELDS_ENCLOSED_BY,
+        LoadDataRowParser.DEFAULT_FIELDS_ESCAPED_BY,
+        LoadDataRowParser.DEFAULT_LINES_STARTING_BY,
+        LoadDataRowParser.DEFAULT_LINES_TERMINATED_BY,
+        0,
+        StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testParseDefaultFormat() {
+    var content = "1\ta\\tb\t\\N\n2\t中文\tNULL\n3\tx";
+    for (var chunkSize : new int[] {1, 3, 1024}) {
+      var rows = parse(newDefaultParser(), content, chunkSize);
+      assertEquals(3, rows.size());
+      assertEquals(Arrays.asList("1", "a\tb", null), rows.get(0));
+      assertEquals(List.of("2", "中文", "NULL"), rows.get(1));
+      assertEquals(List.of("3", "x"), rows.get(2));
+    }
+  }
+
+  @Test
+  public void testParseEnclosedFields() {
+    var content = "h1,h2\r\n\"a,b\",\"c\"\"d\"\r\n1,\"\"\r\n";
+    for (var chunkSize : new int[] {1, 2, 1024}) {
+      var parser =
+          new LoadDataRowParser(",", "\"", "\\", "", "\r\n", 1, StandardCharsets.UTF_8);
+      var rows = parse(parser, content, chunkSize);
+      assertEquals(List.of(List.of("a,b", "c\"d"), List.of("1", "")), rows);
+    }
+  }
+
+  @Test
+  public void testParseLinesStartingBy() {
+    var content = "xxx>1|2\njunk\n>3|4\n";
+    var parser = new LoadDataRowParser("|", "", "", ">", "\n", 0, StandardCharsets.UTF_8);
+    var rows = parse(parser, content, 4);
+    assertEquals(List.of(List.of("1", "2"), List.of("3", "4")), rows);
+  }
+
+  @Test
+  public void testIncompleteRow() {
+    var parser = newDefaultParser();
+    parser.feed("1\ta".getBytes(StandardCharsets.UTF_8));
+    assertNull(parser.nextRow());
+    parser.feed("b\n2".getBytes(StandardCharsets.UTF_8));
+    assertEquals(List.of("1", "ab"), parser.nextRow());
+    assertNull(parser.nextRow());
+    parser.finish();
+    assertEquals(List.of("2"), parser.nextRow());
+    assertNull(parser.nextRow());
+  }
+}
@@ -0,0 +1,175 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.command.handler.query.BadSQLException;
+import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
+import com.gllue.myproxy.command.handler.query.EncryptionHelper;
+import com.gllue.myproxy.command.handler.query.EncryptionHelper.EncryptionAlgorithm;
+import com.gllue.myproxy.command.handler.query.UnsupportedPreparedStatementException;
+import com.gllue.myproxy.command.handler.query.dml.insert.InsertQueryRewriteVisitor;
+import com.gllue.myproxy.command.handler.query.dml.update.UpdateQueryRewriteVisitor;
+import com.gllue.myproxy.common.util.RandomUtils;
+import com.gllue.myproxy.common.util.SQLStatementUtils;
+import com.gllue.myproxy.metadata.model.ColumnMetaData;
+import com.gllue.myproxy.metadata.model.ColumnType;
+import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
+import com.gllue.myproxy.metadata.model.TableMetaData;
+import com.gllue.myproxy.metadata.model.TableType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BlindIndexRewriteTest extends BaseQueryHandlerTest {
+  private static final String ENCRYPT_KEY = "key";
+  // HMAC-SHA256 of the values keyed by 'key', truncated to 16 bytes.
+  private static final String BLIND_INDEX_1 = "X'39ae49c50426b2bd08543508b376ed90'";
+  private static final String BLIND_INDEX_2 = "X'562caf009538b06c39f895c2918ca3e2'";
+
+  private MultiDatabasesMetaData prepareMetaData() {
+    var builder = new TableMetaData.Builder();
+    builder
+        .setName("user")
+        .setType(TableType.STANDARD)
+        .setIdentity(RandomUtils.randomShortUUID())
+        .setVersion(1);
+    builder.addColumn(new ColumnMetaData.Builder().setName("id").setType(ColumnType.INT).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder().setName("email").setType(ColumnType.ENCRYPT).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder().setName("phone").setType(ColumnType.ENCRYPT).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder()
+            .setName(EncryptionHelper.blindIndexColumnName("email"))
+            .setType(ColumnType.BINARY)
+            .setBuiltin(true)
+            .build());
+    return prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, builder.build());
+  }
+
+  private String rewriteSelect(final String query) {
+    var metaData = prepareMetaData();
+    var rewriter =
+        new SelectQueryRewriteVisitor(
+            DATABASE,
+            new TableScopeFactory(DATASOURCE, DATABASE, metaData),
+            EncryptionHelper.newEncryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY),
+            EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY));
+    var stmt = parseSelectQuery(query);
+    stmt.accept(rewriter);
+    assertTrue(rewriter.isQueryChanged());
+    return rewriter.toSQLString(query, stmt);
+  }
+
+  private String rewriteInsert(final String query) {
+    var metaData = prepareMetaData();
+    var rewriter =
+        new InsertQueryRewriteVisitor(
+            DATABASE,
+            new TableScopeFactory(DATASOURCE, DATABASE, metaData),
+            DATASOURCE,
+            metaData,
+            () -> 1,
+            EncryptionHelper.newEncryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY),
+            EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY));
+    var stmt = parseInsertQuery(query);
+    stmt.accept(rewriter);
+    assertTrue(rewriter.isQueryChanged());
+    return SQLStatementUtils.toSQLString(stmt);
+  }
+
+  private String rewriteUpdate(final String query) {
+    var metaData = prepareMetaData();
+    var rewriter =
+        new UpdateQueryRewriteVisitor(
+            DATABASE,
+            new TableScopeFactory(DATASOURCE, DATABASE, metaData),
+            EncryptionHelper.newEncryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY),
+            EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY));
+    var stmt = parseUpdateQuery(query);
+    stmt.accept(rewriter);
+    assertTrue(rewriter.isQueryChanged());
+    return SQLStatementUtils.toSQLString(stmt);
+  }
+
+  @Test
+  public void testComputeBlindIndex() {
+    assertEquals(BLIND_INDEX_1, EncryptionHelper.computeBlindIndex(ENCRYPT_KEY, "a@b.c"));
+    assertEquals(BLIND_INDEX_2, EncryptionHelper.computeBlindIndex(ENCRYPT_KEY, "x@y.z"));
+  }
+
+  @Test
+  public void testLookupBlindIndexForEquality() {
+    var sql = rewriteSelect("select id from `user` u where u.email = 'a@b.c' and phone = '123'");
+    assertTrue(sql, sql.contains("u.`$bi_email` = " + BLIND_INDEX_1));
+    assertFalse(sql, sql.contains("AES_ENCRYPT('a@b.c'"));
+    // The encrypted column without a blind index is still compared with the encrypted literal.
+    assertTrue(sql, sql.contains("phone = AES_ENCRYPT('123', 'key')"));
+
+    sql = rewriteSelect("select id from `user` where email != 'a@b.c'");
+    assertTrue(sql, sql.contains("email != AES_ENCRYPT('a@b.c', 'key')"));
+  }
+
+  @Test
+  public void testLookupBlindIndexForInList() {
+    var sql = rewriteSelect("select id from `user` where email in ('a@b.c', 'x@y.z')");
+    assertTrue(
+        sql, sql.contains("`$bi_email` IN (" + BLIND_INDEX_1 + ", " + BLIND_INDEX_2 + ")"));
+  }
+
+  @Test
+  public void testCompareEncryptedPlaceholderForEquality() {
+    var sql = rewriteSelect("select id from `user` where email = ?");
+    assertTrue(sql, sql.contains("email = AES_ENCRYPT(?, 'key')"));
+    assertFalse(sql, sql.contains("$bi_email"));
+  }
+
+  @Test
+  public void testHideBlindIndexColumn() {
+    var sql = rewriteSelect("select * from `user`");
+    assertTrue(sql, sql.contains("AS `email`"));
+    assertFalse(sql, sql.contains("$bi_email"));
+  }
+
+  @Test
+  public void testMaintainBlindIndexForInsert() {
+    var sql =
+        rewriteInsert(
+            "insert into `user` (id, email) values (1, 'a@b.c'), (2, null) "
+                + "on duplicate key update email = values(email)")
+            .toLowerCase();
+    assertTrue(sql, sql.contains("(id, email, `$bi_email`)"));
+    assertTrue(
+        sql,
+        sql.contains(
+            "(1, aes_encrypt('a@b.c', 'key'), " + BLIND_INDEX_1.toLowerCase() + ")"));
+    assertTrue(sql, sql.contains("(2, null, null)"));
+    assertTrue(sql, sql.contains("`$bi_email` = values(`$bi_email`)"));
+  }
+
+  @Test(expected = BadSQLException.class)
+  public void testInsertNonLiteralValueIntoBlindIndexedColumn() {
+    rewriteInsert("insert into `user` (id, email) values (1, concat('a', '@b.c'))");
+  }
+
+  @Test(expected = UnsupportedPreparedStatementException.class)
+  public void testInsertPlaceholderIntoBlindIndexedColumn() {
+    rewriteInsert("insert into `user` (id, email) values (?, ?)");
+  }
+
+  @Test
+  public void testMaintainBlindIndexForUpdate() {
+    var sql = rewriteUpdate("update `user` set email = 'x@y.z' where email = 'a@b.c'");
+    assertTrue(sql, sql.contains("email = AES_ENCRYPT('x@y.z', 'key')"));
+    assertTrue(sql, sql.contains("`$bi_email` = " + BLIND_INDEX_2));
+    assertTrue(sql, sql.contains("WHERE `$bi_email` = " + BLIND_INDEX_1));
+  }
+
+  @Test(expected = BadSQLException.class)
+  public void testUpdateBlindIndexedColumnByOtherColumn() {
+    rewriteUpdate("update `user` set email = phone where id = 1");
+  }
+}
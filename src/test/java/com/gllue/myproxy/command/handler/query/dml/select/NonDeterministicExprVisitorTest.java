@@ -0,0 +1,45 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.sql.parser.SQLParser;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class NonDeterministicExprVisitorTest {
+  private final SQLParser sqlParser = new SQLParser();
+
+  boolean isNonDeterministic(final String query) {
+    var visitor = new NonDeterministicExprVisitor();
+    sqlParser.parse(query).accept(visitor);
+    return visitor.isFound();
+  }
+
+  @Test
+  public void testDeterministicQuery() {
+    assertFalse(isNonDeterministic("select id, upper(name) from t where id in (1, 2)"));
+    assertFalse(isNonDeterministic("select `now` from t where `current_date` = '2021-12-18'"));
+  }
+
+  @Test
+  public void testNonDeterministicFunctions() {
+    assertTrue(isNonDeterministic("select * from t where created_at < now()"));
+    assertTrue(isNonDeterministic("select * from t where created_at < curdate()"));
+    assertTrue(isNonDeterministic("select * from t order by rand()"));
+    assertTrue(isNonDeterministic("select uuid(), id from t"));
+    assertTrue(isNonDeterministic("select connection_id() from t"));
+    assertTrue(isNonDeterministic("select * from t where id = last_insert_id()"));
+    assertTrue(isNonDeterministic("select found_rows() from t"));
+    assertTrue(
+        isNonDeterministic("select * from t where id in (select id from t2 where x < now())"));
+  }
+
+  @Test
+  public void testVariables() {
+    assertTrue(isNonDeterministic("select * from t where id = @id"));
+    assertTrue(isNonDeterministic("select @@time_zone, id from t"));
+  }
+}
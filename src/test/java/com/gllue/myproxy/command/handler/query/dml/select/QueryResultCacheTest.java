@@ -0,0 +1,166 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.command.handler.query.EncodedQueryHandlerResult;
+import com.gllue.myproxy.transport.protocol.packet.generic.RawPacket;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+  static final String DATASOURCE = "ds";
+  static final String DATABASE = "db";
+  static final String QUERY = "SELECT * FROM t1";
+  static final Set<String> TABLES = Set.of("db.t1");
+
+  EncodedQueryHandlerResult newResult(final int size) {
+    // The packet header is counted as 4 bytes.
+    return new EncodedQueryHandlerResult(List.of(new RawPacket(new byte[size - 4])), List.of(), 0);
+  }
+
+  QueryResultCache newCache(final long capacity) {
+    return new QueryResultCache(capacity, 100, 60 * 1000, List.of("db.t1", "db.t2"));
+  }
+
+  @Test
+  public void testGetAndPut() {
+    var cache = newCache(1000);
+    assertNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+
+    var result = newResult(10);
+    assertTrue(cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, cache.stamp(), result));
+    assertSame(result, cache.get(DATASOURCE, DATABASE, null, QUERY));
+    assertNull(cache.get(DATASOURCE, "db2", null, QUERY));
+    assertNull(cache.get("ds2", DATABASE, null, QUERY));
+    assertEquals(10, cache.sizeInBytes());
+  }
+
+  @Test
+  public void testKeyedBySessionVariables() {
+    var cache = newCache(1000);
+    var variables = "SET time_zone = '+08:00'";
+    var result = newResult(10);
+    cache.put(DATASOURCE, DATABASE, variables, QUERY, TABLES, cache.stamp(), result);
+    assertSame(result, cache.get(DATASOURCE, DATABASE, variables, QUERY));
+    assertNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+    assertNull(cache.get(DATASOURCE, DATABASE, "SET time_zone = '+00:00'", QUERY));
+  }
+
+  @Test
+  public void testIsCachedTables() {
+    var cache = newCache(1000);
+    assertTrue(cache.isCachedTables(Set.of("db.t1", "db.t2")));
+    assertFalse(cache.isCachedTables(Set.of("db.t1", "db.t3")));
+    assertFalse(cache.isCachedTables(Set.of()));
+    assertFalse(QueryResultCache.disabled().isCachedTables(Set.of("db.t1")));
+  }
+
+  @Test
+  public void testInvalidateTables() {
+    var cache = newCache(1000);
+    cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, cache.stamp(), newResult(10));
+    var query2 = "SELECT * FROM t2";
+    cache.put(DATASOURCE, DATABASE, null, query2, Set.of("db.t2"), cache.stamp(), newResult(10));
+
+    cache.invalidate("ds2", TABLES);
+    assertNotNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+
+    cache.invalidate(DATASOURCE, TABLES);
+    assertNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+    assertNotNull(cache.get(DATASOURCE, DATABASE, null, query2));
+    assertEquals(1, cache.size());
+    assertEquals(10, cache.sizeInBytes());
+  }
+
+  @Test
+  public void testInvalidateDatasource() {
+    var cache = newCache(1000);
+    cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, cache.stamp(), newResult(10));
+    cache.put("ds2", DATABASE, null, QUERY, TABLES, cache.stamp(), newResult(10));
+
+    cache.invalidate(DATASOURCE);
+    assertNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+    assertNotNull(cache.get("ds2", DATABASE, null, QUERY));
+  }
+
+  @Test
+  public void testPutAfterInvalidation() {
+    var cache = newCache(1000);
+    var stamp = cache.stamp();
+    cache.invalidate(DATASOURCE, TABLES);
+    assertFalse(cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, stamp, newResult(10)));
+
+    stamp = cache.stamp();
+    cache.invalidate(DATASOURCE);
+    assertFalse(cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, stamp, newResult(10)));
+
+    // The invalidation of the other tables doesn't affect the result.
+    stamp = cache.stamp();
+    cache.invalidate(DATASOURCE, Set.of("db.t2"));
+    assertTrue(cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, stamp, newResult(10)));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void testForgetTooManyInvalidations() {
+    var cache = newCache(1000);
+    var stamp = cache.stamp();
+    for (int i = 0; i < QueryResultCache.MAX_TRACKED_INVALIDATIONS; i++) {
+      cache.invalidate(DATASOURCE, Set.of("db.t" + i));
+    }
+    assertEquals(QueryResultCache.MAX_TRACKED_INVALIDATIONS, cache.trackedInvalidations());
+
+    cache.invalidate("ds2");
+    assertEquals(0, cache.trackedInvalidations());
+    // The query in flight is regarded as invalidated since the invalidations are forgotten.
+    assertFalse(cache.put(DATASOURCE, DATABASE, null, "q", Set.of("db.x"), stamp, newResult(10)));
+    assertTrue(
+        cache.put(DATASOURCE, DATABASE, null, "q", Set.of("db.x"), cache.stamp(), newResult(10)));
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    var cache = newCache(30);
+    cache.put(DATASOURCE, DATABASE, null, "q1", TABLES, cache.stamp(), newResult(10));
+    cache.put(DATASOURCE, DATABASE, null, "q2", TABLES, cache.stamp(), newResult(10));
+    cache.put(DATASOURCE, DATABASE, null, "q3", TABLES, cache.stamp(), newResult(10));
+    assertNotNull(cache.get(DATASOURCE, DATABASE, null, "q1"));
+
+    cache.put(DATASOURCE, DATABASE, null, "q4", TABLES, cache.stamp(), newResult(20));
+    assertNotNull(cache.get(DATASOURCE, DATABASE, null, "q1"));
+    assertNull(cache.get(DATASOURCE, DATABASE, null, "q2"));
+    assertNull(cache.get(DATASOURCE, DATABASE, null, "q3"));
+    assertNotNull(cache.get(DATASOURCE, DATABASE, null, "q4"));
+    assertEquals(30, cache.sizeInBytes());
+  }
+
+  @Test
+  public void testEntryTooLarge() {
+    var cache = newCache(1000);
+    assertFalse(
+        cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, cache.stamp(), newResult(101)));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testExpired() throws InterruptedException {
+    var cache = new QueryResultCache(1000, 100, 10, List.of());
+    cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, cache.stamp(), newResult(10));
+    Thread.sleep(20);
+    assertNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+    assertEquals(0, cache.sizeInBytes());
+  }
+
+  @Test
+  public void testDisabled() {
+    var cache = QueryResultCache.disabled();
+    assertFalse(cache.put(DATASOURCE, DATABASE, null, QUERY, TABLES, cache.stamp(), newResult(10)));
+    assertNull(cache.get(DATASOURCE, DATABASE, null, QUERY));
+  }
+}
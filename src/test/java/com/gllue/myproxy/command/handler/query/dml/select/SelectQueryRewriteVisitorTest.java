@@ -1,5 +1,6 @@
 package com.gllue.myproxy.command.handler.query.dml.select;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -142,6 +143,60 @@ public class SelectQueryRewriteVisitorTest extends BaseQueryHandlerTest {
     assertTrue(rewriter.isQueryChanged());
   }
 
+  @Test
+  public void testSpliceEncryptedLiterals() {
+    var builder = new Builder();
+    builder
+        .setName("table2")
+        .setType(TableType.STANDARD)
+        .setIdentity(RandomUtils.randomShortUUID())
+        .setVersion(1);
+    builder.addColumn(new ColumnMetaData.Builder().setName("id").setType(ColumnType.INT).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder().setName("col1").setType(ColumnType.VARCHAR).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder().setName("col2").setType(ColumnType.ENCRYPT).build());
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, builder.build());
+    var rewriter = newRewriteVisitor(databasesMetaData);
+    var query =
+        "select id /* 'abc' */ from `table2` "
+            + "where col1 = 'it''s' and (col2 = 'abc' or col2 in ('a', 'b'))";
+    var stmt = parseSelectQuery(query);
+    stmt.accept(rewriter);
+    assertTrue(rewriter.isQueryChanged());
+    assertEquals(
+        "select id /* 'abc' */ from `table2` "
+            + "where col1 = 'it''s' and (col2 = AES_ENCRYPT('abc', 'key') "
+            + "or col2 in (AES_ENCRYPT('a', 'key'), AES_ENCRYPT('b', 'key')))",
+        rewriter.toSQLString(query, stmt));
+  }
+
+  @Test
+  public void testRewriteEncryptColumnPlaceholderForPreparedSelect() {
+    var builder = new Builder();
+    builder
+        .setName("table2")
+        .setType(TableType.STANDARD)
+        .setIdentity(RandomUtils.randomShortUUID())
+        .setVersion(1);
+    builder.addColumn(new ColumnMetaData.Builder().setName("id").setType(ColumnType.INT).build());
+    builder.addColumn(
+        new ColumnMetaData.Builder().setName("col1").setType(ColumnType.ENCRYPT).build());
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, builder.build());
+    var rewriter = newRewriteVisitor(databasesMetaData);
+    var query = "select id from `table2` where id = ? and (col1 = ? or col1 in ('a', ?))";
+    var stmt = parseSelectQuery(query);
+    stmt.accept(rewriter);
+    assertTrue(rewriter.isQueryChanged());
+    assertSQLEquals(
+        "SELECT id\n"
+            + "FROM `table2`\n"
+            + "WHERE id = ?\n"
+            + "\tAND (col1 = AES_ENCRYPT(?, 'key')\n"
+            + "\t\tOR col1 IN (AES_ENCRYPT('a', 'key'), AES_ENCRYPT(?, 'key')))",
+        rewriter.toSQLString(query, stmt));
+  }
+
   @Test
   public void testRewritePartitionTable() {
     var table1 = prepareTable("table1", "id", "col1");
@@ -0,0 +1,42 @@
+package com.gllue.myproxy.command.handler.query.dml.select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.sql.parser.SQLParser;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TableNameCollectVisitorTest {
+  private final SQLParser sqlParser = new SQLParser();
+
+  TableNameCollectVisitor collect(final String query) {
+    var visitor = new TableNameCollectVisitor("db");
+    sqlParser.parse(query).accept(visitor);
+    return visitor;
+  }
+
+  @Test
+  public void testCollectTableNames() {
+    var visitor = collect("update t1 join db1.t2 on t1.id = t2.id set t1.a = 1");
+    assertEquals(Set.of("db.t1", "db1.t2"), visitor.getTableNames());
+    assertFalse(visitor.hasUnresolvedTable());
+    assertFalse(visitor.hasQuery());
+
+    visitor = collect("insert into t1 (id, a) values (1, 2) on duplicate key update a = 2");
+    assertEquals(Set.of("db.t1"), visitor.getTableNames());
+    assertFalse(visitor.hasQuery());
+  }
+
+  @Test
+  public void testHasQuery() {
+    assertTrue(collect("insert into t1 select * from t1").hasQuery());
+    assertTrue(collect("delete from t1 where id in (select id from t1)").hasQuery());
+    assertTrue(collect("update t1 set a = (select max(a) from t2)").hasQuery());
+    assertTrue(collect("delete from t1 where exists (select 1 from t2)").hasQuery());
+  }
+}
@@ -3,11 +3,17 @@ package com.gllue.myproxy.command.handler.query.dml.update;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import com.gllue.myproxy.command.handler.query.BadSQLException;
 import com.gllue.myproxy.command.handler.query.BaseQueryHandlerTest;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper;
 import com.gllue.myproxy.command.handler.query.EncryptionHelper.EncryptionAlgorithm;
+import com.gllue.myproxy.command.handler.query.UnsupportedPreparedStatementException;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMove;
+import com.gllue.myproxy.command.handler.query.ddl.repack.ExtensionColumnMoveRegistry;
 import com.gllue.myproxy.command.handler.query.dml.select.TableScopeFactory;
 import com.gllue.myproxy.metadata.model.MultiDatabasesMetaData;
+import com.gllue.myproxy.metadata.model.PartitionTableMetaData;
+import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -17,12 +23,26 @@ public class UpdateQueryRewriteVisitorTest extends BaseQueryHandlerTest {
   private static final String ENCRYPT_KEY = "123";
 
   UpdateQueryRewriteVisitor newRewriteVisitor(MultiDatabasesMetaData metaData) {
+    return newRewriteVisitor(metaData, new ExtensionColumnMoveRegistry());
+  }
+
+  UpdateQueryRewriteVisitor newRewriteVisitor(
+      MultiDatabasesMetaData metaData, ExtensionColumnMoveRegistry columnMoves) {
     var factory = new TableScopeFactory(DATASOURCE, DATABASE, metaData);
     return new UpdateQueryRewriteVisitor(
         DATABASE,
         factory,
         EncryptionHelper.newEncryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY),
-        EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY));
+        EncryptionHelper.newDecryptor(EncryptionAlgorithm.AES, ENCRYPT_KEY),
+        columnMoves);
+  }
+
+  ExtensionColumnMoveRegistry prepareColumnMove(
+      PartitionTableMetaData table, String sourceTable, String targetTable, String column) {
+    var columnMoves = new ExtensionColumnMoveRegistry();
+    columnMoves.register(
+        new ExtensionColumnMove(table.getIdentity(), sourceTable, targetTable, List.of(column)));
+    return columnMoves;
   }
 
   @Test
@@ -200,4 +220,129 @@ public class UpdateQueryRewriteVisitorTest extends BaseQueryHandlerTest {
         stmt);
     assertTrue(rewriter.isQueryChanged());
   }
+
+  @Test
+  public void testDualWriteMovingColumnWithUpdateTouchingSourceAndTargetTables() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    var columnMoves = prepareColumnMove(table1, "table1_ext_1", "table1_ext_2", "col2");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var query = "update `table1` set col2 = '1234', col5 = 'abc' where id = 1";
+    var stmt = parseUpdateQuery(query);
+    stmt.accept(rewriter);
+    assertSQLEquals(
+        "UPDATE `table1`\n"
+            + "  LEFT JOIN `db`.`table1_ext_1` `$ext_0` ON `table1`.`$_ext_id` = `$ext_0`.`$_ext_id`\n"
+            + "  LEFT JOIN `db`.`table1_ext_2` `$ext_1` ON `table1`.`$_ext_id` = `$ext_1`.`$_ext_id`\n"
+            + "SET col2 = AES_ENCRYPT('1234', '123'), col5 = 'abc', "
+            + "`$ext_1`.`$_mv_0` = AES_ENCRYPT('1234', '123'), "
+            + "`db`.`table1`.`$_ext_id` = `db`.`table1`.`$_ext_id`\n"
+            + "WHERE id = 1",
+        stmt);
+    assertTrue(rewriter.isQueryChanged());
+  }
+
+  @Test
+  public void testDualWriteMovingColumnWithQualifiedUpdate() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    var columnMoves = prepareColumnMove(table1, "table1_ext_1", "table1_ext_2", "col2");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var query = "update `table1` set `table1`.col2 = '1234' where `table1`.col5 = 'abc'";
+    var stmt = parseUpdateQuery(query);
+    stmt.accept(rewriter);
+    assertSQLEquals(
+        "UPDATE `table1`\n"
+            + "  LEFT JOIN `db`.`table1_ext_1` `$ext_0` ON `table1`.`$_ext_id` = `$ext_0`.`$_ext_id`\n"
+            + "  LEFT JOIN `db`.`table1_ext_2` `$ext_1` ON `table1`.`$_ext_id` = `$ext_1`.`$_ext_id`\n"
+            + "SET `$ext_0`.col2 = AES_ENCRYPT('1234', '123'), "
+            + "`$ext_1`.`$_mv_0` = AES_ENCRYPT('1234', '123'), "
+            + "`db`.`table1`.`$_ext_id` = `db`.`table1`.`$_ext_id`\n"
+            + "WHERE `$ext_1`.col5 = 'abc'",
+        stmt);
+    assertTrue(rewriter.isQueryChanged());
+  }
+
+  @Test
+  public void testNoDualWriteForColumnNotMoving() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    // The metadata is updated by the cut over already, the column is not in the source table.
+    var columnMoves = prepareColumnMove(table1, "table1_ext_2", "table1_ext_1", "col2");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var query = "update `table1` set col4 = '1234', col5 = 'abc' where id = 1";
+    var stmt = parseUpdateQuery(query);
+    stmt.accept(rewriter);
+    assertSQLEquals(
+        "UPDATE `table1`\n"
+            + "  LEFT JOIN `db`.`table1_ext_1` `$ext_0` ON `table1`.`$_ext_id` = `$ext_0`.`$_ext_id`\n"
+            + "  LEFT JOIN `db`.`table1_ext_2` `$ext_1` ON `table1`.`$_ext_id` = `$ext_1`.`$_ext_id`\n"
+            + "SET col4 = '1234', col5 = 'abc', "
+            + "`db`.`table1`.`$_ext_id` = `db`.`table1`.`$_ext_id`\n"
+            + "WHERE id = 1",
+        stmt);
+    assertTrue(rewriter.isQueryChanged());
+  }
+
+  @Test(expected = BadSQLException.class)
+  public void testRejectMovingColumnAssignedFromColumn() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    var columnMoves = prepareColumnMove(table1, "table1_ext_1", "table1_ext_2", "col2");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var stmt = parseUpdateQuery("update `table1` set col2 = concat(col5, 'a') where id = 1");
+    stmt.accept(rewriter);
+  }
+
+  @Test(expected = UnsupportedPreparedStatementException.class)
+  public void testRejectMovingColumnAssignedFromPlaceholder() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    var columnMoves = prepareColumnMove(table1, "table1_ext_1", "table1_ext_2", "col2");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var stmt = parseUpdateQuery("update `table1` set col2 = ? where id = ?");
+    stmt.accept(rewriter);
+  }
+
+  @Test
+  public void testDualWriteCompactedColumnWithUpdateTouchingSourceAndTargetTables() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    // The compaction moves the columns of the trailing extension table into the leading one.
+    var columnMoves = prepareColumnMove(table1, "table1_ext_2", "table1_ext_1", "col5");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var query = "update `table1` set col4 = '1234', col5 = 'abc' where id = 1";
+    var stmt = parseUpdateQuery(query);
+    stmt.accept(rewriter);
+    assertSQLEquals(
+        "UPDATE `table1`\n"
+            + "  LEFT JOIN `db`.`table1_ext_1` `$ext_0` ON `table1`.`$_ext_id` = `$ext_0`.`$_ext_id`\n"
+            + "  LEFT JOIN `db`.`table1_ext_2` `$ext_1` ON `table1`.`$_ext_id` = `$ext_1`.`$_ext_id`\n"
+            + "SET col4 = '1234', col5 = 'abc', `$ext_0`.`$_mv_0` = 'abc', "
+            + "`db`.`table1`.`$_ext_id` = `db`.`table1`.`$_ext_id`\n"
+            + "WHERE id = 1",
+        stmt);
+    assertTrue(rewriter.isQueryChanged());
+  }
+
+  @Test
+  public void testDualWriteCompactedColumnWithOnlyUpdateSourceTable() {
+    var table1 = preparePartitionTableWithTwoExtensionTables("table1");
+    var databasesMetaData = prepareMultiDatabasesMetaData(DATASOURCE, DATABASE, table1);
+    var columnMoves = prepareColumnMove(table1, "table1_ext_2", "table1_ext_1", "col5");
+    var rewriter = newRewriteVisitor(databasesMetaData, columnMoves);
+    var query = "update `table1` set col5 = 'abc' where id = 1";
+    var stmt = parseUpdateQuery(query);
+    stmt.accept(rewriter);
+    // The target table is joined only to write the shadow column.
+    assertSQLEquals(
+        "UPDATE `table1`\n"
+            + "  LEFT JOIN `db`.`table1_ext_1` `$ext_0` ON `table1`.`$_ext_id` = `$ext_0`.`$_ext_id`\n"
+            + "  LEFT JOIN `db`.`table1_ext_2` `$ext_1` ON `table1`.`$_ext_id` = `$ext_1`.`$_ext_id`\n"
+            + "SET col5 = 'abc', `$ext_0`.`$_mv_0` = 'abc', "
+            + "`db`.`table1`.`$_ext_id` = `db`.`table1`.`$_ext_id`\n"
+            + "WHERE id = 1",
+        stmt);
+    assertTrue(rewriter.isQueryChanged());
+  }
 }
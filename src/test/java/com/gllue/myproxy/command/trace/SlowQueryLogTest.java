@@ -0,0 +1,152 @@
+package com.gllue.myproxy.command.trace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SlowQueryLogTest {
+  Path directory;
+  String path;
+
+  @Before
+  public void setUp() throws IOException {
+    directory = Files.createTempDirectory("slow-query-log");
+    path = directory.resolve("slow_query.log").toString();
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (var files = Files.list(directory)) {
+      for (var file : (Iterable<Path>) files::iterator) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  QueryTrace prepareTrace(final String query, final String... backendQueries) {
+    var trace = new QueryTrace(1, "ds", "db", "user", query);
+    trace.handlerStarted();
+    trace.parsed();
+    for (var backendQuery : backendQueries) {
+      trace.backendQuerySubmitted(backendQuery);
+      trace.backendQueryCompleted(2, 100);
+    }
+    trace.finished(null);
+    return trace;
+  }
+
+  String readLog(final String path) throws IOException {
+    return new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testLogSlowQuery() throws Exception {
+    var log = new SlowQueryLog(0, path, 1024 * 1024, 2, 16, false);
+    assertTrue(log.log(prepareTrace("select * from t", "select * from t", "select * from t_ext")));
+    assertEquals(1, log.drain());
+    log.close();
+
+    var content = readLog(path);
+    assertTrue(content.contains("# Connection_id: 1  Data_source: ds  Schema: db  User: user"));
+    assertTrue(content.contains("# Backend_queries: 2  Rows_transferred: 4  Bytes_transferred: 200"));
+    assertTrue(content.contains("\nselect * from t;\n"));
+    assertTrue(content.contains("# Rewritten: select * from t_ext\n"));
+    assertFalse(content.contains("# Rewritten: select * from t\n"));
+  }
+
+  @Test
+  public void testIgnoreFastQuery() throws Exception {
+    var log = new SlowQueryLog(10000, path, 1024 * 1024, 2, 16, false);
+    assertFalse(log.log(prepareTrace("select c1")));
+    assertEquals(0, log.drain());
+    log.close();
+  }
+
+  @Test
+  public void testDropWhenBufferIsFull() throws Exception {
+    var log = new SlowQueryLog(0, path, 1024 * 1024, 2, 3, false);
+    // The buffer size is rounded up to 4.
+    for (int i = 0; i < 4; i++) {
+      assertTrue(log.log(prepareTrace("select c" + i)));
+    }
+    assertFalse(log.log(prepareTrace("select c4")));
+    assertEquals(4, log.drain());
+    assertTrue(log.log(prepareTrace("select c5")));
+    assertEquals(1, log.drain());
+    log.close();
+
+    var content = readLog(path);
+    assertFalse(content.contains("select c4;"));
+    assertTrue(content.contains("select c5;"));
+  }
+
+  @Test
+  public void testRollFiles() throws Exception {
+    var entrySize = SlowQueryLog.format(prepareTrace("select c0")).length();
+    var log = new SlowQueryLog(0, path, entrySize, 2, 16, false);
+    for (int i = 0; i < 4; i++) {
+      log.log(prepareTrace("select c" + i));
+    }
+    assertEquals(4, log.drain());
+    log.close();
+
+    assertTrue(readLog(path).contains("select c3;"));
+    assertTrue(readLog(path + ".1").contains("select c2;"));
+    assertTrue(readLog(path + ".2").contains("select c1;"));
+    assertFalse(Files.exists(Paths.get(path + ".3")));
+  }
+
+  @Test
+  public void testBackgroundWriter() throws Exception {
+    var log = new SlowQueryLog(0, path, 1024 * 1024, 2, 128);
+    for (int i = 0; i < 100; i++) {
+      log.log(prepareTrace("select c" + i));
+    }
+    log.close();
+
+    var content = readLog(path);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(content.contains("select c" + i + ";"));
+    }
+  }
+
+  @Test
+  public void testRedactLiteralsAndComments() throws Exception {
+    var log = new SlowQueryLog(0, path, 1024 * 1024, 2, 16, false);
+    var query = "/* ENCRYPT_KEY=secret */ insert into `t1` (id, name) values (1, 'alice')";
+    var rewritten = "insert into `t1` (id, name) values (1, AES_ENCRYPT('alice', 'secret'))";
+    assertTrue(log.log(prepareTrace(query, rewritten)));
+    assertEquals(1, log.drain());
+    log.close();
+
+    var content = readLog(path);
+    assertFalse(content.contains("secret"));
+    assertFalse(content.contains("alice"));
+    assertTrue(content.contains(" insert into `t1` (id, name) values (?, ?);\n"));
+    assertTrue(content.contains("values (?, AES_ENCRYPT(?, ?))\n"));
+  }
+
+  @Test
+  public void testRedact() {
+    assertEquals(
+        "select * from t where a in (?, ?, -?, ?, ?, ?) and b = ? and c = ?",
+        SlowQueryLog.redact(
+            "select * from t where a in (1, 2.5, -3e-2, 0x1F, X'0f', b'01') and b = 'it''s'"
+                + " and c = \"a\\\"b\""));
+    assertEquals("select `c1`, t.c3 from t  ", SlowQueryLog.redact("select `c1`, t.c3 from t # c"));
+    assertEquals("select a  \n from t", SlowQueryLog.redact("select a -- 'b'\n from t"));
+  }
+}
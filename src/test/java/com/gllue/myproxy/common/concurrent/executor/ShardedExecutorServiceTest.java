@@ -0,0 +1,166 @@
+package com.gllue.myproxy.common.concurrent.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.common.concurrent.AffinityRunnable;
+import com.gllue.myproxy.common.concurrent.DaemonThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ShardedExecutorServiceTest {
+
+  ShardedExecutorService prepareExecutor(final int threads, final int workerQueueSize) {
+    return new ShardedExecutorService(
+        "sharded", threads, workerQueueSize, new DaemonThreadFactory("sharded-test"));
+  }
+
+  @Test
+  public void testConcurrentExecution() throws InterruptedException {
+    var executor = prepareExecutor(4, 1000);
+    var latch = new CountDownLatch(2000);
+    for (int i = 0; i < 1000; i++) {
+      executor.submit(latch::countDown);
+      executor.submit(AffinityRunnable.wrap(i, latch::countDown));
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(2000, executor.getCompletedTaskCount());
+    assertEquals(0, executor.getRejectedTaskCount());
+  }
+
+  @Test
+  public void testAffinityOrdering() throws InterruptedException {
+    var executor = prepareExecutor(4, 1000);
+    var keys = 8;
+    var tasks = 100;
+    var latch = new CountDownLatch(keys * tasks);
+    var executed = new ArrayList<List<Integer>>();
+    var threads = new ArrayList<List<String>>();
+    for (int i = 0; i < keys; i++) {
+      executed.add(new ArrayList<>());
+      threads.add(new ArrayList<>());
+    }
+
+    for (int i = 0; i < tasks; i++) {
+      for (int key = 0; key < keys; key++) {
+        var k = key;
+        var seq = i;
+        executor.execute(
+            AffinityRunnable.wrap(
+                key,
+                () -> {
+                  synchronized (executed) {
+                    executed.get(k).add(seq);
+                    threads.get(k).add(Thread.currentThread().getName());
+                  }
+                  latch.countDown();
+                }));
+      }
+    }
+    assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+    for (int key = 0; key < keys; key++) {
+      for (int i = 0; i < tasks; i++) {
+        assertEquals(i, (int) executed.get(key).get(i));
+      }
+      assertEquals(1, threads.get(key).stream().distinct().count());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void testStealTasksOfBusyWorker() throws InterruptedException {
+    var executor = prepareExecutor(2, 1000);
+    var release = new CountDownLatch(1);
+    var stolen = new CountDownLatch(10);
+    var busyThread = new String[1];
+    var stolenByOthers = new AtomicInteger();
+    executor.execute(
+        () -> {
+          busyThread[0] = Thread.currentThread().getName();
+          // The tasks are queued on the current worker, which is blocked until they are stolen.
+          for (int i = 0; i < 10; i++) {
+            executor.execute(
+                () -> {
+                  if (!Thread.currentThread().getName().equals(busyThread[0])) {
+                    stolenByOthers.incrementAndGet();
+                  }
+                  stolen.countDown();
+                });
+          }
+          try {
+            stolen.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          release.countDown();
+        });
+
+    assertTrue(release.await(10, TimeUnit.SECONDS));
+    assertEquals(0, stolen.getCount());
+    assertEquals(10, stolenByOthers.get());
+    executor.shutdown();
+  }
+
+  @Test(expected = ExecutorRejectedExecutionException.class)
+  public void testRejection() throws InterruptedException {
+    var executor = prepareExecutor(1, 2);
+    var started = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    try {
+      executor.execute(
+          AffinityRunnable.wrap(
+              0,
+              () -> {
+                started.countDown();
+                try {
+                  release.await();
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              }));
+      started.await();
+      for (int i = 0; i < 3; i++) {
+        executor.execute(AffinityRunnable.wrap(0, () -> {}));
+      }
+    } finally {
+      assertEquals(1, executor.getRejectedTaskCount());
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testShutdownNow() throws InterruptedException {
+    var executor = prepareExecutor(1, 10);
+    var started = new CountDownLatch(1);
+    executor.execute(
+        () -> {
+          started.countDown();
+          try {
+            Thread.sleep(10000);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+    started.await();
+    executor.execute(() -> {});
+    executor.execute(() -> {});
+
+    var tasks = executor.shutdownNow();
+    assertEquals(2, tasks.size());
+    assertTrue(executor.isShutdown());
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(executor.isTerminated());
+  }
+}
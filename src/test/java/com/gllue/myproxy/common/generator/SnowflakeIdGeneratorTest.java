@@ -0,0 +1,101 @@
+package com.gllue.myproxy.common.generator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Test;
+
+public class SnowflakeIdGeneratorTest {
+  static final long SEQUENCE_SIZE = 1 << 14;
+
+  static class FixedClockIdGenerator extends SnowflakeIdGenerator {
+    volatile long currentTime = 1639830490000L + 1000;
+
+    FixedClockIdGenerator(long nodeId) {
+      super(nodeId);
+    }
+
+    @Override
+    long currentTimeMillis() {
+      return currentTime;
+    }
+  }
+
+  @Test
+  public void testNextIds() {
+    var generator = new FixedClockIdGenerator(1);
+    var first = generator.nextId();
+    var ids = generator.nextIds(100);
+    assertEquals(100, ids.length);
+    for (int i = 0; i < ids.length; i++) {
+      assertEquals(first + i + 1, ids[i]);
+    }
+  }
+
+  @Test
+  public void testNextIdsAcrossMilliseconds() throws InterruptedException {
+    var generator = new FixedClockIdGenerator(1);
+    generator.nextIds((int) SEQUENCE_SIZE - 10);
+
+    // The sequence ids of the millisecond are exhausted, the reservation waits for the next one.
+    var thread =
+        new Thread(
+            () -> {
+              try {
+                Thread.sleep(50);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              generator.currentTime++;
+            });
+    thread.start();
+    var ids = generator.nextIds(20);
+    thread.join();
+
+    var idSet = new HashSet<Long>();
+    for (var id : ids) {
+      idSet.add(id);
+    }
+    assertEquals(20, idSet.size());
+    assertEquals(ids[9] + 1, ids[10] - ((1L << 22) - SEQUENCE_SIZE));
+  }
+
+  @Test(expected = InvalidSystemClock.class)
+  public void testClockMovingBackwards() {
+    var generator = new FixedClockIdGenerator(1);
+    generator.nextId();
+    generator.currentTime--;
+    generator.nextId();
+  }
+
+  @Test
+  public void testConcurrentNextIds() throws InterruptedException {
+    var generator = new SnowflakeIdGenerator(1);
+    var threads = 8;
+    var batches = 200;
+    var batchSize = 100;
+    Set<Long> idSet = ConcurrentHashMap.newKeySet();
+    var latch = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++) {
+      var worker =
+          new Thread(
+              () -> {
+                for (int j = 0; j < batches; j++) {
+                  for (var id : generator.nextIds(batchSize)) {
+                    idSet.add(id);
+                  }
+                  idSet.add(generator.nextId());
+                }
+                latch.countDown();
+              });
+      worker.start();
+    }
+    latch.await();
+    assertEquals(threads * batches * (batchSize + 1), idSet.size());
+    assertTrue(idSet.stream().allMatch(x -> ((x >> 14) & 0xff) == 1));
+  }
+}
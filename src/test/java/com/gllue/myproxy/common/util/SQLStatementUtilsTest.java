@@ -264,4 +264,13 @@ public class SQLStatementUtilsTest {
     var newColumnDef = SQLStatementUtils.updateEncryptToVarbinary(columnDef);
     assertEquals(ColumnType.VARBINARY.name(), newColumnDef.getDataType().getName());
   }
+
+  @Test
+  public void testStartsWithKeyword() {
+    assertTrue(SQLStatementUtils.startsWithKeyword("commit", "COMMIT"));
+    assertTrue(SQLStatementUtils.startsWithKeyword(" /* c */ (Rollback;", "COMMIT", "ROLLBACK"));
+    assertFalse(SQLStatementUtils.startsWithKeyword("committed", "COMMIT"));
+    assertFalse(SQLStatementUtils.startsWithKeyword("select 'commit'", "COMMIT"));
+    assertFalse(SQLStatementUtils.startsWithKeyword("/* commit", "COMMIT"));
+  }
 }
@@ -0,0 +1,47 @@
+package com.gllue.myproxy.common.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class SQLTextSplicerTest {
+  @Test
+  public void testRender() {
+    var sql = "select * from t where a = 'x' and b = 'y'";
+    var splicer = new SQLTextSplicer();
+    assertTrue(splicer.isEmpty());
+    assertEquals(sql, splicer.render(sql));
+
+    splicer.replace(sql.indexOf("'y'"), 3, "f('y')");
+    splicer.replace(sql.indexOf("'x'"), 3, "f('x')");
+    assertEquals("select * from t where a = f('x') and b = f('y')", splicer.render(sql));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testRenderOverlappedEdits() {
+    var splicer = new SQLTextSplicer();
+    splicer.replace(0, 6, "SELECT");
+    splicer.replace(3, 6, "xxx");
+    splicer.render("select 1");
+  }
+
+  @Test
+  public void testFindStringLiterals() {
+    var sql =
+        "select `a'b`, 'it''s', \"x\\\"y\" /* 'c' */ from t "
+            + "where a = N'n' and b = _utf8'u' and c = 'a\\nb' -- 'd'\n"
+            + "and d = 'e' # 'f'";
+    var literals = SQLTextSplicer.findStringLiterals(sql);
+    var values =
+        literals.stream().map(SQLTextSplicer.StringLiteral::getValue).collect(Collectors.toList());
+    assertEquals(List.of("it's", "x\"y", "a\nb", "e"), values);
+
+    var literal = literals.get(0);
+    assertEquals(
+        "'it''s'",
+        sql.substring(literal.getOffset(), literal.getOffset() + literal.getLength()));
+  }
+}
@@ -1,6 +1,9 @@
 package com.gllue.myproxy.metadata.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import com.gllue.myproxy.metadata.MetaDataBuilder.CopyOptions;
 import java.util.HashSet;
@@ -53,4 +56,32 @@ public class MultiDatabasesMetaDataTest {
     assertEquals(multiDatabases.getVersion(), newMultiDatabases.getVersion());
     assertEquals(getDatabaseNames(multiDatabases), getDatabaseNames(newMultiDatabases));
   }
+
+  @Test
+  public void testHasDatabase() {
+    var multiDatabases = prepareMultiDatabases();
+    assertTrue(multiDatabases.hasDatabase(DATASOURCE, "db1"));
+    assertFalse(multiDatabases.hasDatabase(DATASOURCE, "db4"));
+    assertFalse(multiDatabases.hasDatabase("ds1", "db1"));
+  }
+
+  @Test
+  public void testSnapshotIsNotAffectedByUpdates() {
+    var multiDatabases = prepareMultiDatabases();
+    var snapshot = multiDatabases.snapshot();
+    assertTrue(snapshot.isSnapshot());
+    assertSame(snapshot, snapshot.snapshot());
+
+    multiDatabases.addDatabase(prepareDatabase("db4"), false);
+    multiDatabases.removeDatabase(DATASOURCE, "db1");
+
+    assertEquals(Set.of("db2", "db3", "db4"), getDatabaseNames(multiDatabases));
+    assertEquals(Set.of("db1", "db2", "db3"), getDatabaseNames(snapshot));
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSnapshotCannotBeChanged() {
+    var snapshot = prepareMultiDatabases().snapshot();
+    snapshot.addDatabase(prepareDatabase("db4"), false);
+  }
 }
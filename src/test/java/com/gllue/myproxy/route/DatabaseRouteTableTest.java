@@ -0,0 +1,47 @@
+package com.gllue.myproxy.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseRouteTableTest {
+  static final String DATASOURCE = "ds";
+
+  @Test
+  public void testRouteToLogicalDatasourceByDefault() {
+    var routeTable = new DatabaseRouteTable();
+    assertEquals(DATASOURCE, routeTable.route(DATASOURCE, "db1"));
+    assertEquals(DATASOURCE, routeTable.route(DATASOURCE, null));
+  }
+
+  @Test
+  public void testAddAndRemoveRoute() {
+    var routeTable = new DatabaseRouteTable();
+    routeTable.addRoute(DATASOURCE, "db1", "ds1");
+    routeTable.addRoute(DATASOURCE, "db2", "ds2");
+    assertEquals("ds1", routeTable.route(DATASOURCE, "db1"));
+    assertEquals("ds2", routeTable.route(DATASOURCE, "db2"));
+    assertEquals(DATASOURCE, routeTable.route(DATASOURCE, "db3"));
+    assertEquals("ds", routeTable.route("ds", null));
+    assertTrue(routeTable.hasRoute(DATASOURCE, "db1"));
+
+    routeTable.removeRoute(DATASOURCE, "db1");
+    assertFalse(routeTable.hasRoute(DATASOURCE, "db1"));
+    assertEquals(DATASOURCE, routeTable.route(DATASOURCE, "db1"));
+    assertEquals(1, routeTable.size());
+  }
+
+  @Test
+  public void testRouteBackToLogicalDatasource() {
+    var routeTable = new DatabaseRouteTable();
+    routeTable.addRoute(DATASOURCE, "db1", "ds1");
+    routeTable.addRoute(DATASOURCE, "db1", DATASOURCE);
+    assertFalse(routeTable.hasRoute(DATASOURCE, "db1"));
+    assertEquals(0, routeTable.size());
+  }
+}
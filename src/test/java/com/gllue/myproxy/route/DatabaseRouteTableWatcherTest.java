@@ -0,0 +1,70 @@
+package com.gllue.myproxy.route;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.repository.ClusterPersistRepository;
+import com.gllue.myproxy.repository.DataChangedEvent;
+import com.gllue.myproxy.repository.DataChangedEvent.Type;
+import com.gllue.myproxy.repository.DataChangedEventListener;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseRouteTableWatcherTest {
+  static final String DATASOURCE = "ds";
+  static final String BASE_PATH = "/root/routes";
+
+  @Mock ClusterPersistRepository repository;
+
+  AtomicReference<DataChangedEventListener> mockListener() {
+    var listenerRef = new AtomicReference<DataChangedEventListener>();
+    doAnswer(
+            invocation -> {
+              Object[] args = invocation.getArguments();
+              listenerRef.set((DataChangedEventListener) args[1]);
+              return null;
+            })
+        .when(repository)
+        .watch(anyString(), any());
+    return listenerRef;
+  }
+
+  String routePath(final String dbName) {
+    return PathUtils.joinPaths(BASE_PATH, DatabaseRouteTable.joinKey(DATASOURCE, dbName));
+  }
+
+  DataChangedEvent newEvent(final String dbName, final String physicalDatasource, Type type) {
+    return new DataChangedEvent(
+        routePath(dbName), physicalDatasource.getBytes(StandardCharsets.UTF_8), type);
+  }
+
+  @Test
+  public void testDispatchRouteEvents() {
+    var listenerRef = mockListener();
+    var routeTable = new DatabaseRouteTable();
+    new DatabaseRouteTableWatcher(BASE_PATH, routeTable, repository).watch();
+    var listener = listenerRef.get();
+    assertNotNull(listener);
+
+    listener.onChange(new DataChangedEvent(BASE_PATH, new byte[0], Type.CREATED));
+    assertEquals(0, routeTable.size());
+
+    listener.onChange(newEvent("db1", "ds1", Type.CREATED));
+    assertEquals("ds1", routeTable.route(DATASOURCE, "db1"));
+
+    listener.onChange(newEvent("db1", "ds2", Type.UPDATED));
+    assertEquals("ds2", routeTable.route(DATASOURCE, "db1"));
+
+    listener.onChange(newEvent("db1", "ds2", Type.DELETED));
+    assertEquals(DATASOURCE, routeTable.route(DATASOURCE, "db1"));
+  }
+}
@@ -0,0 +1,68 @@
+package com.gllue.myproxy.route.move;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CommitSequencerTest {
+  @Test
+  public void testAcquireWhenReleased() {
+    var sequencer = new CommitSequencer();
+    assertTrue(sequencer.acquire(() -> {}));
+    assertTrue(sequencer.isHeld());
+    sequencer.release();
+    assertFalse(sequencer.isHeld());
+    assertTrue(sequencer.acquire(() -> {}));
+  }
+
+  @Test
+  public void testResumeWaitingCommitsInOrder() {
+    var sequencer = new CommitSequencer();
+    var resumed = new ArrayList<Integer>();
+    assertTrue(sequencer.acquire(() -> {}));
+    assertFalse(sequencer.acquire(() -> resumed.add(1)));
+    assertFalse(sequencer.acquire(() -> resumed.add(2)));
+    assertEquals(2, sequencer.getWaitingCommits());
+
+    sequencer.release();
+    assertEquals(List.of(1), resumed);
+    assertTrue(sequencer.isHeld());
+    sequencer.release();
+    assertEquals(List.of(1, 2), resumed);
+    sequencer.release();
+    assertFalse(sequencer.isHeld());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReleaseWithoutAcquire() {
+    new CommitSequencer().release();
+  }
+
+  @Test
+  public void testCaptureInCommitOrder() {
+    var move = new DatabaseMove("ds", "db", "ds", "ds1", 100);
+    var sequencer = move.getCommitSequencer();
+    // The second transaction waits for the row lock of the first one, so its write returns and
+    // its commit is sent after the first transaction commits.
+    move.capture(1, true, "UPDATE t SET a = 1 WHERE id = 1", 0);
+    assertTrue(sequencer.acquire(() -> {}));
+    move.capture(2, true, "UPDATE t SET a = 2 WHERE id = 1", 0);
+    assertFalse(sequencer.acquire(() -> move.commitTransaction(2)));
+
+    // The first commit is captured before the sequencer is handed over to the second one.
+    move.commitTransaction(1);
+    sequencer.release();
+    assertEquals(2, move.getCapturedSequence());
+    var write = move.peekCapturedWrite();
+    assertEquals("UPDATE t SET a = 1 WHERE id = 1", write.getQuery());
+    move.replayed(write);
+    assertEquals("UPDATE t SET a = 2 WHERE id = 1", move.peekCapturedWrite().getQuery());
+  }
+}
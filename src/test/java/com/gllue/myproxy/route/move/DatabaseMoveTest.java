@@ -0,0 +1,98 @@
+package com.gllue.myproxy.route.move;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseMoveTest {
+  DatabaseMove newMove(final int maxReplayLag) {
+    return new DatabaseMove("ds", "db", "ds", "ds1", maxReplayLag);
+  }
+
+  @Test
+  public void testIsWriteQuery() {
+    assertTrue(DatabaseMove.isWriteQuery("INSERT INTO t VALUES (1)"));
+    assertTrue(DatabaseMove.isWriteQuery("  replace into t values (1)"));
+    assertTrue(DatabaseMove.isWriteQuery("/* comment */ update t set a = 1"));
+    assertTrue(DatabaseMove.isWriteQuery("DELETE FROM t"));
+    assertTrue(DatabaseMove.isWriteQuery("truncate table t"));
+    assertFalse(DatabaseMove.isWriteQuery("SELECT * FROM t"));
+    assertFalse(DatabaseMove.isWriteQuery("INSERTED"));
+    assertFalse(DatabaseMove.isWriteQuery("/* unclosed INSERT"));
+    assertFalse(DatabaseMove.isWriteQuery("BEGIN"));
+  }
+
+  @Test
+  public void testCaptureAndReplay() {
+    var move = newMove(100);
+    move.capture(1, false, "INSERT INTO t VALUES (1)", 10);
+    move.capture(1, false, "DELETE FROM t", 0);
+    assertEquals(2, move.getCapturedSequence());
+    assertEquals(2, move.getReplayLag());
+
+    var write = move.peekCapturedWrite();
+    assertEquals("INSERT INTO t VALUES (1)", write.getQuery());
+    assertEquals(10, write.getInsertId());
+    move.replayed(write);
+    assertEquals(1, move.getReplayedSequence());
+    assertEquals(1, move.getReplayLag());
+
+    move.replayed(move.peekCapturedWrite());
+    assertNull(move.peekCapturedWrite());
+    assertEquals(2, move.getReplayedSequence());
+    assertEquals(0, move.getReplayLagInMills());
+  }
+
+  @Test
+  public void testCaptureTransaction() {
+    var move = newMove(100);
+    move.capture(1, true, "INSERT INTO t VALUES (1)", 0);
+    move.capture(2, true, "INSERT INTO t VALUES (2)", 0);
+    assertEquals(0, move.getCapturedSequence());
+    assertTrue(move.hasPendingTransaction(1));
+    assertEquals(2, move.getNumberOfPendingTransactions());
+
+    move.rollbackTransaction(2);
+    move.commitTransaction(1);
+    assertEquals(0, move.getNumberOfPendingTransactions());
+    assertEquals(1, move.getCapturedSequence());
+    assertEquals("INSERT INTO t VALUES (1)", move.peekCapturedWrite().getQuery());
+  }
+
+  @Test
+  public void testFailWhenReplayFallsBehind() {
+    var move = newMove(2);
+    move.capture(1, false, "DELETE FROM t", 0);
+    move.capture(1, false, "DELETE FROM t", 0);
+    assertNull(move.getFailure());
+    move.capture(1, false, "DELETE FROM t", 0);
+    assertNotNull(move.getFailure());
+    assertEquals(0, move.getReplayLag());
+  }
+
+  @Test
+  public void testRegistry() {
+    var registry = new DatabaseMoveRegistry();
+    assertTrue(registry.isEmpty());
+    var move = newMove(100);
+    assertTrue(registry.register(move));
+    assertFalse(registry.register(newMove(100)));
+    assertEquals(move, registry.get("ds", "db"));
+    assertNull(registry.get("ds", null));
+
+    move.capture(1, true, "DELETE FROM t", 0);
+    assertEquals(move, registry.findPendingTransaction(1));
+    registry.commitTransaction(1);
+    assertNull(registry.findPendingTransaction(1));
+
+    registry.unregister(move);
+    assertTrue(registry.isEmpty());
+  }
+}
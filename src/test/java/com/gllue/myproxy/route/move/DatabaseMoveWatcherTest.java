@@ -0,0 +1,88 @@
+package com.gllue.myproxy.route.move;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+import com.gllue.myproxy.common.util.PathUtils;
+import com.gllue.myproxy.repository.ClusterPersistRepository;
+import com.gllue.myproxy.repository.DataChangedEvent;
+import com.gllue.myproxy.repository.DataChangedEvent.Type;
+import com.gllue.myproxy.repository.DataChangedEventListener;
+import com.gllue.myproxy.route.DatabaseRouteTable;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DatabaseMoveWatcherTest {
+  static final String DATASOURCE = "ds";
+  static final String BASE_PATH = "/root/moves";
+  static final String ROUTE_BASE_PATH = "/root/routes";
+
+  @Mock ClusterPersistRepository repository;
+
+  final DatabaseMoveRegistry registry = new DatabaseMoveRegistry();
+  final DatabaseRouteTable routeTable = new DatabaseRouteTable();
+
+  DataChangedEventListener watch() {
+    var listenerRef = new AtomicReference<DataChangedEventListener>();
+    doAnswer(
+            invocation -> {
+              listenerRef.set(invocation.getArgument(1));
+              return null;
+            })
+        .when(repository)
+        .watch(anyString(), any());
+    new DatabaseMoveWatcher(BASE_PATH, ROUTE_BASE_PATH, registry, routeTable, repository).watch();
+    assertNotNull(listenerRef.get());
+    return listenerRef.get();
+  }
+
+  String key(final String dbName) {
+    return DatabaseRouteTable.joinKey(DATASOURCE, dbName);
+  }
+
+  DataChangedEvent newEvent(final String dbName, final Type type) {
+    return new DataChangedEvent(
+        PathUtils.joinPaths(BASE_PATH, key(dbName)),
+        "ds1".getBytes(StandardCharsets.UTF_8),
+        type);
+  }
+
+  @Test
+  public void testRejectUntilMoveDeleted() {
+    var listener = watch();
+    listener.onChange(newEvent("db1", Type.CREATED));
+    assertFalse(registry.isEmpty());
+    assertTrue(registry.isMovedByAnotherNode(DATASOURCE, "db1"));
+    assertFalse(registry.isMovedByAnotherNode(DATASOURCE, "db2"));
+    assertFalse(registry.register(new DatabaseMove(DATASOURCE, "db1", DATASOURCE, "ds1", 100)));
+
+    // The route is reloaded, the change of the route may not be seen yet.
+    var routePath = PathUtils.joinPaths(ROUTE_BASE_PATH, key("db1"));
+    when(repository.exists(routePath)).thenReturn(true);
+    when(repository.get(routePath)).thenReturn("ds1".getBytes(StandardCharsets.UTF_8));
+    listener.onChange(newEvent("db1", Type.DELETED));
+    assertFalse(registry.isMovedByAnotherNode(DATASOURCE, "db1"));
+    assertTrue(registry.isEmpty());
+    assertEquals("ds1", routeTable.route(DATASOURCE, "db1"));
+  }
+
+  @Test
+  public void testIgnoreMoveOfThisNode() {
+    var listener = watch();
+    var move = new DatabaseMove(DATASOURCE, "db1", DATASOURCE, "ds1", 100);
+    assertTrue(registry.register(move));
+    listener.onChange(newEvent("db1", Type.CREATED));
+    assertFalse(registry.isMovedByAnotherNode(DATASOURCE, "db1"));
+  }
+}
@@ -0,0 +1,72 @@
+package com.gllue.myproxy.route.move;
+
+import static org.junit.Assert.assertEquals;
+
+import com.gllue.myproxy.transport.constant.MySQLColumnDefinitionFlags;
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ValueLiteralsTest {
+  static final int BINARY_FLAG = MySQLColumnDefinitionFlags.BINARY_FLAG.getValue();
+
+  static byte[] bytes(final String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testNull() {
+    assertEquals("NULL", ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_VAR_STRING, 0, null));
+    assertEquals("NULL", ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_LONG, 0, null));
+  }
+
+  @Test
+  public void testNumber() {
+    assertEquals("-12", ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_LONG, 0, bytes("-12")));
+    assertEquals(
+        "3.1400",
+        ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_NEWDECIMAL, 0, bytes("3.1400")));
+  }
+
+  @Test
+  public void testCharacterString() {
+    assertEquals(
+        "_utf8mb4 X'61272762'",
+        ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_VAR_STRING, 0, bytes("a''b")));
+    assertEquals(
+        "_utf8mb4 X'E4B8AD'",
+        ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_VAR_STRING, 0, bytes("\u4e2d")));
+    assertEquals(
+        "''", ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_VAR_STRING, 0, bytes("")));
+  }
+
+  @Test
+  public void testBinaryString() {
+    assertEquals(
+        "X'00FF'",
+        ValueLiterals.toLiteral(
+            MySQLColumnType.MYSQL_TYPE_BLOB, BINARY_FLAG, new byte[] {0, (byte) 0xff}));
+    assertEquals(
+        "X'05'", ValueLiterals.toLiteral(MySQLColumnType.MYSQL_TYPE_BIT, 0, new byte[] {5}));
+  }
+
+  @Test
+  public void testJson() {
+    assertEquals(
+        "_utf8mb4 X'7B7D'",
+        ValueLiterals.toLiteral(MySQLColumnType.MySQL_TYPE_JSON, BINARY_FLAG, bytes("{}")));
+  }
+
+  @Test
+  public void testAppend() {
+    var builder = new StringBuilder("(");
+    ValueLiterals.append(builder, MySQLColumnType.MYSQL_TYPE_LONG, 0, bytes("1"));
+    builder.append(", ");
+    ValueLiterals.append(builder, MySQLColumnType.MYSQL_TYPE_VAR_STRING, 0, bytes("a"));
+    builder.append(')');
+    assertEquals("(1, _utf8mb4 X'61')", builder.toString());
+  }
+}
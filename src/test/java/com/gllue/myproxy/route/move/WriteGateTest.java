@@ -0,0 +1,86 @@
+package com.gllue.myproxy.route.move;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WriteGateTest {
+  @Test
+  public void testPassWhenOpened() {
+    var gate = new WriteGate();
+    assertTrue(gate.enter(() -> {}));
+    assertTrue(gate.enter(() -> {}));
+    assertEquals(2, gate.getActiveWrites());
+
+    gate.exit();
+    gate.exit();
+    assertEquals(0, gate.getActiveWrites());
+  }
+
+  @Test
+  public void testDrainOnClose() {
+    var gate = new WriteGate();
+    var drained = new AtomicInteger();
+    gate.enter(() -> {});
+    gate.enter(() -> {});
+
+    gate.close(drained::incrementAndGet);
+    assertTrue(gate.isClosed());
+    gate.exit();
+    assertEquals(0, drained.get());
+    gate.exit();
+    assertEquals(1, drained.get());
+  }
+
+  @Test
+  public void testDrainImmediatelyWithoutActiveWrites() {
+    var gate = new WriteGate();
+    var drained = new AtomicInteger();
+    gate.close(drained::incrementAndGet);
+    assertEquals(1, drained.get());
+  }
+
+  @Test
+  public void testResumeHeldWritesInOrder() {
+    var gate = new WriteGate();
+    var resumed = new ArrayList<Integer>();
+    gate.close(() -> {});
+    assertFalse(gate.enter(() -> resumed.add(1)));
+    assertFalse(gate.enter(() -> resumed.add(2)));
+    assertEquals(2, gate.getHeldWrites());
+    assertTrue(resumed.isEmpty());
+
+    gate.open();
+    assertFalse(gate.isClosed());
+    assertEquals(0, gate.getHeldWrites());
+    assertEquals(2, gate.getActiveWrites());
+    assertEquals(2, resumed.size());
+    assertEquals(1, (int) resumed.get(0));
+    assertEquals(2, (int) resumed.get(1));
+  }
+
+  @Test
+  public void testDiscardDrainListenerOnOpen() {
+    var gate = new WriteGate();
+    var drained = new AtomicInteger();
+    gate.enter(() -> {});
+    gate.close(drained::incrementAndGet);
+    gate.open();
+    gate.exit();
+    assertEquals(0, drained.get());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCloseTwice() {
+    var gate = new WriteGate();
+    gate.close(() -> {});
+    gate.close(() -> {});
+  }
+}
@@ -1,8 +1,18 @@
 package com.gllue.myproxy.sql.parser;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
 import com.alibaba.druid.sql.ast.SQLStatement;
 import com.alibaba.druid.sql.ast.statement.SQLSelectStatement;
 import com.gllue.myproxy.common.util.SQLStatementUtils;
+import com.gllue.myproxy.sql.stmt.SQLCompactExtensionTablesStatement;
+import com.gllue.myproxy.sql.stmt.SQLMoveDatabaseStatement;
+import com.gllue.myproxy.sql.stmt.SQLRepackExtensionTablesStatement;
+import com.gllue.myproxy.sql.stmt.SQLShowExtensionColumnAdviceStatement;
+import com.gllue.myproxy.sql.stmt.SQLShowProxyProcessListStatement;
+import java.util.List;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
@@ -315,4 +325,72 @@ public class SQLParserTest {
     printStatement(stmt);
   }
 
+  @Test
+  public void testParseCommentAttributes() {
+    var parser = newParser();
+    var attributes =
+        parser.parseComments(
+            List.of(
+                "# {PARTITION_TABLE: true, extension_columns: ['col1', 'col2']}",
+                "/* {route: 'replica'} */",
+                "-- just a plain comment"));
+    assertEquals(3, attributes.size());
+    assertEquals(true, attributes.get(SQLCommentAttributeKey.PARTITION_TABLE));
+    assertArrayEquals(
+        new String[] {"col1", "col2"},
+        (String[]) attributes.get(SQLCommentAttributeKey.EXTENSION_COLUMNS));
+    assertEquals("replica", attributes.get(SQLCommentAttributeKey.ROUTE));
+  }
+
+  @Test
+  public void testParseEmptyCommentAttributes() {
+    var parser = newParser();
+    assertTrue(parser.parseComments(null).isEmpty());
+    assertTrue(parser.parseComments(List.of("# plain comment", "# {unknown_key: 1}")).isEmpty());
+  }
+
+  @Test(expected = SQLParseException.class)
+  public void testParseBadCommentAttributes() {
+    var parser = newParser();
+    parser.parseComments(List.of("# {ROUTE: }"));
+  }
+
+  @Test
+  public void testParseShowProxyProcessList() {
+    var parser = newParser();
+    assertTrue(
+        parser.parse("SHOW PROXY PROCESSLIST;") instanceof SQLShowProxyProcessListStatement);
+    assertTrue(
+        parser.parse(" show  proxy processlist ") instanceof SQLShowProxyProcessListStatement);
+  }
+
+  @Test
+  public void testParseExtensionTableRepackStatements() {
+    var parser = newParser();
+    var stmt = parser.parse("SHOW EXTENSION COLUMN ADVICE FOR `table1`;");
+    assertTrue(stmt instanceof SQLShowExtensionColumnAdviceStatement);
+    assertEquals("table1", ((SQLShowExtensionColumnAdviceStatement) stmt).getTableName());
+
+    stmt = parser.parse(" repack extension  tables for table1 ");
+    assertTrue(stmt instanceof SQLRepackExtensionTablesStatement);
+    assertEquals("table1", ((SQLRepackExtensionTablesStatement) stmt).getTableName());
+
+    stmt = parser.parse("COMPACT EXTENSION TABLES FOR `table1`");
+    assertTrue(stmt instanceof SQLCompactExtensionTablesStatement);
+    assertEquals("table1", ((SQLCompactExtensionTablesStatement) stmt).getTableName());
+  }
+
+  @Test
+  public void testParseMoveDatabaseStatement() {
+    var parser = newParser();
+    var stmt = parser.parse("MOVE DATABASE `db1` TO DATASOURCE ds2;");
+    assertTrue(stmt instanceof SQLMoveDatabaseStatement);
+    assertEquals("db1", ((SQLMoveDatabaseStatement) stmt).getDatabaseName());
+    assertEquals("ds2", ((SQLMoveDatabaseStatement) stmt).getTargetDatasource());
+
+    stmt = parser.parse(" move  database db1 to datasource `ds2` ");
+    assertTrue(stmt instanceof SQLMoveDatabaseStatement);
+    assertEquals("db1", ((SQLMoveDatabaseStatement) stmt).getDatabaseName());
+    assertEquals("ds2", ((SQLMoveDatabaseStatement) stmt).getTargetDatasource());
+  }
 }
@@ -10,15 +10,19 @@ import static org.junit.Assert.assertTrue;
 import com.gllue.myproxy.command.result.CommandResult;
 import com.gllue.myproxy.common.Callback;
 import com.gllue.myproxy.transport.backend.BackendResultReadException;
+import com.gllue.myproxy.transport.constant.MySQLCapabilityFlag;
 import com.gllue.myproxy.transport.constant.MySQLColumnType;
 import com.gllue.myproxy.transport.constant.MySQLServerInfo;
+import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
 import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnCountPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.ColumnDefinition41Packet;
 import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
 import com.gllue.myproxy.transport.protocol.payload.WrappedPayloadPacket;
 import org.hamcrest.core.IsInstanceOf;
 import org.junit.Assert;
@@ -159,8 +163,9 @@ public class DirectTransferQueryResultReaderTest extends BaseCommandResultReader
       packet = frontendChannel.readOutbound();
       assertThat(packet, instanceOf(WrappedPayloadPacket.class));
       var wrappedPacket = (WrappedPayloadPacket) packet;
-      assertEquals(2, wrappedPacket.getPayload().getByteBuf().refCnt());
-      var columnDefPacket = new ColumnDefinition41Packet(wrappedPacket.getPayload(), false);
+      assertEquals(2, wrappedPacket.getByteBuf().refCnt());
+      var columnDefPacket =
+          new ColumnDefinition41Packet(new MySQLPayload(wrappedPacket.getByteBuf()), false);
       assertEquals(columnName, columnDefPacket.getName());
     }
 
@@ -170,14 +175,87 @@ public class DirectTransferQueryResultReaderTest extends BaseCommandResultReader
       packet = frontendChannel.readOutbound();
       assertThat(packet, instanceOf(WrappedPayloadPacket.class));
       var wrappedPacket = (WrappedPayloadPacket) packet;
-      assertEquals(2, wrappedPacket.getPayload().getByteBuf().refCnt());
-      var rowPacket = new TextResultSetRowPacket(wrappedPacket.getPayload(), columnCount);
+      assertEquals(2, wrappedPacket.getByteBuf().refCnt());
+      var rowPacket =
+          new TextResultSetRowPacket(new MySQLPayload(wrappedPacket.getByteBuf()), columnCount);
       assertArrayEquals(row, rowPacket.getRowData());
     }
 
     assertThat(frontendChannel.readOutbound(), instanceOf(EofPacket.class));
   }
 
+  @Test
+  public void testReadRowsFromEofDeprecatedBackend() {
+    backendConnection.setCapabilityFlags(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF.getValue());
+    var reader = prepareReader();
+    int columnCount = 2, rowCount = 3;
+    var columnNames = prepareRows(columnCount);
+    var rows = prepareRows(rowCount, columnCount);
+
+    reader.read(packetToPayload(new ColumnCountPacket(columnCount)));
+    for (var column : columnNames) {
+      assertFalse(reader.read(packetToPayload(newColumnDefPacket(column))));
+    }
+    for (var row : rows) {
+      assertFalse(reader.read(packetToPayload(newRowPacket(row))));
+    }
+    assertTrue(reader.read(packetToPayload(new EofOKPacket(0, 1))));
+
+    assertThat(frontendChannel.readOutbound(), instanceOf(ColumnCountPacket.class));
+    for (int i = 0; i < columnCount; i++) {
+      assertThat(frontendChannel.readOutbound(), instanceOf(WrappedPayloadPacket.class));
+    }
+    assertThat(frontendChannel.readOutbound(), instanceOf(EofPacket.class));
+    for (int i = 0; i < rowCount; i++) {
+      assertThat(frontendChannel.readOutbound(), instanceOf(WrappedPayloadPacket.class));
+    }
+    EofPacket eofPacket = frontendChannel.readOutbound();
+    assertEquals(1, eofPacket.getWarnings());
+  }
+
+  @Test
+  public void testPropagateBackendStatusFlagsToColumnEof() {
+    backendConnection.setCapabilityFlags(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF.getValue());
+    backendConnection.disableAutoCommit();
+    backendConnection.begin();
+    var reader = prepareReader();
+
+    reader.read(packetToPayload(new ColumnCountPacket(1)));
+    reader.read(packetToPayload(newColumnDefPacket("col")));
+
+    assertThat(frontendChannel.readOutbound(), instanceOf(ColumnCountPacket.class));
+    assertThat(frontendChannel.readOutbound(), instanceOf(WrappedPayloadPacket.class));
+    EofPacket eofPacket = frontendChannel.readOutbound();
+    assertEquals(MySQLStatusFlag.SERVER_STATUS_IN_TRANS.getValue(), eofPacket.getStatusFlags());
+  }
+
+  @Test
+  public void testReadRowsToEofDeprecatedFrontend() {
+    frontendConnection.setCapabilityFlags(MySQLCapabilityFlag.CLIENT_DEPRECATE_EOF.getValue());
+    var reader = prepareReader();
+    int columnCount = 2, rowCount = 3;
+    var columnNames = prepareRows(columnCount);
+    var rows = prepareRows(rowCount, columnCount);
+
+    reader.read(packetToPayload(new ColumnCountPacket(columnCount)));
+    for (var column : columnNames) {
+      assertFalse(reader.read(packetToPayload(newColumnDefPacket(column))));
+    }
+    assertFalse(reader.read(packetToPayload(new EofPacket())));
+    for (var row : rows) {
+      assertFalse(reader.read(packetToPayload(newRowPacket(row))));
+    }
+    assertTrue(reader.read(packetToPayload(new EofPacket(1, 2))));
+
+    assertThat(frontendChannel.readOutbound(), instanceOf(ColumnCountPacket.class));
+    for (int i = 0; i < columnCount + rowCount; i++) {
+      assertThat(frontendChannel.readOutbound(), instanceOf(WrappedPayloadPacket.class));
+    }
+    EofOKPacket eofOkPacket = frontendChannel.readOutbound();
+    assertEquals(1, eofOkPacket.getWarnings());
+    assertEquals(2, eofOkPacket.getStatusFlag());
+  }
+
   ColumnDefinition41Packet newColumnDefPacket(String name) {
     return new ColumnDefinition41Packet(
         "catalog",
@@ -0,0 +1,61 @@
+package com.gllue.myproxy.transport.backend.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Test;
+
+public class PreparedStatementCacheTest {
+  BackendPreparedStatement newStatement(int statementId) {
+    return new BackendPreparedStatement(statementId, List.of(), List.of());
+  }
+
+  @Test
+  public void testPutAndGet() {
+    var cache = new PreparedStatementCache();
+    var statement = newStatement(1);
+    assertTrue(cache.put("db", "select ?", statement).isEmpty());
+    assertSame(statement, cache.get("db", "select ?"));
+    assertNull(cache.get("db1", "select ?"));
+    assertNull(cache.get("db", "select 1"));
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() {
+    var cache = new PreparedStatementCache(2);
+    var statement1 = newStatement(1);
+    var statement2 = newStatement(2);
+    var statement3 = newStatement(3);
+    cache.put("db", "q1", statement1);
+    cache.put("db", "q2", statement2);
+    cache.get("db", "q1");
+
+    var evicted = cache.put("db", "q3", statement3);
+    assertEquals(List.of(statement2), evicted);
+    assertEquals(2, cache.size());
+    assertSame(statement1, cache.get("db", "q1"));
+    assertNull(cache.get("db", "q2"));
+  }
+
+  @Test
+  public void testReplaceStatement() {
+    var cache = new PreparedStatementCache();
+    var statement1 = newStatement(1);
+    var statement2 = newStatement(2);
+    cache.put("db", "q1", statement1);
+    assertEquals(List.of(statement1), cache.put("db", "q1", statement2));
+    assertSame(statement2, cache.get("db", "q1"));
+  }
+
+  @Test
+  public void testClear() {
+    var cache = new PreparedStatementCache();
+    cache.put("db", "q1", newStatement(1));
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertNull(cache.get("db", "q1"));
+  }
+}
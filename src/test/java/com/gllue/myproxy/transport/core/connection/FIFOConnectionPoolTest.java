@@ -104,6 +104,31 @@ public class FIFOConnectionPoolTest {
     assertEquals(poolSize, pool.getNumberOfCachedConnections());
   }
 
+  @Test
+  public void testDrainConnectionPool() {
+    mockFactory();
+
+    var pool = newConnectionPool(10);
+    var connections = new Connection[4];
+    for (int i = 0; i < connections.length; i++) {
+      connections[i] = pool.acquireConnection(null);
+    }
+    pool.releaseConnection(connections[0]);
+    pool.releaseConnection(connections[1]);
+    assertEquals(2, pool.getNumberOfCachedConnections());
+
+    assertEquals(2, pool.drain());
+    assertEquals(0, pool.getNumberOfCachedConnections());
+
+    pool.releaseConnection(connections[2]);
+    pool.releaseConnection(connections[3]);
+    assertEquals(0, pool.getNumberOfAcquiredConnections());
+    assertEquals(0, pool.getNumberOfCachedConnections());
+    for (var connection : connections) {
+      verify(((PooledConnection) connection).getPoolEntry().getConnection()).close();
+    }
+  }
+
   @Test
   public void testConcurrentAcquireAndReleaseConnection() throws InterruptedException {
     mockFactory();
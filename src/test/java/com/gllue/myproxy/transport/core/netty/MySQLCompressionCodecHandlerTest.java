@@ -0,0 +1,124 @@
+package com.gllue.myproxy.transport.core.netty;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.transport.BaseTransportTest;
+import com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.zip.Deflater;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MySQLCompressionCodecHandlerTest extends BaseTransportTest {
+  private static final int THRESHOLD = 50;
+
+  MySQLCompressionCodecHandler newHandler() {
+    return new MySQLCompressionCodecHandler(THRESHOLD, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  ByteBuf newPacket(final int sequenceId, final byte[] payload) {
+    var buf = Unpooled.buffer();
+    buf.writeMediumLE(payload.length);
+    buf.writeByte(sequenceId);
+    buf.writeBytes(payload);
+    return buf;
+  }
+
+  @Test
+  public void testCompress() {
+    var payload = "select * from table_name where id = 1; ".repeat(100).getBytes();
+    var packet = newPacket(0, payload);
+    var expected = transformByteBufToBytes(packet.duplicate());
+
+    var encoder = new EmbeddedChannel(newHandler());
+    encoder.writeOutbound(packet);
+    ByteBuf frame = encoder.readOutbound();
+    var compressedLength = frame.getUnsignedMediumLE(0);
+    assertEquals(0, frame.getUnsignedByte(3));
+    assertEquals(expected.length, frame.getUnsignedMediumLE(4));
+    assertTrue(compressedLength < expected.length);
+
+    var decoder = new EmbeddedChannel(newHandler());
+    decoder.writeInbound(frame);
+    ByteBuf decoded = decoder.readInbound();
+    assertArrayEquals(expected, transformByteBufToBytes(decoded));
+    decoded.release();
+
+    encoder.finish();
+    decoder.finish();
+  }
+
+  @Test
+  public void testSkipCompressSmallPacket() {
+    var payload = "select 1".getBytes();
+    var packet = newPacket(0, payload);
+    var expected = transformByteBufToBytes(packet.duplicate());
+
+    var encoder = new EmbeddedChannel(newHandler());
+    encoder.writeOutbound(packet);
+    ByteBuf frame = encoder.readOutbound();
+    assertEquals(expected.length, frame.readUnsignedMediumLE());
+    assertEquals(0, frame.readUnsignedByte());
+    assertEquals(0, frame.readUnsignedMediumLE());
+    assertArrayEquals(expected, transformByteBufToBytes(frame));
+    frame.release();
+
+    encoder.finish();
+  }
+
+  @Test
+  public void testSequenceId() {
+    var channel = new EmbeddedChannel(newHandler());
+
+    var request = Unpooled.buffer();
+    var packet = newPacket(0, "select 1".getBytes());
+    request.writeMediumLE(packet.readableBytes());
+    request.writeByte(0);
+    request.writeMediumLE(0);
+    request.writeBytes(packet);
+    channel.writeInbound(request);
+    ((ByteBuf) channel.readInbound()).release();
+
+    // The response continues the sequence id of the request.
+    for (int i = 1; i <= 3; i++) {
+      channel.writeOutbound(newPacket(i, "ok".getBytes()));
+      ByteBuf frame = channel.readOutbound();
+      assertEquals(i, frame.getUnsignedByte(3));
+      frame.release();
+    }
+
+    // The sequence id is reset by a new command.
+    channel.writeOutbound(newPacket(0, "select 1".getBytes()));
+    ByteBuf frame = channel.readOutbound();
+    assertEquals(0, frame.getUnsignedByte(3));
+    frame.release();
+
+    channel.finish();
+  }
+
+  @Test
+  public void testCompressWithPayloadCodec() {
+    var query = "select * from table_name where id in (" + "1, ".repeat(1000) + "1)";
+    var encoder = new EmbeddedChannel(newHandler(), new MySQLPayloadCodecHandler());
+    var decoder = new EmbeddedChannel(newHandler(), new MySQLPayloadCodecHandler());
+
+    encoder.writeOutbound(new QueryCommandPacket(query));
+    ByteBuf frame = encoder.readOutbound();
+    decoder.writeInbound(frame);
+
+    MySQLPayload payload = decoder.readInbound();
+    var packet = new QueryCommandPacket(payload);
+    assertEquals(query, packet.getQuery());
+    payload.close();
+
+    encoder.finish();
+    decoder.finish();
+  }
+}
@@ -0,0 +1,99 @@
+package com.gllue.myproxy.transport.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.transport.backend.datasource.BackendDataSource;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import java.net.InetSocketAddress;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackendHealthCheckerTest {
+  static final InetSocketAddress PRIMARY = InetSocketAddress.createUnresolved("primary", 3306);
+  static final InetSocketAddress STANDBY = InetSocketAddress.createUnresolved("standby", 3306);
+
+  @Mock ConnectionPool pool;
+  @Mock ThreadPool threadPool;
+
+  BackendDataSource newDataSource(InetSocketAddress standby) {
+    return new BackendDataSource("ds", PRIMARY, standby, "user", "password", null, List.of());
+  }
+
+  BackendHealthChecker newChecker(BackendDataSource dataSource) {
+    return new BackendHealthChecker(dataSource, pool, threadPool, 1000, 500, 8000, 3, 2);
+  }
+
+  @Test
+  public void testMarkUnavailableAndRecover() {
+    var dataSource = newDataSource(null);
+    var checker = newChecker(dataSource);
+
+    assertEquals(1000, checker.onCheckFailed());
+    assertEquals(1000, checker.onCheckFailed());
+    assertTrue(dataSource.isAvailable());
+
+    assertEquals(1000, checker.onCheckFailed());
+    assertFalse(dataSource.isAvailable());
+    verify(pool).drain();
+
+    // backoff exponentially.
+    assertEquals(2000, checker.onCheckFailed());
+    assertEquals(4000, checker.onCheckFailed());
+    assertEquals(8000, checker.onCheckFailed());
+    assertEquals(8000, checker.onCheckFailed());
+    assertFalse(dataSource.isAvailable());
+
+    assertEquals(1000, checker.onCheckSucceeded());
+    assertFalse(dataSource.isAvailable());
+    assertEquals(1000, checker.onCheckSucceeded());
+    assertTrue(dataSource.isAvailable());
+  }
+
+  @Test
+  public void testFailoverToStandby() {
+    var dataSource = newDataSource(STANDBY);
+    var checker = newChecker(dataSource);
+
+    for (int i = 0; i < 3; i++) {
+      checker.onCheckFailed();
+    }
+    assertTrue(dataSource.isAvailable());
+    assertEquals(STANDBY, dataSource.getActiveSocketAddress());
+    verify(pool).drain();
+
+    checker.onCheckSucceeded();
+    for (int i = 0; i < 3; i++) {
+      checker.onCheckFailed();
+    }
+    assertTrue(dataSource.isAvailable());
+    assertEquals(PRIMARY, dataSource.getActiveSocketAddress());
+    verify(pool, times(2)).drain();
+  }
+
+  @Test
+  public void testBothEndpointsUnavailable() {
+    var dataSource = newDataSource(STANDBY);
+    var checker = newChecker(dataSource);
+
+    for (int i = 0; i < 3; i++) {
+      checker.onCheckFailed();
+    }
+    assertTrue(dataSource.isAvailable());
+    assertEquals(STANDBY, dataSource.getActiveSocketAddress());
+
+    for (int i = 0; i < 3; i++) {
+      checker.onCheckFailed();
+    }
+    assertFalse(dataSource.isAvailable());
+    assertEquals(PRIMARY, dataSource.getActiveSocketAddress());
+  }
+}
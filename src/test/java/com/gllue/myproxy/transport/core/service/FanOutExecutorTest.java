@@ -0,0 +1,172 @@
+package com.gllue.myproxy.transport.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Callback;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.transport.core.service.FanOutExecutor.AuxiliaryConnection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FanOutExecutorTest {
+  static final List<String> QUERIES = List.of("query0", "query1", "query2");
+
+  /** An executor whose queries are completed by the test. */
+  static class PendingExecutor implements AuxiliaryConnection {
+    final List<String> queries = new ArrayList<>();
+    final Map<String, Callback<CommandResult>> callbacks = new HashMap<>();
+    int releaseCount = 0;
+
+    @Override
+    public Promise<CommandResult> execute(String query) {
+      queries.add(query);
+      return new Promise<>((cb) -> callbacks.put(query, cb));
+    }
+
+    @Override
+    public void release() {
+      releaseCount++;
+    }
+
+    void succeed(String query) {
+      callbacks.get(query).onSuccess(newResult(query));
+    }
+
+    void fail(String query, Throwable e) {
+      callbacks.get(query).onFailure(e);
+    }
+  }
+
+  static CommandResult newResult(String query) {
+    return new CommandResult(0, 0, 0, 0, query, null);
+  }
+
+  <T> void watch(
+      Promise<T> promise, AtomicReference<T> result, AtomicReference<Throwable> exception) {
+    promise.then(
+        (v) -> {
+          result.set(v);
+          return true;
+        },
+        (e) -> {
+          exception.set(e);
+          return false;
+        });
+  }
+
+  @Test
+  public void testResultsInOrderOfQueries() {
+    var bound = new PendingExecutor();
+    var auxiliary = new PendingExecutor();
+    var result = new AtomicReference<List<CommandResult>>();
+    var exception = new AtomicReference<Throwable>();
+    watch(
+        new FanOutExecutor(QUERIES)
+            .execute(bound::execute, 2, () -> Promise.emptyPromise(auxiliary)),
+        result,
+        exception);
+
+    assertEquals(List.of("query0"), bound.queries);
+    assertEquals(List.of("query1"), auxiliary.queries);
+
+    // The queries of the auxiliary connection are completed before the bound connection.
+    auxiliary.succeed("query1");
+    auxiliary.succeed("query2");
+    assertEquals(List.of("query1", "query2"), auxiliary.queries);
+    assertEquals(1, auxiliary.releaseCount);
+    assertNull(result.get());
+
+    bound.succeed("query0");
+    assertNull(exception.get());
+    assertEquals(QUERIES.size(), result.get().size());
+    for (int i = 0; i < QUERIES.size(); i++) {
+      assertEquals(QUERIES.get(i), result.get().get(i).getInfo());
+    }
+  }
+
+  @Test
+  public void testPropagateFirstFailure() {
+    var bound = new PendingExecutor();
+    var auxiliary = new PendingExecutor();
+    var result = new AtomicReference<List<CommandResult>>();
+    var exception = new AtomicReference<Throwable>();
+    watch(
+        new FanOutExecutor(QUERIES)
+            .execute(bound::execute, 2, () -> Promise.emptyPromise(auxiliary)),
+        result,
+        exception);
+
+    var firstFailure = new RuntimeException("first");
+    auxiliary.fail("query1", firstFailure);
+    // The remaining queries are not executed after a failure.
+    assertEquals(List.of("query1"), auxiliary.queries);
+    assertEquals(1, auxiliary.releaseCount);
+    // Wait for the query of the bound connection.
+    assertNull(exception.get());
+
+    bound.fail("query0", new RuntimeException("second"));
+    assertEquals(List.of("query0"), bound.queries);
+    assertNull(result.get());
+    assertSame(firstFailure, exception.get());
+  }
+
+  @Test
+  public void testFallbackToBoundConnection() {
+    var bound = new PendingExecutor();
+    var borrowCount = new AtomicInteger();
+    var result = new AtomicReference<List<CommandResult>>();
+    var exception = new AtomicReference<Throwable>();
+    watch(
+        new FanOutExecutor(QUERIES)
+            .execute(
+                bound::execute,
+                3,
+                () -> {
+                  // Nothing can be borrowed at first, then the connection cannot be prepared.
+                  if (borrowCount.getAndIncrement() == 0) {
+                    return null;
+                  }
+                  return new Promise<>((cb) -> cb.onFailure(new RuntimeException("prepare")));
+                }),
+        result,
+        exception);
+
+    assertEquals(2, borrowCount.get());
+    for (var query : QUERIES) {
+      bound.succeed(query);
+    }
+    assertEquals(QUERIES, bound.queries);
+    assertNull(exception.get());
+    assertEquals(QUERIES.size(), result.get().size());
+    for (int i = 0; i < QUERIES.size(); i++) {
+      assertEquals(QUERIES.get(i), result.get().get(i).getInfo());
+    }
+  }
+
+  @Test
+  public void testParallelismLimitedByQueries() {
+    var bound = new PendingExecutor();
+    var borrowCount = new AtomicInteger();
+    new FanOutExecutor(List.of("query0"))
+        .execute(
+            bound::execute,
+            4,
+            () -> {
+              borrowCount.incrementAndGet();
+              return null;
+            });
+    assertEquals(0, borrowCount.get());
+    assertEquals(List.of("query0"), bound.queries);
+  }
+}
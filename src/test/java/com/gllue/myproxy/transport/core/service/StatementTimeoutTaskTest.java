@@ -0,0 +1,65 @@
+package com.gllue.myproxy.transport.core.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gllue.myproxy.transport.backend.command.CommandResultReader;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.core.connection.Connection;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool.PoolEntry;
+import com.gllue.myproxy.transport.core.connection.PooledConnection;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StatementTimeoutTaskTest {
+  static final String DATASOURCE = "ds";
+
+  @Mock ConnectionPool pool;
+  @Mock CommandResultReader reader;
+  @Mock BackendConnection backendConnection;
+
+  @Mock(extraInterfaces = BackendConnection.class)
+  PooledConnection pooledConnection;
+
+  @Mock PoolEntry poolEntry;
+  @Mock Connection physicalConnection;
+
+  void mockKillFailed() {
+    when(pool.tryAcquireConnection(null)).thenThrow(new IllegalStateException("pool is closed"));
+  }
+
+  @Test
+  public void testCloseBackendConnectionIfKillFailed() {
+    mockKillFailed();
+    new StatementTimeoutTask(DATASOURCE, pool, backendConnection, reader, 100).run();
+    verify(reader).interrupt(any(StatementTimeoutException.class));
+    verify(backendConnection).close();
+  }
+
+  @Test
+  public void testClosePhysicalConnectionOfPooledConnectionIfKillFailed() {
+    mockKillFailed();
+    when(pooledConnection.getPoolEntry()).thenReturn(poolEntry);
+    when(poolEntry.getConnection()).thenReturn(physicalConnection);
+    new StatementTimeoutTask(DATASOURCE, pool, (BackendConnection) pooledConnection, reader, 100)
+        .run();
+    // The pooled connection must not be released to the pool while the query is running.
+    verify(pooledConnection, never()).close();
+    verify(physicalConnection).close();
+  }
+
+  @Test
+  public void testIgnoreCompletedCommand() {
+    when(reader.isReadCompleted()).thenReturn(true);
+    new StatementTimeoutTask(DATASOURCE, pool, backendConnection, reader, 100).run();
+    verify(reader, never()).interrupt(any());
+    verify(pool, never()).tryAcquireConnection(any());
+    verify(backendConnection, never()).close();
+  }
+}
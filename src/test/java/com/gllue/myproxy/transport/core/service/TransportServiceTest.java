@@ -0,0 +1,98 @@
+package com.gllue.myproxy.transport.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.gllue.myproxy.command.result.CommandResult;
+import com.gllue.myproxy.common.Promise;
+import com.gllue.myproxy.common.concurrent.ThreadPool;
+import com.gllue.myproxy.config.Configurations;
+import com.gllue.myproxy.transport.BaseTransportTest;
+import com.gllue.myproxy.transport.backend.command.CommandResultReader;
+import com.gllue.myproxy.transport.backend.connection.BackendConnection;
+import com.gllue.myproxy.transport.frontend.connection.FrontendConnection;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext;
+import com.gllue.myproxy.transport.protocol.packet.command.CommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.command.QueryCommandPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.OKPacket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TransportServiceTest extends BaseTransportTest {
+  @Mock Configurations configurations;
+  @Mock ThreadPool threadPool;
+  @Mock FrontendConnection frontendConnection;
+  @Mock SessionContext sessionContext;
+  @Mock BackendConnection backendConnection;
+
+  TransportService transportService;
+  final List<String> sentQueries = new ArrayList<>();
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    transportService = new TransportService(configurations, threadPool);
+    when(frontendConnection.getSessionContext()).thenReturn(sessionContext);
+  }
+
+  /** The commands sent to the backend connection succeed immediately. */
+  void mockBackendConnection() {
+    doAnswer(
+            (invocation) -> {
+              QueryCommandPacket packet = invocation.getArgument(0);
+              CommandResultReader reader = invocation.getArgument(1);
+              sentQueries.add(packet.getQuery());
+              reader.read(packetToPayload(new OKPacket()));
+              reader.fireReadCompletedEvent();
+              return null;
+            })
+        .when(backendConnection)
+        .sendCommand(any(CommandPacket.class), any(CommandResultReader.class));
+  }
+
+  Throwable failureOf(final Promise<CommandResult> promise) {
+    var exception = new AtomicReference<Throwable>();
+    promise.doCatch(
+        (e) -> {
+          exception.set(e);
+          return null;
+        });
+    return exception.get();
+  }
+
+  @Test
+  public void testRestoreAutoCommitAndSessionVariables() {
+    mockBackendConnection();
+    when(frontendConnection.isAutoCommit()).thenReturn(false);
+    when(backendConnection.isAutoCommit()).thenReturn(true);
+    when(sessionContext.getSessionVariablesQuery()).thenReturn("SET time_zone = '+08:00'");
+
+    var promise = transportService.restoreSessionState(frontendConnection, backendConnection);
+    assertNull(failureOf(promise));
+    assertEquals(List.of("SET AUTOCOMMIT = false", "SET time_zone = '+08:00'"), sentQueries);
+    verify(backendConnection).disableAutoCommit();
+  }
+
+  @Test
+  public void testRestoreNothingWithoutSessionState() {
+    when(frontendConnection.isAutoCommit()).thenReturn(true);
+    when(backendConnection.isAutoCommit()).thenReturn(true);
+
+    var promise = transportService.restoreSessionState(frontendConnection, backendConnection);
+    assertNull(failureOf(promise));
+    verify(backendConnection, never())
+        .sendCommand(any(CommandPacket.class), any(CommandResultReader.class));
+  }
+}
@@ -0,0 +1,68 @@
+package com.gllue.myproxy.transport.core.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.gllue.myproxy.transport.backend.datasource.ReplicaDataSource;
+import com.gllue.myproxy.transport.core.connection.ConnectionPool;
+import com.gllue.myproxy.transport.core.service.WeightedReplicaPools.ReplicaPool;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WeightedReplicaPoolsTest {
+  @Mock ConnectionPool pool1;
+  @Mock ConnectionPool pool2;
+  @Mock ConnectionPool pool3;
+
+  private int replicaIndex = 0;
+
+  ReplicaDataSource replica(int weight) {
+    return new ReplicaDataSource("ds", replicaIndex++, weight, null, "user", "password", null);
+  }
+
+  @Test
+  public void testSelectByWeight() {
+    var replicaPools =
+        new WeightedReplicaPools(
+            List.of(
+                new ReplicaPool(replica(2), pool1),
+                new ReplicaPool(replica(1), pool2),
+                new ReplicaPool(replica(3), pool3)));
+    assertEquals(pool1, replicaPools.select(0).getPool());
+    assertEquals(pool1, replicaPools.select(1).getPool());
+    assertEquals(pool2, replicaPools.select(2).getPool());
+    assertEquals(pool3, replicaPools.select(3).getPool());
+    assertEquals(pool3, replicaPools.select(5).getPool());
+  }
+
+  @Test
+  public void testSkipUnavailableReplicas() {
+    var replica1 = replica(2);
+    var replica2 = replica(1);
+    var replicaPools =
+        new WeightedReplicaPools(
+            List.of(new ReplicaPool(replica1, pool1), new ReplicaPool(replica2, pool2)));
+    replica1.setAvailable(false);
+    assertEquals(pool2, replicaPools.select(0).getPool());
+    assertEquals(pool2, replicaPools.select(2).getPool());
+
+    replica2.setAvailable(false);
+    assertNull(replicaPools.select(0));
+    assertNull(replicaPools.select());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSelectOutOfTotalWeight() {
+    var replicaPools = new WeightedReplicaPools(List.of(new ReplicaPool(replica(2), pool1)));
+    replicaPools.select(2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testEmptyReplicaPools() {
+    new WeightedReplicaPools(List.of());
+  }
+}
@@ -0,0 +1,64 @@
+package com.gllue.myproxy.transport.frontend.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.transport.frontend.connection.ConnectionStats.Phase;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ConnectionStatsTest {
+
+  @Test
+  public void testPhases() {
+    var stats = new ConnectionStats();
+    assertEquals(Phase.IDLE, stats.getPhase());
+    assertNull(stats.getStatement());
+
+    stats.statementReceived("select 1");
+    assertEquals(Phase.QUEUED, stats.getPhase());
+    assertEquals("select 1", stats.getStatement());
+
+    stats.enterPhase(Phase.EXECUTING);
+    stats.enterPhase(Phase.BACKEND);
+    assertEquals(Phase.BACKEND, stats.getPhase());
+
+    stats.statementCompleted();
+    assertEquals(Phase.IDLE, stats.getPhase());
+    assertEquals("select 1", stats.getStatement());
+  }
+
+  @Test
+  public void testTraffic() {
+    var stats = new ConnectionStats();
+    stats.bytesReceived(10);
+    stats.bytesReceived(5);
+    stats.bytesSent(100);
+    stats.rowsReceived(3);
+    stats.rowsReceived(4);
+    stats.rowsSent(7);
+    assertEquals(15, stats.getBytesReceived());
+    assertEquals(100, stats.getBytesSent());
+    assertEquals(7, stats.getRowsReceived());
+    assertEquals(7, stats.getRowsSent());
+  }
+
+  @Test
+  public void testBlockedTime() throws InterruptedException {
+    var stats = new ConnectionStats();
+    assertEquals(0, stats.getBlockedNanos());
+
+    stats.writabilityChanged(false);
+    Thread.sleep(10);
+    assertTrue(stats.getBlockedNanos() > 0);
+
+    stats.writabilityChanged(true);
+    var blockedNanos = stats.getBlockedNanos();
+    assertTrue(blockedNanos >= 10_000_000);
+    Thread.sleep(10);
+    assertEquals(blockedNanos, stats.getBlockedNanos());
+  }
+}
@@ -0,0 +1,47 @@
+package com.gllue.myproxy.transport.frontend.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.transport.core.connection.Connection;
+import com.gllue.myproxy.transport.frontend.connection.SessionContext.BoundState;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SessionContextImplTest {
+  @Mock Connection connection;
+
+  @Test
+  public void testSessionVariables() {
+    var context = new SessionContextImpl(connection);
+    assertNull(context.getSessionVariablesQuery());
+    assertFalse(context.hasSessionState());
+
+    context.setSessionVariable("TIME_ZONE", "time_zone = '+08:00'");
+    context.setSessionVariable("@A", "@a = 1");
+    context.setSessionVariable("TIME_ZONE", "time_zone = '+00:00'");
+    assertTrue(context.hasSessionState());
+    assertEquals("SET @a = 1, time_zone = '+00:00'", context.getSessionVariablesQuery());
+  }
+
+  @Test
+  public void testBoundStates() {
+    var context = new SessionContextImpl(connection);
+    assertEquals(Set.of(), context.getBoundStates());
+
+    context.addBoundState(BoundState.TABLE_LOCK);
+    context.addBoundState(BoundState.TEMPORARY_TABLE);
+    assertTrue(context.hasSessionState());
+    assertEquals(
+        Set.of(BoundState.TABLE_LOCK, BoundState.TEMPORARY_TABLE), context.getBoundStates());
+
+    context.removeBoundState(BoundState.TABLE_LOCK);
+    assertEquals(Set.of(BoundState.TEMPORARY_TABLE), context.getBoundStates());
+  }
+}
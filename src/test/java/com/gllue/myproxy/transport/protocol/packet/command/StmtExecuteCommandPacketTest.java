@@ -0,0 +1,127 @@
+package com.gllue.myproxy.transport.protocol.packet.command;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import com.gllue.myproxy.transport.BaseTransportTest;
+import com.gllue.myproxy.transport.constant.MySQLColumnType;
+import com.gllue.myproxy.transport.constant.MySQLCommandPacketType;
+import com.gllue.myproxy.transport.exception.UnknownPreparedStatementException;
+import com.gllue.myproxy.transport.frontend.connection.FrontendPreparedStatement;
+import com.gllue.myproxy.transport.protocol.payload.MySQLPayload;
+import java.sql.Timestamp;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StmtExecuteCommandPacketTest extends BaseTransportTest {
+  static final int STATEMENT_ID = 1;
+
+  FrontendPreparedStatement newStatement(int parameterCount) {
+    return new FrontendPreparedStatement(
+        STATEMENT_ID, "query", parameterCount, true, "db", null, 0, "query");
+  }
+
+  StmtExecuteCommandPacket readPacket(MySQLPayload payload, FrontendPreparedStatement statement) {
+    return new StmtExecuteCommandPacket(
+        payload, (id) -> id == statement.getStatementId() ? statement : null);
+  }
+
+  @Test
+  public void testReadWrite() {
+    var types =
+        new int[] {
+          MySQLColumnType.MYSQL_TYPE_LONG.getValue(),
+          MySQLColumnType.MYSQL_TYPE_LONGLONG.getValue() | 0x8000,
+          MySQLColumnType.MYSQL_TYPE_VAR_STRING.getValue(),
+          MySQLColumnType.MYSQL_TYPE_NULL.getValue(),
+          MySQLColumnType.MYSQL_TYPE_DOUBLE.getValue(),
+          MySQLColumnType.MYSQL_TYPE_DATETIME.getValue(),
+          MySQLColumnType.MYSQL_TYPE_BLOB.getValue(),
+          MySQLColumnType.MYSQL_TYPE_VAR_STRING.getValue(),
+          MySQLColumnType.MYSQL_TYPE_TINY.getValue()
+        };
+    var values =
+        new Object[] {
+          -10,
+          1L << 40,
+          "abc",
+          null,
+          1.5,
+          Timestamp.valueOf("2021-06-01 12:30:45.123456"),
+          new byte[] {0, 1, 2},
+          null,
+          1
+        };
+    var packet =
+        new StmtExecuteCommandPacket(
+            STATEMENT_ID, StmtExecuteCommandPacket.CURSOR_TYPE_NO_CURSOR, types, values);
+    var payload = createEmptyPayload();
+    packet.write(payload);
+
+    var newPacket = readPacket(payload, newStatement(types.length));
+    assertThat(newPacket.getStatementId(), equalTo(STATEMENT_ID));
+    assertThat(newPacket.isNewParametersBound(), equalTo(true));
+    assertArrayEquals(types, newPacket.getParameterTypes());
+    assertThat(newPacket.getParameterColumnType(1), equalTo(MySQLColumnType.MYSQL_TYPE_LONGLONG));
+    var newValues = newPacket.getParameterValues();
+    assertThat(newValues[0], equalTo(-10));
+    assertThat(newValues[1], equalTo(1L << 40));
+    assertThat(newValues[2], equalTo("abc"));
+    assertNull(newValues[3]);
+    assertThat(newValues[4], equalTo(1.5));
+    assertThat(newValues[5], equalTo(Timestamp.valueOf("2021-06-01 12:30:45.123456")));
+    assertArrayEquals(new byte[] {0, 1, 2}, (byte[]) newValues[6]);
+    assertNull(newValues[7]);
+    assertThat(newValues[8], equalTo(1));
+  }
+
+  @Test
+  public void testReadWithBoundParameterTypes() {
+    var types = new int[] {MySQLColumnType.MYSQL_TYPE_LONG.getValue()};
+    var statement = newStatement(1);
+    statement.bindParameterTypes(types);
+
+    var payload = createEmptyPayload();
+    payload.writeInt1(MySQLCommandPacketType.COM_STMT_EXECUTE.getValue());
+    payload.writeInt4(STATEMENT_ID);
+    payload.writeInt1(0);
+    payload.writeInt4(1);
+    payload.writeInt1(0);
+    payload.writeInt1(0);
+    payload.writeInt4(100);
+
+    var packet = readPacket(payload, statement);
+    assertThat(packet.isNewParametersBound(), equalTo(false));
+    assertArrayEquals(types, packet.getParameterTypes());
+    assertThat(packet.getParameterValues()[0], equalTo(100));
+  }
+
+  @Test
+  public void testReadWithoutParameters() {
+    var packet =
+        new StmtExecuteCommandPacket(
+            STATEMENT_ID,
+            StmtExecuteCommandPacket.CURSOR_TYPE_NO_CURSOR,
+            new int[0],
+            new Object[0]);
+    var payload = createEmptyPayload();
+    packet.write(payload);
+
+    var newPacket = readPacket(payload, newStatement(0));
+    assertThat(newPacket.getParameterCount(), equalTo(0));
+  }
+
+  @Test(expected = UnknownPreparedStatementException.class)
+  public void testReadUnknownStatement() {
+    var packet =
+        new StmtExecuteCommandPacket(
+            2, StmtExecuteCommandPacket.CURSOR_TYPE_NO_CURSOR, new int[0], new Object[0]);
+    var payload = createEmptyPayload();
+    packet.write(payload);
+    readPacket(payload, newStatement(0));
+  }
+}
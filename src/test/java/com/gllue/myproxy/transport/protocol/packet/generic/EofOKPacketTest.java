@@ -0,0 +1,50 @@
+package com.gllue.myproxy.transport.protocol.packet.generic;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.gllue.myproxy.transport.BaseTransportTest;
+import com.gllue.myproxy.transport.constant.MySQLStatusFlag;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EofOKPacketTest extends BaseTransportTest {
+  @Test
+  public void testWrite() {
+    var packet =
+        new EofOKPacket(1, 2, MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT.getValue(), 3, "info");
+    var payload = createEmptyPayload();
+    packet.write(payload);
+    assertTrue(EofOKPacket.match(payload));
+    var newPacket = new EofOKPacket(payload);
+
+    assertThat(newPacket.getAffectedRows(), equalTo(packet.getAffectedRows()));
+    assertThat(newPacket.getLastInsertId(), equalTo(packet.getLastInsertId()));
+    assertThat(newPacket.getStatusFlag(), equalTo(packet.getStatusFlag()));
+    assertThat(newPacket.getWarnings(), equalTo(packet.getWarnings()));
+    assertThat(newPacket.getInfo(), equalTo(packet.getInfo()));
+  }
+
+  @Test
+  public void testConvertEofPacket() {
+    var eofPacket = new EofPacket(1, MySQLStatusFlag.SERVER_STATUS_AUTOCOMMIT.getValue());
+    var packet = EofOKPacket.fromEofPacket(eofPacket);
+    assertThat(packet.getWarnings(), equalTo(eofPacket.getWarnings()));
+    assertThat(packet.getStatusFlag(), equalTo(eofPacket.getStatusFlags()));
+
+    var newEofPacket = packet.toEofPacket();
+    assertThat(newEofPacket.getWarnings(), equalTo(eofPacket.getWarnings()));
+    assertThat(newEofPacket.getStatusFlags(), equalTo(eofPacket.getStatusFlags()));
+  }
+
+  @Test
+  public void testNotMatchEofPacket() {
+    var payload = createEmptyPayload();
+    new EofPacket().write(payload);
+    assertFalse(EofOKPacket.match(payload));
+  }
+}
@@ -0,0 +1,55 @@
+package com.gllue.myproxy.transport.protocol.packet.query;
+
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import com.gllue.myproxy.transport.BaseTransportTest;
+import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
+import com.gllue.myproxy.transport.protocol.packet.query.ResultPacketClassifier.ResultPacketType;
+import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ResultPacketClassifierTest extends BaseTransportTest {
+  @Test
+  public void testClassifyRow() {
+    var payload = packetToPayload(new TextResultSetRowPacket(new String[] {"abc", "1"}));
+    assertEquals(ResultPacketType.DATA, ResultPacketClassifier.classify(payload, false));
+    assertEquals(ResultPacketType.DATA, ResultPacketClassifier.classify(payload, true));
+    assertNull(ResultPacketClassifier.newPacket(payload, ResultPacketType.DATA));
+
+    var emptyPayload = createEmptyPayload();
+    assertEquals(ResultPacketType.DATA, ResultPacketClassifier.classify(emptyPayload, false));
+  }
+
+  @Test
+  public void testClassifyErrPacket() {
+    var payload = packetToPayload(new ErrPacket(MySQLServerErrorCode.ER_NO_DB_ERROR));
+    var type = ResultPacketClassifier.classify(payload, true);
+    assertEquals(ResultPacketType.ERR, type);
+    assertThat(ResultPacketClassifier.newPacket(payload, type), instanceOf(ErrPacket.class));
+  }
+
+  @Test
+  public void testClassifyEofPacket() {
+    var payload = packetToPayload(new EofPacket());
+    var type = ResultPacketClassifier.classify(payload, false);
+    assertEquals(ResultPacketType.EOF, type);
+    assertThat(ResultPacketClassifier.newPacket(payload, type), instanceOf(EofPacket.class));
+  }
+
+  @Test
+  public void testClassifyEofOkPacket() {
+    var payload = packetToPayload(new EofOKPacket(0, 0));
+    var type = ResultPacketClassifier.classify(payload, true);
+    assertEquals(ResultPacketType.EOF_OK, type);
+    assertThat(ResultPacketClassifier.newPacket(payload, type), instanceOf(EofOKPacket.class));
+  }
+}
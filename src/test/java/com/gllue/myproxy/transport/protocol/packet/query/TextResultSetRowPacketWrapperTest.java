@@ -8,6 +8,8 @@ import static org.junit.Assert.assertTrue;
 
 import com.gllue.myproxy.transport.BaseTransportTest;
 import com.gllue.myproxy.transport.exception.MySQLServerErrorCode;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofOKPacket;
+import com.gllue.myproxy.transport.protocol.packet.generic.EofPacket;
 import com.gllue.myproxy.transport.protocol.packet.generic.ErrPacket;
 import com.gllue.myproxy.transport.protocol.packet.query.text.TextResultSetRowPacket;
 import java.util.ArrayList;
@@ -39,4 +41,22 @@ public class TextResultSetRowPacketWrapperTest extends BaseTransportTest {
     assertNotNull(wrapper);
     assertTrue(wrapper.isErrPacket());
   }
+
+  @Test
+  public void testWrappedEofOkPacket() {
+    var payload = createEmptyPayload();
+    new EofOKPacket(0, 0).write(payload);
+    var wrapper = TextResultSetRowPacketWrapper.newInstance(payload, 1, true);
+    assertTrue(wrapper.isEofOkPacket());
+    assertFalse(wrapper.isEofPacket());
+  }
+
+  @Test
+  public void testWrappedEofPacket() {
+    var payload = createEmptyPayload();
+    new EofPacket().write(payload);
+    var wrapper = TextResultSetRowPacketWrapper.newInstance(payload, 1, false);
+    assertTrue(wrapper.isEofPacket());
+    assertFalse(wrapper.isEofOkPacket());
+  }
 }
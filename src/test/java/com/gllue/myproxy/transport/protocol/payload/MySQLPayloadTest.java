@@ -2,10 +2,12 @@ package com.gllue.myproxy.transport.protocol.payload;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import com.gllue.myproxy.common.util.RandomUtils;
 import com.gllue.myproxy.transport.BaseTransportTest;
+import io.netty.buffer.Unpooled;
 import io.netty.util.CharsetUtil;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -97,6 +99,29 @@ public class MySQLPayloadTest extends BaseTransportTest {
     assertEquals(stringEof, payload.readStringEOF());
   }
 
+  @Test
+  public void testPooledPayload() {
+    var byteBuf = Unpooled.buffer();
+    var payload = MySQLPayload.newInstance(byteBuf);
+    payload.writeInt4(1000);
+    assertEquals(1000, payload.readInt4());
+    payload.close();
+    assertEquals(0, byteBuf.refCnt());
+
+    // The recycled payload is reset before it's reused.
+    var another = MySQLPayload.newInstance(Unpooled.buffer());
+    assertFalse(another.isClosed());
+    assertEquals(0, another.readableBytes());
+    another.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCloseRecycledPayload() {
+    var payload = MySQLPayload.newInstance(Unpooled.buffer());
+    payload.close();
+    payload.close();
+  }
+
   private MySQLPayload preparePayload() {
     return createEmptyPayload();
   }